@@ -170,6 +170,8 @@ public abstract class AssertionCleartkAnalysisEngine extends
    protected List<FeatureExtractor1<IdentifiedAnnotation>> entityFeatureExtractors;
    protected List<FeatureExtractor1<IdentifiedAnnotation>> entityTreeExtractors;
    protected CleartkExtractor<IdentifiedAnnotation, BaseToken> cuePhraseInWindowExtractor;
+   // token extraction set up by initialize, to tell whether a subclass has changed the token extractors
+   private CleartkExtractor<IdentifiedAnnotation, BaseToken> defaultTokenExtraction;
 
 
    protected List<FeatureFunctionExtractor<IdentifiedAnnotation>> featureFunctionExtractors = new ArrayList<>();
@@ -263,6 +265,7 @@ public abstract class AssertionCleartkAnalysisEngine extends
             );
 
       this.tokenCleartkExtractors.add( tokenExtraction1 );
+      defaultTokenExtraction = tokenExtraction1;
 //    this.tokenCleartkExtractors.add(posExtraction1);
 
 //    this.contextFeatureExtractors.add(new CleartkExtractor(IdentifiedAnnotation.class,
@@ -309,29 +312,7 @@ public abstract class AssertionCleartkAnalysisEngine extends
 
    @Override
    public void process( JCas jCas ) throws AnalysisEngineProcessException {
-      String documentId = DocumentIDAnnotationUtil.getDocumentID( jCas );
-      String domainId = "";
-      String domainFeature = null;
-
-      if ( this.featureFunctionExtractors.size() <= 0 ) {
-         this.ffDomainAdaptor = null;
-      }
-
-      if ( documentId != null ) {
-         logger.debug( "processing next doc: " + documentId );
-         // set the domain to be FeatureFunction'ed into all extractors
-         if ( !fileToDomain.isEmpty() && ffDomainAdaptor != null ) {
-            domainId = fileToDomain.get( documentId );
-            // if domain is not found, no warning -- just considers general domain
-            ffDomainAdaptor.setDomain( domainId );
-         } else if ( !fileToDomain.isEmpty() ) {
-            domainFeature = fileToDomain.get( documentId );
-         }
-      } else {
-         logger.debug( "processing next doc (doc id is null)" );
-      }
-
-      this.lastLabel = "<BEGIN>";
+      final String domainFeature = initializeDocument( jCas );
 
 //    // get gold standard relation instances during testing for error analysis
 //    if (! this.isTraining() && printErrors) {
@@ -367,19 +348,7 @@ public abstract class AssertionCleartkAnalysisEngine extends
       for(Sentence coveringSent : JCasUtil.select(annotationView, Sentence.class)){
          Collection<Annotation> coveredAnnotations = sentenceAnnotationMap.get(coveringSent);
          // Sort Annotations into *Mention, assertion cues and BaseTokens in one loop.
-         // Faster than calling JCasUtil methods for each which has to iterate through the full cas each time.
-         entities.clear();
-         cues.clear();
-         baseTokens.clear();
-         for ( Annotation annotation : coveredAnnotations ) {
-            if ( annotation instanceof EventMention || annotation instanceof EntityMention ) {
-               entities.add( (IdentifiedAnnotation)annotation );
-            } else if ( annotation instanceof AssertionCuePhraseAnnotation ) {
-               cues.add( (AssertionCuePhraseAnnotation)annotation );
-            } else if ( annotation instanceof BaseToken ) {
-               baseTokens.add( (BaseToken)annotation );
-            }
-         }
+         sortCoveredAnnotations( coveredAnnotations, entities, cues, baseTokens );
 
          for ( IdentifiedAnnotation identifiedAnnotation : entities ) {
             if ( identifiedAnnotation.getPolarity() == -1 ) {
@@ -390,114 +359,203 @@ public abstract class AssertionCleartkAnalysisEngine extends
                      identifiedAnnotation.getClass().getName() ) );
             }
             Instance<String> instance = new Instance<>();
+            addSharedFeatures( annotationView, identifiedAnnotation, coveringSent, cues, baseTokens, domainFeature,
+                  instance );
+            processInstance( jCas, identifiedAnnotation, instance );
+         }
+      }
+   }
 
-            if ( domainFeature != null ) {
-               instance.add( new Feature( "Domain", domainFeature ) );
-            }
-//      // extract all features that require only the entity mention annotation
-//      instance.addAll(tokenFeatureExtractor.extract(jCas, entityMention));
-
-            // extract all features that require the token and sentence annotations
-
-            //Sentence sentence = sentenceList.iterator().next();
-      
-      /*
-      if (sentence != null)
-      {
-        for (ContextExtractor<IdentifiedAnnotation> extractor : this.contextFeatureExtractors) {
-          instance.addAll(extractor.extractWithin(annotationView, entityMention, sentence));
-        }
-      } else
-      {
-        // TODO extract context features for annotations that don't fall within a sentence
-        logger.log(Level.WARN, "FIXME/TODO: generate context features for entities that don't fall within a sentence");
+   /**
+    * Set up the domain adaptation for a new document.
+    *
+    * @param jCas ye olde
+    * @return the domain of the document if it should be added as a feature, otherwise null
+    */
+   protected String initializeDocument( final JCas jCas ) {
+      String documentId = DocumentIDAnnotationUtil.getDocumentID( jCas );
+      String domainId = "";
+      String domainFeature = null;
+
+      if ( this.featureFunctionExtractors.size() <= 0 ) {
+         this.ffDomainAdaptor = null;
       }
-      */
-      
-      /*
-      for (ContextExtractor<BaseToken> extractor : this.tokenContextFeatureExtractors) {
-          instance.addAll(extractor.extract(annotationView, entityMention));
-        }
-        */
-
-            // only use extract this version if not doing domain adaptation
-            if ( ffDomainAdaptor == null ) {
-               for ( CleartkExtractor<IdentifiedAnnotation, BaseToken> extractor : this.tokenCleartkExtractors ) {
+
+      if ( documentId != null ) {
+         logger.debug( "processing next doc: " + documentId );
+         // set the domain to be FeatureFunction'ed into all extractors
+         if ( !fileToDomain.isEmpty() && ffDomainAdaptor != null ) {
+            domainId = fileToDomain.get( documentId );
+            // if domain is not found, no warning -- just considers general domain
+            ffDomainAdaptor.setDomain( domainId );
+         } else if ( !fileToDomain.isEmpty() ) {
+            domainFeature = fileToDomain.get( documentId );
+         }
+      } else {
+         logger.debug( "processing next doc (doc id is null)" );
+      }
+
+      this.lastLabel = "<BEGIN>";
+      return domainFeature;
+   }
+
+   /**
+    * @return true if the engine writes training data instead of classifying
+    */
+   boolean writesTrainingData() {
+      return this.isTraining();
+   }
+
+   /**
+    * Token extractors can not be compared, so engines only share features when neither has token extractors
+    * or both have only the token extraction set up by {@link #initialize(UimaContext)}.
+    *
+    * @param other another engine, set up for the same document
+    * @return true if {@link #addSharedFeatures} of this engine and the other engine add the same features
+    */
+   boolean extractsSameSharedFeatures( final AssertionCleartkAnalysisEngine other ) {
+      return ffDomainAdaptor == null && other.ffDomainAdaptor == null
+             && fileToDomain.equals( other.fileToDomain )
+             && ( tokenCleartkExtractors.isEmpty() && other.tokenCleartkExtractors.isEmpty()
+                  || hasDefaultTokenExtraction() && other.hasDefaultTokenExtraction() );
+   }
+
+   /**
+    * @return true if the token extractors are only the token extraction set up by initialize
+    */
+   private boolean hasDefaultTokenExtraction() {
+      return tokenCleartkExtractors.size() == 1 && tokenCleartkExtractors.get( 0 ) == defaultTokenExtraction;
+   }
+
+   /**
+    * Sort annotations covered by a sentence into entities, assertion cues and base tokens in one loop.
+    * Faster than calling JCasUtil methods for each which has to iterate through the full cas each time.
+    */
+   static void sortCoveredAnnotations( final Collection<Annotation> coveredAnnotations,
+                                       final Collection<IdentifiedAnnotation> entities,
+                                       final Collection<AssertionCuePhraseAnnotation> cues,
+                                       final Collection<BaseToken> baseTokens ) {
+      entities.clear();
+      cues.clear();
+      baseTokens.clear();
+      for ( Annotation annotation : coveredAnnotations ) {
+         if ( annotation instanceof EventMention || annotation instanceof EntityMention ) {
+            entities.add( (IdentifiedAnnotation)annotation );
+         } else if ( annotation instanceof AssertionCuePhraseAnnotation ) {
+            cues.add( (AssertionCuePhraseAnnotation)annotation );
+         } else if ( annotation instanceof BaseToken ) {
+            baseTokens.add( (BaseToken)annotation );
+         }
+      }
+   }
+
+   /**
+    * Add the features that do not depend upon the attribute: token context, closest cue phrase and entity type.
+    *
+    * @param annotationView view with the entities
+    * @param identifiedAnnotation entity
+    * @param coveringSent sentence covering the entity
+    * @param cues assertion cues in the sentence
+    * @param baseTokens tokens in the sentence
+    * @param domainFeature domain from {@link #initializeDocument(JCas)}
+    * @param instance instance to fill
+    */
+   protected void addSharedFeatures( final JCas annotationView,
+                                     final IdentifiedAnnotation identifiedAnnotation,
+                                     final Sentence coveringSent,
+                                     final Collection<AssertionCuePhraseAnnotation> cues,
+                                     final Collection<BaseToken> baseTokens,
+                                     final String domainFeature,
+                                     final Instance<String> instance ) throws AnalysisEngineProcessException {
+      if ( domainFeature != null ) {
+         instance.add( new Feature( "Domain", domainFeature ) );
+      }
+
+      // extract all features that require the token and sentence annotations
+      // only use extract this version if not doing domain adaptation
+      if ( ffDomainAdaptor == null ) {
+         for ( CleartkExtractor<IdentifiedAnnotation, BaseToken> extractor : this.tokenCleartkExtractors ) {
 //    		  instance.addAll(extractor.extractWithin(annotationView, entityMention, sentence));
 //                  if ( coveringSent != null ) {
-                  instance.addAll( extractor
-                        .extractWithin( annotationView, identifiedAnnotation, coveringSent ) );
+            instance.addAll( extractor
+                  .extractWithin( annotationView, identifiedAnnotation, coveringSent ) );
 //                  } else {
 //                     instance.addAll( extractor.extract( annotationView, identifiedAnnotation ) );
 //                  }
-               }
-            }
+         }
+      }
 
-            int closest = Integer.MAX_VALUE;
-            AssertionCuePhraseAnnotation closestCue = null;
-            for ( AssertionCuePhraseAnnotation cue : cues ) {
-               // It is much faster to count between BaseTokens already isolated within the same sentence.
-               final int betweenCount = countBetween( cue, identifiedAnnotation, baseTokens );
-               if ( betweenCount < closest ) {
-                  closestCue = cue;
-                  closest = betweenCount;
-               }
+      int closest = Integer.MAX_VALUE;
+      AssertionCuePhraseAnnotation closestCue = null;
+      for ( AssertionCuePhraseAnnotation cue : cues ) {
+         // It is much faster to count between BaseTokens already isolated within the same sentence.
+         final int betweenCount = countBetween( cue, identifiedAnnotation, baseTokens );
+         if ( betweenCount < closest ) {
+            closestCue = cue;
+            closest = betweenCount;
+         }
 
 //          instance.addAll(cuePhraseInWindowExtractor.extractBetween(jCas, cue, entityOrEventMention));
-            }
-            if ( closestCue != null && closest < 21 ) {
-               instance.add( new Feature( "ClosestCue_Word", closestCue.getCoveredText() ) );
+      }
+      if ( closestCue != null && closest < 21 ) {
+         instance.add( new Feature( "ClosestCue_Word", closestCue.getCoveredText() ) );
 //          instance.add(new Feature("ClosestCue_Phrase", closestCue.getCuePhrase()));
-               instance.add( new Feature( "ClosestCue_PhraseFamily", closestCue.getCuePhraseAssertionFamily() ) );
-               instance.add( new Feature( "ClosestCue_PhraseCategory", closestCue.getCuePhraseCategory() ) );
-
-               // add hack-ey domain adaptation to these hacked-in features
-               if ( !fileToDomain.isEmpty() && ffDomainAdaptor != null ) {
-                  instance.addAll( ffDomainAdaptor
-                        .apply( new Feature( "ClosestCue_Word", closestCue.getCoveredText() ) ) );
-                  instance.addAll( ffDomainAdaptor
-                        .apply( new Feature( "ClosestCue_PhraseFamily", closestCue
-                              .getCuePhraseAssertionFamily() ) ) );
-                  instance.addAll( ffDomainAdaptor
-                        .apply( new Feature( "ClosestCue_PhraseCategory", closestCue.getCuePhraseCategory() ) ) );
-               }
+         instance.add( new Feature( "ClosestCue_PhraseFamily", closestCue.getCuePhraseAssertionFamily() ) );
+         instance.add( new Feature( "ClosestCue_PhraseCategory", closestCue.getCuePhraseCategory() ) );
 
-            }
-//            }
-//      if (cuePhraseFeatures != null && !cuePhraseFeatures.isEmpty())
-//      {
-//        instance.addAll(cuePhraseFeatures);
-//      }
+         // add hack-ey domain adaptation to these hacked-in features
+         if ( !fileToDomain.isEmpty() && ffDomainAdaptor != null ) {
+            instance.addAll( ffDomainAdaptor
+                  .apply( new Feature( "ClosestCue_Word", closestCue.getCoveredText() ) ) );
+            instance.addAll( ffDomainAdaptor
+                  .apply( new Feature( "ClosestCue_PhraseFamily", closestCue
+                        .getCuePhraseAssertionFamily() ) ) );
+            instance.addAll( ffDomainAdaptor
+                  .apply( new Feature( "ClosestCue_PhraseCategory", closestCue.getCuePhraseCategory() ) ) );
+         }
 
+      }
 
-            // 7/9/13 SRH trying to make it work just for anatomical site
-            int eemTypeId = identifiedAnnotation.getTypeID();
-            if ( eemTypeId == CONST.NE_TYPE_ID_ANATOMICAL_SITE ) {
-               // 7/9/13 srh modified per tmiller so it's binary but not numeric feature
-               //instance.add(new Feature("ENTITY_TYPE_" + entityOrEventMention.getTypeID()));
-               instance.add( new Feature( "ENTITY_TYPE_ANAT_SITE" ) );
-               // add hack-ey domain adaptation to these hacked-in features
-               if ( !fileToDomain.isEmpty() && ffDomainAdaptor != null ) {
-                  instance.addAll( ffDomainAdaptor.apply( new Feature( "ENTITY_TYPE_ANAT_SITE" ) ) );
-               }
-            }
+      // 7/9/13 SRH trying to make it work just for anatomical site
+      int eemTypeId = identifiedAnnotation.getTypeID();
+      if ( eemTypeId == CONST.NE_TYPE_ID_ANATOMICAL_SITE ) {
+         // 7/9/13 srh modified per tmiller so it's binary but not numeric feature
+         //instance.add(new Feature("ENTITY_TYPE_" + entityOrEventMention.getTypeID()));
+         instance.add( new Feature( "ENTITY_TYPE_ANAT_SITE" ) );
+         // add hack-ey domain adaptation to these hacked-in features
+         if ( !fileToDomain.isEmpty() && ffDomainAdaptor != null ) {
+            instance.addAll( ffDomainAdaptor.apply( new Feature( "ENTITY_TYPE_ANAT_SITE" ) ) );
+         }
+      }
       /* This hurts recall more than it helps precision
       else if (eemTypeId == CONST.NE_TYPE_ID_DRUG) {
     	  // 7/10 adding drug
     	  instance.add(new Feature("ENTITY_TYPE_DRUG"));
       }
       */
+   }
 
-            // only extract these features if not doing domain adaptation
-            if ( ffDomainAdaptor == null ) {
-               for ( FeatureExtractor1<IdentifiedAnnotation> extractor : this.entityFeatureExtractors ) {
-                  instance.addAll( extractor.extract( jCas, identifiedAnnotation ) );
-               }
-            }
+   /**
+    * Add the attribute features to an instance with the shared features, then classify the entity,
+    * or write the instance when training.
+    *
+    * @param jCas ye olde
+    * @param identifiedAnnotation entity
+    * @param instance instance with the shared features
+    */
+   protected void processInstance( final JCas jCas,
+                                   final IdentifiedAnnotation identifiedAnnotation,
+                                   final Instance<String> instance ) throws AnalysisEngineProcessException {
+      // only extract these features if not doing domain adaptation
+      if ( ffDomainAdaptor == null ) {
+         for ( FeatureExtractor1<IdentifiedAnnotation> extractor : this.entityFeatureExtractors ) {
+            instance.addAll( extractor.extract( jCas, identifiedAnnotation ) );
+         }
+      }
 
-            for ( FeatureExtractor1<IdentifiedAnnotation> extractor : this.entityTreeExtractors ) {
-               instance.addAll( extractor.extract( jCas, identifiedAnnotation ) );
-            }
+      for ( FeatureExtractor1<IdentifiedAnnotation> extractor : this.entityTreeExtractors ) {
+         instance.addAll( extractor.extract( jCas, identifiedAnnotation ) );
+      }
 
 //      List<Feature> zoneFeatures = extractZoneFeatures(coveringZoneMap, entityOrEventMention);
 //      if (zoneFeatures != null && !zoneFeatures.isEmpty())
@@ -505,54 +563,53 @@ public abstract class AssertionCleartkAnalysisEngine extends
 //        instance.addAll(zoneFeatures);
 //      }
 
-            List<Feature> feats = instance.getFeatures();
+      List<Feature> feats = instance.getFeatures();
 //      List<Feature> lcFeats = new ArrayList<Feature>();
 
-            for ( Feature feat : feats ) {
-               if ( feat instanceof TreeFeature ||
-                    (feat.getName() != null && (feat.getName().startsWith( "TreeFrag" ) ||
-                                                feat.getName().startsWith( "WORD" ) ||
-                                                feat.getName().startsWith( "NEG" ))) ) {
-                  continue;
-               }
-               if ( feat.getName() != null &&
-                    (feat.getName().contains( "_TreeFrag" ) || feat.getName().contains( "_WORD" ) ||
-                     feat.getName().contains( "_NEG" )) ) {
-                  continue;
-               }
-               if ( feat.getValue() instanceof String ) {
-                  feat.setValue( ((String)feat.getValue()).toLowerCase() );
-               }
-            }
+      for ( Feature feat : feats ) {
+         if ( feat instanceof TreeFeature ||
+              (feat.getName() != null && (feat.getName().startsWith( "TreeFrag" ) ||
+                                          feat.getName().startsWith( "WORD" ) ||
+                                          feat.getName().startsWith( "NEG" ))) ) {
+            continue;
+         }
+         if ( feat.getName() != null &&
+              (feat.getName().contains( "_TreeFrag" ) || feat.getName().contains( "_WORD" ) ||
+               feat.getName().contains( "_NEG" )) ) {
+            continue;
+         }
+         if ( feat.getValue() instanceof String ) {
+            feat.setValue( ((String)feat.getValue()).toLowerCase() );
+         }
+      }
 
-            if ( !fileToDomain.isEmpty() && ffDomainAdaptor != null ) {
-               for ( FeatureFunctionExtractor<IdentifiedAnnotation> extractor : this.featureFunctionExtractors ) {
-                  // TODO: extend to the case where the extractors take a different argument besides entityOrEventMention
-                  instance.addAll( extractor.extract( jCas, identifiedAnnotation ) );
-               }
-            }
+      if ( !fileToDomain.isEmpty() && ffDomainAdaptor != null ) {
+         for ( FeatureFunctionExtractor<IdentifiedAnnotation> extractor : this.featureFunctionExtractors ) {
+            // TODO: extend to the case where the extractors take a different argument besides entityOrEventMention
+            instance.addAll( extractor.extract( jCas, identifiedAnnotation ) );
+         }
+      }
 
 
-            // grab the output label
-            setClassLabel( identifiedAnnotation, instance );
+      // grab the output label
+      setClassLabel( identifiedAnnotation, instance );
 
-            if ( this.isTraining() ) {
-               // apply feature selection, if necessary
-               if ( this.featureSelection != null ) {
-                  feats = this.featureSelection.transform( feats );
-               }
+      if ( this.isTraining() ) {
+         // apply feature selection, if necessary
+         if ( this.featureSelection != null ) {
+            feats = this.featureSelection.transform( feats );
+         }
 
-               // ensures that the (possibly) transformed feats are used
-               if ( instance.getOutcome() != null ) {
-                  if ( coin.nextDouble() < this.portionOfDataToUse ) {
-                     this.dataWriter.write( new Instance<>( instance.getOutcome(), feats ) );
-                  }
-               }
+         // ensures that the (possibly) transformed feats are used
+         if ( instance.getOutcome() != null ) {
+            if ( coin.nextDouble() < this.portionOfDataToUse ) {
+               this.dataWriter.write( new Instance<>( instance.getOutcome(), feats ) );
             }
          }
       }
    }
 
+
   /*
   public List<Feature> extractZoneFeatures(Map<IdentifiedAnnotation, Collection<Zone>> coveringZoneMap, IdentifiedAnnotation entityOrEventMention)
   {
@@ -0,0 +1,332 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ctakes.assertion.medfacts.cleartk;
+
+import org.apache.ctakes.core.pipeline.PipeBitInfo;
+import org.apache.ctakes.typesystem.type.syntax.BaseToken;
+import org.apache.ctakes.typesystem.type.temporary.assertion.AssertionCuePhraseAnnotation;
+import org.apache.ctakes.typesystem.type.textsem.IdentifiedAnnotation;
+import org.apache.ctakes.typesystem.type.textspan.Sentence;
+import org.apache.log4j.Logger;
+import org.apache.uima.UimaContext;
+import org.apache.uima.analysis_engine.AnalysisEngineDescription;
+import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
+import org.apache.uima.fit.component.JCasAnnotator_ImplBase;
+import org.apache.uima.fit.descriptor.ConfigurationParameter;
+import org.apache.uima.fit.factory.AnalysisEngineFactory;
+import org.apache.uima.fit.factory.UimaContextFactory;
+import org.apache.uima.fit.util.JCasUtil;
+import org.apache.uima.jcas.JCas;
+import org.apache.uima.jcas.tcas.Annotation;
+import org.apache.uima.resource.ResourceInitializationException;
+import org.apache.uima.resource.metadata.NameValuePair;
+import org.cleartk.ml.Feature;
+import org.cleartk.ml.Instance;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Runs several assertion attribute engines in a single pass.
+ * <p>
+ * Separately, each attribute engine indexes the sentences and extracts the token context, cue phrase and entity type
+ * features for every entity.  Those features are the same for every attribute, so this engine extracts them once
+ * per entity and passes them to each attribute engine, which adds its own features and classifies the entity.
+ * Each attribute engine classifies every entity in the document before the next engine runs, in the configured order,
+ * so an engine can still use an attribute set by an earlier engine, as the uncertainty engine uses polarity.
+ * Results are the same as running the attribute engines one after another.
+ * </p>
+ * <p>
+ * Shared features can be extracted with more than one thread, but a uima 2 cas is not safe for concurrent reads:
+ * index iterators and the feature structure cache are not synchronized.  Only use more than one thread with a cas
+ * implementation that is known to allow concurrent reads.  Attribute features and classification, which write to
+ * the cas, always run on the calling thread.
+ * </p>
+ * This engine only classifies.  Attribute models are trained with the individual attribute engines.
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+@PipeBitInfo(
+      name = "Assertion Attributes Annotator (ClearTK)",
+      description = "Annotates polarity, uncertainty, history, conditional, generic and subject properties.",
+      dependencies = { PipeBitInfo.TypeProduct.SENTENCE, PipeBitInfo.TypeProduct.IDENTIFIED_ANNOTATION }
+)
+final public class MultiAttributeCleartkAnalysisEngine extends JCasAnnotator_ImplBase {
+
+   static private final Logger LOGGER = Logger.getLogger( "MultiAttributeCleartkAnalysisEngine" );
+
+   public static final String PARAM_ATTRIBUTE_ENGINES = "AttributeEngines";
+   @ConfigurationParameter(
+         name = PARAM_ATTRIBUTE_ENGINES,
+         description = "Attribute engine classes, in the order that they should classify each entity."
+                       + "  Each must have a static createAnnotatorDescription method.",
+         mandatory = false,
+         defaultValue = { "PolarityCleartkAnalysisEngine",
+                          "UncertaintyCleartkAnalysisEngine",
+                          "HistoryCleartkAnalysisEngine",
+                          "ConditionalCleartkAnalysisEngine",
+                          "GenericCleartkAnalysisEngine",
+                          "SubjectCleartkAnalysisEngine" }
+   )
+   private String[] _engineClassNames;
+
+   public static final String PARAM_ATTRIBUTE_MODELS = "AttributeModels";
+   @ConfigurationParameter(
+         name = PARAM_ATTRIBUTE_MODELS,
+         description = "Model jar paths for the attribute engines, in the same order.  Default models are used if unset.",
+         mandatory = false
+   )
+   private String[] _modelPaths;
+
+   public static final String PARAM_THREADS = "Threads";
+   @ConfigurationParameter(
+         name = PARAM_THREADS,
+         description = "Number of threads used to extract shared features.  A uima 2 cas is not safe for concurrent reads,"
+                       + " so only use more than 1 with a cas that is.",
+         mandatory = false,
+         defaultValue = "1"
+   )
+   private int _threadCount;
+
+   private AssertionCleartkAnalysisEngine[] _engines;
+   private ExecutorService _executor;
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public void initialize( final UimaContext context ) throws ResourceInitializationException {
+      super.initialize( context );
+      if ( _modelPaths != null && _modelPaths.length > 0 && _modelPaths.length != _engineClassNames.length ) {
+         throw new ResourceInitializationException( new IllegalArgumentException(
+               PARAM_ATTRIBUTE_MODELS + " must have a path for each of the " + PARAM_ATTRIBUTE_ENGINES ) );
+      }
+      _engines = new AssertionCleartkAnalysisEngine[ _engineClassNames.length ];
+      for ( int i = 0; i < _engines.length; i++ ) {
+         final String modelPath = _modelPaths == null || _modelPaths.length == 0 ? null : _modelPaths[ i ];
+         _engines[ i ] = createEngine( _engineClassNames[ i ], modelPath );
+         if ( _engines[ i ].writesTrainingData() ) {
+            throw new ResourceInitializationException( new IllegalArgumentException(
+                  _engineClassNames[ i ] + " is set for training.  Train with the attribute engine itself." ) );
+         }
+      }
+      if ( _threadCount > 1 ) {
+         _executor = Executors.newFixedThreadPool( _threadCount, r -> {
+            final Thread thread = new Thread( r, "AssertionFeatures" );
+            thread.setDaemon( true );
+            return thread;
+         } );
+      }
+   }
+
+   /**
+    * @param className attribute engine class, simple names are in this package
+    * @param modelPath model jar path or null for the default
+    * @return an attribute engine initialized with its default description and the given model
+    */
+   static private AssertionCleartkAnalysisEngine createEngine( final String className, final String modelPath )
+         throws ResourceInitializationException {
+      final String fullName = className.contains( "." )
+                              ? className
+                              : MultiAttributeCleartkAnalysisEngine.class.getPackage().getName() + "." + className;
+      try {
+         final Class<? extends AssertionCleartkAnalysisEngine> engineClass
+               = Class.forName( fullName ).asSubclass( AssertionCleartkAnalysisEngine.class );
+         final AnalysisEngineDescription description = modelPath == null
+               ? (AnalysisEngineDescription)engineClass.getMethod( "createAnnotatorDescription" ).invoke( null )
+               : (AnalysisEngineDescription)engineClass.getMethod( "createAnnotatorDescription", String.class )
+                                                        .invoke( null, modelPath );
+         final NameValuePair[] settings = description.getAnalysisEngineMetaData()
+                                                     .getConfigurationParameterSettings()
+                                                     .getParameterSettings();
+         final Object[] parameters = new Object[ settings.length * 2 ];
+         for ( int i = 0; i < settings.length; i++ ) {
+            parameters[ i * 2 ] = settings[ i ].getName();
+            parameters[ i * 2 + 1 ] = settings[ i ].getValue();
+         }
+         final AssertionCleartkAnalysisEngine engine = engineClass.newInstance();
+         engine.initialize( UimaContextFactory.createUimaContext( parameters ) );
+         LOGGER.info( "Initialized " + engineClass.getSimpleName() );
+         return engine;
+      } catch ( ReflectiveOperationException | ClassCastException multE ) {
+         throw new ResourceInitializationException( multE );
+      }
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public void process( final JCas jCas ) throws AnalysisEngineProcessException {
+      final String[] domainFeatures = new String[ _engines.length ];
+      for ( int i = 0; i < _engines.length; i++ ) {
+         domainFeatures[ i ] = _engines[ i ].initializeDocument( jCas );
+      }
+      // Engines that extract the same shared features use the features of the first such engine.
+      final int[] featureSources = new int[ _engines.length ];
+      final List<Integer> sources = new ArrayList<>();
+      for ( int i = 0; i < _engines.length; i++ ) {
+         featureSources[ i ] = i;
+         for ( int source : sources ) {
+            if ( _engines[ source ].extractsSameSharedFeatures( _engines[ i ] )
+                 && Objects.equals( domainFeatures[ source ], domainFeatures[ i ] ) ) {
+               featureSources[ i ] = source;
+               break;
+            }
+         }
+         if ( featureSources[ i ] == i ) {
+            sources.add( i );
+         }
+      }
+
+      final List<EntityContext> contexts = new ArrayList<>();
+      final Map<Sentence, Collection<Annotation>> sentenceAnnotationMap
+            = JCasUtil.indexCovered( jCas, Sentence.class, Annotation.class );
+      for ( Sentence sentence : JCasUtil.select( jCas, Sentence.class ) ) {
+         final Collection<IdentifiedAnnotation> entities = new ArrayList<>();
+         final Collection<AssertionCuePhraseAnnotation> cues = new ArrayList<>();
+         final Collection<BaseToken> baseTokens = new ArrayList<>();
+         AssertionCleartkAnalysisEngine.sortCoveredAnnotations( sentenceAnnotationMap.get( sentence ),
+               entities, cues, baseTokens );
+         for ( IdentifiedAnnotation entity : entities ) {
+            contexts.add( new EntityContext( entity, sentence, cues, baseTokens ) );
+         }
+      }
+      if ( contexts.isEmpty() ) {
+         return;
+      }
+
+      final List<Callable<List<List<Feature>>>> tasks = new ArrayList<>( contexts.size() );
+      for ( EntityContext context : contexts ) {
+         tasks.add( () -> extractSharedFeatures( jCas, context, sources, domainFeatures ) );
+      }
+      final List<List<List<Feature>>> sharedFeatures = runAll( tasks );
+
+      for ( int i = 0; i < _engines.length; i++ ) {
+         final int source = sources.indexOf( featureSources[ i ] );
+         for ( int e = 0; e < contexts.size(); e++ ) {
+            final Instance<String> instance = new Instance<>();
+            instance.addAll( sharedFeatures.get( e ).get( source ) );
+            _engines[ i ].processInstance( jCas, contexts.get( e )._entity, instance );
+         }
+      }
+   }
+
+   /**
+    * @return shared features for the entity, one list for each of the source engines
+    */
+   private List<List<Feature>> extractSharedFeatures( final JCas jCas,
+                                                      final EntityContext context,
+                                                      final List<Integer> sources,
+                                                      final String[] domainFeatures )
+         throws AnalysisEngineProcessException {
+      final List<List<Feature>> features = new ArrayList<>( sources.size() );
+      for ( int source : sources ) {
+         final Instance<String> instance = new Instance<>();
+         _engines[ source ].addSharedFeatures( jCas, context._entity, context._sentence, context._cues,
+               context._baseTokens, domainFeatures[ source ], instance );
+         features.add( instance.getFeatures() );
+      }
+      return features;
+   }
+
+   /**
+    * @return results of the tasks, in order
+    */
+   private <T> List<T> runAll( final List<Callable<T>> tasks ) throws AnalysisEngineProcessException {
+      final List<T> results = new ArrayList<>( tasks.size() );
+      try {
+         if ( _executor == null || tasks.size() == 1 ) {
+            for ( Callable<T> task : tasks ) {
+               results.add( task.call() );
+            }
+            return results;
+         }
+         for ( Future<T> future : _executor.invokeAll( tasks ) ) {
+            results.add( future.get() );
+         }
+      } catch ( InterruptedException intE ) {
+         Thread.currentThread().interrupt();
+         throw new AnalysisEngineProcessException( intE );
+      } catch ( ExecutionException execE ) {
+         final Throwable cause = execE.getCause();
+         if ( cause instanceof AnalysisEngineProcessException ) {
+            throw (AnalysisEngineProcessException)cause;
+         }
+         throw new AnalysisEngineProcessException( cause );
+      } catch ( AnalysisEngineProcessException aeE ) {
+         throw aeE;
+      } catch ( Exception e ) {
+         throw new AnalysisEngineProcessException( e );
+      }
+      return results;
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public void collectionProcessComplete() throws AnalysisEngineProcessException {
+      for ( AssertionCleartkAnalysisEngine engine : _engines ) {
+         engine.collectionProcessComplete();
+      }
+      super.collectionProcessComplete();
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public void destroy() {
+      if ( _executor != null ) {
+         _executor.shutdownNow();
+      }
+      for ( AssertionCleartkAnalysisEngine engine : _engines ) {
+         engine.destroy();
+      }
+      super.destroy();
+   }
+
+   /**
+    * An entity with the annotations of its sentence.
+    */
+   static private final class EntityContext {
+      private final IdentifiedAnnotation _entity;
+      private final Sentence _sentence;
+      private final Collection<AssertionCuePhraseAnnotation> _cues;
+      private final Collection<BaseToken> _baseTokens;
+
+      private EntityContext( final IdentifiedAnnotation entity,
+                             final Sentence sentence,
+                             final Collection<AssertionCuePhraseAnnotation> cues,
+                             final Collection<BaseToken> baseTokens ) {
+         _entity = entity;
+         _sentence = sentence;
+         _cues = cues;
+         _baseTokens = baseTokens;
+      }
+   }
+
+   public static AnalysisEngineDescription createAnnotatorDescription() throws ResourceInitializationException {
+      return AnalysisEngineFactory.createEngineDescription( MultiAttributeCleartkAnalysisEngine.class );
+   }
+
+}
@@ -0,0 +1,137 @@
+package org.apache.ctakes.assertion.medfacts.cleartk;
+
+import org.apache.ctakes.typesystem.type.syntax.WordToken;
+import org.apache.ctakes.typesystem.type.textsem.EntityMention;
+import org.apache.ctakes.typesystem.type.textsem.IdentifiedAnnotation;
+import org.apache.ctakes.typesystem.type.textspan.Sentence;
+import org.apache.uima.analysis_engine.AnalysisEngine;
+import org.apache.uima.analysis_engine.AnalysisEngineDescription;
+import org.apache.uima.fit.factory.AnalysisEngineFactory;
+import org.apache.uima.fit.factory.JCasFactory;
+import org.apache.uima.fit.util.JCasUtil;
+import org.apache.uima.jcas.JCas;
+import org.apache.uima.resource.ResourceInitializationException;
+import org.cleartk.ml.Classifier;
+import org.cleartk.ml.ClassifierFactory;
+import org.cleartk.ml.CleartkAnnotator;
+import org.cleartk.ml.Feature;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+public class MultiAttributeCleartkAnalysisEngineTest {
+
+   static private final String TEXT = "The patient denies chest pain today . "
+                                      + "She may have pneumonia if the fever returns . "
+                                      + "Her mother had diabetes and heart disease .";
+   static private final String[] ENTITIES = { "chest pain", "pneumonia", "fever", "diabetes", "heart disease" };
+
+   @Test
+   public void testSameAsSequentialEngines() throws Exception {
+      final JCas combinedCas = createCas();
+      final AnalysisEngine combined = AnalysisEngineFactory.createEngine( MultiAttributeCleartkAnalysisEngine.class,
+            MultiAttributeCleartkAnalysisEngine.PARAM_ATTRIBUTE_ENGINES,
+            new String[] { TestGenericEngine.class.getName(), TestConditionalEngine.class.getName() } );
+      combined.process( combinedCas );
+      combined.destroy();
+
+      final JCas sequentialCas = createCas();
+      final AnalysisEngine generic = AnalysisEngineFactory.createEngine( TestGenericEngine.createAnnotatorDescription() );
+      final AnalysisEngine conditional
+            = AnalysisEngineFactory.createEngine( TestConditionalEngine.createAnnotatorDescription() );
+      generic.process( sequentialCas );
+      conditional.process( sequentialCas );
+      generic.destroy();
+      conditional.destroy();
+
+      final List<IdentifiedAnnotation> combinedEntities
+            = new ArrayList<>( JCasUtil.select( combinedCas, IdentifiedAnnotation.class ) );
+      final List<IdentifiedAnnotation> sequentialEntities
+            = new ArrayList<>( JCasUtil.select( sequentialCas, IdentifiedAnnotation.class ) );
+      assertEquals( ENTITIES.length, combinedEntities.size() );
+      assertEquals( ENTITIES.length, sequentialEntities.size() );
+      for ( int i = 0; i < ENTITIES.length; i++ ) {
+         final IdentifiedAnnotation combinedEntity = combinedEntities.get( i );
+         final IdentifiedAnnotation sequentialEntity = sequentialEntities.get( i );
+         assertEquals( ENTITIES[ i ], combinedEntity.getCoveredText() );
+         assertEquals( ENTITIES[ i ], sequentialEntity.getCoveredText() );
+         assertEquals( ENTITIES[ i ], sequentialEntity.getGeneric(), combinedEntity.getGeneric() );
+         assertEquals( ENTITIES[ i ], sequentialEntity.getConditional(), combinedEntity.getConditional() );
+      }
+   }
+
+   /**
+    * @return cas with one sentence per line of text, a token for each word and the test entities
+    */
+   static private JCas createCas() throws Exception {
+      final JCas jCas = JCasFactory.createJCas();
+      jCas.setDocumentText( TEXT );
+      int sentenceBegin = 0;
+      int wordBegin = 0;
+      for ( int i = 0; i <= TEXT.length(); i++ ) {
+         if ( i < TEXT.length() && TEXT.charAt( i ) != ' ' ) {
+            continue;
+         }
+         new WordToken( jCas, wordBegin, i ).addToIndexes();
+         if ( TEXT.charAt( i - 1 ) == '.' ) {
+            new Sentence( jCas, sentenceBegin, i ).addToIndexes();
+            sentenceBegin = i + 1;
+         }
+         wordBegin = i + 1;
+      }
+      for ( String entity : ENTITIES ) {
+         final int begin = TEXT.indexOf( entity );
+         new EntityMention( jCas, begin, begin + entity.length() ).addToIndexes();
+      }
+      return jCas;
+   }
+
+   /**
+    * Classifies from the features alone, so that the same features always get the same label
+    * and different features usually get different labels.
+    */
+   static public final class FeatureHashClassifierFactory implements ClassifierFactory<String> {
+      @Override
+      public Classifier<String> createClassifier() {
+         return new Classifier<String>() {
+            @Override
+            public String classify( final List<Feature> features ) {
+               int hash = 0;
+               for ( Feature feature : features ) {
+                  hash += Objects.hash( feature.getName(), feature.getValue() );
+               }
+               return Boolean.toString( hash % 2 == 0 );
+            }
+
+            @Override
+            public Map<String, Double> score( final List<Feature> features ) {
+               return Collections.singletonMap( classify( features ), 1.0 );
+            }
+         };
+      }
+   }
+
+   static public final class TestGenericEngine extends GenericCleartkAnalysisEngine {
+      public static AnalysisEngineDescription createAnnotatorDescription() throws ResourceInitializationException {
+         return AnalysisEngineFactory.createEngineDescription( TestGenericEngine.class,
+               CleartkAnnotator.PARAM_CLASSIFIER_FACTORY_CLASS_NAME,
+               FeatureHashClassifierFactory.class.getName() );
+      }
+   }
+
+   static public final class TestConditionalEngine extends ConditionalCleartkAnalysisEngine {
+      public static AnalysisEngineDescription createAnnotatorDescription() throws ResourceInitializationException {
+         return AnalysisEngineFactory.createEngineDescription( TestConditionalEngine.class,
+               CleartkAnnotator.PARAM_CLASSIFIER_FACTORY_CLASS_NAME,
+               FeatureHashClassifierFactory.class.getName() );
+      }
+   }
+
+}
@@ -0,0 +1,99 @@
+package org.apache.ctakes.benchmarks;
+
+import org.apache.uima.UIMAException;
+import org.apache.uima.analysis_engine.AnalysisEngine;
+import org.apache.uima.analysis_engine.AnalysisEngineDescription;
+import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
+import org.apache.uima.fit.factory.AnalysisEngineFactory;
+import org.apache.uima.fit.factory.JCasFactory;
+import org.apache.uima.jcas.JCas;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a single annotator, or aggregate, on a synthetic note.
+ * <p>
+ * Before each invocation the note is run through an upstream pipeline that creates the annotations required by the
+ * measured annotator.  Only the measured annotator is timed.
+ * Throughput is reported in characters per second and allocation in bytes per second, see {@link BenchmarkCounters}.
+ * Invocations take milliseconds, so per-invocation setup does not distort the timing.
+ * </p>
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.SECONDS )
+@Warmup( iterations = 3, time = 10 )
+@Measurement( iterations = 5, time = 10 )
+@Fork( value = 1, jvmArgsAppend = "-Xmx4G" )
+abstract public class AbstractAnnotatorBenchmark {
+
+   // public and without an underscore as jmh uses the field name for the parameter name
+   @Param( { "5", "50" } )
+   public int paragraphCount;
+
+   private String _note;
+   private JCas _jCas;
+   private AnalysisEngine _upstreamEngine;
+   private AnalysisEngine _benchmarkEngine;
+
+   /**
+    * @return pipeline that creates the annotations required by the measured annotator, or null if none is required
+    * @throws IOException   if the pipeline cannot be created
+    * @throws UIMAException if the pipeline cannot be created
+    */
+   abstract protected AnalysisEngineDescription createUpstreamDescription() throws IOException, UIMAException;
+
+   /**
+    * @return the measured annotator
+    * @throws IOException   if the annotator cannot be created
+    * @throws UIMAException if the annotator cannot be created
+    */
+   abstract protected AnalysisEngineDescription createBenchmarkDescription() throws IOException, UIMAException;
+
+   @Setup( Level.Trial )
+   public void setupTrial() throws IOException, UIMAException {
+      _note = SyntheticNotes.getNote( paragraphCount );
+      _jCas = JCasFactory.createJCas();
+      final AnalysisEngineDescription upstreamDescription = createUpstreamDescription();
+      if ( upstreamDescription != null ) {
+         _upstreamEngine = AnalysisEngineFactory.createEngine( upstreamDescription );
+      }
+      _benchmarkEngine = AnalysisEngineFactory.createEngine( createBenchmarkDescription() );
+   }
+
+   @Setup( Level.Invocation )
+   public void setupInvocation() throws AnalysisEngineProcessException {
+      _jCas.reset();
+      _jCas.setDocumentText( _note );
+      if ( _upstreamEngine != null ) {
+         _upstreamEngine.process( _jCas );
+      }
+   }
+
+   @Benchmark
+   public JCas process( final BenchmarkCounters counters ) throws AnalysisEngineProcessException {
+      final long startBytes = BenchmarkCounters.getAllocatedBytes();
+      _benchmarkEngine.process( _jCas );
+      counters.allocatedBytes += BenchmarkCounters.getAllocatedBytes() - startBytes;
+      counters.characters += _note.length();
+      // return the cas so that the jit cannot consider the processing dead code
+      return _jCas;
+   }
+
+   @TearDown( Level.Trial )
+   public void tearDownTrial() throws AnalysisEngineProcessException {
+      if ( _upstreamEngine != null ) {
+         _upstreamEngine.collectionProcessComplete();
+         _upstreamEngine.destroy();
+      }
+      _benchmarkEngine.collectionProcessComplete();
+      _benchmarkEngine.destroy();
+   }
+
+}
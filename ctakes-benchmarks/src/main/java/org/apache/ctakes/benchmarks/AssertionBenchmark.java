@@ -0,0 +1,50 @@
+package org.apache.ctakes.benchmarks;
+
+import org.apache.ctakes.assertion.medfacts.cleartk.*;
+import org.apache.ctakes.clinicalpipeline.ClinicalPipelineFactory;
+import org.apache.ctakes.dependency.parser.ae.ClearNLPDependencyParserAE;
+import org.apache.ctakes.dictionary.lookup2.ae.DefaultJCasTermAnnotator;
+import org.apache.uima.fit.factory.AggregateBuilder;
+import org.apache.uima.UIMAException;
+import org.apache.uima.analysis_engine.AnalysisEngineDescription;
+
+import java.io.IOException;
+
+/**
+ * Measures the cleartk assertion annotators for polarity, uncertainty, history, conditional, generic and subject
+ * on notes with dictionary terms and dependency parses.
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+public class AssertionBenchmark extends AbstractAnnotatorBenchmark {
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   protected AnalysisEngineDescription createUpstreamDescription() throws IOException, UIMAException {
+      final AggregateBuilder builder = new AggregateBuilder();
+      builder.add( ClinicalPipelineFactory.getTokenProcessingPipeline() );
+      builder.add( DefaultJCasTermAnnotator.createAnnotatorDescription( DictionaryLookupBenchmark.LOOKUP_XML ) );
+      builder.add( ClearNLPDependencyParserAE.createAnnotatorDescription() );
+      return builder.createAggregateDescription();
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   protected AnalysisEngineDescription createBenchmarkDescription() throws IOException, UIMAException {
+      final AggregateBuilder builder = new AggregateBuilder();
+      builder.add( PolarityCleartkAnalysisEngine.createAnnotatorDescription() );
+      builder.add( UncertaintyCleartkAnalysisEngine.createAnnotatorDescription() );
+      builder.add( HistoryCleartkAnalysisEngine.createAnnotatorDescription() );
+      builder.add( ConditionalCleartkAnalysisEngine.createAnnotatorDescription() );
+      builder.add( GenericCleartkAnalysisEngine.createAnnotatorDescription() );
+      builder.add( SubjectCleartkAnalysisEngine.createAnnotatorDescription() );
+      return builder.createAggregateDescription();
+   }
+
+}
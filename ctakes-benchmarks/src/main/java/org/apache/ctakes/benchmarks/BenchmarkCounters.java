@@ -0,0 +1,45 @@
+package org.apache.ctakes.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Secondary benchmark results.  Because these are operation counters jmh reports them as rates:
+ * characters processed per second and bytes allocated per second.
+ * <p>
+ * Fields are public as required by jmh.
+ * </p>
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+@State( Scope.Thread )
+@AuxCounters( AuxCounters.Type.OPERATIONS )
+public class BenchmarkCounters {
+
+   static private final ThreadMXBean THREAD_BEAN = ManagementFactory.getThreadMXBean();
+
+   public long characters;
+   public long allocatedBytes;
+
+   @Setup( Level.Iteration )
+   public void reset() {
+      characters = 0;
+      allocatedBytes = 0;
+   }
+
+   /**
+    * @return bytes allocated by the current thread, or 0 if the jvm cannot measure allocation
+    */
+   static long getAllocatedBytes() {
+      if ( THREAD_BEAN instanceof com.sun.management.ThreadMXBean ) {
+         return ((com.sun.management.ThreadMXBean)THREAD_BEAN)
+               .getThreadAllocatedBytes( Thread.currentThread().getId() );
+      }
+      return 0;
+   }
+
+}
@@ -0,0 +1,42 @@
+package org.apache.ctakes.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks and, unless another result file is specified, writes results to benchmarks.json
+ * for comparison between releases.
+ * <p>
+ * Any standard jmh command line options can be given, for instance a regular expression to run only some benchmarks:
+ * BenchmarkRunner Tokenizer
+ * </p>
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+final public class BenchmarkRunner {
+
+   private BenchmarkRunner() {
+   }
+
+   public static void main( final String... args ) throws CommandLineOptionException, RunnerException {
+      final CommandLineOptions commandLineOptions = new CommandLineOptions( args );
+      final OptionsBuilder builder = new OptionsBuilder();
+      if ( commandLineOptions.getIncludes().isEmpty() ) {
+         builder.include( "org\\.apache\\.ctakes\\.benchmarks\\..*Benchmark" );
+      }
+      if ( !commandLineOptions.getResult().hasValue() ) {
+         builder.resultFormat( ResultFormatType.JSON )
+                .result( "benchmarks.json" );
+      }
+      final Options options = builder.parent( commandLineOptions ).build();
+      new Runner( options ).run();
+   }
+
+}
@@ -0,0 +1,34 @@
+package org.apache.ctakes.benchmarks;
+
+import org.apache.ctakes.clinicalpipeline.ClinicalPipelineFactory;
+import org.apache.uima.UIMAException;
+import org.apache.uima.analysis_engine.AnalysisEngineDescription;
+
+import java.io.IOException;
+
+/**
+ * Measures the full default clinical pipeline, see {@link ClinicalPipelineFactory#getDefaultPipeline()}.
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+public class ClinicalPipelineBenchmark extends AbstractAnnotatorBenchmark {
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   protected AnalysisEngineDescription createUpstreamDescription() throws IOException, UIMAException {
+      return null;
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   protected AnalysisEngineDescription createBenchmarkDescription() throws IOException, UIMAException {
+      return ClinicalPipelineFactory.getDefaultPipeline();
+   }
+
+}
@@ -0,0 +1,35 @@
+package org.apache.ctakes.benchmarks;
+
+import org.apache.ctakes.clinicalpipeline.ClinicalPipelineFactory;
+import org.apache.ctakes.dependency.parser.ae.ClearNLPDependencyParserAE;
+import org.apache.uima.UIMAException;
+import org.apache.uima.analysis_engine.AnalysisEngineDescription;
+
+import java.io.IOException;
+
+/**
+ * Measures the {@link ClearNLPDependencyParserAE} on tagged notes.
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+public class DependencyParserBenchmark extends AbstractAnnotatorBenchmark {
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   protected AnalysisEngineDescription createUpstreamDescription() throws IOException, UIMAException {
+      return ClinicalPipelineFactory.getTokenProcessingPipeline();
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   protected AnalysisEngineDescription createBenchmarkDescription() throws IOException, UIMAException {
+      return ClearNLPDependencyParserAE.createAnnotatorDescription();
+   }
+
+}
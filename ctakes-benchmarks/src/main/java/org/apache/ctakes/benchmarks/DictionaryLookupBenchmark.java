@@ -0,0 +1,38 @@
+package org.apache.ctakes.benchmarks;
+
+import org.apache.ctakes.clinicalpipeline.ClinicalPipelineFactory;
+import org.apache.ctakes.dictionary.lookup2.ae.DefaultJCasTermAnnotator;
+import org.apache.uima.UIMAException;
+import org.apache.uima.analysis_engine.AnalysisEngineDescription;
+
+import java.io.IOException;
+
+/**
+ * Measures the {@link DefaultJCasTermAnnotator} with a small bsv dictionary of the terms in the synthetic notes.
+ * Measures lookup itself rather than the speed of some large dictionary database.
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+public class DictionaryLookupBenchmark extends AbstractAnnotatorBenchmark {
+
+   static final String LOOKUP_XML = "org/apache/ctakes/benchmarks/lookup/SyntheticBsv.xml";
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   protected AnalysisEngineDescription createUpstreamDescription() throws IOException, UIMAException {
+      return ClinicalPipelineFactory.getTokenProcessingPipeline();
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   protected AnalysisEngineDescription createBenchmarkDescription() throws IOException, UIMAException {
+      return DefaultJCasTermAnnotator.createAnnotatorDescription( LOOKUP_XML );
+   }
+
+}
@@ -0,0 +1,47 @@
+package org.apache.ctakes.benchmarks;
+
+import org.apache.ctakes.clinicalpipeline.ClinicalPipelineFactory;
+import org.apache.ctakes.constituency.parser.ae.ConstituencyParser;
+import org.apache.ctakes.dependency.parser.ae.ClearNLPDependencyParserAE;
+import org.apache.ctakes.dependency.parser.ae.ClearNLPSemanticRoleLabelerAE;
+import org.apache.ctakes.dictionary.lookup2.ae.DefaultJCasTermAnnotator;
+import org.apache.ctakes.temporal.ae.EventAnnotator;
+import org.apache.uima.fit.factory.AggregateBuilder;
+import org.apache.uima.fit.factory.AnalysisEngineFactory;
+import org.apache.uima.UIMAException;
+import org.apache.uima.analysis_engine.AnalysisEngineDescription;
+
+import java.io.IOException;
+
+/**
+ * Measures the temporal {@link EventAnnotator} on notes preprocessed as they are for temporal extraction.
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+public class EventAnnotatorBenchmark extends AbstractAnnotatorBenchmark {
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   protected AnalysisEngineDescription createUpstreamDescription() throws IOException, UIMAException {
+      final AggregateBuilder builder = new AggregateBuilder();
+      builder.add( ClinicalPipelineFactory.getTokenProcessingPipeline() );
+      builder.add( DefaultJCasTermAnnotator.createAnnotatorDescription( DictionaryLookupBenchmark.LOOKUP_XML ) );
+      builder.add( ClearNLPDependencyParserAE.createAnnotatorDescription() );
+      builder.add( AnalysisEngineFactory.createEngineDescription( ClearNLPSemanticRoleLabelerAE.class ) );
+      builder.add( AnalysisEngineFactory.createEngineDescription( ConstituencyParser.class ) );
+      return builder.createAggregateDescription();
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   protected AnalysisEngineDescription createBenchmarkDescription() throws IOException, UIMAException {
+      return EventAnnotator.createAnnotatorDescription();
+   }
+
+}
@@ -0,0 +1,44 @@
+package org.apache.ctakes.benchmarks;
+
+import org.apache.ctakes.contexttokenizer.ae.ContextDependentTokenizerAnnotator;
+import org.apache.ctakes.core.ae.SentenceDetector;
+import org.apache.ctakes.core.ae.SimpleSegmentAnnotator;
+import org.apache.ctakes.core.ae.TokenizerAnnotatorPTB;
+import org.apache.ctakes.postagger.POSTagger;
+import org.apache.uima.fit.factory.AggregateBuilder;
+import org.apache.uima.UIMAException;
+import org.apache.uima.analysis_engine.AnalysisEngineDescription;
+
+import java.io.IOException;
+
+/**
+ * Measures the {@link POSTagger} on tokenized notes.
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+public class PosTaggerBenchmark extends AbstractAnnotatorBenchmark {
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   protected AnalysisEngineDescription createUpstreamDescription() throws IOException, UIMAException {
+      final AggregateBuilder builder = new AggregateBuilder();
+      builder.add( SimpleSegmentAnnotator.createAnnotatorDescription() );
+      builder.add( SentenceDetector.createAnnotatorDescription() );
+      builder.add( TokenizerAnnotatorPTB.createAnnotatorDescription() );
+      builder.add( ContextDependentTokenizerAnnotator.createAnnotatorDescription() );
+      return builder.createAggregateDescription();
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   protected AnalysisEngineDescription createBenchmarkDescription() throws IOException, UIMAException {
+      return POSTagger.createAnnotatorDescription();
+   }
+
+}
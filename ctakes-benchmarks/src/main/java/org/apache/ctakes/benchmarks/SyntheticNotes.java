@@ -0,0 +1,51 @@
+package org.apache.ctakes.benchmarks;
+
+/**
+ * Creates fixed synthetic clinical notes so that benchmark results are comparable between runs and releases.
+ * Notes contain dictionary terms, negation, history, family history, medications and dates.
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+final public class SyntheticNotes {
+
+   static private final String[] PARAGRAPHS = {
+         "HISTORY OF PRESENT ILLNESS:\n"
+         + "The patient is a %d year old male with a history of hypertension and diabetes mellitus"
+         + " who presents with chest pain that started on %02d/%02d/2016.  He reports shortness of breath on exertion"
+         + " but denies fever, cough or nausea.  The pain lasted for 20 minutes and resolved with rest.\n",
+         "PAST MEDICAL HISTORY:\n"
+         + "1. Hypertension, diagnosed %d years ago.\n"
+         + "2. Atrial fibrillation, on warfarin since %02d/%02d/2014.\n"
+         + "3. Myocardial infarction in %d, status post stent placement.\n",
+         "FAMILY HISTORY:\n"
+         + "His mother had congestive heart failure and asthma.  His father died of a heart attack at age %d."
+         + "  There is no family history of diabetes.  A brother had influenza on %02d/%02d/2015.\n",
+         "MEDICATIONS:\n"
+         + "Aspirin 81 mg daily, metformin 500 mg twice a day, lisinopril %d mg daily."
+         + "  Oxygen as needed for dyspnea.  The patient stopped taking metformin on %02d/%02d/2016.\n",
+         "ASSESSMENT AND PLAN:\n"
+         + "Chest pain, possibly cardiac.  Rule out myocardial infarction.  Pneumonia is unlikely given no fever."
+         + "  Will obtain troponin every %d hours and a chest x-ray.  Follow up in clinic on %02d/%02d/2017"
+         + " for headache and dizziness.\n"
+   };
+
+   private SyntheticNotes() {
+   }
+
+   /**
+    * @param paragraphCount number of paragraphs in the note
+    * @return a note with the given number of paragraphs.  The same count always produces the same note.
+    */
+   static public String getNote( final int paragraphCount ) {
+      final StringBuilder sb = new StringBuilder();
+      for ( int i = 0; i < paragraphCount; i++ ) {
+         final String paragraph = PARAGRAPHS[ i % PARAGRAPHS.length ];
+         sb.append( String.format( paragraph, 40 + i % 50, 1 + i % 12, 1 + i % 28, 1990 + i % 25 ) )
+           .append( '\n' );
+      }
+      return sb.toString();
+   }
+
+}
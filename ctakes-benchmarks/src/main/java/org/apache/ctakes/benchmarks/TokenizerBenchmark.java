@@ -0,0 +1,40 @@
+package org.apache.ctakes.benchmarks;
+
+import org.apache.ctakes.core.ae.SentenceDetector;
+import org.apache.ctakes.core.ae.SimpleSegmentAnnotator;
+import org.apache.ctakes.core.ae.TokenizerAnnotatorPTB;
+import org.apache.uima.fit.factory.AggregateBuilder;
+import org.apache.uima.UIMAException;
+import org.apache.uima.analysis_engine.AnalysisEngineDescription;
+
+import java.io.IOException;
+
+/**
+ * Measures the {@link TokenizerAnnotatorPTB} on notes with sentences.
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+public class TokenizerBenchmark extends AbstractAnnotatorBenchmark {
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   protected AnalysisEngineDescription createUpstreamDescription() throws IOException, UIMAException {
+      final AggregateBuilder builder = new AggregateBuilder();
+      builder.add( SimpleSegmentAnnotator.createAnnotatorDescription() );
+      builder.add( SentenceDetector.createAnnotatorDescription() );
+      return builder.createAggregateDescription();
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   protected AnalysisEngineDescription createBenchmarkDescription() throws IOException, UIMAException {
+      return TokenizerAnnotatorPTB.createAnnotatorDescription();
+   }
+
+}
@@ -19,6 +19,7 @@
 package org.apache.ctakes.chunker.ae;
 
 import opennlp.tools.chunker.ChunkerModel;
+import org.apache.ctakes.core.concurrent.SharedModelCache;
 import org.apache.ctakes.core.pipeline.PipeBitInfo;
 import org.apache.ctakes.core.resource.FileLocator;
 import org.apache.ctakes.typesystem.type.syntax.BaseToken;
@@ -104,8 +105,13 @@ public class Chunker extends JCasAnnotator_ImplBase {
 		super.initialize(uimaContext);
 
     logger.info("Chunker model file: " + chunkerModelPath); 
-		try (InputStream fis = FileLocator.getAsStream(chunkerModelPath)) {
-			ChunkerModel model = new ChunkerModel(fis);
+		try {
+			// The model is read-only, so share it between all instances
+			ChunkerModel model = SharedModelCache.getInstance().getModel( ChunkerModel.class, chunkerModelPath, p -> {
+				try ( InputStream fis = FileLocator.getAsStream( p ) ) {
+					return new ChunkerModel( fis );
+				}
+			} );
 			chunker = new opennlp.tools.chunker.ChunkerME(model);
 
 		} catch (IOException e) {
@@ -1,7 +1,8 @@
 package org.apache.ctakes.chunker.concurrent;
 
 import org.apache.ctakes.chunker.ae.Chunker;
-import org.apache.ctakes.core.concurrent.ThreadSafeWrapper;
+import org.apache.ctakes.core.concurrent.DelegatePool;
+import org.apache.ctakes.core.concurrent.PooledWrapper;
 import org.apache.ctakes.core.pipeline.PipeBitInfo;
 import org.apache.log4j.Logger;
 import org.apache.uima.UimaContext;
@@ -13,7 +14,7 @@ import org.apache.uima.resource.ResourceInitializationException;
 
 /**
  * Normally I would use composition and a singleton, but here extension is done for @ConfigurationParameter discovery.
- * Made a singleton mostly for model memory.
+ * Delegates are pooled so that documents can be processed in parallel.  The model is shared between delegates.
  *
  * @author SPF , chip-nlp
  * @version %I%
@@ -35,7 +36,7 @@ final public class ThreadSafeChunker extends Chunker {
     */
    @Override
    public void initialize( final UimaContext context ) throws ResourceInitializationException {
-      ChunkerSingleton.getInstance().initialize( context );
+      ChunkerPool.getInstance().initialize( context );
    }
 
    /**
@@ -43,7 +44,26 @@ final public class ThreadSafeChunker extends Chunker {
     */
    @Override
    public void process( final JCas jCas ) throws AnalysisEngineProcessException {
-      ChunkerSingleton.getInstance().process( jCas );
+      ChunkerPool.getInstance().process( jCas );
+   }
+
+   /**
+    * Completes the collection on every pooled delegate that has processed a document since the last completion.
+    * {@inheritDoc}
+    */
+   @Override
+   public void collectionProcessComplete() throws AnalysisEngineProcessException {
+      ChunkerPool.getInstance().collectionProcessComplete();
+   }
+
+   /**
+    * Retires and destroys one pooled delegate, the counterpart of the delegate added by {@link #initialize(UimaContext)}.
+    * {@inheritDoc}
+    */
+   @Override
+   public void destroy() {
+      ChunkerPool.getInstance().destroy();
+      super.destroy();
    }
 
    /**
@@ -65,42 +85,24 @@ final public class ThreadSafeChunker extends Chunker {
    }
 
 
-   private enum ChunkerSingleton implements ThreadSafeWrapper<Chunker> {
+   private enum ChunkerPool implements PooledWrapper<Chunker> {
       INSTANCE;
 
-      static public ChunkerSingleton getInstance() {
+      static public ChunkerPool getInstance() {
          return INSTANCE;
       }
 
-      private final Chunker _delegate;
-      private boolean _initialized;
-
-      ChunkerSingleton() {
-         _delegate = new Chunker();
-      }
-
-      final private Object LOCK = new Object();
+      private final DelegatePool<Chunker> _pool = new DelegatePool<>();
 
       @Override
-      public Object getLock() {
-         return LOCK;
+      public Chunker createDelegate() {
+         return new Chunker();
       }
 
       @Override
-      public Chunker getDelegate() {
-         return _delegate;
-      }
-
-      @Override
-      public boolean isInitialized() {
-         return _initialized;
-      }
-
-      @Override
-      public void setInitialized( final boolean initialized ) {
-         _initialized = initialized;
+      public DelegatePool<Chunker> getPool() {
+         return _pool;
       }
    }
 
-
 }
@@ -3,7 +3,7 @@ package org.apache.ctakes.core.ae;
 import org.apache.ctakes.core.pipeline.PipeBitInfo;
 import org.apache.ctakes.core.resource.FileLocator;
 import org.apache.ctakes.core.util.Pair;
-import org.apache.ctakes.core.util.regex.RegexSpanFinder;
+import org.apache.ctakes.core.util.regex.MultiPatternFinder;
 import org.apache.ctakes.typesystem.type.textspan.ListEntry;
 import org.apache.ctakes.typesystem.type.textspan.Segment;
 import org.apache.log4j.Logger;
@@ -79,8 +79,7 @@ final public class ListAnnotator extends JCasAnnotator_ImplBase {
    }
 
    private final Collection<ListType> _listTypes = new HashSet<>();
-
-//   private final ExecutorService _executor = Executors.newSingleThreadExecutor();
+   private MultiPatternFinder<ListType> _listFinder;
 
    /**
     * {@inheritDoc}
@@ -103,6 +102,9 @@ final public class ListAnnotator extends JCasAnnotator_ImplBase {
       } catch ( IOException ioE ) {
          throw new ResourceInitializationException( ioE );
       }
+      final Map<ListType, Pattern> listPatterns = new LinkedHashMap<>();
+      _listTypes.forEach( t -> listPatterns.put( t, t.__listPattern ) );
+      _listFinder = new MultiPatternFinder<>( listPatterns );
       LOGGER.info( "Finished Parsing" );
    }
 
@@ -126,17 +128,7 @@ final public class ListAnnotator extends JCasAnnotator_ImplBase {
 
 
    private Map<Pair<Integer>, ListType> findListTypes( final String text ) {
-      final Map<Pair<Integer>, ListType> listTypes = new HashMap<>();
-      for ( ListType listType : _listTypes ) {
-         if ( listType.__listPattern == null ) {
-            continue;
-         }
-         try ( RegexSpanFinder finder = new RegexSpanFinder( listType.__listPattern ) ) {
-            final List<Pair<Integer>> spans = finder.findSpans( text );
-            spans.forEach( s -> listTypes.put( s, listType ) );
-         }
-      }
-      return listTypes;
+      return _listFinder.findKeyedSpans( text );
    }
 
 
@@ -3,6 +3,7 @@ package org.apache.ctakes.core.ae;
 import org.apache.ctakes.core.pipeline.PipeBitInfo;
 import org.apache.ctakes.core.resource.FileLocator;
 import org.apache.ctakes.core.util.Pair;
+import org.apache.ctakes.core.util.regex.MultiPatternFinder;
 import org.apache.ctakes.core.util.regex.RegexSpanFinder;
 import org.apache.ctakes.typesystem.type.textspan.Paragraph;
 import org.apache.ctakes.typesystem.type.textspan.Segment;
@@ -65,6 +66,7 @@ final public class ParagraphAnnotator extends JCasAnnotator_ImplBase {
    }
 
    private final Collection<ParagraphType> _paragraphTypes = new HashSet<>();
+   private MultiPatternFinder<ParagraphType> _separatorFinder;
 
 
    /**
@@ -77,6 +79,7 @@ final public class ParagraphAnnotator extends JCasAnnotator_ImplBase {
          LOGGER.info( "No " + PARAGRAPH_TYPES_DESC );
          LOGGER.info( "Using default paragraph separator: two newlines" );
          parseBsvLine( DEFAULT_PARAGRAPH );
+         createSeparatorFinder();
          return;
       }
       LOGGER.info( "Parsing " + _paragraphTypesPath );
@@ -90,9 +93,19 @@ final public class ParagraphAnnotator extends JCasAnnotator_ImplBase {
       } catch ( IOException ioE ) {
          throw new ResourceInitializationException( ioE );
       }
+      createSeparatorFinder();
       LOGGER.info( "Finished Parsing" );
    }
 
+   /**
+    * Compile the separator patterns of all paragraph types into a single finder.
+    */
+   private void createSeparatorFinder() {
+      final Map<ParagraphType, Pattern> separatorPatterns = new LinkedHashMap<>();
+      _paragraphTypes.forEach( t -> separatorPatterns.put( t, t.__separatorPattern ) );
+      _separatorFinder = new MultiPatternFinder<>( separatorPatterns );
+   }
+
    /**
     * {@inheritDoc}
     */
@@ -109,14 +122,7 @@ final public class ParagraphAnnotator extends JCasAnnotator_ImplBase {
 
 
    private Collection<Pair<Integer>> findSeparators( final String docText ) {
-      final Collection<Pair<Integer>> separators = new HashSet<>();
-      for ( ParagraphType paragraphType : _paragraphTypes ) {
-         if ( paragraphType.__separatorPattern == null ) {
-            continue;
-         }
-         separators.addAll( findSeparators( docText, paragraphType.__separatorPattern ) );
-      }
-      return separators;
+      return new HashSet<>( _separatorFinder.findSpans( docText ) );
    }
 
    // package protected for unit tests
@@ -3,8 +3,8 @@ package org.apache.ctakes.core.ae;
 
 import org.apache.ctakes.core.pipeline.PipeBitInfo;
 import org.apache.ctakes.core.util.Pair;
+import org.apache.ctakes.core.util.regex.MultiPatternFinder;
 import org.apache.ctakes.core.util.regex.RegexSpanFinder;
-import org.apache.ctakes.core.util.regex.TimeoutMatcher;
 import org.apache.ctakes.typesystem.type.textspan.Segment;
 import org.apache.log4j.Logger;
 import org.apache.uima.UimaContext;
@@ -16,7 +16,6 @@ import org.apache.uima.resource.ResourceInitializationException;
 
 import java.util.*;
 import java.util.function.Function;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -50,6 +49,7 @@ abstract public class RegexSectionizer extends JCasAnnotator_ImplBase {
    static private final String SECTION_NAME_EX = "SECTION_NAME";
    static public final String DIVIDER_LINE_NAME = "DIVIDER_LINE";
    static private final Pattern DIVIDER_LINE_PATTERN = Pattern.compile( "^[\\t ]*[_\\-=]{4,}[\\t ]*$" );
+   static private final RegexSpanFinder DIVIDER_FINDER = new RegexSpanFinder( DIVIDER_LINE_PATTERN );
 
    private enum TagType {
       HEADER, FOOTER, DIVIDER
@@ -110,6 +110,8 @@ abstract public class RegexSectionizer extends JCasAnnotator_ImplBase {
    static private final Object SECTION_TYPE_LOCK = new Object();
    static private final Map<String, SectionType> _sectionTypes = new HashMap<>();
    static private volatile boolean _sectionsLoaded = false;
+   static private MultiPatternFinder<SectionType> _headerFinder;
+   static private MultiPatternFinder<SectionType> _footerFinder;
 
    static protected void addSectionType( final SectionType sectionType ) {
       _sectionTypes.put( sectionType.__name, sectionType );
@@ -128,6 +130,7 @@ abstract public class RegexSectionizer extends JCasAnnotator_ImplBase {
       synchronized (SECTION_TYPE_LOCK) {
          if ( !_sectionsLoaded ) {
             loadSections();
+            createFinders();
             _sectionsLoaded = true;
          }
       }
@@ -259,15 +262,7 @@ abstract public class RegexSectionizer extends JCasAnnotator_ImplBase {
     * @return section tags mapped to index pairs
     */
    static private Map<Pair<Integer>, SectionTag> findHeaderTags( final String docText ) {
-      final Map<Pair<Integer>, SectionTag> headerTags = new HashMap<>();
-      for ( SectionType sectionType : _sectionTypes.values() ) {
-         if ( sectionType.__headerPattern == null ) {
-            continue;
-         }
-         headerTags
-               .putAll( findSectionTags( docText, sectionType.__name, sectionType.__headerPattern, TagType.HEADER ) );
-      }
-      return headerTags;
+      return findSectionTags( docText, _headerFinder, TagType.HEADER );
    }
 
    /**
@@ -277,53 +272,54 @@ abstract public class RegexSectionizer extends JCasAnnotator_ImplBase {
     * @return section tags mapped to index pairs
     */
    static private Map<Pair<Integer>, SectionTag> findFooterTags( final String docText ) {
-      final Map<Pair<Integer>, SectionTag> footerTags = new HashMap<>();
-      for ( SectionType sectionType : _sectionTypes.values() ) {
-         if ( sectionType.__footerPattern == null ) {
-            continue;
-         }
-         footerTags
-               .putAll( findSectionTags( docText, sectionType.__name, sectionType.__footerPattern, TagType.FOOTER ) );
-      }
-      return footerTags;
+      return findSectionTags( docText, _footerFinder, TagType.FOOTER );
    }
 
    /**
-    * @param docText    -
-    * @param typeName   section type name
-    * @param tagPattern regex pattern for section type
-    * @param tagType    header or footer
+    * @param docText -
+    * @param finder  finder with tag patterns for all section types
+    * @param tagType header or footer
     * @return section tags mapped to index pairs
     */
    static Map<Pair<Integer>, SectionTag> findSectionTags( final String docText,
-                                                          final String typeName,
-                                                          final Pattern tagPattern,
+                                                          final MultiPatternFinder<SectionType> finder,
                                                           final TagType tagType ) {
       final Map<Pair<Integer>, SectionTag> sectionTags = new HashMap<>();
-      try ( TimeoutMatcher finder = new TimeoutMatcher( tagPattern, docText ) ) {
-         Matcher tagMatcher = finder.nextMatch();
-         while ( tagMatcher != null ) {
-            String name;
-            // the start tag of this tag is the start of the current match
-            // the end tag of this tag is the end of the current match, exclusive
-            final Pair<Integer> tagBounds = new Pair<>( tagMatcher.start(), tagMatcher.end() );
-            try {
-               name = tagMatcher.group( SECTION_NAME_EX );
-               if ( name == null || name.isEmpty() ) {
-                  name = typeName;
-               }
-            } catch ( IllegalArgumentException iaE ) {
-               name = typeName;
+      if ( finder == null ) {
+         return sectionTags;
+      }
+      finder.find( docText, ( sectionType, tagMatcher ) -> {
+         String name;
+         // the start tag of this tag is the start of the current match
+         // the end tag of this tag is the end of the current match, exclusive
+         final Pair<Integer> tagBounds = new Pair<>( tagMatcher.start(), tagMatcher.end() );
+         try {
+            name = tagMatcher.group( SECTION_NAME_EX );
+            if ( name == null || name.isEmpty() ) {
+               name = sectionType.__name;
             }
-            sectionTags.put( tagBounds, new SectionTag( name, typeName, tagType ) );
-            tagMatcher = finder.nextMatch();
+         } catch ( IllegalArgumentException iaE ) {
+            name = sectionType.__name;
          }
-      } catch ( IllegalArgumentException iaE ) {
-         LOGGER.error( iaE.getMessage() );
-      }
+         sectionTags.put( tagBounds, new SectionTag( name, sectionType.__name, tagType ) );
+      } );
       return sectionTags;
    }
 
+   /**
+    * Compile the header and footer patterns of all section types into shared finders.
+    */
+   static private void createFinders() {
+      final Map<SectionType, Pattern> headerPatterns = new LinkedHashMap<>();
+      final Map<SectionType, Pattern> footerPatterns = new LinkedHashMap<>();
+      for ( SectionType sectionType : _sectionTypes.values() ) {
+         headerPatterns.put( sectionType, sectionType.__headerPattern );
+         footerPatterns.put( sectionType, sectionType.__footerPattern );
+      }
+      _headerFinder = new MultiPatternFinder<>( headerPatterns );
+      _footerFinder = new MultiPatternFinder<>( footerPatterns );
+   }
+
    /**
     * All tags are treated equally as segment bounds, whether header or footer
     *
@@ -439,12 +435,8 @@ abstract public class RegexSectionizer extends JCasAnnotator_ImplBase {
     * @return section tags mapped to index pairs
     */
    static private Map<Pair<Integer>, SectionTag> findDividerLines( final String docText ) {
-      final Function<Pair<Integer>, SectionTag> lineDividerTag = p -> LINE_DIVIDER_TAG;
-      try ( RegexSpanFinder finder = new RegexSpanFinder( DIVIDER_LINE_PATTERN ) ) {
-         return finder.findSpans( docText ).stream().collect( Collectors.toMap( Function.identity(), lineDividerTag ) );
-      } catch ( IllegalArgumentException iaE ) {
-         return Collections.emptyMap();
-      }
+      return DIVIDER_FINDER.findSpans( docText ).stream()
+                           .collect( Collectors.toMap( Function.identity(), p -> LINE_DIVIDER_TAG ) );
    }
 
 
@@ -24,6 +24,7 @@ import opennlp.tools.util.MarkableFileInputStreamFactory;
 import opennlp.tools.util.ObjectStream;
 import opennlp.tools.util.PlainTextByLineStream;
 import opennlp.tools.util.TrainingParameters;
+import org.apache.ctakes.core.concurrent.SharedModelCache;
 import org.apache.ctakes.core.pipeline.PipeBitInfo;
 import org.apache.ctakes.core.resource.FileLocator;
 import org.apache.ctakes.core.sentence.EndOfSentenceScannerImpl;
@@ -108,9 +109,14 @@ public class SentenceDetector extends JCasAnnotator_ImplBase {
   public void initialize(UimaContext aContext)
 			throws ResourceInitializationException {
 		super.initialize(aContext);
-		try (InputStream is = FileLocator.getAsStream(sdModelPath)){
+		try {
 		  logger.info("Sentence detector model file: " + sdModelPath);
-		  sdmodel = new SentenceModel(is);
+		  // The model is read-only, so share it between all instances
+		  sdmodel = SharedModelCache.getInstance().getModel( SentenceModel.class, sdModelPath, p -> {
+		    try ( InputStream is = FileLocator.getAsStream( p ) ) {
+		      return new SentenceModel( is );
+		    }
+		  } );
 		  EndOfSentenceScannerImpl eoss = new EndOfSentenceScannerImpl();
 		  DefaultSDContextGenerator cg = new DefaultSDContextGenerator(eoss.getEndOfSentenceCharacters());
 		  sentenceDetector = new SentenceDetectorCtakes(sdmodel.getMaxentModel(), cg, eoss);
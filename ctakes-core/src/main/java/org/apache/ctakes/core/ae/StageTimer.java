@@ -0,0 +1,113 @@
+package org.apache.ctakes.core.ae;
+
+import org.apache.ctakes.core.pipeline.PipeBitInfo;
+import org.apache.ctakes.core.pipeline.PipelineMetrics;
+import org.apache.uima.UimaContext;
+import org.apache.uima.analysis_engine.AnalysisEngineDescription;
+import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
+import org.apache.uima.cas.CASException;
+import org.apache.uima.fit.component.JCasAnnotator_ImplBase;
+import org.apache.uima.fit.descriptor.ConfigurationParameter;
+import org.apache.uima.fit.factory.AnalysisEngineFactory;
+import org.apache.uima.jcas.JCas;
+import org.apache.uima.resource.ResourceInitializationException;
+
+import java.util.Iterator;
+
+/**
+ * Placed before and after some other annotator to record the time it takes, the annotations it adds
+ * and the memory it allocates for each document.
+ * Metrics are kept by the {@link PipelineMetrics} singleton.
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+@PipeBitInfo(
+      name = "Stage Timer",
+      description = "Simple Annotator to place before and after other annotators to record their processing metrics.",
+      role = PipeBitInfo.Role.SPECIAL
+)
+public class StageTimer extends JCasAnnotator_ImplBase {
+
+   public static final String PARAM_STAGE_NAME = "STAGE_NAME";
+   @ConfigurationParameter(
+         name = PARAM_STAGE_NAME,
+         description = "provides the unique name of the stage for which metrics should be recorded."
+   )
+   private String _stageName;
+
+   public static final String PARAM_IS_START = "IS_START";
+   @ConfigurationParameter(
+         name = PARAM_IS_START,
+         description = "indicates whether this marks the start of the stage."
+   )
+   private boolean _isStart;
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public void initialize( final UimaContext context ) throws ResourceInitializationException {
+      super.initialize( context );
+      if ( !_isStart ) {
+         PipelineMetrics.getInstance().openStage( _stageName );
+      }
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public void process( final JCas jcas ) throws AnalysisEngineProcessException {
+      final long annotationCount = countAnnotations( jcas );
+      if ( _isStart ) {
+         PipelineMetrics.getInstance().startStage( _stageName, annotationCount );
+      } else {
+         PipelineMetrics.getInstance().finishStage( _stageName, annotationCount );
+      }
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public void collectionProcessComplete() throws AnalysisEngineProcessException {
+      super.collectionProcessComplete();
+      if ( !_isStart ) {
+         PipelineMetrics.getInstance().closeStage( _stageName );
+      }
+   }
+
+   /**
+    * @param jcas -
+    * @return number of annotations in all views of the cas
+    * @throws AnalysisEngineProcessException if the views cannot be accessed
+    */
+   static private long countAnnotations( final JCas jcas ) throws AnalysisEngineProcessException {
+      long count = 0;
+      try {
+         final Iterator<JCas> views = jcas.getViewIterator();
+         while ( views.hasNext() ) {
+            count += views.next().getAnnotationIndex().size();
+         }
+      } catch ( CASException casE ) {
+         throw new AnalysisEngineProcessException( casE );
+      }
+      return count;
+   }
+
+   /**
+    * @param stageName unique name for the stage
+    * @param isStart   true to return an Engine that marks the start, false to return an Engine that marks the finish
+    * @return Stage Timer Engine description
+    * @throws ResourceInitializationException if UimaFit has a problem
+    */
+   public static AnalysisEngineDescription createDescription( final String stageName, final boolean isStart )
+         throws ResourceInitializationException {
+      return AnalysisEngineFactory.createEngineDescription( StageTimer.class,
+            PARAM_STAGE_NAME, stageName,
+            PARAM_IS_START, isStart );
+   }
+
+}
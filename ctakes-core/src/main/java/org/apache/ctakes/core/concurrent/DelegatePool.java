@@ -0,0 +1,194 @@
+package org.apache.ctakes.core.concurrent;
+
+import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Holds a set of delegate annotators, each of which may be lent to one thread at a time.
+ * Used by {@link PooledWrapper} so that enum singletons can keep the pool as a simple field.
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+final public class DelegatePool<AE> {
+
+   /**
+    * An action on a delegate that has been lent to the calling thread.
+    *
+    * @param <AE> delegate type
+    */
+   @FunctionalInterface
+   public interface DelegateAction<AE> {
+      void run( AE delegate ) throws AnalysisEngineProcessException;
+   }
+
+   private final BlockingQueue<AE> _idleDelegates = new LinkedBlockingQueue<>();
+   private final Collection<AE> _allDelegates = new CopyOnWriteArrayList<>();
+   // delegates that have completed the collection and have not been lent since
+   private final Set<AE> _completedDelegates = ConcurrentHashMap.newKeySet();
+   // delegates to retire as soon as they are released
+   private final AtomicInteger _pendingRetirements = new AtomicInteger();
+
+   /**
+    * @param delegate new delegate, immediately available for use
+    */
+   public void add( final AE delegate ) {
+      _allDelegates.add( delegate );
+      _idleDelegates.add( delegate );
+   }
+
+   /**
+    * Blocks until a delegate is available.
+    *
+    * @return a delegate that is not in use by any other thread
+    * @throws InterruptedException if interrupted while waiting
+    */
+   public AE borrow() throws InterruptedException {
+      final AE delegate = _idleDelegates.take();
+      _completedDelegates.remove( delegate );
+      return delegate;
+   }
+
+   /**
+    * @param delegate delegate previously obtained by {@link #borrow()}
+    * @return true if the delegate was retired instead of returned to the pool, in which case the caller must destroy it
+    */
+   public boolean release( final AE delegate ) {
+      if ( !_allDelegates.contains( delegate ) ) {
+         return false;
+      }
+      if ( _pendingRetirements.get() > 0 && decrementPendingRetirements() ) {
+         _allDelegates.remove( delegate );
+         return true;
+      }
+      _idleDelegates.add( delegate );
+      return false;
+   }
+
+   /**
+    * Removes a delegate from the pool without waiting.
+    * If every delegate is in use then the next delegate to be released is retired instead.
+    *
+    * @return an idle delegate that is no longer in the pool and should be destroyed by the caller,
+    * or null if no delegate is idle or the pool is empty
+    */
+   public AE retire() {
+      AE delegate = _idleDelegates.poll();
+      if ( delegate == null ) {
+         if ( _allDelegates.size() <= _pendingRetirements.get() ) {
+            return null;
+         }
+         _pendingRetirements.incrementAndGet();
+         // a delegate may have been released between the poll and the increment
+         delegate = _idleDelegates.poll();
+         if ( delegate == null ) {
+            return null;
+         }
+         if ( !decrementPendingRetirements() ) {
+            // a concurrent release has already retired a delegate for this call
+            _idleDelegates.add( delegate );
+            return null;
+         }
+      }
+      _allDelegates.remove( delegate );
+      _completedDelegates.remove( delegate );
+      return delegate;
+   }
+
+   private boolean decrementPendingRetirements() {
+      int pending = _pendingRetirements.get();
+      while ( pending > 0 ) {
+         if ( _pendingRetirements.compareAndSet( pending, pending - 1 ) ) {
+            return true;
+         }
+         pending = _pendingRetirements.get();
+      }
+      return false;
+   }
+
+   /**
+    * Removes a delegate previously obtained by {@link #borrow()} from the pool permanently.
+    *
+    * @param delegate -
+    * @return true if the delegate was in the pool
+    */
+   public boolean remove( final AE delegate ) {
+      _idleDelegates.remove( delegate );
+      _completedDelegates.remove( delegate );
+      return _allDelegates.remove( delegate );
+   }
+
+   /**
+    * Runs an action once on every delegate that has been used since the last call, e.g. collectionProcessComplete.
+    * Waits until each delegate is idle, so the action never runs concurrently with other use of the delegate.
+    * Calls are serialized, so several wrappers of the same pool may complete the collection without deadlock.
+    *
+    * @param action to run on each delegate
+    * @throws AnalysisEngineProcessException from the action
+    * @throws InterruptedException           if interrupted while waiting for a delegate
+    */
+   synchronized public void completeAll( final DelegateAction<AE> action )
+         throws AnalysisEngineProcessException, InterruptedException {
+      final Collection<AE> borrowed = new ArrayList<>();
+      try {
+         // delegates may be retired while waiting, so check the pool size again after each wait
+         while ( borrowed.size() < _allDelegates.size() ) {
+            final AE delegate = _idleDelegates.poll( 100, TimeUnit.MILLISECONDS );
+            if ( delegate != null ) {
+               borrowed.add( delegate );
+            }
+         }
+         for ( AE delegate : borrowed ) {
+            if ( !_completedDelegates.contains( delegate ) ) {
+               action.run( delegate );
+               _completedDelegates.add( delegate );
+            }
+         }
+      } finally {
+         _idleDelegates.addAll( borrowed );
+      }
+   }
+
+   /**
+    * @return some delegate, in use or not, for read-only queries.  null if the pool is empty.
+    */
+   public AE getAny() {
+      for ( AE delegate : _allDelegates ) {
+         return delegate;
+      }
+      return null;
+   }
+
+   /**
+    * @return all delegates, in use or not
+    */
+   public Collection<AE> getAll() {
+      return Collections.unmodifiableCollection( _allDelegates );
+   }
+
+   /**
+    * @return number of delegates in the pool
+    */
+   public int size() {
+      return _allDelegates.size();
+   }
+
+   /**
+    * @return number of delegates not currently lent to a thread
+    */
+   public int getIdleCount() {
+      return _idleDelegates.size();
+   }
+
+}
@@ -0,0 +1,235 @@
+package org.apache.ctakes.core.concurrent;
+
+import org.apache.uima.UimaContext;
+import org.apache.uima.analysis_component.AnalysisComponent;
+import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
+import org.apache.uima.analysis_engine.ResultSpecification;
+import org.apache.uima.cas.AbstractCas;
+import org.apache.uima.fit.component.JCasAnnotator_ImplBase;
+import org.apache.uima.fit.internal.ExtendedLogger;
+import org.apache.uima.jcas.JCas;
+import org.apache.uima.resource.ResourceConfigurationException;
+import org.apache.uima.resource.ResourceInitializationException;
+
+import java.util.function.Function;
+
+/**
+ * Pooled alternative to {@link ThreadSafeWrapper}.
+ * Instead of a single delegate guarded by a lock, every call to initialize adds a new delegate to a pool.
+ * Each call to process borrows an idle delegate, so that as many documents can be processed at once as there are
+ * pipeline threads.
+ * <p>
+ * Delegates must not share mutable state.  Read-only models should be obtained through {@link SharedModelCache}
+ * so that they are only loaded once regardless of the pool size.
+ * </p>
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+public interface PooledWrapper<AE extends JCasAnnotator_ImplBase> extends AnalysisComponent {
+
+   /**
+    * @return a new, uninitialized annotator
+    */
+   AE createDelegate();
+
+   /**
+    * @return the pool of initialized annotators
+    */
+   DelegatePool<AE> getPool();
+
+   /**
+    * Creates and initializes a new delegate, then makes it available to the pool.
+    */
+   @Override
+   default void initialize( final UimaContext context ) throws ResourceInitializationException {
+      final AE delegate = createDelegate();
+      delegate.initialize( context );
+      getPool().add( delegate );
+   }
+
+   /**
+    * @return an idle delegate
+    * @throws AnalysisEngineProcessException if interrupted while waiting for an idle delegate
+    */
+   default AE borrowDelegate() throws AnalysisEngineProcessException {
+      try {
+         return getPool().borrow();
+      } catch ( InterruptedException intE ) {
+         Thread.currentThread().interrupt();
+         throw new AnalysisEngineProcessException( intE );
+      }
+   }
+
+   /**
+    * Returns a borrowed delegate to the pool, or destroys it if {@link #destroy()} retired it while it was in use.
+    *
+    * @param delegate delegate obtained by {@link #borrowDelegate()}
+    */
+   default void releaseDelegate( final AE delegate ) {
+      if ( getPool().release( delegate ) ) {
+         delegate.destroy();
+      }
+   }
+
+   /**
+    * @param query    read-only query of a delegate
+    * @param fallback value for an empty pool
+    * @param <T>      type of the value
+    * @return the query result of some delegate, or the fallback if the pool is empty
+    */
+   default <T> T queryAny( final Function<AE, T> query, final T fallback ) {
+      final AE delegate = getPool().getAny();
+      return delegate == null ? fallback : query.apply( delegate );
+   }
+
+   /**
+    * Calls process on an idle delegate
+    */
+   default void process( final JCas jCas ) throws AnalysisEngineProcessException {
+      final AE delegate = borrowDelegate();
+      try {
+         delegate.process( jCas );
+      } finally {
+         releaseDelegate( delegate );
+      }
+   }
+
+   /**
+    * from uimafit JCasAnnotator_ImplBase
+    *
+    * @return -
+    * @throws IllegalStateException if no delegate has been initialized
+    */
+   default ExtendedLogger getLogger() {
+      final AE delegate = getPool().getAny();
+      if ( delegate == null ) {
+         throw new IllegalStateException( "No initialized delegate in the pool of " + getClass().getName() );
+      }
+      return delegate.getLogger();
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   default void reconfigure() throws ResourceConfigurationException, ResourceInitializationException {
+      final AE delegate;
+      try {
+         delegate = borrowDelegate();
+      } catch ( AnalysisEngineProcessException aeE ) {
+         throw new ResourceInitializationException( aeE );
+      }
+      try {
+         delegate.reconfigure();
+      } finally {
+         releaseDelegate( delegate );
+      }
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   default void batchProcessComplete() throws AnalysisEngineProcessException {
+      final AE delegate = borrowDelegate();
+      try {
+         delegate.batchProcessComplete();
+      } finally {
+         releaseDelegate( delegate );
+      }
+   }
+
+   /**
+    * Calls collectionProcessComplete once on every delegate that has been used since the last call.
+    * Waits until each delegate is idle.
+    * {@inheritDoc}
+    */
+   @Override
+   default void collectionProcessComplete() throws AnalysisEngineProcessException {
+      try {
+         getPool().completeAll( AE::collectionProcessComplete );
+      } catch ( InterruptedException intE ) {
+         Thread.currentThread().interrupt();
+         throw new AnalysisEngineProcessException( intE );
+      }
+   }
+
+   /**
+    * Removes one delegate from the pool and destroys it without waiting.
+    * If every delegate is in use then the next delegate to be released is destroyed.
+    * {@inheritDoc}
+    */
+   @Override
+   default void destroy() {
+      final AE delegate = getPool().retire();
+      if ( delegate != null ) {
+         delegate.destroy();
+      }
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   default void process( final AbstractCas aCas ) throws AnalysisEngineProcessException {
+      final AE delegate = borrowDelegate();
+      try {
+         delegate.process( aCas );
+      } finally {
+         releaseDelegate( delegate );
+      }
+   }
+
+   /**
+    * JCasAnnotator_ImplBase is never a cas multiplier.
+    * {@inheritDoc}
+    */
+   @Override
+   default boolean hasNext() throws AnalysisEngineProcessException {
+      final AE delegate = getPool().getAny();
+      return delegate != null && delegate.hasNext();
+   }
+
+   /**
+    * JCasAnnotator_ImplBase is never a cas multiplier.
+    * {@inheritDoc}
+    */
+   @Override
+   default AbstractCas next() throws AnalysisEngineProcessException {
+      final AE delegate = getPool().getAny();
+      if ( delegate == null ) {
+         throw new AnalysisEngineProcessException(
+               new IllegalStateException( "No initialized delegate in the pool of " + getClass().getName() ) );
+      }
+      return delegate.next();
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   default Class<JCas> getRequiredCasInterface() {
+      return queryAny( AE::getRequiredCasInterface, JCas.class );
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   default int getCasInstancesRequired() {
+      return queryAny( AE::getCasInstancesRequired, 0 );
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   default void setResultSpecification( final ResultSpecification resultSpec ) {
+      for ( AE delegate : getPool().getAll() ) {
+         delegate.setResultSpecification( resultSpec );
+      }
+   }
+
+}
@@ -0,0 +1,83 @@
+package org.apache.ctakes.core.concurrent;
+
+import org.apache.log4j.Logger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds read-only models (OpenNLP models, dictionaries, etc.) so that multiple annotator instances,
+ * for instance the delegates in a {@link PooledWrapper}, load each model only once.
+ * Only objects that are safe for concurrent reads should be cached.
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+public enum SharedModelCache {
+   INSTANCE;
+
+   static public SharedModelCache getInstance() {
+      return INSTANCE;
+   }
+
+   static private final Logger LOGGER = Logger.getLogger( "SharedModelCache" );
+
+   /**
+    * Loads a model from some path.
+    *
+    * @param <T> type of model
+    */
+   @FunctionalInterface
+   public interface ModelLoader<T> {
+      T load( String path ) throws IOException;
+   }
+
+   private final Map<String, Object> _models = new ConcurrentHashMap<>();
+
+   /**
+    * @param modelClass class of model, used with the path as a unique key
+    * @param path       path to the model
+    * @param loader     loads the model if it is not already cached
+    * @param <T>        type of model
+    * @return the single shared instance of the model at the given path
+    * @throws IOException if the model could not be loaded
+    */
+   public <T> T getModel( final Class<T> modelClass, final String path, final ModelLoader<T> loader )
+         throws IOException {
+      final String key = modelClass.getName() + ':' + path;
+      try {
+         return modelClass.cast( _models.computeIfAbsent( key, k -> loadModel( path, loader ) ) );
+      } catch ( UncheckedIOException uioE ) {
+         throw uioE.getCause();
+      }
+   }
+
+   /**
+    * @param modelClass class of model
+    * @param path       path to the model
+    * @return true if the model was cached and has been removed
+    */
+   public boolean removeModel( final Class<?> modelClass, final String path ) {
+      return _models.remove( modelClass.getName() + ':' + path ) != null;
+   }
+
+   /**
+    * Removes all cached models.  Annotators that already hold a model will continue to use it.
+    */
+   public void clear() {
+      _models.clear();
+   }
+
+   static private <T> T loadModel( final String path, final ModelLoader<T> loader ) {
+      LOGGER.info( "Loading shared model " + path );
+      try {
+         return loader.load( path );
+      } catch ( IOException ioE ) {
+         throw new UncheckedIOException( ioE );
+      }
+   }
+
+}
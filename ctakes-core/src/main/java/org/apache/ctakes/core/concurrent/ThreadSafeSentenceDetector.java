@@ -12,7 +12,7 @@ import org.apache.uima.resource.ResourceInitializationException;
 
 /**
  * Normally I would use composition and a singleton, but here extension is done for @ConfigurationParameter discovery.
- * Made a singleton mostly for model memory.
+ * Delegates are pooled so that documents can be processed in parallel.  The model is shared between delegates.
  *
  * @author SPF , chip-nlp
  * @version %I%
@@ -33,7 +33,7 @@ final public class ThreadSafeSentenceDetector extends SentenceDetector {
     */
    @Override
    public void initialize( final UimaContext context ) throws ResourceInitializationException {
-      SdSingleton.getInstance().initialize( context );
+      SdPool.getInstance().initialize( context );
    }
 
    /**
@@ -41,7 +41,33 @@ final public class ThreadSafeSentenceDetector extends SentenceDetector {
     */
    @Override
    public void process( final JCas jCas ) throws AnalysisEngineProcessException {
-      SdSingleton.getInstance().process( jCas );
+      SdPool.getInstance().process( jCas );
+   }
+
+   /**
+    * Completes the collection on every pooled delegate that has processed a document since the last completion.
+    * {@inheritDoc}
+    */
+   @Override
+   public void collectionProcessComplete() throws AnalysisEngineProcessException {
+      SdPool.getInstance().collectionProcessComplete();
+   }
+
+   /**
+    * Retires and destroys one pooled delegate, the counterpart of the delegate added by {@link #initialize(UimaContext)}.
+    * {@inheritDoc}
+    */
+   @Override
+   public void destroy() {
+      SdPool.getInstance().destroy();
+      super.destroy();
+   }
+
+   /**
+    * @return number of initialized delegates that have not been destroyed
+    */
+   static int getPoolSize() {
+      return SdPool.getInstance().getPool().size();
    }
 
    /**
@@ -52,40 +78,23 @@ final public class ThreadSafeSentenceDetector extends SentenceDetector {
       return AnalysisEngineFactory.createEngineDescription( ThreadSafeSentenceDetector.class );
    }
 
-   private enum SdSingleton implements ThreadSafeWrapper<SentenceDetector> {
+   private enum SdPool implements PooledWrapper<SentenceDetector> {
       INSTANCE;
 
-      static public SdSingleton getInstance() {
+      static public SdPool getInstance() {
          return INSTANCE;
       }
 
-      private final SentenceDetector _delegate;
-      private boolean _initialized;
-
-      SdSingleton() {
-         _delegate = new SentenceDetector();
-      }
-
-      final private Object LOCK = new Object();
-
-      @Override
-      public Object getLock() {
-         return LOCK;
-      }
-
-      @Override
-      public SentenceDetector getDelegate() {
-         return _delegate;
-      }
+      private final DelegatePool<SentenceDetector> _pool = new DelegatePool<>();
 
       @Override
-      public boolean isInitialized() {
-         return _initialized;
+      public SentenceDetector createDelegate() {
+         return new SentenceDetector();
       }
 
       @Override
-      public void setInitialized( final boolean initialized ) {
-         _initialized = initialized;
+      public DelegatePool<SentenceDetector> getPool() {
+         return _pool;
       }
    }
 
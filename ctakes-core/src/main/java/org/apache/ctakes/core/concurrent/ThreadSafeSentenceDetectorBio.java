@@ -46,6 +46,24 @@ final public class ThreadSafeSentenceDetectorBio extends SentenceDetectorAnnotat
       SdBioSingleton.getInstance().process( jCas );
    }
 
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public void collectionProcessComplete() throws AnalysisEngineProcessException {
+      SdBioSingleton.getInstance().collectionProcessComplete();
+   }
+
+   /**
+    * Destroys the shared delegate when the last wrapper is destroyed.
+    * {@inheritDoc}
+    */
+   @Override
+   public void destroy() {
+      SdBioSingleton.getInstance().destroy();
+      super.destroy();
+   }
+
    /**
     * @param modelPath model using b i o tagging
     * @return a sentence detector using the given model
@@ -79,6 +97,10 @@ final public class ThreadSafeSentenceDetectorBio extends SentenceDetectorAnnotat
 
       private final SentenceDetectorAnnotatorBIO _delegate;
       private boolean _initialized;
+      // wrappers that have been initialized and not yet destroyed
+      private int _wrapperCount;
+      // true if a document has been processed since the collection was last completed
+      private boolean _processed;
 
       SdBioSingleton() {
          _delegate = new SentenceDetectorAnnotatorBIO();
@@ -105,6 +127,51 @@ final public class ThreadSafeSentenceDetectorBio extends SentenceDetectorAnnotat
       public void setInitialized( final boolean initialized ) {
          _initialized = initialized;
       }
+
+      @Override
+      public void initialize( final UimaContext context ) throws ResourceInitializationException {
+         synchronized ( LOCK ) {
+            ThreadSafeWrapper.super.initialize( context );
+            _wrapperCount++;
+         }
+      }
+
+      @Override
+      public void process( final JCas jCas ) throws AnalysisEngineProcessException {
+         synchronized ( LOCK ) {
+            _delegate.process( jCas );
+            _processed = true;
+         }
+      }
+
+      /**
+       * Every wrapper completes the collection, the delegate is only completed once.
+       */
+      @Override
+      public void collectionProcessComplete() throws AnalysisEngineProcessException {
+         synchronized ( LOCK ) {
+            if ( _processed ) {
+               _processed = false;
+               _delegate.collectionProcessComplete();
+            }
+         }
+      }
+
+      /**
+       * The delegate is destroyed with the last wrapper.
+       */
+      @Override
+      public void destroy() {
+         synchronized ( LOCK ) {
+            if ( _wrapperCount > 0 ) {
+               _wrapperCount--;
+            }
+            if ( _wrapperCount == 0 && _initialized ) {
+               _delegate.destroy();
+               _initialized = false;
+            }
+         }
+      }
    }
 
 
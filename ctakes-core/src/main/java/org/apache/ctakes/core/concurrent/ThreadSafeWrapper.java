@@ -15,6 +15,7 @@ import org.apache.uima.resource.ResourceInitializationException;
  * To take advantage of singletons for thread safety and enums for singletons,
  * utilize jdk 8+ interface default methods so that enums can implement AnalysisComponent without
  * boilerplate code for every method.
+ * Every process call is serialized through a single lock.  See {@link PooledWrapper} for a lock-free alternative.
  *
  * @author SPF , chip-nlp
  * @version %I%
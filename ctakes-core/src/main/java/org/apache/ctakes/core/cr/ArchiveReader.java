@@ -0,0 +1,698 @@
+package org.apache.ctakes.core.cr;
+
+import org.apache.ctakes.core.config.ConfigParameterConstants;
+import org.apache.ctakes.core.pipeline.PipeBitInfo;
+import org.apache.ctakes.core.resource.FileLocator;
+import org.apache.ctakes.core.util.SourceMetadataUtil;
+import org.apache.ctakes.typesystem.type.structured.DocumentID;
+import org.apache.ctakes.typesystem.type.structured.DocumentIdPrefix;
+import org.apache.ctakes.typesystem.type.structured.DocumentPath;
+import org.apache.log4j.Logger;
+import org.apache.uima.UimaContext;
+import org.apache.uima.collection.CollectionException;
+import org.apache.uima.fit.component.JCasCollectionReader_ImplBase;
+import org.apache.uima.fit.descriptor.ConfigurationParameter;
+import org.apache.uima.jcas.JCas;
+import org.apache.uima.resource.ResourceInitializationException;
+import org.apache.uima.util.Progress;
+import org.apache.uima.util.ProgressImpl;
+import org.codehaus.jackson.JsonFactory;
+import org.codehaus.jackson.JsonParser;
+import org.codehaus.jackson.JsonToken;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+
+/**
+ * Streams notes directly out of zip, tar, tar.gz and json lines files without expanding them to a directory tree.
+ * <p>
+ * The input may be a single archive or a directory tree of archives.  Each directory is read in name order,
+ * with its archives and subdirectories interleaved by name, and entries are read in archive order,
+ * so the collection is never listed in memory.
+ * Json lines files, on their own or inside an archive, hold one note per line as a json object with fields
+ * for the text, document id and optionally the patient id.
+ * </p>
+ * Reading, decompression, decoding and document id creation are run ahead of the pipeline by a background thread.
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+@PipeBitInfo(
+      name = "Archive Reader",
+      description = "Streams document texts from zip, tar, tar.gz and json lines files.",
+      role = PipeBitInfo.Role.READER,
+      products = { PipeBitInfo.TypeProduct.DOCUMENT_ID, PipeBitInfo.TypeProduct.DOCUMENT_ID_PREFIX }
+)
+final public class ArchiveReader extends JCasCollectionReader_ImplBase {
+
+   static private final Logger LOGGER = Logger.getLogger( "ArchiveReader" );
+
+   @ConfigurationParameter(
+         name = ConfigParameterConstants.PARAM_INPUTDIR,
+         description = "Archive or json lines file, or a directory tree containing them."
+   )
+   private String _inputPath;
+
+   static public final String PARAM_ENCODING = "Encoding";
+   @ConfigurationParameter(
+         name = PARAM_ENCODING,
+         description = "The character encoding used by the notes.",
+         defaultValue = "UTF-8",
+         mandatory = false
+   )
+   private String _encoding;
+
+   static public final String PARAM_EXTENSIONS = "Extensions";
+   @ConfigurationParameter(
+         name = PARAM_EXTENSIONS,
+         description = "The extensions of archive entries that should be read as notes.",
+         defaultValue = "*",
+         mandatory = false
+   )
+   private String[] _explicitExtensions;
+
+   static public final String PARAM_TEXT_FIELD = "TextField";
+   @ConfigurationParameter(
+         name = PARAM_TEXT_FIELD,
+         description = "Json lines field holding the note text.",
+         defaultValue = "text",
+         mandatory = false
+   )
+   private String _textField;
+
+   static public final String PARAM_ID_FIELD = "IdField";
+   @ConfigurationParameter(
+         name = PARAM_ID_FIELD,
+         description = "Json lines field holding the document id.",
+         defaultValue = "id",
+         mandatory = false
+   )
+   private String _idField;
+
+   static public final String PARAM_PATIENT_FIELD = "PatientField";
+   @ConfigurationParameter(
+         name = PARAM_PATIENT_FIELD,
+         description = "Json lines field holding the patient id.",
+         defaultValue = "patient_id",
+         mandatory = false
+   )
+   private String _patientField;
+
+   static public final String PARAM_PREFETCH = "PrefetchCount";
+   @ConfigurationParameter(
+         name = PARAM_PREFETCH,
+         description = "Maximum number of notes to read ahead of the pipeline.",
+         defaultValue = "100",
+         mandatory = false
+   )
+   private int _prefetchCount;
+
+   // Marks the end of the collection in the note queue
+   static private final Note END_NOTE = new Note( "", "", "", "", null );
+
+   private Charset _charset;
+   private Collection<String> _validExtensions;
+   private BlockingQueue<Note> _noteQueue;
+   private Thread _prefetchThread;
+   private volatile Throwable _prefetchException;
+   private Note _nextNote;
+   private int _readCount;
+
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public void initialize( final UimaContext context ) throws ResourceInitializationException {
+      super.initialize( context );
+      final File input;
+      try {
+         input = FileLocator.getFile( _inputPath );
+         _charset = Charset.forName( _encoding );
+      } catch ( FileNotFoundException | IllegalArgumentException multE ) {
+         throw new ResourceInitializationException( multE );
+      }
+      _validExtensions = new ArrayList<>();
+      for ( String extension : _explicitExtensions ) {
+         if ( !extension.equals( "*" ) && !extension.equals( ".*" ) ) {
+            _validExtensions.add( extension.startsWith( "." ) ? extension : "." + extension );
+         }
+      }
+      _noteQueue = new ArrayBlockingQueue<>( Math.max( 1, _prefetchCount ) );
+      _prefetchThread = new Thread( () -> prefetch( input ), "ArchivePrefetch" );
+      _prefetchThread.setDaemon( true );
+      _prefetchThread.start();
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public boolean hasNext() throws IOException, CollectionException {
+      if ( _nextNote == null ) {
+         try {
+            _nextNote = _noteQueue.take();
+         } catch ( InterruptedException intE ) {
+            Thread.currentThread().interrupt();
+            throw new CollectionException( intE );
+         }
+      }
+      if ( _nextNote == END_NOTE && _prefetchException != null ) {
+         if ( _prefetchException instanceof IOException ) {
+            throw (IOException)_prefetchException;
+         }
+         throw new CollectionException( _prefetchException );
+      }
+      return _nextNote != END_NOTE;
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public void getNext( final JCas jcas ) throws IOException, CollectionException {
+      if ( !hasNext() ) {
+         throw new CollectionException( new NoSuchElementException( "No more notes in " + _inputPath ) );
+      }
+      final Note note = _nextNote;
+      _nextNote = null;
+      _readCount++;
+      LOGGER.info( "Reading " + note._id + " : " + note._path );
+      jcas.setDocumentText( note._text );
+      final DocumentID documentId = new DocumentID( jcas );
+      documentId.setDocumentID( note._id );
+      documentId.addToIndexes();
+      final DocumentIdPrefix documentIdPrefix = new DocumentIdPrefix( jcas );
+      documentIdPrefix.setDocumentIdPrefix( note._idPrefix );
+      documentIdPrefix.addToIndexes();
+      final DocumentPath documentPath = new DocumentPath( jcas );
+      documentPath.setDocumentPath( note._path );
+      documentPath.addToIndexes();
+      if ( note._patientId != null && !note._patientId.isEmpty() ) {
+         SourceMetadataUtil.setPatientIdentifier( jcas, note._patientId );
+      }
+   }
+
+   /**
+    * The total number of notes is unknown until the last archive has been read.
+    * {@inheritDoc}
+    */
+   @Override
+   public Progress[] getProgress() {
+      return new Progress[]{
+            new ProgressImpl( _readCount, -1, Progress.ENTITIES )
+      };
+   }
+
+   /**
+    * Stops the prefetch thread.
+    * {@inheritDoc}
+    */
+   @Override
+   public void close() throws IOException {
+      if ( _prefetchThread != null ) {
+         _prefetchThread.interrupt();
+      }
+      super.close();
+   }
+
+   /////////////////    Prefetch thread   ///////////////
+
+   /**
+    * Reads all notes into the note queue, always followed by the end marker.
+    * Json lines that cannot be parsed are logged and skipped.
+    * Any other failure stops reading and is thrown by {@link #hasNext()} once the notes read before it have been taken.
+    *
+    * @param input archive or directory tree of archives
+    */
+   private void prefetch( final File input ) {
+      try {
+         if ( input.isDirectory() ) {
+            readDirectory( input );
+         } else {
+            readContainer( input );
+         }
+      } catch ( InterruptedException intE ) {
+         // the reader was closed, so nobody will take the remaining notes
+         _noteQueue.clear();
+      } catch ( Throwable t ) {
+         LOGGER.error( t.getMessage(), t );
+         _prefetchException = t;
+      } finally {
+         try {
+            _noteQueue.put( END_NOTE );
+         } catch ( InterruptedException intE ) {
+            _noteQueue.clear();
+            _noteQueue.offer( END_NOTE );
+         }
+      }
+   }
+
+   /**
+    * @param directory directory tree of archives, read depth first in name order.  Hidden files are ignored.
+    * @throws IOException          if a file cannot be read
+    * @throws InterruptedException if the reader was closed
+    */
+   private void readDirectory( final File directory ) throws IOException, InterruptedException {
+      final File[] files = directory.listFiles();
+      if ( files == null ) {
+         throw new IOException( "Cannot list directory " + directory.getPath() );
+      }
+      Arrays.sort( files );
+      for ( File file : files ) {
+         if ( file.isHidden() ) {
+            continue;
+         }
+         if ( file.isDirectory() ) {
+            readDirectory( file );
+         } else if ( file.isFile() ) {
+            readContainer( file );
+         }
+      }
+   }
+
+   /**
+    * @param file zip, tar, tar.gz, json lines or gzipped json lines file.  Other files are ignored.
+    * @throws IOException          if the file cannot be read
+    * @throws InterruptedException if the reader was closed
+    */
+   private void readContainer( final File file ) throws IOException, InterruptedException {
+      final String name = file.getName().toLowerCase();
+      final String archiveName = getBaseName( file.getName() );
+      try ( InputStream fileStream = new BufferedInputStream( new FileInputStream( file ), 65536 ) ) {
+         if ( name.endsWith( ".zip" ) ) {
+            readZip( fileStream, archiveName, file.getPath() );
+         } else if ( name.endsWith( ".tar" ) ) {
+            readTar( fileStream, archiveName, file.getPath() );
+         } else if ( name.endsWith( ".tar.gz" ) || name.endsWith( ".tgz" ) ) {
+            readTar( new GZIPInputStream( fileStream, 65536 ), archiveName, file.getPath() );
+         } else if ( name.endsWith( ".jsonl" ) ) {
+            readJsonLines( fileStream, archiveName, file.getPath() );
+         } else if ( name.endsWith( ".jsonl.gz" ) ) {
+            readJsonLines( new GZIPInputStream( fileStream, 65536 ), archiveName, file.getPath() );
+         } else {
+            LOGGER.warn( "Not an archive or json lines file, ignoring " + file.getPath() );
+         }
+      }
+   }
+
+   private void readZip( final InputStream stream, final String archiveName, final String archivePath )
+         throws IOException, InterruptedException {
+      final ZipInputStream zipStream = new ZipInputStream( stream, _charset );
+      ZipEntry entry = zipStream.getNextEntry();
+      while ( entry != null ) {
+         if ( !entry.isDirectory() ) {
+            readEntry( zipStream, entry.getName(), archiveName, archivePath );
+         }
+         entry = zipStream.getNextEntry();
+      }
+   }
+
+   private void readTar( final InputStream stream, final String archiveName, final String archivePath )
+         throws IOException, InterruptedException {
+      final TarInputStream tarStream = new TarInputStream( stream );
+      String entryName = tarStream.getNextEntry();
+      while ( entryName != null ) {
+         readEntry( tarStream, entryName, archiveName, archivePath );
+         entryName = tarStream.getNextEntry();
+      }
+   }
+
+   /**
+    * @param stream      stream positioned at the start of an archive entry.  Not closed.
+    * @param entryName   full path of the entry within the archive
+    * @param archiveName name of the archive without extension
+    * @param archivePath path of the archive file
+    * @throws IOException          if the entry cannot be read
+    * @throws InterruptedException if the reader was closed
+    */
+   private void readEntry( final InputStream stream, final String entryName,
+                           final String archiveName, final String archivePath )
+         throws IOException, InterruptedException {
+      final String path = archivePath + "!/" + entryName;
+      if ( entryName.toLowerCase().endsWith( ".jsonl" ) ) {
+         readJsonLines( stream, getBaseName( entryName ), path );
+         return;
+      }
+      final int lastSlash = entryName.lastIndexOf( '/' );
+      final String fileName = entryName.substring( lastSlash + 1 );
+      if ( fileName.isEmpty() || fileName.startsWith( "." ) || !isExtensionValid( fileName ) ) {
+         return;
+      }
+      final String idPrefix = lastSlash < 0 ? archiveName : archiveName + "/" + entryName.substring( 0, lastSlash );
+      final String text = new String( readFully( stream ), _charset );
+      _noteQueue.put( new Note( createDocumentId( fileName ), idPrefix, path, text, null ) );
+   }
+
+   /**
+    * @param stream   json lines.  Not closed.
+    * @param idPrefix document id prefix for all notes
+    * @param path     path of the json lines file
+    * @throws IOException          if the stream cannot be read
+    * @throws InterruptedException if the reader was closed
+    */
+   private void readJsonLines( final InputStream stream, final String idPrefix, final String path )
+         throws IOException, InterruptedException {
+      final BufferedReader reader = new BufferedReader( new InputStreamReader( stream, _charset ) );
+      final JsonFactory jsonFactory = new JsonFactory();
+      String line = reader.readLine();
+      int lineNumber = 1;
+      while ( line != null ) {
+         if ( !line.trim().isEmpty() ) {
+            final Note note = createJsonNote( jsonFactory, line, idPrefix, path, lineNumber );
+            if ( note != null ) {
+               _noteQueue.put( note );
+            }
+         }
+         line = reader.readLine();
+         lineNumber++;
+      }
+   }
+
+   /**
+    * A line that cannot be parsed is logged and skipped so that one bad line does not end the collection.
+    *
+    * @param jsonFactory -
+    * @param line        json line
+    * @param idPrefix    document id prefix
+    * @param path        path of the json lines file
+    * @param lineNumber  number of the line in the file
+    * @return a note for the line, or null if the line has no text or cannot be parsed
+    */
+   private Note createJsonNote( final JsonFactory jsonFactory, final String line, final String idPrefix,
+                                final String path, final int lineNumber ) {
+      final Map<String, String> fields;
+      try {
+         fields = parseJsonFields( jsonFactory, line );
+      } catch ( IOException ioE ) {
+         LOGGER.error( "Skipping unreadable json on line " + lineNumber + " of " + path + " : " + line, ioE );
+         return null;
+      }
+      final String text = fields.get( _textField );
+      if ( text == null ) {
+         LOGGER.warn( "No " + _textField + " field on line " + lineNumber + " of " + path );
+         return null;
+      }
+      final String id = fields.getOrDefault( _idField, idPrefix + "_" + lineNumber );
+      return new Note( id, idPrefix, path + "#" + lineNumber, text, fields.get( _patientField ) );
+   }
+
+   /**
+    * @param jsonFactory -
+    * @param line        json object
+    * @return top level scalar fields of the object as strings
+    * @throws IOException if the line is not a json object
+    */
+   static private Map<String, String> parseJsonFields( final JsonFactory jsonFactory, final String line )
+         throws IOException {
+      final Map<String, String> fields = new HashMap<>();
+      try ( JsonParser parser = jsonFactory.createJsonParser( line ) ) {
+         if ( parser.nextToken() != JsonToken.START_OBJECT ) {
+            throw new IOException( "Json line is not an object: " + line );
+         }
+         while ( parser.nextToken() == JsonToken.FIELD_NAME ) {
+            final String fieldName = parser.getCurrentName();
+            final JsonToken valueToken = parser.nextToken();
+            if ( valueToken == JsonToken.START_OBJECT || valueToken == JsonToken.START_ARRAY ) {
+               parser.skipChildren();
+            } else if ( valueToken != JsonToken.VALUE_NULL ) {
+               fields.put( fieldName, parser.getText() );
+            }
+         }
+      }
+      return fields;
+   }
+
+   private boolean isExtensionValid( final String fileName ) {
+      return _validExtensions.isEmpty() || _validExtensions.stream().anyMatch( fileName::endsWith );
+   }
+
+   /**
+    * @param fileName -
+    * @return the file name with the longest valid extension, or the last extension, removed
+    */
+   private String createDocumentId( final String fileName ) {
+      String maxExtension = "";
+      for ( String extension : _validExtensions ) {
+         if ( fileName.endsWith( extension ) && extension.length() > maxExtension.length() ) {
+            maxExtension = extension;
+         }
+      }
+      if ( !maxExtension.isEmpty() ) {
+         return fileName.substring( 0, fileName.length() - maxExtension.length() );
+      }
+      final int lastDot = fileName.lastIndexOf( '.' );
+      return lastDot <= 0 ? fileName : fileName.substring( 0, lastDot );
+   }
+
+   /**
+    * @param fileName -
+    * @return the file name without any path or container extensions
+    */
+   static private String getBaseName( final String fileName ) {
+      String baseName = fileName.substring( fileName.lastIndexOf( '/' ) + 1 );
+      for ( String extension : new String[]{ ".gz", ".tgz", ".tar", ".zip", ".jsonl" } ) {
+         if ( baseName.toLowerCase().endsWith( extension ) ) {
+            baseName = baseName.substring( 0, baseName.length() - extension.length() );
+         }
+      }
+      return baseName;
+   }
+
+   static private byte[] readFully( final InputStream stream ) throws IOException {
+      final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      final byte[] buffer = new byte[ 8192 ];
+      int count = stream.read( buffer );
+      while ( count >= 0 ) {
+         bytes.write( buffer, 0, count );
+         count = stream.read( buffer );
+      }
+      return bytes.toByteArray();
+   }
+
+   /**
+    * A decoded note and its identifiers.
+    */
+   static private final class Note {
+      private final String _id;
+      private final String _idPrefix;
+      private final String _path;
+      private final String _text;
+      private final String _patientId;
+
+      private Note( final String id, final String idPrefix, final String path, final String text,
+                    final String patientId ) {
+         _id = id;
+         _idPrefix = idPrefix;
+         _path = path;
+         _text = text;
+         _patientId = patientId;
+      }
+   }
+
+   /**
+    * Minimal streaming reader for ustar, gnu and pax tar archives.  Only regular files are returned.
+    * Gnu long names and pax path records replace the name of the entry that follows them.
+    * After {@link #getNextEntry()} this stream reads the content of that entry.
+    */
+   static private final class TarInputStream extends FilterInputStream {
+      static private final int BLOCK_SIZE = 512;
+      private final byte[] _header = new byte[ BLOCK_SIZE ];
+      private long _entryRemaining;
+      private long _entryPadding;
+
+      private TarInputStream( final InputStream stream ) {
+         super( stream );
+      }
+
+      /**
+       * @return the name of the next regular file in the archive, or null at the end of the archive
+       * @throws IOException if the archive is truncated or cannot be read
+       */
+      private String getNextEntry() throws IOException {
+         String longName = null;
+         while ( true ) {
+            skipFully( _entryRemaining + _entryPadding );
+            _entryRemaining = 0;
+            _entryPadding = 0;
+            if ( !readBlock( _header ) || isZeroBlock( _header ) ) {
+               return null;
+            }
+            final long size = parseOctal( _header, 124, 12 );
+            final char type = (char)_header[ 156 ];
+            _entryRemaining = size;
+            _entryPadding = (BLOCK_SIZE - size % BLOCK_SIZE) % BLOCK_SIZE;
+            if ( type == 'L' ) {
+               // gnu long name, held in the content of this entry
+               final byte[] nameBytes = new byte[ (int)size ];
+               readExactly( nameBytes );
+               _entryRemaining = 0;
+               longName = parseString( nameBytes, 0, nameBytes.length );
+               continue;
+            }
+            if ( type == 'x' ) {
+               // pax extended header, which may hold a path for the next entry
+               final byte[] paxBytes = new byte[ (int)size ];
+               readExactly( paxBytes );
+               _entryRemaining = 0;
+               final String paxPath = parsePaxPath( paxBytes );
+               if ( paxPath != null ) {
+                  longName = paxPath;
+               }
+               continue;
+            }
+            if ( type != '0' && type != '\0' ) {
+               longName = null;
+               continue;
+            }
+            if ( longName != null ) {
+               return longName;
+            }
+            final String name = parseString( _header, 0, 100 );
+            final String prefix = parseString( _header, 345, 155 );
+            return prefix.isEmpty() ? name : prefix + "/" + name;
+         }
+      }
+
+      @Override
+      public int read() throws IOException {
+         if ( _entryRemaining <= 0 ) {
+            return -1;
+         }
+         final int value = super.read();
+         if ( value < 0 ) {
+            throw new EOFException( "Truncated tar archive" );
+         }
+         _entryRemaining--;
+         return value;
+      }
+
+      @Override
+      public int read( final byte[] buffer, final int offset, final int length ) throws IOException {
+         if ( _entryRemaining <= 0 ) {
+            return -1;
+         }
+         final int count = super.read( buffer, offset, (int)Math.min( length, _entryRemaining ) );
+         if ( count < 0 ) {
+            throw new EOFException( "Truncated tar archive" );
+         }
+         _entryRemaining -= count;
+         return count;
+      }
+
+      @Override
+      public void close() {
+         // entries are read by other readers, which must not close the archive
+      }
+
+      private boolean readBlock( final byte[] block ) throws IOException {
+         int offset = 0;
+         while ( offset < block.length ) {
+            final int count = in.read( block, offset, block.length - offset );
+            if ( count < 0 ) {
+               if ( offset == 0 ) {
+                  return false;
+               }
+               throw new EOFException( "Truncated tar archive" );
+            }
+            offset += count;
+         }
+         return true;
+      }
+
+      private void readExactly( final byte[] bytes ) throws IOException {
+         int offset = 0;
+         while ( offset < bytes.length ) {
+            final int count = in.read( bytes, offset, bytes.length - offset );
+            if ( count < 0 ) {
+               throw new EOFException( "Truncated tar archive" );
+            }
+            offset += count;
+         }
+      }
+
+      private void skipFully( final long count ) throws IOException {
+         long remaining = count;
+         while ( remaining > 0 ) {
+            final long skipped = in.skip( remaining );
+            if ( skipped <= 0 ) {
+               if ( in.read() < 0 ) {
+                  throw new EOFException( "Truncated tar archive" );
+               }
+               remaining--;
+            } else {
+               remaining -= skipped;
+            }
+         }
+      }
+
+      static private boolean isZeroBlock( final byte[] block ) {
+         for ( byte b : block ) {
+            if ( b != 0 ) {
+               return false;
+            }
+         }
+         return true;
+      }
+
+      static private long parseOctal( final byte[] bytes, final int offset, final int length ) {
+         long value = 0;
+         for ( int i = offset; i < offset + length; i++ ) {
+            final byte b = bytes[ i ];
+            if ( b >= '0' && b <= '7' ) {
+               value = value * 8 + (b - '0');
+            } else if ( b == 0 || (b == ' ' && value > 0) ) {
+               break;
+            }
+         }
+         return value;
+      }
+
+      /**
+       * @param records pax records, each "length keyword=value\n" where length counts the bytes of the whole record
+       * @return the value of the path record, or null if there is none or the records are malformed
+       */
+      static private String parsePaxPath( final byte[] records ) {
+         int offset = 0;
+         while ( offset < records.length ) {
+            int space = offset;
+            while ( space < records.length && records[ space ] >= '0' && records[ space ] <= '9' ) {
+               space++;
+            }
+            if ( space == offset || space - offset > 9 || space >= records.length || records[ space ] != ' ' ) {
+               return null;
+            }
+            final int length = Integer.parseInt( new String( records, offset, space - offset,
+                  StandardCharsets.US_ASCII ) );
+            final int end = offset + length - 1;
+            if ( end <= space || end >= records.length || records[ end ] != '\n' ) {
+               return null;
+            }
+            final String record = new String( records, space + 1, end - space - 1, StandardCharsets.UTF_8 );
+            if ( record.startsWith( "path=" ) ) {
+               return record.substring( 5 );
+            }
+            offset = end + 1;
+         }
+         return null;
+      }
+
+      static private String parseString( final byte[] bytes, final int offset, final int length ) {
+         int end = offset;
+         while ( end < offset + length && bytes[ end ] != 0 ) {
+            end++;
+         }
+         return new String( bytes, offset, end - offset, StandardCharsets.UTF_8 );
+      }
+   }
+
+}
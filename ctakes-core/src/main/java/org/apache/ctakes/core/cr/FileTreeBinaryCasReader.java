@@ -0,0 +1,184 @@
+package org.apache.ctakes.core.cr;
+
+import org.apache.ctakes.core.cc.FileTreeBinaryCasWriter;
+import org.apache.ctakes.core.config.ConfigParameterConstants;
+import org.apache.ctakes.core.pipeline.PipeBitInfo;
+import org.apache.ctakes.core.resource.FileLocator;
+import org.apache.log4j.Logger;
+import org.apache.uima.UimaContext;
+import org.apache.uima.cas.TypeSystem;
+import org.apache.uima.cas.impl.CASMgrSerializer;
+import org.apache.uima.cas.impl.Serialization;
+import org.apache.uima.cas.impl.TypeSystemImpl;
+import org.apache.uima.collection.CollectionException;
+import org.apache.uima.fit.component.JCasCollectionReader_ImplBase;
+import org.apache.uima.fit.descriptor.ConfigurationParameter;
+import org.apache.uima.jcas.JCas;
+import org.apache.uima.resource.ResourceInitializationException;
+import org.apache.uima.util.Progress;
+import org.apache.uima.util.ProgressImpl;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads cas files written by {@link FileTreeBinaryCasWriter} in a directory tree.
+ * <p>
+ * The type system written with the cas files is read once and used to decode every cas,
+ * so files written with a filtered type system are loaded into the full pipeline type system.
+ * Document id, prefix and path are restored from the cas files.
+ * </p>
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+@PipeBitInfo(
+      name = "Binary Cas Reader (Dir Tree)",
+      description = "Reads document texts and annotations from compressed binary cas files in a directory tree.",
+      role = PipeBitInfo.Role.READER,
+      products = { PipeBitInfo.TypeProduct.DOCUMENT_ID, PipeBitInfo.TypeProduct.DOCUMENT_ID_PREFIX }
+)
+final public class FileTreeBinaryCasReader extends JCasCollectionReader_ImplBase {
+
+   static private final Logger LOGGER = Logger.getLogger( "FileTreeBinaryCasReader" );
+
+   @ConfigurationParameter(
+         name = ConfigParameterConstants.PARAM_INPUTDIR,
+         description = ConfigParameterConstants.DESC_INPUTDIR
+   )
+   private String _rootDirPath;
+
+   static public final String PARAM_TYPE_SYSTEM_FILE = "TypeSystemFile";
+   @ConfigurationParameter(
+         name = PARAM_TYPE_SYSTEM_FILE,
+         description = "Type system file written with the cas files."
+                       + "  Default is " + FileTreeBinaryCasWriter.TYPE_SYSTEM_FILE + " in the input directory.",
+         mandatory = false
+   )
+   private String _typeSystemPath;
+
+   private List<File> _files;
+   private int _currentIndex;
+   private TypeSystem _sourceTypeSystem;
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public void initialize( final UimaContext context ) throws ResourceInitializationException {
+      super.initialize( context );
+      final File rootDir;
+      final File typeSystemFile;
+      try {
+         rootDir = FileLocator.getFile( _rootDirPath );
+         typeSystemFile = _typeSystemPath == null || _typeSystemPath.isEmpty()
+                          ? new File( rootDir, FileTreeBinaryCasWriter.TYPE_SYSTEM_FILE )
+                          : FileLocator.getFile( _typeSystemPath );
+      } catch ( FileNotFoundException fnfE ) {
+         throw new ResourceInitializationException( fnfE );
+      }
+      _sourceTypeSystem = readTypeSystem( typeSystemFile );
+      _files = new ArrayList<>();
+      addCasFiles( rootDir, _files );
+      _currentIndex = 0;
+   }
+
+   /**
+    * @param typeSystemFile file written by {@link org.apache.uima.util.CasIOUtils#writeTypeSystem}
+    * @return the type system used to write the cas files, or null if the file does not exist
+    * @throws ResourceInitializationException if the type system file cannot be read
+    */
+   static private TypeSystem readTypeSystem( final File typeSystemFile ) throws ResourceInitializationException {
+      if ( !typeSystemFile.isFile() ) {
+         LOGGER.warn( "No type system file " + typeSystemFile.getPath()
+                      + " , cas files must have been written with the pipeline type system." );
+         return null;
+      }
+      try ( ObjectInputStream inputStream = new ObjectInputStream(
+            new BufferedInputStream( new FileInputStream( typeSystemFile ) ) ) ) {
+         final TypeSystemImpl typeSystem = ((CASMgrSerializer)inputStream.readObject()).getTypeSystem();
+         typeSystem.commit();
+         return typeSystem;
+      } catch ( IOException | ClassNotFoundException | ClassCastException multE ) {
+         throw new ResourceInitializationException( multE );
+      }
+   }
+
+   /**
+    * @param parentDir -
+    * @param casFiles  cas files in the directory tree, in name order with files before subdirectories
+    */
+   static private void addCasFiles( final File parentDir, final List<File> casFiles ) {
+      final File[] children = parentDir.listFiles();
+      if ( children == null ) {
+         return;
+      }
+      Arrays.sort( children );
+      final List<File> childDirs = new ArrayList<>();
+      for ( File child : children ) {
+         if ( child.isDirectory() ) {
+            childDirs.add( child );
+         } else if ( isCasFile( child ) && !child.isHidden() ) {
+            casFiles.add( child );
+         }
+      }
+      childDirs.forEach( d -> addCasFiles( d, casFiles ) );
+   }
+
+   static private boolean isCasFile( final File file ) {
+      final String name = file.getName();
+      return name.endsWith( FileTreeBinaryCasWriter.CAS_EXTENSION )
+             || name.endsWith( FileTreeBinaryCasWriter.CAS_EXTENSION + FileTreeBinaryCasWriter.GZIP_EXTENSION );
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public boolean hasNext() {
+      return _currentIndex < _files.size();
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public void getNext( final JCas jcas ) throws IOException, CollectionException {
+      final File file = _files.get( _currentIndex );
+      _currentIndex++;
+      LOGGER.info( "Reading " + file.getPath() );
+      try ( InputStream inputStream = createInputStream( file ) ) {
+         if ( _sourceTypeSystem == null ) {
+            Serialization.deserializeCAS( jcas.getCas(), inputStream );
+         } else {
+            Serialization.deserializeCAS( jcas.getCas(), inputStream, _sourceTypeSystem, null );
+         }
+      } catch ( ResourceInitializationException riE ) {
+         throw new CollectionException( riE );
+      }
+      LOGGER.info( "Finished Reading." );
+   }
+
+   static private InputStream createInputStream( final File file ) throws IOException {
+      final InputStream fileStream = new FileInputStream( file );
+      if ( file.getName().endsWith( FileTreeBinaryCasWriter.GZIP_EXTENSION ) ) {
+         return new BufferedInputStream( new GZIPInputStream( fileStream, 65536 ), 65536 );
+      }
+      return new BufferedInputStream( fileStream, 65536 );
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public Progress[] getProgress() {
+      return new Progress[]{
+            new ProgressImpl( _currentIndex, _files.size(), Progress.ENTITIES )
+      };
+   }
+
+}
@@ -0,0 +1,276 @@
+package org.apache.ctakes.core.fsm.machine;
+
+import net.openai.util.fsm.AnyCondition;
+import net.openai.util.fsm.Condition;
+import net.openai.util.fsm.Machine;
+import net.openai.util.fsm.State;
+import net.openai.util.fsm.UnhandledConditionException;
+
+import java.util.*;
+
+/**
+ * A set of finite state machines compiled into a single transition table.
+ * <p>
+ * The states of all machines are numbered and their transitions are stored in primitive arrays,
+ * so a token is fed to every machine in one pass without walking the state and condition object graphs.
+ * Conditions that are shared by more than one machine or state are evaluated only once per token.
+ * Transitions keep the order in which they were added to each state, and the first satisfied condition wins,
+ * exactly as with {@link Machine#input(Object)}.
+ * </p>
+ * The compiled set is immutable and can be shared by threads.  The state of a run over a token sequence
+ * is kept in a {@link Run}, which should be created for each sequence and must not be shared.
+ * The machines must not be altered after they have been compiled.
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+final public class CompiledMachineSet {
+
+   // Condition index for conditions that are satisfied by any token
+   static private final int ANY_CONDITION = -1;
+   // Target index for transitions without a target state, which stop a machine as an unhandled condition
+   static private final int NO_TARGET = -1;
+
+   private final Machine[] _machines;
+   private final State[] _states;
+   private final Condition[] _conditions;
+   private final int[] _machineStartStates;
+   // transitions for state s are at indices _transitionOffsets[s] until _transitionOffsets[s+1]
+   private final int[] _transitionOffsets;
+   private final int[] _transitionConditions;
+   private final int[] _transitionTargets;
+   private final boolean[] _startStates;
+   private final boolean[] _endStates;
+
+   /**
+    * @param machines machines to compile, in the order that they should be indexed
+    */
+   public CompiledMachineSet( final Machine... machines ) {
+      this( Arrays.asList( machines ) );
+   }
+
+   /**
+    * @param machines machines to compile, in the order that they should be indexed
+    */
+   public CompiledMachineSet( final Collection<Machine> machines ) {
+      _machines = machines.toArray( new Machine[ machines.size() ] );
+      final Map<State, Integer> stateIndices = new IdentityHashMap<>();
+      final List<State> states = new ArrayList<>();
+      _machineStartStates = new int[ _machines.length ];
+      for ( int m = 0; m < _machines.length; m++ ) {
+         _machineStartStates[ m ] = addStates( _machines[ m ].getStartState(), stateIndices, states );
+      }
+      _states = states.toArray( new State[ states.size() ] );
+      _startStates = new boolean[ _states.length ];
+      _endStates = new boolean[ _states.length ];
+      _transitionOffsets = new int[ _states.length + 1 ];
+      final Map<Condition, Integer> conditionIndices = new IdentityHashMap<>();
+      final List<Condition> conditions = new ArrayList<>();
+      final List<Condition> transitions = new ArrayList<>();
+      for ( int s = 0; s < _states.length; s++ ) {
+         _startStates[ s ] = _states[ s ].getStartStateFlag();
+         _endStates[ s ] = _states[ s ].getEndStateFlag();
+         _transitionOffsets[ s ] = transitions.size();
+         transitions.addAll( getConditions( _states[ s ] ) );
+      }
+      _transitionOffsets[ _states.length ] = transitions.size();
+      _transitionConditions = new int[ transitions.size() ];
+      _transitionTargets = new int[ transitions.size() ];
+      for ( int t = 0; t < transitions.size(); t++ ) {
+         final Condition condition = transitions.get( t );
+         final State target = condition.getTargetState();
+         _transitionTargets[ t ] = target == null ? NO_TARGET : stateIndices.get( target );
+         if ( condition instanceof AnyCondition ) {
+            _transitionConditions[ t ] = ANY_CONDITION;
+            continue;
+         }
+         Integer conditionIndex = conditionIndices.get( condition );
+         if ( conditionIndex == null ) {
+            conditionIndex = conditions.size();
+            conditionIndices.put( condition, conditionIndex );
+            conditions.add( condition );
+         }
+         _transitionConditions[ t ] = conditionIndex;
+      }
+      _conditions = conditions.toArray( new Condition[ conditions.size() ] );
+   }
+
+   /**
+    * Number all states reachable from the given state, breadth first.
+    *
+    * @return index of the given state
+    */
+   static private int addStates( final State state, final Map<State, Integer> stateIndices,
+                                 final List<State> states ) {
+      final Integer known = stateIndices.get( state );
+      if ( known != null ) {
+         return known;
+      }
+      final int index = states.size();
+      stateIndices.put( state, index );
+      states.add( state );
+      for ( int s = index; s < states.size(); s++ ) {
+         for ( Condition condition : getConditions( states.get( s ) ) ) {
+            final State target = condition.getTargetState();
+            if ( target != null && !stateIndices.containsKey( target ) ) {
+               stateIndices.put( target, states.size() );
+               states.add( target );
+            }
+         }
+      }
+      return index;
+   }
+
+   /**
+    * @return conditions of transitions from the state, in order, including any without a target state
+    */
+   static private List<Condition> getConditions( final State state ) {
+      final Collection<?> transitions = state.getTransitions();
+      if ( transitions == null ) {
+         return Collections.emptyList();
+      }
+      final List<Condition> conditions = new ArrayList<>( transitions.size() );
+      for ( Object transition : transitions ) {
+         conditions.add( (Condition)transition );
+      }
+      return conditions;
+   }
+
+   /**
+    * @return number of compiled machines
+    */
+   public int getMachineCount() {
+      return _machines.length;
+   }
+
+   /**
+    * @param machineIndex index of the machine in the order of compilation
+    * @return the original machine, for identification only.  The machine itself is never run.
+    */
+   public Machine getMachine( final int machineIndex ) {
+      return _machines[ machineIndex ];
+   }
+
+   /**
+    * @return total number of states in all machines
+    */
+   public int getStateCount() {
+      return _states.length;
+   }
+
+   /**
+    * @return number of distinct conditions in all machines, not including conditions satisfied by any token
+    */
+   public int getConditionCount() {
+      return _conditions.length;
+   }
+
+   /**
+    * @return a new run with every machine in its start state
+    */
+   public Run createRun() {
+      return new Run();
+   }
+
+   /**
+    * The current states of all machines for a single token sequence.
+    */
+   final public class Run {
+
+      private final int[] _currentStates;
+      // condition values are only valid for the current token, marked by the token stamp
+      private final int[] _conditionStamps;
+      private final boolean[] _conditionValues;
+      private int _tokenStamp;
+
+      private Run() {
+         _currentStates = _machineStartStates.clone();
+         _conditionStamps = new int[ _conditions.length ];
+         _conditionValues = new boolean[ _conditions.length ];
+      }
+
+      /**
+       * Moves every machine to the target of the first transition from its current state that is satisfied by the token.
+       *
+       * @param token some token
+       * @throws UnhandledConditionException if no transition of some machine is satisfied by the token,
+       *                                     or the first satisfied transition has no target state
+       */
+      public void input( final Object token ) throws UnhandledConditionException {
+         if ( token == null ) {
+            throw new NullPointerException( "Null input condition" );
+         }
+         _tokenStamp++;
+         if ( _tokenStamp == 0 ) {
+            Arrays.fill( _conditionStamps, 0 );
+            _tokenStamp = 1;
+         }
+         for ( int m = 0; m < _currentStates.length; m++ ) {
+            _currentStates[ m ] = getTargetState( _currentStates[ m ], token );
+         }
+      }
+
+      private int getTargetState( final int state, final Object token ) throws UnhandledConditionException {
+         final int end = _transitionOffsets[ state + 1 ];
+         for ( int t = _transitionOffsets[ state ]; t < end; t++ ) {
+            final int condition = _transitionConditions[ t ];
+            if ( condition == ANY_CONDITION || isSatisfied( condition, token ) ) {
+               if ( _transitionTargets[ t ] == NO_TARGET ) {
+                  break;
+               }
+               return _transitionTargets[ t ];
+            }
+         }
+         throw new UnhandledConditionException( _states[ state ], token );
+      }
+
+      private boolean isSatisfied( final int condition, final Object token ) {
+         if ( _conditionStamps[ condition ] != _tokenStamp ) {
+            _conditionValues[ condition ] = _conditions[ condition ].satisfiedBy( token );
+            _conditionStamps[ condition ] = _tokenStamp;
+         }
+         return _conditionValues[ condition ];
+      }
+
+      /**
+       * @param machineIndex index of the machine in the order of compilation
+       * @return true if the current state of the machine is flagged as a start state
+       */
+      public boolean isStartState( final int machineIndex ) {
+         return _startStates[ _currentStates[ machineIndex ] ];
+      }
+
+      /**
+       * @param machineIndex index of the machine in the order of compilation
+       * @return true if the current state of the machine is flagged as an end state
+       */
+      public boolean isEndState( final int machineIndex ) {
+         return _endStates[ _currentStates[ machineIndex ] ];
+      }
+
+      /**
+       * @param machineIndex index of the machine in the order of compilation
+       * @return the current state of the machine
+       */
+      public State getCurrentState( final int machineIndex ) {
+         return _states[ _currentStates[ machineIndex ] ];
+      }
+
+      /**
+       * @param machineIndex index of the machine in the order of compilation
+       */
+      public void reset( final int machineIndex ) {
+         _currentStates[ machineIndex ] = _machineStartStates[ machineIndex ];
+      }
+
+      /**
+       * Return all machines to their start states.
+       */
+      public void resetAll() {
+         System.arraycopy( _machineStartStates, 0, _currentStates, 0, _currentStates.length );
+      }
+
+   }
+
+}
@@ -18,6 +18,7 @@
  */
 package org.apache.ctakes.core.fsm.machine;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -54,6 +55,9 @@ public class MeasurementFSM {
 	// contains the finite state machines
 	private Set<Machine> iv_machineSet = new HashSet<Machine>();
 
+	// the finite state machines compiled into a single transition table
+	private final CompiledMachineSet iv_compiledMachines;
+
 	/**
 	 * 
 	 * Constructor
@@ -145,6 +149,7 @@ public class MeasurementFSM {
 
 		iv_machineSet.add(getBloodPressureMachine());
 		iv_machineSet.add(getSubstanceQuantityMachine());
+		iv_compiledMachines = new CompiledMachineSet(iv_machineSet);
 	}
 
 	/**
@@ -235,9 +240,10 @@ public class MeasurementFSM {
 			Set<? extends BaseToken> overrideSet) throws Exception {
 		Set<MeasurementToken> measurementSet = new HashSet<MeasurementToken>();
 
-		// maps a fsm to a token start index
-		// key = fsm , value = token start index
-		Map<Machine, Integer> tokenStartMap = new HashMap<Machine, Integer>();
+		// token start index for each fsm, -1 until the fsm passes a start state
+		int[] tokenStartIndices = new int[iv_compiledMachines.getMachineCount()];
+		Arrays.fill(tokenStartIndices, -1);
+		CompiledMachineSet.Run run = iv_compiledMachines.createRun();
 
 		Iterator<? extends BaseToken> overrideTokenItr = overrideSet.iterator();
 		// key = start offset, value = override BaseToken object
@@ -273,25 +279,18 @@ public class MeasurementFSM {
 				}
 			}
 
-			Iterator<Machine> machineItr = iv_machineSet.iterator();
-			while (machineItr.hasNext()) {
-				Machine fsm = machineItr.next();
-
-				fsm.input(token);
-
-				State currentState = fsm.getCurrentState();
-				if (currentState.getStartStateFlag()) {
-					tokenStartMap.put(fsm, new Integer(i));
+			run.input(token);
+			for (int m = 0; m < iv_compiledMachines.getMachineCount(); m++) {
+				if (run.isStartState(m)) {
+					tokenStartIndices[m] = i;
 				}
-				if (currentState.getEndStateFlag()) {
-					Object o = tokenStartMap.get(fsm);
-					int tokenStartIndex;
-					if (o == null) {
+				if (run.isEndState(m)) {
+					int tokenStartIndex = tokenStartIndices[m];
+					if (tokenStartIndex < 0) {
 						// By default, all machines start with
 						// token zero.
 						tokenStartIndex = 0;
 					} else {
-						tokenStartIndex = ((Integer) o).intValue();
 						// skip ahead over single token we don't want
 						tokenStartIndex++;
 					}
@@ -301,21 +300,11 @@ public class MeasurementFSM {
 							startToken.getStartOffset(), endToken
 									.getEndOffset());
 					measurementSet.add(measurementToken);
-					fsm.reset();
+					run.reset(m);
 				}
 			}
 		}
 
-		// cleanup
-		tokenStartMap.clear();
-
-		// reset machines
-		Iterator<Machine> itr = iv_machineSet.iterator();
-		while (itr.hasNext()) {
-			Machine fsm = itr.next();
-			fsm.reset();
-		}
-
 		return measurementSet;
 	}
 }
@@ -18,11 +18,9 @@
  */
 package org.apache.ctakes.core.fsm.machine;
 
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 
 import org.apache.ctakes.core.fsm.condition.DisjoinCondition;
@@ -72,12 +70,30 @@ public class NegationFSM {
 	// contains the finite state machines
 	private Set<Machine> iv_machineSet = new HashSet<Machine>();
 
+	// the finite state machines compiled into a single transition table
+	private final CompiledMachineSet iv_compiledMachines;
+
+	// optional negex triggers, null if only the machines are used
+	private final NegexTriggerTrie iv_negexTriggers;
+
 	/**
 	 * 
 	 * Constructor
 	 * 
 	 */
 	public NegationFSM() {
+		this(null);
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param negexTriggers
+	 *            if not null then negex pre and post negation triggers are
+	 *            also negation indicators
+	 */
+	public NegationFSM(NegexTriggerTrie negexTriggers) {
+		iv_negexTriggers = negexTriggers;
 		iv_modalVerbsSet.add("can");
 		iv_modalVerbsSet.add("ca");
 		iv_modalVerbsSet.add("will");
@@ -186,6 +202,7 @@ public class NegationFSM {
 		iv_machineSet.add(getAspectualNegIndicatorMachine());
 		iv_machineSet.add(getNominalNegIndicatorMachine());
 		iv_machineSet.add(getAdjNegIndicatorMachine());
+		iv_compiledMachines = new CompiledMachineSet(iv_machineSet);
 
 	}
 
@@ -368,32 +385,27 @@ public class NegationFSM {
 	public Set<NegationIndicator> execute(List<?> tokens) throws Exception {
 		Set<NegationIndicator> outSet = new HashSet<NegationIndicator>();
 
-		// maps a fsm to a token start index
-		// key = fsm , value = token start index
-		Map<Machine, Integer> tokenStartMap = new HashMap<Machine, Integer>();
+		// token start index for each fsm, -1 until the fsm passes a start state
+		int[] tokenStartIndices = new int[iv_compiledMachines.getMachineCount()];
+		Arrays.fill(tokenStartIndices, -1);
+		CompiledMachineSet.Run run = iv_compiledMachines.createRun();
 
 		for (int i = 0; i < tokens.size(); i++) {
 			BaseToken token = (BaseToken) tokens.get(i);
 
-			Iterator<Machine> machineItr = iv_machineSet.iterator();
-			while (machineItr.hasNext()) {
-				Machine fsm = machineItr.next();
-
-				fsm.input(token);
-
-				State currentState = fsm.getCurrentState();
-				if (currentState.getStartStateFlag()) {
-					tokenStartMap.put(fsm, new Integer(i));
+			run.input(token);
+			for (int m = 0; m < iv_compiledMachines.getMachineCount(); m++) {
+				State currentState = run.getCurrentState(m);
+				if (run.isStartState(m)) {
+					tokenStartIndices[m] = i;
 				}
-				if (currentState.getEndStateFlag()) {
-					Object o = tokenStartMap.get(fsm);
-					int tokenStartIndex;
-					if (o == null) {
+				if (run.isEndState(m)) {
+					int tokenStartIndex = tokenStartIndices[m];
+					if (tokenStartIndex < 0) {
 						// By default, all machines start with
 						// token zero.
 						tokenStartIndex = 0;
 					} else {
-						tokenStartIndex = ((Integer) o).intValue();
 						// skip ahead over single token we don't want
 						tokenStartIndex++;
 					}
@@ -409,19 +421,23 @@ public class NegationFSM {
 					NegationIndicator neg = new NegationIndicator(startToken
 							.getStartOffset(), endToken.getEndOffset());
 					outSet.add(neg);
-					fsm.reset();
+					run.reset(m);
 				}
 			}
 		}
 
-		// cleanup
-		tokenStartMap.clear();
-
-		// reset machines
-		Iterator<Machine> itr = iv_machineSet.iterator();
-		while (itr.hasNext()) {
-			Machine fsm = itr.next();
-			fsm.reset();
+		if (iv_negexTriggers != null && !tokens.isEmpty()) {
+			// trigger offsets are relative to the first token
+			int offset = ((BaseToken) tokens.get(0)).getStartOffset();
+			for (NegexTriggerTrie.Trigger trigger : iv_negexTriggers.match(
+					tokens).getTriggers()) {
+				if (trigger.getTag().equals(NegexTriggerTrie.PRE_NEGATION)
+						|| trigger.getTag().equals(
+								NegexTriggerTrie.POST_NEGATION)) {
+					outSet.add(new NegationIndicator(offset
+							+ trigger.getBegin(), offset + trigger.getEnd()));
+				}
+			}
 		}
 
 		return outSet;
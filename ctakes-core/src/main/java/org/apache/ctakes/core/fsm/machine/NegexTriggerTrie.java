@@ -0,0 +1,657 @@
+package org.apache.ctakes.core.fsm.machine;
+
+import org.apache.ctakes.core.fsm.token.BaseToken;
+import org.apache.ctakes.core.fsm.token.TextToken;
+import org.apache.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * NegEx triggers compiled into an Aho-Corasick automaton over normalized tokens.
+ * <p>
+ * A sentence is split into word tokens, single punctuation tokens and whitespace gaps,
+ * and all occurrences of all triggers are found in one pass over its tokens.
+ * The triggers that NegEx would tag for a term, and the trigger that sets the negation of the term,
+ * are then resolved from those occurrences for every term of the sentence.
+ * </p>
+ * <p>
+ * The results are the same as those of the classic NegEx regular expressions, where each trigger
+ * is matched case insensitive between punctuation or whitespace delimiters in the sentence with the term blacked out,
+ * longer triggers first, and a trigger is only tagged if it does not overlap a previously tagged trigger.
+ * Triggers are literal text.
+ * </p>
+ * Instances are immutable and can be shared by threads.
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+final public class NegexTriggerTrie {
+
+   static private final Logger LOGGER = Logger.getLogger( "NegexTriggerTrie" );
+
+   static public final String PRE_NEGATION = "[PREN]";
+   static public final String POST_NEGATION = "[POST]";
+   static public final String PRE_POSSIBLE = "[PREP]";
+   static public final String POST_POSSIBLE = "[POSP]";
+   static public final String PSEUDO = "[PSEU]";
+   static public final String CONJUNCTION = "[CONJ]";
+
+   static private final List<String> SCOPE_TAGS = Arrays.asList( CONJUNCTION, PSEUDO, PRE_NEGATION, POST_NEGATION,
+         PRE_POSSIBLE, POST_POSSIBLE );
+
+   static private final int ROOT = 0;
+
+   // trigger index -> trigger text and tag
+   private final String[] _triggers;
+   private final String[] _tags;
+   // normalized token text -> token id
+   private final Map<String, Integer> _vocabulary = new HashMap<>();
+   // per node edges, sorted by symbol.  symbol = token id * 2 + 1 if the token follows whitespace
+   private final int[] _edgeBegins;
+   private final int[] _edgeSymbols;
+   private final int[] _edgeTargets;
+   private final int[] _failures;
+   // nearest node on the failure path that ends triggers, -1 if none
+   private final int[] _outputLinks;
+   // per node triggers that end at the node
+   private final int[] _triggerBegins;
+   private final int[] _nodeTriggers;
+   private final int[] _depths;
+   // number of tokens in each trigger
+   private final int[] _triggerLengths;
+
+   /**
+    * Parses NegEx trigger lines "trigger [tabs] [TAG]".
+    * As in NegEx the lines are ordered longest first, so longer triggers are tagged before shorter ones.
+    *
+    * @param lines trigger lines
+    * @return compiled triggers
+    */
+   static public NegexTriggerTrie fromLines( final Collection<String> lines ) {
+      final List<String> sorted = new ArrayList<>( lines );
+      sorted.sort( ( l1, l2 ) -> Integer.compare( l2.trim().length(), l1.trim().length() ) );
+      final List<String> triggers = new ArrayList<>( sorted.size() );
+      final List<String> tags = new ArrayList<>( sorted.size() );
+      for ( String line : sorted ) {
+         final String[] splits = line.trim().split( "[\\t]+" );
+         if ( splits.length == 2 ) {
+            triggers.add( splits[ 0 ].trim() );
+            tags.add( splits[ 1 ].trim() );
+         } else {
+            LOGGER.warn( "Could not parse NegEx trigger " + line );
+         }
+      }
+      return new NegexTriggerTrie( triggers, tags );
+   }
+
+   /**
+    * @param triggers trigger text, words separated by whitespace, in order of precedence
+    * @param tags     tag of each trigger, e.g. {@link #PRE_NEGATION}
+    */
+   public NegexTriggerTrie( final List<String> triggers, final List<String> tags ) {
+      if ( triggers.size() != tags.size() ) {
+         throw new IllegalArgumentException( triggers.size() + " triggers but " + tags.size() + " tags" );
+      }
+      _triggers = triggers.toArray( new String[ triggers.size() ] );
+      _tags = tags.toArray( new String[ tags.size() ] );
+      // build the trie
+      final List<Map<Integer, Integer>> edges = new ArrayList<>();
+      final List<List<Integer>> nodeTriggers = new ArrayList<>();
+      final List<Integer> depths = new ArrayList<>();
+      edges.add( new HashMap<>() );
+      nodeTriggers.add( new ArrayList<>() );
+      depths.add( 0 );
+      _triggerLengths = new int[ _triggers.length ];
+      for ( int t = 0; t < _triggers.length; t++ ) {
+         final Tokens tokens = new Tokens( _triggers[ t ].toCharArray(), -1 );
+         _triggerLengths[ t ] = tokens._count;
+         if ( tokens._count == 0 ) {
+            LOGGER.warn( "Empty NegEx trigger " + _triggers[ t ] );
+            continue;
+         }
+         int node = ROOT;
+         for ( int i = 0; i < tokens._count; i++ ) {
+            final String text = tokens.getText( i );
+            Integer id = _vocabulary.get( text );
+            if ( id == null ) {
+               id = _vocabulary.size();
+               _vocabulary.put( text, id );
+            }
+            // the first token of a trigger may follow anything
+            final int symbol = i == 0 ? id * 2 : id * 2 + ( tokens._gaps[ i ] ? 1 : 0 );
+            Integer next = edges.get( node ).get( symbol );
+            if ( next == null ) {
+               next = edges.size();
+               edges.get( node ).put( symbol, next );
+               edges.add( new HashMap<>() );
+               nodeTriggers.add( new ArrayList<>() );
+               depths.add( i + 1 );
+            }
+            node = next;
+         }
+         nodeTriggers.get( node ).add( t );
+      }
+      // flatten
+      final int nodeCount = edges.size();
+      _edgeBegins = new int[ nodeCount + 1 ];
+      _triggerBegins = new int[ nodeCount + 1 ];
+      _depths = new int[ nodeCount ];
+      int edgeCount = 0;
+      int triggerCount = 0;
+      for ( int node = 0; node < nodeCount; node++ ) {
+         _edgeBegins[ node ] = edgeCount;
+         _triggerBegins[ node ] = triggerCount;
+         edgeCount += edges.get( node ).size();
+         triggerCount += nodeTriggers.get( node ).size();
+         _depths[ node ] = depths.get( node );
+      }
+      _edgeBegins[ nodeCount ] = edgeCount;
+      _triggerBegins[ nodeCount ] = triggerCount;
+      _edgeSymbols = new int[ edgeCount ];
+      _edgeTargets = new int[ edgeCount ];
+      _nodeTriggers = new int[ triggerCount ];
+      for ( int node = 0; node < nodeCount; node++ ) {
+         final List<Integer> symbols = new ArrayList<>( edges.get( node ).keySet() );
+         Collections.sort( symbols );
+         int e = _edgeBegins[ node ];
+         for ( Integer symbol : symbols ) {
+            _edgeSymbols[ e ] = symbol;
+            _edgeTargets[ e ] = edges.get( node ).get( symbol );
+            e++;
+         }
+         int n = _triggerBegins[ node ];
+         for ( Integer trigger : nodeTriggers.get( node ) ) {
+            _nodeTriggers[ n++ ] = trigger;
+         }
+      }
+      // failure and output links, breadth first
+      _failures = new int[ nodeCount ];
+      _outputLinks = new int[ nodeCount ];
+      _outputLinks[ ROOT ] = -1;
+      final int[] queue = new int[ nodeCount ];
+      int tail = 0;
+      for ( int e = _edgeBegins[ ROOT ]; e < _edgeBegins[ ROOT + 1 ]; e++ ) {
+         _failures[ _edgeTargets[ e ] ] = ROOT;
+         _outputLinks[ _edgeTargets[ e ] ] = -1;
+         queue[ tail++ ] = _edgeTargets[ e ];
+      }
+      for ( int head = 0; head < tail; head++ ) {
+         final int node = queue[ head ];
+         for ( int e = _edgeBegins[ node ]; e < _edgeBegins[ node + 1 ]; e++ ) {
+            final int child = _edgeTargets[ e ];
+            final int failure = next( _failures[ node ], _edgeSymbols[ e ] );
+            _failures[ child ] = failure;
+            _outputLinks[ child ] = hasTriggers( failure ) ? failure : _outputLinks[ failure ];
+            queue[ tail++ ] = child;
+         }
+      }
+   }
+
+   /**
+    * @return number of triggers
+    */
+   public int getTriggerCount() {
+      return _triggers.length;
+   }
+
+   /**
+    * @param index trigger index, in order of precedence
+    * @return trigger text
+    */
+   public String getTrigger( final int index ) {
+      return _triggers[ index ];
+   }
+
+   /**
+    * @param index trigger index, in order of precedence
+    * @return trigger tag
+    */
+   public String getTag( final int index ) {
+      return _tags[ index ];
+   }
+
+   private boolean hasTriggers( final int node ) {
+      return _triggerBegins[ node ] < _triggerBegins[ node + 1 ];
+   }
+
+   /**
+    * @return child of the node for the symbol, -1 if none.  At the root whitespace before a token is ignored.
+    */
+   private int getChild( final int node, final int symbol ) {
+      final int key = node == ROOT ? symbol & ~1 : symbol;
+      final int e = Arrays.binarySearch( _edgeSymbols, _edgeBegins[ node ], _edgeBegins[ node + 1 ], key );
+      return e >= 0 ? _edgeTargets[ e ] : -1;
+   }
+
+   /**
+    * @return aho-corasick transition from the node for the symbol
+    */
+   private int next( final int node, final int symbol ) {
+      int state = node;
+      while ( true ) {
+         final int child = symbol < 0 ? -1 : getChild( state, symbol );
+         if ( child >= 0 ) {
+            return child;
+         }
+         if ( state == ROOT ) {
+            return ROOT;
+         }
+         state = _failures[ state ];
+      }
+   }
+
+   /**
+    * Finds all trigger occurrences in a sentence.
+    *
+    * @param text sentence text
+    * @return trigger occurrences, used to resolve the triggers of each term in the sentence
+    */
+   public Sentence match( final String text ) {
+      return new Sentence( text, -1 );
+   }
+
+   /**
+    * Finds all trigger occurrences in a sequence of fsm tokens.
+    * The text of each {@link TextToken} is placed at its offset, with whitespace between tokens.
+    *
+    * @param tokens fsm tokens, in order
+    * @return trigger occurrences.  Offsets are relative to the start offset of the first token
+    */
+   public Sentence match( final List<?> tokens ) {
+      if ( tokens.isEmpty() ) {
+         return match( "" );
+      }
+      final int offset = ((BaseToken)tokens.get( 0 )).getStartOffset();
+      final StringBuilder sb = new StringBuilder();
+      for ( Object token : tokens ) {
+         final BaseToken baseToken = (BaseToken)token;
+         final int begin = baseToken.getStartOffset() - offset;
+         while ( sb.length() < begin ) {
+            sb.append( ' ' );
+         }
+         if ( token instanceof TextToken && sb.length() == begin ) {
+            sb.append( ((TextToken)token).getText() );
+         }
+      }
+      return match( sb.toString() );
+   }
+
+   static private boolean isWhitespace( final char c ) {
+      // java regex \s
+      return c == ' ' || c == '\t' || c == '\n' || c == 0x0B || c == '\f' || c == '\r';
+   }
+
+   static private boolean isPunctuation( final char c ) {
+      // java regex \p{Punct}
+      return ( c >= '!' && c <= '/' ) || ( c >= ':' && c <= '@' ) || ( c >= '[' && c <= '`' )
+             || ( c >= '{' && c <= '~' );
+   }
+
+   /**
+    * @return true if the character can precede a trigger
+    */
+   static private boolean isLeadDelimiter( final char c ) {
+      return isWhitespace( c ) || ( isPunctuation( c ) && c != '[' && c != ']' );
+   }
+
+   /**
+    * @return true if the character can follow a trigger
+    */
+   static private boolean isTrailDelimiter( final char c ) {
+      return isWhitespace( c ) || ( isPunctuation( c ) && c != '_' );
+   }
+
+   static private char toLowerCase( final char c ) {
+      return c >= 'A' && c <= 'Z' ? (char)( c + ( 'a' - 'A' ) ) : c;
+   }
+
+
+   /**
+    * Word tokens, single punctuation tokens and whether whitespace precedes each token.
+    */
+   static private final class Tokens {
+      private final char[] _chars;
+      private int[] _begins = new int[ 16 ];
+      private int[] _ends = new int[ 16 ];
+      private boolean[] _gaps = new boolean[ 16 ];
+      private int _count;
+
+      /**
+       * @param chars     text
+       * @param wordBreak index at which a word is split, -1 for none
+       */
+      private Tokens( final char[] chars, final int wordBreak ) {
+         _chars = chars;
+         boolean gap = false;
+         int i = 0;
+         while ( i < chars.length ) {
+            final char c = chars[ i ];
+            if ( isWhitespace( c ) ) {
+               gap = true;
+               i++;
+               continue;
+            }
+            int end = i + 1;
+            if ( !isPunctuation( c ) ) {
+               while ( end < chars.length && end != wordBreak
+                       && !isWhitespace( chars[ end ] ) && !isPunctuation( chars[ end ] ) ) {
+                  end++;
+               }
+            }
+            add( i, end, gap );
+            gap = false;
+            i = end;
+         }
+      }
+
+      private void add( final int begin, final int end, final boolean gap ) {
+         if ( _count == _begins.length ) {
+            _begins = Arrays.copyOf( _begins, _count * 2 );
+            _ends = Arrays.copyOf( _ends, _count * 2 );
+            _gaps = Arrays.copyOf( _gaps, _count * 2 );
+         }
+         _begins[ _count ] = begin;
+         _ends[ _count ] = end;
+         _gaps[ _count ] = gap;
+         _count++;
+      }
+
+      private String getText( final int index ) {
+         final char[] text = new char[ _ends[ index ] - _begins[ index ] ];
+         for ( int i = 0; i < text.length; i++ ) {
+            text[ i ] = toLowerCase( _chars[ _begins[ index ] + i ] );
+         }
+         return new String( text );
+      }
+   }
+
+
+   /**
+    * A trigger tagged in a sentence.
+    */
+   static public final class Trigger {
+      private final int _index;
+      private final String _tag;
+      private final int _begin;
+      private final int _end;
+
+      private Trigger( final int index, final String tag, final int begin, final int end ) {
+         _index = index;
+         _tag = tag;
+         _begin = begin;
+         _end = end;
+      }
+
+      /**
+       * @return index of the trigger in the trie
+       */
+      public int getIndex() {
+         return _index;
+      }
+
+      public String getTag() {
+         return _tag;
+      }
+
+      /**
+       * @return offset of the trigger text in the sentence
+       */
+      public int getBegin() {
+         return _begin;
+      }
+
+      /**
+       * @return end offset of the trigger text in the sentence
+       */
+      public int getEnd() {
+         return _end;
+      }
+
+      /**
+       * NegEx triggers are matched with the delimiter on either side.
+       * For a trigger at the start or end of the sentence the delimiter is outside of the sentence.
+       *
+       * @return offset of the delimiter before the trigger, may be -1
+       */
+      public int getMatchBegin() {
+         return _begin - 1;
+      }
+
+      /**
+       * @return end offset of the delimiter after the trigger, may be the sentence length + 1
+       */
+      public int getMatchEnd() {
+         return _end + 1;
+      }
+
+      @Override
+      public String toString() {
+         return _tag + " " + _begin + "-" + _end;
+      }
+   }
+
+
+   /**
+    * Trigger occurrences in one sentence.  Not thread safe.
+    */
+   final public class Sentence {
+      private final String _text;
+      // NegEx pads the sentence with a delimiter on either side
+      private final char[] _chars;
+      // candidates sorted by trigger precedence and then lead index, in padded text coordinates
+      private final int[] _candidateTriggers;
+      private final int[] _candidateLeads;
+      private final int[] _candidateTrails;
+      // padded text characters that are in a tagged trigger
+      private final boolean[] _occupied;
+
+      private Sentence( final String text, final int wordBreak ) {
+         _text = text;
+         _chars = new char[ text.length() + 2 ];
+         _chars[ 0 ] = '.';
+         text.getChars( 0, text.length(), _chars, 1 );
+         _chars[ _chars.length - 1 ] = '.';
+         _occupied = new boolean[ _chars.length ];
+         final Tokens tokens = new Tokens( _chars, wordBreak < 0 ? -1 : wordBreak + 1 );
+         long[] candidates = new long[ 16 ];
+         int candidateCount = 0;
+         int state = ROOT;
+         for ( int i = 0; i < tokens._count; i++ ) {
+            final Integer id = _vocabulary.get( tokens.getText( i ) );
+            final int symbol = id == null ? -1 : id * 2 + ( tokens._gaps[ i ] ? 1 : 0 );
+            state = next( state, symbol );
+            int output = hasTriggers( state ) ? state : _outputLinks[ state ];
+            while ( output >= 0 ) {
+               final int lead = tokens._begins[ i - _depths[ output ] + 1 ] - 1;
+               final int trail = tokens._ends[ i ];
+               // the character after a trigger can never be blacked out into a delimiter
+               if ( lead >= 0 && trail < _chars.length && isTrailDelimiter( _chars[ trail ] ) ) {
+                  for ( int t = _triggerBegins[ output ]; t < _triggerBegins[ output + 1 ]; t++ ) {
+                     if ( candidateCount == candidates.length ) {
+                        candidates = Arrays.copyOf( candidates, candidateCount * 2 );
+                     }
+                     candidates[ candidateCount++ ] = (long)_nodeTriggers[ t ] << 32 | lead;
+                  }
+               }
+               output = _outputLinks[ output ];
+            }
+         }
+         Arrays.sort( candidates, 0, candidateCount );
+         _candidateTriggers = new int[ candidateCount ];
+         _candidateLeads = new int[ candidateCount ];
+         _candidateTrails = new int[ candidateCount ];
+         if ( candidateCount == 0 ) {
+            return;
+         }
+         // token that starts after each lead
+         final int[] tokenIndices = new int[ _chars.length ];
+         for ( int i = 0; i < tokens._count; i++ ) {
+            tokenIndices[ tokens._begins[ i ] ] = i;
+         }
+         for ( int c = 0; c < candidateCount; c++ ) {
+            final int trigger = (int)( candidates[ c ] >>> 32 );
+            final int lead = (int)candidates[ c ];
+            _candidateTriggers[ c ] = trigger;
+            _candidateLeads[ c ] = lead;
+            _candidateTrails[ c ] = tokens._ends[ tokenIndices[ lead + 1 ] + _triggerLengths[ trigger ] - 1 ];
+         }
+      }
+
+      /**
+       * @return the sentence text
+       */
+      public String getText() {
+         return _text;
+      }
+
+      /**
+       * Triggers tagged in the sentence without a term
+       *
+       * @return tagged triggers, in order of their offsets
+       */
+      public List<Trigger> getTriggers() {
+         return select( -1, -1 );
+      }
+
+      /**
+       * Triggers tagged in the sentence with the term blacked out
+       *
+       * @param begin offset of the term in the sentence
+       * @param end   end offset of the term in the sentence
+       * @return tagged triggers, in order of their offsets
+       */
+      public List<Trigger> getTriggers( final int begin, final int end ) {
+         if ( end > begin && splitsWord( end ) ) {
+            // a trigger may follow the term without a delimiter, the term is blacked out
+            return new Sentence( _text, end ).select( begin + 1, end + 1 );
+         }
+         return select( begin + 1, end + 1 );
+      }
+
+      /**
+       * Resolves the NegEx scope of a term.
+       * A negation trigger before the term, then after the term, then if possibilities are checked a possibility
+       * trigger before the term and then after the term, with no other NegEx trigger between it and the term.
+       *
+       * @param begin              offset of the term in the sentence
+       * @param end                end offset of the term in the sentence
+       * @param checkPossibilities true to check for {@link #PRE_POSSIBLE} and {@link #POST_POSSIBLE}
+       * @return the trigger in whose scope the term lies, null if the term is affirmed
+       */
+      public Trigger getScopeTrigger( final int begin, final int end, final boolean checkPossibilities ) {
+         final List<Trigger> triggers = getTriggers( begin, end );
+         Trigger trigger = findTrigger( triggers, PRE_NEGATION, true, begin );
+         if ( trigger == null ) {
+            trigger = findTrigger( triggers, POST_NEGATION, false, end );
+         }
+         if ( trigger == null && checkPossibilities ) {
+            trigger = findTrigger( triggers, PRE_POSSIBLE, true, begin );
+            if ( trigger == null ) {
+               trigger = findTrigger( triggers, POST_POSSIBLE, false, end );
+            }
+         }
+         return trigger;
+      }
+
+      /**
+       * @return true if the offset is between two characters of a word
+       */
+      private boolean splitsWord( final int offset ) {
+         if ( offset <= 0 || offset >= _text.length() ) {
+            return false;
+         }
+         final char before = _text.charAt( offset - 1 );
+         final char after = _text.charAt( offset );
+         return !isWhitespace( before ) && !isPunctuation( before )
+                && !isWhitespace( after ) && !isPunctuation( after );
+      }
+
+      /**
+       * The closest trigger with the tag in the given direction, unless another NegEx trigger is closer
+       */
+      private Trigger findTrigger( final List<Trigger> triggers, final String tag, final boolean before,
+                                   final int offset ) {
+         if ( before ) {
+            for ( int i = triggers.size() - 1; i >= 0; i-- ) {
+               final Trigger trigger = triggers.get( i );
+               // the delimiters are part of the negex match, the padding before the sentence is not searched
+               if ( trigger.getMatchBegin() < offset && offset > 0 ) {
+                  if ( trigger.getTag().equals( tag ) ) {
+                     return trigger;
+                  } else if ( SCOPE_TAGS.contains( trigger.getTag() ) ) {
+                     return null;
+                  }
+               }
+            }
+         } else {
+            for ( Trigger trigger : triggers ) {
+               if ( trigger.getMatchEnd() > offset ) {
+                  if ( trigger.getTag().equals( tag ) ) {
+                     return trigger;
+                  } else if ( SCOPE_TAGS.contains( trigger.getTag() ) ) {
+                     return null;
+                  }
+               }
+            }
+         }
+         return null;
+      }
+
+      /**
+       * Emulates the NegEx regular expressions: triggers in order of precedence, each matched left to right
+       * in the sentence where the term and previously tagged triggers are blacked out.
+       *
+       * @param termBegin begin of the blacked out term in padded coordinates
+       * @param termEnd   end of the blacked out term in padded coordinates
+       */
+      private List<Trigger> select( final int termBegin, final int termEnd ) {
+         final List<Trigger> selected = new ArrayList<>();
+         int trigger = -1;
+         int position = 0;
+         for ( int c = 0; c < _candidateTriggers.length; c++ ) {
+            if ( _candidateTriggers[ c ] != trigger ) {
+               trigger = _candidateTriggers[ c ];
+               position = 0;
+            }
+            final int lead = _candidateLeads[ c ];
+            final int trail = _candidateTrails[ c ];
+            if ( lead < position || !isMatch( lead, trail, termBegin, termEnd ) ) {
+               continue;
+            }
+            // the match is consumed even if it overlaps a tagged trigger
+            position = trail + 1;
+            if ( !_occupied[ lead ] ) {
+               Arrays.fill( _occupied, lead, trail + 1, true );
+               selected.add( new Trigger( trigger, _tags[ trigger ], lead, trail - 1 ) );
+            }
+         }
+         Arrays.fill( _occupied, false );
+         selected.sort( ( t1, t2 ) -> Integer.compare( t1._begin, t2._begin ) );
+         return selected;
+      }
+
+      /**
+       * @return true if the trigger text and trail are not blacked out, and the lead is a delimiter or blacked out
+       */
+      private boolean isMatch( final int lead, final int trail, final int termBegin, final int termEnd ) {
+         if ( termBegin < termEnd && lead + 1 < termEnd && trail >= termBegin ) {
+            // overlaps the term
+            return false;
+         }
+         for ( int i = lead + 1; i <= trail; i++ ) {
+            if ( _occupied[ i ] ) {
+               return false;
+            }
+         }
+         return _occupied[ lead ] || isLeadDelimiter( _chars[ lead ] ) || ( lead >= termBegin && lead < termEnd );
+      }
+   }
+
+}
@@ -18,11 +18,9 @@
  */
 package org.apache.ctakes.core.fsm.machine;
 
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 
 import org.apache.ctakes.core.fsm.condition.PunctuationValueCondition;
@@ -49,6 +47,9 @@ public class PersonTitleFSM {
 	// contains the finite state machines
 	private Set<Machine> iv_machineSet = new HashSet<Machine>();
 
+	// the finite state machines compiled into a single transition table
+	private final CompiledMachineSet iv_compiledMachines;
+
 	/**
 	 * 
 	 * Constructor
@@ -61,6 +62,7 @@ public class PersonTitleFSM {
 		iv_fullTextSet.add("dr");
 
 		iv_machineSet.add(getTitleMachine());
+		iv_compiledMachines = new CompiledMachineSet(iv_machineSet);
 	}
 
 	/**
@@ -103,32 +105,26 @@ public class PersonTitleFSM {
 			throws Exception {
 		Set<PersonTitleToken> personTitleSet = new HashSet<PersonTitleToken>();
 
-		// maps a fsm to a token start index
-		// key = fsm , value = token start index
-		Map<Machine, Integer> tokenStartMap = new HashMap<Machine, Integer>();
+		// token start index for each fsm, -1 until the fsm passes a start state
+		int[] tokenStartIndices = new int[iv_compiledMachines.getMachineCount()];
+		Arrays.fill(tokenStartIndices, -1);
+		CompiledMachineSet.Run run = iv_compiledMachines.createRun();
 
 		for (int i = 0; i < tokens.size(); i++) {
 			BaseToken token = tokens.get(i);
 
-			Iterator<Machine> machineItr = iv_machineSet.iterator();
-			while (machineItr.hasNext()) {
-				Machine fsm = machineItr.next();
-
-				fsm.input(token);
-
-				State currentState = fsm.getCurrentState();
-				if (currentState.getStartStateFlag()) {
-					tokenStartMap.put(fsm, new Integer(i));
+			run.input(token);
+			for (int m = 0; m < iv_compiledMachines.getMachineCount(); m++) {
+				if (run.isStartState(m)) {
+					tokenStartIndices[m] = i;
 				}
-				if (currentState.getEndStateFlag()) {
-					Object o = tokenStartMap.get(fsm);
-					int tokenStartIndex;
-					if (o == null) {
+				if (run.isEndState(m)) {
+					int tokenStartIndex = tokenStartIndices[m];
+					if (tokenStartIndex < 0) {
 						// By default, all machines start with
 						// token zero.
 						tokenStartIndex = 0;
 					} else {
-						tokenStartIndex = ((Integer) o).intValue();
 						// skip ahead over single token we don't want
 						tokenStartIndex++;
 					}
@@ -137,21 +133,11 @@ public class PersonTitleFSM {
 					PersonTitleToken ptToken = new PersonTitleToken(startToken
 							.getStartOffset(), endToken.getEndOffset());
 					personTitleSet.add(ptToken);
-					fsm.reset();
+					run.reset(m);
 				}
 			}
 		}
 
-		// cleanup
-		tokenStartMap.clear();
-
-		// reset machines
-		Iterator<Machine> itr = iv_machineSet.iterator();
-		while (itr.hasNext()) {
-			Machine fsm = itr.next();
-			fsm.reset();
-		}
-
 		return personTitleSet;
 	}
 }
@@ -18,11 +18,9 @@
  */
 package org.apache.ctakes.core.fsm.machine;
 
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 
 import org.apache.ctakes.core.fsm.condition.TextSetCondition;
@@ -58,6 +56,9 @@ public class StatusIndicatorFSM
     private Machine iv_familyHistoryMachine;
     private Set<Machine> iv_machineSet = new HashSet<Machine>();
 
+    // the finite state machines compiled into a single transition table
+    private final CompiledMachineSet iv_compiledMachines;
+
     /**
      * 
      * Constructor
@@ -82,6 +83,7 @@ public class StatusIndicatorFSM
         iv_machineSet.add(iv_historyMachine);
         iv_machineSet.add(iv_probableMachine);
         iv_machineSet.add(iv_familyHistoryMachine);
+        iv_compiledMachines = new CompiledMachineSet(iv_machineSet);
     }
 
     /**
@@ -207,38 +209,34 @@ public class StatusIndicatorFSM
     {
         Set<StatusIndicator> outSet = new HashSet<StatusIndicator>();
 
-        // maps a fsm to a token start index
-        // key = Machine , value = token start index
-        Map<Machine, Integer> tokenStartMap = new HashMap<Machine, Integer>();
+        // token start index for each fsm, -1 until the fsm passes a start state
+        int[] tokenStartIndices = new int[iv_compiledMachines.getMachineCount()];
+        Arrays.fill(tokenStartIndices, -1);
+        CompiledMachineSet.Run run = iv_compiledMachines.createRun();
 
         for (int i = 0; i < tokens.size(); i++)
         {
             BaseToken token = tokens.get(i);
 
-            Iterator<Machine> machineItr = iv_machineSet.iterator();
-            while (machineItr.hasNext())
+            run.input(token);
+            for (int m = 0; m < iv_compiledMachines.getMachineCount(); m++)
             {
-                Machine m = machineItr.next();
-
-                m.input(token);
-
-                State currentState = m.getCurrentState();
-                if (currentState.getStartStateFlag())
+                Machine fsm = iv_compiledMachines.getMachine(m);
+                State currentState = run.getCurrentState(m);
+                if (run.isStartState(m))
                 {
-                    tokenStartMap.put(m, new Integer(i));
+                    tokenStartIndices[m] = i;
                 }
-                if (currentState.getEndStateFlag())
+                if (run.isEndState(m))
                 {
-                    Object o = tokenStartMap.get(m);
-                    int tokenStartIndex;
-                    if (o == null)
+                    int tokenStartIndex = tokenStartIndices[m];
+                    if (tokenStartIndex < 0)
                     {
                         // By default, all machines start with token zero.
                         tokenStartIndex = 0;
                     }
                     else
                     {
-                        tokenStartIndex = ((Integer) o).intValue();
                         // skip ahead over single token we don't want
                         tokenStartIndex++;
                     }
@@ -254,21 +252,21 @@ public class StatusIndicatorFSM
 
                     BaseToken startToken = tokens.get(tokenStartIndex);
                     StatusIndicator si = null;
-                    if (m.equals(iv_historyMachine))
+                    if (fsm.equals(iv_historyMachine))
                     {
                         si = new StatusIndicator(
                                 startToken.getStartOffset(),
                                 endToken.getEndOffset(),
                                 StatusIndicator.HISTORY_STATUS);
                     }
-                    else if (m.equals(iv_probableMachine))
+                    else if (fsm.equals(iv_probableMachine))
                     {
                         si = new StatusIndicator(
                                 startToken.getStartOffset(),
                                 endToken.getEndOffset(),
                                 StatusIndicator.PROBABLE_STATUS);
                     }
-                    else if (m.equals(iv_familyHistoryMachine))
+                    else if (fsm.equals(iv_familyHistoryMachine))
                     {
                         si = new StatusIndicator(
                                 startToken.getStartOffset(),
@@ -276,22 +274,11 @@ public class StatusIndicatorFSM
                                 StatusIndicator.FAMILY_HISTORY_STATUS);
                     }
                     outSet.add(si);
-                    m.reset();
+                    run.reset(m);
                 }
             }
         }
 
-        // cleanup
-        tokenStartMap.clear();
-
-        // reset machines
-        Iterator<Machine> itr = iv_machineSet.iterator();
-        while (itr.hasNext())
-        {
-            Machine m = itr.next();
-            m.reset();
-        }
-
         return outSet;
     }
 }
\ No newline at end of file
@@ -98,7 +98,12 @@ abstract public class AbstractPatientConsumer extends JCasAnnotator_ImplBase imp
       for ( JCas patientCas : completedCases ) {
          final String patientName = SourceMetadataUtil.getPatientIdentifier( patientCas );
          _logger.info( _action + " for patient " + patientName + " ..." );
-         processPatientCas( patientCas );
+         try {
+            processPatientCas( patientCas );
+         } finally {
+            // Allow the popped patient to be spilled while other engines wait to consume it.
+            PatientNoteStore.getInstance().releasePatient( patientName );
+         }
       }
    }
 
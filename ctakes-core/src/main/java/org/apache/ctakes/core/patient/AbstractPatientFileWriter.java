@@ -2,6 +2,7 @@ package org.apache.ctakes.core.patient;
 
 import org.apache.ctakes.core.ae.NamedEngine;
 import org.apache.ctakes.core.cc.AbstractFileWriter;
+import org.apache.ctakes.core.util.SourceMetadataUtil;
 import org.apache.log4j.Logger;
 import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
 import org.apache.uima.jcas.JCas;
@@ -49,12 +50,16 @@ abstract public class AbstractPatientFileWriter
    }
 
    /**
-    * called after writing is complete
+    * called after writing is complete.  Releases the written patients so that they can be spilled to disk.
     *
     * @param data -
     */
    @Override
    protected void writeComplete( final Collection<JCas> data ) {
+      final PatientNoteStore store = PatientNoteStore.getInstance();
+      _patientCases.stream()
+                   .map( SourceMetadataUtil::getPatientIdentifier )
+                   .forEach( store::releasePatient );
       _patientCases.clear();
    }
 
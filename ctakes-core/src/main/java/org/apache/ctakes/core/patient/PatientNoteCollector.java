@@ -2,9 +2,12 @@ package org.apache.ctakes.core.patient;
 
 import org.apache.ctakes.core.pipeline.PipeBitInfo;
 import org.apache.log4j.Logger;
+import org.apache.uima.UimaContext;
 import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
 import org.apache.uima.fit.component.JCasAnnotator_ImplBase;
+import org.apache.uima.fit.descriptor.ConfigurationParameter;
 import org.apache.uima.jcas.JCas;
+import org.apache.uima.resource.ResourceInitializationException;
 
 /**
  * Sends document cas to the {@link PatientNoteStore} to be cached
@@ -23,6 +26,35 @@ final public class PatientNoteCollector extends JCasAnnotator_ImplBase {
 
    static private final Logger LOGGER = Logger.getLogger( "PatientNoteCollector" );
 
+   static public final String MAX_RESIDENT_DOCS = "MaxResidentDocs";
+   static public final String SPILL_DIRECTORY = "SpillDirectory";
+
+   @ConfigurationParameter(
+         name = MAX_RESIDENT_DOCS,
+         description = "Maximum number of documents to keep in memory for all patients.  This counts documents, not bytes."
+                       + "  Once exceeded, patients are spilled to disk.  Zero or less keeps all patients in memory.",
+         defaultValue = "0",
+         mandatory = false
+   )
+   private int _maxResidentDocs;
+
+   @ConfigurationParameter(
+         name = SPILL_DIRECTORY,
+         description = "Directory for patients spilled to disk.  If not specified a temporary directory is used.",
+         mandatory = false
+   )
+   private String _spillDirectory;
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public void initialize( final UimaContext context ) throws ResourceInitializationException {
+      super.initialize( context );
+      if ( _maxResidentDocs > 0 ) {
+         PatientNoteStore.getInstance().setSpillBudget( _maxResidentDocs, _spillDirectory );
+      }
+   }
 
    /**
     * Adds the primary view of this cas to a cache of views for patients.
@@ -39,5 +71,18 @@ final public class PatientNoteCollector extends JCasAnnotator_ImplBase {
       LOGGER.info( "Finished." );
    }
 
+   /**
+    * Logs the number of patients in memory and on disk.
+    * {@inheritDoc}
+    */
+   @Override
+   public void collectionProcessComplete() throws AnalysisEngineProcessException {
+      super.collectionProcessComplete();
+      final PatientNoteStore store = PatientNoteStore.getInstance();
+      LOGGER.info( "Patients in memory " + store.getResidentPatientCount()
+                   + ", on disk " + store.getSpilledPatientCount()
+                   + ", spilled " + store.getSpillCount() + " times, loaded " + store.getLoadCount() + " times." );
+   }
+
 
 }
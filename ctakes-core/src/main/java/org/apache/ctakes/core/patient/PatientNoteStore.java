@@ -10,16 +10,30 @@ import org.apache.log4j.Logger;
 import org.apache.uima.UIMAException;
 import org.apache.uima.cas.CASException;
 import org.apache.uima.cas.CASRuntimeException;
+import org.apache.uima.cas.impl.Serialization;
 import org.apache.uima.fit.factory.JCasFactory;
 import org.apache.uima.jcas.JCas;
 import org.apache.uima.util.CasCopier;
 
 import javax.annotation.concurrent.Immutable;
+import java.io.*;
+import java.nio.file.Files;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Cache for multi-document patient cas objects
+ * <p>
+ * By default every patient cas is held in memory until it has been consumed.
+ * If a budget is set with {@link #setSpillBudget(int, String)} then once the documents held in memory exceed that budget
+ * the least recently used patients are spilled to disk in compressed binary cas form.
+ * The budget is a number of documents, not bytes.  It only bounds memory as well as document sizes are similar.
+ * Spilled patients are loaded back into memory when they are next needed, for instance by a patient consumer.
+ * Patients whose jcas or views have been handed out, by a pop or a getter, are never spilled as the holder may still
+ * change them.  Such a patient is pinned in memory until it is released with {@link #releasePatient(String)} or removed.
+ * Patient consumers release each patient once they have processed it.  Other callers of the getters must do the same.
+ * </p>
  *
  * @author SPF , chip-nlp
  * @version %I%
@@ -36,6 +50,7 @@ public enum PatientNoteStore {
    static private final Logger LOGGER = Logger.getLogger( "PatientNoteStore" );
 
    static private final String GENERIC_PATIENT = "Generic";
+   static private final String SPILL_EXTENSION = ".bcas";
 
    // Collection of annotation engines (by some id) that consume patients
    private final Collection<String> _registeredEngines;
@@ -47,6 +62,15 @@ public enum PatientNoteStore {
    private final Map<String, Collection<ViewInfo>> _patientViewInfos;
    // Map of Patient Name (id) to document count for that patient.  Required to remove cached patient after last pop()
    private final Map<String, Integer> _wantedDocCounts;
+   // Map of patient id to file holding the spilled patient jcas
+   private final Map<String, File> _spilledPatients;
+   // Patient ids with a jcas or views that have been handed out and may still be changed
+   private final Collection<String> _pinnedPatients;
+   // Maximum number of documents in resident patient jcas.  Zero or less for no maximum
+   private int _maxResidentDocs;
+   private File _spillDirectory;
+   private int _spillCount;
+   private int _loadCount;
 
    /**
     * private
@@ -54,9 +78,95 @@ public enum PatientNoteStore {
    PatientNoteStore() {
       _registeredEngines = new HashSet<>();
       _enginesRun = new HashMap<>();
-      _patientMap = new HashMap<>();
+      // access order, so that the least recently used patients are spilled first
+      _patientMap = new LinkedHashMap<>( 16, 0.75f, true );
       _patientViewInfos = new HashMap<>();
       _wantedDocCounts = new HashMap<>();
+      _spilledPatients = new HashMap<>();
+      _pinnedPatients = new HashSet<>();
+   }
+
+   /////////////////    Memory budget   ///////////////
+
+   /**
+    * @param maxResidentDocs maximum number of documents to hold in memory across all patients.
+    *                        This counts documents, not bytes.
+    *                        Once exceeded, patients are spilled to disk.  Zero or less to hold everything in memory.
+    * @param spillDirectory  directory for spilled patients, or null to use a temporary directory.
+    */
+   synchronized public void setSpillBudget( final int maxResidentDocs, final String spillDirectory ) {
+      _maxResidentDocs = maxResidentDocs;
+      if ( spillDirectory != null && !spillDirectory.isEmpty() ) {
+         _spillDirectory = new File( spillDirectory );
+         if ( !_spillDirectory.isDirectory() && !_spillDirectory.mkdirs() ) {
+            LOGGER.error( "Could not create patient spill directory " + spillDirectory );
+         }
+      }
+      enforceBudget( null );
+   }
+
+   /**
+    * @return number of patients with a jcas in memory
+    */
+   synchronized public int getResidentPatientCount() {
+      return _patientMap.size();
+   }
+
+   /**
+    * @return number of patients with a jcas spilled to disk
+    */
+   synchronized public int getSpilledPatientCount() {
+      return _spilledPatients.size();
+   }
+
+   /**
+    * @return number of documents in patient jcas held in memory
+    */
+   synchronized public int getResidentDocCount() {
+      return _patientMap.keySet().stream()
+                        .mapToInt( this::getStoredDocCount )
+                        .sum();
+   }
+
+   /**
+    * @return total number of times that a patient has been written to disk
+    */
+   synchronized public int getSpillCount() {
+      return _spillCount;
+   }
+
+   /**
+    * @return total number of times that a patient has been loaded from disk
+    */
+   synchronized public int getLoadCount() {
+      return _loadCount;
+   }
+
+   /**
+    * Sets the spill and load counts back to zero.
+    */
+   synchronized void resetSpillCounts() {
+      _spillCount = 0;
+      _loadCount = 0;
+   }
+
+   /**
+    * @return number of patients pinned in memory because their jcas or views have been handed out
+    */
+   synchronized public int getPinnedPatientCount() {
+      return _pinnedPatients.size();
+   }
+
+   /**
+    * Allows a patient to be spilled to disk again after its jcas or views are no longer used.
+    * Any further changes to a previously handed out jcas or view may be lost.
+    *
+    * @param patientId patient whose jcas or views have been obtained with a getter
+    */
+   synchronized public void releasePatient( final String patientId ) {
+      if ( _pinnedPatients.remove( patientId ) ) {
+         enforceBudget( null );
+      }
    }
 
    /////////////////    Get available patient, document, view names   ///////////////
@@ -88,9 +198,9 @@ public enum PatientNoteStore {
     */
    @Deprecated
    synchronized public Collection<String> getStoredPatientIds() {
-      return _patientMap.keySet().stream()
-                        .sorted()
-                        .collect( Collectors.toList() );
+      return Stream.concat( _patientMap.keySet().stream(), _spilledPatients.keySet().stream() )
+                  .sorted()
+                  .collect( Collectors.toList() );
    }
 
    /**
@@ -262,7 +372,7 @@ public enum PatientNoteStore {
          LOGGER.warn( "Previously stored view will be replaced." );
       }
       // don't use putIfAbsent or computeIfAbsent to better handle exceptions and lazy instantiation
-      JCas patientCas = _patientMap.get( patientId );
+      JCas patientCas = getPatientCas( patientId );
       if ( patientCas == null ) {
          try {
             patientCas = JCasFactory.createJCas();
@@ -286,6 +396,7 @@ public enum PatientNoteStore {
       } catch ( CASException | CASRuntimeException casE ) {
          LOGGER.error( casE.getMessage() );
       }
+      enforceBudget( patientId );
    }
 
    /**
@@ -305,13 +416,15 @@ public enum PatientNoteStore {
    /////////////////    view fetchers   ///////////////
 
    /**
+    * The patient is pinned in memory until it is released with {@link #releasePatient(String)} or removed.
+    *
     * @param patientId -
     * @param docId -
     * @param viewName -
     * @return Stored view for the parameters
     */
    synchronized public JCas getStoredView( final String patientId, final String docId, final String viewName ) {
-      final JCas patientCas = _patientMap.get( patientId );
+      final JCas patientCas = getPinnedPatientCas( patientId );
       if ( patientCas == null ) {
          LOGGER.warn( "No patient with id " + patientId );
          return null;
@@ -326,12 +439,14 @@ public enum PatientNoteStore {
    }
 
    /**
+    * The patient is pinned in memory until it is released with {@link #releasePatient(String)} or removed.
+    *
     * @param patientId -
     * @param docId     -
     * @return Map of ViewNames to Views
     */
    synchronized public Map<String, JCas> getStoredViews( final String patientId, final String docId ) {
-      final JCas patientCas = _patientMap.get( patientId );
+      final JCas patientCas = getPinnedPatientCas( patientId );
       if ( patientCas == null ) {
          LOGGER.warn( "No patient with id " + patientId );
          return null;
@@ -376,11 +491,12 @@ public enum PatientNoteStore {
    /////////////////    patient cleanup - careful !   ///////////////
 
    /**
-    * Use popPatientCas instead to automate cleanup
+    * Use popPatientCas instead to automate cleanup.
+    * The patient is pinned in memory until it is released with {@link #releasePatient(String)} or removed.
     * @param patientId -
     */
    synchronized public JCas getFullPatientCas( final String patientId ) {
-      return _patientMap.get( patientId );
+      return getPinnedPatientCas( patientId );
    }
 
    /**
@@ -417,6 +533,9 @@ public enum PatientNoteStore {
    }
 
    /**
+    * Unless every registered engine has now consumed it, the patient is pinned in memory
+    * until it is released with {@link #releasePatient(String)} or removed.
+    *
     * @param patientId  -
     * @param engineName engine requesting a completed patient jcas
     * @return the patient jcas for the patient id or null if it isn't available for the given engine
@@ -430,7 +549,7 @@ public enum PatientNoteStore {
       if ( !newRun ) {
          return null;
       }
-      final JCas patientCas = _patientMap.get( patientId );
+      final JCas patientCas = getPinnedPatientCas( patientId );
       if ( enginesRun.size() == _registeredEngines.size() ) {
          removePatient( patientId );
       }
@@ -445,6 +564,121 @@ public enum PatientNoteStore {
       _patientMap.remove( patientId );
       _patientViewInfos.remove( patientId );
       _wantedDocCounts.remove( patientId );
+      _pinnedPatients.remove( patientId );
+      final File spillFile = _spilledPatients.remove( patientId );
+      if ( spillFile != null && !spillFile.delete() ) {
+         LOGGER.warn( "Could not delete spilled patient file " + spillFile.getPath() );
+      }
+   }
+
+   /////////////////    Spill to disk   ///////////////
+
+   /**
+    * @param patientId -
+    * @return the patient jcas, loaded from disk if it was spilled, or null if there is no such patient
+    */
+   synchronized private JCas getPatientCas( final String patientId ) {
+      final JCas patientCas = _patientMap.get( patientId );
+      if ( patientCas != null ) {
+         return patientCas;
+      }
+      final File spillFile = _spilledPatients.get( patientId );
+      if ( spillFile == null ) {
+         return null;
+      }
+      LOGGER.info( "Loading spilled patient " + patientId + " ..." );
+      try ( InputStream inputStream = new BufferedInputStream( new FileInputStream( spillFile ) ) ) {
+         final JCas loadedCas = JCasFactory.createJCas();
+         Serialization.deserializeCAS( loadedCas.getCas(), inputStream );
+         _spilledPatients.remove( patientId );
+         if ( !spillFile.delete() ) {
+            LOGGER.warn( "Could not delete spilled patient file " + spillFile.getPath() );
+         }
+         _patientMap.put( patientId, loadedCas );
+         _loadCount++;
+         enforceBudget( patientId );
+         return loadedCas;
+      } catch ( IOException | UIMAException | CASRuntimeException multE ) {
+         LOGGER.error( "Could not load spilled patient " + patientId + " " + multE.getMessage() );
+      }
+      return null;
+   }
+
+   /**
+    * @param patientId -
+    * @return the patient jcas, loaded from disk if it was spilled, or null if there is no such patient.
+    * A returned patient is pinned in memory.
+    */
+   synchronized private JCas getPinnedPatientCas( final String patientId ) {
+      final JCas patientCas = getPatientCas( patientId );
+      if ( patientCas != null ) {
+         _pinnedPatients.add( patientId );
+      }
+      return patientCas;
+   }
+
+   /**
+    * Spill least recently used patients until the resident documents are within budget.
+    * Pinned patients, which have been given to some consumer or getter and not released, are not spilled,
+    * as the holder may still change them.
+    *
+    * @param keepPatientId patient that should stay in memory, or null
+    */
+   synchronized private void enforceBudget( final String keepPatientId ) {
+      if ( _maxResidentDocs <= 0 ) {
+         return;
+      }
+      int residentDocs = getResidentDocCount();
+      for ( String patientId : new ArrayList<>( _patientMap.keySet() ) ) {
+         if ( residentDocs <= _maxResidentDocs ) {
+            return;
+         }
+         if ( patientId.equals( keepPatientId ) || _pinnedPatients.contains( patientId ) ) {
+            continue;
+         }
+         final int docCount = getStoredDocCount( patientId );
+         if ( spillPatient( patientId ) ) {
+            residentDocs -= docCount;
+         }
+      }
+   }
+
+   /**
+    * @param patientId -
+    * @return true if the patient jcas was written to disk and removed from memory
+    */
+   synchronized private boolean spillPatient( final String patientId ) {
+      final JCas patientCas = _patientMap.get( patientId );
+      File spillFile = null;
+      try {
+         spillFile = File.createTempFile( "Patient_", SPILL_EXTENSION, getSpillDirectory() );
+         try ( OutputStream outputStream = new BufferedOutputStream( new FileOutputStream( spillFile ) ) ) {
+            Serialization.serializeWithCompression( patientCas.getCas(), outputStream );
+         }
+      } catch ( IOException ioE ) {
+         LOGGER.error( "Could not spill patient " + patientId + " " + ioE.getMessage() );
+         if ( spillFile != null && !spillFile.delete() ) {
+            LOGGER.warn( "Could not delete partial patient file " + spillFile.getPath() );
+         }
+         return false;
+      }
+      LOGGER.info( "Spilled patient " + patientId + " to " + spillFile.getPath() );
+      _patientMap.remove( patientId );
+      _spilledPatients.put( patientId, spillFile );
+      _spillCount++;
+      return true;
+   }
+
+   /**
+    * @return the configured spill directory, or a temporary directory if none was configured
+    * @throws IOException if a temporary directory cannot be created
+    */
+   synchronized private File getSpillDirectory() throws IOException {
+      if ( _spillDirectory == null ) {
+         _spillDirectory = Files.createTempDirectory( "PatientNoteStore" ).toFile();
+         _spillDirectory.deleteOnExit();
+      }
+      return _spillDirectory;
    }
 
    /////////////////    Encoding for cached patient view names   ///////////////
@@ -0,0 +1,360 @@
+package org.apache.ctakes.core.pipeline;
+
+import org.apache.ctakes.core.util.DocumentIDAnnotationUtil;
+import org.apache.log4j.Logger;
+import org.apache.uima.UIMAException;
+import org.apache.uima.UIMAFramework;
+import org.apache.uima.analysis_engine.AnalysisEngine;
+import org.apache.uima.analysis_engine.AnalysisEngineDescription;
+import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.CASException;
+import org.apache.uima.cas.TypeSystem;
+import org.apache.uima.collection.CollectionReader;
+import org.apache.uima.collection.CollectionReaderDescription;
+import org.apache.uima.resource.ResourceInitializationException;
+import org.apache.uima.resource.metadata.ProcessingResourceMetaData;
+import org.apache.uima.util.CasCreationUtils;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs a pipeline over a collection using several threads.
+ * <p>
+ * A single reader thread fills cas objects taken from a bounded pool and places them on a work queue.
+ * Worker threads each run their own instance of the main pipeline on cas objects taken from the work queue.
+ * A single writer thread runs the writer engines on processed cas objects, either in the order in which they were read
+ * or in the order in which they were processed, and then returns each cas to the pool.
+ * Because the pool is bounded the reader can never get more than a fixed number of documents ahead of the writer.
+ * </p>
+ * Progress, throughput and queue depths are logged periodically.
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+final public class ParallelPipelineRunner {
+
+   static private final Logger LOGGER = Logger.getLogger( "ParallelPipelineRunner" );
+
+   static private final long REPORT_SECONDS = 30;
+
+   // Marks the end of the collection in the work and write queues
+   static private final WorkItem END_ITEM = new WorkItem( -1, null );
+
+   private final CollectionReaderDescription _readerDesc;
+   private final AnalysisEngineDescription _workerDesc;
+   private final AnalysisEngineDescription _writerDesc;
+   private final int _threadCount;
+   private final boolean _writeInOrder;
+
+   private final AtomicLong _readCount = new AtomicLong();
+   private final AtomicLong _processCount = new AtomicLong();
+   private final AtomicLong _writeCount = new AtomicLong();
+   private final AtomicLong _failCount = new AtomicLong();
+   private final AtomicReference<Throwable> _readerException = new AtomicReference<>();
+
+   private BlockingQueue<CAS> _casPool;
+   private BlockingQueue<WorkItem> _workQueue;
+   private BlockingQueue<WorkItem> _writeQueue;
+
+   /**
+    * @param readerDesc   collection reader
+    * @param workerDesc   main pipeline, run by each worker thread.  May be null.
+    * @param writerDesc   writer engines, run by a single thread.  May be null.
+    * @param threadCount  number of worker threads
+    * @param writeInOrder true if documents should be written in the order in which they were read
+    */
+   public ParallelPipelineRunner( final CollectionReaderDescription readerDesc,
+                                  final AnalysisEngineDescription workerDesc,
+                                  final AnalysisEngineDescription writerDesc,
+                                  final int threadCount,
+                                  final boolean writeInOrder ) {
+      _readerDesc = readerDesc;
+      _workerDesc = workerDesc;
+      _writerDesc = writerDesc;
+      _threadCount = Math.max( 1, threadCount );
+      _writeInOrder = writeInOrder;
+   }
+
+   /**
+    * Read, process and write the full collection.  Returns once all documents have been written.
+    *
+    * @throws UIMAException if the pipeline could not be initialized or the collection could not be read
+    */
+   public void run() throws UIMAException {
+      final CollectionReader reader = UIMAFramework.produceCollectionReader( _readerDesc );
+      final List<AnalysisEngine> workerEngines = new ArrayList<>( _threadCount );
+      for ( int i = 0; i < _threadCount; i++ ) {
+         workerEngines.add( _workerDesc == null ? null : UIMAFramework.produceAnalysisEngine( _workerDesc ) );
+      }
+      final AnalysisEngine writerEngine = _writerDesc == null ? null : UIMAFramework.produceAnalysisEngine( _writerDesc );
+      // one cas for each worker, plus as many again queued for work or writing
+      final int poolSize = _threadCount * 2 + 2;
+      _casPool = new ArrayBlockingQueue<>( poolSize );
+      _casPool.addAll( createCasPool( poolSize, reader, workerEngines.get( 0 ), writerEngine ) );
+      _workQueue = new ArrayBlockingQueue<>( poolSize + _threadCount );
+      _writeQueue = new ArrayBlockingQueue<>( poolSize + _threadCount );
+      LOGGER.info( "Running pipeline with " + _threadCount + " worker threads and " + poolSize + " cas."
+                   + (_writeInOrder ? "  Documents will be written in order." : "") );
+
+      final long startMillis = System.currentTimeMillis();
+      final ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor( r -> {
+         final Thread thread = new Thread( r, "PipelineReporter" );
+         thread.setDaemon( true );
+         return thread;
+      } );
+      reporter.scheduleAtFixedRate( () -> logProgress( startMillis ), REPORT_SECONDS, REPORT_SECONDS, TimeUnit.SECONDS );
+
+      final List<Thread> threads = new ArrayList<>();
+      threads.add( new Thread( () -> readCollection( reader ), "PipelineReader" ) );
+      for ( int i = 0; i < _threadCount; i++ ) {
+         final AnalysisEngine engine = workerEngines.get( i );
+         threads.add( new Thread( () -> processDocuments( engine ), "PipelineWorker_" + (i + 1) ) );
+      }
+      threads.add( new Thread( () -> writeDocuments( writerEngine ), "PipelineWriter" ) );
+      threads.forEach( Thread::start );
+      try {
+         for ( Thread thread : threads ) {
+            thread.join();
+         }
+      } catch ( InterruptedException intE ) {
+         Thread.currentThread().interrupt();
+         threads.forEach( Thread::interrupt );
+         LOGGER.error( "Interrupted while running pipeline." );
+      } finally {
+         reporter.shutdownNow();
+      }
+
+      for ( AnalysisEngine engine : workerEngines ) {
+         completeEngine( engine );
+      }
+      completeEngine( writerEngine );
+      try {
+         reader.close();
+      } catch ( IOException ioE ) {
+         LOGGER.warn( ioE.getMessage() );
+      }
+      reader.destroy();
+      logProgress( startMillis );
+      final Throwable readerException = _readerException.get();
+      if ( readerException != null ) {
+         throw new UIMAException( readerException );
+      }
+   }
+
+   /**
+    * Reads documents into pooled cas and places them on the work queue.  Blocks while the pool is empty.
+    * Any failure of the reader stops reading and is rethrown by {@link #run()} once the read documents are written.
+    *
+    * @param reader -
+    */
+   private void readCollection( final CollectionReader reader ) {
+      try {
+         long index = 0;
+         while ( reader.hasNext() ) {
+            final CAS cas = _casPool.take();
+            try {
+               reader.getNext( cas );
+            } catch ( Throwable t ) {
+               cas.reset();
+               _casPool.put( cas );
+               throw t;
+            }
+            _workQueue.put( new WorkItem( index, cas ) );
+            index++;
+            _readCount.incrementAndGet();
+         }
+      } catch ( InterruptedException intE ) {
+         Thread.currentThread().interrupt();
+      } catch ( Throwable t ) {
+         LOGGER.error( "Could not read collection.  " + t.getMessage(), t );
+         _readerException.set( t );
+      } finally {
+         for ( int i = 0; i < _threadCount; i++ ) {
+            putQuietly( _workQueue, END_ITEM );
+         }
+      }
+   }
+
+   /**
+    * Runs the main pipeline on documents from the work queue and places them on the write queue.
+    * Every document is placed on the write queue, even if processing failed, so that ordered writing never stalls
+    * and the cas is returned to the pool.
+    *
+    * @param engine main pipeline, or null to pass documents directly to the writer
+    */
+   private void processDocuments( final AnalysisEngine engine ) {
+      try {
+         WorkItem item = _workQueue.take();
+         while ( item != END_ITEM ) {
+            if ( engine != null ) {
+               try {
+                  engine.process( item._cas );
+               } catch ( Throwable t ) {
+                  LOGGER.error( "Could not process " + getDocumentId( item._cas ) + "  " + t.getMessage(), t );
+                  item._failed = true;
+                  _failCount.incrementAndGet();
+               }
+            }
+            _processCount.incrementAndGet();
+            _writeQueue.put( item );
+            item = _workQueue.take();
+         }
+      } catch ( InterruptedException intE ) {
+         Thread.currentThread().interrupt();
+      } finally {
+         putQuietly( _writeQueue, END_ITEM );
+      }
+   }
+
+   /**
+    * Runs the writer engines on documents from the write queue and returns each cas to the pool.
+    *
+    * @param engine writer engines, or null if there are none
+    */
+   private void writeDocuments( final AnalysisEngine engine ) {
+      // documents that were processed before some document that was read earlier
+      final Map<Long, WorkItem> waitingItems = new HashMap<>();
+      long nextIndex = 0;
+      int endCount = 0;
+      try {
+         while ( endCount < _threadCount ) {
+            final WorkItem item = _writeQueue.take();
+            if ( item == END_ITEM ) {
+               endCount++;
+               continue;
+            }
+            if ( !_writeInOrder ) {
+               writeDocument( engine, item );
+               continue;
+            }
+            waitingItems.put( item._index, item );
+            WorkItem nextItem = waitingItems.remove( nextIndex );
+            while ( nextItem != null ) {
+               writeDocument( engine, nextItem );
+               nextIndex++;
+               nextItem = waitingItems.remove( nextIndex );
+            }
+         }
+      } catch ( InterruptedException intE ) {
+         Thread.currentThread().interrupt();
+      }
+      // anything left was stranded by an interruption
+      waitingItems.values().forEach( i -> _casPool.offer( i._cas ) );
+   }
+
+   /**
+    * @param engine writer engines, or null if there are none
+    * @param item   processed document.  Documents that failed processing are not written.
+    * @throws InterruptedException if interrupted while returning the cas to the pool
+    */
+   private void writeDocument( final AnalysisEngine engine, final WorkItem item ) throws InterruptedException {
+      try {
+         if ( engine != null && !item._failed ) {
+            engine.process( item._cas );
+         }
+      } catch ( Throwable t ) {
+         LOGGER.error( "Could not write " + getDocumentId( item._cas ) + "  " + t.getMessage(), t );
+         _failCount.incrementAndGet();
+      } finally {
+         _writeCount.incrementAndGet();
+         item._cas.reset();
+         _casPool.put( item._cas );
+      }
+   }
+
+   /**
+    * @param startMillis time at which the run started
+    */
+   private void logProgress( final long startMillis ) {
+      final double seconds = Math.max( 1, System.currentTimeMillis() - startMillis ) / 1000d;
+      final long written = _writeCount.get();
+      LOGGER.info( String.format( "Read %d, processed %d, written %d documents.  %.2f docs/sec."
+                                  + "  Work queue %d, write queue %d, free cas %d.  Failed %d.",
+            _readCount.get(), _processCount.get(), written, written / seconds,
+            _workQueue.size(), _writeQueue.size(), _casPool.size(), _failCount.get() ) );
+   }
+
+   /**
+    * @param size    number of cas to create
+    * @param reader  -
+    * @param worker  main pipeline, may be null
+    * @param writer  writer engines, may be null
+    * @return cas sharing one type system merged from all components
+    * @throws ResourceInitializationException if the cas cannot be created
+    */
+   static private Collection<CAS> createCasPool( final int size,
+                                                 final CollectionReader reader,
+                                                 final AnalysisEngine worker,
+                                                 final AnalysisEngine writer )
+         throws ResourceInitializationException {
+      final List<ProcessingResourceMetaData> metaData = new ArrayList<>( 3 );
+      metaData.add( reader.getProcessingResourceMetaData() );
+      if ( worker != null ) {
+         metaData.add( worker.getProcessingResourceMetaData() );
+      }
+      if ( writer != null ) {
+         metaData.add( writer.getProcessingResourceMetaData() );
+      }
+      final Collection<CAS> pool = new ArrayList<>( size );
+      // Merge and commit the type system once, every other cas reuses it.
+      final CAS first = CasCreationUtils.createCas( metaData );
+      pool.add( first );
+      final TypeSystem typeSystem = first.getTypeSystem();
+      for ( int i = 1; i < size; i++ ) {
+         pool.add( CasCreationUtils.createCas( metaData, typeSystem, null ) );
+      }
+      return pool;
+   }
+
+   /**
+    * @param engine engine to complete and destroy, may be null
+    */
+   static private void completeEngine( final AnalysisEngine engine ) {
+      if ( engine == null ) {
+         return;
+      }
+      try {
+         engine.collectionProcessComplete();
+      } catch ( AnalysisEngineProcessException aeE ) {
+         LOGGER.error( aeE.getMessage(), aeE );
+      }
+      engine.destroy();
+   }
+
+   static private String getDocumentId( final CAS cas ) {
+      try {
+         return DocumentIDAnnotationUtil.getDocumentID( cas.getJCas() );
+      } catch ( CASException casE ) {
+         return "document";
+      }
+   }
+
+   static private void putQuietly( final BlockingQueue<WorkItem> queue, final WorkItem item ) {
+      try {
+         queue.put( item );
+      } catch ( InterruptedException intE ) {
+         Thread.currentThread().interrupt();
+      }
+   }
+
+   /**
+    * A cas and the index at which it was read.
+    */
+   static private final class WorkItem {
+      private final long _index;
+      private final CAS _cas;
+      private boolean _failed;
+
+      private WorkItem( final long index, final CAS cas ) {
+         _index = index;
+         _cas = cas;
+      }
+   }
+
+}
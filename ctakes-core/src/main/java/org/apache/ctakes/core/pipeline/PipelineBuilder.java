@@ -1,33 +1,29 @@
 package org.apache.ctakes.core.pipeline;
 
 
+import org.apache.ctakes.core.cc.FileTreeBinaryCasWriter;
 import org.apache.ctakes.core.cc.FileTreeXmiWriter;
 import org.apache.ctakes.core.cc.pretty.html.HtmlTextWriter;
 import org.apache.ctakes.core.config.ConfigParameterConstants;
+import org.apache.ctakes.core.cr.FileTreeBinaryCasReader;
 import org.apache.ctakes.core.cr.FileTreeReader;
+import org.apache.ctakes.core.ae.StageTimer;
 import org.apache.ctakes.core.util.PropertyAeFactory;
 import org.apache.log4j.Logger;
 import org.apache.uima.UIMAException;
 import org.apache.uima.analysis_component.AnalysisComponent;
 import org.apache.uima.analysis_engine.AnalysisEngineDescription;
-import org.apache.uima.collection.CollectionProcessingEngine;
 import org.apache.uima.collection.CollectionReader;
 import org.apache.uima.collection.CollectionReaderDescription;
-import org.apache.uima.collection.metadata.CpeDescriptorException;
-import org.apache.uima.fit.cpe.CpeBuilder;
 import org.apache.uima.fit.factory.AggregateBuilder;
 import org.apache.uima.fit.factory.CollectionReaderFactory;
 import org.apache.uima.fit.factory.JCasFactory;
 import org.apache.uima.fit.pipeline.SimplePipeline;
 import org.apache.uima.jcas.JCas;
 import org.apache.uima.resource.ResourceInitializationException;
-import org.xml.sax.SAXException;
 
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Collections;
-import java.util.List;
+import java.util.*;
 
 /**
  * Creates a pipeline using a small set of simple methods.
@@ -55,6 +51,8 @@ final public class PipelineBuilder {
    private AnalysisEngineDescription _analysisEngineDesc;
    private boolean _pipelineChanged;
    private int _threadCount = 1;
+   private boolean _writeInOrder = true;
+   private boolean _timeStages;
 
    public PipelineBuilder() {
       _aeNameList = new ArrayList<>();
@@ -74,6 +72,8 @@ final public class PipelineBuilder {
       _aeEndViewList.clear();
       _descEndList.clear();
       _threadCount = 1;
+      _writeInOrder = true;
+      _timeStages = false;
    }
 
    /**
@@ -150,6 +150,30 @@ final public class PipelineBuilder {
       return reader( FileTreeReader.class, ConfigParameterConstants.PARAM_INPUTDIR, inputDirectory );
    }
 
+   /**
+    * Adds a Collection reader to the beginning of the pipeline that will read binary cas files in a directory tree.
+    * Relies upon {@link org.apache.ctakes.core.config.ConfigParameterConstants#PARAM_INPUTDIR} having been specified
+    * Use of this method is not order-specific.
+    *
+    * @return this PipelineBuilder
+    * @throws UIMAException if the collection reader cannot be created
+    */
+   public PipelineBuilder readBinaryCas() throws UIMAException {
+      return reader( CollectionReaderFactory.createReaderDescription( FileTreeBinaryCasReader.class ) );
+   }
+
+   /**
+    * Adds a Collection reader to the beginning of the pipeline that will read binary cas files in a directory tree.
+    * Use of this method is not order-specific
+    *
+    * @param inputDirectory directory with binary cas files
+    * @return this PipelineBuilder
+    * @throws UIMAException if the collection reader cannot be created
+    */
+   public PipelineBuilder readBinaryCas( final String inputDirectory ) throws UIMAException {
+      return reader( FileTreeBinaryCasReader.class, ConfigParameterConstants.PARAM_INPUTDIR, inputDirectory );
+   }
+
    /**
     *
     * @return the Collection Reader for the pipeline or null if none has been specified
@@ -312,6 +336,31 @@ final public class PipelineBuilder {
             ConfigParameterConstants.PARAM_OUTPUTDIR, outputDirectory );
    }
 
+   /**
+    * Adds ae that writes a compressed binary cas file at the end of the pipeline.
+    * Relies upon {@link ConfigParameterConstants#PARAM_OUTPUTDIR} having been specified
+    * Use of this method is order-specific.
+    *
+    * @return this PipelineBuilder
+    * @throws ResourceInitializationException if the binary cas writer engine cannot be created
+    */
+   public PipelineBuilder writeBinaryCas() throws ResourceInitializationException {
+      return addLast( FileTreeBinaryCasWriter.class, Collections.emptyList() );
+   }
+
+   /**
+    * Adds ae that writes a compressed binary cas file at the end of the pipeline.
+    * Use of this method is order-specific.
+    *
+    * @param outputDirectory directory in which binary cas files should be written
+    * @return this PipelineBuilder
+    * @throws ResourceInitializationException if the binary cas writer engine cannot be created
+    */
+   public PipelineBuilder writeBinaryCas( final String outputDirectory ) throws ResourceInitializationException {
+      return addLast( FileTreeBinaryCasWriter.class, Collections.emptyList(),
+            ConfigParameterConstants.PARAM_OUTPUTDIR, outputDirectory );
+   }
+
    /**
     * Adds ae that writes an html file at the end of the pipeline.
     * Relies upon {@link ConfigParameterConstants#PARAM_OUTPUTDIR} having been specified
@@ -337,6 +386,13 @@ final public class PipelineBuilder {
             ConfigParameterConstants.PARAM_OUTPUTDIR, outputDirectory );
    }
 
+   /**
+    * Use of this method is not order-specific.
+    *
+    * @param threadCount number of threads to use for processing documents.
+    *                    If more than one then the pipeline is run by a {@link ParallelPipelineRunner}.
+    * @return this PipelineBuilder
+    */
    public PipelineBuilder threads( final int threadCount ) {
       if ( threadCount <= 1 ) {
          if ( threadCount < 1 ) {
@@ -356,6 +412,34 @@ final public class PipelineBuilder {
       return this;
    }
 
+   /**
+    * Use of this method is not order-specific.  Only used when running with more than one thread.
+    *
+    * @param writeInOrder true (default) if writers should receive documents in the order in which they were read,
+    *                     false if writers should receive documents as soon as they have been processed.
+    * @return this PipelineBuilder
+    */
+   public PipelineBuilder writeInOrder( final boolean writeInOrder ) {
+      _writeInOrder = writeInOrder;
+      return this;
+   }
+
+   /**
+    * Record the time taken, annotations added and memory allocated by each component in the pipeline.
+    * A summary table is logged when the collection is complete.  See {@link PipelineMetrics}.
+    * Use of this method is not order-specific.
+    *
+    * @param csvPath   path to a csv file to which the summary should be written, or null or empty for none
+    * @param exportJmx true if metrics for each component should be registered as jmx beans
+    * @return this PipelineBuilder
+    */
+   public PipelineBuilder timeStages( final String csvPath, final boolean exportJmx ) {
+      PipelineMetrics.getInstance().setExport( csvPath, exportJmx );
+      _timeStages = true;
+      _pipelineChanged = true;
+      return this;
+   }
+
    /**
     * Initialize a pipeline that can be used repeatedly using {@link #run} and {@link #run(String)}.
     * A pipeline can be extended between builds, but the full pipeline will be rebuilt on each call.
@@ -367,11 +451,12 @@ final public class PipelineBuilder {
    public PipelineBuilder build() throws IOException, UIMAException {
       if ( _analysisEngineDesc == null || _pipelineChanged ) {
          final AggregateBuilder builder = new AggregateBuilder();
+         final List<String> stageNames = getStageNames();
          for ( int i = 0; i < _descList.size(); i++ ) {
-            builder.add( _descList.get( i ), _aeViewList.get( i ) );
+            addStage( builder, stageNames.get( i ), _descList.get( i ), _aeViewList.get( i ) );
          }
          for ( int i = 0; i < _descEndList.size(); i++ ) {
-            builder.add( _descEndList.get( i ), _aeEndViewList.get( i ) );
+            addStage( builder, stageNames.get( _descList.size() + i ), _descEndList.get( i ), _aeEndViewList.get( i ) );
          }
          _analysisEngineDesc = builder.createAggregateDescription();
       }
@@ -397,21 +482,116 @@ final public class PipelineBuilder {
       if ( _threadCount == 1 ) {
          SimplePipeline.runPipeline( _readerDesc, _analysisEngineDesc );
       } else {
-         final CpeBuilder cpeBuilder = new CpeBuilder();
-         try {
-            cpeBuilder.setReader( _readerDesc );
-            cpeBuilder.setAnalysisEngine( _analysisEngineDesc );
-            cpeBuilder.setMaxProcessingUnitThreadCount( _threadCount );
-            final CollectionProcessingEngine cpe = cpeBuilder.createCpe( null );
-            cpe.process();
-         } catch ( CpeDescriptorException | SAXException multE ) {
-            LOGGER.error( multE.getMessage(), multE );
-            throw new UIMAException( multE );
-         }
+         runParallel();
       }
       return this;
    }
 
+   /**
+    * Run the pipeline with multiple threads.
+    * Components added with addLast and any writers at the end of the main pipeline are run by a single writer thread.
+    * All other components are run by each worker thread.
+    *
+    * @throws UIMAException if the pipeline could not be run
+    */
+   private void runParallel() throws UIMAException {
+      int writerStart = _descList.size();
+      while ( writerStart > 0 && isWriter( _descList.get( writerStart - 1 ) ) ) {
+         writerStart--;
+      }
+      final List<String> stageNames = getStageNames();
+      final AggregateBuilder workerBuilder = new AggregateBuilder();
+      for ( int i = 0; i < writerStart; i++ ) {
+         addStage( workerBuilder, stageNames.get( i ), _descList.get( i ), _aeViewList.get( i ) );
+      }
+      final AggregateBuilder writerBuilder = new AggregateBuilder();
+      for ( int i = writerStart; i < _descList.size(); i++ ) {
+         addStage( writerBuilder, stageNames.get( i ), _descList.get( i ), _aeViewList.get( i ) );
+      }
+      for ( int i = 0; i < _descEndList.size(); i++ ) {
+         addStage( writerBuilder, stageNames.get( _descList.size() + i ),
+               _descEndList.get( i ), _aeEndViewList.get( i ) );
+      }
+      final AnalysisEngineDescription workerDesc
+            = writerStart == 0 ? null : workerBuilder.createAggregateDescription();
+      final AnalysisEngineDescription writerDesc
+            = writerStart == _descList.size() && _descEndList.isEmpty() ? null
+                                                                      : writerBuilder.createAggregateDescription();
+      new ParallelPipelineRunner( _readerDesc, workerDesc, writerDesc, _threadCount, _writeInOrder ).run();
+   }
+
+   /**
+    * Add a component to an aggregate, surrounded by stage timers if stages are being timed.
+    * The timers are siblings of the component rather than parents so that the component view mapping is unchanged.
+    *
+    * @param builder     aggregate builder
+    * @param stageName   unique name for the component within the pipeline
+    * @param description component description
+    * @param views       cas views to use for the component
+    * @throws ResourceInitializationException if the stage timers cannot be created
+    */
+   private void addStage( final AggregateBuilder builder, final String stageName,
+                          final AnalysisEngineDescription description, final String[] views )
+         throws ResourceInitializationException {
+      if ( !_timeStages ) {
+         builder.add( description, views );
+         return;
+      }
+      builder.add( StageTimer.createDescription( stageName, true ) );
+      builder.add( description, views );
+      builder.add( StageTimer.createDescription( stageName, false ) );
+   }
+
+   /**
+    * @return simple names of all components in pipeline order, with a count appended to any repeated name
+    */
+   private List<String> getStageNames() {
+      final List<String> stageNames = new ArrayList<>();
+      final Map<String, Integer> nameCounts = new HashMap<>();
+      final List<AnalysisEngineDescription> descriptions = new ArrayList<>( _descList );
+      descriptions.addAll( _descEndList );
+      for ( AnalysisEngineDescription description : descriptions ) {
+         final String simpleName = getSimpleName( description );
+         final int count = nameCounts.merge( simpleName, 1, Integer::sum );
+         stageNames.add( count == 1 ? simpleName : simpleName + "_" + count );
+      }
+      return stageNames;
+   }
+
+   /**
+    * @param description -
+    * @return the simple class name of a primitive component,
+    * otherwise the name in the metadata of an aggregate, or "Aggregate" if it has none
+    */
+   static private String getSimpleName( final AnalysisEngineDescription description ) {
+      String name = description.getAnnotatorImplementationName();
+      if ( name == null || name.isEmpty() ) {
+         name = description.getMetaData() == null ? null : description.getMetaData().getName();
+         if ( name == null || name.trim().isEmpty() ) {
+            return "Aggregate";
+         }
+         return name.trim().replace( ' ', '_' );
+      }
+      return name.substring( name.lastIndexOf( '.' ) + 1 );
+   }
+
+   /**
+    * @param description -
+    * @return true if the description is for a component with the {@link PipeBitInfo.Role#WRITER} role
+    */
+   static private boolean isWriter( final AnalysisEngineDescription description ) {
+      final String className = description.getAnnotatorImplementationName();
+      if ( !description.isPrimitive() || className == null ) {
+         return false;
+      }
+      try {
+         final Class<?> componentClass = Class.forName( className );
+         return PipeBitInfoUtil.getInfo( componentClass ).role() == PipeBitInfo.Role.WRITER;
+      } catch ( ClassNotFoundException | LinkageError cnfE ) {
+         return false;
+      }
+   }
+
    /**
     * Run the pipeline on the given text.
     * Use of this method is order-specific.
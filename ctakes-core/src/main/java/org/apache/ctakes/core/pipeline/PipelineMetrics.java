@@ -0,0 +1,246 @@
+package org.apache.ctakes.core.pipeline;
+
+import org.apache.log4j.Logger;
+
+import javax.management.*;
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Collects the time taken, annotations added and memory allocated by each timed stage of a pipeline.
+ * <p>
+ * Stages are timed by pairs of {@link org.apache.ctakes.core.ae.StageTimer} placed around pipeline components,
+ * see {@link PipelineBuilder#timeStages(String, boolean)}.
+ * Once every timed stage has completed its collection a summary table is logged,
+ * and optionally written to a csv file.  Metrics for each stage can also be exported as jmx beans.
+ * </p>
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+public enum PipelineMetrics {
+   INSTANCE;
+
+   static public PipelineMetrics getInstance() {
+      return INSTANCE;
+   }
+
+   static private final Logger LOGGER = Logger.getLogger( "PipelineMetrics" );
+
+   static private final String JMX_DOMAIN = "org.apache.ctakes";
+
+   private final Map<String, StageMetrics> _stageMetrics = new ConcurrentHashMap<>();
+   // stage names in pipeline order
+   private final List<String> _stageNames = new ArrayList<>();
+   // start time, annotation count and allocated bytes for the stage currently running on each thread
+   private final ThreadLocal<Map<String, long[]>> _stageStarts = ThreadLocal.withInitial( HashMap::new );
+   private final ThreadMXBean _threadBean = ManagementFactory.getThreadMXBean();
+   private int _openStageCount;
+   private String _csvPath;
+   private boolean _exportJmx;
+
+   /**
+    * @param csvPath   path to a csv file to which the summary should be written, or null or empty for none
+    * @param exportJmx true if metrics for each stage should be registered as jmx beans
+    */
+   synchronized public void setExport( final String csvPath, final boolean exportJmx ) {
+      _csvPath = csvPath;
+      _exportJmx = exportJmx;
+   }
+
+   /**
+    * Called once by each instance of a stage when it is initialized.
+    *
+    * @param stageName -
+    */
+   synchronized public void openStage( final String stageName ) {
+      _openStageCount++;
+      if ( _stageMetrics.containsKey( stageName ) ) {
+         return;
+      }
+      final StageMetrics metrics = new StageMetrics( stageName );
+      _stageMetrics.put( stageName, metrics );
+      _stageNames.add( stageName );
+      if ( _exportJmx ) {
+         registerBean( metrics );
+      }
+   }
+
+   /**
+    * Called once by each instance of a stage when its collection is complete.
+    * When the last open stage closes the summary is logged and written.
+    *
+    * @param stageName -
+    */
+   synchronized public void closeStage( final String stageName ) {
+      _openStageCount--;
+      if ( _openStageCount == 0 ) {
+         logSummary();
+         if ( _csvPath != null && !_csvPath.isEmpty() ) {
+            writeCsv( _csvPath );
+         }
+      }
+   }
+
+   /**
+    * Mark the start of a stage for a document on the current thread.
+    *
+    * @param stageName       -
+    * @param annotationCount number of annotations in the cas before the stage
+    */
+   public void startStage( final String stageName, final long annotationCount ) {
+      _stageStarts.get().put( stageName,
+            new long[]{ System.nanoTime(), annotationCount, getAllocatedBytes() } );
+   }
+
+   /**
+    * Mark the end of a stage for a document on the current thread.
+    *
+    * @param stageName       -
+    * @param annotationCount number of annotations in the cas after the stage
+    */
+   public void finishStage( final String stageName, final long annotationCount ) {
+      final long endNanos = System.nanoTime();
+      final long endBytes = getAllocatedBytes();
+      final long[] start = _stageStarts.get().remove( stageName );
+      final StageMetrics metrics = _stageMetrics.get( stageName );
+      if ( start == null || metrics == null ) {
+         LOGGER.warn( "No start recorded for stage " + stageName );
+         return;
+      }
+      final long allocated = endBytes < 0 || start[ 2 ] < 0 ? -1 : endBytes - start[ 2 ];
+      metrics.record( endNanos - start[ 0 ], annotationCount - start[ 1 ], allocated );
+   }
+
+   /**
+    * @param stageName -
+    * @return metrics for the stage, or null if there is no such stage
+    */
+   public StageMetrics getStageMetrics( final String stageName ) {
+      return _stageMetrics.get( stageName );
+   }
+
+   /**
+    * Forget all stages.
+    */
+   synchronized public void clear() {
+      if ( _exportJmx ) {
+         _stageMetrics.values().forEach( this::unregisterBean );
+      }
+      _stageMetrics.clear();
+      _stageNames.clear();
+      _openStageCount = 0;
+   }
+
+   /**
+    * @return summary table with one line per stage
+    */
+   synchronized public List<String> getSummary() {
+      final double pipelineMillis = _stageMetrics.values().stream().mapToDouble( StageMetrics::getTotalMillis ).sum();
+      final int nameWidth = _stageNames.stream().mapToInt( String::length ).max().orElse( 5 );
+      final String format = "%-" + nameWidth + "s %8s %12s %9s %9s %9s %9s %6s %10s %10s";
+      final List<String> summary = new ArrayList<>();
+      summary.add( String.format( format, "Stage", "Docs", "Total ms", "Mean ms", "p50 ms", "p95 ms", "Max ms",
+            "Time %", "Annots/Doc", "KB/Doc" ) );
+      for ( String stageName : _stageNames ) {
+         final StageMetrics metrics = _stageMetrics.get( stageName );
+         final double allocated = metrics.getAllocatedBytesPerDoc();
+         summary.add( String.format( format, stageName,
+               metrics.getDocCount(),
+               String.format( "%.1f", metrics.getTotalMillis() ),
+               String.format( "%.2f", metrics.getMeanMillis() ),
+               String.format( "%.2f", metrics.getMedianMillis() ),
+               String.format( "%.2f", metrics.getP95Millis() ),
+               String.format( "%.2f", metrics.getMaxMillis() ),
+               String.format( "%.1f", pipelineMillis == 0 ? 0 : 100 * metrics.getTotalMillis() / pipelineMillis ),
+               String.format( "%.1f", metrics.getAnnotationsPerDoc() ),
+               allocated < 0 ? "?" : String.format( "%.1f", allocated / 1024 ) ) );
+      }
+      return summary;
+   }
+
+   /**
+    * Log the summary table.
+    */
+   synchronized public void logSummary() {
+      LOGGER.info( "Pipeline stage metrics:" );
+      getSummary().forEach( LOGGER::info );
+   }
+
+   /**
+    * @param csvPath path to a csv file to which the metrics for all stages should be written
+    */
+   synchronized public void writeCsv( final String csvPath ) {
+      final File csvFile = new File( csvPath );
+      if ( csvFile.getParentFile() != null ) {
+         csvFile.getParentFile().mkdirs();
+      }
+      try ( Writer writer = new BufferedWriter( new FileWriter( csvFile ) ) ) {
+         writer.write( "Stage,Docs,TotalMillis,MeanMillis,MedianMillis,P95Millis,P99Millis,MaxMillis,"
+                       + "AnnotationsPerDoc,AllocatedBytesPerDoc\n" );
+         for ( String stageName : _stageNames ) {
+            final StageMetrics metrics = _stageMetrics.get( stageName );
+            writer.write( stageName + ","
+                          + metrics.getDocCount() + ","
+                          + metrics.getTotalMillis() + ","
+                          + metrics.getMeanMillis() + ","
+                          + metrics.getMedianMillis() + ","
+                          + metrics.getP95Millis() + ","
+                          + metrics.getPercentileMillis( 0.99 ) + ","
+                          + metrics.getMaxMillis() + ","
+                          + metrics.getAnnotationsPerDoc() + ","
+                          + metrics.getAllocatedBytesPerDoc() + "\n" );
+         }
+         LOGGER.info( "Wrote pipeline stage metrics to " + csvFile.getPath() );
+      } catch ( IOException ioE ) {
+         LOGGER.error( "Could not write pipeline stage metrics to " + csvPath + " " + ioE.getMessage() );
+      }
+   }
+
+   /**
+    * @return bytes allocated by the current thread, or -1 if the jvm cannot measure allocation
+    */
+   private long getAllocatedBytes() {
+      if ( _threadBean instanceof com.sun.management.ThreadMXBean ) {
+         return ((com.sun.management.ThreadMXBean)_threadBean)
+               .getThreadAllocatedBytes( Thread.currentThread().getId() );
+      }
+      return -1;
+   }
+
+   private void registerBean( final StageMetrics metrics ) {
+      try {
+         final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+         final ObjectName name = createObjectName( metrics );
+         if ( !server.isRegistered( name ) ) {
+            server.registerMBean( metrics, name );
+         }
+      } catch ( JMException jmE ) {
+         LOGGER.warn( "Could not export metrics for " + metrics.getStageName() + " " + jmE.getMessage() );
+      }
+   }
+
+   private void unregisterBean( final StageMetrics metrics ) {
+      try {
+         final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+         final ObjectName name = createObjectName( metrics );
+         if ( server.isRegistered( name ) ) {
+            server.unregisterMBean( name );
+         }
+      } catch ( JMException jmE ) {
+         LOGGER.warn( "Could not remove metrics for " + metrics.getStageName() + " " + jmE.getMessage() );
+      }
+   }
+
+   static private ObjectName createObjectName( final StageMetrics metrics ) throws MalformedObjectNameException {
+      return new ObjectName( JMX_DOMAIN + ":type=PipelineStage,name=" + ObjectName.quote( metrics.getStageName() ) );
+   }
+
+}
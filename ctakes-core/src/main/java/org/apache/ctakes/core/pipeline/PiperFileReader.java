@@ -25,15 +25,23 @@ import java.util.regex.Pattern;
  * readFiles <i>input_directory</i>
  *    <i>input_directory</i> can be empty if
  *    {@link org.apache.ctakes.core.config.ConfigParameterConstants#PARAM_INPUTDIR} ("InputDirectory") was specified
+ * readBinaryCas <i>input_directory</i>
+ *    <i>input_directory</i> can be empty if
+ *    {@link org.apache.ctakes.core.config.ConfigParameterConstants#PARAM_INPUTDIR} ("InputDirectory") was specified
  * add <i>ae_or_cc_class_name ae_parameter_name=ae_parameter_value e_parameter_name<=ae_parameter_value</i> ...
  * addLogged <i>ae_or_cc_class_name ae_parameter_name=ae_parameter_value e_parameter_name=ae_parameter_value</i> ...
  * addDescription <i>ae_or_cc_class_name</i>
  * addLast <i>ae_or_cc_class_name</i>
+ * timeStages <i>jmx csv_file_path</i>
+ *    <i>jmx</i> and <i>csv_file_path</i> are optional, metrics are logged when the collection is complete
  * collectCuis
  * collectEntities
  * writeXmis <i>output_directory</i>
  *    <i>output_directory</i> can be empty if
  *    {@link XmiWriterCasConsumerCtakes#PARAM_OUTPUTDIR} ("OutputDirectory") was specified
+ * writeBinaryCas <i>output_directory</i>
+ *    <i>output_directory</i> can be empty if
+ *    {@link XmiWriterCasConsumerCtakes#PARAM_OUTPUTDIR} ("OutputDirectory") was specified
  * // and # and ! may be used to mark line comments
  * </p>
  * class names must be fully-specified with package unless they are in standard ctakes cr ae or cc packages,
@@ -183,6 +191,13 @@ final public class PiperFileReader {
                _builder.readFiles( info );
             }
             return true;
+         case "readBinaryCas":
+            if ( info.isEmpty() ) {
+               _builder.readBinaryCas();
+            } else {
+               _builder.readBinaryCas( info );
+            }
+            return true;
          case "add":
             if ( hasParameters( info ) ) {
                final String[] component_parameters = splitFromParameters( info );
@@ -227,6 +242,8 @@ final public class PiperFileReader {
             return true;
          case "threads":
             return setThreadCount( info );
+         case "timeStages":
+            return setStageTiming( info );
          case "collectCuis":
             _builder.collectCuis();
             return true;
@@ -240,6 +257,13 @@ final public class PiperFileReader {
                _builder.writeXMIs( info );
             }
             return true;
+         case "writeBinaryCas":
+            if ( info.isEmpty() ) {
+               _builder.writeBinaryCas();
+            } else {
+               _builder.writeBinaryCas( info );
+            }
+            return true;
          case "writeHtml":
             if ( info.isEmpty() ) {
                _builder.writeHtml();
@@ -253,10 +277,18 @@ final public class PiperFileReader {
       }
    }
 
+   /**
+    * @param info thread count, optionally followed by "ordered" or "unordered" for the order in which docs are written
+    * @return true if the thread count could be parsed
+    */
    private boolean setThreadCount( final String info ) {
-      final Object count = attemptParseInt( info );
+      final String[] splits = info.trim().split( "\\s+" );
+      final Object count = attemptParseInt( splits[ 0 ] );
       if ( count instanceof Integer ) {
          _builder.threads( (Integer) count );
+         if ( splits.length > 1 ) {
+            _builder.writeInOrder( !splits[ 1 ].equalsIgnoreCase( "unordered" ) );
+         }
          return true;
       }
       LOGGER.error( "Could not parse thread count from " + info );
@@ -264,6 +296,25 @@ final public class PiperFileReader {
    }
 
 
+   /**
+    * @param info optional "jmx" to export metrics as jmx beans and optional path to a csv file for the metrics summary
+    * @return true
+    */
+   private boolean setStageTiming( final String info ) {
+      boolean exportJmx = false;
+      String csvPath = "";
+      for ( String split : info.trim().split( "\\s+" ) ) {
+         if ( split.equalsIgnoreCase( "jmx" ) ) {
+            exportJmx = true;
+         } else if ( !split.isEmpty() ) {
+            csvPath = split;
+         }
+      }
+      _builder.timeStages( csvPath, exportJmx );
+      return true;
+   }
+
+
    public BufferedReader getPiperReader( final String filePath ) throws FileNotFoundException {
       final InputStream stream = getPiperStream( filePath );
       if ( stream == null ) {
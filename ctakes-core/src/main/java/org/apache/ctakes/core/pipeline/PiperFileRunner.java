@@ -61,6 +61,10 @@ final public class PiperFileRunner {
          // load the piper file
          reader.setCliOptionals( options );
          reader.loadPipelineFile( options.getPiperPath() );
+         // a thread count on the command line overrides any in the piper file
+         if ( options.getThreadCount() > 0 ) {
+            builder.threads( options.getThreadCount() );
+         }
          // if an input directory was specified but the piper didn't add a collection reader, add the default reader
          if ( !inputDir.isEmpty() && builder.getReader() == null ) {
             builder.readFiles( inputDir );
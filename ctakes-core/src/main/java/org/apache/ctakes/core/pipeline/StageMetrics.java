@@ -0,0 +1,156 @@
+package org.apache.ctakes.core.pipeline;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread safe metrics for a single pipeline stage.
+ * <p>
+ * Latencies are kept in a histogram with power of two microsecond buckets,
+ * so percentiles are approximate to within a factor of two.
+ * </p>
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+final public class StageMetrics implements StageMetricsMBean {
+
+   // bucket i holds latencies below 2^i microseconds.  The last bucket holds everything longer than ~18 minutes
+   static private final int BUCKET_COUNT = 31;
+
+   private final String _stageName;
+   private final AtomicLongArray _histogram = new AtomicLongArray( BUCKET_COUNT );
+   private final AtomicLong _docCount = new AtomicLong();
+   private final AtomicLong _totalNanos = new AtomicLong();
+   private final AtomicLong _maxNanos = new AtomicLong();
+   private final AtomicLong _annotationCount = new AtomicLong();
+   private final AtomicLong _allocatedBytes = new AtomicLong();
+
+   /**
+    * @param stageName name of the stage
+    */
+   public StageMetrics( final String stageName ) {
+      _stageName = stageName;
+   }
+
+   /**
+    * @param nanos          time taken to process a document
+    * @param annotations    number of annotations added while processing the document
+    * @param allocatedBytes bytes allocated while processing the document, or a negative number if unknown
+    */
+   public void record( final long nanos, final long annotations, final long allocatedBytes ) {
+      _docCount.incrementAndGet();
+      _totalNanos.addAndGet( nanos );
+      _maxNanos.accumulateAndGet( nanos, Math::max );
+      _annotationCount.addAndGet( annotations );
+      if ( allocatedBytes < 0 || _allocatedBytes.get() < 0 ) {
+         _allocatedBytes.set( -1 );
+      } else {
+         _allocatedBytes.addAndGet( allocatedBytes );
+      }
+      final long micros = nanos / 1000;
+      final int bucket = Math.min( BUCKET_COUNT - 1, 64 - Long.numberOfLeadingZeros( micros ) );
+      _histogram.incrementAndGet( bucket );
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public String getStageName() {
+      return _stageName;
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public long getDocCount() {
+      return _docCount.get();
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public double getTotalMillis() {
+      return _totalNanos.get() / 1000000d;
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public double getMeanMillis() {
+      final long docCount = getDocCount();
+      return docCount == 0 ? 0 : getTotalMillis() / docCount;
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public double getMedianMillis() {
+      return getPercentileMillis( 0.5 );
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public double getP95Millis() {
+      return getPercentileMillis( 0.95 );
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public double getMaxMillis() {
+      return _maxNanos.get() / 1000000d;
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public double getAnnotationsPerDoc() {
+      final long docCount = getDocCount();
+      return docCount == 0 ? 0 : (double)_annotationCount.get() / docCount;
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public double getAllocatedBytesPerDoc() {
+      final long docCount = getDocCount();
+      final long allocated = _allocatedBytes.get();
+      if ( allocated < 0 ) {
+         return -1;
+      }
+      return docCount == 0 ? 0 : (double)allocated / docCount;
+   }
+
+   /**
+    * @param percentile between 0 and 1
+    * @return upper bound of the histogram bucket holding the percentile, but no more than the maximum latency
+    */
+   public double getPercentileMillis( final double percentile ) {
+      final long docCount = getDocCount();
+      if ( docCount == 0 ) {
+         return 0;
+      }
+      final long rank = (long)Math.ceil( percentile * docCount );
+      long seen = 0;
+      for ( int i = 0; i < BUCKET_COUNT; i++ ) {
+         seen += _histogram.get( i );
+         if ( seen >= rank ) {
+            return Math.min( getMaxMillis(), (1L << i) / 1000d );
+         }
+      }
+      return getMaxMillis();
+   }
+
+}
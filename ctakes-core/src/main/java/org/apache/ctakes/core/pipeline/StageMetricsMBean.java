@@ -0,0 +1,57 @@
+package org.apache.ctakes.core.pipeline;
+
+/**
+ * Management interface for the metrics of a single pipeline stage, as exported to jmx.
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+public interface StageMetricsMBean {
+
+   /**
+    * @return name of the stage
+    */
+   String getStageName();
+
+   /**
+    * @return number of documents processed by the stage
+    */
+   long getDocCount();
+
+   /**
+    * @return total processing time in milliseconds
+    */
+   double getTotalMillis();
+
+   /**
+    * @return mean processing time per document in milliseconds
+    */
+   double getMeanMillis();
+
+   /**
+    * @return approximate median processing time per document in milliseconds
+    */
+   double getMedianMillis();
+
+   /**
+    * @return approximate 95th percentile processing time per document in milliseconds
+    */
+   double getP95Millis();
+
+   /**
+    * @return longest processing time for a document in milliseconds
+    */
+   double getMaxMillis();
+
+   /**
+    * @return mean number of annotations added per document
+    */
+   double getAnnotationsPerDoc();
+
+   /**
+    * @return mean number of bytes allocated per document, or -1 if the jvm cannot measure allocation
+    */
+   double getAllocatedBytesPerDoc();
+
+}
@@ -50,6 +50,12 @@ interface StandardCliOptions {
          defaultValue = "" )
    String getHtmlOutDirectory();
 
+   @Option(
+         longName = "threads",
+         description = "number of threads to use for processing.  Overrides any thread count in the piper file.",
+         defaultValue = "0" )
+   int getThreadCount();
+
    @Option(
          shortName = "l",
          longName = "lookupXml",
@@ -0,0 +1,292 @@
+package org.apache.ctakes.core.util;
+
+import org.apache.uima.cas.CASException;
+import org.apache.uima.cas.Type;
+import org.apache.uima.cas.text.AnnotationFS;
+import org.apache.uima.cas.text.AnnotationIndex;
+import org.apache.uima.fit.util.CasUtil;
+import org.apache.uima.jcas.JCas;
+import org.apache.uima.jcas.tcas.Annotation;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interval index over the annotations of one type in one jcas.
+ * <p>
+ * Feature extractors select the tokens, events and times covered by, between or around relation candidates
+ * over and over.  With uimafit every such call walks the annotation index, and selectCovering walks every annotation
+ * in the cas, so extracting features for all candidate pairs in a long note is quadratic.
+ * </p>
+ * <p>
+ * This index stores the begin, end and cas address of each annotation in primitive arrays sorted in index order.
+ * Covered, covering, between, preceding and following queries are binary searches followed by a scan
+ * of only the nearby annotations.  Results are in annotation index order, as they are with uimafit.
+ * </p>
+ * <p>
+ * Indices are built lazily, per jcas and per type, on the first query.
+ * An index is rebuilt when the number of annotations of its type or the document text changes,
+ * so annotators that add annotations or a reset cas that is reused for the next document get fresh results.
+ * </p>
+ * <p>
+ * Those are the only changes that are detected.  Changing the offsets of an annotation in place,
+ * e.g. removeFromIndexes, setBegin and addToIndexes, or removing and adding the same number of annotations,
+ * leaves the index with stale offsets and addresses.  Code that does either between queries must call
+ * {@link #invalidate(JCas, Class)} or {@link #invalidate(JCas)} before the next query.
+ * </p>
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+final public class AnnotationIntervalIndex {
+
+   // Values hold cas addresses and not annotations, which reference their jcas and would keep the weak keys alive.
+   static private final Map<JCas, Map<Class<?>, AnnotationIntervalIndex>> JCAS_INDICES
+         = Collections.synchronizedMap( new WeakHashMap<>() );
+
+   private final Type _type;
+   private final String _documentText;
+   private final int _size;
+   private final int[] _addresses;
+   private final int[] _begins;
+   private final int[] _ends;
+   private final int _maxLength;
+
+   private AnnotationIntervalIndex( final JCas jCas, final Type type ) {
+      _type = type;
+      _documentText = jCas.getDocumentText();
+      final AnnotationIndex<Annotation> index = jCas.getAnnotationIndex( type );
+      _size = index.size();
+      _addresses = new int[ _size ];
+      _begins = new int[ _size ];
+      _ends = new int[ _size ];
+      int maxLength = 0;
+      int i = 0;
+      for ( Annotation annotation : index ) {
+         _addresses[ i ] = annotation.getAddress();
+         _begins[ i ] = annotation.getBegin();
+         _ends[ i ] = annotation.getEnd();
+         maxLength = Math.max( maxLength, _ends[ i ] - _begins[ i ] );
+         i++;
+      }
+      _maxLength = maxLength;
+   }
+
+   /**
+    * @param jCas ye olde
+    * @param type annotation class
+    * @return index of annotations of the type and its subtypes, built if it does not exist or is out of date
+    */
+   static public AnnotationIntervalIndex getIndex( final JCas jCas, final Class<? extends Annotation> type ) {
+      final Map<Class<?>, AnnotationIntervalIndex> indices
+            = JCAS_INDICES.computeIfAbsent( jCas, j -> new ConcurrentHashMap<>() );
+      final AnnotationIntervalIndex index = indices.get( type );
+      if ( index != null && index.isCurrent( jCas ) ) {
+         return index;
+      }
+      final AnnotationIntervalIndex built
+            = new AnnotationIntervalIndex( jCas, CasUtil.getType( jCas.getCas(), type ) );
+      indices.put( type, built );
+      return built;
+   }
+
+   /**
+    * Discard all indices for the jcas.
+    *
+    * @param jCas ye olde
+    */
+   static public void invalidate( final JCas jCas ) {
+      JCAS_INDICES.remove( jCas );
+   }
+
+   /**
+    * Discard the indices for the jcas that may contain annotations of the given type.
+    *
+    * @param jCas ye olde
+    * @param type annotation class that has been modified
+    */
+   static public void invalidate( final JCas jCas, final Class<? extends Annotation> type ) {
+      final Map<Class<?>, AnnotationIntervalIndex> indices = JCAS_INDICES.get( jCas );
+      if ( indices == null ) {
+         return;
+      }
+      // an index of a supertype also holds annotations of the type
+      indices.keySet().removeIf( c -> c.isAssignableFrom( type ) );
+   }
+
+   /**
+    * Equivalent to uimafit JCasUtil.selectCovered( jCas, type, begin, end )
+    *
+    * @return annotations of the type that begin at or after begin and end at or before end
+    */
+   static public <T extends Annotation> List<T> selectCovered( final JCas jCas, final Class<T> type,
+                                                               final int begin, final int end ) {
+      return getIndex( jCas, type ).getCovered( jCas, begin, end, -1 );
+   }
+
+   /**
+    * Equivalent to uimafit JCasUtil.selectCovered( jCas, type, covering )
+    *
+    * @return annotations of the type within the covering annotation, excluding the covering annotation itself
+    */
+   static public <T extends Annotation> List<T> selectCovered( final JCas jCas, final Class<T> type,
+                                                               final AnnotationFS covering ) {
+      return getIndex( jCas, type ).getCovered( jCas, covering.getBegin(), covering.getEnd(),
+            getAddress( covering ) );
+   }
+
+   /**
+    * Equivalent to uimafit JCasUtil.selectCovered( type, covering ) for an annotation in the jcas
+    *
+    * @return annotations of the type within the covering annotation, excluding the covering annotation itself
+    */
+   static public <T extends Annotation> List<T> selectCovered( final Class<T> type, final Annotation covering ) {
+      try {
+         return selectCovered( covering.getCAS().getJCas(), type, covering );
+      } catch ( CASException casE ) {
+         throw new IllegalArgumentException( casE );
+      }
+   }
+
+   /**
+    * Equivalent to uimafit JCasUtil.selectCovering( jCas, type, begin, end )
+    *
+    * @return annotations of the type that begin at or before begin and end at or after end
+    */
+   static public <T extends Annotation> List<T> selectCovering( final JCas jCas, final Class<T> type,
+                                                                final int begin, final int end ) {
+      return getIndex( jCas, type ).getCovering( jCas, begin, end );
+   }
+
+   /**
+    * Equivalent to uimafit JCasUtil.selectCovering( jCas, type, covered )
+    *
+    * @return annotations of the type that cover the given annotation, including the annotation itself
+    */
+   static public <T extends Annotation> List<T> selectCovering( final JCas jCas, final Class<T> type,
+                                                                final AnnotationFS covered ) {
+      return selectCovering( jCas, type, covered.getBegin(), covered.getEnd() );
+   }
+
+   /**
+    * Equivalent to uimafit JCasUtil.selectBetween( jCas, type, annotation1, annotation2 )
+    *
+    * @return annotations of the type between the two annotations, in either order
+    */
+   static public <T extends Annotation> List<T> selectBetween( final JCas jCas, final Class<T> type,
+                                                               final AnnotationFS annotation1,
+                                                               final AnnotationFS annotation2 ) {
+      final boolean inOrder = annotation1.getEnd() <= annotation2.getBegin();
+      final AnnotationFS left = inOrder ? annotation1 : annotation2;
+      final AnnotationFS right = inOrder ? annotation2 : annotation1;
+      return getIndex( jCas, type ).getCovered( jCas, left.getEnd(), right.getBegin(), -1 );
+   }
+
+   /**
+    * Equivalent to uimafit JCasUtil.selectPreceding( jCas, type, annotation, count )
+    *
+    * @return up to count annotations of the type that end at or before the annotation begins, in index order
+    */
+   static public <T extends Annotation> List<T> selectPreceding( final JCas jCas, final Class<T> type,
+                                                                 final AnnotationFS annotation, final int count ) {
+      return getIndex( jCas, type ).getPreceding( jCas, annotation.getBegin(), count );
+   }
+
+   /**
+    * Equivalent to uimafit JCasUtil.selectFollowing( jCas, type, annotation, count )
+    *
+    * @return up to count annotations of the type that begin at or after the annotation ends, in index order
+    */
+   static public <T extends Annotation> List<T> selectFollowing( final JCas jCas, final Class<T> type,
+                                                                 final AnnotationFS annotation, final int count ) {
+      return getIndex( jCas, type ).getFollowing( jCas, annotation.getEnd(), count );
+   }
+
+   static private int getAddress( final AnnotationFS annotation ) {
+      return annotation instanceof Annotation ? ((Annotation)annotation).getAddress() : -1;
+   }
+
+   /**
+    * @return true if annotations of the type have not been added or removed and the document is the same
+    */
+   private boolean isCurrent( final JCas jCas ) {
+      // Identity, not equality : a reset cas reused for a new document gets a new text object.
+      return jCas.getDocumentText() == _documentText && jCas.getAnnotationIndex( _type ).size() == _size;
+   }
+
+   /**
+    * @return number of annotations in the index
+    */
+   public int size() {
+      return _size;
+   }
+
+   /**
+    * @param exclude cas address of an annotation to exclude, or -1
+    */
+   public <T extends Annotation> List<T> getCovered( final JCas jCas, final int begin, final int end,
+                                                     final int exclude ) {
+      final List<T> covered = new ArrayList<>();
+      for ( int i = lowerBound( begin ); i < _size && _begins[ i ] <= end; i++ ) {
+         if ( _ends[ i ] <= end && _addresses[ i ] != exclude ) {
+            covered.add( getAnnotation( jCas, i ) );
+         }
+      }
+      return covered;
+   }
+
+   public <T extends Annotation> List<T> getCovering( final JCas jCas, final int begin, final int end ) {
+      final List<T> covering = new ArrayList<>();
+      // No annotation longer than the longest one can begin before end - maxLength and still reach end.
+      final int upper = lowerBound( begin + 1 );
+      for ( int i = lowerBound( end - _maxLength ); i < upper; i++ ) {
+         if ( _ends[ i ] >= end ) {
+            covering.add( getAnnotation( jCas, i ) );
+         }
+      }
+      return covering;
+   }
+
+   public <T extends Annotation> List<T> getPreceding( final JCas jCas, final int begin, final int count ) {
+      final LinkedList<T> preceding = new LinkedList<>();
+      for ( int i = lowerBound( begin ) - 1; i >= 0 && preceding.size() < count; i-- ) {
+         if ( _ends[ i ] <= begin ) {
+            preceding.addFirst( getAnnotation( jCas, i ) );
+         }
+      }
+      return new ArrayList<>( preceding );
+   }
+
+   public <T extends Annotation> List<T> getFollowing( final JCas jCas, final int end, final int count ) {
+      final int first = lowerBound( end );
+      final int last = (int)Math.min( _size, (long)first + count );
+      final List<T> following = new ArrayList<>( Math.max( 0, last - first ) );
+      for ( int i = first; i < last; i++ ) {
+         following.add( getAnnotation( jCas, i ) );
+      }
+      return following;
+   }
+
+   /**
+    * @return the first position with a begin at or after the given offset
+    */
+   private int lowerBound( final int offset ) {
+      int low = 0;
+      int high = _size;
+      while ( low < high ) {
+         final int mid = (low + high) >>> 1;
+         if ( _begins[ mid ] < offset ) {
+            low = mid + 1;
+         } else {
+            high = mid;
+         }
+      }
+      return low;
+   }
+
+   private <T extends Annotation> T getAnnotation( final JCas jCas, final int position ) {
+      return jCas.getLowLevelCas().ll_getFSForRef( _addresses[ position ] );
+   }
+
+}
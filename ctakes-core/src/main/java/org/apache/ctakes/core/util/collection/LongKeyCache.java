@@ -0,0 +1,153 @@
+package org.apache.ctakes.core.util.collection;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thread safe, bounded cache keyed by primitive longs, for instance umls cui codes.
+ * <p>
+ * The cache is set-associative: each key hashes to a set of {@value #WAYS} slots held in primitive arrays,
+ * and when a set is full the least recently used slot in that set is replaced.
+ * Sets are guarded by striped locks, so threads rarely contend and keys are never boxed.
+ * </p>
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+final public class LongKeyCache<V> {
+
+   static private final int WAYS = 4;
+   static private final int LOCK_COUNT = 64;
+
+   private final int _setMask;
+   private final long[] _keys;
+   private final Object[] _values;
+   // last access time for each slot.  0 marks an empty slot
+   private final long[] _stamps;
+   private final Object[] _locks;
+   private final AtomicLong _clock = new AtomicLong();
+   private final AtomicLong _hits = new AtomicLong();
+   private final AtomicLong _misses = new AtomicLong();
+
+   /**
+    * @param maxSize approximate maximum number of entries.  Rounded up to a power of two.
+    */
+   public LongKeyCache( final int maxSize ) {
+      int setCount = 1;
+      while ( setCount * WAYS < maxSize ) {
+         setCount <<= 1;
+      }
+      _setMask = setCount - 1;
+      _keys = new long[ setCount * WAYS ];
+      _values = new Object[ setCount * WAYS ];
+      _stamps = new long[ setCount * WAYS ];
+      _locks = new Object[ LOCK_COUNT ];
+      for ( int i = 0; i < LOCK_COUNT; i++ ) {
+         _locks[ i ] = new Object();
+      }
+   }
+
+   /**
+    * @param key -
+    * @return the cached value or null if there is none.  Counted as a hit or a miss.
+    */
+   @SuppressWarnings( "unchecked" )
+   public V get( final long key ) {
+      final int set = getSet( key );
+      final int start = set * WAYS;
+      synchronized ( _locks[ set & (LOCK_COUNT - 1) ] ) {
+         for ( int i = start; i < start + WAYS; i++ ) {
+            if ( _stamps[ i ] != 0 && _keys[ i ] == key ) {
+               _stamps[ i ] = _clock.incrementAndGet();
+               _hits.incrementAndGet();
+               return (V)_values[ i ];
+            }
+         }
+      }
+      _misses.incrementAndGet();
+      return null;
+   }
+
+   /**
+    * @param key   -
+    * @param value not null
+    */
+   public void put( final long key, final V value ) {
+      final int set = getSet( key );
+      final int start = set * WAYS;
+      synchronized ( _locks[ set & (LOCK_COUNT - 1) ] ) {
+         int slot = start;
+         for ( int i = start; i < start + WAYS; i++ ) {
+            if ( _stamps[ i ] != 0 && _keys[ i ] == key ) {
+               slot = i;
+               break;
+            }
+            if ( _stamps[ i ] < _stamps[ slot ] ) {
+               slot = i;
+            }
+         }
+         _keys[ slot ] = key;
+         _values[ slot ] = value;
+         _stamps[ slot ] = _clock.incrementAndGet();
+      }
+   }
+
+   /**
+    * Removes all entries and resets the hit and miss counts.
+    */
+   public void clear() {
+      for ( int set = 0; set <= _setMask; set++ ) {
+         synchronized ( _locks[ set & (LOCK_COUNT - 1) ] ) {
+            for ( int i = set * WAYS; i < set * WAYS + WAYS; i++ ) {
+               _stamps[ i ] = 0;
+               _values[ i ] = null;
+            }
+         }
+      }
+      _hits.set( 0 );
+      _misses.set( 0 );
+   }
+
+   /**
+    * @return maximum number of entries
+    */
+   public int getMaxSize() {
+      return _keys.length;
+   }
+
+   /**
+    * @return number of calls to get that returned a value
+    */
+   public long getHitCount() {
+      return _hits.get();
+   }
+
+   /**
+    * @return number of calls to get that did not return a value
+    */
+   public long getMissCount() {
+      return _misses.get();
+   }
+
+   /**
+    * @return size and hit statistics
+    */
+   @Override
+   public String toString() {
+      final long hits = getHitCount();
+      final long total = hits + getMissCount();
+      return "max size " + getMaxSize() + ", hits " + hits + ", misses " + getMissCount()
+             + String.format( ", hit ratio %.3f", total == 0 ? 0d : (double)hits / total );
+   }
+
+   /**
+    * @param key -
+    * @return index of the set for the key, using a 64 bit mix so that sequential cuis spread evenly
+    */
+   private int getSet( final long key ) {
+      long hash = key * 0x9E3779B97F4A7C15L;
+      hash ^= hash >>> 32;
+      return (int)hash & _setMask;
+   }
+
+}
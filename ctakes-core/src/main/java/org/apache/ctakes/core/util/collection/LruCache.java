@@ -0,0 +1,135 @@
+package org.apache.ctakes.core.util.collection;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thread safe cache that holds at most a fixed number of entries, evicting the least recently used entry when full.
+ * Hits and misses are counted so that the cache can be sized.
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+final public class LruCache<K, V> {
+
+   private final int _maxSize;
+   private final Map<K, V> _map;
+   private final AtomicLong _hits = new AtomicLong();
+   private final AtomicLong _misses = new AtomicLong();
+
+   /**
+    * @param maxSize maximum number of entries.  If zero or less then nothing is cached.
+    */
+   public LruCache( final int maxSize ) {
+      _maxSize = Math.max( 0, maxSize );
+      _map = new LinkedHashMap<K, V>( Math.min( 1024, _maxSize ), 0.75f, true ) {
+         @Override
+         protected boolean removeEldestEntry( final Map.Entry<K, V> eldest ) {
+            return size() > _maxSize;
+         }
+      };
+   }
+
+   /**
+    * @param key -
+    * @return the cached value or null if there is none.  Counted as a hit or a miss.
+    */
+   public V get( final K key ) {
+      final V value;
+      synchronized ( _map ) {
+         value = _map.get( key );
+      }
+      if ( value == null ) {
+         _misses.incrementAndGet();
+      } else {
+         _hits.incrementAndGet();
+      }
+      return value;
+   }
+
+   /**
+    * @param key -
+    * @return true if the key is cached.  Not counted as a hit or a miss and does not change recency.
+    */
+   public boolean containsKey( final K key ) {
+      synchronized ( _map ) {
+         return _map.containsKey( key );
+      }
+   }
+
+   /**
+    * @param key   -
+    * @param value not null
+    */
+   public void put( final K key, final V value ) {
+      if ( _maxSize == 0 ) {
+         return;
+      }
+      synchronized ( _map ) {
+         _map.put( key, value );
+      }
+   }
+
+   /**
+    * Removes all entries and resets the hit and miss counts.
+    */
+   public void clear() {
+      synchronized ( _map ) {
+         _map.clear();
+      }
+      _hits.set( 0 );
+      _misses.set( 0 );
+   }
+
+   /**
+    * @return number of cached entries
+    */
+   public int size() {
+      synchronized ( _map ) {
+         return _map.size();
+      }
+   }
+
+   /**
+    * @return maximum number of cached entries
+    */
+   public int getMaxSize() {
+      return _maxSize;
+   }
+
+   /**
+    * @return number of calls to get that returned a value
+    */
+   public long getHitCount() {
+      return _hits.get();
+   }
+
+   /**
+    * @return number of calls to get that did not return a value
+    */
+   public long getMissCount() {
+      return _misses.get();
+   }
+
+   /**
+    * @return hits / (hits + misses), or 0 if there have been no calls to get
+    */
+   public double getHitRatio() {
+      final long hits = _hits.get();
+      final long total = hits + _misses.get();
+      return total == 0 ? 0 : (double)hits / total;
+   }
+
+   /**
+    * @return size and hit statistics
+    */
+   @Override
+   public String toString() {
+      return "size " + size() + " of " + _maxSize
+             + ", hits " + getHitCount() + ", misses " + getMissCount()
+             + String.format( ", hit ratio %.3f", getHitRatio() );
+   }
+
+}
@@ -0,0 +1,134 @@
+package org.apache.ctakes.core.util.regex;
+
+import org.apache.ctakes.core.util.Pair;
+import org.apache.log4j.Logger;
+
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Finds text spans for a set of regular expressions that are compiled once and shared by all calls and threads.
+ * <p>
+ * Finds are run on the calling thread.  Instead of a watchdog thread per call, every find has a time budget that
+ * is checked as the matcher reads the text, so a poorly-built expression or unexpected text contents abort the
+ * find for that pattern without affecting the other patterns.
+ * The timeout for each pattern can be specified in milliseconds between 100 and 10,000.  The default is 1000.
+ * </p>
+ * Patterns are applied in the order in which they were given, each pattern independently of the others,
+ * so overlapping spans of different patterns are all found.
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+final public class MultiPatternFinder<K> {
+
+   static private final Logger LOGGER = Logger.getLogger( "MultiPatternFinder" );
+
+   static private final int DEFAULT_TIMEOUT_MILLIS = 1000;
+   static private final int MIN_TIMEOUT_MILLIS = 100;
+   static private final int MAX_TIMEOUT_MILLIS = 10000;
+
+   private final List<K> _keys;
+   private final List<Pattern> _patterns;
+   private final int _timeoutMillis;
+
+   /**
+    * Uses the default timeout of 1000 milliseconds
+    *
+    * @param keyPatterns map of some key, such as a section type, to the pattern for that key.  Order is preserved.
+    */
+   public MultiPatternFinder( final Map<K, Pattern> keyPatterns ) {
+      this( keyPatterns, DEFAULT_TIMEOUT_MILLIS );
+   }
+
+   /**
+    * @param keyPatterns   map of some key, such as a section type, to the pattern for that key.  Order is preserved.
+    * @param timeoutMillis milliseconds at which the find for a single pattern should abort, between 100 and 10000
+    * @throws IllegalArgumentException if the timeout is out of bounds
+    */
+   public MultiPatternFinder( final Map<K, Pattern> keyPatterns, final int timeoutMillis )
+         throws IllegalArgumentException {
+      if ( timeoutMillis < MIN_TIMEOUT_MILLIS || timeoutMillis > MAX_TIMEOUT_MILLIS ) {
+         throw new IllegalArgumentException( "Timeout must be between "
+                                             + MIN_TIMEOUT_MILLIS + " and " + MAX_TIMEOUT_MILLIS );
+      }
+      _keys = new ArrayList<>( keyPatterns.size() );
+      _patterns = new ArrayList<>( keyPatterns.size() );
+      for ( Map.Entry<K, Pattern> keyPattern : keyPatterns.entrySet() ) {
+         if ( keyPattern.getValue() != null ) {
+            _keys.add( keyPattern.getKey() );
+            _patterns.add( keyPattern.getValue() );
+         }
+      }
+      _timeoutMillis = timeoutMillis;
+   }
+
+   /**
+    * @return true if there are no patterns
+    */
+   public boolean isEmpty() {
+      return _patterns.isEmpty();
+   }
+
+   /**
+    * @param text          text in which a find should be conducted
+    * @param matchConsumer called with the key and the matcher for each find.
+    *                      The matcher must not be used outside of the consumer.
+    */
+   public void find( final CharSequence text, final BiConsumer<K, Matcher> matchConsumer ) {
+      if ( text == null || text.length() == 0 ) {
+         return;
+      }
+      final TimeoutString timeoutText = new TimeoutString( text );
+      for ( int i = 0; i < _patterns.size(); i++ ) {
+         final Pattern pattern = _patterns.get( i );
+         final K key = _keys.get( i );
+         final Matcher matcher = pattern.matcher( timeoutText );
+         timeoutText.startTimeout( _timeoutMillis );
+         try {
+            while ( matcher.find() ) {
+               matchConsumer.accept( key, matcher );
+            }
+         } catch ( TimeoutString.RegexTimeoutException rtE ) {
+            LOGGER.error( rtE.getMessage() + " while detecting " + pattern );
+         }
+      }
+   }
+
+   /**
+    * @param text text in which a find should be conducted
+    * @return text spans mapped to the key of the pattern that found them.
+    * If more than one pattern finds the same span then the key of the last pattern is used.
+    */
+   public Map<Pair<Integer>, K> findKeyedSpans( final CharSequence text ) {
+      final Map<Pair<Integer>, K> keyedSpans = new HashMap<>();
+      find( text, ( k, m ) -> {
+         if ( isValidSpan( m, text ) ) {
+            keyedSpans.put( new Pair<>( m.start(), m.end() ), k );
+         }
+      } );
+      return keyedSpans;
+   }
+
+   /**
+    * @param text text in which a find should be conducted
+    * @return text spans found by all patterns, in pattern order
+    */
+   public List<Pair<Integer>> findSpans( final CharSequence text ) {
+      final List<Pair<Integer>> spans = new ArrayList<>();
+      find( text, ( k, m ) -> {
+         if ( isValidSpan( m, text ) ) {
+            spans.add( new Pair<>( m.start(), m.end() ) );
+         }
+      } );
+      return spans;
+   }
+
+   static private boolean isValidSpan( final Matcher matcher, final CharSequence text ) {
+      return matcher.start() >= 0 && matcher.end() > matcher.start() && matcher.end() <= text.length();
+   }
+
+}
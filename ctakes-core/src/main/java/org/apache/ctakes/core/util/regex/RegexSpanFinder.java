@@ -8,18 +8,18 @@ import java.io.Closeable;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.*;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 
 /**
  * Class that can / should be used to find text spans using regular expressions.
- * It runs Matcher find {@link Matcher#find()} in a separate thread so that it may be interrupted at a set timeout.
+ * It runs Matcher find {@link Matcher#find()} on text that checks a deadline so that it may be aborted at a set timeout.
  * This prevents infinite loop problems that can be caused by poorly-built expressions or unexpected text contents.
  * The timeout can be specified in milliseconds between 100 and 10,000.  Large timeouts are unadvised.  If a large
  * amount of text needs to be parsed then it is better to split up the text logically and use smaller timeouts.
  * The default timeout is 1000 milliseconds.
+ * To find spans for several patterns, or to find spans in many documents, use a {@link MultiPatternFinder}.
  * <p>
  * Proper usage is:
  * try ( RegexSpanFinder finder = new RegexSpanFinder( "\\s+" ) ) {
@@ -42,7 +42,6 @@ final public class RegexSpanFinder implements Closeable {
    static private final int MIN_TIMEOUT_MILLIS = 100;
    static private final int MAX_TIMEOUT_MILLIS = 10000;
 
-   private final ExecutorService _executor;
    private final Pattern _pattern;
    private final int _timeoutMillis;
 
@@ -104,7 +103,6 @@ final public class RegexSpanFinder implements Closeable {
       }
       _pattern = pattern;
       _timeoutMillis = timeoutMillis;
-      _executor = Executors.newSingleThreadExecutor();
    }
 
 
@@ -116,65 +114,31 @@ final public class RegexSpanFinder implements Closeable {
       if ( text == null || text.isEmpty() ) {
          return Collections.emptyList();
       }
-      final ThreadString threadText = new ThreadString( text );
-      final Callable<List<Pair<Integer>>> callable = new RegexCallable( threadText, _pattern );
-      final Future<List<Pair<Integer>>> future = _executor.submit( callable );
+      final TimeoutString timeoutText = new TimeoutString( text );
+      timeoutText.startTimeout( _timeoutMillis );
+      final List<Pair<Integer>> listBounds = new ArrayList<>();
+      final Matcher matcher = _pattern.matcher( timeoutText );
       try {
-         return future.get( _timeoutMillis, TimeUnit.MILLISECONDS );
-      } catch ( InterruptedException | ExecutionException | TimeoutException multE ) {
-         LOGGER.debug( "Timeout for " + _pattern );
-         if ( !future.cancel( true ) ) {
-            LOGGER.error( "Timed out but could not be cancelled while detecting " + _pattern );
+         while ( matcher.find() ) {
+            final Pair<Integer> bounds = new Pair<>( matcher.start(), matcher.end() );
+            if ( bounds.getValue1() >= 0 && bounds.getValue2() > bounds.getValue1() &&
+                 bounds.getValue2() <= text.length() ) {
+               listBounds.add( bounds );
+            }
          }
+      } catch ( TimeoutString.RegexTimeoutException rtE ) {
+         LOGGER.error( rtE.getMessage() + " while detecting " + _pattern );
+         return Collections.emptyList();
       }
-      if ( future.isCancelled() ) {
-         LOGGER.error( "Cancelled while detecting " + _pattern );
-      } else if ( !future.isDone() ) {
-         LOGGER.error( "Not cancelled but didn't complete while detecting " + _pattern );
-      }
-      return Collections.emptyList();
+      return listBounds;
    }
 
    /**
-    * shut down the executor
+    * Nothing to close, kept for existing try-with-resources usage.
     * {@inheritDoc}
     */
    @Override
    public void close() {
-      _executor.shutdownNow();
-   }
-
-
-   /**
-    * Simple Callable that runs a {@link Matcher} on text to find text span begin and end offsets
-    */
-   static private final class RegexCallable implements Callable<List<Pair<Integer>>> {
-      final private CharSequence __text;
-      final private Pattern __pattern;
-
-      private RegexCallable( final CharSequence text, final Pattern pattern ) {
-         __text = text;
-         __pattern = pattern;
-      }
-
-      /**
-       * {@inheritDoc}
-       *
-       * @return text span begin and end offsets
-       */
-      @Override
-      public List<Pair<Integer>> call() {
-         final List<Pair<Integer>> listBounds = new ArrayList<>();
-         final Matcher matcher = __pattern.matcher( __text );
-         while ( matcher.find() && !Thread.currentThread().isInterrupted() ) {
-            final Pair<Integer> bounds = new Pair<>( matcher.start(), matcher.end() );
-            if ( bounds.getValue1() >= 0 && bounds.getValue2() > bounds.getValue1() &&
-                 bounds.getValue2() <= __text.length() ) {
-               listBounds.add( bounds );
-            }
-         }
-         return listBounds;
-      }
    }
 
 }
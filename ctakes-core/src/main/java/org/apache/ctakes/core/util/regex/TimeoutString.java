@@ -0,0 +1,69 @@
+package org.apache.ctakes.core.util.regex;
+
+/**
+ * A representation of text that checks a deadline and its thread for interruptions within tight charAt(..) loops.
+ * This allows a break within a regex find that could otherwise become infinite in a corrupt find,
+ * without running the find in a separate thread.
+ * The clock is only read every few thousand characters, so the check costs almost nothing.
+ */
+final class TimeoutString implements CharSequence {
+
+   static private final int CHECK_INTERVAL = 4096;
+
+   private final CharSequence _delegate;
+   private long _deadlineNanos = Long.MAX_VALUE;
+   private int _countdown = CHECK_INTERVAL;
+
+   TimeoutString( final CharSequence delegate ) {
+      _delegate = delegate;
+   }
+
+   /**
+    * Start a new timeout.
+    *
+    * @param timeoutMillis milliseconds from now at which any charAt(..) will throw a {@link RegexTimeoutException}
+    */
+   void startTimeout( final int timeoutMillis ) {
+      _deadlineNanos = System.nanoTime() + timeoutMillis * 1000000L;
+      _countdown = CHECK_INTERVAL;
+   }
+
+   @Override
+   public char charAt( final int index ) {
+      if ( --_countdown <= 0 ) {
+         _countdown = CHECK_INTERVAL;
+         if ( System.nanoTime() - _deadlineNanos > 0 ) {
+            throw new RegexTimeoutException( "Timeout" );
+         }
+         if ( Thread.currentThread().isInterrupted() ) {
+            throw new RegexTimeoutException( "Interrupted" );
+         }
+      }
+      return _delegate.charAt( index );
+   }
+
+   @Override
+   public int length() {
+      return _delegate.length();
+   }
+
+   @Override
+   public CharSequence subSequence( final int start, final int end ) {
+      return _delegate.subSequence( start, end );
+   }
+
+   @Override
+   public String toString() {
+      return _delegate.toString();
+   }
+
+   /**
+    * Thrown from within a regex find when the timeout has passed.
+    */
+   static final class RegexTimeoutException extends RuntimeException {
+      private RegexTimeoutException( final String message ) {
+         super( message );
+      }
+   }
+
+}
@@ -0,0 +1,110 @@
+package org.apache.ctakes.core.cc;
+
+import org.apache.ctakes.core.config.ConfigParameterConstants;
+import org.apache.ctakes.core.cr.FileTreeBinaryCasReader;
+import org.apache.ctakes.core.util.DocumentIDAnnotationUtil;
+import org.apache.ctakes.typesystem.type.structured.DocumentID;
+import org.apache.ctakes.typesystem.type.syntax.WordToken;
+import org.apache.ctakes.typesystem.type.textspan.Sentence;
+import org.apache.uima.UIMAException;
+import org.apache.uima.analysis_engine.AnalysisEngine;
+import org.apache.uima.collection.CollectionReader;
+import org.apache.uima.fit.factory.AnalysisEngineFactory;
+import org.apache.uima.fit.factory.CollectionReaderFactory;
+import org.apache.uima.fit.factory.JCasFactory;
+import org.apache.uima.fit.util.JCasUtil;
+import org.apache.uima.jcas.JCas;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+final public class FileTreeBinaryCasWriterTest {
+
+   static private final String TEXT = "Patient has a cough.  No fever.";
+
+   @Rule
+   public TemporaryFolder _folder = new TemporaryFolder();
+
+   @Test
+   public void testRoundTrip() throws IOException, UIMAException {
+      final File outputDir = _folder.newFolder( "full" );
+      writeCas( outputDir );
+      assertTrue( new File( outputDir, FileTreeBinaryCasWriter.TYPE_SYSTEM_FILE ).isFile() );
+      assertTrue( new File( outputDir, "note1.txt.bcas" ).isFile() );
+      final JCas jcas = readCas( outputDir );
+      assertEquals( TEXT, jcas.getDocumentText() );
+      assertEquals( "note1.txt", DocumentIDAnnotationUtil.getDocumentID( jcas ) );
+      assertEquals( 2, JCasUtil.select( jcas, Sentence.class ).size() );
+      assertEquals( 1, JCasUtil.select( jcas, WordToken.class ).size() );
+      assertEquals( "cough", JCasUtil.selectSingle( jcas, WordToken.class ).getCanonicalForm() );
+   }
+
+   @Test
+   public void testFilteredGzip() throws IOException, UIMAException {
+      final File outputDir = _folder.newFolder( "filtered" );
+      writeCas( outputDir,
+            FileTreeBinaryCasWriter.PARAM_KEEP_TYPES, new String[]{ "Sentence" },
+            FileTreeBinaryCasWriter.PARAM_GZIP, true );
+      assertTrue( new File( outputDir, "note1.txt.bcas.gz" ).isFile() );
+      final JCas jcas = readCas( outputDir );
+      assertEquals( TEXT, jcas.getDocumentText() );
+      assertEquals( "note1.txt", DocumentIDAnnotationUtil.getDocumentID( jcas ) );
+      assertEquals( 2, JCasUtil.select( jcas, Sentence.class ).size() );
+      assertEquals( 0, JCasUtil.select( jcas, WordToken.class ).size() );
+   }
+
+   @Test
+   public void testSubDirectory() throws IOException, UIMAException {
+      final File outputDir = _folder.newFolder( "sub" );
+      writeCas( outputDir, ConfigParameterConstants.PARAM_SUBDIR, "bcas" );
+      assertTrue( new File( outputDir, FileTreeBinaryCasWriter.TYPE_SYSTEM_FILE ).isFile() );
+      assertTrue( new File( outputDir, "bcas/note1.txt.bcas" ).isFile() );
+      final JCas jcas = readCas( outputDir );
+      assertEquals( TEXT, jcas.getDocumentText() );
+      assertEquals( 2, JCasUtil.select( jcas, Sentence.class ).size() );
+   }
+
+   static private void writeCas( final File outputDir, final Object... parameters ) throws UIMAException {
+      final JCas jcas = JCasFactory.createJCas();
+      jcas.setDocumentText( TEXT );
+      final DocumentID documentId = new DocumentID( jcas );
+      documentId.setDocumentID( "note1.txt" );
+      documentId.addToIndexes();
+      new Sentence( jcas, 0, 20 ).addToIndexes();
+      new Sentence( jcas, 22, 31 ).addToIndexes();
+      final WordToken token = new WordToken( jcas, 14, 19 );
+      token.setCanonicalForm( "cough" );
+      token.addToIndexes();
+      final Object[] allParameters = new Object[ parameters.length + 2 ];
+      allParameters[ 0 ] = ConfigParameterConstants.PARAM_OUTPUTDIR;
+      allParameters[ 1 ] = outputDir.getPath();
+      System.arraycopy( parameters, 0, allParameters, 2, parameters.length );
+      final AnalysisEngine writer = AnalysisEngineFactory.createEngine( FileTreeBinaryCasWriter.class,
+            allParameters );
+      writer.process( jcas );
+      writer.collectionProcessComplete();
+   }
+
+   static private JCas readCas( final File inputDir ) throws UIMAException, IOException {
+      final CollectionReader reader = CollectionReaderFactory.createReader( FileTreeBinaryCasReader.class,
+            ConfigParameterConstants.PARAM_INPUTDIR, inputDir.getPath() );
+      final JCas jcas = JCasFactory.createJCas();
+      assertTrue( reader.hasNext() );
+      reader.getNext( jcas.getCas() );
+      assertTrue( !reader.hasNext() );
+      reader.close();
+      return jcas;
+   }
+
+}
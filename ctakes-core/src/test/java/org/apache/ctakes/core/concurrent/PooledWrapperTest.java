@@ -0,0 +1,141 @@
+package org.apache.ctakes.core.concurrent;
+
+import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
+import org.apache.uima.fit.component.JCasAnnotator_ImplBase;
+import org.apache.uima.jcas.JCas;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+final public class PooledWrapperTest {
+
+   @Test( timeout = 10000 )
+   public void testDestroyDoesNotWaitForBusyDelegate() throws Exception {
+      final TestPool wrapper = new TestPool();
+      final CountingAnnotator first = new CountingAnnotator();
+      final CountingAnnotator second = new CountingAnnotator();
+      wrapper.getPool().add( first );
+      wrapper.getPool().add( second );
+      final CountingAnnotator busy1 = wrapper.borrowDelegate();
+      final CountingAnnotator busy2 = wrapper.borrowDelegate();
+      // every delegate is in use, destroy must return immediately
+      wrapper.destroy();
+      assertEquals( 0, first.destroyCount.get() + second.destroyCount.get() );
+      // the next released delegate is destroyed instead of being returned to the pool
+      wrapper.releaseDelegate( busy1 );
+      assertEquals( 1, busy1.destroyCount.get() );
+      assertEquals( 1, wrapper.getPool().size() );
+      wrapper.releaseDelegate( busy2 );
+      assertEquals( 0, busy2.destroyCount.get() );
+      assertEquals( 1, wrapper.getPool().getIdleCount() );
+      wrapper.destroy();
+      assertEquals( 1, busy2.destroyCount.get() );
+      assertEquals( 0, wrapper.getPool().size() );
+      // destroying an empty pool is a no-op
+      wrapper.destroy();
+      assertEquals( 0, wrapper.getPool().size() );
+   }
+
+   @Test
+   public void testEmptyPoolQueries() throws Exception {
+      final TestPool wrapper = new TestPool();
+      assertFalse( wrapper.hasNext() );
+      assertEquals( JCas.class, wrapper.getRequiredCasInterface() );
+      assertEquals( 0, wrapper.getCasInstancesRequired() );
+      try {
+         wrapper.getLogger();
+         fail( "Expected an IllegalStateException for an empty pool" );
+      } catch ( IllegalStateException isE ) {
+         // expected
+      }
+      try {
+         wrapper.next();
+         fail( "Expected an AnalysisEngineProcessException for an empty pool" );
+      } catch ( AnalysisEngineProcessException aeE ) {
+         // expected
+      }
+   }
+
+   @Test( timeout = 10000 )
+   public void testCollectionProcessCompleteReachesEveryDelegateOnce() throws Exception {
+      final TestPool wrapper = new TestPool();
+      final CountingAnnotator[] delegates = new CountingAnnotator[ 4 ];
+      for ( int i = 0; i < delegates.length; i++ ) {
+         delegates[ i ] = new CountingAnnotator();
+         wrapper.getPool().add( delegates[ i ] );
+      }
+      // a delegate that is still in use is completed after it has been released
+      final CountingAnnotator busy = wrapper.borrowDelegate();
+      final CountDownLatch started = new CountDownLatch( 1 );
+      final Thread completer = new Thread( () -> {
+         started.countDown();
+         try {
+            wrapper.collectionProcessComplete();
+         } catch ( AnalysisEngineProcessException aeE ) {
+            throw new RuntimeException( aeE );
+         }
+      } );
+      completer.start();
+      started.await();
+      Thread.sleep( 200 );
+      assertEquals( 0, busy.completeCount.get() );
+      wrapper.releaseDelegate( busy );
+      completer.join( TimeUnit.SECONDS.toMillis( 5 ) );
+      assertFalse( completer.isAlive() );
+      // one wrapper instance per pipeline thread also calls collectionProcessComplete
+      wrapper.collectionProcessComplete();
+      wrapper.collectionProcessComplete();
+      for ( CountingAnnotator delegate : delegates ) {
+         assertEquals( 1, delegate.completeCount.get() );
+      }
+      assertEquals( delegates.length, wrapper.getPool().getIdleCount() );
+      // a delegate that processed another document completes again
+      final CountingAnnotator reused = wrapper.borrowDelegate();
+      wrapper.releaseDelegate( reused );
+      wrapper.collectionProcessComplete();
+      assertEquals( 2, reused.completeCount.get() );
+   }
+
+   static private final class TestPool implements PooledWrapper<CountingAnnotator> {
+      private final DelegatePool<CountingAnnotator> _pool = new DelegatePool<>();
+
+      @Override
+      public CountingAnnotator createDelegate() {
+         return new CountingAnnotator();
+      }
+
+      @Override
+      public DelegatePool<CountingAnnotator> getPool() {
+         return _pool;
+      }
+   }
+
+   static private final class CountingAnnotator extends JCasAnnotator_ImplBase {
+      private final AtomicInteger completeCount = new AtomicInteger();
+      private final AtomicInteger destroyCount = new AtomicInteger();
+
+      @Override
+      public void process( final JCas jCas ) {
+      }
+
+      @Override
+      public void collectionProcessComplete() {
+         completeCount.incrementAndGet();
+      }
+
+      @Override
+      public void destroy() {
+         destroyCount.incrementAndGet();
+      }
+   }
+
+}
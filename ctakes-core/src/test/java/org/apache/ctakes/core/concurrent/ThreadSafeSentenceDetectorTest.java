@@ -0,0 +1,47 @@
+package org.apache.ctakes.core.concurrent;
+
+import org.apache.ctakes.typesystem.type.textspan.Segment;
+import org.apache.ctakes.typesystem.type.textspan.Sentence;
+import org.apache.uima.analysis_engine.AnalysisEngine;
+import org.apache.uima.fit.factory.AnalysisEngineFactory;
+import org.apache.uima.fit.factory.JCasFactory;
+import org.apache.uima.fit.util.JCasUtil;
+import org.apache.uima.jcas.JCas;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+final public class ThreadSafeSentenceDetectorTest {
+
+   @Test
+   public void testDestroyReleasesDelegates() throws Exception {
+      final int initialSize = ThreadSafeSentenceDetector.getPoolSize();
+      // one engine per pipeline thread, each adds a delegate to the shared pool
+      final AnalysisEngine first
+            = AnalysisEngineFactory.createEngine( ThreadSafeSentenceDetector.createAnnotatorDescription() );
+      final AnalysisEngine second
+            = AnalysisEngineFactory.createEngine( ThreadSafeSentenceDetector.createAnnotatorDescription() );
+      assertEquals( initialSize + 2, ThreadSafeSentenceDetector.getPoolSize() );
+
+      final JCas jCas = JCasFactory.createJCas();
+      jCas.setDocumentText( "The patient is well. She was discharged home." );
+      final Segment segment = new Segment( jCas, 0, jCas.getDocumentText().length() );
+      segment.setId( "SIMPLE_SEGMENT" );
+      segment.addToIndexes();
+      first.process( jCas );
+      assertEquals( 2, JCasUtil.select( jCas, Sentence.class ).size() );
+      first.collectionProcessComplete();
+      second.collectionProcessComplete();
+
+      first.destroy();
+      assertEquals( initialSize + 1, ThreadSafeSentenceDetector.getPoolSize() );
+      second.destroy();
+      assertEquals( initialSize, ThreadSafeSentenceDetector.getPoolSize() );
+   }
+
+}
@@ -0,0 +1,245 @@
+package org.apache.ctakes.core.cr;
+
+import org.apache.ctakes.core.config.ConfigParameterConstants;
+import org.apache.ctakes.core.util.DocumentIDAnnotationUtil;
+import org.apache.ctakes.core.util.SourceMetadataUtil;
+import org.apache.uima.UIMAException;
+import org.apache.uima.collection.CollectionException;
+import org.apache.uima.collection.CollectionReader;
+import org.apache.uima.fit.factory.CollectionReaderFactory;
+import org.apache.uima.fit.factory.JCasFactory;
+import org.apache.uima.jcas.JCas;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+final public class ArchiveReaderTest {
+
+   @Rule
+   public TemporaryFolder _folder = new TemporaryFolder();
+
+   @Test
+   public void testReadDirectory() throws IOException, UIMAException {
+      final File dir = _folder.newFolder( "archives" );
+      try ( ZipOutputStream zip = new ZipOutputStream( new FileOutputStream( new File( dir, "a_notes.zip" ) ) ) ) {
+         zip.putNextEntry( new ZipEntry( "notes/" ) );
+         zip.closeEntry();
+         zip.putNextEntry( new ZipEntry( "notes/zip1.txt" ) );
+         zip.write( "Zip note one.".getBytes( StandardCharsets.UTF_8 ) );
+         zip.closeEntry();
+         zip.putNextEntry( new ZipEntry( "zip2.txt" ) );
+         zip.write( "Zip note two.".getBytes( StandardCharsets.UTF_8 ) );
+         zip.closeEntry();
+      }
+      try ( OutputStream tar = new GZIPOutputStream(
+            new FileOutputStream( new File( dir, "b_notes.tar.gz" ) ) ) ) {
+         writeTarEntry( tar, "tar1.txt", "Tar note one." );
+         writeTarEntry( tar, "sub/tar2.txt", "Tar note two, which is longer than nothing." );
+         tar.write( new byte[ 1024 ] );
+      }
+      try ( Writer jsonl = new OutputStreamWriter(
+            new FileOutputStream( new File( dir, "c_notes.jsonl" ) ), StandardCharsets.UTF_8 ) ) {
+         jsonl.write( "{\"id\":\"json1\",\"patient_id\":\"P1\",\"text\":\"Json \\\"note\\\" one.\"}\n" );
+         jsonl.write( "\n" );
+         jsonl.write( "{\"meta\":{\"x\":[1,2]},\"text\":\"Json note two.\"}\n" );
+      }
+      final List<String[]> notes = readAll( dir );
+      assertEquals( 6, notes.size() );
+      assertNote( notes.get( 0 ), "zip1", "a_notes/notes", "Zip note one.", "a_notes/notes" );
+      assertNote( notes.get( 1 ), "zip2", "a_notes", "Zip note two.", "a_notes" );
+      assertNote( notes.get( 2 ), "tar1", "b_notes", "Tar note one.", "b_notes" );
+      assertNote( notes.get( 3 ), "tar2", "b_notes/sub", "Tar note two, which is longer than nothing.", "b_notes/sub" );
+      assertNote( notes.get( 4 ), "json1", "c_notes", "Json \"note\" one.", "P1" );
+      assertNote( notes.get( 5 ), "c_notes_3", "c_notes", "Json note two.", "c_notes" );
+   }
+
+   @Test
+   public void testReadDirectoryTree() throws IOException, UIMAException {
+      final File dir = _folder.newFolder( "tree" );
+      final File subDir = new File( dir, "b_sub" );
+      final File subSubDir = new File( subDir, "a_deeper" );
+      if ( !subSubDir.mkdirs() ) {
+         fail( "Could not create " + subSubDir.getPath() );
+      }
+      writeJsonLines( new File( dir, "a.jsonl" ), "a1" );
+      writeJsonLines( new File( subSubDir, "b.jsonl" ), "b1" );
+      writeJsonLines( new File( subDir, "c.jsonl" ), "c1" );
+      writeJsonLines( new File( dir, "d.jsonl" ), "d1" );
+      final List<String[]> notes = readAll( dir );
+      assertEquals( 4, notes.size() );
+      assertEquals( "a1", notes.get( 0 )[ 0 ] );
+      assertEquals( "b1", notes.get( 1 )[ 0 ] );
+      assertEquals( "c1", notes.get( 2 )[ 0 ] );
+      assertEquals( "d1", notes.get( 3 )[ 0 ] );
+   }
+
+   @Test( timeout = 10000 )
+   public void testRuntimeFailureEndsCollection() throws IOException, UIMAException {
+      final File dir = _folder.newFolder( "bad_zip" );
+      writeJsonLines( new File( dir, "a.jsonl" ), "a1" );
+      // an entry name that is not valid utf-8 makes the zip stream throw an IllegalArgumentException
+      try ( ZipOutputStream zip = new ZipOutputStream( new FileOutputStream( new File( dir, "b.zip" ) ),
+            StandardCharsets.ISO_8859_1 ) ) {
+         zip.putNextEntry( new ZipEntry( "caf\u00e9.txt" ) );
+         zip.write( "Unreadable name.".getBytes( StandardCharsets.UTF_8 ) );
+         zip.closeEntry();
+      }
+      final List<String[]> notes = new ArrayList<>();
+      try {
+         readAll( dir, notes );
+         fail( "Expected the prefetch failure to be thrown" );
+      } catch ( CollectionException cE ) {
+         assertEquals( IllegalArgumentException.class, cE.getCause().getClass() );
+      }
+      assertEquals( 1, notes.size() );
+   }
+
+   @Test
+   public void testBadJsonLineIsSkipped() throws IOException, UIMAException {
+      final File dir = _folder.newFolder( "bad_json" );
+      try ( Writer jsonl = new OutputStreamWriter(
+            new FileOutputStream( new File( dir, "a.jsonl" ) ), StandardCharsets.UTF_8 ) ) {
+         jsonl.write( "{\"id\":\"ok1\",\"text\":\"Fine.\"}\n" );
+         jsonl.write( "[\"not an object\"]\n" );
+         jsonl.write( "{\"id\":\"broken\",\"text\":\n" );
+         jsonl.write( "{\"id\":\"ok2\",\"text\":\"Also fine.\"}\n" );
+      }
+      final List<String[]> notes = readAll( dir );
+      assertEquals( 2, notes.size() );
+      assertEquals( "ok1", notes.get( 0 )[ 0 ] );
+      assertEquals( "ok2", notes.get( 1 )[ 0 ] );
+   }
+
+   @Test
+   public void testPaxPath() throws IOException, UIMAException {
+      final File dir = _folder.newFolder( "pax" );
+      final String path = "a_very_long_directory_name_that_does_not_fit_in_the_ustar_name_field_of_one_hundred_bytes"
+                          + "/pax_note.txt";
+      final String record = " path=" + path + "\n";
+      // the record length counts its own digits
+      final int length = record.length() + 3;
+      try ( OutputStream tar = new FileOutputStream( new File( dir, "notes.tar" ) ) ) {
+         writeTarEntry( tar, "PaxHeaders/pax_note.txt", 'x', length + record );
+         writeTarEntry( tar, "pax_note.txt", "Pax note." );
+         writeTarEntry( tar, "plain.txt", "Plain note." );
+         tar.write( new byte[ 1024 ] );
+      }
+      final List<String[]> notes = readAll( dir );
+      assertEquals( 2, notes.size() );
+      assertNote( notes.get( 0 ), "pax_note", "notes/" + path.substring( 0, path.lastIndexOf( '/' ) ),
+            "Pax note.", "notes/" + path.substring( 0, path.lastIndexOf( '/' ) ) );
+      assertNote( notes.get( 1 ), "plain", "notes", "Plain note.", "notes" );
+   }
+
+   @Test( timeout = 10000 )
+   public void testIoFailureEndsCollection() throws IOException, UIMAException {
+      final File dir = _folder.newFolder( "truncated_tar" );
+      writeJsonLines( new File( dir, "a.jsonl" ), "a1" );
+      try ( OutputStream tar = new FileOutputStream( new File( dir, "b.tar" ) ) ) {
+         writeTarEntry( tar, "whole.txt", "Whole note." );
+         final ByteArrayOutputStream entry = new ByteArrayOutputStream();
+         writeTarEntry( entry, "truncated.txt", "Truncated note, which is cut off." );
+         tar.write( entry.toByteArray(), 0, 520 );
+      }
+      final List<String[]> notes = new ArrayList<>();
+      try {
+         readAll( dir, notes );
+         fail( "Expected the prefetch failure to be thrown" );
+      } catch ( IOException ioE ) {
+         // expected
+      }
+      assertEquals( 2, notes.size() );
+   }
+
+   static private void writeJsonLines( final File file, final String id ) throws IOException {
+      try ( Writer jsonl = new OutputStreamWriter( new FileOutputStream( file ), StandardCharsets.UTF_8 ) ) {
+         jsonl.write( "{\"id\":\"" + id + "\",\"text\":\"Note " + id + ".\"}\n" );
+      }
+   }
+
+   static private List<String[]> readAll( final File input ) throws UIMAException, IOException {
+      final List<String[]> notes = new ArrayList<>();
+      readAll( input, notes );
+      return notes;
+   }
+
+   static private void readAll( final File input, final List<String[]> notes ) throws UIMAException, IOException {
+      final CollectionReader reader = CollectionReaderFactory.createReader( ArchiveReader.class,
+            ConfigParameterConstants.PARAM_INPUTDIR, input.getPath(),
+            ArchiveReader.PARAM_PREFETCH, 2 );
+      final JCas jcas = JCasFactory.createJCas();
+      try {
+         while ( reader.hasNext() ) {
+            jcas.reset();
+            reader.getNext( jcas.getCas() );
+            notes.add( new String[]{ DocumentIDAnnotationUtil.getDocumentID( jcas ),
+                                     DocumentIDAnnotationUtil.getDocumentIdPrefix( jcas ),
+                                     jcas.getDocumentText(),
+                                     SourceMetadataUtil.getPatientIdentifier( jcas ) } );
+         }
+      } finally {
+         reader.close();
+      }
+   }
+
+   static private void assertNote( final String[] note, final String id, final String prefix, final String text,
+                                   final String patientId ) {
+      assertEquals( id, note[ 0 ] );
+      assertEquals( prefix, note[ 1 ] );
+      assertEquals( text, note[ 2 ] );
+      assertEquals( patientId, note[ 3 ] );
+   }
+
+   static private void writeTarEntry( final OutputStream tar, final String name, final String text )
+         throws IOException {
+      writeTarEntry( tar, name, '0', text );
+   }
+
+   static private void writeTarEntry( final OutputStream tar, final String name, final char type, final String text )
+         throws IOException {
+      final byte[] content = text.getBytes( StandardCharsets.UTF_8 );
+      final byte[] header = new byte[ 512 ];
+      putString( header, 0, name );
+      putString( header, 100, "0000644" );
+      putString( header, 108, "0000000" );
+      putString( header, 116, "0000000" );
+      putString( header, 124, String.format( "%011o", content.length ) );
+      putString( header, 136, "00000000000" );
+      header[ 156 ] = (byte)type;
+      putString( header, 257, "ustar" );
+      putString( header, 263, "00" );
+      for ( int i = 148; i < 156; i++ ) {
+         header[ i ] = ' ';
+      }
+      int checksum = 0;
+      for ( byte b : header ) {
+         checksum += b & 0xff;
+      }
+      putString( header, 148, String.format( "%06o", checksum ) );
+      tar.write( header );
+      tar.write( content );
+      tar.write( new byte[ (512 - content.length % 512) % 512 ] );
+   }
+
+   static private void putString( final byte[] header, final int offset, final String value ) {
+      final byte[] bytes = value.getBytes( StandardCharsets.US_ASCII );
+      System.arraycopy( bytes, 0, header, offset, bytes.length );
+   }
+
+}
@@ -0,0 +1,144 @@
+package org.apache.ctakes.core.fsm.machine;
+
+import org.apache.ctakes.core.fsm.state.NamedState;
+import net.openai.util.fsm.AnyCondition;
+import net.openai.util.fsm.Condition;
+import net.openai.util.fsm.Machine;
+import net.openai.util.fsm.State;
+import net.openai.util.fsm.UnhandledConditionException;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+final public class CompiledMachineSetTest {
+
+   static private final class CountingCondition extends Condition {
+      private final String _text;
+      private int _count;
+
+      private CountingCondition( final String text ) {
+         _text = text;
+      }
+
+      @Override
+      public boolean satisfiedBy( final Object token ) {
+         _count++;
+         return _text.equals( token );
+      }
+   }
+
+   /**
+    * @return a machine that ends on "a b" or "a c"
+    */
+   static private Machine createMachine( final Condition a, final Condition b, final Condition c ) {
+      final State start = new NamedState( "START" );
+      final State afterA = new NamedState( "A" );
+      final State end = new NamedState( "END" );
+      end.setEndStateFlag( true );
+      start.addTransition( a, afterA );
+      start.addTransition( new AnyCondition(), start );
+      afterA.addTransition( b, end );
+      afterA.addTransition( c, end );
+      afterA.addTransition( a, afterA );
+      afterA.addTransition( new AnyCondition(), start );
+      end.addTransition( new AnyCondition(), start );
+      return new Machine( start );
+   }
+
+   @Test
+   public void testMatchesMachine() throws UnhandledConditionException {
+      final Machine abMachine = createMachine( new CountingCondition( "a" ), new CountingCondition( "b" ),
+            new CountingCondition( "c" ) );
+      final Machine caMachine = createMachine( new CountingCondition( "c" ), new CountingCondition( "a" ),
+            new CountingCondition( "x" ) );
+      final CompiledMachineSet compiled = new CompiledMachineSet( abMachine, caMachine );
+      assertEquals( 2, compiled.getMachineCount() );
+      assertSame( caMachine, compiled.getMachine( 1 ) );
+      assertEquals( 6, compiled.getStateCount() );
+      final CompiledMachineSet.Run run = compiled.createRun();
+      final String[] vocabulary = { "a", "b", "c", "x", "y" };
+      final Random random = new Random( 7 );
+      for ( int i = 0; i < 1000; i++ ) {
+         final String token = vocabulary[ random.nextInt( vocabulary.length ) ];
+         abMachine.input( token );
+         caMachine.input( token );
+         run.input( token );
+         assertSame( abMachine.getCurrentState(), run.getCurrentState( 0 ) );
+         assertSame( caMachine.getCurrentState(), run.getCurrentState( 1 ) );
+         assertEquals( abMachine.getCurrentState().getEndStateFlag(), run.isEndState( 0 ) );
+         assertEquals( abMachine.getCurrentState().getStartStateFlag(), run.isStartState( 0 ) );
+         if ( run.isEndState( 1 ) ) {
+            caMachine.reset();
+            run.reset( 1 );
+         }
+      }
+      run.resetAll();
+      assertSame( abMachine.getStartState(), run.getCurrentState( 0 ) );
+   }
+
+   @Test
+   public void testSharedStatesEvaluatedOnce() throws UnhandledConditionException {
+      final CountingCondition a = new CountingCondition( "a" );
+      final CountingCondition b = new CountingCondition( "b" );
+      final CountingCondition c = new CountingCondition( "c" );
+      final Machine machine = createMachine( a, b, c );
+      final CompiledMachineSet compiled = new CompiledMachineSet( machine, new Machine( machine.getStartState() ) );
+      assertEquals( 3, compiled.getStateCount() );
+      assertEquals( 3, compiled.getConditionCount() );
+      final CompiledMachineSet.Run run = compiled.createRun();
+      run.input( "a" );
+      assertEquals( 1, a._count );
+      run.input( "c" );
+      assertEquals( 1, b._count );
+      assertEquals( 1, c._count );
+      assertTrue( run.isEndState( 0 ) );
+      assertTrue( run.isEndState( 1 ) );
+      run.reset( 0 );
+      assertFalse( run.isEndState( 0 ) );
+      assertTrue( run.isEndState( 1 ) );
+   }
+
+   @Test( expected = UnhandledConditionException.class )
+   public void testUnhandled() throws UnhandledConditionException {
+      final State start = new NamedState( "START" );
+      start.addTransition( new CountingCondition( "a" ), start );
+      final CompiledMachineSet.Run run = new CompiledMachineSet( new Machine( start ) ).createRun();
+      run.input( "a" );
+      run.input( "b" );
+   }
+
+   @Test
+   public void testTransitionWithoutTarget() throws UnhandledConditionException {
+      // as with Machine, a satisfied transition without a target is unhandled, even if a later transition is satisfied
+      final State start = new NamedState( "START" );
+      start.addTransition( new CountingCondition( "a" ), start );
+      start.addTransition( new CountingCondition( "b" ), null );
+      start.addTransition( new AnyCondition(), start );
+      final Machine machine = new Machine( start );
+      final CompiledMachineSet.Run run = new CompiledMachineSet( machine ).createRun();
+      run.input( "a" );
+      machine.input( "a" );
+      run.input( "c" );
+      machine.input( "c" );
+      try {
+         machine.input( "b" );
+         fail( "Expected the machine to throw an UnhandledConditionException" );
+      } catch ( UnhandledConditionException ucE ) {
+         // expected
+      }
+      try {
+         run.input( "b" );
+         fail( "Expected the run to throw an UnhandledConditionException" );
+      } catch ( UnhandledConditionException ucE ) {
+         // expected
+      }
+   }
+
+}
@@ -0,0 +1,256 @@
+package org.apache.ctakes.core.fsm.machine;
+
+import org.apache.ctakes.core.fsm.output.NegationIndicator;
+import org.apache.ctakes.core.fsm.token.BaseToken;
+import org.apache.ctakes.core.fsm.token.TextToken;
+import org.junit.Test;
+
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+final public class NegexTriggerTrieTest {
+
+   static private final List<String> LINES = Arrays.asList(
+         "no\t\t[PREN]",
+         "not\t\t[PREN]",
+         "denies\t\t[PREN]",
+         "without\t\t[PREN]",
+         "no evidence of\t\t[PREN]",
+         "no increase\t\t[PSEU]",
+         "not certain if\t\t[PSEU]",
+         "r/o\t\t[PREP]",
+         "r/o\t\t[PREP]",
+         "rule out\t\t[PREP]",
+         "possible\t\t[PREP]",
+         "but\t\t[CONJ]",
+         "is ruled out\t\t[POST]",
+         "free\t\t[POST]",
+         "unlikely\t\t[POSP]",
+         "bad line" );
+
+   static private final String[] WORDS = { "no", "No", "NO", "not", "denies", "without", "evidence", "of", "increase",
+         "certain", "if", "r", "o", "rule", "out", "possible", "but", "is", "ruled", "free", "unlikely", "pain",
+         "fever", "chest", "x", "nonot", "r/o", "R/O" };
+
+   static private final String[] SEPARATORS = { " ", " ", " ", "  ", "\t", "\n", ", ", ".", "/", "-", "[", "]", "_",
+         ": ", "", "\u00a0" };
+
+   /**
+    * The NegexAnnotator regular expressions, scope of one term
+    */
+   static private final class RegexNegex {
+      private final List<Pattern> _patterns = new ArrayList<>();
+      private final List<String> _tags = new ArrayList<>();
+
+      private RegexNegex( final NegexTriggerTrie trie ) {
+         for ( int t = 0; t < trie.getTriggerCount(); t++ ) {
+            final String rule = String.join( "\\s+", trie.getTrigger( t ).split( " " ) );
+            _patterns.add( Pattern.compile( "(?m)(?i)[[\\p{Punct}&&[^\\]\\[]]|\\s+](" + rule
+                                            + ")[[\\p{Punct}&&[^_]]|\\s+]" ) );
+            _tags.add( trie.getTag( t ) );
+         }
+      }
+
+      /**
+       * @return { start, end, trigger index } of each character of the padded sentence
+       */
+      private int[][] getTokens( final String text, final int begin, final int end ) {
+         final String sentence = "." + text + ".";
+         final int[][] tokens = new int[ sentence.length() ][];
+         final CharBuffer buf = CharBuffer.wrap( sentence.toCharArray() );
+         for ( int i = begin + 1; i < end + 1; i++ ) {
+            buf.put( i, '_' );
+         }
+         for ( int t = 0; t < _patterns.size(); t++ ) {
+            final Matcher m = _patterns.get( t ).matcher( buf );
+            while ( m.find() ) {
+               boolean unoccupied = true;
+               for ( int i = m.start(); i < m.end() && unoccupied; i++ ) {
+                  unoccupied = tokens[ i ] == null;
+               }
+               if ( unoccupied ) {
+                  final int[] token = { m.start(), m.end(), t };
+                  for ( int i = m.start(); i < m.end(); i++ ) {
+                     buf.put( i, '_' );
+                     tokens[ i ] = token;
+                  }
+               }
+            }
+         }
+         return tokens;
+      }
+
+      private int[] find( final int[][] tokens, final String tag, final boolean before, final int begin,
+                          final int end ) {
+         final List<String> stops = new ArrayList<>( Arrays.asList( "[CONJ]", "[PSEU]", "[PREN]", "[POST]",
+               "[PREP]", "[POSP]" ) );
+         stops.remove( tag );
+         if ( before ) {
+            for ( int i = begin; i > 0; i-- ) {
+               if ( tokens[ i ] != null ) {
+                  if ( _tags.get( tokens[ i ][ 2 ] ).equals( tag ) ) {
+                     return tokens[ i ];
+                  } else if ( stops.contains( _tags.get( tokens[ i ][ 2 ] ) ) ) {
+                     break;
+                  }
+               }
+            }
+         } else {
+            for ( int i = end + 1; i < tokens.length; i++ ) {
+               if ( tokens[ i ] != null ) {
+                  if ( _tags.get( tokens[ i ][ 2 ] ).equals( tag ) ) {
+                     return tokens[ i ];
+                  } else if ( stops.contains( _tags.get( tokens[ i ][ 2 ] ) ) ) {
+                     break;
+                  }
+               }
+            }
+         }
+         return null;
+      }
+
+      private int[] getScope( final String text, final int begin, final int end ) {
+         final int[][] tokens = getTokens( text, begin, end );
+         int[] token = find( tokens, "[PREN]", true, begin, end );
+         if ( token == null ) {
+            token = find( tokens, "[POST]", false, begin, end );
+         }
+         if ( token == null ) {
+            token = find( tokens, "[PREP]", true, begin, end );
+         }
+         if ( token == null ) {
+            token = find( tokens, "[POSP]", false, begin, end );
+         }
+         return token;
+      }
+   }
+
+   @Test
+   public void testFromLines() {
+      final NegexTriggerTrie trie = NegexTriggerTrie.fromLines( LINES );
+      assertEquals( LINES.size() - 1, trie.getTriggerCount() );
+      assertEquals( "no evidence of", trie.getTrigger( 0 ) );
+      assertEquals( "[PREN]", trie.getTag( 0 ) );
+   }
+
+   @Test
+   public void testScope() {
+      final NegexTriggerTrie trie = NegexTriggerTrie.fromLines( LINES );
+      final String text = "Patient denies chest pain but has fever.";
+      final NegexTriggerTrie.Sentence sentence = trie.match( text );
+      final NegexTriggerTrie.Trigger trigger = sentence.getScopeTrigger( 21, 25, true );
+      assertNotNull( trigger );
+      assertEquals( NegexTriggerTrie.PRE_NEGATION, trigger.getTag() );
+      assertEquals( "denies", text.substring( trigger.getBegin(), trigger.getEnd() ) );
+      // the conjunction ends the scope
+      assertNull( sentence.getScopeTrigger( 34, 39, true ) );
+      // pseudo triggers are longer than the negation trigger inside them
+      assertNull( trie.match( "no increase in pain" ).getScopeTrigger( 15, 19, true ) );
+      assertEquals( NegexTriggerTrie.POST_NEGATION,
+            trie.match( "Pain free." ).getScopeTrigger( 0, 4, true ).getTag() );
+      assertNull( trie.match( "possible pain" ).getScopeTrigger( 9, 13, false ) );
+   }
+
+   @Test
+   public void testMatchesRegex() {
+      final NegexTriggerTrie trie = NegexTriggerTrie.fromLines( LINES );
+      final RegexNegex regex = new RegexNegex( trie );
+      final Random random = new Random( 7 );
+      for ( int s = 0; s < 3000; s++ ) {
+         final StringBuilder sb = new StringBuilder();
+         final int wordCount = 1 + random.nextInt( 12 );
+         for ( int w = 0; w < wordCount; w++ ) {
+            if ( w > 0 || random.nextInt( 4 ) == 0 ) {
+               sb.append( SEPARATORS[ random.nextInt( SEPARATORS.length ) ] );
+            }
+            sb.append( WORDS[ random.nextInt( WORDS.length ) ] );
+         }
+         final String text = sb.toString();
+         final NegexTriggerTrie.Sentence sentence = trie.match( text );
+         for ( int e = 0; e < 5; e++ ) {
+            final int begin = random.nextInt( text.length() + 1 );
+            final int end = begin + random.nextInt( text.length() - begin + 1 );
+            final int[][] expected = regex.getTokens( text, begin, end );
+            final List<NegexTriggerTrie.Trigger> actual = sentence.getTriggers( begin, end );
+            final List<int[]> expectedTokens = new ArrayList<>();
+            for ( int i = 0; i < expected.length; i++ ) {
+               if ( expected[ i ] != null && ( i == 0 || expected[ i - 1 ] != expected[ i ] ) ) {
+                  expectedTokens.add( expected[ i ] );
+               }
+            }
+            final String message = "'" + text + "' " + begin + "-" + end;
+            assertEquals( message, expectedTokens.size(), actual.size() );
+            for ( int i = 0; i < actual.size(); i++ ) {
+               assertEquals( message, expectedTokens.get( i )[ 0 ], actual.get( i ).getMatchBegin() + 1 );
+               assertEquals( message, expectedTokens.get( i )[ 1 ], actual.get( i ).getMatchEnd() + 1 );
+               assertEquals( message, expectedTokens.get( i )[ 2 ], actual.get( i ).getIndex() );
+            }
+            final int[] expectedScope = regex.getScope( text, begin, end );
+            final NegexTriggerTrie.Trigger scope = sentence.getScopeTrigger( begin, end, true );
+            if ( expectedScope == null ) {
+               assertNull( message, scope );
+            } else {
+               assertNotNull( message, scope );
+               assertEquals( message, expectedScope[ 0 ], scope.getMatchBegin() + 1 );
+               assertEquals( message, expectedScope[ 2 ], scope.getIndex() );
+            }
+         }
+      }
+   }
+
+   static private final class Token implements TextToken {
+      private final String _text;
+      private final int _begin;
+
+      private Token( final String text, final int begin ) {
+         _text = text;
+         _begin = begin;
+      }
+
+      @Override
+      public String getText() {
+         return _text;
+      }
+
+      @Override
+      public int getStartOffset() {
+         return _begin;
+      }
+
+      @Override
+      public int getEndOffset() {
+         return _begin + _text.length();
+      }
+   }
+
+   @Test
+   public void testNegationFsm() throws Exception {
+      final NegationFSM fsm = new NegationFSM( NegexTriggerTrie.fromLines( LINES ) );
+      // "pain free , no increase"
+      final List<BaseToken> tokens = Arrays.asList( new Token( "pain", 10 ), new Token( "free", 15 ),
+            new Token( ",", 19 ), new Token( "no", 21 ), new Token( "increase", 24 ) );
+      final Set<NegationIndicator> indicators = fsm.execute( tokens );
+      boolean free = false;
+      for ( NegationIndicator indicator : indicators ) {
+         if ( indicator.getStartOffset() == 15 && indicator.getEndOffset() == 19 ) {
+            free = true;
+         }
+      }
+      assertTrue( free );
+      assertEquals( indicators.size(), new NegationFSM().execute( tokens ).size() + 1 );
+   }
+
+}
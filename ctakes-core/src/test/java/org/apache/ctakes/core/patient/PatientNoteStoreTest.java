@@ -0,0 +1,132 @@
+package org.apache.ctakes.core.patient;
+
+import org.apache.uima.UIMAException;
+import org.apache.uima.cas.CAS;
+import org.apache.uima.fit.factory.JCasFactory;
+import org.apache.uima.jcas.JCas;
+import org.apache.uima.jcas.tcas.Annotation;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+/**
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+final public class PatientNoteStoreTest {
+
+   // the store is a singleton, so each test starts from zero counts and removes its own patients
+   @Before
+   public void resetCounts() {
+      PatientNoteStore.getInstance().resetSpillCounts();
+   }
+
+   @After
+   public void removeBudget() {
+      PatientNoteStore.getInstance().setSpillBudget( 0, null );
+   }
+
+   @Test
+   public void testSpillAndLoad() throws UIMAException {
+      final PatientNoteStore store = PatientNoteStore.getInstance();
+      store.setSpillBudget( 1, null );
+      try {
+         store.storeView( "SpillA", "Doc1", CAS.NAME_DEFAULT_SOFA, createDocCas( "Patient A has a cough." ) );
+         assertEquals( 1, store.getResidentPatientCount() );
+         assertEquals( 0, store.getSpilledPatientCount() );
+
+         store.storeView( "SpillB", "Doc1", CAS.NAME_DEFAULT_SOFA, createDocCas( "Patient B has a fever." ) );
+         assertEquals( 1, store.getResidentPatientCount() );
+         assertEquals( 1, store.getSpilledPatientCount() );
+         assertEquals( 1, store.getSpillCount() );
+         assertEquals( 1, store.getStoredDocCount( "SpillA" ) );
+
+         final JCas view = store.getStoredView( "SpillA", "Doc1", CAS.NAME_DEFAULT_SOFA );
+         assertNotNull( view );
+         assertEquals( "Patient A has a cough.", view.getDocumentText() );
+         assertEquals( 1, store.getLoadCount() );
+         assertEquals( 1, store.getSpilledPatientCount() );
+         assertEquals( 1, store.getStoredDocCount( "SpillB" ) );
+      } finally {
+         store.removePatient( "SpillA" );
+         store.removePatient( "SpillB" );
+      }
+      assertEquals( 0, store.getSpilledPatientCount() );
+      assertEquals( 0, store.getPinnedPatientCount() );
+   }
+
+   @Test
+   public void testHandedOutPatientIsNotSpilled() throws UIMAException {
+      final PatientNoteStore store = PatientNoteStore.getInstance();
+      store.setSpillBudget( 1, null );
+      try {
+         store.storeView( "PinA", "Doc1", CAS.NAME_DEFAULT_SOFA, createDocCas( "Patient A has a cough." ) );
+         final JCas view = store.getStoredView( "PinA", "Doc1", CAS.NAME_DEFAULT_SOFA );
+         assertEquals( 1, store.getPinnedPatientCount() );
+
+         // the handed out patient stays in memory, so changes made through the view are kept
+         store.storeView( "PinB", "Doc1", CAS.NAME_DEFAULT_SOFA, createDocCas( "Patient B has a fever." ) );
+         assertEquals( 2, store.getResidentPatientCount() );
+         assertEquals( 0, store.getSpillCount() );
+         new Annotation( view, 0, 7 ).addToIndexes();
+
+         // once released the patient can be spilled, and the change is written with it
+         store.releasePatient( "PinA" );
+         assertEquals( 0, store.getPinnedPatientCount() );
+         assertEquals( 1, store.getSpillCount() );
+         assertEquals( 1, store.getSpilledPatientCount() );
+         final JCas loadedView = store.getStoredView( "PinA", "Doc1", CAS.NAME_DEFAULT_SOFA );
+         assertEquals( 1, store.getLoadCount() );
+         // the document annotation and the added annotation
+         assertEquals( 2, loadedView.getAnnotationIndex( Annotation.type ).size() );
+      } finally {
+         store.removePatient( "PinA" );
+         store.removePatient( "PinB" );
+      }
+      assertEquals( 0, store.getPinnedPatientCount() );
+   }
+
+   @Test
+   public void testPoppedPatientIsReleased() throws UIMAException {
+      final PatientNoteStore store = PatientNoteStore.getInstance();
+      store.registerEngine( "ReleaseWriterA" );
+      store.registerEngine( "ReleaseWriterB" );
+      store.setSpillBudget( 1, null );
+      try {
+         store.setWantedDocCount( "PopA", 1 );
+         store.storeView( "PopA", "Doc1", CAS.NAME_DEFAULT_SOFA, createDocCas( "Patient A has a cough." ) );
+         assertNotNull( store.popPatientCas( "PopA", "ReleaseWriterA" ) );
+         assertEquals( 1, store.getPinnedPatientCount() );
+
+         // the popped patient waits in memory for the second engine until the first engine releases it
+         store.storeView( "PopB", "Doc1", CAS.NAME_DEFAULT_SOFA, createDocCas( "Patient B has a fever." ) );
+         assertEquals( 0, store.getSpillCount() );
+         store.releasePatient( "PopA" );
+         assertEquals( 1, store.getSpilledPatientCount() );
+
+         // the last engine gets the patient from disk, and the patient is removed
+         final JCas patientCas = store.popPatientCas( "PopA", "ReleaseWriterB" );
+         assertNotNull( patientCas );
+         assertEquals( 1, store.getLoadCount() );
+         assertEquals( 0, store.getPinnedPatientCount() );
+         assertEquals( 0, store.getStoredDocCount( "PopA" ) );
+         // patient B was spilled to make room for patient A
+         assertEquals( 1, store.getStoredDocCount( "PopB" ) );
+         assertEquals( 1, store.getSpilledPatientCount() );
+      } finally {
+         store.removePatient( "PopA" );
+         store.removePatient( "PopB" );
+      }
+   }
+
+   static private JCas createDocCas( final String text ) throws UIMAException {
+      final JCas jCas = JCasFactory.createJCas();
+      jCas.setDocumentText( text );
+      return jCas;
+   }
+
+}
@@ -0,0 +1,192 @@
+package org.apache.ctakes.core.pipeline;
+
+import org.apache.uima.UIMAException;
+import org.apache.uima.cas.TypeSystem;
+import org.apache.uima.collection.CollectionException;
+import org.apache.uima.fit.component.JCasAnnotator_ImplBase;
+import org.apache.uima.fit.component.JCasCollectionReader_ImplBase;
+import org.apache.uima.fit.factory.AnalysisEngineFactory;
+import org.apache.uima.fit.factory.CollectionReaderFactory;
+import org.apache.uima.jcas.JCas;
+import org.apache.uima.util.Progress;
+import org.apache.uima.util.ProgressImpl;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+final public class ParallelPipelineRunnerTest {
+
+   static private final int DOC_COUNT = 50;
+
+   static private final List<String> WRITTEN = Collections.synchronizedList( new ArrayList<>() );
+   static private final Set<TypeSystem> TYPE_SYSTEMS
+         = Collections.synchronizedSet( Collections.newSetFromMap( new IdentityHashMap<>() ) );
+
+   @Test
+   public void testOrderedWriting() throws UIMAException {
+      WRITTEN.clear();
+      new ParallelPipelineRunner( CollectionReaderFactory.createReaderDescription( CountReader.class ),
+            AnalysisEngineFactory.createEngineDescription( UpperCaser.class ),
+            AnalysisEngineFactory.createEngineDescription( ListWriter.class ),
+            4, true ).run();
+      assertEquals( DOC_COUNT, WRITTEN.size() );
+      for ( int i = 0; i < DOC_COUNT; i++ ) {
+         assertEquals( "DOCUMENT " + i, WRITTEN.get( i ) );
+      }
+   }
+
+   @Test
+   public void testUnorderedWriting() throws UIMAException {
+      WRITTEN.clear();
+      new ParallelPipelineRunner( CollectionReaderFactory.createReaderDescription( CountReader.class ),
+            AnalysisEngineFactory.createEngineDescription( UpperCaser.class ),
+            AnalysisEngineFactory.createEngineDescription( ListWriter.class ),
+            4, false ).run();
+      assertEquals( DOC_COUNT, WRITTEN.size() );
+      assertEquals( DOC_COUNT, WRITTEN.stream().distinct().count() );
+   }
+
+   @Test
+   public void testSharedTypeSystem() throws UIMAException {
+      WRITTEN.clear();
+      TYPE_SYSTEMS.clear();
+      new ParallelPipelineRunner( CollectionReaderFactory.createReaderDescription( CountReader.class ),
+            AnalysisEngineFactory.createEngineDescription( UpperCaser.class ),
+            AnalysisEngineFactory.createEngineDescription( ListWriter.class ),
+            4, false ).run();
+      assertEquals( DOC_COUNT, WRITTEN.size() );
+      assertEquals( 1, TYPE_SYSTEMS.size() );
+   }
+
+   @Test( timeout = 60000 )
+   public void testOrderedWritingWithFailures() throws UIMAException {
+      WRITTEN.clear();
+      new ParallelPipelineRunner( CollectionReaderFactory.createReaderDescription( CountReader.class ),
+            AnalysisEngineFactory.createEngineDescription( FailingUpperCaser.class ),
+            AnalysisEngineFactory.createEngineDescription( ListWriter.class ),
+            4, true ).run();
+      // documents that failed are not written, and do not hold up the documents after them
+      assertEquals( DOC_COUNT - 2, WRITTEN.size() );
+      int written = 0;
+      for ( int i = 0; i < DOC_COUNT; i++ ) {
+         if ( i == FailingUpperCaser.RUNTIME_FAILURE || i == FailingUpperCaser.ERROR_FAILURE ) {
+            continue;
+         }
+         assertEquals( "DOCUMENT " + i, WRITTEN.get( written ) );
+         written++;
+      }
+   }
+
+   @Test( timeout = 60000 )
+   public void testReaderFailure() {
+      WRITTEN.clear();
+      try {
+         new ParallelPipelineRunner( CollectionReaderFactory.createReaderDescription( FailingReader.class ),
+               AnalysisEngineFactory.createEngineDescription( UpperCaser.class ),
+               AnalysisEngineFactory.createEngineDescription( ListWriter.class ),
+               4, true ).run();
+         fail( "Expected the reader failure to be rethrown" );
+      } catch ( UIMAException uE ) {
+         assertEquals( IllegalStateException.class, uE.getCause().getClass() );
+      }
+      // documents read before the failure are still written
+      assertEquals( FailingReader.FAILURE, WRITTEN.size() );
+   }
+
+   static public final class CountReader extends JCasCollectionReader_ImplBase {
+      private int _index;
+
+      @Override
+      public void getNext( final JCas jCas ) throws CollectionException {
+         jCas.setDocumentText( "document " + _index );
+         _index++;
+      }
+
+      @Override
+      public boolean hasNext() {
+         return _index < DOC_COUNT;
+      }
+
+      @Override
+      public Progress[] getProgress() {
+         return new Progress[] { new ProgressImpl( _index, DOC_COUNT, Progress.ENTITIES ) };
+      }
+   }
+
+   static public final class UpperCaser extends JCasAnnotator_ImplBase {
+      @Override
+      public void process( final JCas jCas ) {
+         // Sofa data cannot be changed, so record the upper case text in a new view
+         try {
+            jCas.createView( "Upper" ).setDocumentText( jCas.getDocumentText().toUpperCase() );
+         } catch ( UIMAException uE ) {
+            throw new IllegalStateException( uE );
+         }
+      }
+   }
+
+   static public final class FailingReader extends JCasCollectionReader_ImplBase {
+      static private final int FAILURE = 10;
+      private int _index;
+
+      @Override
+      public void getNext( final JCas jCas ) throws CollectionException {
+         if ( _index == FAILURE ) {
+            throw new IllegalStateException( "Cannot read document " + _index );
+         }
+         jCas.setDocumentText( "document " + _index );
+         _index++;
+      }
+
+      @Override
+      public boolean hasNext() {
+         return _index < DOC_COUNT;
+      }
+
+      @Override
+      public Progress[] getProgress() {
+         return new Progress[] { new ProgressImpl( _index, DOC_COUNT, Progress.ENTITIES ) };
+      }
+   }
+
+   static public final class FailingUpperCaser extends JCasAnnotator_ImplBase {
+      static private final int RUNTIME_FAILURE = 3;
+      static private final int ERROR_FAILURE = 17;
+
+      @Override
+      public void process( final JCas jCas ) {
+         final String text = jCas.getDocumentText();
+         if ( text.equals( "document " + RUNTIME_FAILURE ) ) {
+            throw new IllegalStateException( "Cannot process " + text );
+         } else if ( text.equals( "document " + ERROR_FAILURE ) ) {
+            throw new AssertionError( "Cannot process " + text );
+         }
+         try {
+            jCas.createView( "Upper" ).setDocumentText( text.toUpperCase() );
+         } catch ( UIMAException uE ) {
+            throw new IllegalStateException( uE );
+         }
+      }
+   }
+
+   static public final class ListWriter extends JCasAnnotator_ImplBase {
+      @Override
+      public void process( final JCas jCas ) {
+         try {
+            WRITTEN.add( jCas.getView( "Upper" ).getDocumentText() );
+            TYPE_SYSTEMS.add( jCas.getTypeSystem() );
+         } catch ( UIMAException uE ) {
+            throw new IllegalStateException( uE );
+         }
+      }
+   }
+
+}
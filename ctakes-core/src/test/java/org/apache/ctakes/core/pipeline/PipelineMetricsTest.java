@@ -0,0 +1,78 @@
+package org.apache.ctakes.core.pipeline;
+
+import org.apache.ctakes.core.ae.NullAnnotator;
+import org.apache.uima.UIMAException;
+import org.apache.uima.analysis_engine.AnalysisEngineDescription;
+import org.apache.uima.fit.factory.AnalysisEngineFactory;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+/**
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+final public class PipelineMetricsTest {
+
+   @Test
+   public void testPercentiles() {
+      final StageMetrics metrics = new StageMetrics( "Test" );
+      for ( int i = 1; i <= 100; i++ ) {
+         metrics.record( TimeUnit.MILLISECONDS.toNanos( i ), 2, 1024 );
+      }
+      assertEquals( 100, metrics.getDocCount() );
+      assertEquals( 50.5, metrics.getMeanMillis(), 0.001 );
+      assertEquals( 100, metrics.getMaxMillis(), 0.001 );
+      // buckets are powers of two microseconds, so percentiles are within a factor of two
+      assertEquals( 65.536, metrics.getMedianMillis(), 0.001 );
+      assertEquals( 100, metrics.getP95Millis(), 0.001 );
+      assertEquals( 2, metrics.getAnnotationsPerDoc(), 0.001 );
+      assertEquals( 1024, metrics.getAllocatedBytesPerDoc(), 0.001 );
+   }
+
+   @Test
+   public void testTimedPipeline() throws IOException, UIMAException {
+      PipelineMetrics.getInstance().clear();
+      new PipelineBuilder()
+            .add( NullAnnotator.class )
+            .add( NullAnnotator.class )
+            .timeStages( null, false )
+            .run( "Some text." );
+      final StageMetrics first = PipelineMetrics.getInstance().getStageMetrics( "NullAnnotator" );
+      assertNotNull( first );
+      assertEquals( 1, first.getDocCount() );
+      assertEquals( 0, first.getAnnotationsPerDoc(), 0.001 );
+      assertNotNull( PipelineMetrics.getInstance().getStageMetrics( "NullAnnotator_2" ) );
+      assertEquals( 3, PipelineMetrics.getInstance().getSummary().size() );
+      PipelineMetrics.getInstance().clear();
+   }
+
+   @Test
+   public void testTimedAggregates() throws IOException, UIMAException {
+      PipelineMetrics.getInstance().clear();
+      final AnalysisEngineDescription named = AnalysisEngineFactory.createEngineDescription(
+            AnalysisEngineFactory.createEngineDescription( NullAnnotator.class ),
+            AnalysisEngineFactory.createEngineDescription( NullAnnotator.class ) );
+      named.getMetaData().setName( "Null Pair" );
+      final AnalysisEngineDescription unnamed = AnalysisEngineFactory.createEngineDescription(
+            AnalysisEngineFactory.createEngineDescription( NullAnnotator.class ) );
+      unnamed.getMetaData().setName( null );
+      new PipelineBuilder()
+            .addDescription( named )
+            .addDescription( unnamed )
+            .add( NullAnnotator.class )
+            .timeStages( null, false )
+            .run( "Some text." );
+      // aggregates have no implementation class, so they are timed by their metadata name
+      assertEquals( 1, PipelineMetrics.getInstance().getStageMetrics( "Null_Pair" ).getDocCount() );
+      assertNotNull( PipelineMetrics.getInstance().getStageMetrics( "Aggregate" ) );
+      assertNotNull( PipelineMetrics.getInstance().getStageMetrics( "NullAnnotator" ) );
+      PipelineMetrics.getInstance().clear();
+   }
+
+}
@@ -0,0 +1,147 @@
+package org.apache.ctakes.core.util;
+
+import org.apache.ctakes.typesystem.type.syntax.BaseToken;
+import org.apache.ctakes.typesystem.type.syntax.PunctuationToken;
+import org.apache.ctakes.typesystem.type.syntax.WordToken;
+import org.apache.ctakes.typesystem.type.textsem.EventMention;
+import org.apache.ctakes.typesystem.type.textspan.Sentence;
+import org.apache.uima.UIMAException;
+import org.apache.uima.fit.factory.JCasFactory;
+import org.apache.uima.fit.util.JCasUtil;
+import org.apache.uima.jcas.JCas;
+import org.apache.uima.jcas.tcas.Annotation;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+final public class AnnotationIntervalIndexTest {
+
+   static private final int TEXT_LENGTH = 2000;
+
+   /**
+    * Fill the jcas with sentences of adjacent tokens and overlapping events of random length.
+    */
+   static private void fillJCas( final JCas jCas, final Random random ) {
+      final StringBuilder sb = new StringBuilder();
+      for ( int i = 0; i < TEXT_LENGTH; i++ ) {
+         sb.append( (char)('a' + random.nextInt( 26 )) );
+      }
+      jCas.setDocumentText( sb.toString() );
+      int sentenceBegin = 0;
+      int offset = 0;
+      while ( offset < TEXT_LENGTH - 10 ) {
+         final int end = offset + 1 + random.nextInt( 8 );
+         final BaseToken token = random.nextInt( 5 ) == 0
+                                 ? new PunctuationToken( jCas, offset, end )
+                                 : new WordToken( jCas, offset, end );
+         token.addToIndexes();
+         if ( random.nextInt( 4 ) == 0 ) {
+            new EventMention( jCas, offset, Math.min( TEXT_LENGTH, offset + 1 + random.nextInt( 30 ) ) )
+                  .addToIndexes();
+         }
+         if ( random.nextInt( 12 ) == 0 ) {
+            new Sentence( jCas, sentenceBegin, end ).addToIndexes();
+            sentenceBegin = end;
+         }
+         offset = end + random.nextInt( 2 );
+      }
+      new Sentence( jCas, sentenceBegin, offset ).addToIndexes();
+   }
+
+   static private <T extends Annotation> void assertSame( final List<T> expected, final List<T> actual ) {
+      assertEquals( expected.size(), actual.size() );
+      for ( int i = 0; i < expected.size(); i++ ) {
+         assertEquals( expected.get( i ).getAddress(), actual.get( i ).getAddress() );
+      }
+   }
+
+   @Test
+   public void testMatchesUimaFit() throws UIMAException {
+      final JCas jCas = JCasFactory.createJCas();
+      final Random random = new Random( 13 );
+      fillJCas( jCas, random );
+      final List<Annotation> anchors = new ArrayList<>( JCasUtil.select( jCas, Sentence.class ) );
+      anchors.addAll( JCasUtil.select( jCas, EventMention.class ) );
+      anchors.addAll( JCasUtil.select( jCas, WordToken.class ) );
+      for ( Annotation anchor : anchors ) {
+         assertSame( JCasUtil.selectCovered( jCas, BaseToken.class, anchor ),
+               AnnotationIntervalIndex.selectCovered( jCas, BaseToken.class, anchor ) );
+         assertSame( JCasUtil.selectCovered( jCas, WordToken.class, anchor ),
+               AnnotationIntervalIndex.selectCovered( jCas, WordToken.class, anchor ) );
+         assertSame( JCasUtil.selectCovered( jCas, EventMention.class, anchor.getBegin(), anchor.getEnd() ),
+               AnnotationIntervalIndex.selectCovered( jCas, EventMention.class, anchor.getBegin(), anchor.getEnd() ) );
+         assertSame( JCasUtil.selectCovering( jCas, Sentence.class, anchor ),
+               AnnotationIntervalIndex.selectCovering( jCas, Sentence.class, anchor ) );
+         assertSame( JCasUtil.selectCovering( jCas, EventMention.class, anchor ),
+               AnnotationIntervalIndex.selectCovering( jCas, EventMention.class, anchor ) );
+         assertSame( JCasUtil.selectPreceding( jCas, BaseToken.class, anchor, 5 ),
+               AnnotationIntervalIndex.selectPreceding( jCas, BaseToken.class, anchor, 5 ) );
+         assertSame( JCasUtil.selectFollowing( jCas, BaseToken.class, anchor, 5 ),
+               AnnotationIntervalIndex.selectFollowing( jCas, BaseToken.class, anchor, 5 ) );
+         assertSame( JCasUtil.selectPreceding( jCas, EventMention.class, anchor, 3 ),
+               AnnotationIntervalIndex.selectPreceding( jCas, EventMention.class, anchor, 3 ) );
+         final Annotation other = anchors.get( random.nextInt( anchors.size() ) );
+         assertSame( JCasUtil.selectBetween( jCas, BaseToken.class, anchor, other ),
+               AnnotationIntervalIndex.selectBetween( jCas, BaseToken.class, anchor, other ) );
+      }
+   }
+
+   @Test
+   public void testCasChanges() throws UIMAException {
+      final JCas jCas = JCasFactory.createJCas();
+      jCas.setDocumentText( "one two three" );
+      new WordToken( jCas, 0, 3 ).addToIndexes();
+      new WordToken( jCas, 4, 7 ).addToIndexes();
+      assertEquals( 2, AnnotationIntervalIndex.selectCovered( jCas, WordToken.class, 0, 13 ).size() );
+      new WordToken( jCas, 8, 13 ).addToIndexes();
+      assertEquals( 3, AnnotationIntervalIndex.selectCovered( jCas, WordToken.class, 0, 13 ).size() );
+      jCas.reset();
+      jCas.setDocumentText( "four" );
+      assertEquals( 0, AnnotationIntervalIndex.selectCovered( jCas, WordToken.class, 0, 13 ).size() );
+      new WordToken( jCas, 0, 4 ).addToIndexes();
+      final List<WordToken> words = AnnotationIntervalIndex.selectCovered( jCas, WordToken.class, 0, 4 );
+      assertEquals( 1, words.size() );
+      assertEquals( "four", words.get( 0 ).getCoveredText() );
+   }
+
+   @Test
+   public void testInPlaceChangesNeedInvalidate() throws UIMAException {
+      final JCas jCas = JCasFactory.createJCas();
+      jCas.setDocumentText( "one two three" );
+      final WordToken moved = new WordToken( jCas, 0, 3 );
+      moved.addToIndexes();
+      new WordToken( jCas, 4, 7 ).addToIndexes();
+      new EventMention( jCas, 0, 3 ).addToIndexes();
+      assertEquals( 2, AnnotationIntervalIndex.selectCovered( jCas, BaseToken.class, 0, 7 ).size() );
+      assertEquals( 1, AnnotationIntervalIndex.selectCovered( jCas, EventMention.class, 0, 3 ).size() );
+      // the annotation count is unchanged, so the moved offsets are not detected
+      moved.removeFromIndexes();
+      moved.setBegin( 8 );
+      moved.setEnd( 13 );
+      moved.addToIndexes();
+      assertEquals( 2, AnnotationIntervalIndex.selectCovered( jCas, BaseToken.class, 0, 7 ).size() );
+      // invalidating the type also discards the index of its supertype, and keeps other types
+      final AnnotationIntervalIndex events = AnnotationIntervalIndex.getIndex( jCas, EventMention.class );
+      AnnotationIntervalIndex.invalidate( jCas, WordToken.class );
+      assertEquals( 1, AnnotationIntervalIndex.selectCovered( jCas, BaseToken.class, 0, 7 ).size() );
+      assertEquals( 1, AnnotationIntervalIndex.selectCovered( jCas, WordToken.class, 8, 13 ).size() );
+      org.junit.Assert.assertSame( events, AnnotationIntervalIndex.getIndex( jCas, EventMention.class ) );
+      // remove and add keeps the count
+      moved.removeFromIndexes();
+      new WordToken( jCas, 0, 3 ).addToIndexes();
+      assertEquals( 0, AnnotationIntervalIndex.selectCovered( jCas, WordToken.class, 0, 3 ).size() );
+      AnnotationIntervalIndex.invalidate( jCas );
+      assertEquals( 1, AnnotationIntervalIndex.selectCovered( jCas, WordToken.class, 0, 3 ).size() );
+      assertEquals( 0, AnnotationIntervalIndex.selectCovered( jCas, WordToken.class, 8, 13 ).size() );
+   }
+
+}
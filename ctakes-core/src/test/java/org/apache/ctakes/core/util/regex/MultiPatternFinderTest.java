@@ -0,0 +1,50 @@
+package org.apache.ctakes.core.util.regex;
+
+import org.apache.ctakes.core.util.Pair;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+final public class MultiPatternFinderTest {
+
+   @Test
+   public void testFindKeyedSpans() {
+      final Map<String, Pattern> patterns = new LinkedHashMap<>();
+      patterns.put( "Word", Pattern.compile( "\\b[a-z]+\\b" ) );
+      patterns.put( "Number", Pattern.compile( "\\d+" ) );
+      patterns.put( "Cough", Pattern.compile( "cough" ) );
+      final MultiPatternFinder<String> finder = new MultiPatternFinder<>( patterns );
+      final Map<Pair<Integer>, String> spans = finder.findKeyedSpans( "a cough for 3 days" );
+      assertEquals( 5, spans.size() );
+      assertEquals( "Cough", spans.get( new Pair<>( 2, 7 ) ) );
+      assertEquals( "Number", spans.get( new Pair<>( 12, 13 ) ) );
+      assertEquals( "Word", spans.get( new Pair<>( 14, 18 ) ) );
+      assertEquals( 6, finder.findSpans( "a cough for 3 days" ).size() );
+   }
+
+   @Test
+   public void testTimeout() {
+      final Map<String, Pattern> patterns = new LinkedHashMap<>();
+      patterns.put( "Catastrophic", Pattern.compile( "(a+)+b" ) );
+      patterns.put( "C", Pattern.compile( "c" ) );
+      final MultiPatternFinder<String> finder = new MultiPatternFinder<>( patterns, 100 );
+      final char[] chars = new char[ 40 ];
+      Arrays.fill( chars, 'a' );
+      final String text = new String( chars ) + "c";
+      final long start = System.currentTimeMillis();
+      final Map<Pair<Integer>, String> spans = finder.findKeyedSpans( text );
+      assertTrue( System.currentTimeMillis() - start < 5000 );
+      assertEquals( Collections.singletonMap( new Pair<>( 40, 41 ), "C" ), spans );
+      assertTrue( new RegexSpanFinder( "(a+)+b", 100 ).findSpans( text ).isEmpty() );
+   }
+
+}
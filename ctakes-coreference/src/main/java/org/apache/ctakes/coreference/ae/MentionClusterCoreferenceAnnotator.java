@@ -7,6 +7,7 @@ import org.apache.ctakes.core.util.DotLogger;
 import org.apache.ctakes.core.util.ListFactory;
 import org.apache.ctakes.coreference.ae.features.cluster.*;
 import org.apache.ctakes.coreference.ae.pairing.cluster.*;
+import org.apache.ctakes.coreference.util.ClusterIndex;
 import org.apache.ctakes.coreference.util.ClusterMentionFetcher;
 import org.apache.ctakes.coreference.util.MarkableCacheRelationExtractor;
 import org.apache.ctakes.coreference.util.MarkableUtilities;
@@ -132,6 +133,8 @@ public class MentionClusterCoreferenceAnnotator extends CleartkAnnotator<String>
   private List<RelationFeaturesExtractor<CollectionTextRelation,IdentifiedAnnotation>> relationExtractors = this.getFeatureExtractors();
   private List<FeatureExtractor1<Markable>> mentionExtractors = this.getMentionExtractors();
   private List<ClusterMentionPairer_ImplBase> pairExtractors = this.getPairExtractors();
+  // clusters of the document being processed, updated as clusters are created and grow
+  private ClusterIndex clusterIndex = null;
 
 //  private Set<String> markableStrings = null;
 
@@ -219,9 +222,11 @@ public class MentionClusterCoreferenceAnnotator extends CleartkAnnotator<String>
   }
 
   private void resetPairers(JCas jcas, Map<Markable,ConllDependencyNode> cache){
+    this.clusterIndex = new ClusterIndex(jcas, cache);
     for(ClusterMentionPairer_ImplBase pairer : this.pairExtractors){
       pairer.reset(jcas);
       pairer.setCache(cache);
+      pairer.setClusterIndex(this.clusterIndex);
     }
   }
 
@@ -420,9 +425,11 @@ public class MentionClusterCoreferenceAnnotator extends CleartkAnnotator<String>
           chain.addToIndexes();
           list.addToIndexes();
           list.getTail().addToIndexes();
+          this.clusterIndex.addCluster( chain );
         }
       }
     }
+    this.clusterIndex = null;
     createEventClusters( jCas );
   }
 
@@ -495,6 +502,9 @@ public class MentionClusterCoreferenceAnnotator extends CleartkAnnotator<String>
 //    RelationArgument arg = new RelationArgument(jCas);
 //    arg.setArgument(mention);
     ListFactory.append(jCas, cluster.getMembers(), mention);
+    if(this.clusterIndex != null){
+      this.clusterIndex.addMember(cluster, mention);
+    }
   }
 
   /**
@@ -1,5 +1,6 @@
 package org.apache.ctakes.coreference.ae.features;
 
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.ArrayList;
@@ -25,11 +26,16 @@ public class DistSemFeatureExtractor implements RelationFeaturesExtractor<Identi
 
   // default value is 0.5 (rather than 0.0) because we don't want to assume OOV words are dissimilar
   public static final double DEFAULT_SIM = 0.5;  
+  private static final String VECTORS_PATH = "org/apache/ctakes/coreference/distsem/mimic_vectors.txt";
   
   private WordEmbeddings words = null;
   
   public DistSemFeatureExtractor() throws FileNotFoundException, IOException{
-    words = WordVectorReader.getEmbeddings(FileLocator.getAsStream("org/apache/ctakes/coreference/distsem/mimic_vectors.txt"));
+    // a file can be memory-mapped if it holds binary vectors
+    File file = FileLocator.getFileQuiet(VECTORS_PATH);
+    words = file != null
+        ? WordVectorReader.getEmbeddings(file.getPath())
+        : WordVectorReader.getEmbeddings(FileLocator.getAsStream(VECTORS_PATH));
   }
   
   @Override
@@ -2,8 +2,8 @@ package org.apache.ctakes.coreference.ae.pairing.cluster;
 
 //import org.apache.ctakes.coreference.ae.MentionClusterCoreferenceAnnotator.CollectionTextRelationIdentifiedAnnotationPair;
 import org.apache.ctakes.coreference.ae.pairing.AnnotationPairer;
+import org.apache.ctakes.coreference.util.ClusterIndex;
 import org.apache.ctakes.coreference.util.MarkableCacheRelationExtractor;
-import org.apache.ctakes.dependency.parser.util.DependencyUtility;
 import org.apache.ctakes.typesystem.type.relation.CollectionTextRelation;
 import org.apache.ctakes.typesystem.type.syntax.ConllDependencyNode;
 import org.apache.ctakes.typesystem.type.textsem.IdentifiedAnnotation;
@@ -22,10 +22,12 @@ public abstract class ClusterMentionPairer_ImplBase implements AnnotationPairer<
   public abstract List<CollectionTextRelationIdentifiedAnnotationPair> getPairs(JCas jcas, Markable m);
   private Map<ConllDependencyNode,Collection<IdentifiedAnnotation>> nodeEntMap = null;
   private Map<Markable,ConllDependencyNode> cache = null;
+  private ClusterIndex clusterIndex = null;
 
   @Override
   public void reset(JCas jcas){
-    nodeEntMap = JCasUtil.indexCovering(jcas, ConllDependencyNode.class, IdentifiedAnnotation.class);
+    // covering entities are only indexed if some pairer asks for them
+    nodeEntMap = null;
   }
   
   public Set<String> getBestEnt(JCas jcas, CollectionTextRelation cluster){
@@ -37,39 +39,14 @@ public abstract class ClusterMentionPairer_ImplBase implements AnnotationPairer<
   }
 
   public Set<String> getBestEnt(JCas jcas, Markable markable){
-    Set<String> bestEnts = new HashSet<>();
-    IdentifiedAnnotation bestEnt = null;
-    Set<IdentifiedAnnotation> otherBestEnts = new HashSet<>();
     ConllDependencyNode head = cache.get(markable);
     if ( head == null ) {
       return Collections.emptySet();
     }
-
-    Collection<IdentifiedAnnotation> coveringEnts = nodeEntMap.get(head);
-    for(IdentifiedAnnotation ent : coveringEnts){
-      if(ent.getOntologyConceptArr() == null) continue; // skip non-umls entities.
-      ConllDependencyNode entHead = DependencyUtility.getNominalHeadNode(jcas, ent);
-      if(entHead == head){
-        if(bestEnt == null){
-          bestEnt = ent;
-        }else if((ent.getEnd()-ent.getBegin()) > (bestEnt.getEnd() - bestEnt.getBegin())){
-          // if the span of this entity is bigger than the biggest existing one:
-          bestEnt = ent;
-          otherBestEnts = new HashSet<>();
-        }else if((ent.getEnd()-ent.getBegin()) == (bestEnt.getEnd() - bestEnt.getBegin())){
-          // there is another one with the exact same span and possibly different type!
-          otherBestEnts.add(ent);
-        }
-      }
-    }
-
-    if(bestEnt!=null){
-      bestEnts.add(bestEnt.getClass().getSimpleName());
-      for(IdentifiedAnnotation other : otherBestEnts){
-        bestEnts.add(other.getClass().getSimpleName());
-      }
+    if(nodeEntMap == null){
+      nodeEntMap = JCasUtil.indexCovering(jcas, ConllDependencyNode.class, IdentifiedAnnotation.class);
     }
-    return bestEnts;
+    return ClusterIndex.getBestEnt(jcas, head, nodeEntMap.get(head));
   }
 
   protected static final boolean dominates(Annotation arg1, Annotation arg2) {
@@ -80,4 +57,21 @@ public abstract class ClusterMentionPairer_ImplBase implements AnnotationPairer<
   public void setCache(Map<Markable,ConllDependencyNode> cache){
     this.cache = cache;
   }
+
+  /**
+   * @param clusterIndex index of the clusters in the document, kept up to date by the caller as clusters grow
+   */
+  public void setClusterIndex(ClusterIndex clusterIndex){
+    this.clusterIndex = clusterIndex;
+  }
+
+  /**
+   * @return the cluster index set for the document, or if none was set a new index of the clusters currently in the cas
+   */
+  protected ClusterIndex getClusterIndex(JCas jcas){
+    if(clusterIndex != null && clusterIndex.getJCas() == jcas){
+      return clusterIndex;
+    }
+    return new ClusterIndex(jcas, cache);
+  }
 }
@@ -1,13 +1,8 @@
 package org.apache.ctakes.coreference.ae.pairing.cluster;
 
-import org.apache.ctakes.coreference.ae.EventCoreferenceAnnotator;
-import org.apache.ctakes.coreference.util.ClusterUtils;
-import org.apache.ctakes.typesystem.type.relation.CollectionTextRelation;
-import org.apache.ctakes.typesystem.type.textsem.IdentifiedAnnotation;
+import org.apache.ctakes.coreference.util.ClusterIndex;
 import org.apache.ctakes.typesystem.type.textsem.Markable;
-import org.apache.uima.fit.util.JCasUtil;
 import org.apache.uima.jcas.JCas;
-import org.apache.uima.jcas.cas.NonEmptyFSList;
 import org.apache.uima.jcas.tcas.Annotation;
 
 import java.util.ArrayList;
@@ -35,25 +30,19 @@ public class ClusterPairer extends ClusterMentionPairer_ImplBase {
   @Override
   public List<CollectionTextRelationIdentifiedAnnotationPair> getPairs(JCas jcas, Markable mention) {
     List<CollectionTextRelationIdentifiedAnnotationPair> pairs = new ArrayList<>();
-    for(CollectionTextRelation cluster : JCasUtil.select(jcas, CollectionTextRelation.class)){
-      NonEmptyFSList members = ((NonEmptyFSList)cluster.getMembers());
-      Annotation first = (Annotation) members.getHead();
+    ClusterIndex index = getClusterIndex(jcas);
+    for(ClusterIndex.ClusterEntry entry : index.getClusters()){
+      Annotation first = entry.getFirst();
       if(first == null || mention.getBegin() <= first.getEnd()){
         continue;
       }
 
-      IdentifiedAnnotation mostRecent = (IdentifiedAnnotation) ClusterUtils.getMostRecent((NonEmptyFSList)cluster.getMembers(), mention);
-      if(mostRecent == null || EventCoreferenceAnnotator.sentDist(jcas, mostRecent, mention) > sentDist){
+      // the position of the most recent member is the number of members before it
+      int mostRecent = entry.getMostRecentPosition(mention);
+      if(mostRecent < 1 || index.getSentenceDistance(entry.getMember(mostRecent), mention) > sentDist){
         continue;
       }
-      int numMembers=0;
-      for(Markable m : JCasUtil.select(cluster.getMembers(), Markable.class)){
-        numMembers++;
-        if(m == mostRecent) break;
-      }
-      if(numMembers > 1){
-        pairs.add(new CollectionTextRelationIdentifiedAnnotationPair(cluster, mention));
-      }
+      pairs.add(new CollectionTextRelationIdentifiedAnnotationPair(entry.getCluster(), mention));
     }
     
     return pairs;  }
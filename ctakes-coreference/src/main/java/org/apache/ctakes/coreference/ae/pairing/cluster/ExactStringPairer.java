@@ -1,12 +1,8 @@
 package org.apache.ctakes.coreference.ae.pairing.cluster;
 
-import org.apache.ctakes.coreference.util.ClusterUtils;
-import org.apache.ctakes.typesystem.type.relation.CollectionTextRelation;
+import org.apache.ctakes.coreference.util.ClusterIndex;
 import org.apache.ctakes.typesystem.type.textsem.Markable;
-import org.apache.uima.fit.util.JCasUtil;
 import org.apache.uima.jcas.JCas;
-import org.apache.uima.jcas.cas.NonEmptyFSList;
-import org.apache.uima.jcas.tcas.Annotation;
 
 import java.util.ArrayList;
 import java.util.HashSet;
@@ -35,23 +31,21 @@ public class ExactStringPairer extends ClusterMentionPairer_ImplBase {
   @Override
   public List<CollectionTextRelationIdentifiedAnnotationPair> getPairs(JCas jcas, Markable mention) {
     List<CollectionTextRelationIdentifiedAnnotationPair> pairs = new ArrayList<>();
+    String mentionString = mention.getCoveredText().toLowerCase();
     
-    if(markableStrings.contains(mention.getCoveredText().toLowerCase())){
-      for(CollectionTextRelation cluster : JCasUtil.select(jcas, CollectionTextRelation.class)){
-        Annotation mostRecent = ClusterUtils.getMostRecent((NonEmptyFSList)cluster.getMembers(), mention);
-        if(mostRecent == null) continue;
+    if(markableStrings.contains(mentionString)){
+      // only clusters with a member that has the exact same string as this one can match
+      for(ClusterIndex.ClusterEntry entry : getClusterIndex(jcas).getClustersWithString(mentionString)){
+        int mostRecent = entry.getMostRecentPosition(mention);
+        if(mostRecent < 0) continue;
 
-        for(Markable m : JCasUtil.select(cluster.getMembers(), Markable.class)){
-          if(m == mostRecent) break;
-          // see if any of the members of the cluster have the exact same string as this 
-          if(m.getCoveredText().toLowerCase().equals(mention.getCoveredText().toLowerCase())){
-            pairs.add(new CollectionTextRelationIdentifiedAnnotationPair(cluster, mention));
-            break;
-          }
+        // the matching member must come before the most recent member
+        if(entry.getStringPosition(mentionString) < mostRecent || !(entry.getMember(mostRecent) instanceof Markable)){
+          pairs.add(new CollectionTextRelationIdentifiedAnnotationPair(entry.getCluster(), mention));
         }
       }
     }
-    markableStrings.add(mention.getCoveredText().toLowerCase());
+    markableStrings.add(mentionString);
     return pairs;
   }
 }
@@ -1,7 +1,7 @@
 package org.apache.ctakes.coreference.ae.pairing.cluster;
 
 import org.apache.ctakes.coreference.ae.MentionClusterCoreferenceAnnotator;
-import org.apache.ctakes.coreference.util.ClusterMentionFetcher;
+import org.apache.ctakes.coreference.util.ClusterIndex;
 import org.apache.ctakes.dependency.parser.util.DependencyUtility;
 import org.apache.ctakes.typesystem.type.syntax.ConllDependencyNode;
 import org.apache.ctakes.typesystem.type.textsem.Markable;
@@ -35,7 +35,13 @@ public class HeadwordPairer extends ClusterMentionPairer_ImplBase {
     String head = headNode.getCoveredText().toLowerCase();
     if(headWordMarkables.containsKey(head)){
        final Set<Markable> headSet = headWordMarkables.get( head );
-       ClusterMentionFetcher.populatePairs( jcas, mention, headSet, pairs );
+       // only clusters with a member that has the same head word can have it as the most recent member
+       for ( ClusterIndex.ClusterEntry entry : getClusterIndex( jcas ).getClustersWithMembers( headSet ) ) {
+          final int mostRecent = entry.getMostRecentPosition( mention );
+          if ( mostRecent >= 0 && headSet.contains( entry.getMember( mostRecent ) ) ) {
+             pairs.add( new CollectionTextRelationIdentifiedAnnotationPair( entry.getCluster(), mention ) );
+          }
+       }
     } else {
       headWordMarkables.put(head, new HashSet<Markable>());
     }
@@ -1,18 +1,14 @@
 package org.apache.ctakes.coreference.ae.pairing.cluster;
 
-import org.apache.ctakes.coreference.ae.EventCoreferenceAnnotator;
-import org.apache.ctakes.coreference.util.ClusterUtils;
-import org.apache.ctakes.typesystem.type.relation.CollectionTextRelation;
+import org.apache.ctakes.coreference.util.ClusterIndex;
 import org.apache.ctakes.typesystem.type.textsem.AnatomicalSiteMention;
-import org.apache.ctakes.typesystem.type.textsem.IdentifiedAnnotation;
 import org.apache.ctakes.typesystem.type.textsem.Markable;
 import org.apache.ctakes.typesystem.type.textsem.MedicationEventMention;
-import org.apache.uima.fit.util.JCasUtil;
 import org.apache.uima.jcas.JCas;
-import org.apache.uima.jcas.cas.NonEmptyFSList;
 import org.apache.uima.jcas.tcas.Annotation;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Set;
 
@@ -36,36 +32,29 @@ public class SentenceDistancePairer extends ClusterMentionPairer_ImplBase {
   @Override
   public List<CollectionTextRelationIdentifiedAnnotationPair> getPairs( JCas jcas, Markable mention ) {
     List<CollectionTextRelationIdentifiedAnnotationPair> pairs = new ArrayList<>();
-    Set<String> bestAnaTypes = getBestEnt(jcas, (Markable) mention);
-    
-    for(CollectionTextRelation cluster : JCasUtil.select(jcas, CollectionTextRelation.class)){
-      NonEmptyFSList members = ((NonEmptyFSList)cluster.getMembers());
-      Annotation first = (Annotation) members.getHead();
+    ClusterIndex index = getClusterIndex(jcas);
+    Set<String> bestAnaTypes = index.getSemanticTypes(mention);
+    BitSet bestAnaBits = index.getSemanticTypeBits(mention);
+    boolean checkDistance = !(bestAnaTypes.contains(AnatomicalSiteMention.class.getSimpleName()) ||
+        bestAnaTypes.contains(MedicationEventMention.class.getSimpleName()));
+
+    for(ClusterIndex.ClusterEntry entry : index.getClusters()){
+      Annotation first = entry.getFirst();
       if(first == null || mention.getBegin() <= first.getEnd()) continue;
       
       // check for distance if they are not anatomical site or medication
-      if(!(bestAnaTypes.contains(AnatomicalSiteMention.class.getSimpleName()) ||
-          bestAnaTypes.contains(MedicationEventMention.class.getSimpleName()))){
-  
-        IdentifiedAnnotation mostRecent = (IdentifiedAnnotation) ClusterUtils.getMostRecent(members, mention);
-        if(mostRecent == null || EventCoreferenceAnnotator.sentDist(jcas, mostRecent, mention) > this.sentDistance) continue;
+      if(checkDistance){
+        int mostRecent = entry.getMostRecentPosition(mention);
+        if(mostRecent < 0 || index.getSentenceDistance(entry.getMember(mostRecent), mention) > this.sentDistance) continue;
       }
   
       // check for types of cluster
-      Set<String> bestClusterTypes = getBestEnt(jcas, cluster);
-      if(bestAnaTypes.size() > 0 && bestClusterTypes.size() > 0){
-        boolean overlap = false;
-        for(String semType : bestAnaTypes){
-          if(bestClusterTypes.contains(semType)){
-            overlap = true;
-          }
-        }
-        // they both correspond to named entities but no overlap in which category of named entity.
-        if(!overlap){
-          continue;
-        }
+      BitSet bestClusterBits = entry.getSemanticTypeBits();
+      // they both correspond to named entities but no overlap in which category of named entity.
+      if(!bestAnaBits.isEmpty() && !bestClusterBits.isEmpty() && !bestAnaBits.intersects(bestClusterBits)){
+        continue;
       }
-      pairs.add(new CollectionTextRelationIdentifiedAnnotationPair(cluster, mention));      
+      pairs.add(new CollectionTextRelationIdentifiedAnnotationPair(entry.getCluster(), mention));
     }
     return pairs;
   }
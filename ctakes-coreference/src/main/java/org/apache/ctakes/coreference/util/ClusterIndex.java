@@ -0,0 +1,424 @@
+package org.apache.ctakes.coreference.util;
+
+import org.apache.ctakes.dependency.parser.util.DependencyUtility;
+import org.apache.ctakes.temporal.utils.PatientViewsUtil;
+import org.apache.ctakes.typesystem.type.relation.CollectionTextRelation;
+import org.apache.ctakes.typesystem.type.syntax.ConllDependencyNode;
+import org.apache.ctakes.typesystem.type.textsem.IdentifiedAnnotation;
+import org.apache.ctakes.typesystem.type.textsem.Markable;
+import org.apache.ctakes.typesystem.type.textspan.Paragraph;
+import org.apache.ctakes.typesystem.type.textspan.Sentence;
+import org.apache.uima.fit.util.JCasUtil;
+import org.apache.uima.jcas.JCas;
+import org.apache.uima.jcas.cas.FSList;
+import org.apache.uima.jcas.cas.NonEmptyFSList;
+import org.apache.uima.jcas.tcas.Annotation;
+
+import java.util.*;
+
+/**
+ * Per-document index of the mention clusters in a cas, kept up to date as clusters are created and grow
+ * so that cluster-mention pairers do not rescan every cluster and its member list for every mention.
+ * <p>
+ * For each cluster the index keeps the members in list order with a running maximum of their end offsets
+ * (to find the most recent member before a mention), the union of the semantic types of its members as a bitset,
+ * the first position of each lowercased member string and the end of the earliest section header holding a member.
+ * Sentence and section header offsets of the document are indexed once, so sentence distances are binary searches.
+ * </p>
+ * Clusters are visited in the order of the cas index, as they were when pairers selected them from the cas,
+ * so candidate pairs keep their order.  Clusters that are added to the cas must also be added to the index,
+ * and the index is not thread safe.
+ */
+public class ClusterIndex {
+
+  private final JCas jcas;
+  private final Map<Markable,ConllDependencyNode> headCache;
+  private Map<ConllDependencyNode,Collection<IdentifiedAnnotation>> nodeEntMap = null;
+
+  private final int[] sentBegins;
+  private final int[] sentEnds;
+  // true if sentences sorted by begin are also sorted by end, as they are unless sentences overlap
+  private final boolean sentEndsSorted;
+  private final int[] headerBegins;
+  private final int[] headerEnds;
+
+  private final List<ClusterEntry> clusters = new ArrayList<>();
+  // set when a cluster is added and the order of the clusters in the cas index must be read again
+  private boolean clusterOrderChanged = false;
+  private final Map<CollectionTextRelation,ClusterEntry> clusterEntries = new HashMap<>();
+  private final Map<Annotation,List<ClusterEntry>> memberClusters = new HashMap<>();
+  private final Map<String,List<ClusterEntry>> stringClusters = new HashMap<>();
+  private final Map<String,Integer> semTypeBits = new HashMap<>();
+  private final Map<Markable,Set<String>> markableSemTypes = new HashMap<>();
+
+  /**
+   * Index the sentences, section headers and existing clusters of a document.
+   * @param jcas      document view
+   * @param headCache nominal head node of each markable in the document, may be null to look up heads as needed
+   */
+  public ClusterIndex(JCas jcas, Map<Markable,ConllDependencyNode> headCache){
+    this.jcas = jcas;
+    this.headCache = headCache;
+
+    Collection<Sentence> sents = JCasUtil.select(jcas, Sentence.class);
+    sentBegins = new int[sents.size()];
+    sentEnds = new int[sents.size()];
+    boolean sorted = true;
+    int i = 0;
+    for(Sentence sent : sents){
+      sentBegins[i] = sent.getBegin();
+      sentEnds[i] = sent.getEnd();
+      if(i > 0 && sentEnds[i] < sentEnds[i-1]) sorted = false;
+      i++;
+    }
+    sentEndsSorted = sorted;
+
+    // paragraphs that cover exactly one sentence are how section headers (and list items) are modeled
+    List<Paragraph> headers = new ArrayList<>();
+    Map<Paragraph,Collection<Sentence>> parSents = JCasUtil.indexCovered(jcas, Paragraph.class, Sentence.class);
+    for(Paragraph par : JCasUtil.select(jcas, Paragraph.class)){
+      Collection<Sentence> covered = parSents.get(par);
+      if(covered != null && covered.size() == 1){
+        headers.add(par);
+      }
+    }
+    headerBegins = new int[headers.size()];
+    headerEnds = new int[headers.size()];
+    for(i = 0; i < headers.size(); i++){
+      headerBegins[i] = headers.get(i).getBegin();
+      headerEnds[i] = headers.get(i).getEnd();
+    }
+
+    for(CollectionTextRelation cluster : JCasUtil.select(jcas, CollectionTextRelation.class)){
+      addCluster(cluster);
+    }
+  }
+
+  public JCas getJCas(){
+    return jcas;
+  }
+
+  /**
+   * Index a new cluster and its current members.  A cluster that is already indexed is not added again.
+   */
+  public void addCluster(CollectionTextRelation cluster){
+    if(clusterEntries.containsKey(cluster)) return;
+    ClusterEntry entry = new ClusterEntry(cluster);
+    clusters.add(entry);
+    clusterEntries.put(cluster, entry);
+    clusterOrderChanged = true;
+    FSList cur = cluster.getMembers();
+    while(cur instanceof NonEmptyFSList){
+      addMember(entry, (Annotation) ((NonEmptyFSList) cur).getHead());
+      cur = ((NonEmptyFSList) cur).getTail();
+    }
+  }
+
+  /**
+   * Index a mention that was appended to the member list of a cluster.
+   * Clusters that are not in this index, such as clusters of a previous document, are ignored.
+   */
+  public void addMember(CollectionTextRelation cluster, Annotation member){
+    ClusterEntry entry = clusterEntries.get(cluster);
+    if(entry != null){
+      addMember(entry, member);
+    }
+  }
+
+  private void addMember(ClusterEntry entry, Annotation member){
+    int position = entry.members.size();
+    entry.members.add(member);
+    if(position == 0){
+      entry.maxEnds.add(Integer.MIN_VALUE);
+    }else{
+      entry.maxEnds.add(Math.max(entry.maxEnds.get(position-1), member.getEnd()));
+    }
+    List<ClusterEntry> withMember = memberClusters.computeIfAbsent(member, k -> new ArrayList<>(1));
+    if(!withMember.contains(entry)) withMember.add(entry);
+
+    if(!(member instanceof Markable)) return;
+    Markable markable = (Markable) member;
+    String text = markable.getCoveredText().toLowerCase();
+    if(!entry.stringPositions.containsKey(text)){
+      entry.stringPositions.put(text, position);
+      stringClusters.computeIfAbsent(text, k -> new ArrayList<>(1)).add(entry);
+    }
+    entry.semTypes.or(getSemanticTypeBits(markable));
+    entry.headerEnd = Math.min(entry.headerEnd, getHeaderEnd(markable));
+  }
+
+  /**
+   * @return all indexed clusters in the order of the cas index
+   */
+  public List<ClusterEntry> getClusters(){
+    if(clusterOrderChanged){
+      List<ClusterEntry> ordered = new ArrayList<>(clusters.size());
+      for(CollectionTextRelation cluster : JCasUtil.select(jcas, CollectionTextRelation.class)){
+        ClusterEntry entry = clusterEntries.get(cluster);
+        if(entry != null){
+          ordered.add(entry);
+        }
+      }
+      // clusters that were indexed but are not in the cas index go last, in the order that they were added
+      if(ordered.size() < clusters.size()){
+        Set<ClusterEntry> inCas = new HashSet<>(ordered);
+        for(ClusterEntry entry : clusters){
+          if(!inCas.contains(entry)) ordered.add(entry);
+        }
+      }
+      clusters.clear();
+      clusters.addAll(ordered);
+      for(int i = 0; i < clusters.size(); i++){
+        clusters.get(i).order = i;
+      }
+      clusterOrderChanged = false;
+    }
+    return Collections.unmodifiableList(clusters);
+  }
+
+  /**
+   * @return the indexed clusters that have the given annotation as a member
+   */
+  public List<ClusterEntry> getClustersWithMember(Annotation member){
+    List<ClusterEntry> withMember = memberClusters.get(member);
+    return withMember == null ? Collections.emptyList() : withMember;
+  }
+
+  /**
+   * @param members some annotations
+   * @return the indexed clusters that have any of the annotations as a member, in the order of the cas index
+   */
+  public List<ClusterEntry> getClustersWithMembers(Collection<? extends Annotation> members){
+    Set<ClusterEntry> entries = new HashSet<>();
+    for(Annotation member : members){
+      entries.addAll(getClustersWithMember(member));
+    }
+    return sortByOrder(entries);
+  }
+
+  /**
+   * @param text lowercased covered text of some markable
+   * @return the indexed clusters that have a markable member with the text, in the order of the cas index
+   */
+  public List<ClusterEntry> getClustersWithString(String text){
+    List<ClusterEntry> withString = stringClusters.get(text);
+    return withString == null ? Collections.emptyList() : sortByOrder(withString);
+  }
+
+  private List<ClusterEntry> sortByOrder(Collection<ClusterEntry> entries){
+    getClusters();
+    List<ClusterEntry> sorted = new ArrayList<>(entries);
+    sorted.sort(Comparator.comparingInt(e -> e.order));
+    return sorted;
+  }
+
+  /**
+   * Same value as {@code EventCoreferenceAnnotator.sentDist(jcas, arg1, arg2)}.
+   * @return the number of sentences covered by the span from the begin of arg1 to the end of arg2
+   */
+  public int getSentenceDistance(Annotation arg1, Annotation arg2){
+    int begin = arg1.getBegin();
+    int end = arg2.getEnd();
+    int first = lowerBound(sentBegins, sentBegins.length, begin);
+    if(sentEndsSorted){
+      int last = upperBound(sentEnds, first, sentEnds.length, end);
+      return Math.max(0, last - first);
+    }
+    int count = 0;
+    for(int i = first; i < sentBegins.length && sentBegins[i] <= end; i++){
+      if(sentEnds[i] <= end) count++;
+    }
+    return count;
+  }
+
+  /**
+   * @return the semantic types of the best covering entities of the markable, see {@link #getBestEnt}
+   */
+  public Set<String> getSemanticTypes(Markable markable){
+    Set<String> semTypes = markableSemTypes.get(markable);
+    if(semTypes == null){
+      ConllDependencyNode head = headCache == null ? DependencyUtility.getNominalHeadNode(jcas, markable) : headCache.get(markable);
+      if(head == null){
+        semTypes = Collections.emptySet();
+      }else{
+        if(nodeEntMap == null){
+          nodeEntMap = JCasUtil.indexCovering(jcas, ConllDependencyNode.class, IdentifiedAnnotation.class);
+        }
+        semTypes = getBestEnt(jcas, head, nodeEntMap.get(head));
+      }
+      markableSemTypes.put(markable, semTypes);
+    }
+    return semTypes;
+  }
+
+  /**
+   * @return the semantic types of the markable as bits that can be compared with {@link ClusterEntry#getSemanticTypeBits()}
+   */
+  public BitSet getSemanticTypeBits(Markable markable){
+    BitSet bits = new BitSet();
+    for(String semType : getSemanticTypes(markable)){
+      Integer bit = semTypeBits.get(semType);
+      if(bit == null){
+        bit = semTypeBits.size();
+        semTypeBits.put(semType, bit);
+      }
+      bits.set(bit);
+    }
+    return bits;
+  }
+
+  /**
+   * @return the end of the earliest-ending section header that dominates the markable, or Integer.MAX_VALUE
+   */
+  private int getHeaderEnd(Annotation markable){
+    int headerEnd = Integer.MAX_VALUE;
+    int last = upperBound(headerBegins, 0, headerBegins.length, markable.getBegin());
+    for(int i = 0; i < last; i++){
+      if(headerEnds[i] >= markable.getEnd() && headerEnds[i] < headerEnd){
+        headerEnd = headerEnds[i];
+      }
+    }
+    return headerEnd;
+  }
+
+  /**
+   * Find the semantic types of the entities with the given nominal head, keeping only the entities with the longest span.
+   * @param head         nominal head node of some markable
+   * @param coveringEnts entities covering the head node
+   * @return simple class names of the best entities
+   */
+  public static Set<String> getBestEnt(JCas jcas, ConllDependencyNode head, Collection<IdentifiedAnnotation> coveringEnts){
+    Set<String> bestEnts = new HashSet<>();
+    IdentifiedAnnotation bestEnt = null;
+    Set<IdentifiedAnnotation> otherBestEnts = new HashSet<>();
+    if(coveringEnts == null) return bestEnts;
+
+    for(IdentifiedAnnotation ent : coveringEnts){
+      if(ent.getOntologyConceptArr() == null) continue; // skip non-umls entities.
+      ConllDependencyNode entHead = DependencyUtility.getNominalHeadNode(jcas, ent);
+      if(entHead == head){
+        if(bestEnt == null){
+          bestEnt = ent;
+        }else if((ent.getEnd()-ent.getBegin()) > (bestEnt.getEnd() - bestEnt.getBegin())){
+          // if the span of this entity is bigger than the biggest existing one:
+          bestEnt = ent;
+          otherBestEnts = new HashSet<>();
+        }else if((ent.getEnd()-ent.getBegin()) == (bestEnt.getEnd() - bestEnt.getBegin())){
+          // there is another one with the exact same span and possibly different type!
+          otherBestEnts.add(ent);
+        }
+      }
+    }
+
+    if(bestEnt!=null){
+      bestEnts.add(bestEnt.getClass().getSimpleName());
+      for(IdentifiedAnnotation other : otherBestEnts){
+        bestEnts.add(other.getClass().getSimpleName());
+      }
+    }
+    return bestEnts;
+  }
+
+  /**
+   * @return first index in [0,to) whose value is >= key
+   */
+  private static int lowerBound(int[] values, int to, int key){
+    int low = 0;
+    int high = to;
+    while(low < high){
+      int mid = (low + high) >>> 1;
+      if(values[mid] < key) low = mid + 1;
+      else high = mid;
+    }
+    return low;
+  }
+
+  /**
+   * @return first index in [from,to) whose value is > key
+   */
+  private static int upperBound(int[] values, int from, int to, int key){
+    int low = from;
+    int high = to;
+    while(low < high){
+      int mid = (low + high) >>> 1;
+      if(values[mid] <= key) low = mid + 1;
+      else high = mid;
+    }
+    return low;
+  }
+
+  /**
+   * A cluster and the values that pairers use to compare it with a mention.
+   */
+  public static final class ClusterEntry {
+    private final CollectionTextRelation cluster;
+    // position in the cas index order of clusters
+    private int order;
+    private final List<Annotation> members = new ArrayList<>();
+    // maxEnds[i] is the largest end offset of members 1 to i, the first member is never compared
+    private final List<Integer> maxEnds = new ArrayList<>();
+    private final Map<String,Integer> stringPositions = new HashMap<>();
+    private final BitSet semTypes = new BitSet();
+    private int headerEnd = Integer.MAX_VALUE;
+
+    private ClusterEntry(CollectionTextRelation cluster){
+      this.cluster = cluster;
+    }
+
+    public CollectionTextRelation getCluster(){
+      return cluster;
+    }
+
+    public Annotation getFirst(){
+      return members.isEmpty() ? null : members.get(0);
+    }
+
+    public Annotation getMember(int position){
+      return members.get(position);
+    }
+
+    /**
+     * Same member as {@link ClusterUtils#getMostRecent(NonEmptyFSList, Annotation)}.
+     * @return position in the member list of the last member in the leading run of members that end before the focus,
+     * or -1 if the cluster has no members or the first member of the same document ends after the focus
+     */
+    public int getMostRecentPosition(Annotation focus){
+      if(members.isEmpty()) return -1;
+      Annotation first = members.get(0);
+      if(PatientViewsUtil.isSameDocument(first, focus) && first.getEnd() > focus.getEnd()) return -1;
+      // maxEnds is non-decreasing, find the last position with a value below the focus end
+      int low = 0;
+      int high = maxEnds.size() - 1;
+      while(low < high){
+        int mid = (low + high + 1) >>> 1;
+        if(maxEnds.get(mid) < focus.getEnd()) low = mid;
+        else high = mid - 1;
+      }
+      return low;
+    }
+
+    /**
+     * @param text lowercased covered text of some markable
+     * @return position of the first markable member with the text, or -1
+     */
+    public int getStringPosition(String text){
+      Integer position = stringPositions.get(text);
+      return position == null ? -1 : position;
+    }
+
+    /**
+     * @return union of the semantic types of all markable members
+     */
+    public BitSet getSemanticTypeBits(){
+      return semTypes;
+    }
+
+    /**
+     * @return the end of the earliest-ending section header that dominates any markable member,
+     * or Integer.MAX_VALUE if no member is in a section header
+     */
+    public int getHeaderEnd(){
+      return headerEnd;
+    }
+  }
+}
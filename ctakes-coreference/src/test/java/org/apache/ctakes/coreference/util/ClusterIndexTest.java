@@ -0,0 +1,278 @@
+package org.apache.ctakes.coreference.util;
+
+import org.apache.ctakes.core.util.ListFactory;
+import org.apache.ctakes.coreference.ae.pairing.cluster.ClusterMentionPairer_ImplBase;
+import org.apache.ctakes.coreference.ae.pairing.cluster.ClusterPairer;
+import org.apache.ctakes.coreference.ae.pairing.cluster.ExactStringPairer;
+import org.apache.ctakes.coreference.ae.pairing.cluster.SectionHeaderPairer;
+import org.apache.ctakes.coreference.ae.pairing.cluster.SentenceDistancePairer;
+import org.apache.ctakes.typesystem.type.relation.CollectionTextRelation;
+import org.apache.ctakes.typesystem.type.syntax.ConllDependencyNode;
+import org.apache.ctakes.typesystem.type.textsem.IdentifiedAnnotation;
+import org.apache.ctakes.typesystem.type.textsem.Markable;
+import org.apache.ctakes.typesystem.type.textspan.Paragraph;
+import org.apache.ctakes.typesystem.type.textspan.Sentence;
+import org.apache.uima.fit.factory.JCasFactory;
+import org.apache.uima.fit.util.JCasUtil;
+import org.apache.uima.jcas.JCas;
+import org.apache.uima.jcas.cas.EmptyFSList;
+import org.apache.uima.jcas.cas.NonEmptyFSList;
+import org.apache.uima.jcas.tcas.Annotation;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.apache.ctakes.coreference.util.ClusterMentionFetcher.CollectionTextRelationIdentifiedAnnotationPair;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Checks that the cluster pairers, which use a {@link ClusterIndex}, produce the same candidate pairs
+ * in the same order as the all-pairs pairers that scanned every cluster and its members for every mention.
+ */
+public class ClusterIndexTest {
+
+  private static final String TEXT = "History\n"
+      + "The patient had chest pain. The pain was severe. She took aspirin.\n"
+      + "Medications\n"
+      + "Aspirin daily.\n"
+      + "Plan\n"
+      + "Continue aspirin. Her pain is better. The patient is stable. Follow up on the pain. Call the patient.\n";
+  private static final Pattern MENTION = Pattern.compile( "\\b(?i:patient|pain|she|her|aspirin|history|plan)\\b" );
+  // mentions with these words join the cluster of the mapped word, all other mentions join a cluster with their own word
+  private static final Map<String,String> LINKS = new HashMap<>();
+  static {
+    LINKS.put( "she", "patient" );
+    LINKS.put( "her", "patient" );
+  }
+  private static final int SENT_DIST = 1;
+
+  @Test
+  public void testIncrementalClusters() throws Exception {
+    JCas jcas = createCas();
+    List<ClusterMentionPairer_ImplBase> pairers = createPairers( jcas );
+    Set<String> markableStrings = new HashSet<>();
+    ClusterIndex index = new ClusterIndex( jcas, Collections.emptyMap() );
+    pairers.forEach( p -> p.setClusterIndex( index ) );
+    int pairCount = 0;
+    Map<String,CollectionTextRelation> wordClusters = new HashMap<>();
+    for ( Markable mention : JCasUtil.select( jcas, Markable.class ) ) {
+      pairCount += assertSamePairs( jcas, pairers, markableStrings, mention );
+      // link the mention as the annotator would, updating the index as the annotator does
+      String word = getWord( mention );
+      CollectionTextRelation cluster = wordClusters.get( word );
+      if ( cluster == null ) {
+        cluster = createCluster( jcas, Collections.singletonList( mention ) );
+        wordClusters.put( word, cluster );
+        index.addCluster( cluster );
+      } else {
+        ListFactory.append( jcas, cluster.getMembers(), mention );
+        index.addMember( cluster, mention );
+      }
+    }
+    assertFalse( pairCount == 0 );
+  }
+
+  @Test
+  public void testGoldClusters() throws Exception {
+    JCas jcas = createCas();
+    // all clusters exist with all of their members before pairing, as they do during training
+    Map<String,List<Markable>> wordMentions = new LinkedHashMap<>();
+    for ( Markable mention : JCasUtil.select( jcas, Markable.class ) ) {
+      wordMentions.computeIfAbsent( getWord( mention ), w -> new ArrayList<>() ).add( mention );
+    }
+    for ( List<Markable> mentions : wordMentions.values() ) {
+      createCluster( jcas, mentions );
+    }
+    List<ClusterMentionPairer_ImplBase> pairers = createPairers( jcas );
+    Set<String> markableStrings = new HashSet<>();
+    int pairCount = 0;
+    for ( Markable mention : JCasUtil.select( jcas, Markable.class ) ) {
+      pairCount += assertSamePairs( jcas, pairers, markableStrings, mention );
+    }
+    assertFalse( pairCount == 0 );
+  }
+
+  /**
+   * @return number of pairs found by all pairers for the mention
+   */
+  private static int assertSamePairs( JCas jcas, List<ClusterMentionPairer_ImplBase> pairers,
+                                      Set<String> markableStrings, Markable mention ) {
+    List<List<CollectionTextRelation>> expected = new ArrayList<>();
+    expected.add( getAllPairsClusterPairs( jcas, mention ) );
+    expected.add( getAllPairsSentenceDistancePairs( jcas, mention ) );
+    expected.add( getAllPairsSectionHeaderPairs( jcas, mention ) );
+    expected.add( getAllPairsExactStringPairs( jcas, markableStrings, mention ) );
+    int pairCount = 0;
+    for ( int i = 0; i < pairers.size(); i++ ) {
+      List<CollectionTextRelation> actual = new ArrayList<>();
+      for ( CollectionTextRelationIdentifiedAnnotationPair pair : pairers.get( i ).getPairs( jcas, mention ) ) {
+        assertEquals( mention, pair.getMention() );
+        actual.add( pair.getCluster() );
+      }
+      assertEquals( pairers.get( i ).getClass().getSimpleName() + " " + mention.getCoveredText() + " "
+                    + mention.getBegin(), expected.get( i ), actual );
+      pairCount += actual.size();
+    }
+    return pairCount;
+  }
+
+  private static List<ClusterMentionPairer_ImplBase> createPairers( JCas jcas ) {
+    List<ClusterMentionPairer_ImplBase> pairers = Arrays.asList( new ClusterPairer( SENT_DIST ),
+        new SentenceDistancePairer( SENT_DIST ),
+        new SectionHeaderPairer( SENT_DIST ),
+        new ExactStringPairer() );
+    Map<Markable,ConllDependencyNode> cache = new HashMap<>();
+    for ( ClusterMentionPairer_ImplBase pairer : pairers ) {
+      pairer.reset( jcas );
+      pairer.setCache( cache );
+    }
+    return pairers;
+  }
+
+  /**
+   * @return cas with a paragraph for each line, sentences ending with periods or newlines and a markable for each mention
+   */
+  private static JCas createCas() throws Exception {
+    JCas jcas = JCasFactory.createJCas();
+    jcas.setDocumentText( TEXT );
+    int lineBegin = 0;
+    for ( String line : TEXT.split( "\n" ) ) {
+      int lineEnd = lineBegin + line.length();
+      new Paragraph( jcas, lineBegin, lineEnd ).addToIndexes();
+      int sentBegin = lineBegin;
+      for ( int i = lineBegin; i < lineEnd; i++ ) {
+        if ( TEXT.charAt( i ) == '.' ) {
+          new Sentence( jcas, sentBegin, i + 1 ).addToIndexes();
+          sentBegin = i + 2;
+        }
+      }
+      if ( sentBegin < lineEnd ) {
+        new Sentence( jcas, sentBegin, lineEnd ).addToIndexes();
+      }
+      lineBegin = lineEnd + 1;
+    }
+    Matcher matcher = MENTION.matcher( TEXT );
+    while ( matcher.find() ) {
+      new Markable( jcas, matcher.start(), matcher.end() ).addToIndexes();
+    }
+    return jcas;
+  }
+
+  private static String getWord( Markable mention ) {
+    String word = mention.getCoveredText().toLowerCase();
+    return LINKS.getOrDefault( word, word );
+  }
+
+  private static CollectionTextRelation createCluster( JCas jcas, List<Markable> mentions ) {
+    CollectionTextRelation cluster = new CollectionTextRelation( jcas );
+    cluster.setCategory( "Identity" );
+    NonEmptyFSList list = new NonEmptyFSList( jcas );
+    list.setHead( mentions.get( 0 ) );
+    list.setTail( new EmptyFSList( jcas ) );
+    cluster.setMembers( list );
+    for ( int i = 1; i < mentions.size(); i++ ) {
+      ListFactory.append( jcas, cluster.getMembers(), mentions.get( i ) );
+    }
+    cluster.addToIndexes();
+    return cluster;
+  }
+
+  ///////////////  The all-pairs pairers, before the cluster index  ///////////////
+
+  private static int sentDist( JCas jcas, IdentifiedAnnotation arg1, IdentifiedAnnotation arg2 ) {
+    return JCasUtil.selectCovered( jcas, Sentence.class, arg1.getBegin(), arg2.getEnd() ).size();
+  }
+
+  private static List<CollectionTextRelation> getAllPairsClusterPairs( JCas jcas, Markable mention ) {
+    List<CollectionTextRelation> pairs = new ArrayList<>();
+    for ( CollectionTextRelation cluster : JCasUtil.select( jcas, CollectionTextRelation.class ) ) {
+      NonEmptyFSList members = (NonEmptyFSList)cluster.getMembers();
+      Annotation first = (Annotation)members.getHead();
+      if ( first == null || mention.getBegin() <= first.getEnd() ) {
+        continue;
+      }
+      IdentifiedAnnotation mostRecent = (IdentifiedAnnotation)ClusterUtils.getMostRecent( members, mention );
+      if ( mostRecent == null || sentDist( jcas, mostRecent, mention ) > SENT_DIST ) {
+        continue;
+      }
+      int numMembers = 0;
+      for ( Markable m : JCasUtil.select( members, Markable.class ) ) {
+        numMembers++;
+        if ( m == mostRecent ) break;
+      }
+      if ( numMembers > 1 ) {
+        pairs.add( cluster );
+      }
+    }
+    return pairs;
+  }
+
+  // without head nodes there are no semantic types, so only the distance is checked
+  private static List<CollectionTextRelation> getAllPairsSentenceDistancePairs( JCas jcas, Markable mention ) {
+    List<CollectionTextRelation> pairs = new ArrayList<>();
+    for ( CollectionTextRelation cluster : JCasUtil.select( jcas, CollectionTextRelation.class ) ) {
+      NonEmptyFSList members = (NonEmptyFSList)cluster.getMembers();
+      Annotation first = (Annotation)members.getHead();
+      if ( first == null || mention.getBegin() <= first.getEnd() ) continue;
+      IdentifiedAnnotation mostRecent = (IdentifiedAnnotation)ClusterUtils.getMostRecent( members, mention );
+      if ( mostRecent == null || sentDist( jcas, mostRecent, mention ) > SENT_DIST ) continue;
+      pairs.add( cluster );
+    }
+    return pairs;
+  }
+
+  private static List<CollectionTextRelation> getAllPairsSectionHeaderPairs( JCas jcas, Markable mention ) {
+    List<CollectionTextRelation> pairs = new ArrayList<>();
+    for ( CollectionTextRelation cluster : JCasUtil.select( jcas, CollectionTextRelation.class ) ) {
+      NonEmptyFSList members = (NonEmptyFSList)cluster.getMembers();
+      Annotation first = (Annotation)members.getHead();
+      if ( first == null || mention.getBegin() <= first.getEnd() ) {
+        continue;
+      }
+      IdentifiedAnnotation mostRecent = (IdentifiedAnnotation)ClusterUtils.getMostRecent( members, mention );
+      if ( mostRecent == null || sentDist( jcas, mostRecent, mention ) <= SENT_DIST ) {
+        continue;
+      }
+      boolean match = false;
+      for ( Paragraph par : JCasUtil.selectCovered( jcas, Paragraph.class, 0, mention.getBegin() ) ) {
+        List<Sentence> coveredSents = JCasUtil.selectCovered( jcas, Sentence.class, par );
+        if ( coveredSents.size() == 1 ) {
+          for ( Markable m : JCasUtil.select( members, Markable.class ) ) {
+            if ( par.getBegin() <= m.getBegin() && par.getEnd() >= m.getEnd() ) {
+              pairs.add( cluster );
+              match = true;
+              break;
+            }
+          }
+        }
+        if ( match ) break;
+      }
+    }
+    return pairs;
+  }
+
+  private static List<CollectionTextRelation> getAllPairsExactStringPairs( JCas jcas, Set<String> markableStrings,
+                                                                           Markable mention ) {
+    List<CollectionTextRelation> pairs = new ArrayList<>();
+    String mentionString = mention.getCoveredText().toLowerCase();
+    if ( markableStrings.contains( mentionString ) ) {
+      for ( CollectionTextRelation cluster : JCasUtil.select( jcas, CollectionTextRelation.class ) ) {
+        Annotation mostRecent = ClusterUtils.getMostRecent( (NonEmptyFSList)cluster.getMembers(), mention );
+        if ( mostRecent == null ) continue;
+        for ( Markable m : JCasUtil.select( cluster.getMembers(), Markable.class ) ) {
+          if ( m == mostRecent ) break;
+          if ( m.getCoveredText().toLowerCase().equals( mentionString ) ) {
+            pairs.add( cluster );
+            break;
+          }
+        }
+      }
+    }
+    markableStrings.add( mentionString );
+    return pairs;
+  }
+
+}
@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ctakes.dictionary.compiler;
+
+import com.lexicalscope.jewel.cli.Option;
+
+/**
+ * Options for the {@link DictionaryCompiler}.  Lists are comma separated.
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+interface CompilerOptions {
+
+   @Option(
+         shortName = "u",
+         longName = "umlsDir",
+         description = "path to the UMLS installation, the directory that contains META/MRCONSO.RRF." )
+   String getUmlsDirectory();
+
+   @Option(
+         shortName = "o",
+         longName = "outputDir",
+         description = "path to the directory for the dictionary database and lookup xml.",
+         defaultValue = "resources/org/apache/ctakes/dictionary/lookup/fast" )
+   String getOutputDirectory();
+
+   @Option(
+         shortName = "n",
+         longName = "name",
+         description = "name of the dictionary.",
+         defaultValue = "custom" )
+   String getDictionaryName();
+
+   @Option(
+         longName = "termProcessing",
+         description = "term processing mode, the directory of text filter files under org/apache/ctakes/gui/dictionary/data.",
+         defaultValue = "tiny" )
+   String getTermProcessingMode();
+
+   @Option(
+         longName = "languages",
+         description = "MRCONSO languages of the wanted texts.",
+         defaultValue = "ENG" )
+   String getLanguages();
+
+   @Option(
+         longName = "sources",
+         description = "source vocabularies of the wanted concepts.",
+         defaultValue = "SNOMEDCT_US,RXNORM" )
+   String getSources();
+
+   @Option(
+         longName = "targets",
+         description = "source vocabularies with codes that are stored with the concepts.",
+         defaultValue = "SNOMEDCT_US,RXNORM" )
+   String getTargets();
+
+   @Option(
+         longName = "tuis",
+         description = "semantic types of the wanted concepts, e.g. T047,T184.  By default the cTAKES semantic groups.",
+         defaultValue = "" )
+   String getTuis();
+
+   @Option(
+         longName = "mapped",
+         description = "path for a memory mapped rare word dictionary, written in addition to the database.",
+         defaultValue = "" )
+   String getMappedPath();
+
+   @Option(
+         longName = "threads",
+         description = "number of threads that parse MRCONSO.  By default the number of processors.",
+         defaultValue = "0" )
+   int getThreadCount();
+
+   @Option(
+         longName = "sortBuffer",
+         description = "number of records that are sorted in memory before they are spilled to disk.",
+         defaultValue = "500000" )
+   int getSortBufferSize();
+
+   @Option(
+         longName = "tempDir",
+         description = "directory for sort files.  By default the system temporary directory.",
+         defaultValue = "" )
+   String getTempDirectory();
+
+   @Option(
+         shortName = "?",
+         longName = "help",
+         description = "print usage.",
+         helpRequest = true )
+   boolean isHelpWanted();
+
+}
@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ctakes.dictionary.compiler;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Comparator;
+
+/**
+ * What a single MRCONSO.RRF row contributes to its Concept.
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+final class ConsoRow {
+
+   static final String[] NO_TEXTS = new String[ 0 ];
+
+   /**
+    * Rows of a cui together, in file order
+    */
+   static final Comparator<ConsoRow> CUI_ORDER = ( r1, r2 ) -> {
+      final int compare = Long.compare( r1._cui, r2._cui );
+      return compare != 0 ? compare : Long.compare( r1._line, r2._line );
+   };
+
+   static private final byte VALID_VOCABULARY = 1;
+   static private final byte PREFERRED = 2;
+   static private final byte CODE = 4;
+
+   final long _cui;
+   final long _line;
+   // the row is in a wanted source vocabulary, which makes the cui valid
+   final boolean _validVocabulary;
+   // preferred text, or null if the row is not a preferred term
+   final String _preferredText;
+   final String[] _texts;
+   // source code of a wanted target vocabulary, or null
+   final String _source;
+   final String _code;
+
+   ConsoRow( final long cui, final long line, final boolean validVocabulary, final String preferredText,
+             final String[] texts, final String source, final String code ) {
+      _cui = cui;
+      _line = line;
+      _validVocabulary = validVocabulary;
+      _preferredText = preferredText;
+      _texts = texts;
+      _source = source;
+      _code = code;
+   }
+
+   static final ExternalSorter.RecordCodec<ConsoRow> CODEC = new ExternalSorter.RecordCodec<ConsoRow>() {
+      @Override
+      public void write( final DataOutputStream output, final ConsoRow row ) throws IOException {
+         output.writeLong( row._cui );
+         output.writeLong( row._line );
+         byte flags = 0;
+         if ( row._validVocabulary ) {
+            flags |= VALID_VOCABULARY;
+         }
+         if ( row._preferredText != null ) {
+            flags |= PREFERRED;
+         }
+         if ( row._code != null ) {
+            flags |= CODE;
+         }
+         output.writeByte( flags );
+         if ( row._preferredText != null ) {
+            output.writeUTF( row._preferredText );
+         }
+         output.writeShort( row._texts.length );
+         for ( String text : row._texts ) {
+            output.writeUTF( text );
+         }
+         if ( row._code != null ) {
+            output.writeUTF( row._source );
+            output.writeUTF( row._code );
+         }
+      }
+
+      @Override
+      public ConsoRow read( final DataInputStream input ) throws IOException {
+         final long cui = input.readLong();
+         final long line = input.readLong();
+         final byte flags = input.readByte();
+         final String preferredText = (flags & PREFERRED) != 0 ? input.readUTF() : null;
+         final int textCount = input.readUnsignedShort();
+         final String[] texts = textCount == 0 ? NO_TEXTS : new String[ textCount ];
+         for ( int i = 0; i < textCount; i++ ) {
+            texts[ i ] = input.readUTF();
+         }
+         String source = null;
+         String code = null;
+         if ( (flags & CODE) != 0 ) {
+            source = input.readUTF();
+            code = input.readUTF();
+         }
+         return new ConsoRow( cui, line, (flags & VALID_VOCABULARY) != 0, preferredText, texts, source, code );
+      }
+   };
+
+}
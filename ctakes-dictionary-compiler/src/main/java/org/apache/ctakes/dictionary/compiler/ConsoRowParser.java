@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ctakes.dictionary.compiler;
+
+import org.apache.ctakes.gui.dictionary.umls.CuiCodeUtil;
+import org.apache.ctakes.gui.dictionary.umls.DoseUtil;
+import org.apache.ctakes.gui.dictionary.umls.MrconsoIndex;
+import org.apache.ctakes.gui.dictionary.umls.MrconsoParser;
+import org.apache.ctakes.gui.dictionary.umls.UmlsTermUtil;
+import org.apache.ctakes.gui.dictionary.util.TextTokenizer;
+import org.apache.ctakes.gui.dictionary.util.TokenUtil;
+
+import java.util.*;
+
+import static org.apache.ctakes.gui.dictionary.umls.MrconsoIndex.*;
+
+/**
+ * Parses single MRCONSO.RRF lines with the same rules as {@link MrconsoParser}.
+ * <p>
+ * MrconsoParser reads the file twice, once for the cuis in the wanted source vocabularies and once for texts.
+ * Here both are taken from each line, and the cui is only known to be valid once all of its rows are merged.
+ * Lines do not depend on each other, so this can be called by many threads at once.
+ * </p>
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+final class ConsoRowParser {
+
+   private final TuiIndex _tuiIndex;
+   private final UmlsTermUtil _umlsTermUtil;
+   private final Collection<String> _wantedSources;
+   private final Collection<String> _wantedTargets;
+   private final Collection<String> _languages;
+   private final Collection<String> _invalidTypes;
+   private final int _minCharLength;
+   private final int _maxCharLength;
+   private final int _maxWordCount;
+   private final int _maxSymCount;
+
+   ConsoRowParser( final TuiIndex tuiIndex, final UmlsTermUtil umlsTermUtil,
+                   final Collection<String> wantedSources, final Collection<String> wantedTargets,
+                   final Collection<String> languages,
+                   final int minCharLength, final int maxCharLength, final int maxWordCount, final int maxSymCount ) {
+      _tuiIndex = tuiIndex;
+      _umlsTermUtil = umlsTermUtil;
+      _wantedSources = new HashSet<>( wantedSources );
+      _wantedTargets = new HashSet<>( wantedTargets );
+      _languages = new HashSet<>( languages );
+      _invalidTypes = new HashSet<>( Arrays.asList( MrconsoParser.getNonRxnormExclusions() ) );
+      _minCharLength = minCharLength;
+      _maxCharLength = maxCharLength;
+      _maxWordCount = maxWordCount;
+      _maxSymCount = maxSymCount;
+   }
+
+   /**
+    * @param line       line of MRCONSO.RRF
+    * @param lineNumber position of the line in the file
+    * @return what the line contributes to a concept with a wanted tui, or null if nothing
+    */
+   ConsoRow parse( final String line, final long lineNumber ) {
+      final List<String> tokens = TokenUtil.getBsvItems( line );
+      if ( tokens.size() <= TERM_TYPE._index ) {
+         return null;
+      }
+      final Long cuiCode = CuiCodeUtil.getInstance().getCuiCode( getToken( tokens, CUI ) );
+      if ( !_tuiIndex.contains( cuiCode ) ) {
+         return null;
+      }
+      // MrconsoParser.getValidVocabularyCuis
+      final boolean validVocabulary = _wantedSources.contains( getToken( tokens, SOURCE ) )
+                                      && !_invalidTypes.contains( getToken( tokens, TERM_TYPE ) );
+      // MrconsoParser.parseAllConcepts
+      if ( tokens.size() <= TEXT._index
+           || !_languages.contains( getToken( tokens, LANGUAGE ) )
+           || !isTermTypeOk( tokens ) ) {
+         return createRow( cuiCode, lineNumber, validVocabulary, null );
+      }
+      final String text = getToken( tokens, TEXT );
+      if ( !_umlsTermUtil.isTextValid( text.toLowerCase() ) ) {
+         return createRow( cuiCode, lineNumber, validVocabulary, null );
+      }
+      final String preferredText = isPreferredTerm( tokens ) ? text : null;
+      final String tokenizedText = TextTokenizer.getTokenizedText( text );
+      if ( tokenizedText == null || tokenizedText.isEmpty()
+           || !_umlsTermUtil.isTextValid( tokenizedText )
+           || DoseUtil.hasUnit( tokenizedText ) ) {
+         return createRow( cuiCode, lineNumber, validVocabulary, preferredText );
+      }
+      final String strippedText = _umlsTermUtil.getStrippedText( tokenizedText );
+      if ( strippedText == null || strippedText.isEmpty()
+           || UmlsTermUtil.isTextTooShort( strippedText, _minCharLength )
+           || UmlsTermUtil.isTextTooLong( strippedText, _maxCharLength, _maxWordCount, _maxSymCount ) ) {
+         return createRow( cuiCode, lineNumber, validVocabulary, preferredText );
+      }
+      final Collection<String> formattedTexts = _umlsTermUtil.getFormattedTexts( strippedText, true,
+            _minCharLength, _maxCharLength, _maxWordCount, _maxSymCount );
+      if ( formattedTexts == null || formattedTexts.isEmpty() ) {
+         return createRow( cuiCode, lineNumber, validVocabulary, preferredText );
+      }
+      final String[] texts = formattedTexts.toArray( new String[ formattedTexts.size() ] );
+      final String source = getToken( tokens, SOURCE );
+      final String code = getToken( tokens, SOURCE_CODE );
+      if ( _wantedTargets.contains( source ) && !code.equals( "NOCODE" ) ) {
+         return new ConsoRow( cuiCode, lineNumber, validVocabulary, preferredText, texts, source, code );
+      }
+      return new ConsoRow( cuiCode, lineNumber, validVocabulary, preferredText, texts, null, null );
+   }
+
+   static private ConsoRow createRow( final long cuiCode, final long lineNumber, final boolean validVocabulary,
+                                      final String preferredText ) {
+      if ( !validVocabulary && preferredText == null ) {
+         return null;
+      }
+      return new ConsoRow( cuiCode, lineNumber, validVocabulary, preferredText, ConsoRow.NO_TEXTS, null, null );
+   }
+
+   private boolean isTermTypeOk( final List<String> tokens ) {
+      final String type = getToken( tokens, TERM_TYPE );
+      if ( _invalidTypes.contains( type ) ) {
+         return false;
+      }
+      // "Synonyms" are actually undesirable in the rxnorm vocabulary
+      final String source = getToken( tokens, SOURCE );
+      return !(source.equals( "RXNORM" ) && type.equals( "SY" ));
+   }
+
+   static private boolean isPreferredTerm( final List<String> tokens ) {
+      return getToken( tokens, STATUS ).equals( "P" ) && getToken( tokens, FORM ).equals( "PF" );
+   }
+
+   static private String getToken( final List<String> tokens, final MrconsoIndex mrconsoIndex ) {
+      return tokens.get( mrconsoIndex._index );
+   }
+
+}
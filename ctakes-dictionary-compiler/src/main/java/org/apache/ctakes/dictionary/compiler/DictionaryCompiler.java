@@ -0,0 +1,539 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ctakes.dictionary.compiler;
+
+import com.lexicalscope.jewel.cli.ArgumentValidationException;
+import com.lexicalscope.jewel.cli.CliFactory;
+import org.apache.ctakes.dictionary.lookup2.dictionary.MappedRareWordDictionaryWriter;
+import org.apache.ctakes.dictionary.lookup2.term.RareWordTerm;
+import org.apache.ctakes.gui.dictionary.DictionaryXmlWriter;
+import org.apache.ctakes.gui.dictionary.umls.Concept;
+import org.apache.ctakes.gui.dictionary.umls.Tui;
+import org.apache.ctakes.gui.dictionary.umls.TuiGroups;
+import org.apache.ctakes.gui.dictionary.umls.UmlsTermUtil;
+import org.apache.ctakes.gui.dictionary.util.FileUtil;
+import org.apache.ctakes.gui.dictionary.util.HsqlUtil;
+import org.apache.ctakes.gui.dictionary.util.JdbcUtil;
+import org.apache.ctakes.gui.dictionary.util.RareWordUtil;
+import org.apache.log4j.Logger;
+
+import java.io.*;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Builds a fast lookup dictionary from a UMLS installation without the gui.
+ * <p>
+ * The result is the same as that of the DictionaryCreator, but the concepts are never all in memory at once.
+ * MRCONSO.RRF is read once and its lines are parsed in parallel.  Everything that is aggregated by cui or by text
+ * goes through an {@link ExternalSorter}, so the heap holds at most a sort buffer of records plus the index of
+ * wanted tuis and the counts of rare word tokens.
+ * </p>
+ * <ol>
+ * <li>Index the cuis with wanted tuis from MRSTY.RRF</li>
+ * <li>Parse MRCONSO.RRF lines in parallel and sort the rows by cui</li>
+ * <li>Merge the rows of each cui into a Concept, spool the concept and sort its synonyms by text</li>
+ * <li>Remove the rarer senses of ambiguous synonyms, the "poor man's wsd" of the DictionaryBuilder</li>
+ * <li>Join the concepts with their remaining synonyms and write the database</li>
+ * </ol>
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+final public class DictionaryCompiler {
+
+   static private final Logger LOGGER = Logger.getLogger( "DictionaryCompiler" );
+
+   static private final String DEFAULT_DATA_ROOT = "org/apache/ctakes/gui/dictionary/data";
+   static private final String MRCONSO_SUB_PATH = "/META/MRCONSO.RRF";
+   static private final int MIN_CHAR_LENGTH = 2;
+   static private final int MAX_CHAR_LENGTH = 48;
+   static private final int MAX_WORD_COUNT = 12;
+   static private final int MAX_SYM_COUNT = 7;
+   static private final int WSD_DIVISOR = 2;
+   static private final int ANAT_MULTIPLIER = 2;
+   static private final int LINE_BATCH_SIZE = 100000;
+
+   static private final Pattern COMMA_PATTERN = Pattern.compile( "\\s*,\\s*" );
+   static private final Pattern SPACE_PATTERN = Pattern.compile( "\\s+" );
+
+   private final CompilerOptions _options;
+   private final File _tempDir;
+   private final int _sortBufferSize;
+
+   DictionaryCompiler( final CompilerOptions options ) {
+      _options = options;
+      _tempDir = options.getTempDirectory().isEmpty() ? null : new File( options.getTempDirectory() );
+      _sortBufferSize = Math.max( 1, options.getSortBufferSize() );
+   }
+
+   /**
+    * @param args options as described by {@link CompilerOptions}
+    */
+   public static void main( final String... args ) {
+      final CompilerOptions options;
+      try {
+         options = CliFactory.parseArguments( CompilerOptions.class, args );
+      } catch ( ArgumentValidationException avE ) {
+         System.err.println( avE.getMessage() );
+         System.exit( 1 );
+         return;
+      }
+      try {
+         new DictionaryCompiler( options ).compile();
+      } catch ( IOException | SQLException multE ) {
+         LOGGER.error( multE.getMessage(), multE );
+         System.exit( 1 );
+      }
+   }
+
+   /**
+    * Compiles the dictionary described by the options
+    *
+    * @throws IOException  if the umls cannot be read or the dictionary cannot be written
+    * @throws SQLException if the database cannot be written
+    */
+   void compile() throws IOException, SQLException {
+      final long start = System.currentTimeMillis();
+      final String umlsDirPath = _options.getUmlsDirectory();
+      final Collection<Tui> wantedTuis = getWantedTuis( _options.getTuis() );
+      final Collection<Tui> wantedAnatTuis = EnumSet.noneOf( Tui.class );
+      wantedAnatTuis.addAll( wantedTuis );
+      wantedAnatTuis.retainAll( Arrays.asList( TuiGroups.CTAKES_ANAT ) );
+      final TuiIndex tuiIndex = TuiIndex.createIndex( umlsDirPath, wantedTuis );
+      final UmlsTermUtil umlsTermUtil
+            = new UmlsTermUtil( DEFAULT_DATA_ROOT + "/" + _options.getTermProcessingMode() );
+      final ConsoRowParser parser = new ConsoRowParser( tuiIndex, umlsTermUtil,
+            getList( _options.getSources() ), getList( _options.getTargets() ), getList( _options.getLanguages() ),
+            MIN_CHAR_LENGTH, MAX_CHAR_LENGTH, MAX_WORD_COUNT, MAX_SYM_COUNT );
+      final File conceptFile = File.createTempFile( "concepts", ".bin", _tempDir );
+      try ( ExternalSorter<ConsoRow> rowSorter
+                  = new ExternalSorter<>( "MRCONSO", ConsoRow.CUI_ORDER, ConsoRow.CODEC, _sortBufferSize, _tempDir );
+            ExternalSorter<Synonym> synonymSorter
+                  = new ExternalSorter<>( "Synonyms", Synonym.TEXT_ORDER, Synonym.CODEC, _sortBufferSize, _tempDir );
+            ExternalSorter<Synonym> keptSorter
+                  = new ExternalSorter<>( "Kept", Synonym.CUI_ORDER, Synonym.CODEC, _sortBufferSize, _tempDir ) ) {
+         parseMrconso( umlsDirPath + MRCONSO_SUB_PATH, parser, rowSorter );
+         final long conceptCount
+               = mergeConcepts( rowSorter, tuiIndex, wantedAnatTuis, conceptFile, synonymSorter );
+         rowSorter.close();
+         final Map<String, Long> tokenCounts = removeWsdRarities( synonymSorter, keptSorter );
+         synonymSorter.close();
+         writeDictionary( conceptFile, conceptCount, keptSorter, tokenCounts );
+      } finally {
+         if ( !conceptFile.delete() ) {
+            LOGGER.warn( "Could not delete " + conceptFile.getPath() );
+         }
+      }
+      LOGGER.info( "Compiled " + _options.getDictionaryName() + " in "
+                   + (System.currentTimeMillis() - start) / 1000 + " seconds" );
+   }
+
+   /**
+    * Reads batches of lines while the previous batch is parsed by the pool.
+    */
+   private void parseMrconso( final String mrconsoPath, final ConsoRowParser parser,
+                              final ExternalSorter<ConsoRow> rowSorter ) throws IOException {
+      final int threadCount = _options.getThreadCount() > 0
+                              ? _options.getThreadCount()
+                              : Runtime.getRuntime().availableProcessors();
+      LOGGER.info( "Parsing " + mrconsoPath + " with " + threadCount + " threads" );
+      final ForkJoinPool pool = new ForkJoinPool( threadCount );
+      long lineCount = 0;
+      try ( BufferedReader reader = FileUtil.createReader( mrconsoPath ) ) {
+         Future<?> parsing = null;
+         List<String> lines = readLines( reader );
+         while ( !lines.isEmpty() ) {
+            final List<String> batch = lines;
+            final long firstLine = lineCount;
+            final Future<?> batchParsing = pool.submit( () -> {
+               rowSorter.addAll( parseLines( parser, batch, firstLine ) );
+               return null;
+            } );
+            waitFor( parsing );
+            parsing = batchParsing;
+            lineCount += batch.size();
+            if ( lineCount % 1000000 < LINE_BATCH_SIZE ) {
+               LOGGER.info( "File Line " + lineCount + "\t Rows " + rowSorter.size() );
+            }
+            lines = readLines( reader );
+         }
+         waitFor( parsing );
+      } finally {
+         pool.shutdown();
+      }
+      LOGGER.info( "File Lines " + lineCount + "\t Rows " + rowSorter.size() );
+   }
+
+   static private List<String> readLines( final BufferedReader reader ) throws IOException {
+      final List<String> lines = new ArrayList<>( LINE_BATCH_SIZE );
+      String line = reader.readLine();
+      while ( line != null ) {
+         final String trimmed = line.trim();
+         if ( !trimmed.isEmpty() && !trimmed.startsWith( "//" ) ) {
+            lines.add( line );
+            if ( lines.size() == LINE_BATCH_SIZE ) {
+               break;
+            }
+         }
+         line = reader.readLine();
+      }
+      return lines;
+   }
+
+   static private List<ConsoRow> parseLines( final ConsoRowParser parser, final List<String> lines,
+                                             final long firstLine ) {
+      return IntStream.range( 0, lines.size() )
+            .parallel()
+            .mapToObj( i -> parser.parse( lines.get( i ), firstLine + i ) )
+            .filter( Objects::nonNull )
+            .collect( Collectors.toList() );
+   }
+
+   static private void waitFor( final Future<?> future ) throws IOException {
+      if ( future == null ) {
+         return;
+      }
+      try {
+         future.get();
+      } catch ( InterruptedException intE ) {
+         Thread.currentThread().interrupt();
+         throw new InterruptedIOException( "Interrupted while parsing" );
+      } catch ( ExecutionException exE ) {
+         final Throwable cause = exE.getCause();
+         if ( cause instanceof IOException ) {
+            throw (IOException)cause;
+         }
+         throw new IOException( cause );
+      }
+   }
+
+   /**
+    * Merges the rows of each cui into a Concept, as MrconsoParser and the start of the wsd did.
+    * Concepts are spooled in cui order and their synonyms are sorted by text for the wsd.
+    *
+    * @return number of concepts in the concept file
+    */
+   static private long mergeConcepts( final ExternalSorter<ConsoRow> rowSorter, final TuiIndex tuiIndex,
+                                      final Collection<Tui> wantedAnatTuis, final File conceptFile,
+                                      final ExternalSorter<Synonym> synonymSorter ) throws IOException {
+      LOGGER.info( "Merging Concepts" );
+      long conceptCount = 0;
+      long textCount = 0;
+      try ( DataOutputStream conceptOutput = new DataOutputStream(
+            new BufferedOutputStream( new FileOutputStream( conceptFile ), 1 << 16 ) ) ) {
+         final Iterator<ConsoRow> rows = rowSorter.sorted();
+         ConsoRow row = rows.hasNext() ? rows.next() : null;
+         while ( row != null ) {
+            final long cui = row._cui;
+            final Concept concept = new Concept();
+            boolean validVocabulary = false;
+            while ( row != null && row._cui == cui ) {
+               validVocabulary |= row._validVocabulary;
+               if ( row._preferredText != null ) {
+                  concept.setPreferredText( row._preferredText );
+               }
+               if ( row._texts.length > 0 ) {
+                  concept.addTexts( Arrays.asList( row._texts ) );
+               }
+               if ( row._code != null ) {
+                  concept.addCode( row._source, row._code );
+               }
+               row = rows.hasNext() ? rows.next() : null;
+            }
+            if ( !validVocabulary ) {
+               continue;
+            }
+            tuiIndex.getTuis( cui ).forEach( concept::addTui );
+            concept.cullExtensions();
+            if ( concept.isEmpty() ) {
+               continue;
+            }
+            ConceptRecord.write( conceptOutput, cui, concept );
+            conceptCount++;
+            final int multiplier = wantedAnatTuis.containsAll( concept.getTuis() ) ? ANAT_MULTIPLIER : 1;
+            final List<Synonym> synonyms = new ArrayList<>( concept.getSynonymCount() );
+            for ( String text : concept.getTexts() ) {
+               synonyms.add( new Synonym( text, cui, concept.getCount( text ) * multiplier ) );
+            }
+            synonymSorter.addAll( synonyms );
+            textCount += synonyms.size();
+         }
+      }
+      LOGGER.info( "Concepts: " + conceptCount + "  Texts: " + textCount );
+      return conceptCount;
+   }
+
+   /**
+    * Poor man's WSD.  For a synonym of several concepts, the concepts that use it much less often lose it.
+    *
+    * @return count of appearance in the kept texts per rarable token
+    */
+   static private Map<String, Long> removeWsdRarities( final ExternalSorter<Synonym> synonymSorter,
+                                                       final ExternalSorter<Synonym> keptSorter )
+         throws IOException {
+      LOGGER.info( "Performing Poor man's WSD ..." );
+      final Map<String, Long> tokenCounts = new HashMap<>();
+      final List<Synonym> group = new ArrayList<>();
+      long textCount = 0;
+      final Iterator<Synonym> synonyms = synonymSorter.sorted();
+      Synonym synonym = synonyms.hasNext() ? synonyms.next() : null;
+      while ( synonym != null ) {
+         final String text = synonym._text;
+         group.clear();
+         while ( synonym != null && synonym._text.equals( text ) ) {
+            group.add( synonym );
+            synonym = synonyms.hasNext() ? synonyms.next() : null;
+         }
+         final int maxCount = group.stream().mapToInt( s -> s._count ).max().orElse( 0 );
+         final List<Synonym> kept;
+         if ( group.size() == 1 || maxCount <= 1 ) {
+            kept = group;
+         } else {
+            final int threshold = (int)Math.floor( (double)maxCount / (double)WSD_DIVISOR );
+            kept = group.stream().filter( s -> s._count > threshold ).collect( Collectors.toList() );
+         }
+         if ( kept.isEmpty() ) {
+            continue;
+         }
+         keptSorter.addAll( kept );
+         textCount += kept.size();
+         final long textTokenCount = kept.size();
+         Arrays.stream( SPACE_PATTERN.split( text ) )
+               .filter( RareWordUtil::isRarableToken )
+               .forEach( t -> tokenCounts.merge( t, textTokenCount, Long::sum ) );
+      }
+      LOGGER.info( "Texts: " + textCount + "  Rarable Tokens: " + tokenCounts.size() );
+      return tokenCounts;
+   }
+
+   /**
+    * Joins the spooled concepts with their kept synonyms, both in cui order, and writes the database.
+    */
+   private void writeDictionary( final File conceptFile, final long conceptCount,
+                                 final ExternalSorter<Synonym> keptSorter,
+                                 final Map<String, Long> tokenCounts ) throws IOException, SQLException {
+      final String outputDirPath = _options.getOutputDirectory().replace( '\\', '/' );
+      final String name = _options.getDictionaryName();
+      final File outputDir = new File( outputDirPath );
+      if ( !outputDir.isDirectory() && !outputDir.mkdirs() ) {
+         throw new IOException( "Could not create directory " + outputDirPath );
+      }
+      final String url = HsqlUtil.URL_PREFIX + outputDirPath + "/" + name + "/" + name;
+      LOGGER.info( "Writing " + url );
+      final Connection connection = JdbcUtil.createDatabaseConnection( url, "SA", "" );
+      if ( !HsqlUtil.createDatabase( connection ) ) {
+         throw new SQLException( "Could not create tables in " + url );
+      }
+      if ( !DictionaryXmlWriter.writeXmlFile( outputDirPath, name ) ) {
+         throw new IOException( "Could not write " + name + ".xml in " + outputDirPath );
+      }
+      final String mappedPath = _options.getMappedPath();
+      try ( ExternalSorter<RareWordTerm> termSorter = mappedPath.isEmpty()
+                                                      ? null
+                                                      : new ExternalSorter<>( "Terms", TERM_ORDER, TERM_CODEC,
+                                                            _sortBufferSize, _tempDir );
+            DataInputStream conceptInput = new DataInputStream(
+                  new BufferedInputStream( new FileInputStream( conceptFile ), 1 << 16 ) ) ) {
+         final DictionaryDbWriter dbWriter = new DictionaryDbWriter( connection, tokenCounts );
+         final Iterator<Synonym> keptTexts = keptSorter.sorted();
+         Synonym kept = keptTexts.hasNext() ? keptTexts.next() : null;
+         final List<String> texts = new ArrayList<>();
+         for ( long i = 0; i < conceptCount; i++ ) {
+            final ConceptRecord concept = ConceptRecord.read( conceptInput );
+            texts.clear();
+            while ( kept != null && kept._cui < concept._cui ) {
+               kept = keptTexts.hasNext() ? keptTexts.next() : null;
+            }
+            while ( kept != null && kept._cui == concept._cui ) {
+               texts.add( kept._text );
+               kept = keptTexts.hasNext() ? keptTexts.next() : null;
+            }
+            if ( texts.isEmpty() ) {
+               continue;
+            }
+            final Collection<RareWordTerm> terms = dbWriter.writeConcept( concept._cui, texts, concept._tuis,
+                  concept._preferredText, concept._codes );
+            if ( termSorter != null ) {
+               termSorter.addAll( terms );
+            }
+         }
+         dbWriter.close();
+         if ( termSorter != null ) {
+            LOGGER.info( "Writing " + mappedPath );
+            MappedRareWordDictionaryWriter.writeGroupedDictionary( termSorter.sorted(), new File( mappedPath ) );
+         }
+      }
+   }
+
+   static private Collection<Tui> getWantedTuis( final String tuiList ) {
+      if ( tuiList.trim().isEmpty() ) {
+         return TuiGroups.getWantedTuis();
+      }
+      final Collection<Tui> wantedTuis = EnumSet.noneOf( Tui.class );
+      getList( tuiList ).stream().map( Tui::valueOf ).forEach( wantedTuis::add );
+      return wantedTuis;
+   }
+
+   static private Collection<String> getList( final String commaList ) {
+      return Arrays.stream( COMMA_PATTERN.split( commaList.trim() ) )
+            .filter( s -> !s.isEmpty() )
+            .collect( Collectors.toList() );
+   }
+
+
+   /**
+    * A synonym of a concept, with the number of its rows in MRCONSO weighted for anatomy
+    */
+   static private final class Synonym {
+      static private final Comparator<Synonym> TEXT_ORDER = ( s1, s2 ) -> {
+         final int compare = s1._text.compareTo( s2._text );
+         return compare != 0 ? compare : Long.compare( s1._cui, s2._cui );
+      };
+      static private final Comparator<Synonym> CUI_ORDER = ( s1, s2 ) -> {
+         final int compare = Long.compare( s1._cui, s2._cui );
+         return compare != 0 ? compare : s1._text.compareTo( s2._text );
+      };
+      static private final ExternalSorter.RecordCodec<Synonym> CODEC = new ExternalSorter.RecordCodec<Synonym>() {
+         @Override
+         public void write( final DataOutputStream output, final Synonym synonym ) throws IOException {
+            output.writeUTF( synonym._text );
+            output.writeLong( synonym._cui );
+            output.writeInt( synonym._count );
+         }
+
+         @Override
+         public Synonym read( final DataInputStream input ) throws IOException {
+            return new Synonym( input.readUTF(), input.readLong(), input.readInt() );
+         }
+      };
+
+      private final String _text;
+      private final long _cui;
+      private final int _count;
+
+      private Synonym( final String text, final long cui, final int count ) {
+         _text = text;
+         _cui = cui;
+         _count = count;
+      }
+   }
+
+
+   /**
+    * Everything but the synonyms of a merged Concept, spooled to disk between the merge and the database write
+    */
+   static private final class ConceptRecord {
+      static private final Tui[] TUIS = Tui.values();
+
+      private final long _cui;
+      private final String _preferredText;
+      private final Collection<Tui> _tuis;
+      private final Map<String, Collection<String>> _codes;
+
+      private ConceptRecord( final long cui, final String preferredText, final Collection<Tui> tuis,
+                             final Map<String, Collection<String>> codes ) {
+         _cui = cui;
+         _preferredText = preferredText;
+         _tuis = tuis;
+         _codes = codes;
+      }
+
+      static private void write( final DataOutputStream output, final long cui, final Concept concept )
+            throws IOException {
+         output.writeLong( cui );
+         output.writeUTF( concept.getPreferredText() );
+         output.writeByte( concept.getTuis().size() );
+         for ( Tui tui : concept.getTuis() ) {
+            output.writeShort( tui.ordinal() );
+         }
+         output.writeShort( concept.getVocabularies().size() );
+         for ( String vocabulary : concept.getVocabularies() ) {
+            output.writeUTF( vocabulary );
+            final Collection<String> codes = concept.getCodes( vocabulary );
+            output.writeInt( codes.size() );
+            for ( String code : codes ) {
+               output.writeUTF( code );
+            }
+         }
+      }
+
+      static private ConceptRecord read( final DataInputStream input ) throws IOException {
+         final long cui = input.readLong();
+         final String preferredText = input.readUTF();
+         final int tuiCount = input.readUnsignedByte();
+         final Collection<Tui> tuis = EnumSet.noneOf( Tui.class );
+         for ( int i = 0; i < tuiCount; i++ ) {
+            tuis.add( TUIS[ input.readShort() ] );
+         }
+         final int vocabularyCount = input.readUnsignedShort();
+         final Map<String, Collection<String>> codes = new HashMap<>( vocabularyCount );
+         for ( int i = 0; i < vocabularyCount; i++ ) {
+            final String vocabulary = input.readUTF();
+            final int codeCount = input.readInt();
+            final Collection<String> vocabularyCodes = new ArrayList<>( codeCount );
+            for ( int j = 0; j < codeCount; j++ ) {
+               vocabularyCodes.add( input.readUTF() );
+            }
+            codes.put( vocabulary, vocabularyCodes );
+         }
+         return new ConceptRecord( cui, preferredText, tuis, codes );
+      }
+   }
+
+
+   /**
+    * Lookup terms grouped by rare word for the mapped dictionary
+    */
+   static private final Comparator<RareWordTerm> TERM_ORDER = ( t1, t2 ) -> {
+      int compare = t1.getRareWord().compareTo( t2.getRareWord() );
+      if ( compare != 0 ) {
+         return compare;
+      }
+      compare = t1.getText().compareTo( t2.getText() );
+      return compare != 0 ? compare : t1.getCuiCode().compareTo( t2.getCuiCode() );
+   };
+
+   static private final ExternalSorter.RecordCodec<RareWordTerm> TERM_CODEC
+         = new ExternalSorter.RecordCodec<RareWordTerm>() {
+      @Override
+      public void write( final DataOutputStream output, final RareWordTerm term ) throws IOException {
+         output.writeUTF( term.getText() );
+         output.writeLong( term.getCuiCode() );
+         output.writeUTF( term.getRareWord() );
+         output.writeInt( term.getRareWordIndex() );
+         output.writeInt( term.getTokenCount() );
+      }
+
+      @Override
+      public RareWordTerm read( final DataInputStream input ) throws IOException {
+         return new RareWordTerm( input.readUTF(), input.readLong(), input.readUTF(), input.readInt(),
+               input.readInt() );
+      }
+   };
+
+}
@@ -0,0 +1,211 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ctakes.dictionary.compiler;
+
+import org.apache.ctakes.dictionary.lookup2.term.RareWordTerm;
+import org.apache.ctakes.gui.dictionary.umls.Concept;
+import org.apache.ctakes.gui.dictionary.umls.Tui;
+import org.apache.ctakes.gui.dictionary.umls.VocabularyStore;
+import org.apache.ctakes.gui.dictionary.util.JdbcUtil;
+import org.apache.ctakes.gui.dictionary.util.RareWordDbWriter;
+import org.apache.ctakes.gui.dictionary.util.RareWordUtil;
+import org.apache.log4j.Logger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.*;
+
+/**
+ * Writes concepts to the fast lookup tables one at a time, with the same rows as {@link RareWordDbWriter}.
+ * <p>
+ * RareWordDbWriter needs every concept in memory and executes one insert per row.
+ * Here rows are inserted in jdbc batches as concepts arrive, in cui order.
+ * </p>
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+final class DictionaryDbWriter {
+
+   static private final Logger LOGGER = Logger.getLogger( "DictionaryDbWriter" );
+
+   static private final int BATCH_SIZE = 10000;
+
+   private final Connection _connection;
+   private final Map<String, Long> _tokenCounts;
+   private final PreparedStatement _mainStatement;
+   private final PreparedStatement _tuiStatement;
+   private final PreparedStatement _preftermStatement;
+   private final Map<String, PreparedStatement> _codeStatements = new HashMap<>();
+   private final Collection<PreparedStatement> _statements = new ArrayList<>();
+   private int _batchCount;
+
+   private long _mainTableCount;
+   private long _tuiTableCount;
+   private long _preftermTableCount;
+   private final Map<String, Long> _codeTableCounts = new HashMap<>();
+
+   /**
+    * @param connection  connection to a database with tables created by HsqlUtil
+    * @param tokenCounts count of appearance in dictionary per term token, used to select rare words
+    * @throws SQLException if the insert statements cannot be prepared
+    */
+   DictionaryDbWriter( final Connection connection, final Map<String, Long> tokenCounts ) throws SQLException {
+      _connection = connection;
+      _tokenCounts = tokenCounts;
+      _connection.setAutoCommit( false );
+      _mainStatement = prepare( JdbcUtil.createRowInsertSql( "CUI_TERMS", "CUI", "RINDEX", "TCOUNT", "TEXT", "RWORD" ) );
+      _tuiStatement = prepare( JdbcUtil.createCodeInsertSql( "TUI" ) );
+      _preftermStatement = prepare( JdbcUtil.createCodeInsertSql( "PREFTERM" ) );
+      for ( String vocabulary : VocabularyStore.getInstance().getAllVocabularies() ) {
+         _codeStatements.put( vocabulary, prepare( JdbcUtil.createCodeInsertSql( vocabulary ) ) );
+         _codeTableCounts.put( vocabulary, 0L );
+      }
+   }
+
+   private PreparedStatement prepare( final String sql ) throws SQLException {
+      final PreparedStatement statement = _connection.prepareStatement( sql );
+      _statements.add( statement );
+      return statement;
+   }
+
+   /**
+    * @param cui           -
+    * @param texts         synonyms of the concept
+    * @param tuis          -
+    * @param preferredText -
+    * @param codes         map of vocabulary to codes of the concept in that vocabulary
+    * @return lookup terms written for the concept, empty if no text had a rare word and nothing was written
+    * @throws SQLException if rows cannot be inserted
+    */
+   Collection<RareWordTerm> writeConcept( final long cui, final Collection<String> texts,
+                                          final Collection<Tui> tuis, final String preferredText,
+                                          final Map<String, Collection<String>> codes ) throws SQLException {
+      final Collection<RareWordTerm> terms = new ArrayList<>( texts.size() );
+      // write main term table
+      for ( String text : texts ) {
+         if ( text.length() >= 255 ) {
+            continue;
+         }
+         final RareWordUtil.IndexedRareWord indexedRareWord = RareWordUtil.getIndexedRareWord( text, _tokenCounts );
+         if ( RareWordUtil.NULL_RARE_WORD.equals( indexedRareWord ) ) {
+            continue;
+         }
+         _mainStatement.setLong( 1, cui );
+         _mainStatement.setInt( 2, indexedRareWord.__index );
+         _mainStatement.setInt( 3, indexedRareWord.__tokenCount );
+         _mainStatement.setString( 4, text );
+         _mainStatement.setString( 5, indexedRareWord.__word );
+         addBatch( _mainStatement );
+         _mainTableCount++;
+         terms.add( new RareWordTerm( text, cui, indexedRareWord.__word, indexedRareWord.__index,
+               indexedRareWord.__tokenCount ) );
+      }
+      if ( terms.isEmpty() ) {
+         return terms;
+      }
+      // write tui table
+      for ( Tui tui : tuis ) {
+         _tuiStatement.setLong( 1, cui );
+         _tuiStatement.setInt( 2, tui.getIntValue() );
+         addBatch( _tuiStatement );
+         _tuiTableCount++;
+      }
+      // write preferred term table
+      if ( preferredText != null
+           && !preferredText.isEmpty()
+           && !preferredText.equals( Concept.PREFERRED_TERM_UNKNOWN ) ) {
+         _preftermStatement.setLong( 1, cui );
+         _preftermStatement.setString( 2, preferredText.length() > 511
+                                           ? preferredText.substring( 0, 510 )
+                                           : preferredText );
+         addBatch( _preftermStatement );
+         _preftermTableCount++;
+      }
+      // write extra vocabulary code tables
+      for ( Map.Entry<String, Collection<String>> vocabularyCodes : codes.entrySet() ) {
+         final String vocabulary = vocabularyCodes.getKey();
+         final PreparedStatement statement = _codeStatements.get( vocabulary );
+         final Class<?> type = VocabularyStore.getInstance().getVocabularyClass( vocabulary );
+         for ( String code : vocabularyCodes.getValue() ) {
+            statement.setLong( 1, cui );
+            setCodeAppropriately( statement, code, type );
+            addBatch( statement );
+            _codeTableCounts.merge( vocabulary, 1L, Long::sum );
+         }
+      }
+      return terms;
+   }
+
+   private void addBatch( final PreparedStatement statement ) throws SQLException {
+      statement.addBatch();
+      _batchCount++;
+      if ( _batchCount >= BATCH_SIZE ) {
+         executeBatches();
+      }
+   }
+
+   private void executeBatches() throws SQLException {
+      for ( PreparedStatement statement : _statements ) {
+         statement.executeBatch();
+      }
+      _connection.commit();
+      _batchCount = 0;
+   }
+
+   static private void setCodeAppropriately( final PreparedStatement statement, final String code,
+                                             final Class<?> type ) throws SQLException {
+      if ( String.class.equals( type ) ) {
+         statement.setString( 2, code );
+      } else if ( Double.class.equals( type ) ) {
+         statement.setDouble( 2, Double.valueOf( code ) );
+      } else if ( Long.class.equals( type ) ) {
+         statement.setLong( 2, Long.valueOf( code ) );
+      } else if ( Integer.class.equals( type ) ) {
+         statement.setInt( 2, Integer.valueOf( code ) );
+      } else {
+         LOGGER.error( "Could not set code for " + type );
+         statement.setString( 2, code );
+      }
+   }
+
+   /**
+    * Writes remaining rows, shuts down the database and closes the connection
+    *
+    * @throws SQLException if rows cannot be written or the database cannot be shut down
+    */
+   void close() throws SQLException {
+      executeBatches();
+      for ( PreparedStatement statement : _statements ) {
+         statement.close();
+      }
+      try ( Statement shutdownStatement = _connection.createStatement() ) {
+         shutdownStatement.execute( "SHUTDOWN" );
+      }
+      _connection.close();
+      LOGGER.info( "Main Table Rows " + _mainTableCount );
+      LOGGER.info( "Tui Table Rows " + _tuiTableCount );
+      LOGGER.info( "Preferred Term Table Rows " + _preftermTableCount );
+      _codeTableCounts.forEach( ( v, c ) -> LOGGER.info( v + " Table Rows " + c ) );
+   }
+
+}
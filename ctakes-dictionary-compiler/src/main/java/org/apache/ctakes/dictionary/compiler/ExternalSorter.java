@@ -0,0 +1,301 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ctakes.dictionary.compiler;
+
+import org.apache.log4j.Logger;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.util.*;
+
+/**
+ * Sorts more records than fit in memory.
+ * <p>
+ * Records are buffered until the buffer is full, then the buffer is sorted and spilled to a temporary run file.
+ * The sorted records are read back by merging the runs.  Runs are merged in passes of at most {@link #MAX_FAN_IN}
+ * files, so only a bounded number of files is open at once.
+ * Records that compare equal are returned in the order that they were added.
+ * Run files are deleted as soon as they have been merged, or when the sorter is closed.
+ * </p>
+ * Records may be added by several threads.  The sorted records must be read by a single thread, after all adds.
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+final class ExternalSorter<T> implements Closeable {
+
+   static private final Logger LOGGER = Logger.getLogger( "ExternalSorter" );
+
+   static private final int MAX_FAN_IN = 64;
+   static private final int BUFFER_BYTES = 1 << 16;
+
+   /**
+    * Writes and reads records in the run files.
+    */
+   interface RecordCodec<T> {
+      void write( DataOutputStream output, T record ) throws IOException;
+
+      T read( DataInputStream input ) throws IOException;
+   }
+
+   private final String _name;
+   private final Comparator<T> _comparator;
+   private final RecordCodec<T> _codec;
+   private final int _maxBufferSize;
+   private final File _tempDir;
+   private final List<File> _runs = new ArrayList<>();
+   private final Collection<Closeable> _openReaders = new ArrayList<>();
+   private List<T> _buffer = new ArrayList<>();
+   private long _size;
+
+   /**
+    * @param name          name for the log and run files
+    * @param comparator    sort order
+    * @param codec         reads and writes records in run files
+    * @param maxBufferSize number of records sorted in memory, the bound on the memory used by the sorter
+    * @param tempDir       directory for run files, null for the system temporary directory
+    */
+   ExternalSorter( final String name, final Comparator<T> comparator, final RecordCodec<T> codec,
+                   final int maxBufferSize, final File tempDir ) {
+      _name = name;
+      _comparator = comparator;
+      _codec = codec;
+      _maxBufferSize = maxBufferSize;
+      _tempDir = tempDir;
+   }
+
+   /**
+    * @param record record to sort
+    * @throws IOException if the buffer is full and cannot be spilled
+    */
+   synchronized void add( final T record ) throws IOException {
+      _buffer.add( record );
+      _size++;
+      if ( _buffer.size() >= _maxBufferSize ) {
+         spill();
+      }
+   }
+
+   /**
+    * @param records records to sort
+    * @throws IOException if the buffer is full and cannot be spilled
+    */
+   synchronized void addAll( final Collection<T> records ) throws IOException {
+      for ( T record : records ) {
+         add( record );
+      }
+   }
+
+   /**
+    * @return number of records added
+    */
+   synchronized long size() {
+      return _size;
+   }
+
+   private void spill() throws IOException {
+      if ( _buffer.isEmpty() ) {
+         return;
+      }
+      _runs.add( writeRun( sortBuffer() ) );
+      _buffer = new ArrayList<>();
+   }
+
+   @SuppressWarnings( "unchecked" )
+   private List<T> sortBuffer() {
+      // parallel sort is stable for objects, as is List.sort
+      final T[] records = (T[])_buffer.toArray();
+      Arrays.parallelSort( records, _comparator );
+      return Arrays.asList( records );
+   }
+
+   private File writeRun( final Iterable<T> records ) throws IOException {
+      final File run = File.createTempFile( _name, ".run", _tempDir );
+      try ( DataOutputStream output
+                  = new DataOutputStream( new BufferedOutputStream( new FileOutputStream( run ), BUFFER_BYTES ) ) ) {
+         for ( T record : records ) {
+            _codec.write( output, record );
+         }
+      } catch ( IOException | UncheckedIOException multE ) {
+         Files.deleteIfExists( run.toPath() );
+         throw multE;
+      }
+      return run;
+   }
+
+   /**
+    * May only be called once.
+    *
+    * @return all records in sorted order.  Valid until the sorter is closed.
+    * @throws IOException if run files cannot be read or merged
+    */
+   synchronized Iterator<T> sorted() throws IOException {
+      if ( _runs.isEmpty() ) {
+         final List<T> sorted = sortBuffer();
+         _buffer = new ArrayList<>();
+         return sorted.iterator();
+      }
+      spill();
+      LOGGER.info( "Merging " + _size + " " + _name + " records from " + _runs.size() + " runs" );
+      // merge passes keep the run order, so that equal records keep the order in which they were added
+      while ( _runs.size() > MAX_FAN_IN ) {
+         final List<File> merged = new ArrayList<>();
+         try {
+            for ( int i = 0; i < _runs.size(); i += MAX_FAN_IN ) {
+               final List<File> runs = _runs.subList( i, Math.min( _runs.size(), i + MAX_FAN_IN ) );
+               try ( MergeIterator merge = new MergeIterator( runs ) ) {
+                  merged.add( writeRun( () -> merge ) );
+               }
+            }
+         } catch ( IOException | UncheckedIOException multE ) {
+            deleteRuns( merged );
+            throw multE;
+         }
+         _runs.clear();
+         _runs.addAll( merged );
+      }
+      // the merge now owns the run files and deletes them once it has returned the last record
+      final MergeIterator merge = new MergeIterator( _runs );
+      _runs.clear();
+      _openReaders.add( merge );
+      return merge;
+   }
+
+   static private void deleteRuns( final Collection<File> runs ) throws IOException {
+      for ( File run : runs ) {
+         Files.deleteIfExists( run.toPath() );
+      }
+   }
+
+   /**
+    * Closes readers and deletes run files
+    */
+   @Override
+   synchronized public void close() throws IOException {
+      for ( Closeable reader : _openReaders ) {
+         reader.close();
+      }
+      _openReaders.clear();
+      deleteRuns( _runs );
+      _runs.clear();
+      _buffer = new ArrayList<>();
+   }
+
+
+   /**
+    * Head of a run in the merge
+    */
+   private final class RunReader {
+      private final int _index;
+      private final DataInputStream _input;
+      private T _head;
+
+      private RunReader( final int index, final File run ) throws IOException {
+         _index = index;
+         _input = new DataInputStream( new BufferedInputStream( new FileInputStream( run ), BUFFER_BYTES ) );
+      }
+
+      /**
+       * @return false if the run has no more records
+       */
+      private boolean advance() throws IOException {
+         try {
+            _head = _codec.read( _input );
+            return true;
+         } catch ( EOFException eofE ) {
+            _head = null;
+            _input.close();
+            return false;
+         }
+      }
+   }
+
+
+   /**
+    * k-way merge of sorted runs.  The runs are deleted when the merge is exhausted or closed.
+    */
+   private final class MergeIterator implements Iterator<T>, Closeable {
+      private final PriorityQueue<RunReader> _heads;
+      private final Collection<RunReader> _readers = new ArrayList<>();
+      private final Collection<File> _runFiles;
+
+      private MergeIterator( final List<File> runs ) throws IOException {
+         _runFiles = new ArrayList<>( runs );
+         _heads = new PriorityQueue<>( runs.size(), ( r1, r2 ) -> {
+            final int compare = _comparator.compare( r1._head, r2._head );
+            return compare != 0 ? compare : Integer.compare( r1._index, r2._index );
+         } );
+         try {
+            for ( int i = 0; i < runs.size(); i++ ) {
+               final RunReader reader = new RunReader( i, runs.get( i ) );
+               _readers.add( reader );
+               if ( reader.advance() ) {
+                  _heads.add( reader );
+               }
+            }
+         } catch ( IOException | RuntimeException openE ) {
+            // the caller still owns the run files, but the readers opened so far would leak
+            for ( RunReader reader : _readers ) {
+               try {
+                  reader._input.close();
+               } catch ( IOException closeE ) {
+                  openE.addSuppressed( closeE );
+               }
+            }
+            throw openE;
+         }
+      }
+
+      @Override
+      public boolean hasNext() {
+         return !_heads.isEmpty();
+      }
+
+      @Override
+      public T next() {
+         final RunReader reader = _heads.poll();
+         if ( reader == null ) {
+            throw new NoSuchElementException();
+         }
+         final T record = reader._head;
+         try {
+            if ( reader.advance() ) {
+               _heads.add( reader );
+            } else if ( _heads.isEmpty() ) {
+               close();
+            }
+         } catch ( IOException ioE ) {
+            throw new UncheckedIOException( ioE );
+         }
+         return record;
+      }
+
+      @Override
+      public void close() throws IOException {
+         for ( RunReader reader : _readers ) {
+            reader._input.close();
+         }
+         _heads.clear();
+         deleteRuns( _runFiles );
+         _runFiles.clear();
+      }
+   }
+
+}
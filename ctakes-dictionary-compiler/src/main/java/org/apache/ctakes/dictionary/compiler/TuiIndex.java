@@ -0,0 +1,163 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ctakes.dictionary.compiler;
+
+import org.apache.ctakes.gui.dictionary.umls.CuiCodeUtil;
+import org.apache.ctakes.gui.dictionary.umls.MrstyIndex;
+import org.apache.ctakes.gui.dictionary.umls.Tui;
+import org.apache.ctakes.gui.dictionary.util.FileUtil;
+import org.apache.log4j.Logger;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * The wanted Tuis of each Cui in MRSTY.RRF, in sorted primitive arrays.
+ * <p>
+ * MrstyParser creates a Concept for every Cui with a wanted Tui, which for a full UMLS is millions of objects.
+ * This index holds one long and one int per Cui, plus each distinct combination of Tuis once.
+ * </p>
+ * Instances are immutable and can be shared by threads.
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+final class TuiIndex {
+
+   static private final Logger LOGGER = Logger.getLogger( "TuiIndex" );
+
+   static private final String MRSTY_SUB_PATH = "/META/MRSTY.RRF";
+   static private final Tui[] TUIS = Tui.values();
+
+   private final long[] _cuis;
+   private final int[] _tuiSetIds;
+   private final List<Collection<Tui>> _tuiSets;
+
+   /**
+    * @param umlsDirPath path to the umls installation
+    * @param wantedTuis  only cuis with these tuis are indexed, and only these tuis
+    * @return index of the wanted tuis of cuis
+    * @throws IOException if MRSTY.RRF cannot be read
+    */
+   static TuiIndex createIndex( final String umlsDirPath, final Collection<Tui> wantedTuis ) throws IOException {
+      final String mrstyPath = umlsDirPath + MRSTY_SUB_PATH;
+      LOGGER.info( "Compiling index of Cuis with wanted Tuis using " + mrstyPath );
+      // cui code in the high bits, tui ordinal in the low byte
+      long[] cuiTuis = new long[ 1 << 16 ];
+      int count = 0;
+      long lineCount = 0;
+      try ( final BufferedReader reader = FileUtil.createReader( mrstyPath ) ) {
+         List<String> tokens = FileUtil.readBsvTokens( reader, mrstyPath );
+         while ( tokens != null ) {
+            lineCount++;
+            if ( lineCount % 1000000 == 0 ) {
+               LOGGER.info( "File Line " + lineCount + "\t Cui Tuis " + count );
+            }
+            if ( tokens.size() > MrstyIndex.TUI._index ) {
+               final Tui tui = getTui( tokens.get( MrstyIndex.TUI._index ) );
+               if ( tui != null && wantedTuis.contains( tui ) ) {
+                  final long cuiCode = CuiCodeUtil.getInstance().getCuiCode( tokens.get( MrstyIndex.CUI._index ) );
+                  if ( cuiCode >= 0 ) {
+                     if ( count == cuiTuis.length ) {
+                        cuiTuis = Arrays.copyOf( cuiTuis, count * 2 );
+                     }
+                     cuiTuis[ count ] = (cuiCode << 8) | tui.ordinal();
+                     count++;
+                  }
+               }
+            }
+            tokens = FileUtil.readBsvTokens( reader, mrstyPath );
+         }
+      }
+      Arrays.parallelSort( cuiTuis, 0, count );
+      final TuiIndex index = new TuiIndex( cuiTuis, count );
+      LOGGER.info( "File Lines " + lineCount + "\t Cuis " + index.size() + "\t for wanted Tuis" );
+      return index;
+   }
+
+   static private Tui getTui( final String tui ) {
+      try {
+         return Tui.valueOf( tui );
+      } catch ( IllegalArgumentException iaE ) {
+         return null;
+      }
+   }
+
+   /**
+    * @param cuiTuis sorted packed cui codes and tui ordinals
+    * @param count   number of packed values
+    */
+   private TuiIndex( final long[] cuiTuis, final int count ) {
+      final long[] cuis = new long[ count ];
+      final int[] tuiSetIds = new int[ count ];
+      final Map<Collection<Tui>, Integer> tuiSetIdMap = new HashMap<>();
+      _tuiSets = new ArrayList<>();
+      int cuiCount = 0;
+      int i = 0;
+      while ( i < count ) {
+         final long cui = cuiTuis[ i ] >>> 8;
+         final Collection<Tui> tuis = EnumSet.noneOf( Tui.class );
+         while ( i < count && cuiTuis[ i ] >>> 8 == cui ) {
+            tuis.add( TUIS[ (int)(cuiTuis[ i ] & 0xff) ] );
+            i++;
+         }
+         Integer tuiSetId = tuiSetIdMap.get( tuis );
+         if ( tuiSetId == null ) {
+            tuiSetId = _tuiSets.size();
+            tuiSetIdMap.put( tuis, tuiSetId );
+            _tuiSets.add( Collections.unmodifiableCollection( tuis ) );
+         }
+         cuis[ cuiCount ] = cui;
+         tuiSetIds[ cuiCount ] = tuiSetId;
+         cuiCount++;
+      }
+      _cuis = Arrays.copyOf( cuis, cuiCount );
+      _tuiSetIds = Arrays.copyOf( tuiSetIds, cuiCount );
+   }
+
+   /**
+    * @return number of cuis with wanted tuis
+    */
+   int size() {
+      return _cuis.length;
+   }
+
+   /**
+    * @param cuiCode -
+    * @return true if the cui has a wanted tui
+    */
+   boolean contains( final long cuiCode ) {
+      return Arrays.binarySearch( _cuis, cuiCode ) >= 0;
+   }
+
+   /**
+    * @param cuiCode -
+    * @return the wanted tuis of the cui, empty if the cui has none
+    */
+   Collection<Tui> getTuis( final long cuiCode ) {
+      final int index = Arrays.binarySearch( _cuis, cuiCode );
+      if ( index < 0 ) {
+         return Collections.emptySet();
+      }
+      return _tuiSets.get( _tuiSetIds[ index ] );
+   }
+
+}
@@ -81,7 +81,7 @@ final class DictionaryBuilder {
                                           final int wsdDivisor, final int anatMultiplier ) {
       LOGGER.info( "Performing Poor man's WSD ..." );
       final Collection<Tui> wantedAnatTuis = new ArrayList<>( wantedTuis );
-      wantedAnatTuis.retainAll( Arrays.asList( TuiTableModel.CTAKES_ANAT ) );
+      wantedAnatTuis.retainAll( Arrays.asList( TuiGroups.CTAKES_ANAT ) );
       final CollectionMap<String, Concept, Set<Concept>> synonymCodeMap = new HashSetMap<>( 500000 );
       for ( Concept concept : conceptMap.values() ) {
          concept.cullExtensions();
@@ -134,14 +134,14 @@ final class DictionaryBuilder {
                                         final Collection<Tui> wantedTuis ) {
       LOGGER.info( "Removing Non-Anatomy synonyms that are also Anatomy synonyms ..." );
       final Collection<Tui> wantedAnatTuis = new ArrayList<>( wantedTuis );
-      wantedAnatTuis.retainAll( Arrays.asList( TuiTableModel.CTAKES_ANAT ) );
+      wantedAnatTuis.retainAll( Arrays.asList( TuiGroups.CTAKES_ANAT ) );
       final Collection<String> anatTexts = conceptMap.values().stream()
             .filter( c -> wantedAnatTuis.containsAll( c.getTuis() ) )
             .map( Concept::getTexts )
             .flatMap( Collection::stream )
             .collect( Collectors.toSet() );
       final Collection<Tui> nonAnatTuis = new ArrayList<>( wantedTuis );
-      nonAnatTuis.removeAll( Arrays.asList( TuiTableModel.CTAKES_ANAT ) );
+      nonAnatTuis.removeAll( Arrays.asList( TuiGroups.CTAKES_ANAT ) );
       final Collection<Long> empties = new ArrayList<>();
       int textCount = 0;
       for ( Map.Entry<Long, Concept> entry : conceptMap.entrySet() ) {
@@ -165,10 +165,10 @@ final class DictionaryBuilder {
       LOGGER.info( "Removing Drug Concepts not in rxnorm ..." );
       // remove concepts that have only drug tuis but are not in rxnorm
       final Collection<Tui> drugTuis = new ArrayList<>( wantedTuis );
-      drugTuis.retainAll( Arrays.asList( TuiTableModel.CTAKES_DRUG ) );
+      drugTuis.retainAll( Arrays.asList( TuiGroups.CTAKES_DRUG ) );
       // remove concepts that are in rxnorm but have non-drug tuis
       final Collection<Tui> nonDrugTuis = new ArrayList<>( wantedTuis );
-      nonDrugTuis.removeAll( Arrays.asList( TuiTableModel.CTAKES_DRUG ) );
+      nonDrugTuis.removeAll( Arrays.asList( TuiGroups.CTAKES_DRUG ) );
       // if concept has drug tuis but is not in rxnorm || concept is in rxnorm but does not have drug tuis
       final Collection<Long> empties = new ArrayList<>();
       int textCount = 0;
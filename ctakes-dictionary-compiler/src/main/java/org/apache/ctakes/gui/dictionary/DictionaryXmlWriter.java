@@ -11,14 +11,14 @@ import java.io.*;
  * @version %I%
  * @since 12/12/2015
  */
-final class DictionaryXmlWriter {
+final public class DictionaryXmlWriter {
 
    static private final Logger LOGGER = Logger.getLogger( "DictionaryXmlWriter" );
 
    private DictionaryXmlWriter() {
    }
 
-   static boolean writeXmlFile( final String databaseDir, final String databaseName ) {
+   static public boolean writeXmlFile( final String databaseDir, final String databaseName ) {
       final File scriptFile = new File( databaseDir, databaseName + ".xml" );
       try ( final Writer writer = new BufferedWriter( new FileWriter( scriptFile ) ) ) {
          writer.write( "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" );
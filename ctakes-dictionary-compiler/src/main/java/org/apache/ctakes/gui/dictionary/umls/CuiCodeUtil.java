@@ -3,9 +3,9 @@ package org.apache.ctakes.gui.dictionary.umls;
 
 import org.apache.log4j.Logger;
 
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Author: SPF
@@ -22,7 +22,8 @@ public enum CuiCodeUtil {
    static private final Logger LOGGER = Logger.getLogger( "CuiCodeUtil" );
    static private final long PREFIX_MULTIPLIER = 100000000;
 
-   final private List<PrefixerPair> _prefixerPairList = new ArrayList<>();
+   // Read by parallel parsers, new prefixes are rare
+   final private List<PrefixerPair> _prefixerPairList = new CopyOnWriteArrayList<>();
 
    CuiCodeUtil() {
       // Add the standard C as the default encoding prefix
@@ -43,12 +44,20 @@ public enum CuiCodeUtil {
       final PrefixerPair prefixerPair = new PrefixerPair( cui );
       int prefixerIndex = _prefixerPairList.indexOf( prefixerPair );
       if ( prefixerIndex < 0 ) {
-         prefixerIndex = _prefixerPairList.size();
-         _prefixerPairList.add( prefixerPair );
+         prefixerIndex = addPrefixerPair( prefixerPair );
       }
       return prefixerPair.getCuiCode( cui, prefixerIndex );
    }
 
+   synchronized private int addPrefixerPair( final PrefixerPair prefixerPair ) {
+      final int prefixerIndex = _prefixerPairList.indexOf( prefixerPair );
+      if ( prefixerIndex >= 0 ) {
+         return prefixerIndex;
+      }
+      _prefixerPairList.add( prefixerPair );
+      return _prefixerPairList.size() - 1;
+   }
+
 
    static private final class PrefixerPair {
       final private int __digitCount;
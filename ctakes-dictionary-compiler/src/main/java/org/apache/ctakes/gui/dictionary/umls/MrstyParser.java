@@ -75,8 +75,11 @@ final public class MrstyParser {
             .collect( Collectors.joining( ", " ) );
       LOGGER.info( "File Lines " + lineCount + "\t Cuis: " + counts );
       if ( usedTuis.size() != wantedTuis.size() ) {
-         wantedTuis.removeAll( usedTuis );
-         for ( Tui missingTui : wantedTuis ) {
+         // the wanted tuis are used again by the wsd, so do not remove from them
+         final Collection<Tui> missingTuis = EnumSet.noneOf( Tui.class );
+         missingTuis.addAll( wantedTuis );
+         missingTuis.removeAll( usedTuis );
+         for ( Tui missingTui : missingTuis ) {
             LOGGER.warn( "Could not find Cuis for Tui " + missingTui + " " + missingTui.getDescription() );
          }
       }
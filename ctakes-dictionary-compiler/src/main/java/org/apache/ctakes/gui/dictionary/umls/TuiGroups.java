@@ -0,0 +1,42 @@
+package org.apache.ctakes.gui.dictionary.umls;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+
+import static org.apache.ctakes.gui.dictionary.umls.Tui.*;
+
+/**
+ * Semantic types of the cTAKES semantic groups.
+ * Shared by the dictionary creator gui and command line tools, so it must not depend on swing.
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+final public class TuiGroups {
+
+   static public final Tui[] CTAKES_ANAT = { T021, T022, T023, T024, T025, T026, T029, T030 };
+   static public final Tui[] CTAKES_DISO = { T019, T020, T037, T047, T048, T049, T050, T190, T191 };
+   static public final Tui[] CTAKES_FIND = { T033, T034, T040, T041, T042, T043, T044, T045, T046, T056, T057, T184 };
+   static public final Tui[] CTAKES_PROC = { T059, T060, T061 };
+   static public final Tui[] CTAKES_DRUG = { T109, T110, T114, T115, T116, T118, T119, T121, T122, T123, T124,
+                                             T125, T126, T127, T129, T130, T131, T195, T196, T197, T200, T203 };
+
+   private TuiGroups() {
+   }
+
+   /**
+    * @return a new modifiable collection of the tuis in all cTAKES semantic groups, the default wanted tuis
+    */
+   static public Collection<Tui> getWantedTuis() {
+      final Collection<Tui> wantedTuis = EnumSet.noneOf( Tui.class );
+      wantedTuis.addAll( Arrays.asList( CTAKES_ANAT ) );
+      wantedTuis.addAll( Arrays.asList( CTAKES_DISO ) );
+      wantedTuis.addAll( Arrays.asList( CTAKES_FIND ) );
+      wantedTuis.addAll( Arrays.asList( CTAKES_PROC ) );
+      wantedTuis.addAll( Arrays.asList( CTAKES_DRUG ) );
+      return wantedTuis;
+   }
+
+}
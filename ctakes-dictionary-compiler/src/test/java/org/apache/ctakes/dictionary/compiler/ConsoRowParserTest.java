@@ -0,0 +1,94 @@
+package org.apache.ctakes.dictionary.compiler;
+
+import org.apache.ctakes.gui.dictionary.umls.CuiCodeUtil;
+import org.apache.ctakes.gui.dictionary.umls.Tui;
+import org.apache.ctakes.gui.dictionary.umls.UmlsTermUtil;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+final public class ConsoRowParserTest {
+
+   @ClassRule
+   static public TemporaryFolder _folder = new TemporaryFolder();
+
+   static private ConsoRowParser _parser;
+
+   @BeforeClass
+   static public void createParser() throws IOException {
+      final File meta = _folder.newFolder( "META" );
+      Files.write( new File( meta, "MRSTY.RRF" ).toPath(), Arrays.asList(
+            "C0000001|T047|B2.2.1.2.1|Disease or Syndrome|AT1|256|",
+            "C0000002|T999|B2.2.1.2.1|Other|AT2|256|" ), StandardCharsets.UTF_8 );
+      final TuiIndex tuiIndex = TuiIndex.createIndex( _folder.getRoot().getPath(), EnumSet.of( Tui.T047 ) );
+      _parser = new ConsoRowParser( tuiIndex, new UmlsTermUtil( "org/apache/ctakes/gui/dictionary/data/tiny" ),
+            Arrays.asList( "SNOMEDCT_US", "RXNORM" ), Collections.singletonList( "SNOMEDCT_US" ),
+            Collections.singletonList( "ENG" ), 2, 48, 12, 7 );
+   }
+
+   @Test
+   public void testPreferredTerm() {
+      final ConsoRow row
+            = _parser.parse( "C0000001|ENG|P|L1|PF|S1|Y|A1||123||SNOMEDCT_US|PT|22298006|Heart attack|9|N||", 5 );
+      assertEquals( CuiCodeUtil.getInstance().getCuiCode( "C0000001" ).longValue(), row._cui );
+      assertEquals( 5, row._line );
+      assertTrue( row._validVocabulary );
+      assertEquals( "Heart attack", row._preferredText );
+      assertEquals( Collections.singletonList( "heart attack" ), Arrays.asList( row._texts ) );
+      assertEquals( "SNOMEDCT_US", row._source );
+      assertEquals( "22298006", row._code );
+   }
+
+   @Test
+   public void testOtherVocabulary() {
+      // texts are taken from every vocabulary, codes only from the targets
+      final ConsoRow row
+            = _parser.parse( "C0000001|ENG|S|L3|PF|S3|Y|A3||123||MSH|MH|D009203|Myocardial Infarction|9|N||", 0 );
+      assertFalse( row._validVocabulary );
+      assertNull( row._preferredText );
+      assertEquals( Collections.singletonList( "myocardial infarction" ), Arrays.asList( row._texts ) );
+      assertNull( row._source );
+      assertNull( row._code );
+   }
+
+   @Test
+   public void testNoTexts() {
+      // a wanted source makes the cui valid even if the text is not wanted
+      final ConsoRow spanish
+            = _parser.parse( "C0000001|SPA|S|L16|PF|S16|Y|A16||126||SNOMEDCT_US|SY|387458008|aspirina|9|N||", 0 );
+      assertTrue( spanish._validVocabulary );
+      assertEquals( 0, spanish._texts.length );
+      final ConsoRow rxnormSynonym = _parser.parse( "C0000001|ENG|S|L13|PF|S13|Y|A13||126||RXNORM|SY|1191|ASA|9|N||", 0 );
+      assertTrue( rxnormSynonym._validVocabulary );
+      assertEquals( 0, rxnormSynonym._texts.length );
+      assertNull( rxnormSynonym._code );
+   }
+
+   @Test
+   public void testNothingWanted() {
+      // not a wanted tui
+      assertNull( _parser.parse( "C0000002|ENG|P|L18|PF|S18|Y|A18||128||SNOMEDCT_US|PT|1234|Other thing|9|N||", 0 ) );
+      // not in mrsty
+      assertNull( _parser.parse( "C0000003|ENG|P|L18|PF|S18|Y|A18||128||SNOMEDCT_US|PT|1234|Other thing|9|N||", 0 ) );
+      // neither a wanted source nor a wanted text
+      assertNull( _parser.parse( "C0000001|SPA|S|L4|PF|S4|Y|A4||123||MSH|EN|D009203|frio|9|N||", 0 ) );
+      assertNull( _parser.parse( "C0000001|ENG|S", 0 ) );
+   }
+
+}
@@ -0,0 +1,131 @@
+package org.apache.ctakes.dictionary.compiler;
+
+import com.lexicalscope.jewel.cli.CliFactory;
+import org.apache.ctakes.gui.dictionary.umls.TuiGroups;
+import org.apache.ctakes.gui.dictionary.util.HsqlUtil;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.*;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * The compiler must write the same tables as the DictionaryBuilder of the dictionary creator gui.
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+final public class DictionaryCompilerTest {
+
+   static private final String[] MRCONSO = {
+         "C0000001|ENG|P|L1|PF|S1|Y|A1||123||SNOMEDCT_US|PT|22298006|Heart attack|9|N||",
+         "C0000001|ENG|S|L2|PF|S2|Y|A2||123||SNOMEDCT_US|SY|22298006|myocardial infarction|9|N||",
+         "C0000001|ENG|S|L3|PF|S3|Y|A3||123||MSH|MH|D009203|Myocardial Infarction|9|N||",
+         "C0000001|ENG|S|L4|PF|S4|Y|A4||123||MSH|EN|D009203|cold|9|N||",
+         "C0000002|ENG|P|L5|PF|S5|Y|A5||124||SNOMEDCT_US|PT|84229001|Fatigue|9|N||",
+         "C0000002|ENG|S|L6|PF|S6|Y|A6||124||SNOMEDCT_US|SY|84229001|tiredness|9|N||",
+         "C0000002|ENG|S|L7|PF|S7|Y|A7||124||SNOMEDCT_US|SY|84229002|cold|9|N||",
+         "C0000002|ENG|S|L8|PF|S8|Y|A8||124||MSH|SY|84229002|cold|9|N||",
+         "C0000002|ENG|S|L8|PF|S8|Y|A8||124||NCI|SY|84229002|cold|9|N||",
+         "C0000003|ENG|P|L9|PF|S9|Y|A9||125||SNOMEDCT_US|PT|80891009|Heart structure|9|N||",
+         "C0000003|ENG|S|L10|PF|S10|Y|A10||125||SNOMEDCT_US|SY|80891009|heart|9|N||",
+         "C0000003|ENG|S|L11|PF|S11|Y|A11||125||SNOMEDCT_US|SY|80891009|cold|9|N||",
+         "C0000004|ENG|P|L12|PF|S12|Y|A12||126||RXNORM|IN|1191|Aspirin|9|N||",
+         "C0000004|ENG|S|L13|PF|S13|Y|A13||126||RXNORM|SY|1191|ASA|9|N||",
+         "C0000004|ENG|S|L14|PF|S14|Y|A14||126||SNOMEDCT_US|PT|387458008|Aspirin product|9|N||",
+         "C0000004|ENG|S|L15|PF|S15|Y|A15||126||SNOMEDCT_US|SY|387458008|acetylsalicylic acid|9|N||",
+         "C0000004|SPA|S|L16|PF|S16|Y|A16||126||SNOMEDCT_US|SY|387458008|aspirina|9|N||",
+         "C0000005|ENG|P|L17|PF|S17|Y|A17||127||MSH|PT|D1|Only mesh disease|9|N||",
+         "C0000006|ENG|P|L18|PF|S18|Y|A18||128||SNOMEDCT_US|PT|1234|Other thing|9|N||",
+         "C0000007|ENG|P|L19|PF|S19|Y|A19||129||SNOMEDCT_US|PT|5555|Appendectomy|9|N||",
+         "C0000007|ENG|S|L20|PF|S20|Y|A20||129||SNOMEDCT_US|SY|5555|removal of appendix|9|N||",
+         "C0000007|ENG|S|L21|PF|S21|Y|A21||129||SNOMEDCT_US|SY|5556|heart attack surgery|9|N||" };
+
+   static private final String[] MRSTY = {
+         "C0000001|T047|B2.2.1.2.1|Disease or Syndrome|AT1|256|",
+         "C0000002|T047|B2.2.1.2.1|Disease or Syndrome|AT2|256|",
+         "C0000002|T184|A2.2.2|Sign or Symptom|AT3|256|",
+         "C0000003|T023|A1.2.3.1|Body Part, Organ, or Organ Component|AT4|256|",
+         "C0000004|T121|A1.4.1.1.1|Pharmacologic Substance|AT5|256|",
+         "C0000005|T047|B2.2.1.2.1|Disease or Syndrome|AT6|256|",
+         "C0000006|T999|B2.2.1.2.1|Other|AT7|256|",
+         "C0000007|T061|B1.3.1.3|Therapeutic or Preventive Procedure|AT8|256|" };
+
+   @Rule
+   public TemporaryFolder _folder = new TemporaryFolder();
+
+   @Test
+   public void testSameAsDictionaryBuilder() throws Exception {
+      final File umlsDir = _folder.newFolder( "umls" );
+      final File meta = new File( umlsDir, "META" );
+      assertTrue( meta.mkdir() );
+      Files.write( new File( meta, "MRCONSO.RRF" ).toPath(), Arrays.asList( MRCONSO ), StandardCharsets.UTF_8 );
+      Files.write( new File( meta, "MRSTY.RRF" ).toPath(), Arrays.asList( MRSTY ), StandardCharsets.UTF_8 );
+
+      final File ctakesDir = _folder.newFolder( "ctakes" );
+      final Class<?> builder = Class.forName( "org.apache.ctakes.gui.dictionary.DictionaryBuilder" );
+      final Method buildDictionary = builder.getDeclaredMethod( "buildDictionary", String.class, String.class,
+            String.class, String.class, Collection.class, Collection.class, Collection.class, Collection.class );
+      buildDictionary.setAccessible( true );
+      assertEquals( true, buildDictionary.invoke( null, umlsDir.getPath(), ctakesDir.getPath(), "built", "tiny",
+            Collections.singletonList( "ENG" ), Arrays.asList( "SNOMEDCT_US", "RXNORM" ),
+            Arrays.asList( "SNOMEDCT_US", "RXNORM" ), TuiGroups.getWantedTuis() ) );
+      final List<String> expected
+            = readTables( new File( ctakesDir, "resources/org/apache/ctakes/dictionary/lookup/fast/built/built" ) );
+      assertFalse( expected.isEmpty() );
+
+      // a buffer of 2 records spills nearly every row
+      for ( String sortBuffer : new String[] { "500000", "2" } ) {
+         final File outputDir = _folder.newFolder( "compiled" + sortBuffer );
+         final File tempDir = _folder.newFolder( "temp" + sortBuffer );
+         final CompilerOptions options = CliFactory.parseArguments( CompilerOptions.class,
+               "-u", umlsDir.getPath(), "-o", outputDir.getPath(), "-n", "compiled", "--threads", "2",
+               "--sortBuffer", sortBuffer, "--tempDir", tempDir.getPath() );
+         new DictionaryCompiler( options ).compile();
+         assertEquals( expected, readTables( new File( outputDir, "compiled/compiled" ) ) );
+         assertEquals( 0, tempDir.list().length );
+         assertTrue( new File( outputDir, "compiled.xml" ).isFile() );
+      }
+   }
+
+   /**
+    * @return sorted rows of all tables, prefixed by the table name
+    */
+   static private List<String> readTables( final File database ) throws SQLException {
+      final List<String> rows = new ArrayList<>();
+      try ( Connection connection
+                  = DriverManager.getConnection( HsqlUtil.URL_PREFIX + database.getPath(), "SA", "" );
+            Statement statement = connection.createStatement() ) {
+         final List<String> tables = new ArrayList<>();
+         try ( ResultSet tableSet = connection.getMetaData().getTables( null, "PUBLIC", "%", null ) ) {
+            while ( tableSet.next() ) {
+               tables.add( tableSet.getString( 3 ) );
+            }
+         }
+         for ( String table : tables ) {
+            try ( ResultSet resultSet = statement.executeQuery( "SELECT * FROM " + table ) ) {
+               final int columnCount = resultSet.getMetaData().getColumnCount();
+               while ( resultSet.next() ) {
+                  final StringBuilder sb = new StringBuilder( table );
+                  for ( int i = 1; i <= columnCount; i++ ) {
+                     sb.append( '|' ).append( resultSet.getString( i ) );
+                  }
+                  rows.add( sb.toString() );
+               }
+            }
+         }
+         statement.execute( "SHUTDOWN" );
+      }
+      Collections.sort( rows );
+      return rows;
+   }
+
+}
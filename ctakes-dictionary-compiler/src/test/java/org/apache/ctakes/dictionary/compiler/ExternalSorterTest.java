@@ -0,0 +1,123 @@
+package org.apache.ctakes.dictionary.compiler;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+final public class ExternalSorterTest {
+
+   /**
+    * Records are sorted by key only, the sequence number checks that equal keys keep the order of addition
+    */
+   static private final Comparator<int[]> KEY_ORDER = ( r1, r2 ) -> Integer.compare( r1[ 0 ], r2[ 0 ] );
+   static private final ExternalSorter.RecordCodec<int[]> CODEC = new ExternalSorter.RecordCodec<int[]>() {
+      @Override
+      public void write( final DataOutputStream output, final int[] record ) throws IOException {
+         output.writeInt( record[ 0 ] );
+         output.writeInt( record[ 1 ] );
+      }
+
+      @Override
+      public int[] read( final DataInputStream input ) throws IOException {
+         return new int[] { input.readInt(), input.readInt() };
+      }
+   };
+
+   @Rule
+   public TemporaryFolder _folder = new TemporaryFolder();
+
+   @Test
+   public void testInMemory() throws IOException {
+      assertSorted( 1000, 2000 );
+      assertEquals( 0, _folder.getRoot().list().length );
+   }
+
+   @Test
+   public void testSingleMerge() throws IOException {
+      assertSorted( 1000, 100 );
+   }
+
+   @Test
+   public void testMergePasses() throws IOException {
+      // more runs than can be merged at once
+      assertSorted( 10000, 7 );
+   }
+
+   @Test
+   public void testEmpty() throws IOException {
+      try ( ExternalSorter<int[]> sorter = createSorter( 10 ) ) {
+         assertEquals( 0, sorter.size() );
+         assertFalse( sorter.sorted().hasNext() );
+      }
+   }
+
+   @Test
+   public void testCloseDeletesRuns() throws IOException {
+      final ExternalSorter<int[]> sorter = createSorter( 10 );
+      for ( int i = 0; i < 100; i++ ) {
+         sorter.add( new int[] { 100 - i, i } );
+      }
+      assertEquals( 10, _folder.getRoot().list().length );
+      final Iterator<int[]> sorted = sorter.sorted();
+      assertEquals( 1, sorted.next()[ 0 ] );
+      // the merge still reads the runs
+      assertEquals( 10, _folder.getRoot().list().length );
+      sorter.close();
+      assertEquals( 0, _folder.getRoot().list().length );
+   }
+
+   private ExternalSorter<int[]> createSorter( final int bufferSize ) {
+      return new ExternalSorter<>( "Test", KEY_ORDER, CODEC, bufferSize, _folder.getRoot() );
+   }
+
+   private void assertSorted( final int count, final int bufferSize ) throws IOException {
+      final Random random = new Random( count );
+      final List<int[]> records = new ArrayList<>( count );
+      for ( int i = 0; i < count; i++ ) {
+         records.add( new int[] { random.nextInt( count / 10 ), i } );
+      }
+      try ( ExternalSorter<int[]> sorter = createSorter( bufferSize ) ) {
+         // add from several threads, in order within each batch
+         records.subList( 0, count / 2 ).parallelStream().forEach( r -> add( sorter, r ) );
+         sorter.addAll( records.subList( count / 2, count ) );
+         assertEquals( count, sorter.size() );
+         final Iterator<int[]> sorted = sorter.sorted();
+         final List<int[]> actual = new ArrayList<>( count );
+         sorted.forEachRemaining( actual::add );
+         assertEquals( count, actual.size() );
+         final List<int[]> expected = new ArrayList<>( records );
+         expected.sort( KEY_ORDER );
+         for ( int i = 0; i < count; i++ ) {
+            assertEquals( expected.get( i )[ 0 ], actual.get( i )[ 0 ] );
+            if ( i > 0 && actual.get( i )[ 0 ] == actual.get( i - 1 )[ 0 ] && actual.get( i )[ 1 ] >= count / 2 ) {
+               assertTrue( "Equal records must keep the order in which they were added",
+                     actual.get( i )[ 1 ] > actual.get( i - 1 )[ 1 ] );
+            }
+         }
+         // runs are deleted as soon as the merge is done
+         assertEquals( 0, _folder.getRoot().list().length );
+      }
+   }
+
+   static private void add( final ExternalSorter<int[]> sorter, final int[] record ) {
+      try {
+         sorter.add( record );
+      } catch ( IOException ioE ) {
+         throw new RuntimeException( ioE );
+      }
+   }
+
+}
@@ -134,10 +134,25 @@ abstract public class AbstractJCasTermAnnotator extends JCasAnnotator_ImplBase
          descriptorFilePath = _lookupXml;
       }
       LOGGER.info( "Using Dictionary Descriptor: " + descriptorFilePath );
+      try {
+         _dictionarySpec = loadDictionarySpec( descriptorFilePath, uimaContext );
+      } catch ( IOException ioE ) {
+         throw new ResourceInitializationException( ioE );
+      }
+   }
+
+   /**
+    * @param descriptorFilePath path to the dictionary specifications file
+    * @param uimaContext        -
+    * @return dictionaries, concept factories and consumer specified in the file
+    * @throws IOException if the file cannot be read or parsed
+    */
+   protected DictionarySpec loadDictionarySpec( final String descriptorFilePath, final UimaContext uimaContext )
+         throws IOException {
       try ( InputStream descriptorStream = FileLocator.getAsStream( descriptorFilePath ) ) {
-         _dictionarySpec = DictionaryDescriptorParser.parseDescriptor( descriptorStream, uimaContext );
-      } catch ( IOException | AnnotatorContextException multE ) {
-         throw new ResourceInitializationException( multE );
+         return DictionaryDescriptorParser.parseDescriptor( descriptorStream, uimaContext );
+      } catch ( AnnotatorContextException acE ) {
+         throw new IOException( acE );
       }
    }
 
@@ -160,6 +175,8 @@ abstract public class AbstractJCasTermAnnotator extends JCasAnnotator_ImplBase
          final CollectionMap<TextSpan, Long, ? extends Collection<Long>> textSpanCuis = new HashSetMap<>();
          dictionaryTermsMap.put( dictionary, textSpanCuis );
       }
+      // Let dictionaries that are backed by a database fetch all of the document's rare words at once
+      prefetchRareWords( windowTokens.values() );
       try {
 //         for ( Object window : lookupWindows ) {
 //            if ( isWindowOk( (Annotation)window ) ) {
@@ -199,6 +216,33 @@ abstract public class AbstractJCasTermAnnotator extends JCasAnnotator_ImplBase
    }
 
 
+   /**
+    * Passes the text and variant of every lookup token in the document to
+    * {@link RareWordDictionary#prefetchRareWordHits(Collection)}
+    *
+    * @param windowBaseTokens baseTokens in each lookup window
+    */
+   protected void prefetchRareWords( final Collection<Collection<BaseToken>> windowBaseTokens ) {
+      final Collection<String> lookupTexts = new HashSet<>();
+      for ( Collection<BaseToken> baseTokens : windowBaseTokens ) {
+         for ( BaseToken baseToken : baseTokens ) {
+            if ( isLookupToken( baseToken ) ) {
+               final FastLookupToken lookupToken = new FastLookupToken( baseToken );
+               lookupTexts.add( lookupToken.getText() );
+               if ( lookupToken.getVariant() != null ) {
+                  lookupTexts.add( lookupToken.getVariant() );
+               }
+            }
+         }
+      }
+      if ( lookupTexts.isEmpty() ) {
+         return;
+      }
+      for ( RareWordDictionary dictionary : getDictionaries() ) {
+         dictionary.prefetchRareWordHits( lookupTexts );
+      }
+   }
+
    /**
     * {@inheritDoc}
     */
@@ -318,23 +362,33 @@ abstract public class AbstractJCasTermAnnotator extends JCasAnnotator_ImplBase
          if ( baseToken instanceof NewlineToken ) {
             continue;
          }
-         final boolean isNonLookup = baseToken instanceof PunctuationToken
-               || baseToken instanceof NumberToken
-               || baseToken instanceof ContractionToken
-               || baseToken instanceof SymbolToken;
-         // We are only interested in tokens that are -words-
-         if ( !isNonLookup ) {
-            // POS exclusion logic for first word lookup
-            final String partOfSpeech = baseToken.getPartOfSpeech();
-            if ( partOfSpeech == null || !_exclusionPartsOfSpeech.contains( partOfSpeech ) ) {
-               lookupTokenIndices.add( allTokens.size() );
-            }
+         if ( isLookupToken( baseToken ) ) {
+            lookupTokenIndices.add( allTokens.size() );
          }
          final FastLookupToken lookupToken = new FastLookupToken( baseToken );
          allTokens.add( lookupToken );
       }
    }
 
+   /**
+    * @param baseToken -
+    * @return true if the token is a word that does not have an excluded part of speech
+    */
+   protected boolean isLookupToken( final BaseToken baseToken ) {
+      final boolean isNonLookup = baseToken instanceof NewlineToken
+            || baseToken instanceof PunctuationToken
+            || baseToken instanceof NumberToken
+            || baseToken instanceof ContractionToken
+            || baseToken instanceof SymbolToken;
+      // We are only interested in tokens that are -words-
+      if ( isNonLookup ) {
+         return false;
+      }
+      // POS exclusion logic for first word lookup
+      final String partOfSpeech = baseToken.getPartOfSpeech();
+      return partOfSpeech == null || !_exclusionPartsOfSpeech.contains( partOfSpeech );
+   }
+
    static protected int parseInt( final Object value, final String name, final int defaultValue ) {
       if ( value instanceof Integer ) {
          return (Integer)value;
@@ -2,6 +2,7 @@ package org.apache.ctakes.dictionary.lookup2.concept;
 
 import org.apache.ctakes.core.util.collection.CollectionMap;
 import org.apache.ctakes.core.util.collection.HashSetMap;
+import org.apache.ctakes.core.util.collection.LongKeyCache;
 import org.apache.ctakes.dictionary.lookup2.util.CuiCodeUtil;
 import org.apache.ctakes.dictionary.lookup2.util.JdbcConnectionFactory;
 import org.apache.ctakes.dictionary.lookup2.util.TuiCodeUtil;
@@ -14,6 +15,10 @@ import java.util.*;
 import static org.apache.ctakes.dictionary.lookup2.util.JdbcConnectionFactory.*;
 
 /**
+ * Concepts are fetched for a whole document at once, with one {@code IN} query per concept table for every
+ * {@value #BATCH_SIZE} cuis.  Fetched concepts are kept in a bounded cache that lives as long as the factory,
+ * so that common concepts are only fetched once per run.  Thread safe lookups share a single factory, and its cache,
+ * between their delegates.  The cache size is set with the property {@value #CACHE_SIZE}.
  * Author: SPF
  * Affiliation: CHIP-NLP
  * Date: 11/20/13
@@ -30,22 +35,29 @@ public class JdbcConceptFactory extends AbstractConceptFactory {
    static private final String TUI_CLASS = Concept.TUI;
    static private final String PREFTERM_CLASS = Concept.PREFTERM;
 
+   static public final String CACHE_SIZE = "conceptCacheSize";
+   static public final String BATCH_SIZE = "conceptBatchSize";
 
+   static private final int DEFAULT_CACHE_SIZE = 100000;
+   static private final int DEFAULT_BATCH_SIZE = 500;
+
+
+   private final Connection _connection;
    private final Collection<ConceptTableInfo> _conceptTableInfos;
+   private final boolean _hasPrefTermTable;
+   private final LongKeyCache<Concept> _conceptCache;
+   private final int _batchSize;
 
 
    static private class ConceptTableInfo {
-      //      private final String __tableName;
+      private final String __tableName;
       private final String __conceptName;
       private final String __classType;
-      private final PreparedStatement __preparedStatement;
 
-      private ConceptTableInfo( final String tableName, final String conceptName, final String classType,
-                                final PreparedStatement preparedStatement ) {
-//         __tableName = tableName;
+      private ConceptTableInfo( final String tableName, final String conceptName, final String classType ) {
+         __tableName = tableName;
          __conceptName = conceptName;
          __classType = classType;
-         __preparedStatement = preparedStatement;
       }
    }
 
@@ -112,7 +124,9 @@ public class JdbcConceptFactory extends AbstractConceptFactory {
       this( name,
             properties.getProperty( JDBC_DRIVER ), properties.getProperty( JDBC_URL ),
             properties.getProperty( JDBC_USER ), properties.getProperty( JDBC_PASS ),
-            getConceptTables( properties ) );
+            getConceptTables( properties ),
+            parseInt( properties.getProperty( CACHE_SIZE ), DEFAULT_CACHE_SIZE ),
+            parseInt( properties.getProperty( BATCH_SIZE ), DEFAULT_BATCH_SIZE ) );
    }
 
    public JdbcConceptFactory( final String name,
@@ -120,23 +134,34 @@ public class JdbcConceptFactory extends AbstractConceptFactory {
                               final String jdbcUser, final String jdbcPass,
                               final Map<String, String> conceptTables )
          throws SQLException {
+      this( name, jdbcDriver, jdbcUrl, jdbcUser, jdbcPass, conceptTables, DEFAULT_CACHE_SIZE, DEFAULT_BATCH_SIZE );
+   }
+
+   public JdbcConceptFactory( final String name,
+                              final String jdbcDriver, final String jdbcUrl,
+                              final String jdbcUser, final String jdbcPass,
+                              final Map<String, String> conceptTables,
+                              final int cacheSize, final int batchSize )
+         throws SQLException {
       super( name );
-      boolean connected = false;
+      Connection connection = null;
       try {
          // DO NOT use try with resources here.
          // Try with resources uses a closable and closes it when exiting the try block
-         final Connection connection
-               = JdbcConnectionFactory.getInstance().getConnection( jdbcDriver, jdbcUrl, jdbcUser, jdbcPass );
-         connected = connection != null;
+         connection = JdbcConnectionFactory.getInstance().getConnection( jdbcDriver, jdbcUrl, jdbcUser, jdbcPass );
+         _connection = connection;
          _conceptTableInfos = createTableInfos( connection, conceptTables );
       } catch ( SQLException sqlE ) {
-         if ( !connected ) {
+         if ( connection == null ) {
             LOGGER.error( "Could not Connect to Concept Factory " + name );
          } else {
             LOGGER.error( "Could not create Concept Data Selection Call", sqlE );
          }
          throw sqlE;
       }
+      _hasPrefTermTable = _conceptTableInfos.stream().anyMatch( i -> i.__classType.equals( PREFTERM_CLASS ) );
+      _conceptCache = new LongKeyCache<>( Math.max( 1, cacheSize ) );
+      _batchSize = Math.max( 1, batchSize );
    }
 
    /**
@@ -144,154 +169,166 @@ public class JdbcConceptFactory extends AbstractConceptFactory {
     */
    @Override
    public Concept createConcept( final Long cuiCode ) {
-      final CollectionMap<String, String, ? extends Collection<String>> codes = new HashSetMap<>();
-      String prefTerm = null;
-      for ( ConceptTableInfo conceptTableInfo : _conceptTableInfos ) {
-         switch ( conceptTableInfo.__classType ) {
-            case TUI_CLASS: {
-               codes.addAllValues( conceptTableInfo.__conceptName,
-                     getTuiCodes( conceptTableInfo.__preparedStatement, cuiCode ) );
-               break;
-            }
-            case PREFTERM_CLASS: {
-               prefTerm = getPreferredTerm( conceptTableInfo.__preparedStatement, cuiCode );
-               break;
-            }
-            case INT_CLASS: {
-               codes.addAllValues( conceptTableInfo.__conceptName,
-                     getIntegerCodes( conceptTableInfo.__preparedStatement, cuiCode ) );
-               break;
-            }
-            case LONG_CLASS: {
-               codes.addAllValues( conceptTableInfo.__conceptName,
-                     getLongCodes( conceptTableInfo.__preparedStatement, cuiCode ) );
-               break;
-            }
-            case TEXT_CLASS: {
-               codes.addAllValues( conceptTableInfo.__conceptName,
-                     getStringCodes( conceptTableInfo.__preparedStatement, cuiCode ) );
-               break;
-            }
-         }
+      final Concept cachedConcept = _conceptCache.get( cuiCode );
+      if ( cachedConcept != null ) {
+         return cachedConcept;
       }
-      return new DefaultConcept( CuiCodeUtil.getInstance().getAsCui( cuiCode ), prefTerm, codes );
+      return fetchConcepts( Collections.singletonList( cuiCode ) ).get( cuiCode );
    }
 
    /**
-    * @param selectCall jdbc selection call
-    * @param cuiCode    cui of interest
-    * @return collection of tuis that are related to cui as obtained with the selectCall
+    * Only creates non-empty concepts; Cuis for which additional info does not exist don't create concepts
+    * {@inheritDoc}
     */
-   static private Collection<String> getTuiCodes( PreparedStatement selectCall, final Long cuiCode ) {
-      final Collection<String> codes = new HashSet<>();
-      try {
-         fillSelectCall( selectCall, cuiCode );
-         final ResultSet resultSet = selectCall.executeQuery();
-         while ( resultSet.next() ) {
-            codes.add( TuiCodeUtil.getAsTui( resultSet.getInt( 2 ) ) );
+   @Override
+   public Map<Long, Concept> createConcepts( final Collection<Long> cuiCodes ) {
+      final Map<Long, Concept> conceptMap = new HashMap<>( cuiCodes.size() );
+      final List<Long> uncachedCuis = new ArrayList<>();
+      for ( Long cuiCode : cuiCodes ) {
+         final Concept concept = _conceptCache.get( cuiCode );
+         if ( concept == null ) {
+            uncachedCuis.add( cuiCode );
+         } else if ( !concept.isEmpty() ) {
+            conceptMap.put( cuiCode, concept );
          }
-         // Though the ResultSet interface documentation states that there are automatic closures,
-         // it is up to the driver to implement this behavior ...  historically some drivers have not done so
-         resultSet.close();
-      } catch ( SQLException e ) {
-         LOGGER.error( e.getMessage() );
       }
-      return codes;
+      if ( !uncachedCuis.isEmpty() ) {
+         fetchConcepts( uncachedCuis ).forEach( ( cui, concept ) -> {
+            if ( !concept.isEmpty() ) {
+               conceptMap.put( cui, concept );
+            }
+         } );
+      }
+      if ( LOGGER.isDebugEnabled() ) {
+         LOGGER.debug( "Concept Factory " + getName() + " cache " + _conceptCache );
+      }
+      return conceptMap;
    }
 
    /**
-    * @param selectCall jdbc selection call
-    * @param cuiCode    cui of interest
-    * @return preferred term for the cui as obtained with the selectCall
+    * @return the cache of concepts, for hit and miss statistics
     */
-   static private String getPreferredTerm( PreparedStatement selectCall, final Long cuiCode ) {
-      String preferredName = "";
-      try {
-         fillSelectCall( selectCall, cuiCode );
-         final ResultSet resultSet = selectCall.executeQuery();
-         if ( resultSet.next() ) {
-            preferredName = resultSet.getString( 2 );
-         }
-         // Though the ResultSet interface documentation states that there are automatic closures,
-         // it is up to the driver to implement this behavior ...  historically some drivers have not done so
-         resultSet.close();
-      } catch ( SQLException e ) {
-         LOGGER.error( e.getMessage() );
-      }
-      return preferredName;
+   public LongKeyCache<Concept> getConceptCache() {
+      return _conceptCache;
    }
 
    /**
-    * @param selectCall jdbc selection call
-    * @param cuiCode    cui of interest
-    * @return collection of ints (as strings) that are related to cui as obtained with the selectCall
+    * Selects codes for all of the given cuis from every concept table, creates concepts and caches them.
+    * Concepts of a batch for which a selection failed are returned but not cached, so they are selected again later.
+    *
+    * @param cuiCodes cuis that are not in the cache
+    * @return map of cuis to concepts, including empty concepts
     */
-   static private Collection<String> getIntegerCodes( PreparedStatement selectCall, final Long cuiCode ) {
-      final Collection<String> codes = new HashSet<>();
-      try {
-         fillSelectCall( selectCall, cuiCode );
-         final ResultSet resultSet = selectCall.executeQuery();
-         while ( resultSet.next() ) {
-            codes.add( Integer.toString( resultSet.getInt( 2 ) ) );
+   private Map<Long, Concept> fetchConcepts( final List<Long> cuiCodes ) {
+      final Map<Long, CollectionMap<String, String, ? extends Collection<String>>> cuiCodesMap = new HashMap<>();
+      final Map<Long, String> prefTerms = new HashMap<>();
+      final Collection<Long> failedCuis = new HashSet<>();
+      for ( int i = 0; i < cuiCodes.size(); i += _batchSize ) {
+         final List<Long> batch = cuiCodes.subList( i, Math.min( i + _batchSize, cuiCodes.size() ) );
+         for ( ConceptTableInfo conceptTableInfo : _conceptTableInfos ) {
+            if ( !selectCodes( conceptTableInfo, batch, cuiCodesMap, prefTerms ) ) {
+               failedCuis.addAll( batch );
+            }
+         }
+      }
+      final String defaultPrefTerm = _hasPrefTermTable ? "" : null;
+      final Map<Long, Concept> conceptMap = new HashMap<>( cuiCodes.size() );
+      for ( Long cuiCode : cuiCodes ) {
+         CollectionMap<String, String, ? extends Collection<String>> codes = cuiCodesMap.get( cuiCode );
+         if ( codes == null ) {
+            codes = new HashSetMap<>( 0 );
+         }
+         final Concept concept = new DefaultConcept( CuiCodeUtil.getInstance().getAsCui( cuiCode ),
+               prefTerms.getOrDefault( cuiCode, defaultPrefTerm ), codes );
+         if ( !failedCuis.contains( cuiCode ) ) {
+            _conceptCache.put( cuiCode, concept );
          }
-         // Though the ResultSet interface documentation states that there are automatic closures,
-         // it is up to the driver to implement this behavior ...  historically some drivers have not done so
-         resultSet.close();
-      } catch ( SQLException e ) {
-         LOGGER.error( e.getMessage() );
+         conceptMap.put( cuiCode, concept );
       }
-      return codes;
+      return conceptMap;
    }
 
    /**
-    * @param selectCall jdbc selection call
-    * @param cuiCode    cui of interest
-    * @return collection of longs (as strings) that are related to cui as obtained with the selectCall
+    * Uses a new statement so that concurrent lookups do not block each other.
+    *
+    * @param conceptTableInfo table to select
+    * @param cuiCodes         cuis of interest
+    * @param cuiCodesMap      filled with codes for each cui
+    * @param prefTerms        filled with the first preferred term for each cui
+    * @return false if the selection failed
     */
-   static private Collection<String> getLongCodes( PreparedStatement selectCall, final Long cuiCode ) {
-      final Collection<String> codes = new HashSet<>();
-      try {
-         fillSelectCall( selectCall, cuiCode );
-         final ResultSet resultSet = selectCall.executeQuery();
-         while ( resultSet.next() ) {
-            codes.add( Long.toString( resultSet.getLong( 2 ) ) );
+   private boolean selectCodes( final ConceptTableInfo conceptTableInfo, final List<Long> cuiCodes,
+                             final Map<Long, CollectionMap<String, String, ? extends Collection<String>>> cuiCodesMap,
+                             final Map<Long, String> prefTerms ) {
+      final StringBuilder sb = new StringBuilder( "SELECT * FROM " ).append( conceptTableInfo.__tableName )
+                                                                    .append( " WHERE CUI IN (" );
+      for ( int i = 0; i < cuiCodes.size(); i++ ) {
+         sb.append( i == 0 ? "?" : ",?" );
+      }
+      sb.append( ')' );
+      try ( PreparedStatement selectCall = _connection.prepareStatement( sb.toString() ) ) {
+         for ( int i = 0; i < cuiCodes.size(); i++ ) {
+            selectCall.setLong( i + 1, cuiCodes.get( i ) );
+         }
+         try ( ResultSet resultSet = selectCall.executeQuery() ) {
+            while ( resultSet.next() ) {
+               final long cuiCode = resultSet.getLong( 1 );
+               if ( conceptTableInfo.__classType.equals( PREFTERM_CLASS ) ) {
+                  prefTerms.putIfAbsent( cuiCode, resultSet.getString( 2 ) );
+                  continue;
+               }
+               final String code = getCode( conceptTableInfo.__classType, resultSet );
+               if ( code != null ) {
+                  cuiCodesMap.computeIfAbsent( cuiCode, c -> new HashSetMap<>() )
+                             .placeValue( conceptTableInfo.__conceptName, code );
+               }
+            }
          }
-         // Though the ResultSet interface documentation states that there are automatic closures,
-         // it is up to the driver to implement this behavior ...  historically some drivers have not done so
-         resultSet.close();
-      } catch ( SQLException e ) {
-         LOGGER.error( e.getMessage() );
+      } catch ( SQLException sqlE ) {
+         LOGGER.error( "Could not select codes from " + conceptTableInfo.__tableName + " for "
+                       + cuiCodes.size() + " cuis", sqlE );
+         return false;
       }
-      return codes;
+      return true;
    }
 
    /**
-    * @param selectCall jdbc selection call
-    * @param cuiCode    cui of interest
-    * @return collection of strings that are related to cui as obtained with the selectCall
+    * @param classType table value class type
+    * @param resultSet result set positioned on a row
+    * @return the code in the row's second column as a string
+    * @throws SQLException if the column cannot be read
     */
-   static private Collection<String> getStringCodes( PreparedStatement selectCall, final Long cuiCode ) {
-      final Collection<String> codes = new HashSet<>();
+   static private String getCode( final String classType, final ResultSet resultSet ) throws SQLException {
+      switch ( classType ) {
+         case TUI_CLASS:
+            return TuiCodeUtil.getAsTui( resultSet.getInt( 2 ) );
+         case INT_CLASS:
+            return Integer.toString( resultSet.getInt( 2 ) );
+         case LONG_CLASS:
+            return Long.toString( resultSet.getLong( 2 ) );
+         case TEXT_CLASS:
+            return resultSet.getString( 2 );
+      }
+      return null;
+   }
+
+   static private int parseInt( final String value, final int defaultValue ) {
+      if ( value == null || value.trim().isEmpty() ) {
+         return defaultValue;
+      }
       try {
-         fillSelectCall( selectCall, cuiCode );
-         final ResultSet resultSet = selectCall.executeQuery();
-         while ( resultSet.next() ) {
-            codes.add( resultSet.getString( 2 ) );
-         }
-         // Though the ResultSet interface documentation states that there are automatic closures,
-         // it is up to the driver to implement this behavior ...  historically some drivers have not done so
-         resultSet.close();
-      } catch ( SQLException e ) {
-         LOGGER.error( e.getMessage() );
+         return Integer.parseInt( value.trim() );
+      } catch ( NumberFormatException nfE ) {
+         LOGGER.warn( "Could not parse " + value + " as an integer, using " + defaultValue );
+         return defaultValue;
       }
-      return codes;
    }
 
    /**
-    * Creates table information objects with table name, concept name, jdbc prepared statement call
+    * Creates table information objects with table name, concept name and value class type
     * @param connection -
     * @param conceptTables map of table names to table value types
-    * @return table information objects with table name, concept name, jdbc prepared statement call
+    * @return table information objects with table name, concept name and value class type
     * @throws SQLException
     */
    static private Collection<ConceptTableInfo> createTableInfos( final Connection connection,
@@ -326,9 +363,7 @@ public class JdbcConceptFactory extends AbstractConceptFactory {
          }
          String conceptName = conceptTable.getKey().trim();
          conceptName = conceptName.substring( 0, conceptName.length() - 5 );
-         final String lookupSql = "SELECT * FROM " + tableName + " WHERE CUI = ?";
-         final PreparedStatement statement = connection.prepareStatement( lookupSql );
-         tableInfos.add( new ConceptTableInfo( tableName, conceptName, tableClass, statement ) );
+         tableInfos.add( new ConceptTableInfo( tableName, conceptName, tableClass ) );
          LOGGER.info( "Connected to concept table " + tableName + " with class " + tableClass );
       }
       return tableInfos;
@@ -350,16 +385,4 @@ public class JdbcConceptFactory extends AbstractConceptFactory {
       return tableNames;
    }
 
-
-
-   /**
-    * @param cuiCode -
-    * @throws SQLException if the {@code PreparedStatement} could not be created or changed
-    */
-   static private void fillSelectCall( final PreparedStatement selectCall, final Long cuiCode ) throws SQLException {
-      selectCall.clearParameters();
-      selectCall.setLong( 1, cuiCode );
-   }
-
-
 }
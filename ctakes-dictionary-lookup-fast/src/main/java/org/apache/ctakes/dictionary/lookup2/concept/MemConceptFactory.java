@@ -2,8 +2,8 @@ package org.apache.ctakes.dictionary.lookup2.concept;
 
 import org.apache.ctakes.dictionary.lookup2.util.CuiCodeUtil;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Author: SPF
@@ -18,7 +18,7 @@ final public class MemConceptFactory extends AbstractConceptFactory {
 
    public MemConceptFactory( final String name, final Map<Long, Concept> conceptMap ) {
       super( name );
-      _conceptMap = new HashMap<>( conceptMap );
+      _conceptMap = new ConcurrentHashMap<>( conceptMap );
    }
 
    /**
@@ -26,12 +26,7 @@ final public class MemConceptFactory extends AbstractConceptFactory {
     */
    @Override
    public Concept createConcept( final Long cuiCode ) {
-      Concept concept = _conceptMap.get( cuiCode );
-      if ( concept == null ) {
-         concept = new DefaultConcept( CuiCodeUtil.getInstance().getAsCui( cuiCode ) );
-         _conceptMap.put( cuiCode, concept );
-      }
-      return concept;
+      return _conceptMap.computeIfAbsent( cuiCode, c -> new DefaultConcept( CuiCodeUtil.getInstance().getAsCui( c ) ) );
    }
 
 }
@@ -1,20 +1,34 @@
 package org.apache.ctakes.dictionary.lookup2.concurrent;
 
-import org.apache.ctakes.core.concurrent.ThreadSafeWrapper;
+import org.apache.ctakes.core.concurrent.DelegatePool;
+import org.apache.ctakes.core.concurrent.PooledWrapper;
+import org.apache.ctakes.core.concurrent.SharedModelCache;
 import org.apache.ctakes.core.config.ConfigParameterConstants;
 import org.apache.ctakes.core.pipeline.PipeBitInfo;
+import org.apache.ctakes.core.resource.FileLocator;
 import org.apache.ctakes.dictionary.lookup2.ae.DefaultJCasTermAnnotator;
+import org.apache.ctakes.dictionary.lookup2.concept.ConceptFactory;
+import org.apache.ctakes.dictionary.lookup2.consumer.TermConsumer;
+import org.apache.ctakes.dictionary.lookup2.dictionary.DictionaryDescriptorParser;
+import org.apache.ctakes.dictionary.lookup2.dictionary.RareWordDictionary;
+import org.apache.ctakes.dictionary.lookup2.util.DictionarySpec;
 import org.apache.log4j.Logger;
 import org.apache.uima.UimaContext;
 import org.apache.uima.analysis_engine.AnalysisEngineDescription;
 import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
+import org.apache.uima.analysis_engine.annotator.AnnotatorContextException;
 import org.apache.uima.fit.factory.AnalysisEngineFactory;
 import org.apache.uima.jcas.JCas;
 import org.apache.uima.resource.ResourceInitializationException;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+
 /**
  * Normally I would use composition and a singleton, but here extension is done for @ConfigurationParameter discovery.
- * Made a singleton mostly for dictionary memory.
+ * Delegates are pooled so that documents can be processed in parallel.
+ * Dictionaries and concept factories are shared between delegates, but each delegate has its own term consumer.
  *
  * @author SPF , chip-nlp
  * @version %I%
@@ -35,7 +49,7 @@ final public class ThreadSafeFastLookup extends DefaultJCasTermAnnotator {
     */
    @Override
    public void initialize( final UimaContext context ) throws ResourceInitializationException {
-      DlSingleton.getInstance().initialize( context );
+      DlPool.getInstance().initialize( context );
    }
 
    /**
@@ -43,7 +57,26 @@ final public class ThreadSafeFastLookup extends DefaultJCasTermAnnotator {
     */
    @Override
    public void process( final JCas jCas ) throws AnalysisEngineProcessException {
-      DlSingleton.getInstance().process( jCas );
+      DlPool.getInstance().process( jCas );
+   }
+
+   /**
+    * Completes the collection on every pooled delegate that has processed a document since the last completion.
+    * {@inheritDoc}
+    */
+   @Override
+   public void collectionProcessComplete() throws AnalysisEngineProcessException {
+      DlPool.getInstance().collectionProcessComplete();
+   }
+
+   /**
+    * Retires and destroys one pooled delegate, the counterpart of the delegate added by {@link #initialize(UimaContext)}.
+    * {@inheritDoc}
+    */
+   @Override
+   public void destroy() {
+      DlPool.getInstance().destroy();
+      super.destroy();
    }
 
    /**
@@ -65,40 +98,96 @@ final public class ThreadSafeFastLookup extends DefaultJCasTermAnnotator {
             ConfigParameterConstants.PARAM_LOOKUP_XML, descriptorPath );
    }
 
-   private enum DlSingleton implements ThreadSafeWrapper<DefaultJCasTermAnnotator> {
-      INSTANCE;
+   /**
+    * Pool delegate that shares one dictionary specification, with its dictionaries and concept factories,
+    * with every other delegate using the same descriptor file.  Term consumers are not shared.
+    */
+   static private final class SharedSpecLookup extends DefaultJCasTermAnnotator {
+      @Override
+      protected DictionarySpec loadDictionarySpec( final String descriptorFilePath, final UimaContext uimaContext )
+            throws IOException {
+         final DictionarySpec sharedSpec
+               = SharedModelCache.getInstance().getModel( DictionarySpec.class, descriptorFilePath,
+               p -> super.loadDictionarySpec( p, uimaContext ) );
+         try ( InputStream descriptorStream = FileLocator.getAsStream( descriptorFilePath ) ) {
+            return new OwnConsumerSpec( sharedSpec,
+                  DictionaryDescriptorParser.parseConsumer( descriptorStream, uimaContext ) );
+         } catch ( AnnotatorContextException acE ) {
+            throw new IOException( acE );
+         }
+      }
+   }
 
-      static public DlSingleton getInstance() {
-         return INSTANCE;
+   /**
+    * Dictionary specification that uses a shared specification for everything but the term consumer.
+    */
+   static private final class OwnConsumerSpec implements DictionarySpec {
+      private final DictionarySpec _sharedSpec;
+      private final TermConsumer _consumer;
+
+      private OwnConsumerSpec( final DictionarySpec sharedSpec, final TermConsumer consumer ) {
+         _sharedSpec = sharedSpec;
+         _consumer = consumer;
+      }
+
+      @Override
+      public Collection<String> getPairNames() {
+         return _sharedSpec.getPairNames();
       }
 
-      private final DefaultJCasTermAnnotator _delegate;
-      private boolean _initialized;
+      @Override
+      public RareWordDictionary getDictionary( final String pairName ) {
+         return _sharedSpec.getDictionary( pairName );
+      }
+
+      @Override
+      public ConceptFactory getConceptFactory( final String pairName ) {
+         return _sharedSpec.getConceptFactory( pairName );
+      }
+
+      @Override
+      public Collection<RareWordDictionary> getPairedDictionaries( final String conceptFactoryName ) {
+         return _sharedSpec.getPairedDictionaries( conceptFactoryName );
+      }
 
-      DlSingleton() {
-         _delegate = new DefaultJCasTermAnnotator();
+      @Override
+      public Collection<ConceptFactory> getPairedConceptFactories( final String dictionaryName ) {
+         return _sharedSpec.getPairedConceptFactories( dictionaryName );
       }
 
-      final private Object LOCK = new Object();
+      @Override
+      public Collection<RareWordDictionary> getDictionaries() {
+         return _sharedSpec.getDictionaries();
+      }
 
       @Override
-      public Object getLock() {
-         return LOCK;
+      public Collection<ConceptFactory> getConceptFactories() {
+         return _sharedSpec.getConceptFactories();
       }
 
       @Override
-      public DefaultJCasTermAnnotator getDelegate() {
-         return _delegate;
+      public TermConsumer getConsumer() {
+         return _consumer;
       }
+   }
+
+   private enum DlPool implements PooledWrapper<DefaultJCasTermAnnotator> {
+      INSTANCE;
+
+      static public DlPool getInstance() {
+         return INSTANCE;
+      }
+
+      private final DelegatePool<DefaultJCasTermAnnotator> _pool = new DelegatePool<>();
 
       @Override
-      public boolean isInitialized() {
-         return _initialized;
+      public DefaultJCasTermAnnotator createDelegate() {
+         return new SharedSpecLookup();
       }
 
       @Override
-      public void setInitialized( final boolean initialized ) {
-         _initialized = initialized;
+      public DelegatePool<DefaultJCasTermAnnotator> getPool() {
+         return _pool;
       }
    }
 
@@ -89,6 +89,14 @@ final public class BsvRareWordDictionary implements RareWordDictionary {
       return _delegateDictionary.getRareWordHits( rareWordText );
    }
 
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public void prefetchRareWordHits( final Collection<String> rareWordTexts ) {
+      _delegateDictionary.prefetchRareWordHits( rareWordTexts );
+   }
+
 
    /**
     * Create a collection of {@link org.apache.ctakes.dictionary.lookup2.dictionary.RareWordTermMapCreator.CuiTerm} Objects
@@ -110,7 +118,7 @@ final public class BsvRareWordDictionary implements RareWordDictionary {
     * @param bsvFilePath path to file containing term rows and bsv columns
     * @return collection of all valid terms read from the bsv file
     */
-   static private Collection<CuiTerm> parseBsvFile( final String bsvFilePath ) {
+   static Collection<CuiTerm> parseBsvFile( final String bsvFilePath ) {
       final Collection<CuiTerm> cuiTerms = new ArrayList<>();
       try ( final BufferedReader reader
                   = new BufferedReader( new InputStreamReader( FileLocator.getAsStream( bsvFilePath ) ) ) ) {
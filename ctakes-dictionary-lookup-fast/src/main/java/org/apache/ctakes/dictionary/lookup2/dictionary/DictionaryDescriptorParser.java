@@ -136,6 +136,28 @@ final public class DictionaryDescriptorParser {
             consumer );
    }
 
+   /**
+    * Creates only the term consumer defined in the XML descriptor file.
+    * Term consumers may keep state while consuming, so each thread should have its own.
+    *
+    * @param descriptorFile XML-formatted file, see {@link #parseDescriptor(InputStream, UimaContext)}
+    * @param uimaContext    -
+    * @return a new term consumer as read from the {@code descriptorFile}
+    * @throws AnnotatorContextException if the File could not be found/read or the xml could not be parsed
+    */
+   static public TermConsumer parseConsumer( final InputStream descriptorFile, final UimaContext uimaContext )
+         throws AnnotatorContextException {
+      final SAXBuilder saxBuilder = new SAXBuilder();
+      Document doc;
+      try {
+         doc = saxBuilder.build( descriptorFile );
+      } catch ( JDOMException | IOException jdomioE ) {
+         throw new AnnotatorContextException(
+               "Could not parse ", EMPTY_OBJECT_ARRAY, jdomioE );
+      }
+      return parseConsumerXml( uimaContext, doc.getRootElement().getChild( CONSUMER_KEY ) );
+   }
+
    /**
     * Creates dictionary engines by parsing the section defined by {@link this.DICTIONARIES_KEY}
     *
@@ -18,6 +18,7 @@
  */
 package org.apache.ctakes.dictionary.lookup2.dictionary;
 
+import org.apache.ctakes.core.util.collection.LruCache;
 import org.apache.ctakes.dictionary.lookup2.term.RareWordTerm;
 import org.apache.ctakes.dictionary.lookup2.util.JdbcConnectionFactory;
 import org.apache.log4j.Logger;
@@ -27,10 +28,7 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.List;
-import java.util.Properties;
+import java.util.*;
 
 import static org.apache.ctakes.dictionary.lookup2.util.JdbcConnectionFactory.*;
 
@@ -38,6 +36,11 @@ import static org.apache.ctakes.dictionary.lookup2.util.JdbcConnectionFactory.*;
  * Preferred dictionary to use for large collections of terms.
  * Column indices within the database are constant and not configurable: CUI TUI RINDEX TCOUNT TEXT RWORD
  * If a configurable implementation is desired then create an extension.
+ * <p>
+ * Results for recently used rare words are kept in a bounded cache.  When {@link #prefetchRareWordHits(Collection)}
+ * is called, all uncached rare words are fetched with batched {@code IN} queries instead of one query per word.
+ * The cache size is set with the property {@value #CACHE_SIZE} and the batch size with {@value #BATCH_SIZE}.
+ * </p>
  * Author: SPF
  * Affiliation: CHIP-NLP
  * Date: 3/26/13
@@ -62,9 +65,18 @@ final public class JdbcRareWordDictionary extends AbstractRareWordDictionary {
 
 
    static public final String RARE_WORD_TABLE = "rareWordTable";
+   static public final String CACHE_SIZE = "rareWordCacheSize";
+   static public final String BATCH_SIZE = "rareWordBatchSize";
 
+   static private final int DEFAULT_CACHE_SIZE = 50000;
+   static private final int DEFAULT_BATCH_SIZE = 500;
 
-   private PreparedStatement _selectTermCall;
+
+   final private Connection _connection;
+   final private String _tableName;
+   final private PreparedStatement _selectTermCall;
+   final private LruCache<String, List<RareWordTerm>> _rareWordCache;
+   final private int _batchSize;
 
 
    public JdbcRareWordDictionary( final String name, final UimaContext uimaContext, final Properties properties )
@@ -72,10 +84,11 @@ final public class JdbcRareWordDictionary extends AbstractRareWordDictionary {
       this( name,
             properties.getProperty( JDBC_DRIVER ), properties.getProperty( JDBC_URL ),
             properties.getProperty( JDBC_USER ), properties.getProperty( JDBC_PASS ),
-            properties.getProperty( RARE_WORD_TABLE ) );
+            properties.getProperty( RARE_WORD_TABLE ),
+            parseInt( properties.getProperty( CACHE_SIZE ), DEFAULT_CACHE_SIZE ),
+            parseInt( properties.getProperty( BATCH_SIZE ), DEFAULT_BATCH_SIZE ) );
    }
 
-
    public JdbcRareWordDictionary( final String name,
                                   final String jdbcDriver,
                                   final String jdbcUrl,
@@ -83,15 +96,32 @@ final public class JdbcRareWordDictionary extends AbstractRareWordDictionary {
                                   final String jdbcPass,
                                   final String tableName )
          throws SQLException {
+      this( name, jdbcDriver, jdbcUrl, jdbcUser, jdbcPass, tableName, DEFAULT_CACHE_SIZE, DEFAULT_BATCH_SIZE );
+   }
+
+
+   public JdbcRareWordDictionary( final String name,
+                                  final String jdbcDriver,
+                                  final String jdbcUrl,
+                                  final String jdbcUser,
+                                  final String jdbcPass,
+                                  final String tableName,
+                                  final int cacheSize,
+                                  final int batchSize )
+         throws SQLException {
       super( name );
-      boolean connected = false;
+      _tableName = tableName;
+      _rareWordCache = new LruCache<>( cacheSize );
+      _batchSize = Math.max( 1, batchSize );
+      Connection connection = null;
       try {
          // DO NOT use try with resources here.  Try with resources uses a closable and closes it when exiting the try
-         final Connection connection = JdbcConnectionFactory.getInstance()
+         connection = JdbcConnectionFactory.getInstance()
                .getConnection( jdbcDriver, jdbcUrl, jdbcUser, jdbcPass );
-         connected = connection != null;
+         _connection = connection;
          _selectTermCall = createSelectCall( connection, tableName );
       } catch ( SQLException sqlE ) {
+         final boolean connected = connection != null;
          String desc = "dictionary " + name + " at " +jdbcUrl + " as user " + jdbcUser;
          if ( !connected ) {
             LOGGER.error( "Could not connect to " + desc );
@@ -100,7 +130,8 @@ final public class JdbcRareWordDictionary extends AbstractRareWordDictionary {
          }
          throw sqlE;
       }
-      LOGGER.info( "Connected to cui and term table " + tableName.toUpperCase() );
+      LOGGER.info( "Connected to cui and term table " + tableName.toUpperCase()
+                   + " with a rare word cache size of " + _rareWordCache.getMaxSize() );
    }
 
 
@@ -109,27 +140,122 @@ final public class JdbcRareWordDictionary extends AbstractRareWordDictionary {
     */
    @Override
    public Collection<RareWordTerm> getRareWordHits( final String rareWordText ) {
+      final List<RareWordTerm> cachedTerms = _rareWordCache.get( rareWordText );
+      if ( cachedTerms != null ) {
+         return cachedTerms;
+      }
       final List<RareWordTerm> rareWordTerms = new ArrayList<>();
       try {
-         fillSelectCall( rareWordText );
-         final ResultSet resultSet = _selectTermCall.executeQuery();
-         while ( resultSet.next() ) {
-            final RareWordTerm rareWordTerm = new RareWordTerm( resultSet.getString( FIELD_INDEX.TEXT.__index ),
-                  resultSet.getLong( FIELD_INDEX.CUI.__index ),
-                  resultSet.getString( FIELD_INDEX.RWORD.__index ),
-                  resultSet.getInt( FIELD_INDEX.RINDEX.__index ),
-                  resultSet.getInt( FIELD_INDEX.TCOUNT.__index ) );
-            rareWordTerms.add( rareWordTerm );
+         synchronized ( _selectTermCall ) {
+            fillSelectCall( rareWordText );
+            final ResultSet resultSet = _selectTermCall.executeQuery();
+            while ( resultSet.next() ) {
+               rareWordTerms.add( createRareWordTerm( resultSet ) );
+            }
+            // Though the ResultSet interface documentation states that there are automatic closures,
+            // it is up to the driver to implement this behavior ...  historically some drivers have not done so
+            resultSet.close();
          }
-         // Though the ResultSet interface documentation states that there are automatic closures,
-         // it is up to the driver to implement this behavior ...  historically some drivers have not done so
-         resultSet.close();
       } catch ( SQLException e ) {
          LOGGER.error( e.getMessage() );
+         return rareWordTerms;
+      }
+      final List<RareWordTerm> unmodifiableTerms = Collections.unmodifiableList( rareWordTerms );
+      _rareWordCache.put( rareWordText, unmodifiableTerms );
+      return unmodifiableTerms;
+   }
+
+   /**
+    * Fetches terms for all of the given rare words that are not already cached with as few queries as possible.
+    * {@inheritDoc}
+    */
+   @Override
+   public void prefetchRareWordHits( final Collection<String> rareWordTexts ) {
+      if ( _rareWordCache.getMaxSize() == 0 ) {
+         return;
+      }
+      final List<String> uncached = new ArrayList<>();
+      for ( String rareWordText : new HashSet<>( rareWordTexts ) ) {
+         if ( !_rareWordCache.containsKey( rareWordText ) ) {
+            uncached.add( rareWordText );
+         }
+      }
+      for ( int i = 0; i < uncached.size(); i += _batchSize ) {
+         final List<String> batch = uncached.subList( i, Math.min( i + _batchSize, uncached.size() ) );
+         try {
+            final Map<String, List<RareWordTerm>> batchTerms = selectRareWordTerms( batch );
+            for ( String rareWordText : batch ) {
+               final List<RareWordTerm> terms = batchTerms.get( rareWordText );
+               _rareWordCache.put( rareWordText,
+                     terms == null ? Collections.emptyList() : Collections.unmodifiableList( terms ) );
+            }
+         } catch ( SQLException sqlE ) {
+            LOGGER.error( sqlE.getMessage() );
+            return;
+         }
+      }
+      if ( LOGGER.isDebugEnabled() ) {
+         LOGGER.debug( "Dictionary " + getName() + " rare word cache " + _rareWordCache );
+      }
+   }
+
+   /**
+    * @return the cache of rare word terms, for hit and miss statistics
+    */
+   public LruCache<String, List<RareWordTerm>> getRareWordCache() {
+      return _rareWordCache;
+   }
+
+   /**
+    * Uses a new statement so that concurrent lookups do not block on the shared statement.
+    *
+    * @param rareWordTexts rare words to select
+    * @return map of rare words to the terms that contain them
+    * @throws SQLException if the select fails
+    */
+   private Map<String, List<RareWordTerm>> selectRareWordTerms( final List<String> rareWordTexts )
+         throws SQLException {
+      final StringBuilder sb = new StringBuilder( "SELECT * FROM " ).append( _tableName ).append( " WHERE RWORD IN (" );
+      for ( int i = 0; i < rareWordTexts.size(); i++ ) {
+         sb.append( i == 0 ? "?" : ",?" );
+      }
+      sb.append( ')' );
+      final Map<String, List<RareWordTerm>> rareWordTerms = new HashMap<>( rareWordTexts.size() );
+      try ( PreparedStatement batchCall = _connection.prepareStatement( sb.toString() ) ) {
+         for ( int i = 0; i < rareWordTexts.size(); i++ ) {
+            batchCall.setString( i + 1, rareWordTexts.get( i ) );
+         }
+         try ( ResultSet resultSet = batchCall.executeQuery() ) {
+            while ( resultSet.next() ) {
+               final RareWordTerm rareWordTerm = createRareWordTerm( resultSet );
+               rareWordTerms.computeIfAbsent( rareWordTerm.getRareWord(), r -> new ArrayList<>() )
+                     .add( rareWordTerm );
+            }
+         }
       }
       return rareWordTerms;
    }
 
+   static private RareWordTerm createRareWordTerm( final ResultSet resultSet ) throws SQLException {
+      return new RareWordTerm( resultSet.getString( FIELD_INDEX.TEXT.__index ),
+            resultSet.getLong( FIELD_INDEX.CUI.__index ),
+            resultSet.getString( FIELD_INDEX.RWORD.__index ),
+            resultSet.getInt( FIELD_INDEX.RINDEX.__index ),
+            resultSet.getInt( FIELD_INDEX.TCOUNT.__index ) );
+   }
+
+   static private int parseInt( final String value, final int defaultValue ) {
+      if ( value == null || value.trim().isEmpty() ) {
+         return defaultValue;
+      }
+      try {
+         return Integer.parseInt( value.trim() );
+      } catch ( NumberFormatException nfE ) {
+         LOGGER.warn( "Could not parse " + value + " as an integer, using " + defaultValue );
+         return defaultValue;
+      }
+   }
+
    /**
     * @return an sql call to use for term lookup
     * @throws SQLException if the {@code PreparedStatement} could not be created or changed
@@ -0,0 +1,170 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ctakes.dictionary.lookup2.dictionary;
+
+import org.apache.ctakes.core.resource.FileLocator;
+import org.apache.ctakes.dictionary.lookup2.term.RareWordTerm;
+import org.apache.log4j.Logger;
+import org.apache.uima.UimaContext;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Dictionary read from a compiled binary file through a {@link java.nio.MappedByteBuffer}.
+ * Nothing is loaded onto the heap, so startup is nearly instant and the operating system can share the file pages
+ * between all jvms on a host.  {@link RareWordTerm} objects are only created for hits.
+ * <p>
+ * The file is written by {@link MappedRareWordDictionaryWriter} and contains, in order:
+ * <ul>
+ * <li>header: magic, version, bucket count, term count, string pool size</li>
+ * <li>rare word index: open addressing hash table of (rare word pool offset, first term, term count)</li>
+ * <li>term records: (cui code, text pool offset, rare word index, token count), grouped by rare word</li>
+ * <li>string pool: length-prefixed utf-8 rare words and term texts, each stored once</li>
+ * </ul>
+ * All offsets are ints, so the file is limited to 2GB.
+ * </p>
+ * Author: SPF
+ * Affiliation: CHIP-NLP
+ * Date: 10/18/2026
+ */
+final public class MappedRareWordDictionary extends AbstractRareWordDictionary {
+
+   static private final Logger LOGGER = Logger.getLogger( "MappedRareWordDictionary" );
+
+   static public final String MAPPED_FILE_PATH = "mappedPath";
+
+   static final int MAGIC = 0x43545257;  // CTRW
+   static final int VERSION = 1;
+   static final int HEADER_SIZE = 5 * Integer.BYTES;
+   static final int BUCKET_SIZE = 3 * Integer.BYTES;
+   static final int TERM_SIZE = Long.BYTES + Integer.BYTES + 2 * Short.BYTES;
+   static final int EMPTY_BUCKET = -1;
+
+   final private ByteBuffer _buffer;
+   final private int _bucketMask;
+   final private int _termStart;
+   final private int _poolStart;
+
+
+   public MappedRareWordDictionary( final String name, final UimaContext uimaContext, final Properties properties )
+         throws IOException {
+      this( name, FileLocator.getFile( properties.getProperty( MAPPED_FILE_PATH ) ) );
+   }
+
+   public MappedRareWordDictionary( final String name, final File mappedFile ) throws IOException {
+      super( name );
+      try ( RandomAccessFile file = new RandomAccessFile( mappedFile, "r" );
+            FileChannel channel = file.getChannel() ) {
+         // The mapping remains valid after the channel is closed
+         _buffer = channel.map( FileChannel.MapMode.READ_ONLY, 0, channel.size() );
+      }
+      if ( _buffer.getInt( 0 ) != MAGIC ) {
+         throw new IOException( mappedFile.getPath() + " is not a compiled rare word dictionary" );
+      }
+      final int version = _buffer.getInt( Integer.BYTES );
+      if ( version != VERSION ) {
+         throw new IOException( "Unsupported dictionary version " + version + " in " + mappedFile.getPath() );
+      }
+      final int bucketCount = _buffer.getInt( 2 * Integer.BYTES );
+      final int termCount = _buffer.getInt( 3 * Integer.BYTES );
+      _bucketMask = bucketCount - 1;
+      _termStart = HEADER_SIZE + bucketCount * BUCKET_SIZE;
+      _poolStart = _termStart + termCount * TERM_SIZE;
+      LOGGER.info( "Mapped " + termCount + " terms in dictionary " + name + " from " + mappedFile.getPath() );
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public Collection<RareWordTerm> getRareWordHits( final String rareWordText ) {
+      final byte[] rareWordBytes = rareWordText.getBytes( StandardCharsets.UTF_8 );
+      int bucket = spread( rareWordText.hashCode() ) & _bucketMask;
+      while ( true ) {
+         final int bucketOffset = HEADER_SIZE + bucket * BUCKET_SIZE;
+         final int poolOffset = _buffer.getInt( bucketOffset );
+         if ( poolOffset == EMPTY_BUCKET ) {
+            return Collections.emptyList();
+         }
+         if ( poolEquals( poolOffset, rareWordBytes ) ) {
+            final int firstTerm = _buffer.getInt( bucketOffset + Integer.BYTES );
+            final int termCount = _buffer.getInt( bucketOffset + 2 * Integer.BYTES );
+            return createTerms( rareWordText, firstTerm, termCount );
+         }
+         bucket = (bucket + 1) & _bucketMask;
+      }
+   }
+
+   private List<RareWordTerm> createTerms( final String rareWordText, final int firstTerm, final int termCount ) {
+      final List<RareWordTerm> terms = new ArrayList<>( termCount );
+      for ( int i = firstTerm; i < firstTerm + termCount; i++ ) {
+         final int termOffset = _termStart + i * TERM_SIZE;
+         final long cuiCode = _buffer.getLong( termOffset );
+         final String text = readPoolString( _buffer.getInt( termOffset + Long.BYTES ) );
+         final int rareWordIndex = _buffer.getShort( termOffset + Long.BYTES + Integer.BYTES );
+         final int tokenCount = _buffer.getShort( termOffset + Long.BYTES + Integer.BYTES + Short.BYTES );
+         terms.add( new RareWordTerm( text, cuiCode, rareWordText, rareWordIndex, tokenCount ) );
+      }
+      return terms;
+   }
+
+   /**
+    * Only absolute reads are used so that the buffer can be shared by threads without synchronization.
+    */
+   private boolean poolEquals( final int poolOffset, final byte[] bytes ) {
+      final int start = _poolStart + poolOffset;
+      if ( _buffer.getInt( start ) != bytes.length ) {
+         return false;
+      }
+      for ( int i = 0; i < bytes.length; i++ ) {
+         if ( _buffer.get( start + Integer.BYTES + i ) != bytes[ i ] ) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   private String readPoolString( final int poolOffset ) {
+      final int start = _poolStart + poolOffset;
+      final byte[] bytes = new byte[ _buffer.getInt( start ) ];
+      for ( int i = 0; i < bytes.length; i++ ) {
+         bytes[ i ] = _buffer.get( start + Integer.BYTES + i );
+      }
+      return new String( bytes, StandardCharsets.UTF_8 );
+   }
+
+   /**
+    * @param hashCode String hashCode
+    * @return hash code with high bits spread into the low bits, as in java.util.HashMap
+    */
+   static int spread( final int hashCode ) {
+      return hashCode ^ (hashCode >>> 16);
+   }
+
+}
@@ -0,0 +1,329 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ctakes.dictionary.lookup2.dictionary;
+
+import org.apache.ctakes.core.util.collection.ArrayListMap;
+import org.apache.ctakes.core.util.collection.CollectionMap;
+import org.apache.ctakes.dictionary.lookup2.term.RareWordTerm;
+import org.apache.ctakes.dictionary.lookup2.util.JdbcConnectionFactory;
+import org.apache.log4j.Logger;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.*;
+
+import static org.apache.ctakes.dictionary.lookup2.dictionary.MappedRareWordDictionary.*;
+import static org.apache.ctakes.dictionary.lookup2.dictionary.RareWordTermMapCreator.CuiTerm;
+
+/**
+ * Compiles a bsv file or a jdbc rare word table into the binary format read by {@link MappedRareWordDictionary}.
+ * <p>
+ * Usage: MappedRareWordDictionaryWriter bsv {bsvPath} {outputFile}
+ * <br>
+ * or: MappedRareWordDictionaryWriter jdbc {jdbcUrl} {jdbcUser} {jdbcPass} {tableName} {outputFile}
+ * </p>
+ * Author: SPF
+ * Affiliation: CHIP-NLP
+ * Date: 10/18/2026
+ */
+final public class MappedRareWordDictionaryWriter {
+
+   static private final Logger LOGGER = Logger.getLogger( "MappedRareWordDictionaryWriter" );
+
+   static private final String HSQL_DRIVER = "org.hsqldb.jdbcDriver";
+
+   private MappedRareWordDictionaryWriter() {
+   }
+
+   /**
+    * @param bsvFilePath path to a bsv file, as read by {@link BsvRareWordDictionary}
+    * @param outputFile  compiled dictionary file
+    * @throws IOException if the file cannot be written
+    */
+   static public void writeBsvDictionary( final String bsvFilePath, final File outputFile ) throws IOException {
+      final Collection<CuiTerm> cuiTerms = BsvRareWordDictionary.parseBsvFile( bsvFilePath );
+      writeDictionary( RareWordTermMapCreator.createRareWordTermMap( cuiTerms ), outputFile );
+   }
+
+   /**
+    * @param jdbcDriver -
+    * @param jdbcUrl    -
+    * @param jdbcUser   -
+    * @param jdbcPass   -
+    * @param tableName  rare word table, as read by {@link JdbcRareWordDictionary}
+    * @param outputFile compiled dictionary file
+    * @throws IOException  if the file cannot be written
+    * @throws SQLException if the table cannot be read
+    */
+   static public void writeJdbcDictionary( final String jdbcDriver, final String jdbcUrl,
+                                           final String jdbcUser, final String jdbcPass,
+                                           final String tableName, final File outputFile )
+         throws IOException, SQLException {
+      final CollectionMap<String, RareWordTerm, List<RareWordTerm>> rareWordTermMap = new ArrayListMap<>();
+      final Connection connection = JdbcConnectionFactory.getInstance()
+            .getConnection( jdbcDriver, jdbcUrl, jdbcUser, jdbcPass );
+      try ( Statement statement = connection.createStatement();
+            ResultSet resultSet = statement.executeQuery( "SELECT CUI, RINDEX, TCOUNT, TEXT, RWORD FROM " + tableName ) ) {
+         while ( resultSet.next() ) {
+            final String rareWord = resultSet.getString( 5 );
+            rareWordTermMap.placeValue( rareWord, new RareWordTerm( resultSet.getString( 4 ),
+                  resultSet.getLong( 1 ), rareWord, resultSet.getInt( 2 ), resultSet.getInt( 3 ) ) );
+         }
+      }
+      writeDictionary( rareWordTermMap, outputFile );
+   }
+
+   /**
+    * @param rareWordTermMap map of rare words to terms, as created by {@link RareWordTermMapCreator}
+    * @param outputFile      compiled dictionary file
+    * @throws IOException if the file cannot be written or the dictionary is too large for the format
+    */
+   static public void writeDictionary(
+         final CollectionMap<String, RareWordTerm, ? extends Collection<RareWordTerm>> rareWordTermMap,
+         final File outputFile ) throws IOException {
+      final int rareWordCount = rareWordTermMap.size();
+      final int bucketCount = getBucketCount( rareWordCount );
+      final int[] bucketPoolOffsets = new int[ bucketCount ];
+      final int[] bucketFirstTerms = new int[ bucketCount ];
+      final int[] bucketTermCounts = new int[ bucketCount ];
+      Arrays.fill( bucketPoolOffsets, EMPTY_BUCKET );
+
+      final StringPool stringPool = new StringPool();
+      final ByteArrayOutputStream termBytes = new ByteArrayOutputStream();
+      final DataOutputStream termStream = new DataOutputStream( termBytes );
+      int termCount = 0;
+      for ( Map.Entry<String, ? extends Collection<RareWordTerm>> entry : rareWordTermMap.entrySet() ) {
+         final String rareWord = entry.getKey();
+         int bucket = spread( rareWord.hashCode() ) & (bucketCount - 1);
+         while ( bucketPoolOffsets[ bucket ] != EMPTY_BUCKET ) {
+            bucket = (bucket + 1) & (bucketCount - 1);
+         }
+         bucketPoolOffsets[ bucket ] = stringPool.getOffset( rareWord );
+         bucketFirstTerms[ bucket ] = termCount;
+         bucketTermCounts[ bucket ] = entry.getValue().size();
+         for ( RareWordTerm term : entry.getValue() ) {
+            termStream.writeLong( term.getCuiCode() );
+            termStream.writeInt( stringPool.getOffset( term.getText() ) );
+            termStream.writeShort( term.getRareWordIndex() );
+            termStream.writeShort( term.getTokenCount() );
+            termCount++;
+         }
+      }
+      termStream.flush();
+      final long fileSize = HEADER_SIZE + (long)bucketCount * BUCKET_SIZE + termBytes.size() + stringPool.size();
+      if ( fileSize > Integer.MAX_VALUE ) {
+         throw new IOException( "Dictionary of " + fileSize + " bytes is too large for a mapped dictionary" );
+      }
+      try ( DataOutputStream writer
+                  = new DataOutputStream( new BufferedOutputStream( new FileOutputStream( outputFile ) ) ) ) {
+         writer.writeInt( MAGIC );
+         writer.writeInt( VERSION );
+         writer.writeInt( bucketCount );
+         writer.writeInt( termCount );
+         writer.writeInt( stringPool.size() );
+         for ( int i = 0; i < bucketCount; i++ ) {
+            writer.writeInt( bucketPoolOffsets[ i ] );
+            writer.writeInt( bucketFirstTerms[ i ] );
+            writer.writeInt( bucketTermCounts[ i ] );
+         }
+         termBytes.writeTo( writer );
+         stringPool.writeTo( writer );
+      }
+      LOGGER.info( "Wrote " + rareWordCount + " rare words and " + termCount + " terms to " + outputFile.getPath() );
+   }
+
+   /**
+    * Writes terms without holding them in memory.  Terms and strings are spooled to temporary files
+    * next to the output file, and only the rare word index is kept on the heap.
+    *
+    * @param groupedTerms terms grouped by rare word, e.g. sorted by rare word.
+    *                     A rare word must not reappear after terms of a different rare word.
+    * @param outputFile   compiled dictionary file
+    * @throws IOException if the file cannot be written or the dictionary is too large for the format
+    */
+   static public void writeGroupedDictionary( final Iterator<RareWordTerm> groupedTerms, final File outputFile )
+         throws IOException {
+      final File parentDir = outputFile.getAbsoluteFile().getParentFile();
+      final File termFile = File.createTempFile( outputFile.getName(), ".terms", parentDir );
+      final File poolFile = File.createTempFile( outputFile.getName(), ".pool", parentDir );
+      try {
+         int rareWordCount = 0;
+         int[] rareWordHashes = new int[ 1024 ];
+         int[] rareWordPoolOffsets = new int[ 1024 ];
+         int[] rareWordTermCounts = new int[ 1024 ];
+         int termCount = 0;
+         long poolSize = 0;
+         try ( DataOutputStream termStream
+                     = new DataOutputStream( new BufferedOutputStream( new FileOutputStream( termFile ) ) );
+               DataOutputStream poolStream
+                     = new DataOutputStream( new BufferedOutputStream( new FileOutputStream( poolFile ) ) ) ) {
+            String previousRareWord = null;
+            String previousText = null;
+            int previousTextOffset = 0;
+            while ( groupedTerms.hasNext() ) {
+               final RareWordTerm term = groupedTerms.next();
+               if ( !term.getRareWord().equals( previousRareWord ) ) {
+                  if ( rareWordCount == rareWordHashes.length ) {
+                     rareWordHashes = Arrays.copyOf( rareWordHashes, rareWordCount * 2 );
+                     rareWordPoolOffsets = Arrays.copyOf( rareWordPoolOffsets, rareWordCount * 2 );
+                     rareWordTermCounts = Arrays.copyOf( rareWordTermCounts, rareWordCount * 2 );
+                  }
+                  previousRareWord = term.getRareWord();
+                  rareWordHashes[ rareWordCount ] = previousRareWord.hashCode();
+                  rareWordPoolOffsets[ rareWordCount ] = (int)poolSize;
+                  rareWordCount++;
+                  poolSize += writePoolString( poolStream, previousRareWord );
+               }
+               // terms of a rare word are often synonyms of the same text, so repeated texts share a string
+               if ( !term.getText().equals( previousText ) ) {
+                  previousText = term.getText();
+                  previousTextOffset = (int)poolSize;
+                  poolSize += writePoolString( poolStream, previousText );
+               }
+               if ( poolSize > Integer.MAX_VALUE ) {
+                  throw new IOException( "String pool of " + poolSize + " bytes is too large for a mapped dictionary" );
+               }
+               termStream.writeLong( term.getCuiCode() );
+               termStream.writeInt( previousTextOffset );
+               termStream.writeShort( term.getRareWordIndex() );
+               termStream.writeShort( term.getTokenCount() );
+               rareWordTermCounts[ rareWordCount - 1 ]++;
+               termCount++;
+            }
+         }
+         final int bucketCount = getBucketCount( rareWordCount );
+         final long fileSize = HEADER_SIZE + (long)bucketCount * BUCKET_SIZE + termFile.length() + poolFile.length();
+         if ( fileSize > Integer.MAX_VALUE ) {
+            throw new IOException( "Dictionary of " + fileSize + " bytes is too large for a mapped dictionary" );
+         }
+         final int[] bucketPoolOffsets = new int[ bucketCount ];
+         final int[] bucketFirstTerms = new int[ bucketCount ];
+         final int[] bucketTermCounts = new int[ bucketCount ];
+         Arrays.fill( bucketPoolOffsets, EMPTY_BUCKET );
+         int firstTerm = 0;
+         for ( int i = 0; i < rareWordCount; i++ ) {
+            int bucket = spread( rareWordHashes[ i ] ) & (bucketCount - 1);
+            while ( bucketPoolOffsets[ bucket ] != EMPTY_BUCKET ) {
+               bucket = (bucket + 1) & (bucketCount - 1);
+            }
+            bucketPoolOffsets[ bucket ] = rareWordPoolOffsets[ i ];
+            bucketFirstTerms[ bucket ] = firstTerm;
+            bucketTermCounts[ bucket ] = rareWordTermCounts[ i ];
+            firstTerm += rareWordTermCounts[ i ];
+         }
+         try ( DataOutputStream writer
+                     = new DataOutputStream( new BufferedOutputStream( new FileOutputStream( outputFile ) ) ) ) {
+            writer.writeInt( MAGIC );
+            writer.writeInt( VERSION );
+            writer.writeInt( bucketCount );
+            writer.writeInt( termCount );
+            writer.writeInt( (int)poolFile.length() );
+            for ( int i = 0; i < bucketCount; i++ ) {
+               writer.writeInt( bucketPoolOffsets[ i ] );
+               writer.writeInt( bucketFirstTerms[ i ] );
+               writer.writeInt( bucketTermCounts[ i ] );
+            }
+            Files.copy( termFile.toPath(), writer );
+            Files.copy( poolFile.toPath(), writer );
+         }
+         LOGGER.info( "Wrote " + rareWordCount + " rare words and " + termCount + " terms to " + outputFile.getPath() );
+      } finally {
+         Files.deleteIfExists( termFile.toPath() );
+         Files.deleteIfExists( poolFile.toPath() );
+      }
+   }
+
+   /**
+    * @return number of bytes written, a length-prefixed utf-8 string as in the string pool
+    */
+   static private int writePoolString( final DataOutputStream poolStream, final String text ) throws IOException {
+      final byte[] utf8 = text.getBytes( StandardCharsets.UTF_8 );
+      poolStream.writeInt( utf8.length );
+      poolStream.write( utf8 );
+      return Integer.BYTES + utf8.length;
+   }
+
+   /**
+    * @param rareWordCount number of rare words
+    * @return power of two at least twice the number of rare words, keeping the load factor at or below one half
+    */
+   static private int getBucketCount( final int rareWordCount ) {
+      int bucketCount = 2;
+      while ( bucketCount < rareWordCount * 2 ) {
+         bucketCount <<= 1;
+      }
+      return bucketCount;
+   }
+
+   /**
+    * Length-prefixed utf-8 strings, each stored once.
+    */
+   static private final class StringPool {
+      private final Map<String, Integer> _offsets = new HashMap<>();
+      private final ByteArrayOutputStream _bytes = new ByteArrayOutputStream();
+      private final DataOutputStream _stream = new DataOutputStream( _bytes );
+
+      private int getOffset( final String text ) throws IOException {
+         final Integer offset = _offsets.get( text );
+         if ( offset != null ) {
+            return offset;
+         }
+         final int newOffset = _stream.size();
+         final byte[] utf8 = text.getBytes( StandardCharsets.UTF_8 );
+         _stream.writeInt( utf8.length );
+         _stream.write( utf8 );
+         _offsets.put( text, newOffset );
+         return newOffset;
+      }
+
+      private int size() {
+         return _stream.size();
+      }
+
+      private void writeTo( final OutputStream outputStream ) throws IOException {
+         _stream.flush();
+         _bytes.writeTo( outputStream );
+      }
+   }
+
+
+   public static void main( final String... args ) {
+      try {
+         if ( args.length == 3 && args[ 0 ].equalsIgnoreCase( "bsv" ) ) {
+            writeBsvDictionary( args[ 1 ], new File( args[ 2 ] ) );
+            return;
+         } else if ( args.length == 6 && args[ 0 ].equalsIgnoreCase( "jdbc" ) ) {
+            writeJdbcDictionary( HSQL_DRIVER, args[ 1 ], args[ 2 ], args[ 3 ], args[ 4 ], new File( args[ 5 ] ) );
+            return;
+         }
+      } catch ( IOException | SQLException multE ) {
+         LOGGER.error( multE.getMessage(), multE );
+         System.exit( 1 );
+      }
+      LOGGER.error( "Usage: MappedRareWordDictionaryWriter bsv bsvPath outputFile" );
+      LOGGER.error( "   or: MappedRareWordDictionaryWriter jdbc jdbcUrl jdbcUser jdbcPass tableName outputFile" );
+      System.exit( 1 );
+   }
+
+}
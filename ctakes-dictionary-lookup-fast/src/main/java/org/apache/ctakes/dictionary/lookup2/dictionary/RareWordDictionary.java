@@ -56,4 +56,13 @@ public interface RareWordDictionary {
     */
    public Collection<RareWordTerm> getRareWordHits( final String rareWordText );
 
+   /**
+    * Hint that the given rare words will soon be looked up.  Dictionaries that are backed by a database can use
+    * this to fetch all of the terms for a window or document at once.  By default this does nothing.
+    *
+    * @param rareWordTexts text of rare words that may be passed to {@link #getRareWordHits(String)}
+    */
+   default public void prefetchRareWordHits( final Collection<String> rareWordTexts ) {
+   }
+
 }
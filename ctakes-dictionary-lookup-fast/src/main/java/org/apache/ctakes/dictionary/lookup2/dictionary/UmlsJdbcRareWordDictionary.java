@@ -56,5 +56,13 @@ final public class UmlsJdbcRareWordDictionary implements RareWordDictionary {
       return _delegateDictionary.getRareWordHits( rareWordText );
    }
 
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public void prefetchRareWordHits( final Collection<String> rareWordTexts ) {
+      _delegateDictionary.prefetchRareWordHits( rareWordTexts );
+   }
+
 
 }
@@ -0,0 +1,97 @@
+package org.apache.ctakes.dictionary.lookup2.concept;
+
+import org.apache.ctakes.dictionary.lookup2.util.JdbcConnectionFactory;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+final public class JdbcConceptFactoryTest {
+
+   static private final String DRIVER = "org.hsqldb.jdbcDriver";
+   static private final String URL = "jdbc:hsqldb:mem:JdbcConceptFactoryTest";
+
+   @Test
+   public void testCreateConcepts() throws SQLException {
+      final Connection connection = JdbcConnectionFactory.getInstance().getConnection( DRIVER, URL, "sa", "" );
+      try ( Statement statement = connection.createStatement() ) {
+         statement.execute( "CREATE TABLE TUI (CUI BIGINT, TUI INTEGER)" );
+         statement.execute( "CREATE TABLE PREFTERM (CUI BIGINT, PREFTERM VARCHAR(255))" );
+         statement.execute( "CREATE TABLE SNOMEDCT_US (CUI BIGINT, SNOMEDCT_US BIGINT)" );
+         statement.execute( "INSERT INTO TUI VALUES (20538, 47)" );
+         statement.execute( "INSERT INTO TUI VALUES (30193, 184)" );
+         statement.execute( "INSERT INTO PREFTERM VALUES (20538, 'Hypertensive disease')" );
+         statement.execute( "INSERT INTO PREFTERM VALUES (30193, 'Pain')" );
+         statement.execute( "INSERT INTO SNOMEDCT_US VALUES (20538, 38341003)" );
+         statement.execute( "INSERT INTO SNOMEDCT_US VALUES (20538, 59621000)" );
+      }
+      final Map<String, String> tables = new HashMap<>();
+      tables.put( "TUITABLE", "TUI" );
+      tables.put( "PREFTERMTABLE", "PREFTERM" );
+      tables.put( "SNOMEDCT_USTABLE", "LONG" );
+      final JdbcConceptFactory factory = new JdbcConceptFactory( "Test", DRIVER, URL, "sa", "", tables, 16, 2 );
+
+      final Map<Long, Concept> concepts = factory.createConcepts( Arrays.asList( 20538L, 30193L, 99999L ) );
+      assertEquals( "Empty concepts should not be created", 2, concepts.size() );
+      final Concept hypertension = concepts.get( 20538L );
+      assertEquals( "C0020538", hypertension.getCui() );
+      assertEquals( "Hypertensive disease", hypertension.getPreferredText() );
+      assertEquals( 2, hypertension.getCodes( "SNOMEDCT_US" ).size() );
+      assertTrue( hypertension.getCodes( "SNOMEDCT_US" ).contains( "38341003" ) );
+      assertEquals( "T047", hypertension.getCodes( Concept.TUI ).iterator().next() );
+      assertEquals( 0, factory.getConceptCache().getHitCount() );
+
+      assertSame( hypertension, factory.createConcept( 20538L ) );
+      assertTrue( factory.createConcept( 99999L ).isEmpty() );
+      assertEquals( 2, factory.getConceptCache().getHitCount() );
+
+      // the cache belongs to the factory, a new factory for the same tables starts empty
+      final JdbcConceptFactory otherFactory = new JdbcConceptFactory( "Test", DRIVER, URL, "sa", "", tables, 16, 2 );
+      assertNotSame( factory.getConceptCache(), otherFactory.getConceptCache() );
+      assertNull( otherFactory.getConceptCache().get( 20538L ) );
+      assertEquals( "Hypertensive disease", otherFactory.createConcept( 20538L ).getPreferredText() );
+   }
+
+   @Test
+   public void testFailedSelectIsNotCached() throws SQLException {
+      final String url = URL + "Failure";
+      final Connection connection = JdbcConnectionFactory.getInstance().getConnection( DRIVER, url, "sa", "" );
+      try ( Statement statement = connection.createStatement() ) {
+         statement.execute( "CREATE TABLE TUI (CUI BIGINT, TUI INTEGER)" );
+         statement.execute( "CREATE TABLE RXNORM (CUI BIGINT, RXNORM BIGINT)" );
+         statement.execute( "INSERT INTO TUI VALUES (20538, 47)" );
+      }
+      final Map<String, String> tables = new HashMap<>();
+      tables.put( "TUITABLE", "TUI" );
+      tables.put( "RXNORMTABLE", "LONG" );
+      final JdbcConceptFactory factory = new JdbcConceptFactory( "Test", DRIVER, url, "sa", "", tables, 16, 2 );
+      try ( Statement statement = connection.createStatement() ) {
+         statement.execute( "DROP TABLE RXNORM" );
+      }
+      // the rxnorm selection fails, the concept is returned without rxnorm codes but is not cached
+      final Concept partial = factory.createConcept( 20538L );
+      assertEquals( "T047", partial.getCodes( Concept.TUI ).iterator().next() );
+      assertTrue( partial.getCodes( "RXNORM" ).isEmpty() );
+      assertNull( factory.getConceptCache().get( 20538L ) );
+
+      try ( Statement statement = connection.createStatement() ) {
+         statement.execute( "CREATE TABLE RXNORM (CUI BIGINT, RXNORM BIGINT)" );
+         statement.execute( "INSERT INTO RXNORM VALUES (20538, 1234)" );
+      }
+      final Concept complete = factory.createConcept( 20538L );
+      assertTrue( complete.getCodes( "RXNORM" ).contains( "1234" ) );
+      assertSame( complete, factory.getConceptCache().get( 20538L ) );
+   }
+
+}
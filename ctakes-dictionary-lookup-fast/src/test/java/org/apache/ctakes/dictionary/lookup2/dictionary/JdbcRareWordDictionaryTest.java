@@ -0,0 +1,56 @@
+package org.apache.ctakes.dictionary.lookup2.dictionary;
+
+import org.apache.ctakes.dictionary.lookup2.term.RareWordTerm;
+import org.apache.ctakes.dictionary.lookup2.util.JdbcConnectionFactory;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Collection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+final public class JdbcRareWordDictionaryTest {
+
+   static private final String DRIVER = "org.hsqldb.jdbcDriver";
+   static private final String URL = "jdbc:hsqldb:mem:JdbcRareWordDictionaryTest";
+   static private final String TABLE = "CUI_TERMS";
+
+   @Test
+   public void testPrefetchCache() throws SQLException {
+      final Connection connection = JdbcConnectionFactory.getInstance().getConnection( DRIVER, URL, "sa", "" );
+      try ( Statement statement = connection.createStatement() ) {
+         statement.execute( "CREATE TABLE " + TABLE
+                            + " (CUI BIGINT, RINDEX INTEGER, TCOUNT INTEGER, TEXT VARCHAR(255), RWORD VARCHAR(48))" );
+         statement.execute( "INSERT INTO " + TABLE + " VALUES (20538, 0, 1, 'hypertension', 'hypertension')" );
+         statement.execute( "INSERT INTO " + TABLE + " VALUES (20538, 0, 3, 'high blood pressure', 'high')" );
+         statement.execute( "INSERT INTO " + TABLE + " VALUES (30193, 0, 1, 'pain', 'pain')" );
+         statement.execute( "INSERT INTO " + TABLE + " VALUES (30193, 0, 2, 'pain syndrome', 'pain')" );
+      }
+      final JdbcRareWordDictionary dictionary
+            = new JdbcRareWordDictionary( "Test", DRIVER, URL, "sa", "", TABLE, 10, 2 );
+      dictionary.prefetchRareWordHits( Arrays.asList( "pain", "hypertension", "fracture", "pain" ) );
+      assertEquals( 3, dictionary.getRareWordCache().size() );
+
+      final Collection<RareWordTerm> painTerms = dictionary.getRareWordHits( "pain" );
+      assertEquals( 2, painTerms.size() );
+      assertEquals( 1, dictionary.getRareWordHits( "hypertension" ).size() );
+      assertTrue( dictionary.getRareWordHits( "fracture" ).isEmpty() );
+      assertEquals( 3, dictionary.getRareWordCache().getHitCount() );
+      assertEquals( 0, dictionary.getRareWordCache().getMissCount() );
+
+      assertEquals( 1, dictionary.getRareWordHits( "high" ).size() );
+      assertEquals( 1, dictionary.getRareWordCache().getMissCount() );
+      assertEquals( 1, dictionary.getRareWordHits( "high" ).size() );
+      assertEquals( 4, dictionary.getRareWordCache().getHitCount() );
+   }
+
+}
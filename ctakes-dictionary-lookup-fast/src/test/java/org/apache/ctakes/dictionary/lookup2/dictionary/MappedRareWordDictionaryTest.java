@@ -0,0 +1,82 @@
+package org.apache.ctakes.dictionary.lookup2.dictionary;
+
+import org.apache.ctakes.core.util.collection.CollectionMap;
+import org.apache.ctakes.dictionary.lookup2.term.RareWordTerm;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.apache.ctakes.dictionary.lookup2.dictionary.RareWordTermMapCreator.CuiTerm;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+final public class MappedRareWordDictionaryTest {
+
+   @Test
+   public void testRoundTrip() throws IOException {
+      final Collection<CuiTerm> cuiTerms = Arrays.asList(
+            new CuiTerm( "C0020538", "hypertension" ),
+            new CuiTerm( "C0020538", "high blood pressure" ),
+            new CuiTerm( "C0005823", "blood pressure" ),
+            new CuiTerm( "C0030193", "pain" ),
+            new CuiTerm( "C0030193", "pains" ),
+            new CuiTerm( "C0018681", "headache" ),
+            new CuiTerm( "C0011849", "diabète sucré" ) );
+      final CollectionMap<String, RareWordTerm, List<RareWordTerm>> termMap
+            = RareWordTermMapCreator.createRareWordTermMap( cuiTerms );
+      final File file = File.createTempFile( "MappedRareWordDictionaryTest", ".bin" );
+      file.deleteOnExit();
+      MappedRareWordDictionaryWriter.writeDictionary( termMap, file );
+      final RareWordDictionary dictionary = new MappedRareWordDictionary( "Test", file );
+      assertEquals( "Test", dictionary.getName() );
+      for ( String rareWord : termMap.keySet() ) {
+         assertEquals( "Wrong terms for rare word " + rareWord,
+               new HashSet<>( termMap.getCollection( rareWord ) ),
+               new HashSet<>( dictionary.getRareWordHits( rareWord ) ) );
+      }
+      final RareWordTerm hit = dictionary.getRareWordHits( "hypertension" ).iterator().next();
+      assertEquals( 20538L, hit.getCuiCode().longValue() );
+      assertEquals( 1, hit.getTokenCount() );
+      assertTrue( dictionary.getRareWordHits( "fracture" ).isEmpty() );
+      assertTrue( dictionary.getRareWordHits( "" ).isEmpty() );
+   }
+
+   @Test
+   public void testGroupedRoundTrip() throws IOException {
+      final Collection<CuiTerm> cuiTerms = Arrays.asList(
+            new CuiTerm( "C0020538", "hypertension" ),
+            new CuiTerm( "C0020538", "high blood pressure" ),
+            new CuiTerm( "C0005823", "blood pressure" ),
+            new CuiTerm( "C0005824", "blood pressure" ),
+            new CuiTerm( "C0030193", "pain" ),
+            new CuiTerm( "C0011849", "diabète sucré" ) );
+      final CollectionMap<String, RareWordTerm, List<RareWordTerm>> termMap
+            = RareWordTermMapCreator.createRareWordTermMap( cuiTerms );
+      final List<RareWordTerm> sortedTerms = new ArrayList<>();
+      termMap.values().forEach( sortedTerms::addAll );
+      sortedTerms.sort( Comparator.comparing( RareWordTerm::getRareWord ).thenComparing( RareWordTerm::getText ) );
+      final File file = File.createTempFile( "MappedRareWordDictionaryTest", ".bin" );
+      file.deleteOnExit();
+      MappedRareWordDictionaryWriter.writeGroupedDictionary( sortedTerms.iterator(), file );
+      final RareWordDictionary dictionary = new MappedRareWordDictionary( "Test", file );
+      for ( String rareWord : termMap.keySet() ) {
+         assertEquals( "Wrong terms for rare word " + rareWord,
+               new HashSet<>( termMap.getCollection( rareWord ) ),
+               new HashSet<>( dictionary.getRareWordHits( rareWord ) ) );
+      }
+      assertTrue( dictionary.getRareWordHits( "fracture" ).isEmpty() );
+   }
+
+}
@@ -18,16 +18,15 @@
  */
 package org.apache.ctakes.drugner.fsm.machines.elements;
 
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 
 import org.apache.ctakes.core.fsm.condition.IntegerValueCondition;
 import org.apache.ctakes.core.fsm.condition.NumberCondition;
 import org.apache.ctakes.core.fsm.condition.PunctuationValueCondition;
+import org.apache.ctakes.core.fsm.machine.CompiledMachineSet;
 import org.apache.ctakes.core.fsm.state.NamedState;
 import org.apache.ctakes.core.fsm.token.BaseToken;
 import org.apache.ctakes.drugner.fsm.output.util.DecimalStrengthToken;
@@ -47,6 +46,9 @@ public class DecimalStrengthFSM
     // contains the finite state machines
     private Set iv_machineSet = new HashSet();
 
+    // the finite state machines compiled into a single transition table
+    private final CompiledMachineSet iv_compiledMachines;
+
     /**
      * 
      * Constructor
@@ -56,6 +58,7 @@ public class DecimalStrengthFSM
     {
 
         iv_machineSet.add(getDecimalStrengthMachine());
+        iv_compiledMachines = new CompiledMachineSet(iv_machineSet);
        
     }
 
@@ -103,31 +106,26 @@ public class DecimalStrengthFSM
     {
         Set fractionSet = new HashSet();
 
-        // maps a fsm to a token start index
-        // key = fsm , value = token start index
-        Map tokenStartMap = new HashMap();
+        // token start index for each fsm, -1 until the fsm passes a start state
+        int[] tokenStartIndices = new int[iv_compiledMachines.getMachineCount()];
+        Arrays.fill(tokenStartIndices, -1);
+        CompiledMachineSet.Run run = iv_compiledMachines.createRun();
 
         for (int i = 0; i < tokens.size(); i++)
         {
             BaseToken token = (BaseToken) tokens.get(i);
 
-            Iterator machineItr = iv_machineSet.iterator();
-            while (machineItr.hasNext())
+            run.input(token);
+            for (int m = 0; m < iv_compiledMachines.getMachineCount(); m++)
             {
-                Machine fsm = (Machine) machineItr.next();
-
-                fsm.input(token);
-
-                State currentState = fsm.getCurrentState();
-                if (currentState.getStartStateFlag())
+                if (run.isStartState(m))
                 {
-                    tokenStartMap.put(fsm, Integer.valueOf(i));
+                    tokenStartIndices[m] = i;
                 }
-                if (currentState.getEndStateFlag())
+                if (run.isEndState(m))
                 {
-                    Object o = tokenStartMap.get(fsm);
-					int tokenStartIndex;
-					if (o == null)
+                    int tokenStartIndex = tokenStartIndices[m];
+					if (tokenStartIndex < 0)
 					{
 						// By default, all machines start with
 						// token zero.
@@ -135,7 +133,6 @@ public class DecimalStrengthFSM
 					}
 					else
 					{
-						tokenStartIndex = ((Integer) o).intValue();
 						// skip ahead over single token we don't want
 						tokenStartIndex++;						
 					}
@@ -147,22 +144,11 @@ public class DecimalStrengthFSM
                             startToken.getStartOffset(),
                             endToken.getEndOffset());
                     fractionSet.add(fractionToken);
-                    fsm.reset();
+                    run.reset(m);
                 }
             }
         }
 
-        // cleanup
-        tokenStartMap.clear();
-
-        // reset machines
-        Iterator itr = iv_machineSet.iterator();
-        while (itr.hasNext())
-        {
-            Machine fsm = (Machine) itr.next();
-            fsm.reset();
-        }
-
         return fractionSet;
     }
 }
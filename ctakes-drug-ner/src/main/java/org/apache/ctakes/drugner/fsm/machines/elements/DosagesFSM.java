@@ -18,6 +18,7 @@
  */
 package org.apache.ctakes.drugner.fsm.machines.elements;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -32,6 +33,7 @@ import org.apache.ctakes.core.fsm.condition.NumberCondition;
 import org.apache.ctakes.core.fsm.condition.PunctuationValueCondition;
 import org.apache.ctakes.core.fsm.condition.TextValueCondition;
 import org.apache.ctakes.core.fsm.condition.WordSetCondition;
+import org.apache.ctakes.core.fsm.machine.CompiledMachineSet;
 import org.apache.ctakes.core.fsm.state.NamedState;
 import org.apache.ctakes.core.fsm.state.NonTerminalEndState;
 import org.apache.ctakes.core.fsm.token.BaseToken;
@@ -63,6 +65,9 @@ public class DosagesFSM {
 	// contains the finite state machines
 	private Set iv_machineSet = new HashSet();
 
+	// the finite state machines compiled into a single transition table
+	private final CompiledMachineSet iv_compiledMachines;
+
 	/**
 	 * 
 	 * Constructor
@@ -98,6 +103,7 @@ public class DosagesFSM {
 		iv_soloTextSet.add("half-tablet");
 
 		iv_machineSet.add(getDosageQuantityMachine());
+		iv_compiledMachines = new CompiledMachineSet(iv_machineSet);
 
 	}
 
@@ -208,9 +214,10 @@ public class DosagesFSM {
 			throws Exception {
 		Set measurementSet = new HashSet();
 
-		// maps a fsm to a token start index
-		// key = fsm , value = token start index
-		Map tokenStartMap = new HashMap();
+		// token start index for each fsm, -1 until the fsm passes a start state
+		int[] tokenStartIndices = new int[iv_compiledMachines.getMachineCount()];
+		Arrays.fill(tokenStartIndices, -1);
+		CompiledMachineSet.Run run = iv_compiledMachines.createRun();
 
 		Iterator overrideTokenItr1 = overrideSet1.iterator();
 		Iterator overrideTokenItr2 = overrideSet2.iterator();
@@ -292,23 +299,18 @@ public class DosagesFSM {
 				}
 			}
 
-			Iterator machineItr = iv_machineSet.iterator();
-			while (machineItr.hasNext()) {
-				Machine fsm = (Machine) machineItr.next();
-
-				fsm.input(token);
-
-				State currentState = fsm.getCurrentState();
-				if (currentState.getStartStateFlag()) {
-					tokenStartMap.put(fsm, new Integer(i));
+			run.input(token);
+			for (int m = 0; m < iv_compiledMachines.getMachineCount(); m++) {
+				State currentState = run.getCurrentState(m);
+				if (run.isStartState(m)) {
+					tokenStartIndices[m] = i;
 					tokenOffset1 = 0;
 					tokenOffset2 = 0;
 				}
-				if (currentState.getEndStateFlag()) {
-					Object o = tokenStartMap.get(fsm);
+				if (run.isEndState(m)) {
+					int tokenStartIndex = tokenStartIndices[m];
 					int globalOffset = 0;
-					int tokenStartIndex;
-					if (o == null) {
+					if (tokenStartIndex < 0) {
 						// By default, all machines start with
 						// token zero.
 						tokenStartIndex = 0;
@@ -316,7 +318,7 @@ public class DosagesFSM {
 						Integer tokenMap1 = new Integer(0);
 						Integer tokenMap2 = new Integer(0);
 					
-						BaseToken lookUpOffset = (BaseToken) tokens.get(((Integer) o).intValue());
+						BaseToken lookUpOffset = (BaseToken) tokens.get(tokenStartIndex);
 							
 						if (overrideBeginTokenMap1.get(new Integer(lookUpOffset.getStartOffset())) != null){
 							Integer offSet = (Integer) (overrideBeginTokenMap1.get(new Integer(lookUpOffset.getStartOffset())));
@@ -329,7 +331,7 @@ public class DosagesFSM {
 						
 
 						globalOffset = tokenMap1.intValue() + tokenMap2.intValue();
-						tokenStartIndex = ((Integer) o).intValue() + globalOffset;
+						tokenStartIndex += globalOffset;
 						// skip ahead over single token we don't want
 						tokenStartIndex++;
 					}
@@ -355,21 +357,11 @@ public class DosagesFSM {
 					DosageToken measurementToken = new DosageToken(startToken
 							.getStartOffset(), endToken.getEndOffset());
 					measurementSet.add(measurementToken);
-					fsm.reset();
+					run.reset(m);
 				}
 			}
 		}
 
-		// cleanup
-		tokenStartMap.clear();
-
-		// reset machines
-		Iterator itr = iv_machineSet.iterator();
-		while (itr.hasNext()) {
-			Machine fsm = (Machine) itr.next();
-			fsm.reset();
-		}
-
 		return measurementSet;
 	}
 
@@ -383,9 +375,10 @@ public class DosagesFSM {
 	public Set execute(List tokens, Set overrideSet) throws Exception {
 		Set measurementSet = new HashSet();
 
-		// maps a fsm to a token start index
-		// key = fsm , value = token start index
-		Map tokenStartMap = new HashMap();
+		// token start index for each fsm, -1 until the fsm passes a start state
+		int[] tokenStartIndices = new int[iv_compiledMachines.getMachineCount()];
+		Arrays.fill(tokenStartIndices, -1);
+		CompiledMachineSet.Run run = iv_compiledMachines.createRun();
 
 		Iterator overrideTokenItr = overrideSet.iterator();
 		// key = start offset, value = override BaseToken object
@@ -421,25 +414,19 @@ public class DosagesFSM {
 				}
 			}
 
-			Iterator machineItr = iv_machineSet.iterator();
-			while (machineItr.hasNext()) {
-				Machine fsm = (Machine) machineItr.next();
-
-				fsm.input(token);
-
-				State currentState = fsm.getCurrentState();
-				if (currentState.getStartStateFlag()) {
-					tokenStartMap.put(fsm, Integer.valueOf(i));
+			run.input(token);
+			for (int m = 0; m < iv_compiledMachines.getMachineCount(); m++) {
+				State currentState = run.getCurrentState(m);
+				if (run.isStartState(m)) {
+					tokenStartIndices[m] = i;
 				}
-				if (currentState.getEndStateFlag()) {
-					Object o = tokenStartMap.get(fsm);
-					int tokenStartIndex;
-					if (o == null) {
+				if (run.isEndState(m)) {
+					int tokenStartIndex = tokenStartIndices[m];
+					if (tokenStartIndex < 0) {
 						// By default, all machines start with
 						// token zero.
 						tokenStartIndex = 0;
 					} else {
-						tokenStartIndex = ((Integer) o).intValue();
 						// skip ahead over single token we don't want
 						tokenStartIndex++;
 					}
@@ -466,21 +453,11 @@ public class DosagesFSM {
 							.getStartOffset(), endToken.getEndOffset());
 
 					measurementSet.add(measurementToken);
-					fsm.reset();
+					run.reset(m);
 				}
 			}
 		}
 
-		// cleanup
-		tokenStartMap.clear();
-
-		// reset machines
-		Iterator itr = iv_machineSet.iterator();
-		while (itr.hasNext()) {
-			Machine fsm = (Machine) itr.next();
-			fsm.reset();
-		}
-
 		return measurementSet;
 	}
 
@@ -18,11 +18,9 @@
  */
 package org.apache.ctakes.drugner.fsm.machines.elements;
 
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 
 import org.apache.ctakes.core.fsm.condition.DisjoinCondition;
@@ -30,6 +28,7 @@ import org.apache.ctakes.core.fsm.condition.PunctuationValueCondition;
 import org.apache.ctakes.core.fsm.condition.RangeCondition;
 import org.apache.ctakes.core.fsm.condition.TextValueCondition;
 import org.apache.ctakes.core.fsm.condition.WordSetCondition;
+import org.apache.ctakes.core.fsm.machine.CompiledMachineSet;
 import org.apache.ctakes.core.fsm.state.NamedState;
 import org.apache.ctakes.core.fsm.token.BaseToken;
 import org.apache.ctakes.drugner.fsm.elements.conditions.RangeStrengthCondition;
@@ -94,6 +93,9 @@ public class DrugChangeStatusFSM {
 	// contains the finite state machines
 	private Set iv_machineSet = new HashSet();
 
+	// the finite state machines compiled into a single transition table
+	private final CompiledMachineSet iv_compiledMachines;
+
 	private Machine iv_startStatusMachine;
 
 	private Machine iv_stopStatusMachine;
@@ -265,6 +267,7 @@ public class DrugChangeStatusFSM {
 		iv_machineSet.add(iv_changeStatusMachine);
 		iv_machineSet.add(iv_sumStatusMachine);
 		iv_machineSet.add(iv_maxStatusMachine);
+		iv_compiledMachines = new CompiledMachineSet(iv_machineSet);
 
 
 	}
@@ -774,32 +777,27 @@ public class DrugChangeStatusFSM {
 	public Set execute(List tokens) throws Exception {
 		Set fractionSet = new HashSet();
 
-		// maps a fsm to a token start index
-		// key = fsm , value = token start index
-		Map tokenStartMap = new HashMap();
+		// token start index for each fsm, -1 until the fsm passes a start state
+		int[] tokenStartIndices = new int[iv_compiledMachines.getMachineCount()];
+		Arrays.fill(tokenStartIndices, -1);
+		CompiledMachineSet.Run run = iv_compiledMachines.createRun();
 
 		for (int i = 0; i < tokens.size(); i++) {
 			BaseToken token = (BaseToken) tokens.get(i);
 
-			Iterator machineItr = iv_machineSet.iterator();
-			while (machineItr.hasNext()) {
-				Machine fsm = (Machine) machineItr.next();
-
-				fsm.input(token);
-
-				State currentState = fsm.getCurrentState();
-				if (currentState.getStartStateFlag()) {
-					tokenStartMap.put(fsm, Integer.valueOf(i));
+			run.input(token);
+			for (int m = 0; m < iv_compiledMachines.getMachineCount(); m++) {
+				Machine fsm = iv_compiledMachines.getMachine(m);
+				if (run.isStartState(m)) {
+					tokenStartIndices[m] = i;
 				}
-				if (currentState.getEndStateFlag()) {
-					Object o = tokenStartMap.get(fsm);
-					int tokenStartIndex;
-					if (o == null) {
+				if (run.isEndState(m)) {
+					int tokenStartIndex = tokenStartIndices[m];
+					if (tokenStartIndex < 0) {
 						// By default, all machines start with
 						// token zero.
 						tokenStartIndex = 0;
 					} else {
-						tokenStartIndex = ((Integer) o).intValue();
 						// skip ahead over single token we don't want
 						tokenStartIndex++;
 					}
@@ -843,21 +841,11 @@ public class DrugChangeStatusFSM {
 					}
 
 					fractionSet.add(fractionToken);
-					fsm.reset();
+					run.reset(m);
 				}
 			}
 		}
 
-		// cleanup
-		tokenStartMap.clear();
-
-		// reset machines
-		Iterator itr = iv_machineSet.iterator();
-		while (itr.hasNext()) {
-			Machine fsm = (Machine) itr.next();
-			fsm.reset();
-		}
-
 		return fractionSet;
 	}
 }
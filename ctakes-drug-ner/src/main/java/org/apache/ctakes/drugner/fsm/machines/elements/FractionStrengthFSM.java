@@ -18,17 +18,16 @@
  */
 package org.apache.ctakes.drugner.fsm.machines.elements;
 
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 
 import org.apache.ctakes.core.fsm.condition.DecimalCondition;
 import org.apache.ctakes.core.fsm.condition.NumberCondition;
 import org.apache.ctakes.core.fsm.condition.PunctuationValueCondition;
 import org.apache.ctakes.core.fsm.condition.WordSetCondition;
+import org.apache.ctakes.core.fsm.machine.CompiledMachineSet;
 import org.apache.ctakes.core.fsm.state.NamedState;
 import org.apache.ctakes.core.fsm.token.BaseToken;
 import org.apache.ctakes.drugner.fsm.elements.conditions.ContainsSetTextValueCondition;
@@ -54,6 +53,9 @@ public class FractionStrengthFSM
     // contains the finite state machines
     private Set<Machine> iv_machineSet = new HashSet<Machine>();
 
+    // the finite state machines compiled into a single transition table
+    private final CompiledMachineSet iv_compiledMachines;
+
     /**
      * Constructor
      */
@@ -91,6 +93,7 @@ public class FractionStrengthFSM
 
         iv_machineSet.add(getStrengthSlashMachine());
         iv_machineSet.add(getStandardMachine());
+        iv_compiledMachines = new CompiledMachineSet(iv_machineSet);
        
     }
 
@@ -224,38 +227,32 @@ public class FractionStrengthFSM
     {
         Set<FractionStrengthToken> fractionSet = new HashSet<FractionStrengthToken>();
 
-        // maps a fsm to a token start index
-        // key = fsm , value = token start index
-        Map tokenStartMap = new HashMap();
+        // token start index for each fsm, -1 until the fsm passes a start state
+        int[] tokenStartIndices = new int[iv_compiledMachines.getMachineCount()];
+        Arrays.fill(tokenStartIndices, -1);
+        CompiledMachineSet.Run run = iv_compiledMachines.createRun();
 
         for (int i = 0; i < tokens.size(); i++)
         {
             BaseToken token = (BaseToken) tokens.get(i);
 
-            Iterator machineItr = iv_machineSet.iterator();
-            while (machineItr.hasNext())
+            run.input(token);
+            for (int m = 0; m < iv_compiledMachines.getMachineCount(); m++)
             {
-            	Machine fsm = (Machine) machineItr.next();
-
-            	fsm.input(token);
-
-            	State currentState = fsm.getCurrentState();
-            	if (currentState.getStartStateFlag())
+            	if (run.isStartState(m))
             	{
-            		tokenStartMap.put(fsm, Integer.valueOf(i));
+            		tokenStartIndices[m] = i;
             	}
-            	if (currentState.getEndStateFlag())
+            	if (run.isEndState(m))
             	{
-            		Object o = tokenStartMap.get(fsm);
-            		int tokenStartIndex;
-            		if (o == null)
+            		int tokenStartIndex = tokenStartIndices[m];
+            		if (tokenStartIndex < 0)
             		{
             			// By default, all machines start with token zero.
             			tokenStartIndex = 0;
             		}
             		else
             		{
-            			tokenStartIndex = ((Integer) o).intValue();
             			// skip ahead over single token we don't want
             			tokenStartIndex++;						
             		}
@@ -267,22 +264,11 @@ public class FractionStrengthFSM
             					startToken.getStartOffset(),
             					endToken.getEndOffset());
             		fractionSet.add(fractionToken);
-            		fsm.reset();
+            		run.reset(m);
             	}
             }
         }
 
-        // cleanup
-        tokenStartMap.clear();
-
-        // reset machines
-        Iterator<Machine> itr = iv_machineSet.iterator();
-        while (itr.hasNext())
-        {
-            Machine fsm = itr.next();
-            fsm.reset();
-        }
-
         return fractionSet;
     }
 }
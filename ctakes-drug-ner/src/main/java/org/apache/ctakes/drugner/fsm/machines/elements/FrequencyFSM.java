@@ -18,6 +18,7 @@
  */
 package org.apache.ctakes.drugner.fsm.machines.elements;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -30,6 +31,7 @@ import org.apache.ctakes.core.fsm.condition.IntegerRangeCondition;
 import org.apache.ctakes.core.fsm.condition.NumberCondition;
 import org.apache.ctakes.core.fsm.condition.RangeCondition;
 import org.apache.ctakes.core.fsm.condition.WordSetCondition;
+import org.apache.ctakes.core.fsm.machine.CompiledMachineSet;
 import org.apache.ctakes.core.fsm.state.NamedState;
 import org.apache.ctakes.core.fsm.state.NonTerminalEndState;
 import org.apache.ctakes.core.fsm.token.BaseToken;
@@ -62,6 +64,9 @@ public class FrequencyFSM {
 	// contains the finite state machines
 	private Set iv_machineSet = new HashSet();
 
+	// the finite state machines compiled into a single transition table
+	private final CompiledMachineSet iv_compiledMachines;
+
 	// private DosagesFSM iv_dosages = new DosagesFSM();
 
 	/**
@@ -203,6 +208,7 @@ public class FrequencyFSM {
 		iv_hyphenatedSet.add("nine-times-each-hour");
 
 		iv_machineSet.add(getFrequencyMachine());
+		iv_compiledMachines = new CompiledMachineSet(iv_machineSet);
 
 
 	}
@@ -307,9 +313,10 @@ public class FrequencyFSM {
 	public Set execute(List tokens, Set overrideSet) throws Exception {
 		Set rangeSet = new HashSet();
 
-		// maps a fsm to a token start index
-		// key = fsm , value = token start index
-		Map tokenStartMap = new HashMap();
+		// token start index for each fsm, -1 until the fsm passes a start state
+		int[] tokenStartIndices = new int[iv_compiledMachines.getMachineCount()];
+		Arrays.fill(tokenStartIndices, -1);
+		CompiledMachineSet.Run run = iv_compiledMachines.createRun();
 
 		Iterator overrideTokenItr = overrideSet.iterator();
 		// key = start offset, value = override BaseToken object
@@ -345,29 +352,23 @@ public class FrequencyFSM {
 				}
 			}
 
-			Iterator machineItr = iv_machineSet.iterator();
-			while (machineItr.hasNext()) {
-				Machine fsm = (Machine) machineItr.next();
-
-				fsm.input(token);
-
-				State currentState = fsm.getCurrentState();
-				if (currentState.getStartStateFlag()) {
-					tokenStartMap.put(fsm, new Integer(i));
+			run.input(token);
+			for (int m = 0; m < iv_compiledMachines.getMachineCount(); m++) {
+				State currentState = run.getCurrentState(m);
+				if (run.isStartState(m)) {
+					tokenStartIndices[m] = i;
 				}
-				if (currentState.getEndStateFlag()) {
-					Object o = tokenStartMap.get(fsm);
-					int tokenStartIndex;
-					if (o == null) {
+				if (run.isEndState(m)) {
+					int tokenStartIndex = tokenStartIndices[m];
+					if (tokenStartIndex < 0) {
 						// By default, all machines start with
 						// token zero.
 						tokenStartIndex = 0;
 					} else {
-						tokenStartIndex = ((Integer) o).intValue();
 						// skip ahead over single token we don't want
 						tokenStartIndex++;
 					}
-										BaseToken startToken = null;
+					BaseToken startToken = null;
 					if (currentState instanceof IndentStartState) {
 						startToken = (BaseToken) tokens
 								.get(tokenStartIndex + 1);
@@ -385,21 +386,11 @@ public class FrequencyFSM {
 					FrequencyToken segmentToken = new FrequencyToken(startToken
 							.getStartOffset(), endToken.getEndOffset());
 					rangeSet.add(segmentToken);
-					fsm.reset();
+					run.reset(m);
 				}
 			}
 		}
 
-		// cleanup
-		tokenStartMap.clear();
-
-		// reset machines
-		Iterator itr = iv_machineSet.iterator();
-		while (itr.hasNext()) {
-			Machine fsm = (Machine) itr.next();
-			fsm.reset();
-		}
-
 		return rangeSet;
 	}
 
@@ -413,32 +404,27 @@ public class FrequencyFSM {
 	public Set execute(List tokens) throws Exception {
 		Set fractionSet = new HashSet();
 
-		// maps a fsm to a token start index
-		// key = fsm , value = token start index
-		Map tokenStartMap = new HashMap();
+		// token start index for each fsm, -1 until the fsm passes a start state
+		int[] tokenStartIndices = new int[iv_compiledMachines.getMachineCount()];
+		Arrays.fill(tokenStartIndices, -1);
+		CompiledMachineSet.Run run = iv_compiledMachines.createRun();
 
 		for (int i = 0; i < tokens.size(); i++) {
 			BaseToken token = (BaseToken) tokens.get(i);
 
-			Iterator machineItr = iv_machineSet.iterator();
-			while (machineItr.hasNext()) {
-				Machine fsm = (Machine) machineItr.next();
-
-				fsm.input(token);
-
-				State currentState = fsm.getCurrentState();
-				if (currentState.getStartStateFlag()) {
-					tokenStartMap.put(fsm, new Integer(i));
+			run.input(token);
+			for (int m = 0; m < iv_compiledMachines.getMachineCount(); m++) {
+				State currentState = run.getCurrentState(m);
+				if (run.isStartState(m)) {
+					tokenStartIndices[m] = i;
 				}
-				if (currentState.getEndStateFlag()) {
-					Object o = tokenStartMap.get(fsm);
-					int tokenStartIndex;
-					if (o == null) {
+				if (run.isEndState(m)) {
+					int tokenStartIndex = tokenStartIndices[m];
+					if (tokenStartIndex < 0) {
 						// By default, all machines start with
 						// token zero.
 						tokenStartIndex = 0;
 					} else {
-						tokenStartIndex = ((Integer) o).intValue();
 						// skip ahead over single token we don't want
 						tokenStartIndex++;
 					}
@@ -461,21 +447,11 @@ public class FrequencyFSM {
 							startToken.getStartOffset(), endToken
 									.getEndOffset());
 					fractionSet.add(fractionToken);
-					fsm.reset();
+					run.reset(m);
 				}
 			}
 		}
 
-		// cleanup
-		tokenStartMap.clear();
-
-		// reset machines
-		Iterator itr = iv_machineSet.iterator();
-		while (itr.hasNext()) {
-			Machine fsm = (Machine) itr.next();
-			fsm.reset();
-		}
-
 		return fractionSet;
 	}
 
@@ -490,9 +466,10 @@ public class FrequencyFSM {
 			throws Exception {
 		Set measurementSet = new HashSet();
 
-		// maps a fsm to a token start index
-		// key = fsm , value = token start index
-		Map tokenStartMap = new HashMap();
+		// token start index for each fsm, -1 until the fsm passes a start state
+		int[] tokenStartIndices = new int[iv_compiledMachines.getMachineCount()];
+		Arrays.fill(tokenStartIndices, -1);
+		CompiledMachineSet.Run run = iv_compiledMachines.createRun();
 
 		Iterator overrideTokenItr1 = overrideSet1.iterator();
 		Iterator overrideTokenItr2 = overrideSet2.iterator();
@@ -575,22 +552,18 @@ public class FrequencyFSM {
 				}
 			}
 
-			Iterator machineItr = iv_machineSet.iterator();
-			while (machineItr.hasNext()) {
-				Machine fsm = (Machine) machineItr.next();
-
-				fsm.input(token);
-				State currentState = fsm.getCurrentState();
-				if (currentState.getStartStateFlag()) {
-					tokenStartMap.put(fsm, new Integer(i));
+			run.input(token);
+			for (int m = 0; m < iv_compiledMachines.getMachineCount(); m++) {
+				State currentState = run.getCurrentState(m);
+				if (run.isStartState(m)) {
+					tokenStartIndices[m] = i;
 					tokenOffset1 = 0;
 					tokenOffset2 = 0;
 				}
-				if (currentState.getEndStateFlag()) {
-					Object o = tokenStartMap.get(fsm);
-					int tokenStartIndex;
+				if (run.isEndState(m)) {
+					int tokenStartIndex = tokenStartIndices[m];
 					int globalOffset = 0;
-					if (o == null) {
+					if (tokenStartIndex < 0) {
 						// By default, all machines start with
 						// token zero.
 						tokenStartIndex = 0;
@@ -598,7 +571,7 @@ public class FrequencyFSM {
 						Integer tokenMap1 = new Integer(0);
 						Integer tokenMap2 = new Integer(0);
 					
-						BaseToken lookUpOffset = (BaseToken) tokens.get(((Integer) o).intValue());
+						BaseToken lookUpOffset = (BaseToken) tokens.get(tokenStartIndex);
 							
 						if (overrideBeginTokenMap1.get(new Integer(lookUpOffset.getStartOffset())) != null){
 							Integer offSet = (Integer) (overrideBeginTokenMap1.get(new Integer(lookUpOffset.getStartOffset())));
@@ -611,7 +584,7 @@ public class FrequencyFSM {
 						
 
 						globalOffset = tokenMap1.intValue() + tokenMap2.intValue();
-						tokenStartIndex = ((Integer) o).intValue() + globalOffset;
+						tokenStartIndex += globalOffset;
 						// skip ahead over single token we don't want
 						tokenStartIndex++;
 					}
@@ -635,21 +608,11 @@ public class FrequencyFSM {
 							startToken.getStartOffset(), endToken
 									.getEndOffset());
 					measurementSet.add(measurementToken);
-					fsm.reset();
+					run.reset(m);
 				}
 			}
 		}
 
-		// cleanup
-		tokenStartMap.clear();
-
-		// reset machines
-		Iterator itr = iv_machineSet.iterator();
-		while (itr.hasNext()) {
-			Machine fsm = (Machine) itr.next();
-			fsm.reset();
-		}
-
 		return measurementSet;
 	}
 }
@@ -18,6 +18,7 @@
  */
 package org.apache.ctakes.drugner.fsm.machines.elements;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -34,6 +35,7 @@ import org.apache.ctakes.core.fsm.condition.NegateCondition;
 import org.apache.ctakes.core.fsm.condition.PunctuationValueCondition;
 import org.apache.ctakes.core.fsm.condition.TextSetCondition;
 import org.apache.ctakes.core.fsm.condition.TextValueCondition;
+import org.apache.ctakes.core.fsm.machine.CompiledMachineSet;
 import org.apache.ctakes.core.fsm.state.NamedState;
 import org.apache.ctakes.core.fsm.state.NonTerminalEndState;
 import org.apache.ctakes.core.fsm.token.BaseToken;
@@ -107,6 +109,9 @@ public class FrequencyUnitFSM {
 	
 	// contains the finite state machines
 	private Set iv_machineSet = new HashSet();
+
+	// the finite state machines compiled into a single transition table
+	private final CompiledMachineSet iv_compiledMachines;
 	
     private Machine iv_DailyMachine;
     
@@ -367,6 +372,7 @@ public class FrequencyUnitFSM {
 		iv_machineSet.add(iv_EveryOtherDayMachine);
 		iv_machineSet.add(iv_WeeklyMachine);
 		iv_machineSet.add(iv_PrnMachine);
+		iv_compiledMachines = new CompiledMachineSet(iv_machineSet);
 		
 
 
@@ -1339,9 +1345,10 @@ public class FrequencyUnitFSM {
 	public Set execute(List tokens, Set overrideSet) throws Exception {
 		Set rangeSet = new HashSet();
 
-		// maps a fsm to a token start index
-		// key = fsm , value = token start index
-		Map tokenStartMap = new HashMap();
+		// token start index for each fsm, -1 until the fsm passes a start state
+		int[] tokenStartIndices = new int[iv_compiledMachines.getMachineCount()];
+		Arrays.fill(tokenStartIndices, -1);
+		CompiledMachineSet.Run run = iv_compiledMachines.createRun();
 
 		Iterator overrideTokenItr = overrideSet.iterator();
 		// key = start offset, value = override BaseToken object
@@ -1377,28 +1384,24 @@ public class FrequencyUnitFSM {
 				}
 			}
 
-			Iterator machineItr = iv_machineSet.iterator();
-			while (machineItr.hasNext()) {
-				Machine fsm = (Machine) machineItr.next();
-
-				fsm.input(token);
+			run.input(token);
+			for (int m = 0; m < iv_compiledMachines.getMachineCount(); m++) {
+				Machine fsm = iv_compiledMachines.getMachine(m);
 				BaseToken startToken = null;
 			  
-				State currentState = fsm.getCurrentState();
+				State currentState = run.getCurrentState(m);
 				
-				if (currentState.getStartStateFlag()) {
-					tokenStartMap.put(fsm, new Integer(i));
+				if (run.isStartState(m)) {
+					tokenStartIndices[m] = i;
 								
 				}
-				if (currentState.getEndStateFlag()) {
-					Object o = tokenStartMap.get(fsm);
-					int tokenStartIndex;
-					if (o == null) {
+				if (run.isEndState(m)) {
+					int tokenStartIndex = tokenStartIndices[m];
+					if (tokenStartIndex < 0) {
 						// By default, all machines start with
 						// token zero.
 						tokenStartIndex = 0;
 					} else {
-						tokenStartIndex = ((Integer) o).intValue();
 						// skip ahead over single token we don't want
 						tokenStartIndex++;
 					}
@@ -1480,21 +1483,11 @@ public class FrequencyUnitFSM {
 									.getEndOffset(), FrequencyUnitToken.QUANTITY_PRN);
 					
 					rangeSet.add(fractionToken);
-					fsm.reset();
+					run.reset(m);
 				}
 			}
 		}
 
-		// cleanup
-		tokenStartMap.clear();
-
-		// reset machines
-		Iterator itr = iv_machineSet.iterator();
-		while (itr.hasNext()) {
-			Machine fsm = (Machine) itr.next();
-			fsm.reset();
-		}
-
 		return rangeSet;
 	}
 
@@ -1508,35 +1501,31 @@ public class FrequencyUnitFSM {
 	public Set execute(List tokens) throws Exception {
 		Set fractionSet = new HashSet();
 
-		// maps a fsm to a token start index
-		// key = fsm , value = token start index
-		Map tokenStartMap = new HashMap();
+		// token start index for each fsm, -1 until the fsm passes a start state
+		int[] tokenStartIndices = new int[iv_compiledMachines.getMachineCount()];
+		Arrays.fill(tokenStartIndices, -1);
+		CompiledMachineSet.Run run = iv_compiledMachines.createRun();
 
 		for (int i = 0; i < tokens.size(); i++) {
 			BaseToken token = (BaseToken) tokens.get(i);
 
-			Iterator machineItr = iv_machineSet.iterator();
-			while (machineItr.hasNext()) {
-				Machine fsm = (Machine) machineItr.next();
-
-				fsm.input(token);
-
-				State currentState = fsm.getCurrentState();
+			run.input(token);
+			for (int m = 0; m < iv_compiledMachines.getMachineCount(); m++) {
+				Machine fsm = iv_compiledMachines.getMachine(m);
+				State currentState = run.getCurrentState(m);
 				BaseToken startToken = null;
 
-				if (currentState.getStartStateFlag()) {
-					tokenStartMap.put(fsm, new Integer(i));
+				if (run.isStartState(m)) {
+					tokenStartIndices[m] = i;
 								
 				}
-				if (currentState.getEndStateFlag()) {
-					Object o = tokenStartMap.get(fsm);
-					int tokenStartIndex;
-					if (o == null) {
+				if (run.isEndState(m)) {
+					int tokenStartIndex = tokenStartIndices[m];
+					if (tokenStartIndex < 0) {
 						// By default, all machines start with
 						// token zero.
 						tokenStartIndex = 0;
 					} else {
-						tokenStartIndex = ((Integer) o).intValue();
 						// skip ahead over single token we don't want
 						tokenStartIndex++;
 					}
@@ -1615,21 +1604,11 @@ public class FrequencyUnitFSM {
 									.getEndOffset(), FrequencyUnitToken.QUANTITY_PRN);
 				
 					fractionSet.add(fractionToken);
-					fsm.reset();
+					run.reset(m);
 				}
 			}
 		}
 
-		// cleanup
-		tokenStartMap.clear();
-
-		// reset machines
-		Iterator itr = iv_machineSet.iterator();
-		while (itr.hasNext()) {
-			Machine fsm = (Machine) itr.next();
-			fsm.reset();
-		}
-
 		return fractionSet;
 	}
 	/**
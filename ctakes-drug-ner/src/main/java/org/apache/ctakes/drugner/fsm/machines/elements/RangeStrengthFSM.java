@@ -18,6 +18,7 @@
  */
 package org.apache.ctakes.drugner.fsm.machines.elements;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -30,6 +31,7 @@ import org.apache.ctakes.core.fsm.condition.NumberCondition;
 import org.apache.ctakes.core.fsm.condition.PunctuationValueCondition;
 import org.apache.ctakes.core.fsm.condition.RangeCondition;
 import org.apache.ctakes.core.fsm.condition.WordSetCondition;
+import org.apache.ctakes.core.fsm.machine.CompiledMachineSet;
 import org.apache.ctakes.core.fsm.state.NamedState;
 import org.apache.ctakes.core.fsm.token.BaseToken;
 import org.apache.ctakes.drugner.fsm.elements.conditions.FractionStrengthCondition;
@@ -57,6 +59,9 @@ public class RangeStrengthFSM
 	// contains the finite state machines
 	private Set iv_machineSet = new HashSet();
 
+	// the finite state machines compiled into a single transition table
+	private final CompiledMachineSet iv_compiledMachines;
+
 	/**
 	 * Constructor
 	 */
@@ -191,6 +196,7 @@ public class RangeStrengthFSM
 		iv_machineSet.add(getDashMachine());
 		iv_machineSet.add(getDotDashMachine());
 		iv_machineSet.add(getDashDashMachine());
+		iv_compiledMachines = new CompiledMachineSet(iv_machineSet);
 
 	}
 
@@ -376,9 +382,10 @@ public class RangeStrengthFSM
 	{
 		Set rangeSet = new HashSet();
 
-		// maps a fsm to a token start index
-		// key = fsm , value = token start index
-		Map tokenStartMap = new HashMap();
+		// token start index for each fsm, -1 until the fsm passes a start state
+		int[] tokenStartIndices = new int[iv_compiledMachines.getMachineCount()];
+		Arrays.fill(tokenStartIndices, -1);
+		CompiledMachineSet.Run run = iv_compiledMachines.createRun();
 
 		Iterator overrideTokenItr = overrideSet.iterator();
 		// key = start offset, value = override BaseToken object
@@ -423,23 +430,17 @@ public class RangeStrengthFSM
 				}
 			}
 
-			Iterator machineItr = iv_machineSet.iterator();
-			while (machineItr.hasNext())
+			run.input(token);
+			for (int m = 0; m < iv_compiledMachines.getMachineCount(); m++)
 			{
-				Machine fsm = (Machine) machineItr.next();
-
-				fsm.input(token);
-
-				State currentState = fsm.getCurrentState();
-				if (currentState.getStartStateFlag())
+				if (run.isStartState(m))
 				{
-					tokenStartMap.put(fsm, new Integer(i));
+					tokenStartIndices[m] = i;
 				}
-				if (currentState.getEndStateFlag())
+				if (run.isEndState(m))
 				{
-					Object o = tokenStartMap.get(fsm);
-					int tokenStartIndex;
-					if (o == null)
+					int tokenStartIndex = tokenStartIndices[m];
+					if (tokenStartIndex < 0)
 					{
 						// By default, all machines start with
 						// token zero.
@@ -447,7 +448,6 @@ public class RangeStrengthFSM
 					}
 					else
 					{
-						tokenStartIndex = ((Integer) o).intValue();
 						// skip ahead over single token we don't want
 						tokenStartIndex++;						
 					}
@@ -459,22 +459,11 @@ public class RangeStrengthFSM
 							startToken.getStartOffset(),
 							endToken.getEndOffset());
 					rangeSet.add(segmentToken);
-					fsm.reset();
+					run.reset(m);
 				}
 			}
 		}
 
-		// cleanup
-		tokenStartMap.clear();
-
-		// reset machines
-		Iterator itr = iv_machineSet.iterator();
-		while (itr.hasNext())
-		{
-			Machine fsm = (Machine) itr.next();
-			fsm.reset();
-		}
-
 		return rangeSet;
 	}
 
@@ -487,32 +476,26 @@ public class RangeStrengthFSM
 	public Set execute(List tokens) throws Exception {
 		Set fractionSet = new HashSet();
 	
-		// maps a fsm to a token start index
-		// key = fsm , value = token start index
-		Map tokenStartMap = new HashMap();
+		// token start index for each fsm, -1 until the fsm passes a start state
+		int[] tokenStartIndices = new int[iv_compiledMachines.getMachineCount()];
+		Arrays.fill(tokenStartIndices, -1);
+		CompiledMachineSet.Run run = iv_compiledMachines.createRun();
 	
 		for (int i = 0; i < tokens.size(); i++) {
 			BaseToken token = (BaseToken) tokens.get(i);
 	
-			Iterator machineItr = iv_machineSet.iterator();
-			while (machineItr.hasNext()) {
-				Machine fsm = (Machine) machineItr.next();
-	
-				fsm.input(token);
-	
-				State currentState = fsm.getCurrentState();
-				if (currentState.getStartStateFlag()) {
-					tokenStartMap.put(fsm, new Integer(i));
+			run.input(token);
+			for (int m = 0; m < iv_compiledMachines.getMachineCount(); m++) {
+				if (run.isStartState(m)) {
+					tokenStartIndices[m] = i;
 				}
-				if (currentState.getEndStateFlag()) {
-					Object o = tokenStartMap.get(fsm);
-					int tokenStartIndex;
-					if (o == null) {
+				if (run.isEndState(m)) {
+					int tokenStartIndex = tokenStartIndices[m];
+					if (tokenStartIndex < 0) {
 						// By default, all machines start with
 						// token zero.
 						tokenStartIndex = 0;
 					} else {
-						tokenStartIndex = ((Integer) o).intValue();
 						// skip ahead over single token we don't want
 						tokenStartIndex++;
 					}
@@ -522,21 +505,11 @@ public class RangeStrengthFSM
 					RangeStrengthToken fractionToken = new RangeStrengthToken(startToken
 							.getStartOffset(), endToken.getEndOffset());
 					fractionSet.add(fractionToken);
-					fsm.reset();
+					run.reset(m);
 				}
 			}
 		}
-	
-		// cleanup
-		tokenStartMap.clear();
-	
-		// reset machines
-		Iterator itr = iv_machineSet.iterator();
-		while (itr.hasNext()) {
-			Machine fsm = (Machine) itr.next();
-			fsm.reset();
-		}
-	
+
 		return fractionSet;
 	}
 }
@@ -18,6 +18,7 @@
  */
 package org.apache.ctakes.drugner.fsm.machines.elements;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -31,6 +32,7 @@ import org.apache.ctakes.core.fsm.condition.NegateCondition;
 import org.apache.ctakes.core.fsm.condition.NumberCondition;
 import org.apache.ctakes.core.fsm.condition.PunctuationValueCondition;
 import org.apache.ctakes.core.fsm.condition.WordSetCondition;
+import org.apache.ctakes.core.fsm.machine.CompiledMachineSet;
 import org.apache.ctakes.core.fsm.state.NamedState;
 import org.apache.ctakes.core.fsm.state.NonTerminalEndState;
 import org.apache.ctakes.core.fsm.token.BaseToken;
@@ -59,6 +61,9 @@ public class StrengthFSM {
 	private Machine iv_strengthMachine;
 	private Set iv_machineSet = new HashSet();
 
+	// the finite state machines compiled into a single transition table
+	private final CompiledMachineSet iv_compiledMachines;
+
 	/**
 	 * 
 	 * Constructor
@@ -80,6 +85,7 @@ public class StrengthFSM {
 		
 		iv_strengthMachine = getStrengthMachine();
 		iv_machineSet.add(iv_strengthMachine);
+		iv_compiledMachines = new CompiledMachineSet(iv_machineSet);
 
 
 	}
@@ -171,9 +177,10 @@ public class StrengthFSM {
 			throws Exception {
 		Set measurementSet = new HashSet();
 
-		// maps a fsm to a token start index
-		// key = fsm , value = token start index
-		Map tokenStartMap = new HashMap();
+		// token start index for each fsm, -1 until the fsm passes a start state
+		int[] tokenStartIndices = new int[iv_compiledMachines.getMachineCount()];
+		Arrays.fill(tokenStartIndices, -1);
+		CompiledMachineSet.Run run = iv_compiledMachines.createRun();
 
 		Iterator overrideTokenItr1 = overrideSet1.iterator();
 		Iterator overrideTokenItr2 = overrideSet2.iterator();
@@ -252,23 +259,18 @@ public class StrengthFSM {
 				}
 			}
 
-			Iterator machineItr = iv_machineSet.iterator();
-			while (machineItr.hasNext()) {
-				Machine fsm = (Machine) machineItr.next();
-
-				fsm.input(token);
-
-				State currentState = fsm.getCurrentState();
-				if (currentState.getStartStateFlag()) {
-					tokenStartMap.put(fsm, new Integer(i));
+			run.input(token);
+			for (int m = 0; m < iv_compiledMachines.getMachineCount(); m++) {
+				State currentState = run.getCurrentState(m);
+				if (run.isStartState(m)) {
+					tokenStartIndices[m] = i;
 					tokenOffset1 = 0;
 					tokenOffset2 = 0;
 				}
-				if (currentState.getEndStateFlag()) {
-					Object o = tokenStartMap.get(fsm);
-					int tokenStartIndex;
+				if (run.isEndState(m)) {
+					int tokenStartIndex = tokenStartIndices[m];
 					int globalOffset = 0;
-					if (o == null) {
+					if (tokenStartIndex < 0) {
 						// By default, all machines start with
 						// token zero.
 						tokenStartIndex = 0;
@@ -276,7 +278,7 @@ public class StrengthFSM {
 						Integer tokenMap1 = new Integer(0);
 						Integer tokenMap2 = new Integer(0);
 					
-						BaseToken lookUpOffset = (BaseToken) tokens.get(((Integer) o).intValue());
+						BaseToken lookUpOffset = (BaseToken) tokens.get(tokenStartIndex);
 							
 						if (overrideBeginTokenMap1.get(new Integer(lookUpOffset.getStartOffset())) != null){
 							Integer offSet = (Integer) (overrideBeginTokenMap1.get(new Integer(lookUpOffset.getStartOffset())));
@@ -289,7 +291,7 @@ public class StrengthFSM {
 						
 
 						globalOffset = tokenMap1.intValue() + tokenMap2.intValue();
-						tokenStartIndex = ((Integer) o).intValue() + globalOffset;
+						tokenStartIndex += globalOffset;
 						// skip ahead over single token we don't want
 						tokenStartIndex++;
 					}
@@ -312,21 +314,11 @@ public class StrengthFSM {
 					StrengthToken measurementToken = new StrengthToken(startToken
 							.getStartOffset(), endToken.getEndOffset());
 					measurementSet.add(measurementToken);
-					fsm.reset();
+					run.reset(m);
 				}
 			}
 		}
 
-		// cleanup
-		tokenStartMap.clear();
-
-		// reset machines
-		Iterator itr = iv_machineSet.iterator();
-		while (itr.hasNext()) {
-			Machine fsm = (Machine) itr.next();
-			fsm.reset();
-		}
-
 		return measurementSet;
 	}
 
@@ -339,9 +331,10 @@ public class StrengthFSM {
 	public Set execute(List tokens, Set overrideSet) throws Exception {
 		Set measurementSet = new HashSet();
 
-		// maps a fsm to a token start index
-		// key = fsm , value = token start index
-		Map tokenStartMap = new HashMap();
+		// token start index for each fsm, -1 until the fsm passes a start state
+		int[] tokenStartIndices = new int[iv_compiledMachines.getMachineCount()];
+		Arrays.fill(tokenStartIndices, -1);
+		CompiledMachineSet.Run run = iv_compiledMachines.createRun();
 
 		Iterator overrideTokenItr = overrideSet.iterator();
 		// key = start offset, value = override BaseToken object
@@ -386,28 +379,23 @@ public class StrengthFSM {
 				}
 			}
 
-			Iterator machineItr = iv_machineSet.iterator();
-			while (machineItr.hasNext()) {
-				Machine fsm = (Machine) machineItr.next();
-
-				fsm.input(token);
-
-				State currentState = fsm.getCurrentState();
-				if (currentState.getStartStateFlag()) {
-					tokenStartMap.put(fsm, new Integer(i));
+			run.input(token);
+			for (int m = 0; m < iv_compiledMachines.getMachineCount(); m++) {
+				State currentState = run.getCurrentState(m);
+				if (run.isStartState(m)) {
+					tokenStartIndices[m] = i;
 					tokenOffset = 0;
 				}
-				if (currentState.getEndStateFlag()) {
-					Object o = tokenStartMap.get(fsm);
-					int tokenStartIndex;
-					if (o == null) {
+				if (run.isEndState(m)) {
+					int tokenStartIndex = tokenStartIndices[m];
+					if (tokenStartIndex < 0) {
 						// By default, all machines start with
 						// token zero.
 						tokenStartIndex = 0;
 					} else {
 						Integer tokenMap = new Integer(0);
 											
-						BaseToken lookUpOffset = (BaseToken) tokens.get(((Integer) o).intValue());
+						BaseToken lookUpOffset = (BaseToken) tokens.get(tokenStartIndex);
 							
 						if (overrideBeginTokenMap.get(new Integer(lookUpOffset.getStartOffset())) != null){
 							Integer offSet = (Integer) (overrideBeginTokenMap.get(new Integer(lookUpOffset.getStartOffset())));
@@ -415,7 +403,7 @@ public class StrengthFSM {
 						}
 						
 						
-						tokenStartIndex = ((Integer) o).intValue() + tokenMap.intValue();
+						tokenStartIndex += tokenMap.intValue();
 						// skip ahead over single token we don't want
 						tokenStartIndex++;
 					}
@@ -439,22 +427,12 @@ public class StrengthFSM {
 								.getStartOffset(), endToken.getEndOffset());
 					measurementSet.add(measurementToken);
 			
-					fsm.reset();
+					run.reset(m);
 					
 				}
 			}
 		}
 
-		// cleanup
-		tokenStartMap.clear();
-
-		// reset machines
-		Iterator itr = iv_machineSet.iterator();
-		while (itr.hasNext()) {
-			Machine fsm = (Machine) itr.next();
-			fsm.reset();
-		}
-
 		return measurementSet;
 	}
 
@@ -467,9 +445,10 @@ public class StrengthFSM {
 	public Set execute(List tokens) throws Exception {
 		Set measurementSet = new HashSet();
 
-		// maps a fsm to a token start index
-		// key = fsm , value = token start index
-		Map tokenStartMap = new HashMap();
+		// token start index for each fsm, -1 until the fsm passes a start state
+		int[] tokenStartIndices = new int[iv_compiledMachines.getMachineCount()];
+		Arrays.fill(tokenStartIndices, -1);
+		CompiledMachineSet.Run run = iv_compiledMachines.createRun();
 
 
 		int tokenOffset = 0;
@@ -481,31 +460,26 @@ public class StrengthFSM {
 			Integer key = new Integer(token.getStartOffset());
 
 
-			Iterator machineItr = iv_machineSet.iterator();
-			while (machineItr.hasNext()) {
-				Machine fsm = (Machine) machineItr.next();
-
-				fsm.input(token);
-
-				State currentState = fsm.getCurrentState();
-				if (currentState.getStartStateFlag()) {
-					tokenStartMap.put(fsm, new Integer(i));
+			run.input(token);
+			for (int m = 0; m < iv_compiledMachines.getMachineCount(); m++) {
+				State currentState = run.getCurrentState(m);
+				if (run.isStartState(m)) {
+					tokenStartIndices[m] = i;
 					tokenOffset = 0;
 				}
-				if (currentState.getEndStateFlag()) {
-					Object o = tokenStartMap.get(fsm);
-					int tokenStartIndex;
-					if (o == null) {
+				if (run.isEndState(m)) {
+					int tokenStartIndex = tokenStartIndices[m];
+					if (tokenStartIndex < 0) {
 						// By default, all machines start with
 						// token zero.
 						tokenStartIndex = 0;
 					} else {
 						Integer tokenMap = new Integer(0);
 											
-						BaseToken lookUpOffset = (BaseToken) tokens.get(((Integer) o).intValue());
+						BaseToken lookUpOffset = (BaseToken) tokens.get(tokenStartIndex);
 							
 						
-						tokenStartIndex = ((Integer) o).intValue() + tokenMap.intValue();
+						tokenStartIndex += tokenMap.intValue();
 						// skip ahead over single token we don't want
 						tokenStartIndex++;
 					}
@@ -529,22 +503,12 @@ public class StrengthFSM {
 								.getStartOffset(), endToken.getEndOffset());
 					measurementSet.add(measurementToken);
 			
-					fsm.reset();
+					run.reset(m);
 					
 				}
 			}
 		}
 
-		// cleanup
-		tokenStartMap.clear();
-
-		// reset machines
-		Iterator itr = iv_machineSet.iterator();
-		while (itr.hasNext()) {
-			Machine fsm = (Machine) itr.next();
-			fsm.reset();
-		}
-
 		return measurementSet;
 	}
 
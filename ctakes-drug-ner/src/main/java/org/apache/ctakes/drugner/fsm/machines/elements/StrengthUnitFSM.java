@@ -18,6 +18,7 @@
  */
 package org.apache.ctakes.drugner.fsm.machines.elements;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -28,6 +29,7 @@ import java.util.Set;
 import org.apache.ctakes.core.fsm.condition.PunctuationValueCondition;
 import org.apache.ctakes.core.fsm.condition.SymbolValueCondition;
 import org.apache.ctakes.core.fsm.condition.WordSetCondition;
+import org.apache.ctakes.core.fsm.machine.CompiledMachineSet;
 import org.apache.ctakes.core.fsm.state.NamedState;
 import org.apache.ctakes.core.fsm.token.BaseToken;
 import org.apache.ctakes.drugner.fsm.elements.conditions.ContainsSetTextValueCondition;
@@ -53,6 +55,9 @@ public class StrengthUnitFSM {
 	private Machine iv_strengthCombinedMachine;
 	private Set iv_machineSet = new HashSet();
 
+	// the finite state machines compiled into a single transition table
+	private final CompiledMachineSet iv_compiledMachines;
+
 	/**
 	 * 
 	 * Constructor
@@ -99,6 +104,7 @@ public class StrengthUnitFSM {
 		iv_strengthCombinedMachine = getStrengthCombinedMachine();
 		iv_machineSet.add(iv_strengthCombinedMachine);
 		iv_machineSet.add(iv_strengthMachine);
+		iv_compiledMachines = new CompiledMachineSet(iv_machineSet);
 
 
 	}
@@ -189,9 +195,10 @@ public class StrengthUnitFSM {
 			throws Exception {
 		Set measurementSet = new HashSet();
 
-		// maps a fsm to a token start index
-		// key = fsm , value = token start index
-		Map tokenStartMap = new HashMap();
+		// token start index for each fsm, -1 until the fsm passes a start state
+		int[] tokenStartIndices = new int[iv_compiledMachines.getMachineCount()];
+		Arrays.fill(tokenStartIndices, -1);
+		CompiledMachineSet.Run run = iv_compiledMachines.createRun();
 
 		Iterator overrideTokenItr1 = overrideSet1.iterator();
 		Iterator overrideTokenItr2 = overrideSet2.iterator();
@@ -270,23 +277,19 @@ public class StrengthUnitFSM {
 				}
 			}
 
-			Iterator machineItr = iv_machineSet.iterator();
-			while (machineItr.hasNext()) {
-				Machine fsm = (Machine) machineItr.next();
-
-				fsm.input(token);
-
-				State currentState = fsm.getCurrentState();
-				if (currentState.getStartStateFlag()) {
-					tokenStartMap.put(fsm, new Integer(i));
+			run.input(token);
+			for (int m = 0; m < iv_compiledMachines.getMachineCount(); m++) {
+				Machine fsm = iv_compiledMachines.getMachine(m);
+				State currentState = run.getCurrentState(m);
+				if (run.isStartState(m)) {
+					tokenStartIndices[m] = i;
 					tokenOffset1 = 0;
 					tokenOffset2 = 0;
 				}
-				if (currentState.getEndStateFlag()) {
-					Object o = tokenStartMap.get(fsm);
-					int tokenStartIndex;
+				if (run.isEndState(m)) {
+					int tokenStartIndex = tokenStartIndices[m];
 					int globalOffset = 0;
-					if (o == null) {
+					if (tokenStartIndex < 0) {
 						// By default, all machines start with
 						// token zero.
 						tokenStartIndex = 0;
@@ -294,7 +297,7 @@ public class StrengthUnitFSM {
 						Integer tokenMap1 = new Integer(0);
 						Integer tokenMap2 = new Integer(0);
 					
-						BaseToken lookUpOffset = (BaseToken) tokens.get(((Integer) o).intValue());
+						BaseToken lookUpOffset = (BaseToken) tokens.get(tokenStartIndex);
 							
 						if (overrideBeginTokenMap1.get(new Integer(lookUpOffset.getStartOffset())) != null){
 							Integer offSet = (Integer) (overrideBeginTokenMap1.get(new Integer(lookUpOffset.getStartOffset())));
@@ -307,7 +310,7 @@ public class StrengthUnitFSM {
 						
 
 						globalOffset = tokenMap1.intValue() + tokenMap2.intValue();
-						tokenStartIndex = ((Integer) o).intValue() + globalOffset;
+						tokenStartIndex += globalOffset;
 						// skip ahead over single token we don't want
 						tokenStartIndex++;
 					}
@@ -336,21 +339,11 @@ public class StrengthUnitFSM {
 						measurementSet.add(measurementToken);
 						
 					}
-					fsm.reset();
+					run.reset(m);
 				}
 			}
 		}
 
-		// cleanup
-		tokenStartMap.clear();
-
-		// reset machines
-		Iterator itr = iv_machineSet.iterator();
-		while (itr.hasNext()) {
-			Machine fsm = (Machine) itr.next();
-			fsm.reset();
-		}
-
 		return measurementSet;
 	}
 
@@ -363,9 +356,10 @@ public class StrengthUnitFSM {
 	public Set execute(List tokens, Set overrideSet) throws Exception {
 		Set measurementSet = new HashSet();
 
-		// maps a fsm to a token start index
-		// key = fsm , value = token start index
-		Map tokenStartMap = new HashMap();
+		// token start index for each fsm, -1 until the fsm passes a start state
+		int[] tokenStartIndices = new int[iv_compiledMachines.getMachineCount()];
+		Arrays.fill(tokenStartIndices, -1);
+		CompiledMachineSet.Run run = iv_compiledMachines.createRun();
 
 		Iterator overrideTokenItr = overrideSet.iterator();
 		// key = start offset, value = override BaseToken object
@@ -410,28 +404,24 @@ public class StrengthUnitFSM {
 				}
 			}
 
-			Iterator machineItr = iv_machineSet.iterator();
-			while (machineItr.hasNext()) {
-				Machine fsm = (Machine) machineItr.next();
-
-				fsm.input(token);
-
-				State currentState = fsm.getCurrentState();
-				if (currentState.getStartStateFlag()) {
-					tokenStartMap.put(fsm, new Integer(i));
+			run.input(token);
+			for (int m = 0; m < iv_compiledMachines.getMachineCount(); m++) {
+				Machine fsm = iv_compiledMachines.getMachine(m);
+				State currentState = run.getCurrentState(m);
+				if (run.isStartState(m)) {
+					tokenStartIndices[m] = i;
 					tokenOffset = 0;
 				}
-				if (currentState.getEndStateFlag()) {
-					Object o = tokenStartMap.get(fsm);
-					int tokenStartIndex;
-					if (o == null) {
+				if (run.isEndState(m)) {
+					int tokenStartIndex = tokenStartIndices[m];
+					if (tokenStartIndex < 0) {
 						// By default, all machines start with
 						// token zero.
 						tokenStartIndex = 0;
 					} else {
 						Integer tokenMap = new Integer(0);
 											
-						BaseToken lookUpOffset = (BaseToken) tokens.get(((Integer) o).intValue());
+						BaseToken lookUpOffset = (BaseToken) tokens.get(tokenStartIndex);
 							
 						if (overrideBeginTokenMap.get(new Integer(lookUpOffset.getStartOffset())) != null){
 							Integer offSet = (Integer) (overrideBeginTokenMap.get(new Integer(lookUpOffset.getStartOffset())));
@@ -439,7 +429,7 @@ public class StrengthUnitFSM {
 						}
 						
 						
-						tokenStartIndex = ((Integer) o).intValue() + tokenMap.intValue();
+						tokenStartIndex += tokenMap.intValue();
 						// skip ahead over single token we don't want
 						tokenStartIndex++;
 					}
@@ -468,22 +458,12 @@ public class StrengthUnitFSM {
 						
 					}
 					
-					fsm.reset();
+					run.reset(m);
 					
 				}
 			}
 		}
 
-		// cleanup
-		tokenStartMap.clear();
-
-		// reset machines
-		Iterator itr = iv_machineSet.iterator();
-		while (itr.hasNext()) {
-			Machine fsm = (Machine) itr.next();
-			fsm.reset();
-		}
-
 		return measurementSet;
 	}
 
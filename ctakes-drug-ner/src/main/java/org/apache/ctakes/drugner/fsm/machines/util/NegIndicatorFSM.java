@@ -18,11 +18,9 @@
  */
 package org.apache.ctakes.drugner.fsm.machines.util;
 
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 
 import org.apache.ctakes.core.fsm.condition.DisjoinCondition;
@@ -30,6 +28,7 @@ import org.apache.ctakes.core.fsm.condition.NegateCondition;
 import org.apache.ctakes.core.fsm.condition.TextSetCondition;
 import org.apache.ctakes.core.fsm.condition.TextValueCondition;
 import org.apache.ctakes.core.fsm.machine.FSM;
+import org.apache.ctakes.core.fsm.machine.CompiledMachineSet;
 import org.apache.ctakes.core.fsm.output.NegationIndicator;
 import org.apache.ctakes.core.fsm.state.NamedState;
 import org.apache.ctakes.core.fsm.state.NonTerminalEndState;
@@ -82,6 +81,9 @@ public class NegIndicatorFSM implements FSM
 
     // contains the finite state machines
     private Set iv_machineSet = new HashSet();
+
+    // the finite state machines compiled into a single transition table
+    private final CompiledMachineSet iv_compiledMachines;
     // beginning with capitalize. E.g 'No'
     private Set iv_negInitialDeterminersSet = new HashSet();
     
@@ -258,6 +260,7 @@ public class NegIndicatorFSM implements FSM
         iv_machineSet.add(getNominalNegIndicatorMachine());
         iv_machineSet.add(getAdjNegIndicatorMachine());
         iv_machineSet.add(iv_negInitialDetermineMachine);
+        iv_compiledMachines = new CompiledMachineSet(iv_machineSet);
 
     }
 
@@ -473,31 +476,28 @@ public class NegIndicatorFSM implements FSM
     {
         Set outSet = new HashSet();
 
-        // maps a fsm to a token start index
-        // key = fsm , value = token start index
-        Map tokenStartMap = new HashMap();
+        // token start index for each fsm, -1 until the fsm passes a start state
+        int[] tokenStartIndices = new int[iv_compiledMachines.getMachineCount()];
+        Arrays.fill(tokenStartIndices, -1);
+        CompiledMachineSet.Run run = iv_compiledMachines.createRun();
 
         for (int i = 0; i < tokens.size(); i++)
         {
             BaseToken token = (BaseToken) tokens.get(i);
 
-            Iterator machineItr = iv_machineSet.iterator();
-            while (machineItr.hasNext())
+            run.input(token);
+            for (int m = 0; m < iv_compiledMachines.getMachineCount(); m++)
             {
-                Machine fsm = (Machine) machineItr.next();
-
-                fsm.input(token);
-
-                State currentState = fsm.getCurrentState();
-                if (currentState.getStartStateFlag())
+                Machine fsm = iv_compiledMachines.getMachine(m);
+                State currentState = run.getCurrentState(m);
+                if (run.isStartState(m))
                 {
-                    tokenStartMap.put(fsm, new Integer(i));
+                    tokenStartIndices[m] = i;
                 }
-                if (currentState.getEndStateFlag())
+                if (run.isEndState(m))
                 {
-                    Object o = tokenStartMap.get(fsm);
-                    int tokenStartIndex;
-                    if (o == null)
+                    int tokenStartIndex = tokenStartIndices[m];
+                    if (tokenStartIndex < 0)
                     {
                         // By default, all machines start with
                         // token zero.
@@ -505,7 +505,6 @@ public class NegIndicatorFSM implements FSM
                     }
                     else
                     {
-                        tokenStartIndex = ((Integer) o).intValue();
                         // skip ahead over single token we don't want
                         tokenStartIndex++;
                     }
@@ -532,22 +531,11 @@ public class NegIndicatorFSM implements FSM
                             startToken.getStartOffset(),
                             endToken.getEndOffset());
                     outSet.add(neg);
-                    fsm.reset();
+                    run.reset(m);
                 }
             }
         }
 
-        // cleanup
-        tokenStartMap.clear();
-
-        // reset machines
-        Iterator itr = iv_machineSet.iterator();
-        while (itr.hasNext())
-        {
-            Machine fsm = (Machine) itr.next();
-            fsm.reset();
-        }
-
         return outSet;
     }
 }
\ No newline at end of file
@@ -18,14 +18,13 @@
  */
 package org.apache.ctakes.drugner.fsm.machines.util;
 
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 
 import org.apache.ctakes.core.fsm.condition.TextSetCondition;
+import org.apache.ctakes.core.fsm.machine.CompiledMachineSet;
 import org.apache.ctakes.core.fsm.state.NamedState;
 import org.apache.ctakes.core.fsm.state.NonTerminalEndState;
 import org.apache.ctakes.core.fsm.token.BaseToken;
@@ -50,6 +49,9 @@ public class NonIndicatorFSM
 
     // contains the finite state machines
     private Set iv_machineSet = new HashSet();
+
+    // the finite state machines compiled into a single transition table
+    private final CompiledMachineSet iv_compiledMachines;
     // beginning with capitalize. E.g 'No'
     private Set iv_negInitialDeterminersSet = new HashSet();
     
@@ -70,6 +72,7 @@ public class NonIndicatorFSM
 
         iv_machineSet.add(getAdjNegIndicatorMachine());
         iv_machineSet.add(iv_negInitialDetermineMachine);
+        iv_compiledMachines = new CompiledMachineSet(iv_machineSet);
 
     }
 
@@ -132,31 +135,28 @@ public class NonIndicatorFSM
     {
         Set outSet = new HashSet();
 
-        // maps a fsm to a token start index
-        // key = fsm , value = token start index
-        Map tokenStartMap = new HashMap();
+        // token start index for each fsm, -1 until the fsm passes a start state
+        int[] tokenStartIndices = new int[iv_compiledMachines.getMachineCount()];
+        Arrays.fill(tokenStartIndices, -1);
+        CompiledMachineSet.Run run = iv_compiledMachines.createRun();
 
         for (int i = 0; i < tokens.size(); i++)
         {
             BaseToken token = (BaseToken) tokens.get(i);
 
-            Iterator machineItr = iv_machineSet.iterator();
-            while (machineItr.hasNext())
+            run.input(token);
+            for (int m = 0; m < iv_compiledMachines.getMachineCount(); m++)
             {
-                Machine fsm = (Machine) machineItr.next();
-
-                fsm.input(token);
-
-                State currentState = fsm.getCurrentState();
-                if (currentState.getStartStateFlag())
+                Machine fsm = iv_compiledMachines.getMachine(m);
+                State currentState = run.getCurrentState(m);
+                if (run.isStartState(m))
                 {
-                    tokenStartMap.put(fsm, new Integer(i));
+                    tokenStartIndices[m] = i;
                 }
-                if (currentState.getEndStateFlag())
+                if (run.isEndState(m))
                 {
-                    Object o = tokenStartMap.get(fsm);
-                    int tokenStartIndex;
-                    if (o == null)
+                    int tokenStartIndex = tokenStartIndices[m];
+                    if (tokenStartIndex < 0)
                     {
                         // By default, all machines start with
                         // token zero.
@@ -164,7 +164,6 @@ public class NonIndicatorFSM
                     }
                     else
                     {
-                        tokenStartIndex = ((Integer) o).intValue();
                         // skip ahead over single token we don't want
                         tokenStartIndex++;
                     }
@@ -191,22 +190,11 @@ public class NonIndicatorFSM
                             startToken.getStartOffset(),
                             endToken.getEndOffset());
                     outSet.add(neg);
-                    fsm.reset();
+                    run.reset(m);
                 }
             }
         }
 
-        // cleanup
-        tokenStartMap.clear();
-
-        // reset machines
-        Iterator itr = iv_machineSet.iterator();
-        while (itr.hasNext())
-        {
-            Machine fsm = (Machine) itr.next();
-            fsm.reset();
-        }
-
         return outSet;
     }
 }
\ No newline at end of file
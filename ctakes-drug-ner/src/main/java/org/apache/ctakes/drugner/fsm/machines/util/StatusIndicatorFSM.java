@@ -18,15 +18,14 @@
  */
 package org.apache.ctakes.drugner.fsm.machines.util;
 
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 
 import org.apache.ctakes.core.fsm.condition.TextSetCondition;
 import org.apache.ctakes.core.fsm.condition.TextValueCondition;
+import org.apache.ctakes.core.fsm.machine.CompiledMachineSet;
 import org.apache.ctakes.core.fsm.output.StatusIndicator;
 import org.apache.ctakes.core.fsm.state.NamedState;
 import org.apache.ctakes.core.fsm.state.NonTerminalEndState;
@@ -93,6 +92,9 @@ public class StatusIndicatorFSM
 
 	private Set iv_machineSet = new HashSet();
 
+	// the finite state machines compiled into a single transition table
+	private final CompiledMachineSet iv_compiledMachines;
+
     /**
      * 
      * Constructor
@@ -154,6 +156,7 @@ public class StatusIndicatorFSM
         iv_machineSet.add(iv_probableMachineNoTerm);
         iv_machineSet.add(iv_probableMachine);
         iv_machineSet.add(iv_familyHistoryMachine);
+        iv_compiledMachines = new CompiledMachineSet(iv_machineSet);
     }
     /**
      * Gets a finite state machine that detects the following:
@@ -332,30 +335,28 @@ public class StatusIndicatorFSM
     {
         Set outSet = new HashSet();
 
-        // maps a fsm to a token start index
-        // key = Machine , value = token start index
-        Map tokenStartMap = new HashMap();
+        // token start index for each fsm, -1 until the fsm passes a start state
+        int[] tokenStartIndices = new int[iv_compiledMachines.getMachineCount()];
+        Arrays.fill(tokenStartIndices, -1);
+        CompiledMachineSet.Run run = iv_compiledMachines.createRun();
 
         for (int i = 0; i < tokens.size(); i++)
         {
             BaseToken token = (BaseToken) tokens.get(i);
 
-            Iterator machineItr = iv_machineSet.iterator();
-            while (machineItr.hasNext())
+            run.input(token);
+            for (int m = 0; m < iv_compiledMachines.getMachineCount(); m++)
             {
-                Machine m = (Machine) machineItr.next();
-                m.input(token);
-
-                State currentState = m.getCurrentState();
-                if (currentState.getStartStateFlag())
+                Machine fsm = iv_compiledMachines.getMachine(m);
+                State currentState = run.getCurrentState(m);
+                if (run.isStartState(m))
                 {
-                    tokenStartMap.put(m, new Integer(i));
+                    tokenStartIndices[m] = i;
                 }
-                if (currentState.getEndStateFlag())
+                if (run.isEndState(m))
                 {
-                    Object o = tokenStartMap.get(m);
-                    int tokenStartIndex;
-                    if (o == null)
+                    int tokenStartIndex = tokenStartIndices[m];
+                    if (tokenStartIndex < 0)
                     {
                         // By default, all machines start with
                         // token zero.
@@ -363,7 +364,6 @@ public class StatusIndicatorFSM
                     }
                     else
                     {
-                        tokenStartIndex = ((Integer) o).intValue();
                         // skip ahead over single token we don't want
                         tokenStartIndex++;
                     }
@@ -380,14 +380,14 @@ public class StatusIndicatorFSM
                     BaseToken startToken = (BaseToken) tokens
                             .get(tokenStartIndex);
                     StatusIndicator si = null;
-                    if (m.equals(iv_historyMachine))
+                    if (fsm.equals(iv_historyMachine))
                     {
                         si = new StatusIndicator(
                                 startToken.getStartOffset(),
                                 endToken.getEndOffset(),
                                 StatusIndicator.HISTORY_STATUS);
                     }
-                    else if (m.equals(iv_probableMachine) || (m.equals(iv_probableMachineNoTerm)))
+                    else if (fsm.equals(iv_probableMachine) || (fsm.equals(iv_probableMachineNoTerm)))
                     {
 
                         si = new StatusIndicator(
@@ -395,7 +395,7 @@ public class StatusIndicatorFSM
                                 endToken.getEndOffset(),
                                 StatusIndicator.PROBABLE_STATUS);
                     }
-                    else if (m.equals(iv_familyHistoryMachine))
+                    else if (fsm.equals(iv_familyHistoryMachine))
                     {
                         si = new StatusIndicator(
                                 startToken.getStartOffset(),
@@ -403,24 +403,13 @@ public class StatusIndicatorFSM
                                 StatusIndicator.FAMILY_HISTORY_STATUS);
                     }
                     outSet.add(si);
-                    m.reset();
+                    run.reset(m);
                 }
             }
         }
 
         // TODO resolve conflict between history & family history
 
-        // cleanup
-        tokenStartMap.clear();
-
-        // reset machines
-        Iterator itr = iv_machineSet.iterator();
-        while (itr.hasNext())
-        {
-            Machine m = (Machine) itr.next();
-            m.reset();
-        }
-
         return outSet;
     }
 }
\ No newline at end of file
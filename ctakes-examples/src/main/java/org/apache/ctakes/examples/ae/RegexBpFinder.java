@@ -10,7 +10,6 @@ import org.apache.uima.fit.component.JCasAnnotator_ImplBase;
 import org.apache.uima.fit.util.JCasUtil;
 import org.apache.uima.jcas.JCas;
 
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.regex.Pattern;
@@ -35,6 +34,10 @@ final public class RegexBpFinder extends JCasAnnotator_ImplBase {
 
    static private final String BP_VALUES = "\\d{2,3} ?\\/ ?\\d{2,3}\\b";
 
+   static private final RegexSpanFinder VIT_BP_FINDER
+         = new RegexSpanFinder( VIT_BP_TRIGGER, Pattern.CASE_INSENSITIVE | Pattern.MULTILINE, 1000 );
+   static private final RegexSpanFinder BP_FINDER = new RegexSpanFinder( BP_TRIGGER + BP_VALUES );
+
 
    /**
     * {@inheritDoc}
@@ -60,12 +63,7 @@ final public class RegexBpFinder extends JCasAnnotator_ImplBase {
          logBloodPressure( sectionText );
          return;
       }
-      Collection<Pair<Integer>> spans = new ArrayList<>();
-      try ( RegexSpanFinder finder = new RegexSpanFinder( VIT_BP_TRIGGER, Pattern.CASE_INSENSITIVE | Pattern.MULTILINE, 1000 ) ) {
-         spans.addAll( finder.findSpans( sectionText ) );
-      } catch ( IllegalArgumentException iaE ) {
-         LOGGER.error( iaE.getMessage() );
-      }
+      final Collection<Pair<Integer>> spans = VIT_BP_FINDER.findSpans( sectionText );
       for ( Pair<Integer> span : spans ) {
          final int eol = sectionText.indexOf( '\n', span.getValue2() );
          if ( eol < 0 ) {
@@ -77,12 +75,7 @@ final public class RegexBpFinder extends JCasAnnotator_ImplBase {
    }
 
    static private void logBloodPressure( final String text ) {
-      Collection<Pair<Integer>> spans = new ArrayList<>();
-      try ( RegexSpanFinder finder = new RegexSpanFinder( BP_TRIGGER + BP_VALUES ) ) {
-         spans.addAll( finder.findSpans( text ) );
-      } catch ( IllegalArgumentException iaE ) {
-         LOGGER.error( iaE.getMessage() );
-      }
+      final Collection<Pair<Integer>> spans = BP_FINDER.findSpans( text );
       final Collection<String> values = spans.stream()
             // switch from spans to text
             .map( p -> text.substring( p.getValue1(), p.getValue2() ) )
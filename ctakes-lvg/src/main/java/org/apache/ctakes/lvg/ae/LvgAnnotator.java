@@ -45,6 +45,7 @@ import org.apache.ctakes.core.pipeline.PipeBitInfo;
 import org.apache.ctakes.core.util.ListFactory;
 import org.apache.ctakes.lvg.resource.LvgCmdApiResource;
 import org.apache.ctakes.lvg.resource.LvgCmdApiResourceImpl;
+import org.apache.ctakes.lvg.resource.LvgLexicalTable;
 import org.apache.ctakes.typesystem.type.syntax.Lemma;
 import org.apache.ctakes.typesystem.type.syntax.WordToken;
 import org.apache.ctakes.typesystem.type.textspan.Segment;
@@ -66,6 +67,13 @@ import org.apache.uima.fit.factory.ExternalResourceFactory;
  * UIMA annotator that uses the UMLS LVG package to find the canonical form of
  * WordTokens. The package is also used to find one or more lemmas for a given
  * WordToken along with its associated part of speech.
+ * <p>
+ * Words are looked up in an optional table compiled by
+ * {@link org.apache.ctakes.lvg.resource.LvgLexicalTableCompiler}, then in the
+ * norm and lemma caches. Only words that are in neither are sent to LVG. The
+ * table and caches are read only, and calls to LVG are synchronized on the
+ * shared LVG resource, so a single instance can process several CASes at once.
+ * </p>
  * 
  * @author Mayo Clinic
  * 
@@ -198,6 +206,21 @@ public class LvgAnnotator extends JCasAnnotator_ImplBase {
 	    )
 	private String[] wordsToExclude = defaultExclusionWords;
   private Set<String> exclusionSet;
+
+	/**
+	 * Value is "LexicalTableLocation". This parameter sets the location of a
+	 * table compiled by LvgLexicalTableCompiler.
+	 */
+	public static final String PARAM_LEXICAL_TABLE_LOCATION = "LexicalTableLocation";
+	@ConfigurationParameter(
+	    name = PARAM_LEXICAL_TABLE_LOCATION,
+	    mandatory = false,
+	    description = "Path to a precompiled LVG lexical table -- words in the table are not sent to LVG"
+	    )
+  private String lexicalTableLocation;
+
+	// precompiled norms and lemmas, null if no table is used
+	private LvgLexicalTable lexicalTable;
   
 	// LOG4J logger based on class name
 	private Logger logger = Logger.getLogger(getClass().getName());
@@ -234,6 +257,12 @@ public class LvgAnnotator extends JCasAnnotator_ImplBase {
 		try {
 			lvgCmd = lvgResource.getLvg();
 
+			if (lexicalTableLocation != null) {
+				logger.info("Loading LVG lexical table=" + lexicalTableLocation);
+				lexicalTable = LvgLexicalTable.load(lexicalTableLocation);
+				logger.info("Loaded " + lexicalTable.size() + " entries");
+			}
+
 			if (useCmdCache) {
 				logger.info("Loading Cmd cache=" + cmdCacheFileLocation);
 				loadCmdCacheFile(cmdCacheFileLocation);
@@ -342,15 +371,27 @@ public class LvgAnnotator extends JCasAnnotator_ImplBase {
 				if (exclusionSet.contains(word))
 					continue;
 
-				setCanonicalForm(wordAnnotation, word);
+				LvgLexicalTable.Entry entry = lexicalTable == null ? null
+						: lexicalTable.get(word);
+				setCanonicalForm(wordAnnotation, word, entry);
 				if (postLemmas)
-					setLemma(wordAnnotation, word, jcas);
+					setLemma(wordAnnotation, word, entry, jcas);
 			}
 		}
 	}
 
-	private void setCanonicalForm(WordToken wordAnnotation, String word)
+	private void setCanonicalForm(WordToken wordAnnotation, String word,
+			LvgLexicalTable.Entry entry)
 			throws AnalysisEngineProcessException {
+		// use the precompiled canonical form, even if LVG had no output
+		if (entry != null && entry.hasNorm()) {
+			String canonicalForm = entry.getNorm();
+			if (canonicalForm != null) {
+				wordAnnotation.setCanonicalForm(canonicalForm);
+			}
+			return;
+		}
+
 		// apply LVG processing to get canonical form
 		String canonicalForm = null;
 		if (useCmdCache) {
@@ -363,7 +404,11 @@ public class LvgAnnotator extends JCasAnnotator_ImplBase {
 		// only apply LVG processing if not found in cache first
 		if (canonicalForm == null) {
 			try {
-				String out = lvgCmd.MutateToString(word);
+				String out;
+				// LVG is not thread safe, the resource may be shared
+				synchronized (lvgResource) {
+					out = lvgCmd.MutateToString(word);
+				}
 
 				String[] output = out.split("\\|");
 
@@ -382,13 +427,19 @@ public class LvgAnnotator extends JCasAnnotator_ImplBase {
 		}
 	}
 
-	private void setLemma(WordToken wordAnnotation, String word, JCas jcas)
+	private void setLemma(WordToken wordAnnotation, String word,
+			LvgLexicalTable.Entry entry, JCas jcas)
 			throws AnalysisEngineProcessException {
 		// apply LVG processing to get lemmas
 		// key = lemma string, value = Set of POS tags
 		Map<String, Set<String>> lemmaMap = null;
 
-		if (useLemmaCache) {
+		if (entry != null && entry.hasLemmas()) {
+			lemmaMap = new HashMap<>();
+			for (Map.Entry<String, Long> lemma : entry.getLemmas().entrySet()) {
+				addLemma(lemmaMap, lemma.getKey(), lemma.getValue());
+			}
+		} else if (useLemmaCache) {
 			Set<?> lemmaSet = lemmaCacheMap.get(word);
 			if (lemmaSet == null) {
 				// logger.info("["+ word+
@@ -406,31 +457,17 @@ public class LvgAnnotator extends JCasAnnotator_ImplBase {
 		if (lemmaMap == null) {
 			lemmaMap = new HashMap<>();
 			try {
-				Vector<?> lexItems = lvgLexItem.MutateLexItem(word);
+				Vector<?> lexItems;
+				// LVG is not thread safe, the resource may be shared
+				synchronized (lvgResource) {
+					lexItems = lvgLexItem.MutateLexItem(word);
+				}
 				Iterator<?> lexItemItr = lexItems.iterator();
 				while (lexItemItr.hasNext()) {
 					LexItem li = (LexItem) lexItemItr.next();
 
 					Category c = li.GetTargetCategory();
-					String lemmaStr = li.GetTargetTerm();
-					long[] bitValues = Category.ToValuesArray(c.GetValue());
-					for (int i = 0; i < bitValues.length; i++) {
-						// note that POS is Xerox tagset
-						String lemmaPos = Category.ToName(bitValues[i]);
-						// convert Xerox tagset to PennTreebank tagset
-						String treebankTag = xeroxTreebankMap
-								.get(lemmaPos);
-						if (treebankTag != null) {
-							Set<String> posSet = null;
-							if (lemmaMap.containsKey(lemmaStr)) {
-								posSet = lemmaMap.get(lemmaStr);
-							} else {
-								posSet = new HashSet<>();
-							}
-							posSet.add(treebankTag);
-							lemmaMap.put(lemmaStr, posSet);
-						}
-					}
+					addLemma(lemmaMap, li.GetTargetTerm(), c.GetValue());
 				}
 			} catch (Exception e) {
 				throw new AnalysisEngineProcessException(e);
@@ -459,6 +496,31 @@ public class LvgAnnotator extends JCasAnnotator_ImplBase {
 		wordAnnotation.setLemmaEntries(fsList);
 	}
 
+	/**
+	 * Adds the Treebank parts of speech of a lemma to the lemma map.
+	 * 
+	 * @param categories
+	 *            LVG category bit vector, parts of speech in the Xerox tagset
+	 */
+	private void addLemma(Map<String, Set<String>> lemmaMap, String lemmaStr,
+			long categories) {
+		long[] bitValues = Category.ToValuesArray(categories);
+		for (int i = 0; i < bitValues.length; i++) {
+			// note that POS is Xerox tagset
+			String lemmaPos = Category.ToName(bitValues[i]);
+			// convert Xerox tagset to PennTreebank tagset
+			String treebankTag = xeroxTreebankMap.get(lemmaPos);
+			if (treebankTag != null) {
+				Set<String> posSet = lemmaMap.get(lemmaStr);
+				if (posSet == null) {
+					posSet = new HashSet<>();
+					lemmaMap.put(lemmaStr, posSet);
+				}
+				posSet.add(treebankTag);
+			}
+		}
+	}
+
 	/**
 	 * Helper method that loads a Norm cache file.
 	 * 
@@ -56,10 +56,13 @@ enum LvgSingleton {
       }
    }
 
+   /**
+    * Calls process on the single LVG instance.
+    * Not locked: the LvgAnnotator only synchronizes its calls to LVG, so words found in its lexical table or caches
+    * are normalized concurrently.
+    */
    public void process( final JCas jCas ) throws AnalysisEngineProcessException {
-      synchronized ( LOCK ) {
-         _lvgAnnotator.process( jCas );
-      }
+      _lvgAnnotator.process( jCas );
    }
 
 
@@ -0,0 +1,275 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ctakes.lvg.resource;
+
+import org.apache.ctakes.core.resource.FileLocator;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Immutable lookup table of LVG normalized forms and lemmas, written by {@link LvgLexicalTableCompiler}.
+ * <p>
+ * The table file is memory mapped and only read with absolute gets, so a single instance can be shared by any
+ * number of threads without locking.  Words are found in an open addressing hash table with linear probing.
+ * Each slot holds the {@link String#hashCode()} of its word, so probes only compare characters on a hash match.
+ * </p>
+ * <pre>
+ * header    int magic, int version, int entry count, int slot count (a power of 2)
+ * slots     slot count * ( int word hash, int entry offset or -1 )
+ * entries   byte flags, char word length, word chars,
+ *           [ char norm length, norm chars ]                                        if {@link #HAS_NORM}
+ *           [ char lemma count, lemma count * ( char length, chars, long category ) ] if {@link #HAS_LEMMAS}
+ * </pre>
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+final public class LvgLexicalTable {
+
+   static final int MAGIC = 0x4C564C54;
+   static final int VERSION = 1;
+   static final int HEADER_SIZE = 16;
+   static final int SLOT_SIZE = 8;
+
+   /**
+    * The LVG norm flow was run for the word
+    */
+   static final byte HAS_NORM = 1;
+   /**
+    * The LVG inflection flow was run for the word
+    */
+   static final byte HAS_LEMMAS = 2;
+   /**
+    * The LVG norm flow was run for the word and returned "No Output"
+    */
+   static final byte NO_NORM_OUTPUT = 4;
+
+   private final ByteBuffer _slots;
+   private final ByteBuffer _entries;
+   private final int _slotMask;
+   private final int _size;
+
+   /**
+    * @param location file path or classpath location of a compiled table
+    * @return table mapped from the location
+    * @throws IOException if the table cannot be found or is not a compiled lexical table
+    */
+   static public LvgLexicalTable load( final String location ) throws IOException {
+      return map( FileLocator.getFile( location ) );
+   }
+
+   /**
+    * @param file compiled table
+    * @return table mapped from the file
+    * @throws IOException if the file cannot be read or is not a compiled lexical table
+    */
+   static public LvgLexicalTable map( final File file ) throws IOException {
+      try ( RandomAccessFile raf = new RandomAccessFile( file, "r" );
+            FileChannel channel = raf.getChannel() ) {
+         return new LvgLexicalTable( channel.map( FileChannel.MapMode.READ_ONLY, 0, channel.size() ) );
+      }
+   }
+
+   /**
+    * @param buffer compiled table, from position 0
+    * @throws IOException if the buffer does not hold a compiled lexical table
+    */
+   LvgLexicalTable( final ByteBuffer buffer ) throws IOException {
+      if ( buffer.limit() < HEADER_SIZE || buffer.getInt( 0 ) != MAGIC ) {
+         throw new IOException( "Not a compiled LVG lexical table" );
+      }
+      if ( buffer.getInt( 4 ) != VERSION ) {
+         throw new IOException( "Unsupported LVG lexical table version " + buffer.getInt( 4 ) );
+      }
+      _size = buffer.getInt( 8 );
+      final int slotCount = buffer.getInt( 12 );
+      // lookups stop at an empty slot, so there must be more slots than entries
+      if ( Integer.bitCount( slotCount ) != 1 || _size < 0 || _size >= slotCount
+           || HEADER_SIZE + (long)slotCount * SLOT_SIZE > buffer.limit() ) {
+         throw new IOException( "Corrupt LVG lexical table" );
+      }
+      _slotMask = slotCount - 1;
+      _slots = slice( buffer, HEADER_SIZE, HEADER_SIZE + slotCount * SLOT_SIZE );
+      _entries = slice( buffer, HEADER_SIZE + slotCount * SLOT_SIZE, buffer.limit() );
+   }
+
+   static private ByteBuffer slice( final ByteBuffer buffer, final int begin, final int end ) {
+      final ByteBuffer duplicate = buffer.duplicate();
+      duplicate.position( begin );
+      duplicate.limit( end );
+      return duplicate.slice();
+   }
+
+   /**
+    * spread the bits of the string hash so that similar words do not cluster in neighboring slots
+    */
+   static int getSlot( final int hash, final int slotMask ) {
+      int h = hash * 0x9E3779B9;
+      h ^= h >>> 16;
+      return h & slotMask;
+   }
+
+   /**
+    * @return number of words in the table
+    */
+   public int size() {
+      return _size;
+   }
+
+   /**
+    * @param word -
+    * @return true if the table has an entry for the word
+    */
+   public boolean contains( final String word ) {
+      return find( word ) >= 0;
+   }
+
+   /**
+    * @param word -
+    * @return the entry for the word or null if the word is not in the table
+    */
+   public Entry get( final String word ) {
+      final int offset = find( word );
+      return offset < 0 ? null : new Entry( offset );
+   }
+
+   /**
+    * @return offset of the entry for the word or -1 if it is not in the table
+    */
+   private int find( final String word ) {
+      final int hash = word.hashCode();
+      int slot = getSlot( hash, _slotMask );
+      for ( int probe = 0; probe <= _slotMask; probe++ ) {
+         final int offset = _slots.getInt( slot * SLOT_SIZE + 4 );
+         if ( offset < 0 ) {
+            return -1;
+         }
+         if ( _slots.getInt( slot * SLOT_SIZE ) == hash && equalsWord( offset, word ) ) {
+            return offset;
+         }
+         slot = ( slot + 1 ) & _slotMask;
+      }
+      return -1;
+   }
+
+   private boolean equalsWord( final int offset, final String word ) {
+      final int length = _entries.getChar( offset + 1 );
+      if ( length != word.length() ) {
+         return false;
+      }
+      int index = offset + 3;
+      for ( int i = 0; i < length; i++ ) {
+         if ( _entries.getChar( index ) != word.charAt( i ) ) {
+            return false;
+         }
+         index += 2;
+      }
+      return true;
+   }
+
+   private String getString( final int offset ) {
+      final char[] chars = new char[ _entries.getChar( offset ) ];
+      int index = offset + 2;
+      for ( int i = 0; i < chars.length; i++ ) {
+         chars[ i ] = _entries.getChar( index );
+         index += 2;
+      }
+      return new String( chars );
+   }
+
+   /**
+    * @return offset following the string at the given offset
+    */
+   private int skipString( final int offset ) {
+      return offset + 2 + 2 * _entries.getChar( offset );
+   }
+
+   /**
+    * The precompiled LVG output for a single word.
+    */
+   final public class Entry {
+      private final int _offset;
+      private final byte _flags;
+
+      private Entry( final int offset ) {
+         _offset = offset;
+         _flags = _entries.get( offset );
+      }
+
+      /**
+       * @return true if the normalized form of the word was compiled.
+       * If false then the word is only in the table for its lemmas.
+       */
+      public boolean hasNorm() {
+         return ( _flags & HAS_NORM ) != 0;
+      }
+
+      /**
+       * @return the normalized form of the word,
+       * or null if it was not compiled or if LVG had no output for the word
+       */
+      public String getNorm() {
+         if ( !hasNorm() || ( _flags & NO_NORM_OUTPUT ) != 0 ) {
+            return null;
+         }
+         return getString( skipString( _offset + 1 ) );
+      }
+
+      /**
+       * @return true if the lemmas of the word were compiled.
+       * If false then the word is only in the table for its normalized form.
+       */
+      public boolean hasLemmas() {
+         return ( _flags & HAS_LEMMAS ) != 0;
+      }
+
+      /**
+       * @return map of lemma to the LVG category bit vector of the lemma, in compiled order.
+       * Empty if the lemmas were not compiled or LVG had no lemma for the word
+       */
+      public Map<String, Long> getLemmas() {
+         if ( !hasLemmas() ) {
+            return Collections.emptyMap();
+         }
+         int index = skipString( _offset + 1 );
+         if ( hasNorm() && ( _flags & NO_NORM_OUTPUT ) == 0 ) {
+            index = skipString( index );
+         }
+         final int count = _entries.getChar( index );
+         index += 2;
+         final Map<String, Long> lemmas = new LinkedHashMap<>( count * 2 );
+         for ( int i = 0; i < count; i++ ) {
+            final String lemma = getString( index );
+            index = skipString( index );
+            lemmas.put( lemma, _entries.getLong( index ) );
+            index += 8;
+         }
+         return lemmas;
+      }
+   }
+
+}
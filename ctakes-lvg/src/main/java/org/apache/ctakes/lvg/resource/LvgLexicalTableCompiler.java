@@ -0,0 +1,430 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ctakes.lvg.resource;
+
+import gov.nih.nlm.nls.lvg.Api.LvgCmdApi;
+import gov.nih.nlm.nls.lvg.Api.LvgLexItemApi;
+import gov.nih.nlm.nls.lvg.Lib.Category;
+import gov.nih.nlm.nls.lvg.Lib.LexItem;
+import org.apache.ctakes.core.resource.FileLocator;
+import org.apache.log4j.Logger;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringTokenizer;
+
+import static org.apache.ctakes.lvg.resource.LvgLexicalTable.*;
+
+/**
+ * Compiles LVG output into a {@link LvgLexicalTable}.
+ * <p>
+ * Words can be added from the LVG norm and lemma cache files used by the LvgAnnotator,
+ * and from word lists that are run through the LVG norm ( -f:l:b ) and inflection ( -f:i ) flows.
+ * LVG is only used while compiling, so annotators that use the table only call LVG for words that are not in it.
+ * </p>
+ * Usage:
+ * <pre>
+ * LvgLexicalTableCompiler -o table [-cutoff frequency] [-norm normCache] [-lemma lemmaCache]
+ *                         [-lvg lvg.properties -words wordList]
+ * </pre>
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+final public class LvgLexicalTableCompiler {
+
+   static private final Logger LOGGER = Logger.getLogger( "LvgLexicalTableCompiler" );
+
+   /**
+    * Entries are kept in insertion order so that compiled tables are reproducible
+    */
+   private final Map<String, WordEntry> _entries = new LinkedHashMap<>();
+
+   /**
+    * @return number of words added to the table
+    */
+   public int size() {
+      return _entries.size();
+   }
+
+   /**
+    * Sets the normalized form of a word.  As in the LvgAnnotator cache, only the first normalized form is used.
+    *
+    * @param word -
+    * @param norm normalized form of the word, null if LVG has no output for the word
+    */
+   public void addNorm( final String word, final String norm ) {
+      if ( norm != null && norm.length() > Character.MAX_VALUE ) {
+         LOGGER.warn( "Skipping normalized form of length " + norm.length() );
+         return;
+      }
+      final WordEntry entry = getEntry( word );
+      if ( entry != null && !entry._hasNorm ) {
+         entry._hasNorm = true;
+         entry._norm = norm;
+      }
+   }
+
+   /**
+    * Adds a lemma of a word.  Categories of a lemma that is added more than once are combined.
+    *
+    * @param word     -
+    * @param lemma    -
+    * @param category LVG category bit vector of the lemma
+    */
+   public void addLemma( final String word, final String lemma, final long category ) {
+      final WordEntry entry = getEntry( word );
+      if ( entry != null ) {
+         entry._hasLemmas = true;
+         final Long previous = entry._lemmas.get( lemma );
+         entry._lemmas.put( lemma, previous == null ? category : previous | category );
+      }
+   }
+
+   /**
+    * Marks the lemmas of a word as compiled, even if the word has no lemmas
+    *
+    * @param word -
+    */
+   public void addLemmas( final String word ) {
+      final WordEntry entry = getEntry( word );
+      if ( entry != null ) {
+         entry._hasLemmas = true;
+      }
+   }
+
+   private WordEntry getEntry( final String word ) {
+      if ( word.length() > Character.MAX_VALUE ) {
+         LOGGER.warn( "Skipping word of length " + word.length() );
+         return null;
+      }
+      return _entries.computeIfAbsent( word, w -> new WordEntry() );
+   }
+
+   /**
+    * Adds words from a norm cache file, with lines "frequency|word|norm|...", 7 fields
+    *
+    * @param stream          norm cache
+    * @param frequencyCutoff only words with a higher frequency are added
+    * @throws IOException if the cache cannot be read
+    */
+   public void addNormCache( final InputStream stream, final int frequencyCutoff ) throws IOException {
+      final BufferedReader reader = new BufferedReader( new InputStreamReader( stream, StandardCharsets.UTF_8 ) );
+      String line = reader.readLine();
+      while ( line != null ) {
+         final StringTokenizer st = new StringTokenizer( line, "|" );
+         if ( st.countTokens() == 7 ) {
+            if ( Integer.parseInt( st.nextToken() ) > frequencyCutoff ) {
+               final String word = st.nextToken();
+               addNorm( word, st.nextToken() );
+            }
+         } else {
+            LOGGER.warn( "Invalid LVG norm cache line: " + line );
+         }
+         line = reader.readLine();
+      }
+   }
+
+   /**
+    * Adds words from a lemma cache file, with lines "frequency|word|lemma|&lt;categories&gt;"
+    *
+    * @param stream          lemma cache
+    * @param frequencyCutoff only words with a higher frequency are added
+    * @throws IOException if the cache cannot be read
+    */
+   public void addLemmaCache( final InputStream stream, final int frequencyCutoff ) throws IOException {
+      final BufferedReader reader = new BufferedReader( new InputStreamReader( stream, StandardCharsets.UTF_8 ) );
+      String line = reader.readLine();
+      while ( line != null ) {
+         final StringTokenizer st = new StringTokenizer( line, "|" );
+         if ( st.countTokens() == 4 ) {
+            if ( Integer.parseInt( st.nextToken() ) > frequencyCutoff ) {
+               final String word = st.nextToken();
+               final String lemma = st.nextToken();
+               final String categories = st.nextToken();
+               // strip < and > chars
+               addLemma( word, lemma, Category.ToValue( categories.substring( 1, categories.length() - 1 ) ) );
+            }
+         } else {
+            LOGGER.warn( "Invalid LVG lemma cache line: " + line );
+         }
+         line = reader.readLine();
+      }
+   }
+
+   /**
+    * Runs a word through LVG and adds the output
+    *
+    * @param word       -
+    * @param lvgCmd     norm flow, may be null
+    * @param lvgLexItem inflection flow, may be null
+    * @throws Exception if LVG fails
+    */
+   public void addWord( final String word, final LvgCmdApi lvgCmd, final LvgLexItemApi lvgLexItem )
+         throws Exception {
+      if ( lvgCmd != null ) {
+         final String[] output = lvgCmd.MutateToString( word ).split( "\\|" );
+         if ( output.length >= 2 && !output[ 1 ].matches( "No Output" ) ) {
+            addNorm( word, output[ 1 ] );
+         } else {
+            addNorm( word, null );
+         }
+      }
+      if ( lvgLexItem != null ) {
+         addLemmas( word );
+         for ( LexItem lexItem : lvgLexItem.MutateLexItem( word ) ) {
+            addLemma( word, lexItem.GetTargetTerm(), lexItem.GetTargetCategory().GetValue() );
+         }
+      }
+   }
+
+   /**
+    * @return the compiled table, in a heap buffer
+    */
+   public ByteBuffer build() {
+      final int slotCount = Integer.highestOneBit( Math.max( 8, _entries.size() * 2 ) - 1 ) << 1;
+      final int slotMask = slotCount - 1;
+      final int[] slots = new int[ slotCount * 2 ];
+      for ( int i = 1; i < slots.length; i += 2 ) {
+         slots[ i ] = -1;
+      }
+      final List<byte[]> entryBytes = new ArrayList<>( _entries.size() );
+      int offset = 0;
+      for ( Map.Entry<String, WordEntry> entry : _entries.entrySet() ) {
+         final int hash = entry.getKey().hashCode();
+         int slot = getSlot( hash, slotMask );
+         while ( slots[ slot * 2 + 1 ] >= 0 ) {
+            slot = ( slot + 1 ) & slotMask;
+         }
+         slots[ slot * 2 ] = hash;
+         slots[ slot * 2 + 1 ] = offset;
+         final byte[] bytes = entry.getValue().toBytes( entry.getKey() );
+         entryBytes.add( bytes );
+         offset += bytes.length;
+         if ( offset < 0 ) {
+            throw new IllegalStateException( "Too many words for an LVG lexical table" );
+         }
+      }
+      final ByteBuffer buffer = ByteBuffer.allocate( HEADER_SIZE + slotCount * SLOT_SIZE + offset );
+      buffer.putInt( MAGIC ).putInt( VERSION ).putInt( _entries.size() ).putInt( slotCount );
+      buffer.asIntBuffer().put( slots );
+      buffer.position( HEADER_SIZE + slotCount * SLOT_SIZE );
+      entryBytes.forEach( buffer::put );
+      buffer.flip();
+      return buffer;
+   }
+
+   /**
+    * Writes the compiled table to a temporary file that then replaces the given file,
+    * so that a table that is being read by annotators is never partially written.
+    *
+    * @param file table file
+    * @throws IOException if the table cannot be written
+    */
+   public void write( final File file ) throws IOException {
+      final File parent = file.getAbsoluteFile().getParentFile();
+      if ( parent != null && !parent.isDirectory() && !parent.mkdirs() ) {
+         throw new IOException( "Could not create directory " + parent );
+      }
+      final File tmpFile = new File( file.getPath() + ".tmp" );
+      try ( FileOutputStream stream = new FileOutputStream( tmpFile );
+            FileChannel channel = stream.getChannel() ) {
+         final ByteBuffer buffer = build();
+         while ( buffer.hasRemaining() ) {
+            channel.write( buffer );
+         }
+      }
+      if ( file.exists() && !file.delete() ) {
+         throw new IOException( "Could not replace " + file );
+      }
+      if ( !tmpFile.renameTo( file ) ) {
+         throw new IOException( "Could not rename " + tmpFile + " to " + file );
+      }
+   }
+
+   /**
+    * Runs each line of a word list through LVG.
+    * As in LvgCmdApiResourceImpl the lvg root directory, two levels above the lvg.properties file,
+    * is used as the working directory so that LVG_DIR=AUTO_MODE finds the lvg data.
+    *
+    * @param words         word list, one word per line
+    * @param lvgProperties lvg.properties file
+    * @throws Exception if LVG fails
+    */
+   public void addWords( final InputStream words, final File lvgProperties ) throws Exception {
+      final File configDir = lvgProperties.getAbsoluteFile().getParentFile();
+      final String cwd = System.getProperty( "user.dir" );
+      final LvgCmdApi lvgCmd;
+      final LvgLexItemApi lvgLexItem;
+      try {
+         System.setProperty( "user.dir", configDir.getParentFile().getParent() + File.separator );
+         lvgCmd = new LvgCmdApi( "-f:l:b", lvgProperties.getPath() );
+         lvgLexItem = new LvgLexItemApi( "-f:i -SC", lvgProperties.getPath() );
+      } finally {
+         System.setProperty( "user.dir", cwd );
+      }
+      try {
+         final BufferedReader reader = new BufferedReader( new InputStreamReader( words, StandardCharsets.UTF_8 ) );
+         int count = 0;
+         String line = reader.readLine();
+         while ( line != null ) {
+            final String word = line.trim();
+            if ( !word.isEmpty() ) {
+               addWord( word, lvgCmd, lvgLexItem );
+               count++;
+               if ( count % 10000 == 0 ) {
+                  LOGGER.info( "Processed " + count + " words" );
+               }
+            }
+            line = reader.readLine();
+         }
+      } finally {
+         lvgCmd.CleanUp();
+         lvgLexItem.CleanUp();
+      }
+   }
+
+   static public void main( final String... args ) throws Exception {
+      String outputPath = null;
+      String normPath = null;
+      String lemmaPath = null;
+      String lvgPath = null;
+      String wordsPath = null;
+      int cutoff = 20;
+      for ( int i = 0; i + 1 < args.length; i += 2 ) {
+         switch ( args[ i ] ) {
+            case "-o":
+               outputPath = args[ i + 1 ];
+               break;
+            case "-norm":
+               normPath = args[ i + 1 ];
+               break;
+            case "-lemma":
+               lemmaPath = args[ i + 1 ];
+               break;
+            case "-lvg":
+               lvgPath = args[ i + 1 ];
+               break;
+            case "-words":
+               wordsPath = args[ i + 1 ];
+               break;
+            case "-cutoff":
+               cutoff = Integer.parseInt( args[ i + 1 ] );
+               break;
+            default:
+               outputPath = null;
+               i = args.length;
+         }
+      }
+      if ( outputPath == null || args.length % 2 != 0 || ( lvgPath == null ) != ( wordsPath == null ) ) {
+         System.err.println( "Usage: LvgLexicalTableCompiler -o table [-cutoff frequency]"
+                             + " [-norm normCache] [-lemma lemmaCache] [-lvg lvg.properties -words wordList]" );
+         System.exit( 1 );
+      }
+      final LvgLexicalTableCompiler compiler = new LvgLexicalTableCompiler();
+      if ( normPath != null ) {
+         try ( InputStream stream = FileLocator.getAsStream( normPath ) ) {
+            compiler.addNormCache( stream, cutoff );
+         }
+      }
+      if ( lemmaPath != null ) {
+         try ( InputStream stream = FileLocator.getAsStream( lemmaPath ) ) {
+            compiler.addLemmaCache( stream, cutoff );
+         }
+      }
+      if ( wordsPath != null ) {
+         try ( InputStream stream = FileLocator.getAsStream( wordsPath ) ) {
+            compiler.addWords( stream, FileLocator.getFile( lvgPath ) );
+         }
+      }
+      compiler.write( new File( outputPath ) );
+      LOGGER.info( "Wrote " + compiler.size() + " words to " + outputPath );
+   }
+
+
+   /**
+    * LVG output for one word, while compiling
+    */
+   static private final class WordEntry {
+      private boolean _hasNorm;
+      private String _norm;
+      private boolean _hasLemmas;
+      private final Map<String, Long> _lemmas = new LinkedHashMap<>();
+
+      private byte[] toBytes( final String word ) {
+         byte flags = 0;
+         int length = 1 + 2 + 2 * word.length();
+         if ( _hasNorm ) {
+            flags |= HAS_NORM;
+            if ( _norm == null ) {
+               flags |= NO_NORM_OUTPUT;
+            } else {
+               length += 2 + 2 * _norm.length();
+            }
+         }
+         final List<String> lemmas = new ArrayList<>( _lemmas.keySet() );
+         if ( _hasLemmas ) {
+            flags |= HAS_LEMMAS;
+            if ( lemmas.size() > Character.MAX_VALUE ) {
+               LOGGER.warn( "Truncating " + lemmas.size() + " lemmas of " + word );
+               lemmas.subList( Character.MAX_VALUE, lemmas.size() ).clear();
+            }
+            lemmas.removeIf( l -> l.length() > Character.MAX_VALUE );
+            length += 2;
+            for ( String lemma : lemmas ) {
+               length += 2 + 2 * lemma.length() + 8;
+            }
+         }
+         final ByteBuffer buffer = ByteBuffer.allocate( length );
+         buffer.put( flags );
+         putString( buffer, word );
+         if ( _hasNorm && _norm != null ) {
+            putString( buffer, _norm );
+         }
+         if ( _hasLemmas ) {
+            buffer.putChar( (char)lemmas.size() );
+            for ( String lemma : lemmas ) {
+               putString( buffer, lemma );
+               buffer.putLong( _lemmas.get( lemma ) );
+            }
+         }
+         return buffer.array();
+      }
+
+      static private void putString( final ByteBuffer buffer, final String text ) {
+         buffer.putChar( (char)text.length() );
+         for ( int i = 0; i < text.length(); i++ ) {
+            buffer.putChar( text.charAt( i ) );
+         }
+      }
+   }
+
+}
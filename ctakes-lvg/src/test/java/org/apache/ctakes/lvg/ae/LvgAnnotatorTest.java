@@ -0,0 +1,143 @@
+package org.apache.ctakes.lvg.ae;
+
+import gov.nih.nlm.nls.lvg.Api.LvgCmdApi;
+import gov.nih.nlm.nls.lvg.Api.LvgLexItemApi;
+import gov.nih.nlm.nls.lvg.Lib.Category;
+import gov.nih.nlm.nls.lvg.Lib.LexItem;
+import org.apache.ctakes.lvg.resource.LvgCmdApiResource;
+import org.apache.ctakes.lvg.resource.LvgLexicalTableCompiler;
+import org.apache.ctakes.typesystem.type.syntax.Lemma;
+import org.apache.ctakes.typesystem.type.syntax.WordToken;
+import org.apache.uima.analysis_engine.AnalysisEngine;
+import org.apache.uima.fit.factory.AnalysisEngineFactory;
+import org.apache.uima.fit.factory.ExternalResourceFactory;
+import org.apache.uima.fit.factory.JCasFactory;
+import org.apache.uima.fit.util.FSCollectionFactory;
+import org.apache.uima.fit.util.JCasUtil;
+import org.apache.uima.jcas.JCas;
+import org.apache.uima.resource.DataResource;
+import org.apache.uima.resource.SharedResourceObject;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Vector;
+
+import static org.junit.Assert.*;
+
+/**
+ * Words are looked up in the lexical table, then in the norm and lemma caches, and only then sent to LVG.
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+final public class LvgAnnotatorTest {
+
+   static private final String CACHE_DIR = "/org/apache/ctakes/lvg/ae/";
+
+   @Rule
+   public TemporaryFolder _folder = new TemporaryFolder();
+
+   @Test
+   public void testLookupOrder() throws Exception {
+      final LvgLexicalTableCompiler compiler = new LvgLexicalTableCompiler();
+      compiler.addNorm( "tabled", "table-norm" );
+      compiler.addLemma( "tabled", "tablelemma", Category.ToValue( "noun" ) );
+      compiler.addNorm( "nooutput", null );
+      compiler.addLemmas( "lemmaonly" );
+      final File table = _folder.newFile( "lvg.table" );
+      compiler.write( table );
+
+      final AnalysisEngine engine = AnalysisEngineFactory.createEngine( LvgAnnotator.class,
+            LvgAnnotator.PARAM_POST_LEMMAS, true,
+            LvgAnnotator.PARAM_USE_CMD_CACHE, true,
+            LvgAnnotator.PARAM_CMD_CACHE_FILE, CACHE_DIR + "LvgAnnotatorTest_norm.voc",
+            LvgAnnotator.PARAM_USE_LEMMA_CACHE, true,
+            LvgAnnotator.PARAM_LEMMA_CACHE_FILE_LOCATION, CACHE_DIR + "LvgAnnotatorTest_lemma.voc",
+            LvgAnnotator.PARAM_LEXICAL_TABLE_LOCATION, table.getPath(),
+            LvgAnnotator.PARAM_LVGCMDAPI_RESRC_KEY,
+            ExternalResourceFactory.createExternalResourceDescription( FakeLvgResource.class, table ) );
+      final JCas jCas = JCasFactory.createJCas();
+      final String text = "tabled nooutput lemmaonly cached unknown";
+      jCas.setDocumentText( text );
+      int begin = 0;
+      for ( String word : text.split( " " ) ) {
+         new WordToken( jCas, begin, begin + word.length() ).addToIndexes();
+         begin += word.length() + 1;
+      }
+      FakeLvgResource.NORM_CALLS.clear();
+      FakeLvgResource.LEMMA_CALLS.clear();
+      engine.process( jCas );
+
+      final Map<String, WordToken> words = new HashMap<>();
+      for ( WordToken wordToken : JCasUtil.select( jCas, WordToken.class ) ) {
+         words.put( wordToken.getCoveredText(), wordToken );
+      }
+      // table first, even if LVG had no output for the word
+      assertEquals( "table-norm", words.get( "tabled" ).getCanonicalForm() );
+      assertEquals( Collections.singletonList( "tablelemma NN" ), getLemmas( words.get( "tabled" ) ) );
+      assertNull( words.get( "nooutput" ).getCanonicalForm() );
+      // then the caches, for the flows that are not in the table
+      assertEquals( "cache-norm", words.get( "lemmaonly" ).getCanonicalForm() );
+      assertTrue( getLemmas( words.get( "lemmaonly" ) ).isEmpty() );
+      assertEquals( "cache-norm", words.get( "cached" ).getCanonicalForm() );
+      assertEquals( Collections.singletonList( "cachelemma VB" ), getLemmas( words.get( "cached" ) ) );
+      // then LVG, the cache entries of the unknown word are below the frequency cutoff
+      assertEquals( "lvg-unknown", words.get( "unknown" ).getCanonicalForm() );
+      assertEquals( Collections.singletonList( "unknown" ), FakeLvgResource.NORM_CALLS );
+      assertEquals( Arrays.asList( "nooutput", "unknown" ), FakeLvgResource.LEMMA_CALLS );
+   }
+
+   static private List<String> getLemmas( final WordToken wordToken ) {
+      final List<String> lemmas = new ArrayList<>();
+      if ( wordToken.getLemmaEntries() != null ) {
+         for ( Lemma lemma : FSCollectionFactory.create( wordToken.getLemmaEntries(), Lemma.class ) ) {
+            lemmas.add( lemma.getKey() + " " + lemma.getPosTag() );
+         }
+      }
+      return lemmas;
+   }
+
+   /**
+    * Records the words that are sent to LVG
+    */
+   static public final class FakeLvgResource implements LvgCmdApiResource, SharedResourceObject {
+      static private final List<String> NORM_CALLS = Collections.synchronizedList( new ArrayList<>() );
+      static private final List<String> LEMMA_CALLS = Collections.synchronizedList( new ArrayList<>() );
+
+      @Override
+      public void load( final DataResource data ) {
+      }
+
+      @Override
+      public LvgCmdApi getLvg() {
+         return new LvgCmdApi() {
+            @Override
+            public String MutateToString( final String word ) {
+               NORM_CALLS.add( word );
+               return word + "|lvg-" + word + "|";
+            }
+         };
+      }
+
+      @Override
+      public LvgLexItemApi getLvgLex() {
+         return new LvgLexItemApi() {
+            @Override
+            public Vector<LexItem> MutateLexItem( final String word ) {
+               LEMMA_CALLS.add( word );
+               return new Vector<>();
+            }
+         };
+      }
+   }
+
+}
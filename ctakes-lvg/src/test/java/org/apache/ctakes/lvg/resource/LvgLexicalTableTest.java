@@ -0,0 +1,175 @@
+package org.apache.ctakes.lvg.resource;
+
+import gov.nih.nlm.nls.lvg.Lib.Category;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+
+import static org.apache.ctakes.lvg.resource.LvgLexicalTable.*;
+import static org.junit.Assert.*;
+
+/**
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+final public class LvgLexicalTableTest {
+
+   static private final long NOUN = Category.ToValue( "noun" );
+   static private final long VERB = Category.ToValue( "verb" );
+
+   @Rule
+   public TemporaryFolder _folder = new TemporaryFolder();
+
+   @Test
+   public void testRoundTrip() throws IOException {
+      final LvgLexicalTableCompiler compiler = new LvgLexicalTableCompiler();
+      compiler.addNorm( "Walking", "walk" );
+      // only the first normalized form is used
+      compiler.addNorm( "Walking", "walking" );
+      compiler.addNorm( "xyzzy", null );
+      compiler.addLemma( "walks", "walk", NOUN );
+      compiler.addLemma( "walks", "walk", VERB );
+      compiler.addLemma( "walks", "walks", NOUN );
+      compiler.addLemmas( "zzz" );
+      compiler.addNorm( "zzz", "zzz" );
+      assertEquals( 4, compiler.size() );
+
+      final File file = new File( _folder.getRoot(), "sub/lvg.table" );
+      compiler.write( file );
+      // a second write replaces the table
+      compiler.write( file );
+      final LvgLexicalTable table = LvgLexicalTable.map( file );
+      assertEquals( 4, table.size() );
+      assertFalse( table.contains( "walking" ) );
+      assertNull( table.get( "walk" ) );
+
+      final LvgLexicalTable.Entry walking = table.get( "Walking" );
+      assertTrue( walking.hasNorm() );
+      assertEquals( "walk", walking.getNorm() );
+      assertFalse( walking.hasLemmas() );
+      assertTrue( walking.getLemmas().isEmpty() );
+
+      final LvgLexicalTable.Entry noOutput = table.get( "xyzzy" );
+      assertTrue( noOutput.hasNorm() );
+      assertNull( noOutput.getNorm() );
+
+      final LvgLexicalTable.Entry walks = table.get( "walks" );
+      assertFalse( walks.hasNorm() );
+      assertNull( walks.getNorm() );
+      assertTrue( walks.hasLemmas() );
+      final Iterator<Map.Entry<String, Long>> lemmas = walks.getLemmas().entrySet().iterator();
+      Map.Entry<String, Long> lemma = lemmas.next();
+      assertEquals( "walk", lemma.getKey() );
+      assertEquals( NOUN | VERB, lemma.getValue().longValue() );
+      lemma = lemmas.next();
+      assertEquals( "walks", lemma.getKey() );
+      assertEquals( NOUN, lemma.getValue().longValue() );
+      assertFalse( lemmas.hasNext() );
+
+      final LvgLexicalTable.Entry zzz = table.get( "zzz" );
+      assertEquals( "zzz", zzz.getNorm() );
+      assertTrue( zzz.hasLemmas() );
+      assertTrue( zzz.getLemmas().isEmpty() );
+   }
+
+   @Test
+   public void testManyWords() throws IOException {
+      final LvgLexicalTableCompiler compiler = new LvgLexicalTableCompiler();
+      for ( int i = 0; i < 5000; i++ ) {
+         compiler.addNorm( "word" + i, "norm" + i );
+      }
+      final LvgLexicalTable table = new LvgLexicalTable( compiler.build() );
+      assertEquals( 5000, table.size() );
+      for ( int i = 0; i < 5000; i++ ) {
+         assertEquals( "norm" + i, table.get( "word" + i ).getNorm() );
+         assertFalse( table.contains( "other" + i ) );
+      }
+      // compiled tables are reproducible
+      final LvgLexicalTableCompiler other = new LvgLexicalTableCompiler();
+      for ( int i = 0; i < 5000; i++ ) {
+         other.addNorm( "word" + i, "norm" + i );
+      }
+      assertEquals( compiler.build(), other.build() );
+   }
+
+   @Test
+   public void testCaches() throws IOException {
+      final LvgLexicalTableCompiler compiler = new LvgLexicalTableCompiler();
+      compiler.addNormCache( stream( "30|Walking|walk|1|1|l+b|1|\n"
+                                     + "10|rare|rare|1|1|l+b|1|\n"
+                                     + "bad line\n" ), 20 );
+      compiler.addLemmaCache( stream( "30|walks|walk|<noun+verb>\n"
+                                      + "10|rarely|rare|<adv>\n" ), 20 );
+      final LvgLexicalTable table = new LvgLexicalTable( compiler.build() );
+      assertEquals( 2, table.size() );
+      assertEquals( "walk", table.get( "Walking" ).getNorm() );
+      assertNull( table.get( "rare" ) );
+      assertNull( table.get( "rarely" ) );
+      assertEquals( NOUN | VERB, table.get( "walks" ).getLemmas().get( "walk" ).longValue() );
+   }
+
+   @Test
+   public void testInvalidTables() {
+      assertInvalid( ByteBuffer.allocate( 8 ) );
+      final ByteBuffer table = new LvgLexicalTableCompiler().build();
+      final ByteBuffer badVersion = copy( table );
+      badVersion.putInt( 4, VERSION + 1 );
+      assertInvalid( badVersion );
+      final ByteBuffer badSlots = copy( table );
+      badSlots.putInt( 12, 6 );
+      assertInvalid( badSlots );
+      final ByteBuffer truncated = copy( table );
+      truncated.putInt( 12, 1 << 20 );
+      assertInvalid( truncated );
+   }
+
+   /**
+    * a table without an empty slot would never end an unsuccessful lookup
+    */
+   @Test
+   public void testFullTable() {
+      final LvgLexicalTableCompiler compiler = new LvgLexicalTableCompiler();
+      for ( int i = 0; i < 3; i++ ) {
+         compiler.addNorm( "word" + i, "norm" + i );
+      }
+      final ByteBuffer full = copy( compiler.build() );
+      final int slotCount = full.getInt( 12 );
+      full.putInt( 8, slotCount );
+      for ( int slot = 0; slot < slotCount; slot++ ) {
+         final int index = HEADER_SIZE + slot * SLOT_SIZE;
+         if ( full.getInt( index + 4 ) < 0 ) {
+            full.putInt( index, 0 );
+            full.putInt( index + 4, 0 );
+         }
+      }
+      assertInvalid( full );
+   }
+
+   static private void assertInvalid( final ByteBuffer buffer ) {
+      try {
+         new LvgLexicalTable( buffer );
+         fail( "Expected an IOException for an invalid table" );
+      } catch ( IOException ioE ) {
+         // expected
+      }
+   }
+
+   static private ByteBuffer copy( final ByteBuffer buffer ) {
+      return ByteBuffer.wrap( Arrays.copyOf( buffer.array(), buffer.limit() ) );
+   }
+
+   static private ByteArrayInputStream stream( final String text ) {
+      return new ByteArrayInputStream( text.getBytes( StandardCharsets.UTF_8 ) );
+   }
+
+}
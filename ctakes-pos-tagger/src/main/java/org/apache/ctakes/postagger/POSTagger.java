@@ -55,6 +55,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 
+import org.apache.ctakes.core.concurrent.SharedModelCache;
 import org.apache.ctakes.core.pipeline.PipeBitInfo;
 import org.apache.ctakes.core.resource.FileLocator;
 import org.apache.ctakes.typesystem.type.syntax.BaseToken;
@@ -106,8 +107,13 @@ public class POSTagger extends JCasAnnotator_ImplBase {
 
 		logger.info("POS tagger model file: " + posModelPath);
 
-		try (InputStream fis = FileLocator.getAsStream(posModelPath)) {
-			POSModel modelFile = new POSModel(fis);
+		try {
+			// The model is read-only, so share it between all instances
+			POSModel modelFile = SharedModelCache.getInstance().getModel( POSModel.class, posModelPath, p -> {
+				try ( InputStream fis = FileLocator.getAsStream( p ) ) {
+					return new POSModel( fis );
+				}
+			} );
 			tagger = new opennlp.tools.postag.POSTaggerME(modelFile);
 		} catch (Exception e) {
 			logger.info("Error loading POS tagger model: " + posModelPath);
@@ -1,6 +1,7 @@
 package org.apache.ctakes.postagger.concurrent;
 
-import org.apache.ctakes.core.concurrent.ThreadSafeWrapper;
+import org.apache.ctakes.core.concurrent.DelegatePool;
+import org.apache.ctakes.core.concurrent.PooledWrapper;
 import org.apache.ctakes.core.pipeline.PipeBitInfo;
 import org.apache.ctakes.postagger.POSTagger;
 import org.apache.ctakes.typesystem.type.syntax.BaseToken;
@@ -18,7 +19,7 @@ import org.apache.uima.resource.ResourceInitializationException;
 
 /**
  * Normally I would use composition and a singleton, but here extension is done for @ConfigurationParameter discovery.
- * Made a singleton mostly for model memory.
+ * Delegates are pooled so that documents can be processed in parallel.  The model is shared between delegates.
  *
  * @author SPF , chip-nlp
  * @version %I%
@@ -39,7 +40,7 @@ final public class ThreadSafePosTagger extends POSTagger {
     */
    @Override
    public void initialize( final UimaContext context ) throws ResourceInitializationException {
-      PosSingleton.getInstance().initialize( context );
+      PosPool.getInstance().initialize( context );
    }
 
    /**
@@ -47,7 +48,26 @@ final public class ThreadSafePosTagger extends POSTagger {
     */
    @Override
    public void process( final JCas jCas ) throws AnalysisEngineProcessException {
-      PosSingleton.getInstance().process( jCas );
+      PosPool.getInstance().process( jCas );
+   }
+
+   /**
+    * Completes the collection on every pooled delegate that has processed a document since the last completion.
+    * {@inheritDoc}
+    */
+   @Override
+   public void collectionProcessComplete() throws AnalysisEngineProcessException {
+      PosPool.getInstance().collectionProcessComplete();
+   }
+
+   /**
+    * Retires and destroys one pooled delegate, the counterpart of the delegate added by {@link #initialize(UimaContext)}.
+    * {@inheritDoc}
+    */
+   @Override
+   public void destroy() {
+      PosPool.getInstance().destroy();
+      super.destroy();
    }
 
    /**
@@ -76,42 +96,24 @@ final public class ThreadSafePosTagger extends POSTagger {
    }
 
 
-   private enum PosSingleton implements ThreadSafeWrapper<POSTagger> {
+   private enum PosPool implements PooledWrapper<POSTagger> {
       INSTANCE;
 
-      static public PosSingleton getInstance() {
+      static public PosPool getInstance() {
          return INSTANCE;
       }
 
-      private final POSTagger _delegate;
-      private boolean _initialized;
-
-      PosSingleton() {
-         _delegate = new POSTagger();
-      }
-
-      final private Object LOCK = new Object();
+      private final DelegatePool<POSTagger> _pool = new DelegatePool<>();
 
       @Override
-      public Object getLock() {
-         return LOCK;
+      public POSTagger createDelegate() {
+         return new POSTagger();
       }
 
       @Override
-      public POSTagger getDelegate() {
-         return _delegate;
-      }
-
-      @Override
-      public boolean isInitialized() {
-         return _initialized;
-      }
-
-      @Override
-      public void setInitialized( final boolean initialized ) {
-         _initialized = initialized;
+      public DelegatePool<POSTagger> getPool() {
+         return _pool;
       }
    }
 
-
 }
@@ -24,7 +24,7 @@ import java.util.List;
 
 import org.apache.uima.jcas.JCas;
 import org.apache.uima.jcas.tcas.Annotation;
-import org.apache.uima.fit.util.JCasUtil;
+import org.apache.ctakes.core.util.AnnotationIntervalIndex;
 
 import org.apache.ctakes.typesystem.type.syntax.ConllDependencyNode;
 
@@ -65,7 +65,7 @@ public class DependencyParseUtils {
 	 */
 	public static ConllDependencyNode findAnnotationHead(JCas jcas, Annotation annotation) {
 	
-	    for (ConllDependencyNode depNode : JCasUtil.selectCovered(jcas, ConllDependencyNode.class, annotation)) {
+	    for (ConllDependencyNode depNode : AnnotationIntervalIndex.selectCovered(jcas, ConllDependencyNode.class, annotation)) {
 	    	
 	    	ConllDependencyNode head = depNode.getHead();
 	    	if (head == null || head.getEnd() <= annotation.getBegin() || head.getBegin() > annotation.getEnd()) {
@@ -141,7 +141,7 @@ public class DependencyParseUtils {
 
 	public static String dumpDependencyRelations(JCas jcas, Annotation annotation) {
 		StringBuilder builder = new StringBuilder();
-	    for (ConllDependencyNode depNode : JCasUtil.selectCovered(jcas, ConllDependencyNode.class, annotation)) {
+	    for (ConllDependencyNode depNode : AnnotationIntervalIndex.selectCovered(jcas, ConllDependencyNode.class, annotation)) {
 	    	if (depNode.getHead() != null) {
 	    		builder.append(String.format("%s(%s,%s)\n", depNode.getDeprel(), depNode.getCoveredText(), depNode.getHead().getCoveredText()));
 	    	}
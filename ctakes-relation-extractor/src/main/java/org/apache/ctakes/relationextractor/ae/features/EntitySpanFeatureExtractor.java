@@ -24,7 +24,7 @@ import java.util.List;
 import org.apache.ctakes.typesystem.type.syntax.NP;
 import org.apache.ctakes.typesystem.type.textsem.IdentifiedAnnotation;
 import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
-import org.apache.uima.fit.util.JCasUtil;
+import org.apache.ctakes.core.util.AnnotationIntervalIndex;
 import org.apache.uima.jcas.JCas;
 import org.cleartk.ml.Feature;
 
@@ -47,7 +47,7 @@ public class EntitySpanFeatureExtractor implements RelationFeaturesExtractor<Ide
  
   	// entity1 ... entity2 scenario
   	if(arg1.getEnd() < arg2.getBegin()) {
-  		for(NP np : JCasUtil.selectCovering(jCas, NP.class, arg1.getBegin(), arg2.getEnd())) {
+  		for(NP np : AnnotationIntervalIndex.selectCovering(jCas, NP.class, arg1.getBegin(), arg2.getEnd())) {
   			if(arg1.getBegin() == np.getBegin() && arg2.getEnd() == np.getEnd()) {
   				features.add(new Feature("arg1arg2insideNP", true));
   			}
@@ -56,7 +56,7 @@ public class EntitySpanFeatureExtractor implements RelationFeaturesExtractor<Ide
 
  // entity2 ... entity1 scenario
   	if(arg2.getEnd() < arg1.getBegin()) {
-  		for(NP np : JCasUtil.selectCovering(jCas, NP.class, arg2.getBegin(), arg1.getEnd())) {
+  		for(NP np : AnnotationIntervalIndex.selectCovering(jCas, NP.class, arg2.getBegin(), arg1.getEnd())) {
   			if(arg2.getBegin() == np.getBegin() && arg1.getEnd() == np.getEnd()) {
   				features.add(new Feature("arg2arg1insideNP", true));
   			}
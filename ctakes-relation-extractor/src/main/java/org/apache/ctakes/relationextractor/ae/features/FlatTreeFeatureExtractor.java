@@ -28,7 +28,7 @@ import org.apache.ctakes.typesystem.type.syntax.TreebankNode;
 import org.apache.ctakes.typesystem.type.textsem.IdentifiedAnnotation;
 import org.apache.ctakes.utils.tree.SimpleTree;
 import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
-import org.apache.uima.fit.util.JCasUtil;
+import org.apache.ctakes.core.util.AnnotationIntervalIndex;
 import org.apache.uima.jcas.JCas;
 import org.cleartk.ml.Feature;
 
@@ -49,7 +49,7 @@ public class FlatTreeFeatureExtractor implements RelationFeaturesExtractor<Ident
 		SimpleTree arg2Tree = new SimpleTree("ARG2");
 		
 		tree.addChild(arg1Tree);
-		List<BaseToken> coveredTokens = JCasUtil.selectCovered(jcas, BaseToken.class, lca);
+		List<BaseToken> coveredTokens = AnnotationIntervalIndex.selectCovered(jcas, BaseToken.class, lca);
 		for(BaseToken token : coveredTokens){
 			// create pre-terminal tree
 			SimpleTree tokenTree = new SimpleTree("TOK");
@@ -28,7 +28,7 @@ import org.apache.ctakes.typesystem.type.syntax.TreebankNode;
 import org.apache.ctakes.typesystem.type.textsem.EventMention;
 import org.apache.ctakes.typesystem.type.textsem.IdentifiedAnnotation;
 import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
-import org.apache.uima.fit.util.JCasUtil;
+import org.apache.ctakes.core.util.AnnotationIntervalIndex;
 import org.apache.uima.jcas.JCas;
 import org.apache.uima.jcas.tcas.Annotation;
 import org.cleartk.ml.Feature;
@@ -117,7 +117,7 @@ public class TokenFeaturesExtractor implements RelationFeaturesExtractor<Identif
 
   private static TreebankNode getExpandedEvent(JCas jCas, IdentifiedAnnotation mention){
     // since events are single words, we are at a terminal node:
-    List<TerminalTreebankNode> terms = JCasUtil.selectCovered(TerminalTreebankNode.class, mention);
+    List<TerminalTreebankNode> terms = AnnotationIntervalIndex.selectCovered(TerminalTreebankNode.class, mention);
     if(terms == null || terms.size() == 0){
       return null;
     }
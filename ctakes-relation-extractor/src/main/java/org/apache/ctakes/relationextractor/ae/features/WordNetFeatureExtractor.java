@@ -24,7 +24,7 @@ import java.util.List;
 
 import org.apache.ctakes.typesystem.type.syntax.BaseToken;
 import org.apache.ctakes.typesystem.type.textsem.IdentifiedAnnotation;
-import org.apache.uima.fit.util.JCasUtil;
+import org.apache.ctakes.core.util.AnnotationIntervalIndex;
 import org.apache.uima.jcas.JCas;
 import org.cleartk.ml.Feature;
 
@@ -40,7 +40,7 @@ public class WordNetFeatureExtractor {
     List<Feature> features = new ArrayList<Feature>();
     
     // get token annotations corresponding to this identified annotation
-    List<BaseToken> baseTokens = JCasUtil.selectCovered(
+    List<BaseToken> baseTokens = AnnotationIntervalIndex.selectCovered(
         jCas, 
         BaseToken.class, 
         identifiedAnnotation.getBegin(), 
@@ -24,6 +24,7 @@ package org.apache.ctakes.temporal.ae;
 
 import com.google.common.collect.Lists;
 import org.apache.ctakes.relationextractor.ae.features.*;
+import org.apache.ctakes.temporal.keras.BatchClassifier;
 import org.apache.ctakes.typesystem.type.relation.BinaryTextRelation;
 import org.apache.ctakes.typesystem.type.relation.RelationArgument;
 import org.apache.ctakes.typesystem.type.textsem.IdentifiedAnnotation;
@@ -188,6 +189,11 @@ public abstract class TemporalRelationExtractorAnnotator extends CleartkAnnotato
 			}
 		}
 
+		// a batch classifier gets all of the candidate pairs in the document at once
+		boolean batch = !this.isTraining() && this.isBatchClassification();
+		List<IdentifiedAnnotationPair> batchPairs = new ArrayList<>();
+		List<List<Feature>> batchFeatures = new ArrayList<>();
+
 		// walk through each sentence in the text
 		for (Annotation coveringAnnotation : JCasUtil.select(jCas, coveringClass)) {
 
@@ -250,6 +256,12 @@ public abstract class TemporalRelationExtractorAnnotator extends CleartkAnnotato
 					this.dataWriter.write(new Instance<>(category, features));
 				}
 
+				// during batch classification keep the features until the whole document has been read
+				else if (batch) {
+					batchPairs.add(pair);
+					batchFeatures.add(features);
+				}
+
 				// during classification feed the features to the classifier and create
 				// annotations
 				else {
@@ -287,23 +299,38 @@ public abstract class TemporalRelationExtractorAnnotator extends CleartkAnnotato
 						}
 					}*/
 
-					// add a relation annotation if a true relation was predicted
-					if (predictedCategory != null && !predictedCategory.equals(NO_RELATION_CATEGORY)) {
-
-						// if we predict an inverted relation, reverse the order of the
-						// arguments
-						if (predictedCategory.endsWith("-1")) {
-							predictedCategory = predictedCategory.substring(0, predictedCategory.length() - 2);
-							IdentifiedAnnotation temp = arg1;
-							arg1 = arg2;
-							arg2 = temp;
-						}
-
-						createRelation(jCas, arg1, arg2, predictedCategory, 0.0);
-					}
+					createPredictedRelation(jCas, arg1, arg2, predictedCategory);
 				}
 			} // end pair in pairs
 		} // end for(Sentence)
+
+		if (batch && !batchPairs.isEmpty()) {
+			List<String> predictedCategories = this.classifyAll(batchFeatures);
+			for (int i = 0; i < batchPairs.size(); i++) {
+				IdentifiedAnnotationPair pair = batchPairs.get(i);
+				createPredictedRelation(jCas, pair.getArg1(), pair.getArg2(), predictedCategories.get(i));
+			}
+		}
+	}
+
+	/**
+	 * Add a relation annotation if a true relation was predicted
+	 */
+	private void createPredictedRelation(JCas jCas, IdentifiedAnnotation arg1, IdentifiedAnnotation arg2,
+			String predictedCategory) {
+		if (predictedCategory != null && !predictedCategory.equals(NO_RELATION_CATEGORY)) {
+
+			// if we predict an inverted relation, reverse the order of the
+			// arguments
+			if (predictedCategory.endsWith("-1")) {
+				predictedCategory = predictedCategory.substring(0, predictedCategory.length() - 2);
+				IdentifiedAnnotation temp = arg1;
+				arg1 = arg2;
+				arg2 = temp;
+			}
+
+			createRelation(jCas, arg1, arg2, predictedCategory, 0.0);
+		}
 	}
 
 	/**
@@ -342,6 +369,54 @@ public abstract class TemporalRelationExtractorAnnotator extends CleartkAnnotato
 		return this.classifier.classify(features);
 	}
 
+	/**
+	 * Whether the candidate pairs of a document are classified together by {@link #classifyAll(List)} instead of
+	 * one at a time by {@link #classify(List)}. By default this is the case when the classifier is a
+	 * {@link BatchClassifier} and the annotator does not override {@link #classify(List)}, so a subclass with its
+	 * own classification procedure is never bypassed. A subclass that overrides classify and can also classify a
+	 * whole document at once should override both {@link #classifyAll(List)} and this method.
+	 */
+	protected boolean isBatchClassification() {
+		return this.classifier instanceof BatchClassifier && !overridesClassify(this.getClass());
+	}
+
+	/**
+	 * @return true if the annotator class or one of its superclasses below this class declares classify(List)
+	 */
+	static boolean overridesClassify(Class<?> annotatorClass) {
+		for (Class<?> c = annotatorClass; c != null && c != TemporalRelationExtractorAnnotator.class; c = c.getSuperclass()) {
+			try {
+				c.getDeclaredMethod("classify", List.class);
+				return true;
+			} catch (NoSuchMethodException e) {
+				// not declared by this class, check its superclass
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Predict the outcomes of all candidate pairs in a document, used when {@link #isBatchClassification()} is true.
+	 * By default this makes a single call to a {@link BatchClassifier}, or calls {@link #classify(List)} for each
+	 * pair if the classifier cannot classify a batch.
+	 * Relations are created after all pairs in the document have been classified, so with batch classification
+	 * feature extractors do not see relations predicted earlier in the same document.
+	 *
+	 * @param features
+	 *          The features of each candidate pair.
+	 * @return The predicted outcome (label) for each candidate pair.
+	 */
+	protected List<String> classifyAll(List<List<Feature>> features) throws CleartkProcessingException {
+		if (this.classifier instanceof BatchClassifier) {
+			return ((BatchClassifier<String>) this.classifier).classifyAll(features);
+		}
+		List<String> outcomes = new ArrayList<>(features.size());
+		for (List<Feature> instance : features) {
+			outcomes.add(this.classify(instance));
+		}
+		return outcomes;
+	}
+
 	/**
 	 * Create a UIMA relation type based on arguments and the relation label. This
 	 * allows subclasses to create/define their own types: e.g. coreference can
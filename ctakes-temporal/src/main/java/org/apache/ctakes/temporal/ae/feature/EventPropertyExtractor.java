@@ -33,7 +33,7 @@ import org.apache.ctakes.typesystem.type.syntax.WordToken;
 import org.apache.ctakes.typesystem.type.textsem.EventMention;
 import org.apache.ctakes.typesystem.type.textspan.Sentence;
 import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
-import org.apache.uima.fit.util.JCasUtil;
+import org.apache.ctakes.core.util.AnnotationIntervalIndex;
 import org.apache.uima.jcas.JCas;
 import org.apache.uima.jcas.tcas.Annotation;
 import org.cleartk.ml.Feature;
@@ -122,11 +122,11 @@ public class EventPropertyExtractor implements FeatureExtractor1<Annotation> {
 		//		}
 
 		Set<Sentence> coveringSents = new HashSet<>();
-		coveringSents.addAll(JCasUtil.selectCovering(view, Sentence.class, event.getBegin(), event.getEnd()));
+		coveringSents.addAll(AnnotationIntervalIndex.selectCovering(view, Sentence.class, event.getBegin(), event.getEnd()));
 
 
 		for(Sentence coveringSent : coveringSents){
-			List<EventMention> events = JCasUtil.selectCovered(EventMention.class, coveringSent);
+			List<EventMention> events = AnnotationIntervalIndex.selectCovered(EventMention.class, coveringSent);
 			List<EventMention> realEvents = new ArrayList<>();
 			for(EventMention eventa : events){
 				// filter out ctakes events
@@ -146,8 +146,8 @@ public class EventPropertyExtractor implements FeatureExtractor1<Annotation> {
 			}
 			
 			//check if this event is generic:
-			List<WordToken> words = new ArrayList<>(JCasUtil.selectPreceding(view, WordToken.class, event, 15));
-			words.addAll(JCasUtil.selectFollowing(view, WordToken.class, event, 15));
+			List<WordToken> words = new ArrayList<>(AnnotationIntervalIndex.selectPreceding(view, WordToken.class, event, 15));
+			words.addAll(AnnotationIntervalIndex.selectFollowing(view, WordToken.class, event, 15));
 			for(WordToken word : words){
 				if(outsideScope(word, coveringSent)){//if the word is outside the sentence
 					continue;
@@ -168,7 +168,7 @@ public class EventPropertyExtractor implements FeatureExtractor1<Annotation> {
 			
 			//check if there is any newLine token in close vicinity:
 			int newlineNum = 0;
-			for (BaseToken btoken: JCasUtil.selectPreceding(view, BaseToken.class, event, 20)){
+			for (BaseToken btoken: AnnotationIntervalIndex.selectPreceding(view, BaseToken.class, event, 20)){
 				if(btoken instanceof NewlineToken){
 					newlineNum++;
 				}
@@ -178,7 +178,7 @@ public class EventPropertyExtractor implements FeatureExtractor1<Annotation> {
 				features.add(new Feature("newLineNum_preceding", newlineNum));
 			}
 			newlineNum = 0;
-			for (BaseToken btoken: JCasUtil.selectFollowing(view, BaseToken.class, event, 20)){
+			for (BaseToken btoken: AnnotationIntervalIndex.selectFollowing(view, BaseToken.class, event, 20)){
 				if(btoken instanceof NewlineToken){
 					newlineNum++;
 				}
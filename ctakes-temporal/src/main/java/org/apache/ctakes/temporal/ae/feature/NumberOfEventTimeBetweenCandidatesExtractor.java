@@ -32,7 +32,7 @@ import org.apache.ctakes.typesystem.type.textsem.TimeMention;
 import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
 import org.apache.uima.jcas.JCas;
 import org.cleartk.ml.Feature;
-import org.apache.uima.fit.util.JCasUtil;
+import org.apache.ctakes.core.util.AnnotationIntervalIndex;
 
 /**
  * Count the number of EventMention and TimeMention in between two arguments as features
@@ -69,10 +69,10 @@ RelationFeaturesExtractor<IdentifiedAnnotation,IdentifiedAnnotation> {
 //		int numsInBetween   = 0;
 //		int newlineInBetween= 0;
 		
-		List<EventMention> events = JCasUtil.selectCovered(jCas, EventMention.class, begin, end);
-		List<TimeMention> times   = JCasUtil.selectCovered(jCas, TimeMention.class, begin, end);
-		List<WordToken> words 	  = JCasUtil.selectCovered(jCas, WordToken.class, begin, end);
-		List<PunctuationToken>punc= JCasUtil.selectCovered(jCas, PunctuationToken.class, begin, end);
+		List<EventMention> events = AnnotationIntervalIndex.selectCovered(jCas, EventMention.class, begin, end);
+		List<TimeMention> times   = AnnotationIntervalIndex.selectCovered(jCas, TimeMention.class, begin, end);
+		List<WordToken> words 	  = AnnotationIntervalIndex.selectCovered(jCas, WordToken.class, begin, end);
+		List<PunctuationToken>punc= AnnotationIntervalIndex.selectCovered(jCas, PunctuationToken.class, begin, end);
 //		List<NumToken> numTokens  = JCasUtil.selectCovered(jCas, NumToken.class, begin, end);
 //		List<NewlineToken> newline= JCasUtil.selectCovered(jCas, NewlineToken.class, begin, end);
 		
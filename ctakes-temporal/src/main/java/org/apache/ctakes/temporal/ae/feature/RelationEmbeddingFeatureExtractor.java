@@ -18,6 +18,7 @@
  */
 package org.apache.ctakes.temporal.ae.feature;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -47,8 +48,11 @@ public class RelationEmbeddingFeatureExtractor implements RelationFeaturesExtrac
 	public RelationEmbeddingFeatureExtractor(String vecFile) throws
 	CleartkExtractorException {
 		try {
-			words =
-					WordVectorReader.getEmbeddings(FileLocator.getAsStream(vecFile));
+			// a file can be memory-mapped if it holds binary vectors
+			File file = FileLocator.getFileQuiet(vecFile);
+			words = file != null
+					? WordVectorReader.getEmbeddings(file.getPath())
+					: WordVectorReader.getEmbeddings(FileLocator.getAsStream(vecFile));
 		} catch (IOException e) {
 			e.printStackTrace();
 			throw new CleartkExtractorException(e);
@@ -0,0 +1,21 @@
+package org.apache.ctakes.temporal.keras;
+
+import java.util.List;
+
+import org.cleartk.ml.Classifier;
+import org.cleartk.ml.CleartkProcessingException;
+import org.cleartk.ml.Feature;
+
+/**
+ * A classifier that is faster when given many instances at once, for instance all candidate pairs of a document,
+ * than when it is called for each instance.
+ */
+public interface BatchClassifier<OUTCOME_TYPE> extends Classifier<OUTCOME_TYPE> {
+
+  /**
+   * @param instances features of each instance
+   * @return the outcome of each instance, in the order of the instances
+   */
+  List<OUTCOME_TYPE> classifyAll(List<List<Feature>> instances) throws CleartkProcessingException;
+
+}
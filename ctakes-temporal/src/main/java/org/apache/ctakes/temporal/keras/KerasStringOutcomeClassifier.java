@@ -26,4 +26,11 @@ public class KerasStringOutcomeClassifier extends ScriptStringOutcomeClassifier
       File scriptDir) {
     super(featuresEncoder, outcomeEncoder, modelDir, scriptDir);
   }
+
+  public KerasStringOutcomeClassifier(
+      FeaturesEncoder<FeatureVector> featuresEncoder,
+      OutcomeEncoder<String, Integer> outcomeEncoder, File modelDir,
+      StringOutcomeBackend backend) {
+    super(featuresEncoder, outcomeEncoder, modelDir, backend);
+  }
 }
@@ -52,6 +52,7 @@ public class KerasStringOutcomeClassifierBuilder extends ScriptStringOutcomeClas
     
     // grab the script dir from the manifest:
     this.scriptDir = new File(modelStream.getManifest().getMainAttributes().getValue(SCRIPT_DIR_PARAM));
+    this.backendClass = modelStream.getManifest().getMainAttributes().getValue(BACKEND_CLASS_PARAM);
     
     extractFileToDir(modelDir, modelStream, "outcome-lookup.txt");
 
@@ -74,7 +75,11 @@ public class KerasStringOutcomeClassifierBuilder extends ScriptStringOutcomeClas
   
   @Override
   protected KerasStringOutcomeClassifier newClassifier() {
-    return new KerasStringOutcomeClassifier(this.featuresEncoder, this.outcomeEncoder, this.modelDir, this.scriptDir);
+    try {
+      return new KerasStringOutcomeClassifier(this.featuresEncoder, this.outcomeEncoder, this.modelDir, createBackend());
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
   }
 
   private static String getArchFilename(int num){
@@ -0,0 +1,136 @@
+package org.apache.ctakes.temporal.keras;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.uima.UIMAFramework;
+import org.apache.uima.util.Level;
+import org.apache.uima.util.Logger;
+
+/**
+ * Runs the classify script of a model in a separate process.  The script reads one instance per line from its
+ * standard input and writes one outcome per line to its standard output.
+ * <p>
+ * All instances of a request are written before the outcomes are read, so the script works through a batch without
+ * waiting for a round trip per instance.  The instances of a batch are written by a separate thread so that neither
+ * process blocks on a full pipe while the other is also blocked.  A single instance is written by the calling thread.
+ * </p>
+ */
+public class ScriptProcessBackend implements StringOutcomeBackend {
+  private static final Logger logger = UIMAFramework.getLogger(ScriptProcessBackend.class);
+
+  private final Process classifierProcess;
+  private final PrintStream toClassifier;
+  private final BufferedReader reader;
+  private final BufferedReader errReader;
+  private ExecutorService writer = null;
+  private boolean failed = false;
+
+  /**
+   * @param scriptDir directory with a single script named classify.*
+   * @param modelDir  directory with the model files, passed to the script as its argument
+   */
+  public ScriptProcessBackend(File scriptDir, File modelDir) throws IOException {
+    File classifyScript = null;
+    for(File file : scriptDir.listFiles()){
+      if(file.getName().startsWith("classify.sh")){
+        if(classifyScript != null){
+          throw new RuntimeException("There are multiple files named classify.*");
+        }
+        classifyScript = file;
+      }
+    }
+
+    if(classifyScript == null){
+      throw new RuntimeException("There are no files named classify.*");
+    }
+
+    // start the classifier process running, give it a chance to read the model
+    this.classifierProcess = Runtime.getRuntime().exec(new String[]{
+        classifyScript.getAbsolutePath(),
+        modelDir.getAbsolutePath()});
+    toClassifier = new PrintStream(classifierProcess.getOutputStream());
+    reader = new BufferedReader(new InputStreamReader(classifierProcess.getInputStream()));
+    errReader = new BufferedReader(new InputStreamReader(classifierProcess.getErrorStream()));
+    errReader.readLine(); // read line about which backend it is using.
+  }
+
+  private synchronized ExecutorService getWriter(){
+    if(writer == null){
+      writer = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "ScriptProcessBackend writer");
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+    return writer;
+  }
+
+  @Override
+  public List<String> classify(final List<String> instances) throws IOException {
+    List<String> outcomes = new ArrayList<>(instances.size());
+    if(failed){
+      for(int i = 0; i < instances.size(); i++){
+        outcomes.add(null);
+      }
+      return outcomes;
+    }
+    Future<?> written = null;
+    if(instances.size() == 1){
+      toClassifier.println(instances.get(0));
+      toClassifier.flush();
+    }else{
+      written = getWriter().submit(() -> {
+        for(String instance : instances){
+          toClassifier.println(instance);
+        }
+        toClassifier.flush();
+      });
+    }
+    for(int i = 0; i < instances.size(); i++){
+      String line = failed ? null : reader.readLine();
+      if(line == null && !failed){
+        failed = true;
+        String eLine;
+        while((eLine = errReader.readLine()) != null){
+          logger.log(Level.SEVERE, eLine);
+        }
+      }
+      outcomes.add(line);
+    }
+    try{
+      if(written != null){
+        written.get();
+      }
+    }catch(InterruptedException e){
+      Thread.currentThread().interrupt();
+      throw new IOException(e);
+    }catch(ExecutionException e){
+      throw new IOException(e.getCause());
+    }
+    return outcomes;
+  }
+
+  @Override
+  public void close() throws IOException {
+    if(writer != null){
+      writer.shutdown();
+    }
+    this.toClassifier.print('\n');
+    this.toClassifier.flush();
+    try{
+      classifierProcess.waitFor();
+    }catch(InterruptedException e){
+      Thread.currentThread().interrupt();
+    }
+  }
+}
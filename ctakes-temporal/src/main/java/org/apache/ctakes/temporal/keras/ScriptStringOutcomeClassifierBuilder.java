@@ -18,15 +18,48 @@ import org.cleartk.ml.util.featurevector.FeatureVector;
 
 public abstract class ScriptStringOutcomeClassifierBuilder<T extends ScriptStringOutcomeClassifier> extends ClassifierBuilder_ImplBase<T, FeatureVector, String, Integer> {
   public static final Attributes.Name SCRIPT_DIR_PARAM = new Attributes.Name("ScriptDirectory");
+  public static final Attributes.Name BACKEND_CLASS_PARAM = new Attributes.Name("ClassifierBackend");
+  /**
+   * System property naming a {@link StringOutcomeBackend} class to run all script classifier models,
+   * overriding the backend in the model manifest.
+   */
+  public static final String BACKEND_CLASS_PROPERTY = "ctakes.temporal.classifier.backend";
   protected static final Logger logger = UIMAFramework.getLogger(ScriptStringOutcomeClassifierBuilder.class);
   
   protected File modelDir = null;
   protected File scriptDir = null;
+  protected String backendClass = null;
   
   public void setScriptDirectory(String scriptDir){
     Attributes atts = this.manifest.getMainAttributes();
     atts.put(SCRIPT_DIR_PARAM, scriptDir); 
   }
+
+  /**
+   * @param backendClass name of a {@link StringOutcomeBackend} class to run the model instead of the classify script
+   */
+  public void setBackendClass(String backendClass){
+    Attributes atts = this.manifest.getMainAttributes();
+    atts.put(BACKEND_CLASS_PARAM, backendClass);
+  }
+
+  /**
+   * @return the backend named by the system property or the model manifest,
+   *         or by default a backend that runs the classify script in the script directory
+   */
+  protected StringOutcomeBackend createBackend() throws IOException {
+    String className = System.getProperty(BACKEND_CLASS_PROPERTY, this.backendClass);
+    if(className == null || className.isEmpty()){
+      return new ScriptProcessBackend(this.scriptDir, this.modelDir);
+    }
+    logger.log(Level.INFO, "Using classifier backend " + className);
+    try {
+      return Class.forName(className).asSubclass(StringOutcomeBackend.class)
+          .getConstructor(File.class).newInstance(this.modelDir);
+    } catch (ReflectiveOperationException | ClassCastException e) {
+      throw new IOException("Could not create classifier backend " + className, e);
+    }
+  }
   
   @Override
   public File getTrainingDataFile(File dir) {
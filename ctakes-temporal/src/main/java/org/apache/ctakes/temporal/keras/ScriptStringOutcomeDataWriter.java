@@ -23,6 +23,11 @@ public abstract class ScriptStringOutcomeDataWriter<T extends ScriptStringOutcom
   public static final String PARAM_SCRIPT_DIR = "DataWriterScriptDirectory";
   @ConfigurationParameter(name=PARAM_SCRIPT_DIR)
   public String dir;
+
+  public static final String PARAM_BACKEND_CLASS = "DataWriterClassifierBackend";
+  @ConfigurationParameter(name=PARAM_BACKEND_CLASS, mandatory=false,
+      description="StringOutcomeBackend class that should run the trained model instead of the classify script")
+  public String backendClass;
   
   public ScriptStringOutcomeDataWriter(File outputDirectory)
       throws FileNotFoundException {
@@ -50,5 +55,9 @@ public abstract class ScriptStringOutcomeDataWriter<T extends ScriptStringOutcom
       throws ResourceInitializationException {
     this.dir = (String) context.getConfigParameterValue(PARAM_SCRIPT_DIR);
     this.classifierBuilder.setScriptDirectory(this.dir);
+    this.backendClass = (String) context.getConfigParameterValue(PARAM_BACKEND_CLASS);
+    if(this.backendClass != null){
+      this.classifierBuilder.setBackendClass(this.backendClass);
+    }
   }
 }
@@ -0,0 +1,27 @@
+package org.apache.ctakes.temporal.keras;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Runs a trained model for a {@link ScriptStringOutcomeClassifier}.
+ * <p>
+ * The default backend runs the classify script of the model in a separate process, see {@link ScriptProcessBackend}.
+ * An in-JVM model runner can be used instead by implementing this interface with a public constructor that takes
+ * the model directory as its only argument, and naming the class in the model manifest
+ * ({@link ScriptStringOutcomeClassifierBuilder#setBackendClass(String)}) or in the system property
+ * {@link ScriptStringOutcomeClassifierBuilder#BACKEND_CLASS_PROPERTY}.
+ * </p>
+ * A backend is used by a single classifier and is not required to be thread safe.
+ */
+public interface StringOutcomeBackend extends Closeable {
+
+  /**
+   * @param instances one line per instance, the feature values separated by single spaces
+   * @return one outcome per instance, in the order of the instances.
+   *         An outcome is null if the backend failed to classify the instance.
+   */
+  List<String> classify(List<String> instances) throws IOException;
+
+}
@@ -11,7 +11,7 @@ import org.apache.ctakes.typesystem.type.textsem.EventMention;
 import org.apache.ctakes.typesystem.type.textsem.IdentifiedAnnotation;
 import org.apache.ctakes.typesystem.type.textsem.TimeMention;
 import org.apache.ctakes.typesystem.type.textspan.Sentence;
-import org.apache.uima.fit.util.JCasUtil;
+import org.apache.ctakes.core.util.AnnotationIntervalIndex;
 import org.apache.uima.jcas.JCas;
 import org.apache.uima.jcas.tcas.Annotation;
 
@@ -33,7 +33,7 @@ public class ArgContextProvider {
 
 		// get sentence as a list of tokens
 		List<String> tokens = new ArrayList<>();
-		for(BaseToken baseToken : JCasUtil.selectCovered(jCas, BaseToken.class, sent)) {
+		for(BaseToken baseToken : AnnotationIntervalIndex.selectCovered(jCas, BaseToken.class, sent)) {
 			tokens.add(baseToken.getCoveredText());  
 		}
 
@@ -44,7 +44,7 @@ public class ArgContextProvider {
 		int timeFirstPosition = -1000; // timex's start index
 		int timeLastPosition = -1000;  // timex's end index
 		int eventPosition = -1000;     // event's index
-		for(BaseToken token : JCasUtil.selectCovered(jCas, BaseToken.class, sent)) {
+		for(BaseToken token : AnnotationIntervalIndex.selectCovered(jCas, BaseToken.class, sent)) {
 			if(time.getBegin() == token.getBegin()) { 
 				timeFirstPosition = currentPosition; // start of time expression found
 			}
@@ -62,7 +62,7 @@ public class ArgContextProvider {
 		// "discussed" not found due to incorrect tokenization
 		if(eventPosition == -1000) {
 			currentPosition = 0;
-			for(BaseToken token : JCasUtil.selectCovered(jCas, BaseToken.class, sent)) {
+			for(BaseToken token : AnnotationIntervalIndex.selectCovered(jCas, BaseToken.class, sent)) {
 				if(token.getCoveredText().contains(event.getCoveredText())) {
 					eventPosition = currentPosition; 
 				}
@@ -88,7 +88,7 @@ public class ArgContextProvider {
 
 		List<String> positionsWrtToTime = new ArrayList<>();
 		List<String> positionsWrtToEvent = new ArrayList<>();
-		int tokensInSentence = JCasUtil.selectCovered(jCas, BaseToken.class, sent).size();
+		int tokensInSentence = AnnotationIntervalIndex.selectCovered(jCas, BaseToken.class, sent).size();
 		for(int tokenIndex = 0; tokenIndex < tokensInSentence; tokenIndex++) {
 			if(tokenIndex < timeFirstPosition) {
 				positionsWrtToTime.add(Integer.toString(tokenIndex - timeFirstPosition));
@@ -118,7 +118,7 @@ public class ArgContextProvider {
 
 		// get sentence as a list of tokens
 		List<String> tokens = new ArrayList<>();
-		for(BaseToken baseToken : JCasUtil.selectCovered(jCas, BaseToken.class, sent)) {
+		for(BaseToken baseToken : AnnotationIntervalIndex.selectCovered(jCas, BaseToken.class, sent)) {
 			tokens.add(baseToken.getCoveredText());  
 		}
 
@@ -128,7 +128,7 @@ public class ArgContextProvider {
 		int currentPosition = 0;       // current token index
 		int event1Position = -1000;    // event1's index
 		int event2Position = -1000;    // event2's index
-		for(BaseToken token : JCasUtil.selectCovered(jCas, BaseToken.class, sent)) {
+		for(BaseToken token : AnnotationIntervalIndex.selectCovered(jCas, BaseToken.class, sent)) {
 			if(event1.getBegin() == token.getBegin()) {
 				event1Position = currentPosition;     // event1 position found
 			}
@@ -140,7 +140,7 @@ public class ArgContextProvider {
 
 		List<String> positionsWrtToEvent1 = new ArrayList<>();
 		List<String> positionsWrtToEvent2 = new ArrayList<>();    
-		int tokensInSentence = JCasUtil.selectCovered(jCas, BaseToken.class, sent).size();
+		int tokensInSentence = AnnotationIntervalIndex.selectCovered(jCas, BaseToken.class, sent).size();
 		for(int tokenIndex = 0; tokenIndex < tokensInSentence; tokenIndex++) {
 			positionsWrtToEvent1.add(Integer.toString(tokenIndex - event1Position));
 			positionsWrtToEvent2.add(Integer.toString(tokenIndex - event2Position));
@@ -162,7 +162,7 @@ public class ArgContextProvider {
 
 		// tokens to the left from the left argument
 		List<String> leftTokens = new ArrayList<>();
-		for(BaseToken baseToken :  JCasUtil.selectPreceding(jCas, BaseToken.class, left, contextSize)) {
+		for(BaseToken baseToken :  AnnotationIntervalIndex.selectPreceding(jCas, BaseToken.class, left, contextSize)) {
 			if(sent.getBegin() <= baseToken.getBegin()) {
 				leftTokens.add(baseToken.getCoveredText()); 
 			}
@@ -171,28 +171,28 @@ public class ArgContextProvider {
 
 		// left arg tokens
 		List<String> arg1Tokens = new ArrayList<>(); 
-		for(BaseToken baseToken : JCasUtil.selectCovered(jCas, BaseToken.class, left)) {
+		for(BaseToken baseToken : AnnotationIntervalIndex.selectCovered(jCas, BaseToken.class, left)) {
 			arg1Tokens.add(baseToken.getCoveredText());
 		}
 		String arg1AsString = String.join(" ", arg1Tokens).replaceAll("[\r\n]", " ");
 
 		// tokens between the arguments
 		List<String> betweenTokens = new ArrayList<>();
-		for(BaseToken baseToken : JCasUtil.selectBetween(jCas, BaseToken.class, left, right)) {
+		for(BaseToken baseToken : AnnotationIntervalIndex.selectBetween(jCas, BaseToken.class, left, right)) {
 			betweenTokens.add(baseToken.getCoveredText());
 		}
 		String betweenAsString = String.join(" ", betweenTokens).replaceAll("[\r\n]", " ");
 
 		// right arg tokens
 		List<String> arg2Tokens = new ArrayList<>(); 
-		for(BaseToken baseToken : JCasUtil.selectCovered(jCas, BaseToken.class, right)) {
+		for(BaseToken baseToken : AnnotationIntervalIndex.selectCovered(jCas, BaseToken.class, right)) {
 			arg2Tokens.add(baseToken.getCoveredText());
 		}
 		String arg2AsString = String.join(" ", arg2Tokens).replaceAll("[\r\n]", " ");
 
 		// tokens to the right from the right argument
 		List<String> rightTokens = new ArrayList<>();
-		for(BaseToken baseToken : JCasUtil.selectFollowing(jCas, BaseToken.class, right, contextSize)) {
+		for(BaseToken baseToken : AnnotationIntervalIndex.selectFollowing(jCas, BaseToken.class, right, contextSize)) {
 			if(baseToken.getEnd() <= sent.getEnd()) {
 				rightTokens.add(baseToken.getCoveredText());
 			}
@@ -216,7 +216,7 @@ public class ArgContextProvider {
 			int contextSize) {
 
 		List<String> tokens = new ArrayList<>();
-		for(BaseToken baseToken :  JCasUtil.selectPreceding(jCas, BaseToken.class, left, contextSize)) {
+		for(BaseToken baseToken :  AnnotationIntervalIndex.selectPreceding(jCas, BaseToken.class, left, contextSize)) {
 			if(sent.getBegin() <= baseToken.getBegin()) {
 				//				if(!(baseToken instanceof NewlineToken)){
 				String stringValue = TokenPreprocForWord2Vec.tokenToString(baseToken);
@@ -226,13 +226,13 @@ public class ArgContextProvider {
 		}
 		tokens.add("<" + leftType + ">");
 		//tokens.add(left.getCoveredText());
-		for(BaseToken base : JCasUtil.selectCovered(jCas, BaseToken.class, left)){
+		for(BaseToken base : AnnotationIntervalIndex.selectCovered(jCas, BaseToken.class, left)){
 			String stringValue = TokenPreprocForWord2Vec.tokenToString(base);
 			tokens.add(stringValue);
 		}
 
 		tokens.add("</" + leftType + ">");
-		for(BaseToken baseToken : JCasUtil.selectBetween(jCas, BaseToken.class, left, right)) {
+		for(BaseToken baseToken : AnnotationIntervalIndex.selectBetween(jCas, BaseToken.class, left, right)) {
 			//			if(!(baseToken instanceof NewlineToken)){
 			String stringValue = TokenPreprocForWord2Vec.tokenToString(baseToken);
 			tokens.add(stringValue);//baseToken.getCoveredText()); 
@@ -240,13 +240,13 @@ public class ArgContextProvider {
 		}
 		tokens.add("<" + rightType + ">");
 		//tokens.add(right.getCoveredText());
-		for(BaseToken base : JCasUtil.selectCovered(jCas, BaseToken.class, right)){
+		for(BaseToken base : AnnotationIntervalIndex.selectCovered(jCas, BaseToken.class, right)){
 			String stringValue = TokenPreprocForWord2Vec.tokenToString(base);
 			tokens.add(stringValue);
 		}
 
 		tokens.add("</" + rightType + ">");
-		for(BaseToken baseToken : JCasUtil.selectFollowing(jCas, BaseToken.class, right, contextSize)) {
+		for(BaseToken baseToken : AnnotationIntervalIndex.selectFollowing(jCas, BaseToken.class, right, contextSize)) {
 			if(baseToken.getEnd() <= sent.getEnd()) {
 				//				if(!(baseToken instanceof NewlineToken)){
 				String stringValue = TokenPreprocForWord2Vec.tokenToString(baseToken);
@@ -273,7 +273,7 @@ public class ArgContextProvider {
 			int contextSize) {
 
 		List<String> tokens = new ArrayList<>();
-		for(BaseToken baseToken :  JCasUtil.selectPreceding(jCas, BaseToken.class, left, contextSize)) {
+		for(BaseToken baseToken :  AnnotationIntervalIndex.selectPreceding(jCas, BaseToken.class, left, contextSize)) {
 			if(sent.getBegin() <= baseToken.getBegin()) {
 				if(!baseToken.getCoveredText().equals(" ")){
 					tokens.add(baseToken.getPartOfSpeech());
@@ -281,25 +281,25 @@ public class ArgContextProvider {
 			}
 		}
 		tokens.add("<" + leftType + ">");
-		for(BaseToken baseToken : JCasUtil.selectCovered(jCas, BaseToken.class, left)) {
+		for(BaseToken baseToken : AnnotationIntervalIndex.selectCovered(jCas, BaseToken.class, left)) {
 			if(!(baseToken instanceof NewlineToken)){
 				tokens.add(baseToken.getPartOfSpeech());
 			}
 		}
 		tokens.add("</" + leftType + ">");
-		for(BaseToken baseToken : JCasUtil.selectBetween(jCas, BaseToken.class, left, right)) {
+		for(BaseToken baseToken : AnnotationIntervalIndex.selectBetween(jCas, BaseToken.class, left, right)) {
 			if(!(baseToken instanceof NewlineToken)){
 				tokens.add(baseToken.getPartOfSpeech());
 			}
 		}
 		tokens.add("<" + rightType + ">");
-		for(BaseToken baseToken : JCasUtil.selectCovered(jCas, BaseToken.class, right)) {
+		for(BaseToken baseToken : AnnotationIntervalIndex.selectCovered(jCas, BaseToken.class, right)) {
 			if(!(baseToken instanceof NewlineToken)){
 				tokens.add(baseToken.getPartOfSpeech());
 			}
 		}
 		tokens.add("</" + rightType + ">");
-		for(BaseToken baseToken : JCasUtil.selectFollowing(jCas, BaseToken.class, right, contextSize)) {
+		for(BaseToken baseToken : AnnotationIntervalIndex.selectFollowing(jCas, BaseToken.class, right, contextSize)) {
 			if(baseToken.getEnd() <= sent.getEnd()) {
 				if(!(baseToken instanceof NewlineToken)){
 					tokens.add(baseToken.getPartOfSpeech());
@@ -314,11 +314,11 @@ public class ArgContextProvider {
 			IdentifiedAnnotation arg2, String rightType, int contextSize) {
 		List<String> tokens = new ArrayList<>();
 		//select prior context:
-		List<TimeMention> preTimex = JCasUtil.selectCovered(jCas, TimeMention.class, sentence.getBegin(), arg1.getBegin());
-		List<TimeMention> betweenTimex = JCasUtil.selectCovered(jCas, TimeMention.class, arg1.getEnd(), arg2.getBegin());
-		List<TimeMention> afterTimex = JCasUtil.selectCovered(jCas, TimeMention.class, arg2.getEnd(), sentence.getEnd());
+		List<TimeMention> preTimex = AnnotationIntervalIndex.selectCovered(jCas, TimeMention.class, sentence.getBegin(), arg1.getBegin());
+		List<TimeMention> betweenTimex = AnnotationIntervalIndex.selectCovered(jCas, TimeMention.class, arg1.getEnd(), arg2.getBegin());
+		List<TimeMention> afterTimex = AnnotationIntervalIndex.selectCovered(jCas, TimeMention.class, arg2.getEnd(), sentence.getEnd());
 
-		tokens = addTimex2TokenSequence(jCas, tokens, JCasUtil.selectPreceding(jCas, BaseToken.class, arg1, contextSize), preTimex, sentence);
+		tokens = addTimex2TokenSequence(jCas, tokens, AnnotationIntervalIndex.selectPreceding(jCas, BaseToken.class, arg1, contextSize), preTimex, sentence);
 		//get arg1:
 		tokens.add(OTAG);//"<" + leftType + ">");
 		if (arg1 instanceof TimeMention){
@@ -329,7 +329,7 @@ public class ArgContextProvider {
 			//          tokens.add(getEventProperty((EventMention)arg1));
 		}
 		tokens.add(OTAG);//"</" + leftType + ">");
-		tokens = addTimex2TokenSequence(jCas, tokens, JCasUtil.selectBetween(jCas, BaseToken.class, arg1, arg2), betweenTimex, sentence);
+		tokens = addTimex2TokenSequence(jCas, tokens, AnnotationIntervalIndex.selectBetween(jCas, BaseToken.class, arg1, arg2), betweenTimex, sentence);
 		//arg2
 		tokens.add(OTAG);//"<" + rightType + ">");
 		if (arg2 instanceof TimeMention){
@@ -340,7 +340,7 @@ public class ArgContextProvider {
 			//          tokens.add(getEventProperty((EventMention)arg2));
 		}
 		tokens.add(OTAG);//"</" + rightType + ">");
-		tokens = addTimex2TokenSequence(jCas, tokens, JCasUtil.selectFollowing(jCas, BaseToken.class, arg2, contextSize), afterTimex, sentence);
+		tokens = addTimex2TokenSequence(jCas, tokens, AnnotationIntervalIndex.selectFollowing(jCas, BaseToken.class, arg2, contextSize), afterTimex, sentence);
 
 
 		return String.join(" ", tokens).replaceAll("[\r\n]", " ");
@@ -349,7 +349,7 @@ public class ArgContextProvider {
 	private static String generateTimeTag(JCas jCas, TimeMention timex) {
 		String timeTag;
 		//check if there is any number token within the timex mention:
-		List<BaseToken> tokens = JCasUtil.selectCovered(jCas, BaseToken.class, timex);
+		List<BaseToken> tokens = AnnotationIntervalIndex.selectCovered(jCas, BaseToken.class, timex);
 		int numTokens = tokens.size();
 		if(numTokens>0){
 			timeTag=BTAG+"_"+timex.getTimeClass()+">";
@@ -400,7 +400,7 @@ public class ArgContextProvider {
 	public static String getTokenContext(JCas jCas, Sentence sent, IdentifiedAnnotation left, String leftType,
 			String umlsleft, IdentifiedAnnotation right, String rightType, String umlsright, int contextSize) {
 		List<String> tokens = new ArrayList<>();
-		for(BaseToken baseToken :  JCasUtil.selectPreceding(jCas, BaseToken.class, left, contextSize)) {
+		for(BaseToken baseToken :  AnnotationIntervalIndex.selectPreceding(jCas, BaseToken.class, left, contextSize)) {
 			if(sent.getBegin() <= baseToken.getBegin()) {
 				//				if(!(baseToken instanceof NewlineToken)){
 				tokens.add(baseToken.getCoveredText()); 
@@ -417,15 +417,15 @@ public class ArgContextProvider {
 		//		}
 		//find all non-overlapping events between to arguments:
 		List<EventMention> nonOverlapEvents = new ArrayList<>();
-		for(EventMention event : JCasUtil.selectBetween(jCas, EventMention.class, left, right)){
-			int coveringNum = JCasUtil.selectCovering(jCas, EventMention.class, event).size();
-			int coveredWord = JCasUtil.selectCovered(jCas, WordToken.class, event).size();
+		for(EventMention event : AnnotationIntervalIndex.selectBetween(jCas, EventMention.class, left, right)){
+			int coveringNum = AnnotationIntervalIndex.selectCovering(jCas, EventMention.class, event).size();
+			int coveredWord = AnnotationIntervalIndex.selectCovered(jCas, WordToken.class, event).size();
 			if(coveringNum <=1 && !event.getClass().equals(EventMention.class) && coveredWord > 1){
 				nonOverlapEvents.add(event);
 			}
 		}
 		if(nonOverlapEvents.size()==0){
-			for(BaseToken baseToken : JCasUtil.selectBetween(jCas, BaseToken.class, left, right)) {
+			for(BaseToken baseToken : AnnotationIntervalIndex.selectBetween(jCas, BaseToken.class, left, right)) {
 				//			if(!(baseToken instanceof NewlineToken)){
 				tokens.add(baseToken.getCoveredText()); 
 				//			}
@@ -433,13 +433,13 @@ public class ArgContextProvider {
 		}else{
 			IdentifiedAnnotation leftentity = left;
 			for(EventMention event : nonOverlapEvents){
-				for(BaseToken baseToken : JCasUtil.selectBetween(jCas, BaseToken.class, leftentity, event)) {
+				for(BaseToken baseToken : AnnotationIntervalIndex.selectBetween(jCas, BaseToken.class, leftentity, event)) {
 					tokens.add(baseToken.getCoveredText()); 
 				}
 				tokens.add("umls_"+event.getTypeID());
 				leftentity=event;
 			}
-			for(BaseToken baseToken : JCasUtil.selectBetween(jCas, BaseToken.class, leftentity, right)) {
+			for(BaseToken baseToken : AnnotationIntervalIndex.selectBetween(jCas, BaseToken.class, leftentity, right)) {
 				tokens.add(baseToken.getCoveredText()); 
 			}
 		}
@@ -447,7 +447,7 @@ public class ArgContextProvider {
 		tokens.add("<" + rightType + ">");
 		tokens.add(umlsright);
 		tokens.add("</" + rightType + ">");
-		for(BaseToken baseToken : JCasUtil.selectFollowing(jCas, BaseToken.class, right, contextSize)) {
+		for(BaseToken baseToken : AnnotationIntervalIndex.selectFollowing(jCas, BaseToken.class, right, contextSize)) {
 			if(baseToken.getEnd() <= sent.getEnd()) {
 				//				if(!(baseToken instanceof NewlineToken)){
 				tokens.add(baseToken.getCoveredText()); 
@@ -0,0 +1,50 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ctakes.temporal.ae;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.cleartk.ml.Feature;
+import org.junit.Test;
+
+public class TemporalRelationExtractorAnnotatorTest {
+
+	@Test
+	public void testOverridesClassify() {
+		assertFalse(TemporalRelationExtractorAnnotator.overridesClassify(TemporalRelationExtractorAnnotator.class));
+		assertFalse(TemporalRelationExtractorAnnotator.overridesClassify(EventTimeSelfRelationAnnotator.class));
+		assertFalse(TemporalRelationExtractorAnnotator.overridesClassify(EventEventRelationAnnotator.class));
+		assertTrue(TemporalRelationExtractorAnnotator.overridesClassify(CustomClassifyAnnotator.class));
+		// an override in a superclass also keeps the per-pair path
+		assertTrue(TemporalRelationExtractorAnnotator.overridesClassify(CustomClassifySubclass.class));
+	}
+
+	public static abstract class CustomClassifyAnnotator extends EventTimeSelfRelationAnnotator {
+		@Override
+		protected String classify(List<Feature> features) {
+			return NO_RELATION_CATEGORY;
+		}
+	}
+
+	public static abstract class CustomClassifySubclass extends CustomClassifyAnnotator {
+	}
+}
@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ctakes.temporal.keras;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ScriptProcessBackendTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Before
+	public void requireShell() {
+		Assume.assumeTrue(new File("/bin/sh").canExecute());
+	}
+
+	private File writeScript(String body) throws IOException {
+		File scriptDir = folder.newFolder("script");
+		File script = new File(scriptDir, "classify.sh");
+		Files.write(script.toPath(), ("#!/bin/sh\necho 'test backend' >&2\n" + body).getBytes(StandardCharsets.UTF_8));
+		assertTrue(script.setExecutable(true));
+		return scriptDir;
+	}
+
+	private static boolean writerThreadExists() {
+		for (Thread thread : Thread.getAllStackTraces().keySet()) {
+			if (thread.getName().equals("ScriptProcessBackend writer")) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Test
+	public void testSingleAndBatchRequests() throws IOException {
+		// outcome is the instance length, an empty line ends the script
+		File scriptDir = writeScript("while read line; do\n  [ -z \"$line\" ] && exit 0\n  echo ${#line}\ndone\n");
+		ScriptProcessBackend backend = new ScriptProcessBackend(scriptDir, folder.getRoot());
+		try {
+			// a single instance is written by the calling thread
+			assertEquals(Collections.singletonList("3"), backend.classify(Collections.singletonList("a b")));
+			assertFalse(writerThreadExists());
+			// a batch larger than the pipe buffers does not deadlock
+			List<String> instances = new ArrayList<>();
+			for (int i = 0; i < 20000; i++) {
+				instances.add("feature" + i + " value" + i);
+			}
+			List<String> outcomes = backend.classify(instances);
+			assertEquals(instances.size(), outcomes.size());
+			for (int i = 0; i < instances.size(); i++) {
+				assertEquals(String.valueOf(instances.get(i).length()), outcomes.get(i));
+			}
+			assertEquals(Collections.singletonList("1"), backend.classify(Collections.singletonList("x")));
+		} finally {
+			backend.close();
+		}
+	}
+
+	@Test
+	public void testDeadScriptYieldsNullOutcomes() throws IOException {
+		File scriptDir = writeScript("read line\necho 1\necho 'model failed' >&2\nexit 1\n");
+		ScriptProcessBackend backend = new ScriptProcessBackend(scriptDir, folder.getRoot());
+		try {
+			List<String> outcomes = backend.classify(Arrays.asList("a", "b", "c"));
+			assertEquals("1", outcomes.get(0));
+			assertNull(outcomes.get(1));
+			assertNull(outcomes.get(2));
+			assertNull(backend.classify(Collections.singletonList("d")).get(0));
+		} finally {
+			backend.close();
+		}
+	}
+}
@@ -0,0 +1,301 @@
+package org.apache.ctakes.utils.distsem;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Word vectors stored as rows of 32 bit floats in a single binary file.
+ * <p>
+ * File layout, all values big-endian:
+ * <pre>
+ *   int magic, int version, int word count, int dimensionality
+ *   float[word count][dimensionality] vectors
+ *   float[word count] vector lengths
+ *   utf word[word count]
+ * </pre>
+ * A file can be memory-mapped, in which case vectors are read from the os page cache and never copied to the heap,
+ * or read into a single float array.  Either way a vector takes half the memory of a double array,
+ * and there is no per-word object overhead.
+ * </p>
+ * A zero vector has no direction, so its cosine similarity with any vector is 0 rather than NaN.
+ * A store is immutable and can be shared by threads.
+ */
+public class FloatEmbeddingStore {
+
+  static public final int MAGIC = 0x43545756;  // "CTWV"
+  static private final int VERSION = 1;
+  static private final int HEADER_BYTES = 16;
+
+  private final FloatBuffer[] chunks;
+  private final int rowsPerChunk;
+  private final float[] lengths;
+  private final String[] words;
+  private final Map<String,Integer> wordIndices;
+  private final int dimensionality;
+
+  private FloatEmbeddingStore(FloatBuffer[] chunks, int rowsPerChunk, float[] lengths, String[] words,
+                              int dimensionality){
+    this.chunks = chunks;
+    this.rowsPerChunk = rowsPerChunk;
+    this.lengths = lengths;
+    this.words = words;
+    this.dimensionality = dimensionality;
+    this.wordIndices = new HashMap<>(words.length * 2);
+    for(int i = 0; i < words.length; i++){
+      wordIndices.put(words[i], i);
+    }
+  }
+
+  /**
+   * @param file binary embeddings file
+   * @return true if the file starts with the binary embeddings magic number
+   */
+  public static boolean isBinary(File file) throws IOException {
+    if(file.length() < HEADER_BYTES){
+      return false;
+    }
+    try(DataInputStream in = new DataInputStream(new FileInputStream(file))){
+      return in.readInt() == MAGIC;
+    }
+  }
+
+  /**
+   * Memory-map a binary embeddings file.  Vectors are paged in by the os as they are used.
+   * @param file binary embeddings file
+   * @return store backed by the mapped file
+   */
+  public static FloatEmbeddingStore map(File file) throws IOException {
+    try(RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()){
+      ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+      int numWords = readHeader(header.getInt(), header.getInt(), header.getInt());
+      int dim = header.getInt();
+      long rowBytes = 4L * dim;
+      int rowsPerChunk = (int) Math.max(1, Integer.MAX_VALUE / rowBytes);
+      int numChunks = numWords == 0 ? 0 : (numWords - 1) / rowsPerChunk + 1;
+      FloatBuffer[] chunks = new FloatBuffer[numChunks];
+      for(int c = 0; c < numChunks; c++){
+        int rows = Math.min(rowsPerChunk, numWords - c * rowsPerChunk);
+        chunks[c] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES + c * rowsPerChunk * rowBytes,
+            rows * rowBytes).asFloatBuffer();
+      }
+      long tableEnd = HEADER_BYTES + numWords * rowBytes;
+      try(DataInputStream in = new DataInputStream(new BufferedInputStream(
+          new FileInputStream(file), 1 << 16))){
+        skipFully(in, tableEnd);
+        return new FloatEmbeddingStore(chunks, rowsPerChunk, readLengths(in, numWords), readWords(in, numWords),
+            dim);
+      }
+    }
+  }
+
+  /**
+   * Read binary embeddings onto the heap, for instance from a classpath resource that cannot be mapped.
+   * @param stream binary embeddings, positioned at the magic number
+   * @return store backed by a single float array
+   */
+  public static FloatEmbeddingStore read(InputStream stream) throws IOException {
+    DataInputStream in = new DataInputStream(new BufferedInputStream(stream, 1 << 16));
+    int numWords = readHeader(in.readInt(), in.readInt(), in.readInt());
+    int dim = in.readInt();
+    if((long) numWords * dim > Integer.MAX_VALUE){
+      throw new IOException("Too many vectors to read onto the heap, map the file instead.");
+    }
+    float[] table = new float[numWords * dim];
+    for(int i = 0; i < table.length; i++){
+      table[i] = in.readFloat();
+    }
+    return new FloatEmbeddingStore(new FloatBuffer[]{ FloatBuffer.wrap(table) }, Math.max(1, numWords),
+        readLengths(in, numWords), readWords(in, numWords), dim);
+  }
+
+  private static int readHeader(int magic, int version, int numWords) throws IOException {
+    if(magic != MAGIC){
+      throw new IOException("Not a binary embeddings file.");
+    }
+    if(version != VERSION){
+      throw new IOException("Unsupported binary embeddings version " + version);
+    }
+    return numWords;
+  }
+
+  private static float[] readLengths(DataInputStream in, int numWords) throws IOException {
+    float[] lengths = new float[numWords];
+    for(int i = 0; i < numWords; i++){
+      lengths[i] = in.readFloat();
+    }
+    return lengths;
+  }
+
+  private static String[] readWords(DataInputStream in, int numWords) throws IOException {
+    String[] words = new String[numWords];
+    for(int i = 0; i < numWords; i++){
+      words[i] = in.readUTF();
+    }
+    return words;
+  }
+
+  private static void skipFully(InputStream in, long count) throws IOException {
+    long remaining = count;
+    while(remaining > 0){
+      long skipped = in.skip(remaining);
+      if(skipped <= 0){
+        throw new IOException("Binary embeddings file is truncated.");
+      }
+      remaining -= skipped;
+    }
+  }
+
+  /**
+   * Convert embeddings in the word2vec text format: a header line with the word count and dimensionality,
+   * then one line per word with the word and its space-separated values.
+   * @param textStream text embeddings
+   * @param binaryFile file to write
+   * @return number of words written
+   */
+  public static int convert(InputStream textStream, File binaryFile) throws IOException {
+    List<String> words = new ArrayList<>();
+    List<Float> lengths = new ArrayList<>();
+    int dim;
+    try(BufferedReader reader = new BufferedReader(new InputStreamReader(textStream, StandardCharsets.UTF_8));
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+            new FileOutputStream(binaryFile), 1 << 16))){
+      String line = reader.readLine();
+      if(line == null){
+        throw new IOException("Empty embeddings file.");
+      }
+      String[] header = line.trim().split("\\s+");
+      dim = Integer.parseInt(header[1]);
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeInt(0);
+      out.writeInt(dim);
+      while((line = reader.readLine()) != null){
+        line = line.trim();
+        if(line.isEmpty()){
+          continue;
+        }
+        String[] fields = line.split(" ");
+        if(fields.length != dim + 1){
+          throw new IOException("Expected " + dim + " values for word " + fields[0]);
+        }
+        double length = 0;
+        for(int i = 1; i <= dim; i++){
+          float value = Float.parseFloat(fields[i]);
+          length += value * value;
+          out.writeFloat(value);
+        }
+        words.add(fields[0]);
+        lengths.add((float) Math.sqrt(length));
+      }
+      for(Float length : lengths){
+        out.writeFloat(length);
+      }
+      for(String word : words){
+        out.writeUTF(word);
+      }
+    }
+    try(RandomAccessFile raf = new RandomAccessFile(binaryFile, "rw")){
+      raf.seek(8);
+      raf.writeInt(words.size());
+    }
+    return words.size();
+  }
+
+  public int size(){
+    return words.length;
+  }
+
+  public int getDimensionality(){
+    return dimensionality;
+  }
+
+  /**
+   * @return row of the word, or -1 if the word is unknown
+   */
+  public int indexOf(String word){
+    Integer index = wordIndices.get(word);
+    return index == null ? -1 : index;
+  }
+
+  public String getWord(int row){
+    return words[row];
+  }
+
+  public float getValue(int row, int dim){
+    return chunks[row / rowsPerChunk].get((row % rowsPerChunk) * dimensionality + dim);
+  }
+
+  /**
+   * @return euclidean length of the vector in the row
+   */
+  public float getLength(int row){
+    return lengths[row];
+  }
+
+  /**
+   * @param row some row
+   * @param vector array of at least the dimensionality, filled with the vector in the row
+   */
+  public void getVector(int row, float[] vector){
+    FloatBuffer chunk = chunks[row / rowsPerChunk];
+    int offset = (row % rowsPerChunk) * dimensionality;
+    for(int i = 0; i < dimensionality; i++){
+      vector[i] = chunk.get(offset + i);
+    }
+  }
+
+  /**
+   * @return cosine similarity of the vectors in the two rows, 0 if either vector is zero
+   */
+  public double cosine(int row1, int row2){
+    if(lengths[row1] == 0 || lengths[row2] == 0){
+      return 0;
+    }
+    FloatBuffer chunk1 = chunks[row1 / rowsPerChunk];
+    FloatBuffer chunk2 = chunks[row2 / rowsPerChunk];
+    int offset1 = (row1 % rowsPerChunk) * dimensionality;
+    int offset2 = (row2 % rowsPerChunk) * dimensionality;
+    double dot = 0;
+    for(int i = 0; i < dimensionality; i++){
+      dot += chunk1.get(offset1 + i) * chunk2.get(offset2 + i);
+    }
+    return dot / ((double) lengths[row1] * lengths[row2]);
+  }
+
+  /**
+   * @param row    some row
+   * @param vector some vector of the dimensionality
+   * @param length euclidean length of the vector
+   * @return cosine similarity of the vector in the row and the given vector, 0 if either vector is zero
+   */
+  public double cosine(int row, float[] vector, double length){
+    if(lengths[row] == 0 || length == 0){
+      return 0;
+    }
+    FloatBuffer chunk = chunks[row / rowsPerChunk];
+    int offset = (row % rowsPerChunk) * dimensionality;
+    double dot = 0;
+    for(int i = 0; i < dimensionality; i++){
+      dot += chunk.get(offset + i) * vector[i];
+    }
+    return dot / (lengths[row] * length);
+  }
+}
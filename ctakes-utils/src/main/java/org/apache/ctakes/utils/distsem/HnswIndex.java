@@ -0,0 +1,346 @@
+package org.apache.ctakes.utils.distsem;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+/**
+ * Approximate nearest neighbour index over the rows of a {@link FloatEmbeddingStore}
+ * using a hierarchical navigable small world graph with cosine similarity.
+ * <p>
+ * Every row is a node on level 0, and on each higher level with exponentially decreasing probability.
+ * A search descends greedily through the sparse upper levels and then does a best-first search on level 0,
+ * so a query visits a few hundred vectors instead of the whole vocabulary.
+ * </p>
+ * Building is single threaded.  Once built or read, an index is never modified and can be searched by threads.
+ */
+public class HnswIndex {
+
+  static private final int MAGIC = 0x43544857;  // "CTHW"
+  static private final int DEFAULT_M = 16;
+  static private final int DEFAULT_EF_CONSTRUCTION = 100;
+  static private final int DEFAULT_EF_SEARCH = 64;
+
+  private final FloatEmbeddingStore store;
+  private final int m;
+  // neighbors[node][level] are the linked nodes of the node on the level
+  private final int[][][] neighbors;
+  private int entryPoint = -1;
+  private int maxLevel = -1;
+  // one visited set per searching thread, reused by every search instead of allocating a set per query
+  private final ThreadLocal<VisitedSet> visitedSets;
+
+  private HnswIndex(FloatEmbeddingStore store, int m){
+    this.store = store;
+    this.m = m;
+    this.neighbors = new int[store.size()][][];
+    this.visitedSets = ThreadLocal.withInitial(() -> new VisitedSet(store.size()));
+  }
+
+  /**
+   * Build an index with the default graph degree and construction effort.
+   */
+  public static HnswIndex build(FloatEmbeddingStore store){
+    return build(store, DEFAULT_M, DEFAULT_EF_CONSTRUCTION, 42);
+  }
+
+  /**
+   * @param store            vectors to index
+   * @param m                number of links per node on the upper levels, twice that on level 0
+   * @param efConstruction   number of candidates considered when linking a node
+   * @param seed             seed for the random node levels
+   */
+  public static HnswIndex build(FloatEmbeddingStore store, int m, int efConstruction, long seed){
+    HnswIndex index = new HnswIndex(store, m);
+    Random random = new Random(seed);
+    double levelMultiplier = 1 / Math.log(m);
+    for(int node = 0; node < store.size(); node++){
+      int level = (int) (-Math.log(1 - random.nextDouble()) * levelMultiplier);
+      index.insert(node, level, efConstruction);
+    }
+    return index;
+  }
+
+  private void insert(int node, int level, int efConstruction){
+    neighbors[node] = new int[level + 1][];
+    for(int l = 0; l <= level; l++){
+      neighbors[node][l] = new int[0];
+    }
+    if(entryPoint < 0){
+      entryPoint = node;
+      maxLevel = level;
+      return;
+    }
+    Scorer scorer = new RowScorer(node);
+    int current = entryPoint;
+    for(int l = maxLevel; l > level; l--){
+      current = greedyClosest(scorer, current, l);
+    }
+    VisitedSet visited = visitedSets.get();
+    for(int l = Math.min(level, maxLevel); l >= 0; l--){
+      visited.clear();
+      List<Candidate> candidates = searchLevel(scorer, current, efConstruction, l, visited);
+      int maxLinks = l == 0 ? 2 * m : m;
+      int[] links = selectNeighbors(candidates, maxLinks);
+      neighbors[node][l] = links;
+      for(int link : links){
+        addLink(link, node, l, maxLinks);
+      }
+      current = candidates.get(0).node;
+    }
+    if(level > maxLevel){
+      maxLevel = level;
+      entryPoint = node;
+    }
+  }
+
+  private void addLink(int node, int link, int level, int maxLinks){
+    int[] links = neighbors[node][level];
+    if(links.length < maxLinks){
+      int[] grown = new int[links.length + 1];
+      System.arraycopy(links, 0, grown, 0, links.length);
+      grown[links.length] = link;
+      neighbors[node][level] = grown;
+      return;
+    }
+    // too many links, keep the closest
+    List<Candidate> candidates = new ArrayList<>(links.length + 1);
+    for(int existing : links){
+      candidates.add(new Candidate(existing, store.cosine(node, existing)));
+    }
+    candidates.add(new Candidate(link, store.cosine(node, link)));
+    Collections.sort(candidates, BEST_FIRST);
+    neighbors[node][level] = selectNeighbors(candidates, maxLinks);
+  }
+
+  private static int[] selectNeighbors(List<Candidate> candidates, int maxLinks){
+    int[] links = new int[Math.min(maxLinks, candidates.size())];
+    for(int i = 0; i < links.length; i++){
+      links[i] = candidates.get(i).node;
+    }
+    return links;
+  }
+
+  private int greedyClosest(Scorer scorer, int start, int level){
+    int current = start;
+    double best = scorer.score(current);
+    boolean changed = true;
+    while(changed){
+      changed = false;
+      for(int link : neighbors[current][level]){
+        double sim = scorer.score(link);
+        if(sim > best){
+          best = sim;
+          current = link;
+          changed = true;
+        }
+      }
+    }
+    return current;
+  }
+
+  /**
+   * @return up to ef closest nodes found on the level, best first
+   */
+  private List<Candidate> searchLevel(Scorer scorer, int start, int ef, int level, VisitedSet visited){
+    PriorityQueue<Candidate> toVisit = new PriorityQueue<>(BEST_FIRST);
+    PriorityQueue<Candidate> found = new PriorityQueue<>(WORST_FIRST);
+    Candidate first = new Candidate(start, scorer.score(start));
+    visited.visit(start);
+    toVisit.add(first);
+    found.add(first);
+    while(!toVisit.isEmpty()){
+      Candidate candidate = toVisit.poll();
+      if(found.size() >= ef && candidate.similarity < found.peek().similarity){
+        break;
+      }
+      for(int link : neighbors[candidate.node][level]){
+        if(!visited.visit(link)){
+          continue;
+        }
+        double sim = scorer.score(link);
+        if(found.size() < ef || sim > found.peek().similarity){
+          Candidate linked = new Candidate(link, sim);
+          toVisit.add(linked);
+          found.add(linked);
+          if(found.size() > ef){
+            found.poll();
+          }
+        }
+      }
+    }
+    List<Candidate> results = new ArrayList<>(found);
+    Collections.sort(results, BEST_FIRST);
+    return results;
+  }
+
+  /**
+   * @param vector query vector
+   * @param length euclidean length of the query vector
+   * @param count  maximum number of rows to return
+   * @param ef     number of candidates to consider, larger is more accurate and slower
+   * @return rows of the most similar vectors, most similar first
+   */
+  public List<Integer> search(float[] vector, double length, int count, int ef){
+    List<Integer> rows = new ArrayList<>(count);
+    if(entryPoint < 0){
+      return rows;
+    }
+    Scorer scorer = new VectorScorer(vector, length);
+    int current = entryPoint;
+    for(int l = maxLevel; l > 0; l--){
+      current = greedyClosest(scorer, current, l);
+    }
+    VisitedSet visited = visitedSets.get();
+    visited.clear();
+    List<Candidate> candidates = searchLevel(scorer, current, Math.max(ef, count), 0, visited);
+    for(int i = 0; i < candidates.size() && rows.size() < count; i++){
+      rows.add(candidates.get(i).node);
+    }
+    return rows;
+  }
+
+  /**
+   * @return rows of the vectors most similar to the vector in the given row, most similar first,
+   * excluding the row itself
+   */
+  public List<Integer> searchRow(int row, int count){
+    float[] vector = new float[store.getDimensionality()];
+    store.getVector(row, vector);
+    List<Integer> rows = search(vector, store.getLength(row), count + 1, DEFAULT_EF_SEARCH);
+    rows.remove(Integer.valueOf(row));
+    if(rows.size() > count){
+      rows.remove(count);
+    }
+    return rows;
+  }
+
+  public void write(File file) throws IOException {
+    try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16))){
+      out.writeInt(MAGIC);
+      out.writeInt(store.size());
+      out.writeInt(m);
+      out.writeInt(entryPoint);
+      out.writeInt(maxLevel);
+      for(int[][] levels : neighbors){
+        out.writeInt(levels.length);
+        for(int[] links : levels){
+          out.writeInt(links.length);
+          for(int link : links){
+            out.writeInt(link);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * @param file  index written by {@link #write(File)}
+   * @param store the store for which the index was built
+   */
+  public static HnswIndex read(File file, FloatEmbeddingStore store) throws IOException {
+    try(DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16))){
+      if(in.readInt() != MAGIC){
+        throw new IOException("Not an embeddings index file " + file.getPath());
+      }
+      if(in.readInt() != store.size()){
+        throw new IOException("Index " + file.getPath() + " was not built for these embeddings.");
+      }
+      HnswIndex index = new HnswIndex(store, in.readInt());
+      index.entryPoint = in.readInt();
+      index.maxLevel = in.readInt();
+      for(int node = 0; node < store.size(); node++){
+        int[][] levels = new int[in.readInt()][];
+        for(int l = 0; l < levels.length; l++){
+          levels[l] = new int[in.readInt()];
+          for(int i = 0; i < levels[l].length; i++){
+            levels[l][i] = in.readInt();
+          }
+        }
+        index.neighbors[node] = levels;
+      }
+      return index;
+    }
+  }
+
+  private interface Scorer {
+    double score(int row);
+  }
+
+  private final class RowScorer implements Scorer {
+    private final int row;
+    private RowScorer(int row){
+      this.row = row;
+    }
+    @Override
+    public double score(int other){
+      return store.cosine(row, other);
+    }
+  }
+
+  private final class VectorScorer implements Scorer {
+    private final float[] vector;
+    private final double length;
+    private VectorScorer(float[] vector, double length){
+      this.vector = vector;
+      this.length = length;
+    }
+    @Override
+    public double score(int row){
+      return store.cosine(row, vector, length);
+    }
+  }
+
+  /**
+   * Set of visited nodes that is cleared in constant time.  A node is visited when its mark equals the current
+   * epoch, so clearing only increments the epoch, and the marks are reset when the epoch wraps.
+   */
+  private static final class VisitedSet {
+    private final int[] marks;
+    private int epoch = 0;
+    private VisitedSet(int size){
+      this.marks = new int[size];
+    }
+    private void clear(){
+      epoch++;
+      if(epoch == 0){
+        Arrays.fill(marks, 0);
+        epoch = 1;
+      }
+    }
+    /**
+     * @return true if the node had not been visited since the last clear
+     */
+    private boolean visit(int node){
+      if(marks[node] == epoch){
+        return false;
+      }
+      marks[node] = epoch;
+      return true;
+    }
+  }
+
+  private static final class Candidate {
+    private final int node;
+    private final double similarity;
+    private Candidate(int node, double similarity){
+      this.node = node;
+      this.similarity = similarity;
+    }
+  }
+
+  private static final Comparator<Candidate> BEST_FIRST = (c1, c2) -> Double.compare(c2.similarity, c1.similarity);
+  private static final Comparator<Candidate> WORST_FIRST = (c1, c2) -> Double.compare(c1.similarity, c2.similarity);
+}
@@ -2,9 +2,11 @@ package org.apache.ctakes.utils.distsem;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class WordEmbeddings {
 
@@ -12,6 +14,9 @@ public class WordEmbeddings {
   private int dimensionality = 0;
   private WordVector meanVector = null;
   private WordVector rawMeanVector = null;
+  // binary float vectors, used instead of the vectors map when present
+  private FloatEmbeddingStore store = null;
+  private HnswIndex index = null;
   
   public WordEmbeddings(int dim){
     this.vectors = new HashMap<>();
@@ -24,7 +29,45 @@ public class WordEmbeddings {
     this.vectors = vectors;
   }
 
+  /**
+   * @param store binary float vectors, possibly memory-mapped
+   */
+  public WordEmbeddings(FloatEmbeddingStore store){
+    this.store = store;
+    this.dimensionality = store.getDimensionality();
+  }
+
+  /**
+   * @param index approximate nearest neighbour index used by {@link #getSimilarWords(String, int)}.
+   *              Only available for binary vectors.
+   */
+  public void setIndex(HnswIndex index){
+    this.index = index;
+  }
+
+  /**
+   * Build an approximate nearest neighbour index for similar word queries.
+   * Only available for binary vectors.
+   */
+  public void buildIndex(){
+    if(store == null){
+      throw new IllegalStateException("An index can only be built for binary vectors.");
+    }
+    this.index = HnswIndex.build(store);
+  }
+
+  /**
+   * @return cosine similarity of the two words' vectors.  With binary vectors an unknown word has similarity 0.
+   */
   public double getSimilarity(String word1, String word2){
+    if(store != null){
+      int row1 = store.indexOf(word1);
+      int row2 = store.indexOf(word2);
+      if(row1 < 0 || row2 < 0){
+        return 0;
+      }
+      return store.cosine(row1, row2);
+    }
     WordVector vec1 = getVector(word1);
     WordVector vec2 = getVector(word2);
     
@@ -56,11 +99,57 @@ public class WordEmbeddings {
     vectors.put(word, new WordVector(word, vector));
   }
   
+  /**
+   * @param word some word
+   * @param others other words
+   * @return similarity of the word to each of the other words, NaN where either word is unknown
+   */
+  public double[] getSimilarities(String word, List<String> others){
+    double[] sims = new double[others.size()];
+    if(!containsKey(word)){
+      Arrays.fill(sims, Double.NaN);
+      return sims;
+    }
+    for(int i = 0; i < sims.length; i++){
+      sims[i] = containsKey(others.get(i)) ? getSimilarity(word, others.get(i)) : Double.NaN;
+    }
+    return sims;
+  }
+
+  /**
+   * Find similar words for several words in parallel.
+   * @param words some words
+   * @param maxWords maximum number of similar words for each word
+   * @return similar words for each known word, most similar first
+   */
+  public Map<String,List<String>> getSimilarWords(Collection<String> words, int maxWords){
+    Map<String,List<String>> similarWords = new ConcurrentHashMap<>();
+    words.parallelStream()
+        .distinct()
+        .filter(this::containsKey)
+        .forEach(w -> similarWords.put(w, getSimilarWords(w, maxWords)));
+    return similarWords;
+  }
+
   public boolean containsKey(String word){
+    if(store != null){
+      return store.indexOf(word) >= 0;
+    }
     return vectors.containsKey(word);
   }
   
   public WordVector getVector(String word){
+    if(store != null){
+      int row = store.indexOf(word);
+      if(row < 0){
+        return null;
+      }
+      double[] vector = new double[dimensionality];
+      for(int i = 0; i < dimensionality; i++){
+        vector[i] = store.getValue(row, i);
+      }
+      return new WordVector(word, vector);
+    }
     if(vectors != null){
       return vectors.get(word);
     }
@@ -72,6 +161,9 @@ public class WordEmbeddings {
   }
   
   public List<String> getSimilarWords(String word, int maxWords) {
+    if(store != null){
+      return getSimilarStoreWords(word, maxWords);
+    }
     double[] sims = new double[maxWords];
     List<String> words = new ArrayList<>(20);
     Arrays.fill(sims, -1);
@@ -112,8 +204,62 @@ public class WordEmbeddings {
     }
     return words;
   }
+
+  private List<String> getSimilarStoreWords(String word, int maxWords){
+    int row = store.indexOf(word);
+    List<String> words = new ArrayList<>(maxWords);
+    if(row < 0 || maxWords <= 0){
+      return words;
+    }
+    if(index != null){
+      for(int similar : index.searchRow(row, maxWords)){
+        words.add(store.getWord(similar));
+      }
+      return words;
+    }
+    // brute force, keeping the best rows in descending order of similarity
+    int[] bestRows = new int[maxWords];
+    double[] bestSims = new double[maxWords];
+    int found = 0;
+    for(int comp = 0; comp < store.size(); comp++){
+      if(comp == row){
+        continue;
+      }
+      double sim = store.cosine(row, comp);
+      if(found == maxWords && !(sim > bestSims[maxWords-1])){
+        continue;
+      }
+      int i = found < maxWords ? found++ : maxWords-1;
+      while(i > 0 && sim > bestSims[i-1]){
+        bestSims[i] = bestSims[i-1];
+        bestRows[i] = bestRows[i-1];
+        i--;
+      }
+      bestSims[i] = sim;
+      bestRows[i] = comp;
+    }
+    for(int i = 0; i < found; i++){
+      words.add(store.getWord(bestRows[i]));
+    }
+    return words;
+  }
   
   public WordVector getMeanVector(){
+    if(store != null){
+      if(meanVector == null){
+        double[] mean = new double[dimensionality];
+        for(int row = 0; row < store.size(); row++){
+          for(int i = 0; i < dimensionality; i++){
+            mean[i] += store.getValue(row, i);
+          }
+        }
+        for(int i = 0; i < dimensionality; i++){
+          mean[i] /= store.size();
+        }
+        meanVector = new WordVector("_mean_", mean);
+      }
+      return meanVector;
+    }
     for(int i = 0; i < this.rawMeanVector.getLength(); i++){
       this.meanVector.vector[i] = this.rawMeanVector.vector[i] / vectors.size();
     }
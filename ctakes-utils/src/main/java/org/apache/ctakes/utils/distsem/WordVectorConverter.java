@@ -0,0 +1,30 @@
+package org.apache.ctakes.utils.distsem;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+
+/**
+ * Converts word vectors in the text format to the binary float format that can be memory-mapped,
+ * optionally building an approximate nearest neighbour index for similar word queries.
+ */
+public class WordVectorConverter {
+
+  public static void main(String[] args) throws IOException{
+    if(args.length < 2){
+      System.err.println("Usage: WordVectorConverter <text vectors> <binary vectors> [-index]");
+      System.exit(1);
+    }
+    File binaryFile = new File(args[1]);
+    System.out.println("Converting " + args[0] + " ...");
+    int count = FloatEmbeddingStore.convert(new FileInputStream(args[0]), binaryFile);
+    System.out.println("Wrote " + count + " vectors to " + binaryFile.getPath());
+    if(args.length > 2 && args[2].equals("-index")){
+      System.out.println("Building index ...");
+      HnswIndex index = HnswIndex.build(FloatEmbeddingStore.map(binaryFile));
+      File indexFile = new File(args[1] + WordVectorReader.INDEX_EXTENSION);
+      index.write(indexFile);
+      System.out.println("Wrote index to " + indexFile.getPath());
+    }
+  }
+}
@@ -1,6 +1,8 @@
 package org.apache.ctakes.utils.distsem;
 
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -8,6 +10,9 @@ import java.io.InputStreamReader;
 import java.util.Scanner;
 
 public class WordVectorReader {
+  // approximate nearest neighbour index files are written next to the binary vectors
+  public static final String INDEX_EXTENSION = ".hnsw";
+
   private WordEmbeddings embeddings = null;
   private int dimensionality = 0;
   private int numWords = 0;
@@ -31,13 +36,43 @@ public class WordVectorReader {
     return this.embeddings;
   }
   
+  /**
+   * @param fn text vectors, or binary vectors written by {@link FloatEmbeddingStore#convert} which are memory-mapped.
+   *           A binary file's index, if one exists beside it, is also loaded.
+   */
   public static WordEmbeddings getEmbeddings(String fn) throws IOException{
+    File file = new File(fn);
+    if(FloatEmbeddingStore.isBinary(file)){
+      FloatEmbeddingStore store = FloatEmbeddingStore.map(file);
+      WordEmbeddings embeddings = new WordEmbeddings(store);
+      File indexFile = new File(fn + INDEX_EXTENSION);
+      if(indexFile.isFile()){
+        embeddings.setIndex(HnswIndex.read(indexFile, store));
+      }
+      return embeddings;
+    }
     WordVectorReader reader = new WordVectorReader(new FileInputStream(fn));
     return reader.getEmbeddings();
   }
   
+  /**
+   * @param in text vectors, or binary vectors which are read onto the heap as floats
+   */
   public static WordEmbeddings getEmbeddings(InputStream in) throws IOException {
-    WordVectorReader reader = new WordVectorReader(in);
+    BufferedInputStream buffered = new BufferedInputStream(in);
+    buffered.mark(4);
+    int magic = 0;
+    for(int i = 0; i < 4; i++){
+      int b = buffered.read();
+      magic = (magic << 8) | (b < 0 ? 0 : b);
+    }
+    buffered.reset();
+    if(magic == FloatEmbeddingStore.MAGIC){
+      try(InputStream binary = buffered){
+        return new WordEmbeddings(FloatEmbeddingStore.read(binary));
+      }
+    }
+    WordVectorReader reader = new WordVectorReader(buffered);
     return reader.getEmbeddings();
   }
 }
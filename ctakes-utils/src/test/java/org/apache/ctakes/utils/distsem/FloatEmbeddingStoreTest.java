@@ -0,0 +1,95 @@
+package org.apache.ctakes.utils.distsem;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class FloatEmbeddingStoreTest {
+
+  static final String TEXT_VECTORS = "4 3\n"
+      + "heart 1 0 0\n"
+      + "cardiac 0.8 0.6 0\n"
+      + "lung 0 0 2\n"
+      + "nothing 0 0 0\n";
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  static InputStream text(String vectors){
+    return new ByteArrayInputStream(vectors.getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void testMappedAndHeapStoresMatchText() throws IOException {
+    File binary = folder.newFile("vectors.bin");
+    assertEquals(4, FloatEmbeddingStore.convert(text(TEXT_VECTORS), binary));
+    assertTrue(FloatEmbeddingStore.isBinary(binary));
+    FloatEmbeddingStore mapped = FloatEmbeddingStore.map(binary);
+    FloatEmbeddingStore heap;
+    try(InputStream in = new FileInputStream(binary)){
+      heap = FloatEmbeddingStore.read(in);
+    }
+    WordEmbeddings textEmbeddings = WordVectorReader.getEmbeddings(text(TEXT_VECTORS));
+    for(FloatEmbeddingStore store : new FloatEmbeddingStore[]{ mapped, heap }){
+      assertEquals(4, store.size());
+      assertEquals(3, store.getDimensionality());
+      assertEquals(-1, store.indexOf("kidney"));
+      for(int row = 0; row < store.size(); row++){
+        String word = store.getWord(row);
+        assertEquals(row, store.indexOf(word));
+        WordVector expected = textEmbeddings.getVector(word);
+        double length = 0;
+        for(int i = 0; i < 3; i++){
+          assertEquals(expected.getValue(i), store.getValue(row, i), 1e-6);
+          length += expected.getValue(i) * expected.getValue(i);
+        }
+        assertEquals(Math.sqrt(length), store.getLength(row), 1e-6);
+      }
+      assertEquals(0.8, store.cosine(store.indexOf("heart"), store.indexOf("cardiac")), 1e-6);
+      assertEquals(0, store.cosine(store.indexOf("heart"), store.indexOf("lung")), 1e-6);
+    }
+  }
+
+  @Test
+  public void testZeroVectorHasNoSimilarity() throws IOException {
+    File binary = folder.newFile("vectors.bin");
+    FloatEmbeddingStore.convert(text(TEXT_VECTORS), binary);
+    FloatEmbeddingStore store = FloatEmbeddingStore.map(binary);
+    int zero = store.indexOf("nothing");
+    assertEquals(0, store.getLength(zero), 0);
+    assertEquals(0, store.cosine(zero, store.indexOf("heart")), 0);
+    assertEquals(0, store.cosine(zero, zero), 0);
+    assertEquals(0, store.cosine(store.indexOf("heart"), new float[3], 0), 0);
+    // a similar word search still ranks every other word
+    WordEmbeddings embeddings = new WordEmbeddings(store);
+    assertEquals(3, embeddings.getSimilarWords("nothing", 5).size());
+    embeddings.buildIndex();
+    assertEquals(3, embeddings.getSimilarWords("nothing", 5).size());
+  }
+
+  @Test
+  public void testUnknownWords() throws IOException {
+    File binary = folder.newFile("vectors.bin");
+    FloatEmbeddingStore.convert(text(TEXT_VECTORS), binary);
+    WordEmbeddings embeddings = WordVectorReader.getEmbeddings(binary.getPath());
+    assertFalse(embeddings.containsKey("kidney"));
+    assertNull(embeddings.getVector("kidney"));
+    assertTrue(embeddings.getSimilarWords("kidney", 3).isEmpty());
+    assertEquals(0, embeddings.getSimilarity("kidney", "heart"), 0);
+    assertEquals(0.8, embeddings.getSimilarity("cardiac", "heart"), 1e-6);
+  }
+
+  @Test(expected = IOException.class)
+  public void testWrongDimensionality() throws IOException {
+    FloatEmbeddingStore.convert(text("1 3\nheart 1 0\n"), folder.newFile("vectors.bin"));
+  }
+}
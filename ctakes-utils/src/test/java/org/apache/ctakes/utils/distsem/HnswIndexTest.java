@@ -0,0 +1,131 @@
+package org.apache.ctakes.utils.distsem;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class HnswIndexTest {
+
+  private static final int WORDS = 2000;
+  private static final int DIM = 16;
+  private static final int COUNT = 10;
+
+  @ClassRule
+  public static TemporaryFolder folder = new TemporaryFolder();
+
+  private static FloatEmbeddingStore store;
+
+  @BeforeClass
+  public static void createStore() throws IOException {
+    Random random = new Random(7);
+    StringBuilder text = new StringBuilder(WORDS + " " + DIM + "\n");
+    for(int w = 0; w < WORDS; w++){
+      text.append("word").append(w);
+      for(int i = 0; i < DIM; i++){
+        text.append(' ').append((float) random.nextGaussian());
+      }
+      text.append('\n');
+    }
+    File binary = folder.newFile("vectors.bin");
+    FloatEmbeddingStore.convert(new ByteArrayInputStream(text.toString().getBytes(StandardCharsets.UTF_8)), binary);
+    store = FloatEmbeddingStore.map(binary);
+  }
+
+  private static List<Integer> bruteForce(int row, int count){
+    List<Integer> rows = new ArrayList<>(store.size());
+    for(int other = 0; other < store.size(); other++){
+      if(other != row){
+        rows.add(other);
+      }
+    }
+    Collections.sort(rows, (r1, r2) -> Double.compare(store.cosine(row, r2), store.cosine(row, r1)));
+    return rows.subList(0, count);
+  }
+
+  private static double recall(HnswIndex index){
+    int hits = 0;
+    int total = 0;
+    for(int row = 0; row < store.size(); row += 10){
+      List<Integer> exact = bruteForce(row, COUNT);
+      List<Integer> approximate = index.searchRow(row, COUNT);
+      assertEquals(COUNT, approximate.size());
+      assertFalse(approximate.contains(row));
+      for(int found : approximate){
+        if(exact.contains(found)){
+          hits++;
+        }
+      }
+      total += COUNT;
+    }
+    return hits / (double) total;
+  }
+
+  @Test
+  public void testRecallAgainstBruteForce(){
+    HnswIndex index = HnswIndex.build(store);
+    assertTrue(recall(index) > 0.9);
+  }
+
+  @Test
+  public void testResultsAreOrdered(){
+    HnswIndex index = HnswIndex.build(store);
+    float[] vector = new float[DIM];
+    store.getVector(5, vector);
+    List<Integer> rows = index.search(vector, store.getLength(5), COUNT, 64);
+    assertEquals(Integer.valueOf(5), rows.get(0));
+    for(int i = 1; i < rows.size(); i++){
+      assertTrue(store.cosine(5, rows.get(i - 1)) >= store.cosine(5, rows.get(i)));
+    }
+  }
+
+  @Test
+  public void testWriteAndRead() throws IOException {
+    HnswIndex index = HnswIndex.build(store, 8, 50, 3);
+    File file = folder.newFile("vectors.hnsw");
+    index.write(file);
+    HnswIndex read = HnswIndex.read(file, store);
+    for(int row = 0; row < store.size(); row += 100){
+      assertEquals(index.searchRow(row, COUNT), read.searchRow(row, COUNT));
+    }
+  }
+
+  @Test
+  public void testConcurrentSearches() throws InterruptedException {
+    HnswIndex index = HnswIndex.build(store);
+    List<List<Integer>> expected = new ArrayList<>();
+    for(int row = 0; row < 40; row++){
+      expected.add(index.searchRow(row, COUNT));
+    }
+    List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+    List<Thread> threads = new ArrayList<>();
+    for(int t = 0; t < 4; t++){
+      Thread thread = new Thread(() -> {
+        try{
+          for(int row = 0; row < 40; row++){
+            assertEquals(expected.get(row), index.searchRow(row, COUNT));
+          }
+        }catch(Throwable e){
+          failures.add(e);
+        }
+      });
+      threads.add(thread);
+      thread.start();
+    }
+    for(Thread thread : threads){
+      thread.join();
+    }
+    assertTrue(failures.toString(), failures.isEmpty());
+  }
+}
@@ -0,0 +1,39 @@
+package org.apache.ctakes.utils.distsem;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class WordVectorConverterTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testConvertWithIndex() throws IOException {
+    File textFile = folder.newFile("vectors.txt");
+    try(OutputStream out = new FileOutputStream(textFile)){
+      out.write(FloatEmbeddingStoreTest.TEXT_VECTORS.getBytes(StandardCharsets.UTF_8));
+    }
+    File binaryFile = new File(folder.getRoot(), "vectors.bin");
+    WordVectorConverter.main(new String[]{ textFile.getPath(), binaryFile.getPath(), "-index" });
+    assertTrue(FloatEmbeddingStore.isBinary(binaryFile));
+    assertFalse(FloatEmbeddingStore.isBinary(textFile));
+    assertTrue(new File(binaryFile.getPath() + WordVectorReader.INDEX_EXTENSION).isFile());
+
+    // the reader maps the binary file and loads the index beside it
+    WordEmbeddings embeddings = WordVectorReader.getEmbeddings(binaryFile.getPath());
+    assertEquals(3, embeddings.getDimensionality());
+    assertEquals("cardiac", embeddings.getSimilarWords("heart", 1).get(0));
+    WordEmbeddings textEmbeddings = WordVectorReader.getEmbeddings(textFile.getPath());
+    assertEquals(textEmbeddings.getSimilarity("heart", "cardiac"), embeddings.getSimilarity("heart", "cardiac"), 1e-6);
+  }
+}
@@ -24,19 +24,17 @@ import java.io.InputStreamReader;
 import java.lang.reflect.InvocationTargetException;
 import java.nio.CharBuffer;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.apache.commons.beanutils.BeanUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.ctakes.core.fsm.machine.NegexTriggerTrie;
 import org.apache.ctakes.core.pipeline.PipeBitInfo;
 import org.apache.ctakes.typesystem.type.textsem.ContextAnnotation;
 import org.apache.ctakes.typesystem.type.textsem.IdentifiedAnnotation;
@@ -83,6 +81,12 @@ import org.apache.uima.resource.ResourceInitializationException;
  * Added support for negating arbitrary annotations. Set the targetTypeName to
  * an annotation type. Will see if it is negated; if so will set the negated and
  * possible boolean values on the annotation.
+ * <p/>
+ * The triggers are compiled into a {@link NegexTriggerTrie}. Each sentence is
+ * scanned once for all triggers, and the trigger that sets the negation status
+ * of each annotation is resolved from those matches. The results are the same
+ * as matching the negex regular expressions of every rule against the
+ * sentence once per annotation.
  * 
  * @author vijay
  * 
@@ -95,6 +99,10 @@ import org.apache.uima.resource.ResourceInitializationException;
 public class NegexAnnotator extends JCasAnnotator_ImplBase {
 	private static final Log log = LogFactory.getLog(NegexAnnotator.class);
 	private List<NegexRule> listNegexRules = null;
+	/**
+	 * the triggers of listNegexRules, in the same order
+	 */
+	private NegexTriggerTrie negexTriggers = null;
 	private boolean negatePossibilities = true;
 	private boolean checkPossibilities = true;
 	private boolean storeAsInterval = false;
@@ -170,6 +178,8 @@ public class NegexAnnotator extends JCasAnnotator_ImplBase {
 		List<String> listRules = this.initalizeRuleList();
 		List<NegexRule> listNegexRules = new ArrayList<NegexRule>(
 				listRules.size());
+		List<String> triggers = new ArrayList<String>(listRules.size());
+		List<String> tags = new ArrayList<String>(listRules.size());
 		Iterator<String> iRule = listRules.iterator();
 		while (iRule.hasNext()) {
 			String rule = iRule.next();
@@ -201,6 +211,8 @@ public class NegexAnnotator extends JCasAnnotator_ImplBase {
 				Pattern p2 = Pattern.compile(rule3.trim());
 				listNegexRules.add(new NegexRule(p2, rule2, ruleTokens[1]
 						.trim()));
+				triggers.add(ruleTokens[0].trim());
+				tags.add(ruleTokens[1].trim());
 			} else {
 				log.warn("could not parse rule:" + rule);
 			}
@@ -212,6 +224,7 @@ public class NegexAnnotator extends JCasAnnotator_ImplBase {
 			// + ruleTokens[1].trim() + " ");
 			// }
 		}
+		this.negexTriggers = new NegexTriggerTrie(triggers, tags);
 		return listNegexRules;
 
 	}
@@ -265,11 +278,17 @@ public class NegexAnnotator extends JCasAnnotator_ImplBase {
 		FSIterator sentenceIter = sentenceIdx.iterator();
 		while (sentenceIter.hasNext()) {
 			Sentence s = (Sentence) sentenceIter.next();
+			// triggers are matched once per sentence, when the sentence has
+			// an annotation to check
+			NegexTriggerTrie.Sentence negexSentence = null;
 			FSIterator neIter = targetIdx.subiterator(s);
 			while (neIter.hasNext()) {
 				Annotation ne = (Annotation) neIter.next();
-				if (filter == null || filter.filter(ne))
-					checkNegation(aJCas, s, ne);
+				if (filter == null || filter.filter(ne)) {
+					if (negexSentence == null)
+						negexSentence = negexTriggers.match(s.getCoveredText());
+					checkNegation(aJCas, s, negexSentence, ne);
+				}
 				// checkNegation2(aJCas, s, ne);
 			}
 		}
@@ -429,32 +448,6 @@ public class NegexAnnotator extends JCasAnnotator_ImplBase {
 
 	}
 
-	private NegexToken findTokenByTag(String tag, String stopTags[],
-			boolean before, int neRelStart, int neRelEnd, NegexToken tokens[]) {
-		Set<String> stopTagSet = new HashSet<String>(stopTags.length);
-		stopTagSet.addAll(Arrays.asList(stopTags));
-		if (before) {
-			for (int i = neRelStart - 1; i > 0; i--) {
-				if (tokens[i] != null) {
-					if (tokens[i].getTag().equals(tag)) {
-						return tokens[i];
-					} else if (stopTagSet.contains(tokens[i].getTag()))
-						break;
-				}
-			}
-		} else {
-			for (int i = neRelEnd; i < tokens.length; i++) {
-				if (tokens[i] != null) {
-					if (tokens[i].getTag().equals(tag)) {
-						return tokens[i];
-					} else if (stopTagSet.contains(tokens[i].getTag()))
-						break;
-				}
-			}
-		}
-		return null;
-	}
-
 	/**
 	 * check the negation status of the specfied term in the specified sentence
 	 * 
@@ -462,86 +455,36 @@ public class NegexAnnotator extends JCasAnnotator_ImplBase {
 	 *            for adding annotations
 	 * @param s
 	 *            the sentence in which we will look
+	 * @param negexSentence
+	 *            the negex triggers matched in the sentence
 	 * @param ne
 	 *            the named entity whose negation status will be checked.
-	 * @param checkPoss
-	 *            should possibility be checked?
-	 * @param negPoss
-	 *            should possiblities be negated?
 	 */
-	private void checkNegation(JCas aJCas, Sentence s, Annotation ne) {
+	private void checkNegation(JCas aJCas, Sentence s,
+			NegexTriggerTrie.Sentence negexSentence, Annotation ne) {
 		if (storeAsInterval && ne instanceof IdentifiedAnnotation) {
 			// default is affirmed, which is coded as confidence = 1
 			((IdentifiedAnnotation) ne).setConfidence(1);
 		}
-		// need to add . on either side due to the way the regexs are built
-		String sentence = "." + s.getCoveredText() + ".";
-		// allocate array of tokens
-		// this maps each character of the sentence to a token
-		NegexToken[] tokens = new NegexToken[sentence.length()];
-		// char buffer for modify the sentence
-		// we want to 'black out' trigger words already found and the phrase we
-		// were looking for
-		CharBuffer buf = CharBuffer.wrap(sentence.toCharArray());
-		// calculate location of the ne relative to the sentence
-		int neRelStart = ne.getBegin() - s.getBegin() + 1;
-		int neRelEnd = ne.getEnd() - s.getBegin() + 1;
-		// black out the ne in the sentence buffer
-		for (int i = neRelStart; i < neRelEnd; i++) {
-			// black out the named entity from the char buffer
-			buf.put(i, '_');
-		}
-		// look for negex rules in the sentence
-		for (NegexRule rule : this.listNegexRules) {
-			Matcher m = rule.getPattern().matcher(buf);
-			while (m.find() == true) {
-				// see if the range has not already been marked
-				boolean bUnoccupied = true;
-				for (int i = m.start(); i < m.end() && bUnoccupied; i++)
-					bUnoccupied = tokens[i] == null;
-				if (bUnoccupied) {
-					// mark the range in the sentence with this token
-					// black it out so other rules do not match
-					NegexToken t = new NegexToken(m.start(), m.end(), rule);
-					for (int i = m.start(); i < m.end() && bUnoccupied; i++) {
-						// black out this range from the char buffer
-						buf.put(i, '_');
-						// add the token to the array
-						tokens[i] = t;
-					}
-				}
-			}
-		}
-		// prenegation
-		// look for a PREN rule before the ne, without any intervening stop tags
-		NegexToken t = this.findTokenByTag("[PREN]", new String[] { "[CONJ]",
-				"[PSEU]", "[POST]", "[PREP]", "[POSP]" }, true, neRelStart,
-				neRelEnd, tokens);
-		if (t != null) {
-			// hit - negate the ne
-			annotateNegation(aJCas, s, ne, t, true, false);
-		} else {
-			// look for POST rule after the ne, without any intervening stop
-			// tags
-			t = this.findTokenByTag("[POST]", new String[] { "[CONJ]",
-					"[PSEU]", "[PREN]", "[PREP]", "[POSP]" }, false,
-					neRelStart, neRelEnd, tokens);
-			if (t != null) {
+		// look for a PREN rule before the ne, then a POST rule after the ne,
+		// then PREP and POSP, without any intervening stop tags
+		NegexTriggerTrie.Trigger trigger = negexSentence.getScopeTrigger(
+				ne.getBegin() - s.getBegin(), ne.getEnd() - s.getBegin(),
+				this.checkPossibilities || this.negatePossibilities);
+		if (trigger != null) {
+			// token offsets are relative to the sentence with a . on either
+			// side, as with the negex regular expressions
+			NegexToken t = new NegexToken(trigger.getMatchBegin() + 1,
+					trigger.getMatchEnd() + 1, this.listNegexRules.get(trigger
+							.getIndex()));
+			String tag = trigger.getTag();
+			if (NegexTriggerTrie.PRE_NEGATION.equals(tag)
+					|| NegexTriggerTrie.POST_NEGATION.equals(tag)) {
 				annotateNegation(aJCas, s, ne, t, true, false);
-			} else if (this.checkPossibilities || this.negatePossibilities) {
-				// check possibles
-				t = this.findTokenByTag("[PREP]", new String[] { "[CONJ]",
-						"[PSEU]", "[PREN]", "[POST]", "[POSP]" }, true,
-						neRelStart, neRelEnd, tokens);
-				if (t != null) {
-					annotateNegation(aJCas, s, ne, t, false, true);
-				} else {
-					t = this.findTokenByTag("[POSP]", new String[] { "[CONJ]",
-							"[PSEU]", "[PREN]", "[POST]", "[PREP]" }, false,
-							neRelStart, neRelEnd, tokens);
-					if (t != null)
-						annotateNegation(aJCas, s, ne, t, true, true);
-				}
+			} else if (NegexTriggerTrie.PRE_POSSIBLE.equals(tag)) {
+				annotateNegation(aJCas, s, ne, t, false, true);
+			} else {
+				annotateNegation(aJCas, s, ne, t, true, true);
 			}
 		}
 	}
@@ -25,14 +25,13 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Properties;
 import java.util.Set;
-import java.util.SortedMap;
-import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import javax.sql.DataSource;
 
@@ -47,6 +46,7 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.ctakes.ytex.kernel.dao.ClassifierEvaluationDao;
 import org.apache.ctakes.ytex.kernel.dao.ConceptDao;
+import org.apache.ctakes.ytex.kernel.model.CompactConceptGraph;
 import org.apache.ctakes.ytex.kernel.model.ConcRel;
 import org.apache.ctakes.ytex.kernel.model.ConceptGraph;
 import org.apache.ctakes.ytex.kernel.model.CrossValidationFold;
@@ -76,6 +76,11 @@ import weka.core.ContingencyTables;
  * mutual info of the parent.
  * </ul>
  * <p>
+ * The instances are numbered by their position in the sorted instance ids of
+ * the label, and sets of instances are {@link InstanceBitmap}s. The cells of
+ * the joint distribution tables are bitmaps, and the counts are their
+ * cardinalities.
+ * <p>
  * The mutual information of each concept is stored in the feature_rank table.
  * The related records in the feature_eval table have the following values:
  * <ul>
@@ -100,8 +105,9 @@ import weka.core.ContingencyTables;
  * raw joint distribution of each concept
  * <li>
  * {@link #propagateJointDistribution(Map, Parameters, String, int, ConceptGraph, Map)}
- * recursively compute parent joint distribution by merging joint distro of
- * children.
+ * compute parent joint distribution by merging joint distro of children. The
+ * concepts are merged level by level, starting with the leaves; the concepts
+ * of a level are merged in parallel.
  * <li>{@link #storeChildConcepts(Parameters, String, int, ConceptGraph)} take
  * top ranked parent concepts, assign concepts in subtrees the mutual info of
  * parents. Only concepts that exist in the corpus are added (depends on
@@ -115,39 +121,46 @@ import weka.core.ContingencyTables;
 public class ImputedFeatureEvaluatorImpl implements ImputedFeatureEvaluator {
 
 	/**
-	 * fill in map of Concept Id - bin - instance ids
+	 * fill in map of Concept Id - bin - instance indices
 	 * 
 	 * @author vijay
 	 * 
 	 */
 	public class ConceptInstanceMapExtractor implements RowCallbackHandler {
 		ConceptGraph cg;
-		Map<String, Map<String, Set<Long>>> conceptInstanceMap;
+		Map<String, Map<String, InstanceBitmap>> conceptInstanceMap;
+		long instanceIds[];
 
 		ConceptInstanceMapExtractor(
-				Map<String, Map<String, Set<Long>>> conceptInstanceMap,
-				ConceptGraph cg) {
+				Map<String, Map<String, InstanceBitmap>> conceptInstanceMap,
+				long instanceIds[], ConceptGraph cg) {
 			this.cg = cg;
 			this.conceptInstanceMap = conceptInstanceMap;
+			this.instanceIds = instanceIds;
 		}
 
 		public void processRow(ResultSet rs) throws SQLException {
 			String conceptId = rs.getString(1);
 			long instanceId = rs.getLong(2);
 			String x = rs.getString(3);
-			Map<String, Set<Long>> binInstanceMap = conceptInstanceMap
+			int instanceIndex = Arrays.binarySearch(instanceIds, instanceId);
+			if (instanceIndex < 0) {
+				// instance without a label - not in any fold
+				return;
+			}
+			Map<String, InstanceBitmap> binInstanceMap = conceptInstanceMap
 					.get(conceptId);
 			if (binInstanceMap == null) {
 				// use the conceptId from the concept to save memory
-				binInstanceMap = new HashMap<String, Set<Long>>(2);
+				binInstanceMap = new HashMap<String, InstanceBitmap>(2);
 				conceptInstanceMap.put(conceptId, binInstanceMap);
 			}
-			Set<Long> instanceIds = binInstanceMap.get(x);
-			if (instanceIds == null) {
-				instanceIds = new HashSet<Long>();
-				binInstanceMap.put(x, instanceIds);
+			InstanceBitmap instances = binInstanceMap.get(x);
+			if (instances == null) {
+				instances = new InstanceBitmap();
+				binInstanceMap.put(x, instances);
 			}
-			instanceIds.add(instanceId);
+			instances.add(instanceIndex);
 		}
 	}
 
@@ -169,8 +182,8 @@ public class ImputedFeatureEvaluatorImpl implements ImputedFeatureEvaluator {
 		 * @param jointDistros
 		 *            list of joint distribution tables to merge
 		 * @param yMargin
-		 *            map of y val - instance id. this could be calculated on
-		 *            the fly, but we have this information already.
+		 *            map of y val - instances. this could be calculated on the
+		 *            fly, but we have this information already.
 		 * @param xMerge
 		 *            the x val that contains everything that doesn't land in
 		 *            any of the other bins.
@@ -178,38 +191,34 @@ public class ImputedFeatureEvaluatorImpl implements ImputedFeatureEvaluator {
 		 */
 		public static JointDistribution merge(
 				List<JointDistribution> jointDistros,
-				Map<String, Set<Long>> yMargin, String xMerge) {
-			Set<String> xVals = jointDistros.get(0).xVals;
-			Set<String> yVals = jointDistros.get(0).yVals;
-			JointDistribution mergedDistro = new JointDistribution(xVals, yVals);
-			for (String y : yVals) {
-				// intersect all bins besides the merge bin
-				Set<Long> xMergedInst = mergedDistro.getInstances(xMerge, y);
+				Map<String, InstanceBitmap> yMargin, String xMerge) {
+			JointDistribution first = jointDistros.get(0);
+			JointDistribution mergedDistro = new JointDistribution(first);
+			int xMergeIndex = mergedDistro.getXIndex(xMerge);
+			for (int y = 0; y < mergedDistro.yValues.length; y++) {
 				// everything comes into the merge bin
 				// we take out things that land in other bins
-				xMergedInst.addAll(yMargin.get(y));
+				InstanceBitmap xMergedInst = yMargin
+						.get(mergedDistro.yValues[y]);
+				if (xMergedInst == null)
+					xMergedInst = InstanceBitmap.EMPTY;
 				// iterate over other bins
-				for (String x : xVals) {
-					if (!x.equals(xMerge)) {
-						Set<Long> intersectIds = mergedDistro
-								.getInstances(x, y);
-						boolean bFirstIter = true;
-						// iterate over all joint distribution tables
-						for (JointDistribution distro : jointDistros) {
-							if (bFirstIter) {
-								// 1st iter - add all
-								intersectIds.addAll(distro.getInstances(x, y));
-								bFirstIter = false;
-							} else {
-								// subsequent iteration - intersect
-								intersectIds.retainAll(distro
-										.getInstances(x, y));
-							}
+				for (int x = 0; x < mergedDistro.xValues.length; x++) {
+					if (x != xMergeIndex) {
+						// intersect the bin of all joint distribution tables
+						InstanceBitmap intersectIds = first.jointDistroTable[y][x];
+						for (int i = 1; i < jointDistros.size()
+								&& !intersectIds.isEmpty(); i++) {
+							intersectIds = InstanceBitmap.and(intersectIds,
+									jointDistros.get(i).jointDistroTable[y][x]);
 						}
+						mergedDistro.jointDistroTable[y][x] = intersectIds;
 						// remove from the merge bin
-						xMergedInst.removeAll(intersectIds);
+						xMergedInst = InstanceBitmap.andNot(xMergedInst,
+								intersectIds);
 					}
 				}
+				mergedDistro.jointDistroTable[y][xMergeIndex] = xMergedInst;
 			}
 			return mergedDistro;
 		}
@@ -224,10 +233,13 @@ public class ImputedFeatureEvaluatorImpl implements ImputedFeatureEvaluator {
 		 */
 		protected Double entropyXY = null;
 		/**
-		 * A y*x table where the cells hold the instance ids. We use the
-		 * instance ids instead of counts so we can merge the tables.
+		 * A y*x table where the cells hold the instances. We use the instances
+		 * instead of counts so we can merge the tables. Rows and columns are in
+		 * the order of {@link #yValues} and {@link #xValues}. The cells are
+		 * not modified once the table is complete, and may be shared by
+		 * tables.
 		 */
-		protected SortedMap<String, SortedMap<String, Set<Long>>> jointDistroTable;
+		protected InstanceBitmap[][] jointDistroTable;
 		/**
 		 * the possible values of X (e.g. concept)
 		 */
@@ -238,6 +250,16 @@ public class ImputedFeatureEvaluatorImpl implements ImputedFeatureEvaluator {
 		 */
 		protected Set<String> yVals;
 
+		/**
+		 * the values of x, sorted
+		 */
+		private String[] xValues;
+
+		/**
+		 * the values of y, sorted
+		 */
+		private String[] yValues;
+
 		/**
 		 * set up the joint distribution table.
 		 * 
@@ -249,153 +271,96 @@ public class ImputedFeatureEvaluatorImpl implements ImputedFeatureEvaluator {
 		public JointDistribution(Set<String> xVals, Set<String> yVals) {
 			this.xVals = xVals;
 			this.yVals = yVals;
-			jointDistroTable = new TreeMap<String, SortedMap<String, Set<Long>>>();
-			for (String yVal : yVals) {
-				SortedMap<String, Set<Long>> yMap = new TreeMap<String, Set<Long>>();
-				jointDistroTable.put(yVal, yMap);
-				for (String xVal : xVals) {
-					yMap.put(xVal, new HashSet<Long>());
-				}
-			}
+			this.xValues = new TreeSet<String>(xVals).toArray(new String[xVals
+					.size()]);
+			this.yValues = new TreeSet<String>(yVals).toArray(new String[yVals
+					.size()]);
+			initTable();
 		}
 
 		public JointDistribution(Set<String> xVals, Set<String> yVals,
-				Map<String, Set<Long>> xMargin, Map<String, Set<Long>> yMargin,
-				String xLeftover) {
-			this.xVals = xVals;
-			this.yVals = yVals;
-			jointDistroTable = new TreeMap<String, SortedMap<String, Set<Long>>>();
-			for (String yVal : yVals) {
-				SortedMap<String, Set<Long>> yMap = new TreeMap<String, Set<Long>>();
-				jointDistroTable.put(yVal, yMap);
-				for (String xVal : xVals) {
-					yMap.put(xVal, new HashSet<Long>());
-				}
-			}
-			for (Map.Entry<String, Set<Long>> yEntry : yMargin.entrySet()) {
+				Map<String, InstanceBitmap> xMargin,
+				Map<String, InstanceBitmap> yMargin, String xLeftover) {
+			this(xVals, yVals);
+			int xLeftoverIndex = getXIndex(xLeftover);
+			for (Map.Entry<String, InstanceBitmap> yEntry : yMargin.entrySet()) {
 				// iterate over 'rows' i.e. the class names
-				String yName = yEntry.getKey();
-				Set<Long> yInst = new HashSet<Long>(yEntry.getValue());
+				int y = getYIndex(yEntry.getKey());
+				InstanceBitmap yInst = yEntry.getValue();
 				// iterate over 'columns' i.e. the values of x
-				for (Map.Entry<String, Set<Long>> xEntry : xMargin.entrySet()) {
-					// copy the instances
-					Set<Long> foldXInst = jointDistroTable.get(yName).get(
-							xEntry.getKey());
-					foldXInst.addAll(xEntry.getValue());
-					// keep only the ones that are in this fold
-					foldXInst.retainAll(yInst);
+				for (Map.Entry<String, InstanceBitmap> xEntry : xMargin
+						.entrySet()) {
+					// keep only the instances that are in this fold
+					InstanceBitmap foldXInst = InstanceBitmap.and(
+							xEntry.getValue(), yInst);
+					jointDistroTable[y][getXIndex(xEntry.getKey())] = foldXInst;
 					// remove the instances for this value of x from the set of
 					// all instances
-					yInst.removeAll(foldXInst);
+					yInst = InstanceBitmap.andNot(yInst, foldXInst);
 				}
-				if (yInst.size() > 0) {
+				if (!yInst.isEmpty()) {
 					// add the leftovers to the leftover bin
-					jointDistroTable.get(yEntry.getKey()).get(xLeftover)
-							.addAll(yInst);
+					jointDistroTable[y][xLeftoverIndex] = InstanceBitmap.or(
+							jointDistroTable[y][xLeftoverIndex], yInst);
 				}
 			}
+		}
 
+		/**
+		 * empty table with the same bins as the template
+		 */
+		private JointDistribution(JointDistribution template) {
+			this.xVals = template.xVals;
+			this.yVals = template.yVals;
+			this.xValues = template.xValues;
+			this.yValues = template.yValues;
+			initTable();
 		}
 
-		// /**
-		// * add an instance to the joint probability table
-		// *
-		// * @param x
-		// * @param y
-		// * @param instanceId
-		// */
-		// public void addInstance(String x, String y, int instanceId) {
-		// // add the current row to the bin matrix
-		// SortedMap<String, Set<Integer>> xMap = jointDistroTable.get(y);
-		// if (xMap == null) {
-		// xMap = new TreeMap<String, Set<Integer>>();
-		// jointDistroTable.put(y, xMap);
-		// }
-		// Set<Integer> instanceSet = xMap.get(x);
-		// if (instanceSet == null) {
-		// instanceSet = new HashSet<Integer>();
-		// xMap.put(x, instanceSet);
-		// }
-		// instanceSet.add(instanceId);
-		// }
-
-		// /**
-		// * finalize the joint probability table wrt the specified instances.
-		// If
-		// * we are doing this per fold, then not all instances are going to be
-		// in
-		// * each fold. Limit to the instances in the specified fold.
-		// * <p>
-		// * Also, we might not have filled in all the cells. if necessary, put
-		// * instances in the 'leftover' cell, fill it in based on the marginal
-		// * distribution of the instances wrt classes.
-		// *
-		// * @param yMargin
-		// * map of values of y to the instances with that value
-		// * @param xLeftover
-		// * the value of x to assign the the leftover instances
-		// */
-		// public JointDistribution complete(Map<String, Set<Integer>> xMargin,
-		// Map<String, Set<Integer>> yMargin, String xLeftover) {
-		// JointDistribution foldDistro = new JointDistribution(this.xVals,
-		// this.yVals);
-		// for (Map.Entry<String, Set<Integer>> yEntry : yMargin.entrySet()) {
-		// // iterate over 'rows' i.e. the class names
-		// String yName = yEntry.getKey();
-		// Set<Integer> yInst = new HashSet<Integer>(yEntry.getValue());
-		// // iterate over 'columns' i.e. the values of x
-		// for (Map.Entry<String, Set<Integer>> xEntry : this.jointDistroTable
-		// .get(yName).entrySet()) {
-		// // copy the instances
-		// Set<Integer> foldXInst = foldDistro.jointDistroTable.get(
-		// yName).get(xEntry.getKey());
-		// foldXInst.addAll(xEntry.getValue());
-		// // keep only the ones that are in this fold
-		// foldXInst.retainAll(yInst);
-		// // remove the instances for this value of x from the set of
-		// // all instances
-		// yInst.removeAll(foldXInst);
-		// }
-		// if (yInst.size() > 0) {
-		// // add the leftovers to the leftover bin
-		// foldDistro.jointDistroTable.get(yEntry.getKey())
-		// .get(xLeftover).addAll(yInst);
-		// }
-		// }
-		// return foldDistro;
-		// }
+		private void initTable() {
+			jointDistroTable = new InstanceBitmap[yValues.length][xValues.length];
+			for (InstanceBitmap[] row : jointDistroTable)
+				Arrays.fill(row, InstanceBitmap.EMPTY);
+		}
 
+		private int getXIndex(String x) {
+			int i = Arrays.binarySearch(xValues, x);
+			if (i < 0)
+				throw new IllegalArgumentException("unknown x value: " + x);
+			return i;
+		}
+
+		private int getYIndex(String y) {
+			int i = Arrays.binarySearch(yValues, y);
+			if (i < 0)
+				throw new IllegalArgumentException("unknown y value: " + y);
+			return i;
+		}
+
+		/**
+		 * @return the number of instances in each cell, y*x
+		 */
 		public double[][] getContingencyTable() {
 			if (contingencyTable == null) {
-				contingencyTable = new double[this.yVals.size()][this.xVals
-						.size()];
-				int i = 0;
-				for (String yVal : yVals) {
-					int j = 0;
-					for (String xVal : xVals) {
-						contingencyTable[i][j] = jointDistroTable.get(yVal)
-								.get(xVal).size();
-						j++;
+				contingencyTable = new double[yValues.length][xValues.length];
+				for (int i = 0; i < yValues.length; i++) {
+					for (int j = 0; j < xValues.length; j++) {
+						contingencyTable[i][j] = jointDistroTable[i][j]
+								.getCardinality();
 					}
-					i++;
 				}
 			}
 			return contingencyTable;
 		}
 
 		public double getEntropyX() {
-			double probs[] = new double[xVals.size()];
-			Arrays.fill(probs, 0d);
 			if (entropyX == null) {
+				double probs[] = new double[xValues.length];
 				double nTotal = 0;
-				for (Map<String, Set<Long>> xInstance : this.jointDistroTable
-						.values()) {
-					int i = 0;
-					for (Set<Long> instances : xInstance.values()) {
-						double nCell = (double) instances.size();
-						nTotal += nCell;
-						probs[i] += nCell;
-						i++;
+				for (double[] row : getContingencyTable()) {
+					for (int i = 0; i < row.length; i++) {
+						nTotal += row[i];
+						probs[i] += row[i];
 					}
 				}
 				for (int i = 0; i < probs.length; i++)
@@ -406,17 +371,14 @@ public class ImputedFeatureEvaluatorImpl implements ImputedFeatureEvaluator {
 		}
 
 		public double getEntropyXY() {
-			double probs[] = new double[xVals.size() * yVals.size()];
-			Arrays.fill(probs, 0d);
 			if (entropyXY == null) {
+				double probs[] = new double[xValues.length * yValues.length];
 				double nTotal = 0;
 				int i = 0;
-				for (Map<String, Set<Long>> xInstance : this.jointDistroTable
-						.values()) {
-					for (Set<Long> instances : xInstance.values()) {
-						probs[i] = (double) instances.size();
-						nTotal += probs[i];
-						i++;
+				for (double[] row : getContingencyTable()) {
+					for (double nCell : row) {
+						probs[i++] = nCell;
+						nTotal += nCell;
 					}
 				}
 				for (int j = 0; j < probs.length; j++)
@@ -432,8 +394,12 @@ public class ImputedFeatureEvaluatorImpl implements ImputedFeatureEvaluator {
 							.entropyConditionedOnRows(getContingencyTable());
 		}
 
-		public Set<Long> getInstances(String x, String y) {
-			return jointDistroTable.get(y).get(x);
+		/**
+		 * @return the instances of the cell. The set may be shared with
+		 *         merged tables, do not modify it.
+		 */
+		public InstanceBitmap getInstances(String x, String y) {
+			return jointDistroTable[getYIndex(y)][getXIndex(x)];
 		}
 
 		public double getMutualInformation(double entropyY) {
@@ -447,21 +413,14 @@ public class ImputedFeatureEvaluatorImpl implements ImputedFeatureEvaluator {
 			StringBuilder b = new StringBuilder();
 			b.append(this.getClass().getCanonicalName());
 			b.append(" [jointDistro=(");
-			Iterator<Entry<String, SortedMap<String, Set<Long>>>> yIter = this.jointDistroTable
-					.entrySet().iterator();
-			while (yIter.hasNext()) {
-				Entry<String, SortedMap<String, Set<Long>>> yEntry = yIter
-						.next();
-				Iterator<Entry<String, Set<Long>>> xIter = yEntry.getValue()
-						.entrySet().iterator();
-				while (xIter.hasNext()) {
-					Entry<String, Set<Long>> xEntry = xIter.next();
-					b.append(xEntry.getValue().size());
-					if (xIter.hasNext())
+			for (int y = 0; y < yValues.length; y++) {
+				if (y > 0)
+					b.append("| ");
+				for (int x = 0; x < xValues.length; x++) {
+					if (x > 0)
 						b.append(", ");
+					b.append(jointDistroTable[y][x].getCardinality());
 				}
-				if (yIter.hasNext())
-					b.append("| ");
 			}
 			b.append(")]");
 			return b.toString();
@@ -628,6 +587,11 @@ public class ImputedFeatureEvaluatorImpl implements ImputedFeatureEvaluator {
 	private static final Log log = LogFactory
 			.getLog(ImputedFeatureEvaluatorImpl.class);
 
+	/**
+	 * levels with more concepts than this are merged in parallel
+	 */
+	private static final int MERGE_BATCH_SIZE = 64;
+
 	protected static double entropy(double[] classProbs) {
 		double entropy = 0;
 		double log2 = Math.log(2);
@@ -715,86 +679,161 @@ public class ImputedFeatureEvaluatorImpl implements ImputedFeatureEvaluator {
 		}
 	}
 
-	private JointDistribution calcMergedJointDistribution(
-			Map<String, JointDistribution> conceptJointDistroMap,
-			Map<String, Integer> conceptDistMap, ConcRel cr,
-			Map<String, JointDistribution> rawJointDistroMap,
-			Map<String, Set<Long>> yMargin, String xMerge, double minInfo,
-			List<String> path) {
-		if (conceptJointDistroMap.containsKey(cr.getConceptID())) {
-			return conceptJointDistroMap.get(cr.getConceptID());
-		} else {
-			List<JointDistribution> distroList = new ArrayList<JointDistribution>(
-					cr.getChildren().size() + 1);
-			int distance = -1;
-			// if this concept is in the raw joint distro map, add it to the
-			// list of joint distributions to merge
-			if (rawJointDistroMap.containsKey(cr.getConceptID())) {
-				JointDistribution rawJointDistro = rawJointDistroMap.get(cr
-						.getConceptID());
-				distroList.add(rawJointDistro);
-				distance = 0;
-			}
-			// get the joint distributions of children
-			for (ConcRel crc : cr.getChildren()) {
-				List<String> pathChild = new ArrayList<String>(path.size() + 1);
-				pathChild.addAll(path);
-				pathChild.add(crc.getConceptID());
-				// recurse - get joint distribution of children
-				JointDistribution jdChild = calcMergedJointDistribution(
-						conceptJointDistroMap, conceptDistMap, crc,
-						rawJointDistroMap, yMargin, xMerge, minInfo, pathChild);
-				if (jdChild != null) {
-					distroList.add(jdChild);
-					if (distance != 0) {
-						// look at children's distance from raw data, add 1
-						int distChild = conceptDistMap.get(crc.getConceptID());
-						if (distance == -1 || (distChild + 1) < distance) {
-							distance = distChild + 1;
-						}
-					}
+	/**
+	 * group the concepts reachable from the root by height, i.e. the length
+	 * of the longest path to a leaf. All children of a concept are in lower
+	 * levels, so the concepts of a level can be merged independently once the
+	 * lower levels are done.
+	 * 
+	 * @return node indices of each level, leaves first
+	 */
+	private List<int[]> getLevels(CompactConceptGraph ccg) {
+		List<int[]> levels = new ArrayList<int[]>();
+		int root = ccg.getRootIndex();
+		if (root < 0)
+			return levels;
+		// -1 = not visited, -2 = on the stack
+		int height[] = new int[ccg.size()];
+		Arrays.fill(height, -1);
+		int childPos[] = new int[ccg.size()];
+		int stack[] = new int[ccg.size()];
+		int top = 0;
+		int maxHeight = 0;
+		stack[top++] = root;
+		height[root] = -2;
+		// iterative post order traversal, the graph may be deep
+		while (top > 0) {
+			int node = stack[top - 1];
+			if (childPos[node] < ccg.getChildCount(node)) {
+				int child = ccg.getChild(node, childPos[node]++);
+				if (height[child] == -1) {
+					height[child] = -2;
+					stack[top++] = child;
 				}
+			} else {
+				int h = 0;
+				for (int i = 0; i < ccg.getChildCount(node); i++) {
+					h = Math.max(h, height[ccg.getChild(node, i)] + 1);
+				}
+				height[node] = h;
+				maxHeight = Math.max(maxHeight, h);
+				top--;
 			}
-			// merge the joint distributions
-			JointDistribution mergedDistro;
-			if (distroList.size() > 0) {
-				if (distroList.size() == 1) {
-					// only one joint distro - trivial merge
-					mergedDistro = distroList.get(0);
-				} else {
-					// multiple joint distros - merge them into a new one
-					mergedDistro = JointDistribution.merge(distroList, yMargin,
-							xMerge);
+		}
+		int levelSize[] = new int[maxHeight + 1];
+		for (int node = 0; node < height.length; node++) {
+			if (height[node] >= 0)
+				levelSize[height[node]]++;
+		}
+		for (int h = 0; h <= maxHeight; h++)
+			levels.add(new int[levelSize[h]]);
+		Arrays.fill(levelSize, 0);
+		for (int node = 0; node < height.length; node++) {
+			if (height[node] >= 0)
+				levels.get(height[node])[levelSize[height[node]]++] = node;
+		}
+		return levels;
+	}
+
+	/**
+	 * merge the raw joint distribution of a concept with the merged joint
+	 * distributions of its children
+	 * 
+	 * @return merged distribution, null if neither the concept nor its
+	 *         descendants have a joint distribution
+	 */
+	private static JointDistribution mergeJointDistribution(
+			CompactConceptGraph ccg, int node,
+			JointDistribution rawJointDistros[],
+			JointDistribution mergedJointDistros[],
+			Map<String, InstanceBitmap> yMargin, String xMerge) {
+		List<JointDistribution> distroList = new ArrayList<JointDistribution>(
+				ccg.getChildCount(node) + 1);
+		// if this concept has a raw joint distro, add it to the list of joint
+		// distributions to merge
+		if (rawJointDistros[node] != null)
+			distroList.add(rawJointDistros[node]);
+		// get the joint distributions of children
+		for (int i = 0; i < ccg.getChildCount(node); i++) {
+			JointDistribution jdChild = mergedJointDistros[ccg.getChild(node,
+					i)];
+			if (jdChild != null)
+				distroList.add(jdChild);
+		}
+		if (distroList.isEmpty()) {
+			// no joint distros to merge - null
+			return null;
+		} else if (distroList.size() == 1) {
+			// only one joint distro - trivial merge
+			return distroList.get(0);
+		} else {
+			// multiple joint distros - merge them into a new one
+			return JointDistribution.merge(distroList, yMargin, xMerge);
+		}
+	}
+
+	/**
+	 * merge the joint distributions of a range of concepts of a level, split
+	 * the range until it is small enough.
+	 */
+	private static class MergeTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final CompactConceptGraph ccg;
+		private final int[] level;
+		private final JointDistribution[] rawJointDistros;
+		private final JointDistribution[] mergedJointDistros;
+		private final Map<String, InstanceBitmap> yMargin;
+		private final String xMerge;
+		private final int begin;
+		private final int end;
+
+		MergeTask(CompactConceptGraph ccg, int[] level,
+				JointDistribution[] rawJointDistros,
+				JointDistribution[] mergedJointDistros,
+				Map<String, InstanceBitmap> yMargin, String xMerge, int begin,
+				int end) {
+			this.ccg = ccg;
+			this.level = level;
+			this.rawJointDistros = rawJointDistros;
+			this.mergedJointDistros = mergedJointDistros;
+			this.yMargin = yMargin;
+			this.xMerge = xMerge;
+			this.begin = begin;
+			this.end = end;
+		}
+
+		@Override
+		protected void compute() {
+			if (end - begin <= MERGE_BATCH_SIZE || getPool() == null) {
+				for (int i = begin; i < end; i++) {
+					mergedJointDistros[level[i]] = mergeJointDistribution(ccg,
+							level[i], rawJointDistros, mergedJointDistros,
+							yMargin, xMerge);
 				}
-				// if (log.isDebugEnabled()) {
-				// log.debug("path = " + path + ", distroList = " + distroList
-				// + ", distro = " + mergedDistro);
-				// }
 			} else {
-				// no joint distros to merge - null
-				mergedDistro = null;
+				int mid = (begin + end) >>> 1;
+				invokeAll(new MergeTask(ccg, level, rawJointDistros,
+						mergedJointDistros, yMargin, xMerge, begin, mid),
+						new MergeTask(ccg, level, rawJointDistros,
+								mergedJointDistros, yMargin, xMerge, mid, end));
 			}
-			// save this in the map
-			conceptJointDistroMap.put(cr.getConceptID(), mergedDistro);
-			if (distance > -1)
-				conceptDistMap.put(cr.getConceptID(), distance);
-			return mergedDistro;
 		}
 	}
 
 	/**
 	 * 
 	 */
-	private double calculateFoldEntropy(Map<String, Set<Long>> classCountMap) {
+	private double calculateFoldEntropy(Map<String, InstanceBitmap> classCountMap) {
 		int total = 0;
 		List<Double> classProbs = new ArrayList<Double>(classCountMap.size());
 		// calculate total number of instances in this fold
-		for (Set<Long> instances : classCountMap.values()) {
-			total += instances.size();
+		for (InstanceBitmap instances : classCountMap.values()) {
+			total += instances.getCardinality();
 		}
 		// calculate per-class probability in this fold
-		for (Set<Long> instances : classCountMap.values()) {
-			classProbs.add((double) instances.size() / (double) total);
+		for (InstanceBitmap instances : classCountMap.values()) {
+			classProbs.add((double) instances.getCardinality()
+					/ (double) total);
 		}
 		return entropy(classProbs);
 	}
@@ -809,13 +848,13 @@ public class ImputedFeatureEvaluatorImpl implements ImputedFeatureEvaluator {
 	 * @param xLeftover
 	 */
 	private Map<String, JointDistribution> completeJointDistroForFold(
-			Map<String, Map<String, Set<Long>>> conceptInstanceMap,
-			Map<String, Set<Long>> yMargin, Set<String> xVals,
+			Map<String, Map<String, InstanceBitmap>> conceptInstanceMap,
+			Map<String, InstanceBitmap> yMargin, Set<String> xVals,
 			Set<String> yVals, String xLeftover) {
 		//
 		Map<String, JointDistribution> foldJointDistroMap = new HashMap<String, JointDistribution>(
 				conceptInstanceMap.size());
-		for (Map.Entry<String, Map<String, Set<Long>>> conceptInstance : conceptInstanceMap
+		for (Map.Entry<String, Map<String, InstanceBitmap>> conceptInstance : conceptInstanceMap
 				.entrySet()) {
 			foldJointDistroMap.put(
 					conceptInstance.getKey(),
@@ -878,9 +917,9 @@ public class ImputedFeatureEvaluatorImpl implements ImputedFeatureEvaluator {
 	}
 
 	private void evaluateCorpusFold(Parameters params,
-			Map<String, Set<Long>> yMargin, ConceptGraph cg,
+			Map<String, InstanceBitmap> yMargin, ConceptGraph cg,
 			InstanceData instanceData, String label,
-			Map<String, Map<String, Set<Long>>> conceptInstanceMap, int foldId) {
+			Map<String, Map<String, InstanceBitmap>> conceptInstanceMap, int foldId) {
 		if (log.isInfoEnabled())
 			log.info("evaluateCorpusFold() label = " + label + ", fold = "
 					+ foldId);
@@ -925,16 +964,18 @@ public class ImputedFeatureEvaluatorImpl implements ImputedFeatureEvaluator {
 			InstanceData instanceData, String label) {
 		if (log.isInfoEnabled())
 			log.info("evaluateCorpusLabel() label = " + label);
-		Map<String, Map<String, Set<Long>>> conceptInstanceMap = loadConceptInstanceMap(
-				params.getClassFeatureQuery(), cg, label);
+		// instance indices for the bitmaps
+		long instanceIds[] = getInstanceIds(instanceData, label);
+		Map<String, Map<String, InstanceBitmap>> conceptInstanceMap = loadConceptInstanceMap(
+				params.getClassFeatureQuery(), cg, label, instanceIds);
 		for (int run : instanceData.getLabelToInstanceMap().get(label).keySet()) {
 			for (int fold : instanceData.getLabelToInstanceMap().get(label)
 					.get(run).keySet()) {
 				int foldId = this.getFoldId(params, label, run, fold);
 				// evaluate for the specified fold training set
 				// construct map of class - [instance ids]
-				Map<String, Set<Long>> yMargin = getFoldYMargin(instanceData,
-						label, run, fold);
+				Map<String, InstanceBitmap> yMargin = getFoldYMargin(instanceData,
+						label, run, fold, instanceIds);
 				evaluateCorpusFold(params, yMargin, cg, instanceData, label,
 						conceptInstanceMap, foldId);
 			}
@@ -971,24 +1012,38 @@ public class ImputedFeatureEvaluatorImpl implements ImputedFeatureEvaluator {
 		return foldId;
 	}
 
-	private Map<String, Set<Long>> getFoldYMargin(InstanceData instanceData,
-			String label, int run, int fold) {
+	private Map<String, InstanceBitmap> getFoldYMargin(InstanceData instanceData,
+			String label, int run, int fold, long instanceIds[]) {
 		Map<Long, String> instanceClassMap = instanceData
 				.getLabelToInstanceMap().get(label).get(run).get(fold)
 				.get(true);
-		Map<String, Set<Long>> yMargin = new HashMap<String, Set<Long>>();
+		Map<String, InstanceBitmap> yMargin = new HashMap<String, InstanceBitmap>();
 		for (Map.Entry<Long, String> instanceClass : instanceClassMap
 				.entrySet()) {
-			Set<Long> instanceIds = yMargin.get(instanceClass.getValue());
-			if (instanceIds == null) {
-				instanceIds = new HashSet<Long>();
-				yMargin.put(instanceClass.getValue(), instanceIds);
+			InstanceBitmap instances = yMargin.get(instanceClass.getValue());
+			if (instances == null) {
+				instances = new InstanceBitmap();
+				yMargin.put(instanceClass.getValue(), instances);
 			}
-			instanceIds.add(instanceClass.getKey());
+			instances.add(Arrays.binarySearch(instanceIds,
+					instanceClass.getKey()));
 		}
 		return yMargin;
 	}
 
+	/**
+	 * the instances of the label, sorted. The index of an instance id in this
+	 * array is the index of the instance in the bitmaps.
+	 */
+	private long[] getInstanceIds(InstanceData instanceData, String label) {
+		Set<Long> instanceIdSet = instanceData.getAllInstanceIds(label, 0, 0);
+		long instanceIds[] = new long[instanceIdSet.size()];
+		int i = 0;
+		for (long instanceId : instanceIdSet)
+			instanceIds[i++] = instanceId;
+		return instanceIds;
+	}
+
 	public InfoContentEvaluator getInfoContentEvaluator() {
 		return infoContentEvaluator;
 	}
@@ -1019,17 +1074,20 @@ public class ImputedFeatureEvaluatorImpl implements ImputedFeatureEvaluator {
 	 * @param classFeatureQuery
 	 * @param cg
 	 * @param label
+	 * @param instanceIds
+	 *            sorted ids of the instances of the label
 	 * @return
 	 */
-	private Map<String, Map<String, Set<Long>>> loadConceptInstanceMap(
-			String classFeatureQuery, ConceptGraph cg, String label) {
-		Map<String, Map<String, Set<Long>>> conceptInstanceMap = new HashMap<String, Map<String, Set<Long>>>();
+	private Map<String, Map<String, InstanceBitmap>> loadConceptInstanceMap(
+			String classFeatureQuery, ConceptGraph cg, String label,
+			long instanceIds[]) {
+		Map<String, Map<String, InstanceBitmap>> conceptInstanceMap = new HashMap<String, Map<String, InstanceBitmap>>();
 		Map<String, Object> args = new HashMap<String, Object>(1);
 		if (label != null && label.length() > 0) {
 			args.put("label", label);
 		}
 		ConceptInstanceMapExtractor ex = new ConceptInstanceMapExtractor(
-				conceptInstanceMap, cg);
+				conceptInstanceMap, instanceIds, cg);
 		this.namedParamJdbcTemplate.query(classFeatureQuery, args, ex);
 		return conceptInstanceMap;
 	}
@@ -1048,19 +1106,42 @@ public class ImputedFeatureEvaluatorImpl implements ImputedFeatureEvaluator {
 	private FeatureEvaluation propagateJointDistribution(
 			Map<String, JointDistribution> rawJointDistroMap,
 			Parameters params, String label, int foldId, ConceptGraph cg,
-			Map<String, Set<Long>> yMargin) {
+			Map<String, InstanceBitmap> yMargin) {
 		// get the entropy of Y for this fold
 		double yEntropy = this.calculateFoldEntropy(yMargin);
+		CompactConceptGraph ccg = cg.getCompactGraph();
+		JointDistribution rawJointDistros[] = new JointDistribution[ccg.size()];
+		for (Map.Entry<String, JointDistribution> rawJointDistro : rawJointDistroMap
+				.entrySet()) {
+			int node = ccg.getNodeIndex(rawJointDistro.getKey());
+			if (node >= 0)
+				rawJointDistros[node] = rawJointDistro.getValue();
+		}
+		// merge the joint distributions level by level, starting with the
+		// leaves. The concepts of a level are merged in parallel.
+		JointDistribution mergedJointDistros[] = new JointDistribution[ccg
+				.size()];
+		List<int[]> levels = getLevels(ccg);
+		for (int[] level : levels) {
+			MergeTask task = new MergeTask(ccg, level, rawJointDistros,
+					mergedJointDistros, yMargin, params.getxMerge(), 0,
+					level.length);
+			if (level.length > MERGE_BATCH_SIZE) {
+				ForkJoinPool.commonPool().invoke(task);
+			} else {
+				task.compute();
+			}
+		}
 		// allocate a map to hold the results of the propagation across the
 		// concept graph
-		Map<String, JointDistribution> conceptJointDistroMap = new HashMap<String, JointDistribution>(
-				cg.getConceptMap().size());
-		Map<String, Integer> conceptDistMap = new HashMap<String, Integer>();
-		// recurse
-		calcMergedJointDistribution(conceptJointDistroMap, conceptDistMap, cg
-				.getConceptMap().get(cg.getRoot()), rawJointDistroMap, yMargin,
-				params.getxMerge(), params.getMinInfo(),
-				Arrays.asList(new String[] { cg.getRoot() }));
+		Map<String, JointDistribution> conceptJointDistroMap = new HashMap<String, JointDistribution>();
+		for (int[] level : levels) {
+			for (int node : level) {
+				if (mergedJointDistros[node] != null)
+					conceptJointDistroMap.put(ccg.getConceptID(node),
+							mergedJointDistros[node]);
+			}
+		}
 		List<FeatureRank> listPropRanks = new ArrayList<FeatureRank>(
 				conceptJointDistroMap.size());
 		return this.saveFeatureEvaluation(conceptJointDistroMap, params, label,
@@ -0,0 +1,447 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ctakes.ytex.kernel;
+
+import java.util.Arrays;
+
+/**
+ * A compressed set of non-negative int instance indices, organized like a
+ * roaring bitmap.
+ * <p/>
+ * The indices are partitioned by their high 16 bits. The low 16 bits of each
+ * partition are held in a container: a sorted char array if the partition has
+ * at most 4096 members, else a 1024 word bitmap. Set operations work container
+ * by container, so a set costs 2 bytes per member at most, and intersecting
+ * two dense sets is a loop over 1024 words.
+ * <p/>
+ * {@link #and(InstanceBitmap, InstanceBitmap)},
+ * {@link #or(InstanceBitmap, InstanceBitmap)} and
+ * {@link #andNot(InstanceBitmap, InstanceBitmap)} return new sets and share no
+ * containers with their arguments. A set that is no longer modified can be
+ * read by several threads.
+ */
+public class InstanceBitmap {
+	private static final int ARRAY_MAX = 4096;
+	private static final int BITMAP_WORDS = 1024;
+
+	/**
+	 * the empty set, shared by the empty cells of the joint distribution
+	 * tables. It cannot be modified.
+	 */
+	public static final InstanceBitmap EMPTY = new InstanceBitmap(0);
+
+	/**
+	 * @return instances in a and b
+	 */
+	public static InstanceBitmap and(InstanceBitmap a, InstanceBitmap b) {
+		InstanceBitmap result = new InstanceBitmap(Math.min(a.size, b.size));
+		int i = 0;
+		int j = 0;
+		while (i < a.size && j < b.size) {
+			if (a.keys[i] < b.keys[j]) {
+				i++;
+			} else if (a.keys[i] > b.keys[j]) {
+				j++;
+			} else {
+				Container c = a.containers[i].and(b.containers[j]);
+				if (c.cardinality() > 0)
+					result.append(a.keys[i], c);
+				i++;
+				j++;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @return instances in a but not in b
+	 */
+	public static InstanceBitmap andNot(InstanceBitmap a, InstanceBitmap b) {
+		InstanceBitmap result = new InstanceBitmap(a.size);
+		int j = 0;
+		for (int i = 0; i < a.size; i++) {
+			while (j < b.size && b.keys[j] < a.keys[i])
+				j++;
+			Container c = j < b.size && b.keys[j] == a.keys[i] ? a.containers[i]
+					.andNot(b.containers[j]) : a.containers[i].copy();
+			if (c.cardinality() > 0)
+				result.append(a.keys[i], c);
+		}
+		return result;
+	}
+
+	/**
+	 * @return instances in a or b
+	 */
+	public static InstanceBitmap or(InstanceBitmap a, InstanceBitmap b) {
+		InstanceBitmap result = new InstanceBitmap(a.size + b.size);
+		int i = 0;
+		int j = 0;
+		while (i < a.size || j < b.size) {
+			if (j == b.size || (i < a.size && a.keys[i] < b.keys[j])) {
+				result.append(a.keys[i], a.containers[i].copy());
+				i++;
+			} else if (i == a.size || a.keys[i] > b.keys[j]) {
+				result.append(b.keys[j], b.containers[j].copy());
+				j++;
+			} else {
+				result.append(a.keys[i], a.containers[i].or(b.containers[j]));
+				i++;
+				j++;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * high 16 bits of the members of each container, ascending
+	 */
+	private char[] keys;
+	private Container[] containers;
+	private int size;
+
+	public InstanceBitmap() {
+		this(4);
+	}
+
+	private InstanceBitmap(int capacity) {
+		keys = new char[Math.max(1, capacity)];
+		containers = new Container[keys.length];
+	}
+
+	/**
+	 * add an instance index. Indices are cheapest to add in ascending order.
+	 *
+	 * @param index
+	 *            non-negative instance index
+	 */
+	public void add(int index) {
+		if (index < 0)
+			throw new IllegalArgumentException("negative index: " + index);
+		if (this == EMPTY)
+			throw new UnsupportedOperationException(
+					"the empty set cannot be modified");
+		char key = (char) (index >>> 16);
+		char low = (char) index;
+		int i;
+		if (size > 0 && keys[size - 1] == key) {
+			i = size - 1;
+		} else {
+			i = Arrays.binarySearch(keys, 0, size, key);
+			if (i < 0) {
+				i = -i - 1;
+				insert(i, key, new ArrayContainer(new char[4], 0));
+			}
+		}
+		containers[i] = containers[i].add(low);
+	}
+
+	public boolean contains(int index) {
+		if (index < 0)
+			return false;
+		int i = Arrays.binarySearch(keys, 0, size, (char) (index >>> 16));
+		return i >= 0 && containers[i].contains((char) index);
+	}
+
+	/**
+	 * @return number of instances in the set
+	 */
+	public int getCardinality() {
+		int cardinality = 0;
+		for (int i = 0; i < size; i++)
+			cardinality += containers[i].cardinality();
+		return cardinality;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	private void append(char key, Container container) {
+		insert(size, key, container);
+	}
+
+	private void insert(int i, char key, Container container) {
+		if (size == keys.length) {
+			keys = Arrays.copyOf(keys, size * 2);
+			containers = Arrays.copyOf(containers, size * 2);
+		}
+		System.arraycopy(keys, i, keys, i + 1, size - i);
+		System.arraycopy(containers, i, containers, i + 1, size - i);
+		keys[i] = key;
+		containers[i] = container;
+		size++;
+	}
+
+	/**
+	 * the low 16 bits of the members of a partition
+	 */
+	private static abstract class Container {
+		/**
+		 * @return this, or a new container if this one had to be converted
+		 */
+		abstract Container add(char low);
+
+		abstract Container and(Container other);
+
+		abstract Container andNot(Container other);
+
+		abstract int cardinality();
+
+		abstract boolean contains(char low);
+
+		abstract Container copy();
+
+		abstract Container or(Container other);
+	}
+
+	private static final class ArrayContainer extends Container {
+		private char[] values;
+		private int cardinality;
+
+		ArrayContainer(char[] values, int cardinality) {
+			this.values = values;
+			this.cardinality = cardinality;
+		}
+
+		@Override
+		Container add(char low) {
+			if (cardinality > 0 && values[cardinality - 1] < low) {
+				if (cardinality == ARRAY_MAX)
+					return toBitmap().add(low);
+				if (cardinality == values.length)
+					values = Arrays.copyOf(values,
+							Math.min(ARRAY_MAX, cardinality * 2));
+				values[cardinality++] = low;
+				return this;
+			}
+			int i = Arrays.binarySearch(values, 0, cardinality, low);
+			if (i >= 0)
+				return this;
+			if (cardinality == ARRAY_MAX)
+				return toBitmap().add(low);
+			i = -i - 1;
+			if (cardinality == values.length)
+				values = Arrays.copyOf(values,
+						Math.min(ARRAY_MAX, Math.max(4, cardinality * 2)));
+			System.arraycopy(values, i, values, i + 1, cardinality - i);
+			values[i] = low;
+			cardinality++;
+			return this;
+		}
+
+		@Override
+		Container and(Container other) {
+			char[] result = new char[cardinality];
+			int n = 0;
+			if (other instanceof ArrayContainer) {
+				ArrayContainer o = (ArrayContainer) other;
+				int i = 0;
+				int j = 0;
+				while (i < cardinality && j < o.cardinality) {
+					if (values[i] < o.values[j]) {
+						i++;
+					} else if (values[i] > o.values[j]) {
+						j++;
+					} else {
+						result[n++] = values[i];
+						i++;
+						j++;
+					}
+				}
+			} else {
+				for (int i = 0; i < cardinality; i++) {
+					if (other.contains(values[i]))
+						result[n++] = values[i];
+				}
+			}
+			return new ArrayContainer(result, n);
+		}
+
+		@Override
+		Container andNot(Container other) {
+			char[] result = new char[cardinality];
+			int n = 0;
+			for (int i = 0; i < cardinality; i++) {
+				if (!other.contains(values[i]))
+					result[n++] = values[i];
+			}
+			return new ArrayContainer(result, n);
+		}
+
+		@Override
+		int cardinality() {
+			return cardinality;
+		}
+
+		@Override
+		boolean contains(char low) {
+			return Arrays.binarySearch(values, 0, cardinality, low) >= 0;
+		}
+
+		@Override
+		Container copy() {
+			return new ArrayContainer(Arrays.copyOf(values, cardinality),
+					cardinality);
+		}
+
+		@Override
+		Container or(Container other) {
+			if (other instanceof BitmapContainer)
+				return other.or(this);
+			ArrayContainer o = (ArrayContainer) other;
+			char[] result = new char[cardinality + o.cardinality];
+			int n = 0;
+			int i = 0;
+			int j = 0;
+			while (i < cardinality || j < o.cardinality) {
+				if (j == o.cardinality
+						|| (i < cardinality && values[i] < o.values[j])) {
+					result[n++] = values[i++];
+				} else if (i == cardinality || values[i] > o.values[j]) {
+					result[n++] = o.values[j++];
+				} else {
+					result[n++] = values[i];
+					i++;
+					j++;
+				}
+			}
+			ArrayContainer union = new ArrayContainer(result, n);
+			return n > ARRAY_MAX ? union.toBitmap() : union;
+		}
+
+		BitmapContainer toBitmap() {
+			long[] words = new long[BITMAP_WORDS];
+			for (int i = 0; i < cardinality; i++)
+				words[values[i] >>> 6] |= 1L << values[i];
+			return new BitmapContainer(words, cardinality);
+		}
+	}
+
+	private static final class BitmapContainer extends Container {
+		private final long[] words;
+		private int cardinality;
+
+		BitmapContainer(long[] words, int cardinality) {
+			this.words = words;
+			this.cardinality = cardinality;
+		}
+
+		@Override
+		Container add(char low) {
+			long bit = 1L << low;
+			if ((words[low >>> 6] & bit) == 0) {
+				words[low >>> 6] |= bit;
+				cardinality++;
+			}
+			return this;
+		}
+
+		@Override
+		Container and(Container other) {
+			if (other instanceof ArrayContainer)
+				return other.and(this);
+			long[] o = ((BitmapContainer) other).words;
+			long[] result = new long[BITMAP_WORDS];
+			int n = 0;
+			for (int i = 0; i < BITMAP_WORDS; i++) {
+				result[i] = words[i] & o[i];
+				n += Long.bitCount(result[i]);
+			}
+			return shrink(result, n);
+		}
+
+		@Override
+		Container andNot(Container other) {
+			long[] result = words.clone();
+			int n = cardinality;
+			if (other instanceof ArrayContainer) {
+				ArrayContainer o = (ArrayContainer) other;
+				for (int i = 0; i < o.cardinality; i++) {
+					char low = o.values[i];
+					long bit = 1L << low;
+					if ((result[low >>> 6] & bit) != 0) {
+						result[low >>> 6] &= ~bit;
+						n--;
+					}
+				}
+			} else {
+				long[] o = ((BitmapContainer) other).words;
+				n = 0;
+				for (int i = 0; i < BITMAP_WORDS; i++) {
+					result[i] &= ~o[i];
+					n += Long.bitCount(result[i]);
+				}
+			}
+			return shrink(result, n);
+		}
+
+		@Override
+		int cardinality() {
+			return cardinality;
+		}
+
+		@Override
+		boolean contains(char low) {
+			return (words[low >>> 6] & (1L << low)) != 0;
+		}
+
+		@Override
+		Container copy() {
+			return new BitmapContainer(words.clone(), cardinality);
+		}
+
+		@Override
+		Container or(Container other) {
+			long[] result = words.clone();
+			int n = 0;
+			if (other instanceof ArrayContainer) {
+				ArrayContainer o = (ArrayContainer) other;
+				for (int i = 0; i < o.cardinality; i++)
+					result[o.values[i] >>> 6] |= 1L << o.values[i];
+			} else {
+				long[] o = ((BitmapContainer) other).words;
+				for (int i = 0; i < BITMAP_WORDS; i++)
+					result[i] |= o[i];
+			}
+			for (int i = 0; i < BITMAP_WORDS; i++)
+				n += Long.bitCount(result[i]);
+			return new BitmapContainer(result, n);
+		}
+
+		/**
+		 * convert sparse results back to an array container
+		 */
+		private static Container shrink(long[] words, int cardinality) {
+			if (cardinality > ARRAY_MAX)
+				return new BitmapContainer(words, cardinality);
+			char[] values = new char[cardinality];
+			int n = 0;
+			for (int i = 0; i < BITMAP_WORDS; i++) {
+				long word = words[i];
+				while (word != 0) {
+					values[n++] = (char) ((i << 6) + Long
+							.numberOfTrailingZeros(word));
+					word &= word - 1;
+				}
+			}
+			return new ArrayContainer(values, cardinality);
+		}
+	}
+}
@@ -46,6 +46,9 @@ public interface ConceptDao {
 	 * not defined, then look for [directory of
 	 * ytex.properties]/conceptGraph/[name].gz</li>
 	 * </ul>
+	 * If a compact graph [name].csr is found in the same locations, it is
+	 * memory-mapped instead of deserializing [name].gz. A graph loaded from
+	 * [name].gz is converted to [name].csr in the concept graph directory.
 	 * 
 	 * @param name
 	 *            name of concept graph. Will retrieve from classpath/file
@@ -56,7 +59,7 @@ public interface ConceptDao {
 
 	/**
 	 * create the concept graph with specified name using specified query. Will
-	 * create a file [name].gz under dir.
+	 * create the files [name].gz and [name].csr under dir.
 	 * 
 	 * @param dir
 	 *            directory of concept graph (optional). If null will use
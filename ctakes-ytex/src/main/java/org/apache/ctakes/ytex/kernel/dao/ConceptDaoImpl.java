@@ -29,10 +29,12 @@ import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.net.URLConnection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Properties;
 import java.util.Set;
 import java.util.zip.GZIPInputStream;
@@ -52,6 +54,7 @@ import org.apache.commons.logging.LogFactory;
 import org.apache.ctakes.ytex.kernel.FileUtil;
 import org.apache.ctakes.ytex.kernel.IntrinsicInfoContentEvaluator;
 import org.apache.ctakes.ytex.kernel.KernelContextHolder;
+import org.apache.ctakes.ytex.kernel.model.CompactConceptGraph;
 import org.apache.ctakes.ytex.kernel.model.ConcRel;
 import org.apache.ctakes.ytex.kernel.model.ConceptGraph;
 import org.hibernate.SessionFactory;
@@ -64,6 +67,10 @@ import com.google.common.collect.ImmutableMap;
 
 public class ConceptDaoImpl implements ConceptDao {
 	private static final String CONCEPT_GRAPH_PATH = "org/apache/ctakes/ytex/conceptGraph/";
+	/**
+	 * extension of the memory-mapped compact concept graph file
+	 */
+	private static final String COMPACT_GRAPH_EXT = ".csr";
 	/**
 	 * the default concept id for the root. override with -Dytex.defaultRootId
 	 */
@@ -352,17 +359,160 @@ public class ConceptDaoImpl implements ConceptDao {
 	 * .Set)
 	 */
 	public ConceptGraph getConceptGraph(String name) {
-		ConceptGraph cg = this.readConceptGraph(name);
+		ConceptGraph cg = this.readCompactConceptGraph(name);
+		if (cg == null) {
+			cg = this.readConceptGraph(name);
+			if (cg != null) {
+				this.initializeConceptGraph(cg);
+				// convert the graph so that the next load can map it
+				cg.setCompactGraph(this.convertConceptGraph(name, cg));
+			}
+		}
 		if (cg != null) {
-			this.initializeConceptGraph(cg);
 			if (log.isInfoEnabled()) {
 				log.info(String.format("concept graph %s, vertices: %s", name,
-						cg.getConceptList().size()));
+						cg.getCompactGraph().size()));
 			}
 		}
 		return cg;
 	}
 
+	/**
+	 * memory-map the compact concept graph [name].csr. Look for it on the
+	 * classpath, then in the default concept graph directory. A compact graph
+	 * is only used if it was converted from the [name].gz that
+	 * {@link #readConceptGraph(String)} would load, i.e. if the length and
+	 * modification time recorded in its header match that file.
+	 * 
+	 * @param name
+	 * @return concept graph backed by the compact graph, null if there is no
+	 *         current compact graph file
+	 */
+	private ConceptGraph readCompactConceptGraph(String name) {
+		long[] source = getConceptGraphSource(name);
+		Set<File> candidates = new LinkedHashSet<File>(2);
+		File f = urlToFile(this.getClass().getClassLoader()
+				.getResource(CONCEPT_GRAPH_PATH + name + COMPACT_GRAPH_EXT));
+		if (f != null)
+			candidates.add(f);
+		String cdir = this.getDefaultConceptGraphDir();
+		if (cdir != null)
+			candidates.add(new File(cdir + "/" + name + COMPACT_GRAPH_EXT));
+		for (File candidate : candidates) {
+			if (!candidate.exists())
+				continue;
+			CompactConceptGraph ccg;
+			try {
+				ccg = CompactConceptGraph.map(candidate);
+			} catch (IOException ioe) {
+				log.info("could not map " + candidate.getAbsolutePath()
+						+ ", will not use it: " + ioe.getMessage());
+				continue;
+			}
+			if (source != null
+					&& (ccg.getSourceLength() != source[0] || ccg
+							.getSourceModified() != source[1])) {
+				log.info(candidate.getAbsolutePath()
+						+ " was not converted from the current " + name
+						+ ".gz, will not use it");
+				continue;
+			}
+			log.info("mapped concept graph from " + candidate.getAbsolutePath());
+			ConceptGraph cg = new ConceptGraph();
+			cg.setCompactGraph(ccg);
+			cg.setRoot(ccg.getRoot());
+			cg.setDepthMax(ccg.getDepthMax());
+			cg.setIntrinsicICMax(ccg.getIntrinsicICMax());
+			return cg;
+		}
+		return null;
+	}
+
+	/**
+	 * identify the serialized concept graph [name].gz that
+	 * {@link #readConceptGraph(String)} would load: on the classpath, else in
+	 * the default concept graph directory.
+	 * 
+	 * @param name
+	 * @return length and last modification time of the serialized graph,
+	 *         null if there is none
+	 */
+	private long[] getConceptGraphSource(String name) {
+		URL url = this.getClass().getClassLoader()
+				.getResource(CONCEPT_GRAPH_PATH + name + ".gz");
+		File f = urlToFile(url);
+		if (url == null) {
+			String cdir = this.getDefaultConceptGraphDir();
+			if (cdir != null)
+				f = new File(cdir + "/" + name + ".gz");
+		}
+		if (f != null)
+			return f.exists() ? new long[] { f.length(), f.lastModified() }
+					: null;
+		if (url == null)
+			return null;
+		// e.g. an entry in a jar, the modification time is the jar's
+		try {
+			URLConnection conn = url.openConnection();
+			conn.setUseCaches(false);
+			long[] source = new long[] { conn.getContentLengthLong(),
+					conn.getLastModified() };
+			conn.getInputStream().close();
+			return source;
+		} catch (IOException ioe) {
+			log.warn("could not identify concept graph " + url + ": "
+					+ ioe.getMessage());
+			return null;
+		}
+	}
+
+	/**
+	 * write the compact graph for a concept graph that was loaded from a
+	 * [name].gz to the default concept graph directory.
+	 * 
+	 * @return the mapped compact graph, or one built on the heap if it could
+	 *         not be written
+	 */
+	private CompactConceptGraph convertConceptGraph(String name,
+			ConceptGraph cg) {
+		String cdir = this.getDefaultConceptGraphDir();
+		if (cdir != null) {
+			File f = new File(cdir + "/" + name + COMPACT_GRAPH_EXT);
+			try {
+				writeCompactConceptGraph(f, cg, getConceptGraphSource(name));
+				return CompactConceptGraph.map(f);
+			} catch (IOException ioe) {
+				log.warn("could not write compact concept graph "
+						+ f.getAbsolutePath() + ": " + ioe.getMessage());
+			}
+		}
+		return CompactConceptGraph.build(cg);
+	}
+
+	/**
+	 * write the compact graph to a temporary file and rename it, so that a
+	 * partially written file is never mapped.
+	 * 
+	 * @param source
+	 *            length and last modification time of the serialized graph
+	 *            cg was read from or written to, null if unknown
+	 */
+	private void writeCompactConceptGraph(File f, ConceptGraph cg,
+			long[] source) throws IOException {
+		log.info("writing compact concept graph: " + f.getAbsolutePath());
+		if (!f.getParentFile().exists())
+			f.getParentFile().mkdirs();
+		File tmp = new File(f.getParentFile(), f.getName() + ".tmp");
+		if (source != null)
+			CompactConceptGraph.write(cg, tmp, source[0], source[1]);
+		else
+			CompactConceptGraph.write(cg, tmp);
+		if (f.exists() && !f.delete())
+			throw new IOException("could not delete " + f.getAbsolutePath());
+		if (!tmp.renameTo(f))
+			throw new IOException("could not rename " + tmp.getAbsolutePath());
+	}
+
 	private File urlToFile(URL url) {
 		if (url != null && "file".equals(url.getProtocol())) {
 			File f;
@@ -608,6 +758,13 @@ public class ConceptDaoImpl implements ConceptDao {
 					e.printStackTrace();
 				}
 		}
+		try {
+			writeCompactConceptGraph(new File(outputDir + "/" + name
+					+ COMPACT_GRAPH_EXT), cg, new long[] { cgFile.length(),
+					cgFile.lastModified() });
+		} catch (IOException ioe) {
+			throw new RuntimeException(ioe);
+		}
 	}
 
 }
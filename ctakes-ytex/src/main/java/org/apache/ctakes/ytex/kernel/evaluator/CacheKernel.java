@@ -32,6 +32,11 @@ import org.springframework.beans.factory.InitializingBean;
  * By default, we assume that the objects upon which we evaluate the kernel
  * support the Comparable interface. If not, set the cacheKeyGenerator to a
  * different class (default is SymmetricPairCacheKeyGenerator).
+ * <p>
+ * If pairCacheSize is set, evaluations are cached in a
+ * {@link SymmetricPairCache} instead of ehcache. The objects need not be
+ * Comparable, but they must implement equals and hashCode, and the
+ * cacheKeyGenerator is not used.
  * 
  * @author vijay
  * 
@@ -42,6 +47,14 @@ public abstract class CacheKernel implements Kernel, InitializingBean {
 	private String cacheName;
 	private Cache cache;
 	private CacheKeyGenerator cacheKeyGenerator = new SymmetricPairCacheKeyGenerator();
+	private int pairCacheSize = 0;
+	private SymmetricPairCache pairCache;
+	private final Kernel innerKernel = new Kernel() {
+		@Override
+		public double evaluate(Object o1, Object o2) {
+			return innerEvaluate(o1, o2);
+		}
+	};
 
 	public CacheKeyGenerator getCacheKeyGenerator() {
 		return cacheKeyGenerator;
@@ -62,11 +75,21 @@ public abstract class CacheKernel implements Kernel, InitializingBean {
 		return cacheName;
 	}
 
+	public int getPairCacheSize() {
+		return pairCacheSize;
+	}
+
+	public void setPairCacheSize(int pairCacheSize) {
+		this.pairCacheSize = pairCacheSize;
+	}
+
 	public abstract double innerEvaluate(Object o1, Object o2);
 
 	public double evaluate(Object o1, Object o2) {
 		double dEval;
-		if (cache == null) {
+		if (pairCache != null) {
+			dEval = pairCache.get(o1, o2, innerKernel);
+		} else if (cache == null) {
 			dEval = innerEvaluate(o1, o2);
 		} else {
 			Object cacheKey = cacheKeyGenerator.getCacheKey(o1, o2);
@@ -95,7 +118,9 @@ public abstract class CacheKernel implements Kernel, InitializingBean {
 
 	@Override
 	public void afterPropertiesSet() throws Exception {
-		if (cacheName != null) {
+		if (pairCacheSize > 0) {
+			pairCache = new SymmetricPairCache(pairCacheSize);
+		} else if (cacheName != null) {
 			cache = cacheManager.getCache(cacheName);
 		}
 	}
@@ -20,15 +20,15 @@ package org.apache.ctakes.ytex.kernel.evaluator;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.PreparedStatement;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.SortedSet;
 import java.util.TreeSet;
-import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ForkJoinPool;
 
 import javax.sql.DataSource;
 
@@ -52,6 +52,7 @@ import org.apache.ctakes.ytex.kernel.tree.TreeMappingInfo;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.access.ContextSingletonBeanFactoryLocator;
 import org.springframework.context.support.FileSystemXmlApplicationContext;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
@@ -71,32 +72,6 @@ public class CorpusKernelEvaluatorImpl implements CorpusKernelEvaluator {
 
 	}
 
-	public class SliceEvaluator implements Callable<Object> {
-		Map<Long, Node> instanceIDMap;
-		int nMod;
-		int nSlice;
-		boolean evalTest;
-
-		public SliceEvaluator(Map<Long, Node> instanceIDMap, int nMod,
-				int nSlice, boolean evalTest) {
-			this.nSlice = nSlice;
-			this.nMod = nMod;
-			this.instanceIDMap = instanceIDMap;
-			this.evalTest = evalTest;
-		}
-
-		@Override
-		public Object call() throws Exception {
-			try {
-				evaluateKernelOnCorpus(instanceIDMap, nMod, nSlice, evalTest);
-			} catch (Exception e) {
-				log.error("error on slice: " + nSlice, e);
-				throw e;
-			}
-			return null;
-		}
-	}
-
 	private static final Log log = LogFactory
 			.getLog(CorpusKernelEvaluator.class);
 
@@ -135,11 +110,11 @@ public class CorpusKernelEvaluatorImpl implements CorpusKernelEvaluator {
 				.create("loadInstanceMap"));
 		options.addOption(OptionBuilder
 				.withDescription(
-						"for parallelization, split the instances into mod slices")
+						"for parallelization, number of threads, or with -slice the number of slices the instances are split into.  Default: number of processors.")
 				.hasArg().create("mod"));
 		options.addOption(OptionBuilder
 				.withDescription(
-						"for parallelization, parameter that determines which slice we work on.  If this is not specified, nMod threads will be started to evaluate all slices in parallel.")
+						"for parallelization across processes, parameter that determines which slice we work on.  If this is not specified, the whole gram matrix is evaluated in this process with mod threads.")
 				.hasArg().create("slice"));
 		options.addOption(new Option("help", "print this message"));
 		return options;
@@ -192,9 +167,7 @@ public class CorpusKernelEvaluatorImpl implements CorpusKernelEvaluator {
 						.getOptionValue("evalTest", "no"));
 		int nMod = strMod != null ? Integer.parseInt(strMod) : 0;
 		Integer nSlice = null;
-		if (nMod == 0) {
-			nSlice = 0;
-		} else if (strSlice != null) {
+		if (nMod > 0 && strSlice != null) {
 			nSlice = Integer.parseInt(strSlice);
 		}
 		Map<Long, Node> instanceMap = null;
@@ -220,6 +193,8 @@ public class CorpusKernelEvaluatorImpl implements CorpusKernelEvaluator {
 						options);
 	}
 
+	private int batchSize = 10000;
+
 	private DataSource dataSource;
 
 	private String experiment;
@@ -270,25 +245,179 @@ public class CorpusKernelEvaluatorImpl implements CorpusKernelEvaluator {
 	public void evaluateKernelOnCorpus() {
 		final Map<Long, Node> instanceIDMap = instanceTreeBuilder
 				.loadInstanceTrees(treeMappingInfo);
-		this.evaluateKernelOnCorpus(instanceIDMap, 0, 0, false);
+		this.evaluateKernelOnCorpus(instanceIDMap, 0, false);
 	}
 
+	/**
+	 * evaluate the gram matrix in this process. The matrix is split into
+	 * tiles that are evaluated on a fork join pool, see
+	 * {@link GramMatrixEvaluator}. The rows are evaluated in bands; the
+	 * evaluations of a band are batch inserted before the next band is
+	 * started, so an interrupted run can be resumed. Evaluations already in
+	 * the database are not repeated.
+	 * 
+	 * @param nMod
+	 *            number of threads, 0 for the number of processors
+	 */
 	@Override
 	public void evaluateKernelOnCorpus(Map<Long, Node> instanceIDMap, int nMod,
-			boolean evalTest) throws InterruptedException {
-		ExecutorService svc = Executors.newFixedThreadPool(nMod);
-		List<Callable<Object>> taskList = new ArrayList<Callable<Object>>(nMod);
-		for (int nSlice = 1; nSlice <= nMod; nSlice++) {
-			taskList.add(new SliceEvaluator(instanceIDMap, nMod, nSlice,
-					evalTest));
+			boolean evalTest) {
+		final KernelEvaluation kernelEvaluation = storeKernelEval();
+		final List<Long> documentIds = new ArrayList<Long>();
+		final List<Long> testDocumentIds = new ArrayList<Long>();
+		loadDocumentIds(documentIds, testDocumentIds, instanceIDQuery);
+		if (!evalTest) {
+			testDocumentIds.clear();
+		}
+		GramMatrix matrix = new GramMatrix(documentIds.size(),
+				testDocumentIds.size());
+		long instanceIds[] = new long[matrix.getRowCount()];
+		Node instances[] = new Node[matrix.getRowCount()];
+		int row = 0;
+		for (long instanceId : documentIds) {
+			instanceIds[row] = instanceId;
+			instances[row++] = instanceIDMap.get(instanceId);
+		}
+		for (long instanceId : testDocumentIds) {
+			instanceIds[row] = instanceId;
+			instances[row++] = instanceIDMap.get(instanceId);
+		}
+		BitSet storedCells = loadKernelEvaluations(kernelEvaluation,
+				instanceIds, matrix);
+		ForkJoinPool pool = new ForkJoinPool(nMod > 0 ? nMod : Runtime
+				.getRuntime().availableProcessors());
+		try {
+			int blockSize = GramMatrixEvaluator.DEFAULT_BLOCK_SIZE;
+			GramMatrixEvaluator evaluator = new GramMatrixEvaluator(
+					instanceKernel, pool, blockSize);
+			// enough tiles per band to keep all threads busy
+			long bandCells = (long) blockSize * blockSize
+					* pool.getParallelism() * 8;
+			int rowEnd = 0;
+			for (int rowStart = 0; rowStart < matrix.getRowCount(); rowStart = rowEnd) {
+				long cells = 0;
+				while (rowEnd < matrix.getRowCount() && cells < bandCells) {
+					cells += matrix.getColumnCount(rowEnd++);
+				}
+				long evaluations = evaluator.evaluateRows(matrix, instances,
+						rowStart, rowEnd);
+				storeKernelEvaluations(kernelEvaluation, instanceIds, matrix,
+						storedCells, rowStart, rowEnd);
+				if (log.isInfoEnabled())
+					log.info("evaluated rows " + rowEnd + " of "
+							+ matrix.getRowCount() + ", " + evaluations
+							+ " kernel evaluations");
+			}
+		} finally {
+			pool.shutdown();
 		}
-		svc.invokeAll(taskList);
-		svc.shutdown();
-		svc.awaitTermination(60 * 4, TimeUnit.MINUTES);
 	}
 
-	public void evaluateKernelOnCorpus(final Map<Long, Node> instanceIDMap,
-			int nMod, int nSlice, boolean evalTest) {
+	/**
+	 * load evaluations stored by a previous run into the matrix
+	 * 
+	 * @return cells that are already in the database
+	 */
+	private BitSet loadKernelEvaluations(KernelEvaluation kernelEvaluation,
+			long instanceIds[], final GramMatrix matrix) {
+		final Map<Long, Integer> instanceRows = new HashMap<Long, Integer>(
+				instanceIds.length);
+		for (int row = 0; row < instanceIds.length; row++) {
+			instanceRows.put(instanceIds[row], row);
+		}
+		final BitSet storedCells = new BitSet();
+		jdbcTemplate.query("select instance_id1, instance_id2, similarity from "
+				+ DBUtil.getYTEXTablePrefix()
+				+ "kernel_eval_instance where kernel_eval_id = ?",
+				new Object[] { kernelEvaluation.getKernelEvaluationId() },
+				new RowCallbackHandler() {
+					@Override
+					public void processRow(ResultSet rs) throws SQLException {
+						Integer row1 = instanceRows.get(rs.getLong(1));
+						Integer row2 = instanceRows.get(rs.getLong(2));
+						if (row1 == null || row2 == null)
+							return;
+						// columns are training instances
+						int row = Math.max(row1, row2);
+						int col = Math.min(row1, row2);
+						if (col >= matrix.getTrainSize())
+							return;
+						matrix.set(row, col, (float) rs.getDouble(3));
+						storedCells.set(matrix.index(row, col));
+					}
+				});
+		if (log.isInfoEnabled() && !storedCells.isEmpty())
+			log.info("loaded " + storedCells.cardinality()
+					+ " existing kernel evaluations");
+		return storedCells;
+	}
+
+	/**
+	 * batch insert the evaluated cells of the rows that are not yet in the
+	 * database. Each batch is inserted in its own transaction.
+	 */
+	private void storeKernelEvaluations(
+			final KernelEvaluation kernelEvaluation, long instanceIds[],
+			GramMatrix matrix, BitSet storedCells, int rowStart, int rowEnd) {
+		final long instanceIds1[] = new long[batchSize];
+		final long instanceIds2[] = new long[batchSize];
+		final double similarities[] = new double[batchSize];
+		int count = 0;
+		for (int row = rowStart; row < rowEnd; row++) {
+			for (int col = 0; col < matrix.getColumnCount(row); col++) {
+				int index = matrix.index(row, col);
+				if (storedCells.get(index) || !matrix.isEvaluated(row, col))
+					continue;
+				instanceIds1[count] = Math.min(instanceIds[row],
+						instanceIds[col]);
+				instanceIds2[count] = Math.max(instanceIds[row],
+						instanceIds[col]);
+				similarities[count++] = matrix.get(row, col);
+				storedCells.set(index);
+				if (count == batchSize) {
+					insertKernelEvaluations(kernelEvaluation, instanceIds1,
+							instanceIds2, similarities, count);
+					count = 0;
+				}
+			}
+		}
+		if (count > 0)
+			insertKernelEvaluations(kernelEvaluation, instanceIds1,
+					instanceIds2, similarities, count);
+	}
+
+	private void insertKernelEvaluations(
+			final KernelEvaluation kernelEvaluation,
+			final long instanceIds1[], final long instanceIds2[],
+			final double similarities[], final int count) {
+		txTemplate.execute(new TransactionCallback<Object>() {
+			@Override
+			public Object doInTransaction(TransactionStatus arg0) {
+				jdbcTemplate.batchUpdate("insert into "
+						+ DBUtil.getYTEXTablePrefix()
+						+ "kernel_eval_instance (kernel_eval_id, instance_id1, instance_id2, similarity) values (?, ?, ?, ?)",
+						new BatchPreparedStatementSetter() {
+							@Override
+							public void setValues(PreparedStatement ps, int i)
+									throws SQLException {
+								ps.setInt(1,
+										kernelEvaluation.getKernelEvaluationId());
+								ps.setLong(2, instanceIds1[i]);
+								ps.setLong(3, instanceIds2[i]);
+								ps.setDouble(4, similarities[i]);
+							}
+
+							@Override
+							public int getBatchSize() {
+								return count;
+							}
+						});
+				return null;
+			}
+		});
+	}
+
+	private KernelEvaluation storeKernelEval() {
 		KernelEvaluation kernelEvaluationTmp = new KernelEvaluation();
 		kernelEvaluationTmp.setExperiment(this.getExperiment());
 		kernelEvaluationTmp.setFoldId(this.getFoldId());
@@ -296,8 +425,16 @@ public class CorpusKernelEvaluatorImpl implements CorpusKernelEvaluator {
 		kernelEvaluationTmp.setCorpusName(this.getName());
 		kernelEvaluationTmp.setParam1(getParam1());
 		kernelEvaluationTmp.setParam2(getParam2());
-		final KernelEvaluation kernelEvaluation = this.kernelEvaluationDao
-				.storeKernelEval(kernelEvaluationTmp);
+		return this.kernelEvaluationDao.storeKernelEval(kernelEvaluationTmp);
+	}
+
+	/**
+	 * evaluate a slice of the training rows. Use to split the evaluation
+	 * across processes.
+	 */
+	public void evaluateKernelOnCorpus(final Map<Long, Node> instanceIDMap,
+			int nMod, int nSlice, boolean evalTest) {
+		final KernelEvaluation kernelEvaluation = storeKernelEval();
 		final List<Long> documentIds = new ArrayList<Long>();
 		final List<Long> testDocumentIds = new ArrayList<Long>();
 		loadDocumentIds(documentIds, testDocumentIds, instanceIDQuery);
@@ -358,6 +495,10 @@ public class CorpusKernelEvaluatorImpl implements CorpusKernelEvaluator {
 		}
 	}
 
+	public int getBatchSize() {
+		return batchSize;
+	}
+
 	public DataSource getDataSource() {
 		return dataSource;
 	}
@@ -454,6 +595,10 @@ public class CorpusKernelEvaluatorImpl implements CorpusKernelEvaluator {
 		});
 	}
 
+	public void setBatchSize(int batchSize) {
+		this.batchSize = batchSize;
+	}
+
 	public void setDataSource(DataSource dataSource) {
 		this.dataSource = dataSource;
 		this.jdbcTemplate = new JdbcTemplate(dataSource);		
@@ -0,0 +1,135 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ctakes.ytex.kernel.evaluator;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Kernel evaluations of a corpus in a single float array.
+ * <p/>
+ * Rows 0 to trainSize-1 are the training instances, rows trainSize to
+ * trainSize+testSize-1 the test instances. Columns are the training
+ * instances. The training block is symmetric, so only the lower triangle
+ * (column <= row) is stored, row by row. The test rows follow, each with a
+ * value for every training instance. This is what
+ * {@link CorpusKernelEvaluatorImpl} evaluates: train x train and test x train,
+ * but not test x test.
+ * <p/>
+ * The evaluated cells are tracked in a bit set, so a kernel that evaluates to
+ * NaN is not evaluated again. The bits are set with compare and swap: tiles
+ * evaluated concurrently by {@link GramMatrixEvaluator} share the words at
+ * their borders, which a {@link java.util.BitSet} would lose. A 20k instance
+ * training set takes 800MB.
+ */
+public class GramMatrix {
+	private final int trainSize;
+	private final int testSize;
+	private final int trainCellCount;
+	private final float[] cells;
+	private final AtomicLongArray evaluated;
+
+	public GramMatrix(int trainSize, int testSize) {
+		long trainCells = (long) trainSize * (trainSize + 1) / 2;
+		long cellCount = trainCells + (long) testSize * trainSize;
+		if (cellCount > Integer.MAX_VALUE - 8) {
+			throw new IllegalArgumentException("gram matrix too large: "
+					+ trainSize + " training and " + testSize
+					+ " test instances");
+		}
+		this.trainSize = trainSize;
+		this.testSize = testSize;
+		this.trainCellCount = (int) trainCells;
+		this.cells = new float[(int) cellCount];
+		Arrays.fill(cells, Float.NaN);
+		this.evaluated = new AtomicLongArray((int) ((cellCount + 63) >>> 6));
+	}
+
+	public int getTrainSize() {
+		return trainSize;
+	}
+
+	public int getTestSize() {
+		return testSize;
+	}
+
+	/**
+	 * @return number of rows, training and test instances
+	 */
+	public int getRowCount() {
+		return trainSize + testSize;
+	}
+
+	/**
+	 * @return number of stored cells in the row, i.e. row+1 for training rows,
+	 *         trainSize for test rows
+	 */
+	public int getColumnCount(int row) {
+		return row < trainSize ? row + 1 : trainSize;
+	}
+
+	/**
+	 * @param row
+	 *            training or test instance
+	 * @param col
+	 *            training instance. for training rows col may be greater than
+	 *            row, the matrix is symmetric
+	 * @return index of the cell in the array, unique for the pair of instances
+	 */
+	public int index(int row, int col) {
+		if (row < trainSize) {
+			if (col > row) {
+				int tmp = row;
+				row = col;
+				col = tmp;
+			}
+			return (int) ((long) row * (row + 1) / 2) + col;
+		}
+		return trainCellCount + (row - trainSize) * trainSize + col;
+	}
+
+	/**
+	 * @return kernel evaluation, NaN if not evaluated. The kernel may evaluate
+	 *         to NaN as well, see {@link #isEvaluated(int, int)}.
+	 */
+	public float get(int row, int col) {
+		return cells[index(row, col)];
+	}
+
+	/**
+	 * store the evaluation and mark the cell as evaluated. Cells may be set
+	 * concurrently by different threads.
+	 */
+	public void set(int row, int col, float value) {
+		int index = index(row, col);
+		cells[index] = value;
+		int word = index >>> 6;
+		long bit = 1L << index;
+		long bits;
+		do {
+			bits = evaluated.get(word);
+		} while ((bits & bit) == 0
+				&& !evaluated.compareAndSet(word, bits, bits | bit));
+	}
+
+	public boolean isEvaluated(int row, int col) {
+		int index = index(row, col);
+		return (evaluated.get(index >>> 6) & (1L << index)) != 0;
+	}
+}
@@ -0,0 +1,139 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ctakes.ytex.kernel.evaluator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import org.apache.ctakes.ytex.kernel.tree.Node;
+
+/**
+ * Evaluate a kernel on the cells of a {@link GramMatrix} on a fork join pool.
+ * <p/>
+ * The rows are split into square tiles of blockSize x blockSize cells. A tile
+ * is evaluated by a single thread, so the instances of a tile and their
+ * cached sub-kernel evaluations are reused while they are hot. Only the lower
+ * triangle of the training block is evaluated.
+ * <p/>
+ * The kernel must be thread safe. Kernels are evaluated as
+ * <code>K(column instance, row instance)</code>, i.e. the earlier training
+ * instance is on the left, as in
+ * {@link CorpusKernelEvaluatorImpl#evaluateKernelOnCorpus(java.util.Map, int, int, boolean)}
+ * .
+ */
+public class GramMatrixEvaluator {
+	public static final int DEFAULT_BLOCK_SIZE = 64;
+
+	private final Kernel kernel;
+	private final ForkJoinPool pool;
+	private final int blockSize;
+
+	public GramMatrixEvaluator(Kernel kernel, ForkJoinPool pool, int blockSize) {
+		this.kernel = kernel;
+		this.pool = pool;
+		this.blockSize = blockSize;
+	}
+
+	/**
+	 * evaluate the cells of the rows that are not yet evaluated
+	 *
+	 * @param matrix
+	 *            gram matrix, evaluated cells are not evaluated again
+	 * @param instances
+	 *            instance trees, indexed by row: training instances followed
+	 *            by test instances. Cells of null instances are not evaluated.
+	 * @param rowStart
+	 *            first row
+	 * @param rowEnd
+	 *            row after the last row
+	 * @return number of kernel evaluations
+	 */
+	public long evaluateRows(GramMatrix matrix, Node[] instances, int rowStart,
+			int rowEnd) {
+		List<int[]> tiles = new ArrayList<int[]>();
+		for (int rowLo = rowStart; rowLo < rowEnd; rowLo += blockSize) {
+			int rowHi = Math.min(rowEnd, rowLo + blockSize);
+			// number of columns of the widest row in this block
+			int colEnd = matrix.getColumnCount(rowHi - 1);
+			for (int colLo = 0; colLo < colEnd; colLo += blockSize) {
+				tiles.add(new int[] { rowLo, rowHi, colLo,
+						Math.min(colEnd, colLo + blockSize) });
+			}
+		}
+		if (tiles.isEmpty())
+			return 0;
+		return pool.invoke(new TileTask(matrix, instances, tiles, 0,
+				tiles.size()));
+	}
+
+	private long evaluateTile(GramMatrix matrix, Node[] instances, int[] tile) {
+		long count = 0;
+		for (int row = tile[0]; row < tile[1]; row++) {
+			Node rowInstance = instances[row];
+			if (rowInstance == null)
+				continue;
+			int colHi = Math.min(tile[3], matrix.getColumnCount(row));
+			for (int col = tile[2]; col < colHi; col++) {
+				Node colInstance = instances[col];
+				if (colInstance != null && !matrix.isEvaluated(row, col)) {
+					matrix.set(row, col,
+							(float) kernel.evaluate(colInstance, rowInstance));
+					count++;
+				}
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * split the tiles in halves until a task has a single tile
+	 */
+	private class TileTask extends RecursiveTask<Long> {
+		private static final long serialVersionUID = 1L;
+		private final GramMatrix matrix;
+		private final Node[] instances;
+		private final List<int[]> tiles;
+		private final int lo;
+		private final int hi;
+
+		TileTask(GramMatrix matrix, Node[] instances, List<int[]> tiles,
+				int lo, int hi) {
+			this.matrix = matrix;
+			this.instances = instances;
+			this.tiles = tiles;
+			this.lo = lo;
+			this.hi = hi;
+		}
+
+		@Override
+		protected Long compute() {
+			if (hi - lo == 1) {
+				return evaluateTile(matrix, instances, tiles.get(lo));
+			}
+			int mid = (lo + hi) >>> 1;
+			TileTask left = new TileTask(matrix, instances, tiles, lo, mid);
+			left.fork();
+			long count = new TileTask(matrix, instances, tiles, mid, hi)
+					.compute();
+			return count + left.join();
+		}
+	}
+}
@@ -0,0 +1,212 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ctakes.ytex.kernel.evaluator;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cache of symmetric kernel evaluations in primitive arrays. Replaces the
+ * ehcache used by {@link CacheKernel}: an ehcache Element, an
+ * {@link org.apache.ctakes.ytex.kernel.OrderedPair} key and a boxed Double
+ * per evaluation cost more than many of the evaluations themselves.
+ * <p/>
+ * Each distinct object (by equals/hashCode) is given an int id. The pair of
+ * ids, smaller first, is packed into a long key. Keys and values are kept in
+ * open addressing tables with linear probing, split into segments that are
+ * locked independently. When a segment is full it is cleared - evaluations
+ * are cheap to recompute relative to an LRU bookkeeping.
+ * <p/>
+ * The object to id map is never cleared, so the objects should come from a
+ * bounded set, e.g. concept ids or the nodes of the instance trees.
+ */
+public class SymmetricPairCache {
+	private static final int SEGMENT_COUNT = 64;
+	private static final int MIN_SEGMENT_CAPACITY = 64;
+	private static final long EMPTY = 0;
+	/**
+	 * returned by {@link Segment#get(long)} for a pair that is not cached. A
+	 * signaling NaN, which {@link Double#doubleToLongBits(double)} never
+	 * returns, so a cached NaN is not mistaken for a miss.
+	 */
+	private static final long MISSING = 0x7ff0000000000001L;
+
+	private final ConcurrentMap<Object, Integer> objectIds = new ConcurrentHashMap<Object, Integer>();
+	private final AtomicInteger nextId = new AtomicInteger(1);
+	private final Segment[] segments = new Segment[SEGMENT_COUNT];
+
+	/**
+	 * @param maxSize
+	 *            approximate maximum number of cached evaluations
+	 */
+	public SymmetricPairCache(int maxSize) {
+		int maxSegmentSize = Math.max(MIN_SEGMENT_CAPACITY / 2, maxSize
+				/ SEGMENT_COUNT);
+		for (int i = 0; i < SEGMENT_COUNT; i++) {
+			segments[i] = new Segment(maxSegmentSize);
+		}
+	}
+
+	/**
+	 * @return cached evaluation of the pair. If the pair is not in the cache
+	 *         it is evaluated by the kernel and cached, NaN evaluations
+	 *         included.
+	 */
+	public double get(Object o1, Object o2, Kernel kernel) {
+		long key = getKey(o1, o2);
+		Segment segment = getSegment(key);
+		long bits = segment.get(key);
+		if (bits != MISSING)
+			return Double.longBitsToDouble(bits);
+		double value = kernel.evaluate(o1, o2);
+		segment.put(key, value);
+		return value;
+	}
+
+	/**
+	 * @return true if the evaluation of the pair is cached
+	 */
+	public boolean contains(Object o1, Object o2) {
+		long key = getKey(o1, o2);
+		return getSegment(key).get(key) != MISSING;
+	}
+
+	public void put(Object o1, Object o2, double value) {
+		long key = getKey(o1, o2);
+		getSegment(key).put(key, value);
+	}
+
+	/**
+	 * @return number of cached evaluations
+	 */
+	public int size() {
+		int size = 0;
+		for (Segment segment : segments) {
+			size += segment.size();
+		}
+		return size;
+	}
+
+	private int getId(Object o) {
+		Integer id = objectIds.get(o);
+		if (id == null) {
+			Integer newId = nextId.getAndIncrement();
+			id = objectIds.putIfAbsent(o, newId);
+			if (id == null)
+				id = newId;
+		}
+		return id;
+	}
+
+	/**
+	 * ids start at 1, so a key is never {@link #EMPTY}
+	 */
+	private long getKey(Object o1, Object o2) {
+		long id1 = getId(o1);
+		long id2 = getId(o2);
+		return id1 <= id2 ? (id1 << 32) | id2 : (id2 << 32) | id1;
+	}
+
+	private Segment getSegment(long key) {
+		return segments[(int) (mix(key) >>> 58)];
+	}
+
+	/**
+	 * murmur3 finalizer - the high bits select the segment, the low bits the
+	 * slot
+	 */
+	private static long mix(long key) {
+		key ^= key >>> 33;
+		key *= 0xff51afd7ed558ccdL;
+		key ^= key >>> 33;
+		key *= 0xc4ceb9fe1a85ec53L;
+		key ^= key >>> 33;
+		return key;
+	}
+
+	private static final class Segment {
+		private final int maxSize;
+		private long[] keys = new long[MIN_SEGMENT_CAPACITY];
+		private double[] values = new double[MIN_SEGMENT_CAPACITY];
+		private int size = 0;
+
+		Segment(int maxSize) {
+			this.maxSize = maxSize;
+		}
+
+		/**
+		 * @return bits of the cached value, {@link #MISSING} if not cached
+		 */
+		synchronized long get(long key) {
+			int mask = keys.length - 1;
+			int slot = (int) mix(key) & mask;
+			while (keys[slot] != EMPTY) {
+				if (keys[slot] == key)
+					return Double.doubleToLongBits(values[slot]);
+				slot = (slot + 1) & mask;
+			}
+			return MISSING;
+		}
+
+		synchronized void put(long key, double value) {
+			if (size >= maxSize) {
+				Arrays.fill(keys, EMPTY);
+				size = 0;
+			} else if (2 * (size + 1) > keys.length) {
+				resize();
+			}
+			int mask = keys.length - 1;
+			int slot = (int) mix(key) & mask;
+			while (keys[slot] != EMPTY) {
+				if (keys[slot] == key) {
+					values[slot] = value;
+					return;
+				}
+				slot = (slot + 1) & mask;
+			}
+			keys[slot] = key;
+			values[slot] = value;
+			size++;
+		}
+
+		synchronized int size() {
+			return size;
+		}
+
+		private void resize() {
+			long[] oldKeys = keys;
+			double[] oldValues = values;
+			keys = new long[oldKeys.length * 2];
+			values = new double[oldValues.length * 2];
+			int mask = keys.length - 1;
+			for (int i = 0; i < oldKeys.length; i++) {
+				if (oldKeys[i] != EMPTY) {
+					int slot = (int) mix(oldKeys[i]) & mask;
+					while (keys[slot] != EMPTY) {
+						slot = (slot + 1) & mask;
+					}
+					keys[slot] = oldKeys[i];
+					values[slot] = oldValues[i];
+				}
+			}
+		}
+	}
+}
@@ -182,7 +182,8 @@ public interface ConceptSimilarityService {
 			String concept2, Map<String, Double> conceptFilter, boolean lcs);
 
 	/**
-	 * compute similarity for a list of concept pairs
+	 * compute similarity for a list of concept pairs. The pairs may be
+	 * computed in parallel.
 	 * 
 	 * @param conceptPairs
 	 *            required, concept pairs for which similarity should be
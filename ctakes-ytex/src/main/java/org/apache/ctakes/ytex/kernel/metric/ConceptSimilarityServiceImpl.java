@@ -38,6 +38,8 @@ import java.util.Map;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import net.sf.ehcache.Cache;
 import net.sf.ehcache.CacheManager;
@@ -59,7 +61,8 @@ import org.apache.ctakes.ytex.kernel.OrderedPair;
 import org.apache.ctakes.ytex.kernel.SimSvcContextHolder;
 import org.apache.ctakes.ytex.kernel.dao.ClassifierEvaluationDao;
 import org.apache.ctakes.ytex.kernel.dao.ConceptDao;
-import org.apache.ctakes.ytex.kernel.model.ConcRel;
+import org.apache.ctakes.ytex.kernel.model.CompactConceptGraph;
+import org.apache.ctakes.ytex.kernel.model.ConceptAncestorIndex;
 import org.apache.ctakes.ytex.kernel.model.ConceptGraph;
 import org.apache.ctakes.ytex.kernel.model.FeatureRank;
 import org.apache.ctakes.ytex.kernel.pagerank.PageRankService;
@@ -265,6 +268,32 @@ public class ConceptSimilarityServiceImpl implements ConceptSimilarityService {
 
 	private ConceptGraph cg = null;
 
+	/**
+	 * the compact graph of cg, used for lcs, depth and ic
+	 */
+	private CompactConceptGraph ccg = null;
+
+	/**
+	 * ancestors of each concept, used for lcs and path length. null for
+	 * graphs with cycles.
+	 */
+	private ConceptAncestorIndex ancestorIndex = null;
+
+	private boolean useAncestorIndex = true;
+
+	/**
+	 * default bound on the size of the ancestor index, about 200 MB
+	 */
+	private static final long DEFAULT_ANCESTOR_INDEX_MAX_ENTRIES = 1L << 25;
+
+	private long ancestorIndexMaxEntries = DEFAULT_ANCESTOR_INDEX_MAX_ENTRIES;
+
+	/**
+	 * batch similarity computes at most this many concept pairs in one fork
+	 * join task
+	 */
+	private static final int SIMILARITY_BATCH_SIZE = 64;
+
 	private ClassifierEvaluationDao classifierEvaluationDao;
 
 	private ConceptDao conceptDao;
@@ -528,9 +557,9 @@ public class ConceptSimilarityServiceImpl implements ConceptSimilarityService {
 		// if (frMap.containsKey(concept))
 		// return frMap.get(concept).getRank();
 		// }
-		ConcRel cr = this.cg.getConceptMap().get(concept);
-		if (cr != null)
-			return cr.getDepth();
+		int node = this.ccg.getNodeIndex(concept);
+		if (node >= 0)
+			return this.ccg.getDepth(node);
 		return 0;
 	}
 
@@ -538,9 +567,9 @@ public class ConceptSimilarityServiceImpl implements ConceptSimilarityService {
 	public double getIC(String concept, boolean intrinsicICMap) {
 		double ic = 0d;
 		if (intrinsicICMap) {
-			ConcRel cr = this.cg.getConceptMap().get(concept);
-			if (cr != null)
-				ic = cr.getIntrinsicInfoContent();
+			int node = this.ccg.getNodeIndex(concept);
+			if (node >= 0)
+				ic = this.ccg.getIntrinsicInfoContent(node);
 		} else {
 			Double icC = null;
 			if (isPreload()) {
@@ -616,13 +645,27 @@ public class ConceptSimilarityServiceImpl implements ConceptSimilarityService {
 	public int getLCS(String concept1, String concept2, Set<String> lcses,
 			List<LCSPath> lcsPaths) {
 		int lcsDist = 0;
-		ConcRel cr1 = getConceptGraph().getConceptMap().get(concept1);
-		ConcRel cr2 = getConceptGraph().getConceptMap().get(concept2);
-		if (cr1 != null && cr2 != null) {
+		int node1 = this.ccg.getNodeIndex(concept1);
+		int node2 = this.ccg.getNodeIndex(concept2);
+		if (node1 >= 0 && node2 >= 0) {
 			lcses.clear();
-			if (lcsPaths == null) {
+			if (ancestorIndex != null) {
+				// intersect the ancestors, walk the paths only if asked for
+				Set<Integer> lcsNodes = new HashSet<Integer>(2);
+				lcsDist = ancestorIndex.getLeastCommonConcept(node1, node2,
+						lcsNodes);
+				if (lcsPaths != null)
+					lcsPaths.clear();
+				for (int lcsNode : lcsNodes) {
+					lcses.add(this.ccg.getConceptID(lcsNode));
+					if (lcsPaths != null)
+						lcsPaths.add(ancestorIndex.getLCSPath(ccg, node1,
+								node2, lcsNode));
+				}
+			} else if (lcsPaths == null) {
 				// no need to get paths which we don't cache - look in the cache
-				lcsDist = getLCSFromCache(cr1, cr2, lcses);
+				lcsDist = getLCSFromCache(concept1, node1, concept2, node2,
+						lcses);
 			} else {
 				lcsPaths.clear();
 				// need to get paths - compute the lcses and their paths
@@ -633,9 +676,9 @@ public class ConceptSimilarityServiceImpl implements ConceptSimilarityService {
 			}
 		} else {
 			if (log.isDebugEnabled()) {
-				if (cr1 == null)
+				if (node1 < 0)
 					log.debug("could not find concept:" + concept1);
-				if (cr2 == null)
+				if (node2 < 0)
 					log.debug("could not find concept:" + concept2);
 			}
 		}
@@ -647,14 +690,13 @@ public class ConceptSimilarityServiceImpl implements ConceptSimilarityService {
 	}
 
 	@SuppressWarnings("unchecked")
-	private int getLCSFromCache(ConcRel cr1, ConcRel cr2, Set<String> lcses) {
+	private int getLCSFromCache(String concept1, int node1, String concept2,
+			int node2, Set<String> lcses) {
 		StringBuilder cacheKeyBuilder = new StringBuilder(this.conceptGraphName);
-		cacheKeyBuilder
-				.append(cr1.getConceptID().compareTo(cr2.getConceptID()) < 0 ? cr1
-						.getConceptID() : cr2.getConceptID());
-		cacheKeyBuilder
-				.append(cr1.getConceptID().compareTo(cr2.getConceptID()) >= 0 ? cr2
-						.getConceptID() : cr1.getConceptID());
+		cacheKeyBuilder.append(concept1.compareTo(concept2) < 0 ? concept1
+				: concept2);
+		cacheKeyBuilder.append(concept1.compareTo(concept2) >= 0 ? concept2
+				: concept1);
 		String cacheKey = cacheKeyBuilder.toString();
 		Element e = this.lcsCache != null ? this.lcsCache.get(cacheKey) : null;
 		if (e != null) {
@@ -669,13 +711,14 @@ public class ConceptSimilarityServiceImpl implements ConceptSimilarityService {
 		} else {
 			// missed the cache - save the lcs
 			Object[] val = null;
-			Set<ConcRel> lcsCRSet = new HashSet<ConcRel>(2);
-			int dist = ConcRel.getLeastCommonConcept(cr1, cr2, lcsCRSet, null);
+			Set<Integer> lcsNodes = new HashSet<Integer>(2);
+			int dist = this.ccg.getLeastCommonConcept(node1, node2, lcsNodes,
+					null);
 			if (dist >= 0) {
 				val = new Object[2];
 				val[0] = dist;
-				for (ConcRel cr : lcsCRSet) {
-					lcses.add(cr.getConceptID());
+				for (int lcsNode : lcsNodes) {
+					lcses.add(this.ccg.getConceptID(lcsNode));
 				}
 				val[1] = lcses;
 			}
@@ -714,6 +757,9 @@ public class ConceptSimilarityServiceImpl implements ConceptSimilarityService {
 		if (cg == null) {
 			log.warn("concept graph null, name: " + conceptGraphName);
 		} else {
+			ccg = cg.getCompactGraph();
+			if (isUseAncestorIndex() && cg.getDepthMax() > 0)
+				initAncestorIndex();
 			initSimilarityMetricMap();
 			if (isPreload()) {
 				try {
@@ -826,9 +872,8 @@ public class ConceptSimilarityServiceImpl implements ConceptSimilarityService {
 		}
 		ImmutableMap.Builder<String, Double> mb = new ImmutableMap.Builder<String, Double>();
 		for (Map.Entry<String, Double> corpusICEntry : corpusICMap.entrySet()) {
-			ConcRel cr = cg.getConceptMap().get(corpusICEntry.getKey());
-			if (cr != null) {
-				mb.put(cr.getConceptID(), corpusICEntry.getValue());
+			if (ccg.getNodeIndex(corpusICEntry.getKey()) >= 0) {
+				mb.put(corpusICEntry.getKey(), corpusICEntry.getValue());
 			}
 		}
 		this.corpusICMap = mb.build();
@@ -845,6 +890,24 @@ public class ConceptSimilarityServiceImpl implements ConceptSimilarityService {
 		// }
 	}
 
+	/**
+	 * build the ancestor index for the concept graph
+	 */
+	private void initAncestorIndex() {
+		long timeBegin = System.currentTimeMillis();
+		this.ancestorIndex = ConceptAncestorIndex.build(ccg,
+				ancestorIndexMaxEntries);
+		if (this.ancestorIndex == null) {
+			log.warn("concept graph has cycles or more than "
+					+ ancestorIndexMaxEntries
+					+ " ancestor entries, will search for lcses");
+		} else {
+			log.info("built ancestor index, entries: "
+					+ ancestorIndex.size() + ", time(ms): "
+					+ (System.currentTimeMillis() - timeBegin));
+		}
+	}
+
 	/**
 	 * initialize the metrics
 	 */
@@ -893,15 +956,49 @@ public class ConceptSimilarityServiceImpl implements ConceptSimilarityService {
 		return preload;
 	}
 
+	public boolean isUseAncestorIndex() {
+		return useAncestorIndex;
+	}
+
+	/**
+	 * @param useAncestorIndex
+	 *            if true (default) precompute the ancestors of every concept
+	 *            to find lcses. Set to false to save memory on large graphs.
+	 */
+	public void setUseAncestorIndex(boolean useAncestorIndex) {
+		this.useAncestorIndex = useAncestorIndex;
+	}
+
+	public long getAncestorIndexMaxEntries() {
+		return ancestorIndexMaxEntries;
+	}
+
+	/**
+	 * @param ancestorIndexMaxEntries
+	 *            maximum number of entries in the ancestor index, each takes 6
+	 *            bytes. If the transitive closure of the graph is larger, no
+	 *            index is built and lcses are found by searching the graph.
+	 */
+	public void setAncestorIndexMaxEntries(long ancestorIndexMaxEntries) {
+		this.ancestorIndexMaxEntries = ancestorIndexMaxEntries;
+	}
+
 	public int lcs(String concept1, String concept2, List<LCSPath> lcsPaths) {
-		ConcRel cr1 = cg.getConceptMap().get(concept1);
-		ConcRel cr2 = cg.getConceptMap().get(concept2);
+		int node1 = ccg.getNodeIndex(concept1);
+		int node2 = ccg.getNodeIndex(concept2);
 		int dist = -1;
-		if (cr1 != null && cr2 != null) {
-			Set<ConcRel> crlcses = new HashSet<ConcRel>();
-			Map<ConcRel, LCSPath> crpaths = new HashMap<ConcRel, LCSPath>();
-			dist = ConcRel.getLeastCommonConcept(cr1, cr2, crlcses, crpaths);
-			lcsPaths.addAll(crpaths.values());
+		if (node1 >= 0 && node2 >= 0 && ancestorIndex != null) {
+			Set<Integer> lcsNodes = new HashSet<Integer>(2);
+			dist = ancestorIndex.getLeastCommonConcept(node1, node2, lcsNodes);
+			for (int lcsNode : lcsNodes)
+				lcsPaths.add(ancestorIndex.getLCSPath(ccg, node1, node2,
+						lcsNode));
+		} else if (node1 >= 0 && node2 >= 0) {
+			Set<Integer> lcsNodes = new HashSet<Integer>();
+			Map<Integer, LCSPath> lcsNodePaths = new HashMap<Integer, LCSPath>();
+			dist = ccg.getLeastCommonConcept(node1, node2, lcsNodes,
+					lcsNodePaths);
+			lcsPaths.addAll(lcsNodePaths.values());
 		}
 		return dist;
 	}
@@ -1060,17 +1157,71 @@ public class ConceptSimilarityServiceImpl implements ConceptSimilarityService {
 		this.transactionManager = transactionManager;
 	}
 
+	/**
+	 * compute the similarity of the concept pairs on the fork join pool. If ic
+	 * is not preloaded, it is loaded from the database, so the pairs are
+	 * computed on the calling thread.
+	 */
 	@Override
 	public List<ConceptPairSimilarity> similarity(
 			List<ConceptPair> conceptPairs, List<SimilarityMetricEnum> metrics,
 			Map<String, Double> conceptFilter, boolean lcs) {
-		List<ConceptPairSimilarity> conceptSimMap = new ArrayList<ConceptPairSimilarity>(
-				conceptPairs.size());
-		for (ConceptPair conceptPair : conceptPairs) {
-			conceptSimMap.add(similarity(metrics, conceptPair.getConcept1(),
-					conceptPair.getConcept2(), conceptFilter, lcs));
+		ConceptPairSimilarity[] sims = new ConceptPairSimilarity[conceptPairs
+				.size()];
+		SimilarityTask task = new SimilarityTask(conceptPairs, metrics,
+				conceptFilter, lcs, sims, 0, sims.length);
+		if (isPreload() && sims.length > SIMILARITY_BATCH_SIZE) {
+			ForkJoinPool.commonPool().invoke(task);
+		} else {
+			task.compute();
+		}
+		return new ArrayList<ConceptPairSimilarity>(Arrays.asList(sims));
+	}
+
+	/**
+	 * compute the similarity of a range of concept pairs, split the range
+	 * until it is small enough.
+	 */
+	private class SimilarityTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final List<ConceptPair> conceptPairs;
+		private final List<SimilarityMetricEnum> metrics;
+		private final Map<String, Double> conceptFilter;
+		private final boolean lcs;
+		private final ConceptPairSimilarity[] sims;
+		private final int begin;
+		private final int end;
+
+		SimilarityTask(List<ConceptPair> conceptPairs,
+				List<SimilarityMetricEnum> metrics,
+				Map<String, Double> conceptFilter, boolean lcs,
+				ConceptPairSimilarity[] sims, int begin, int end) {
+			this.conceptPairs = conceptPairs;
+			this.metrics = metrics;
+			this.conceptFilter = conceptFilter;
+			this.lcs = lcs;
+			this.sims = sims;
+			this.begin = begin;
+			this.end = end;
+		}
+
+		@Override
+		protected void compute() {
+			if (end - begin <= SIMILARITY_BATCH_SIZE
+					|| getPool() == null) {
+				for (int i = begin; i < end; i++) {
+					ConceptPair conceptPair = conceptPairs.get(i);
+					sims[i] = similarity(metrics, conceptPair.getConcept1(),
+							conceptPair.getConcept2(), conceptFilter, lcs);
+				}
+			} else {
+				int mid = (begin + end) >>> 1;
+				invokeAll(new SimilarityTask(conceptPairs, metrics,
+						conceptFilter, lcs, sims, begin, mid),
+						new SimilarityTask(conceptPairs, metrics,
+								conceptFilter, lcs, sims, mid, end));
+			}
 		}
-		return conceptSimMap;
 	}
 
 	/**
@@ -0,0 +1,704 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ctakes.ytex.kernel.model;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.ctakes.ytex.kernel.metric.LCSPath;
+
+/**
+ * A concept graph in compressed sparse row format.
+ * <p/>
+ * Concepts are identified by their node index in the {@link ConceptGraph}.
+ * The parents of node i are parents[parentOffsets[i] .. parentOffsets[i+1]),
+ * the children are stored the same way. Depth and intrinsic information
+ * content are stored in columns indexed by node, concept ids in a dictionary
+ * sorted for binary search.
+ * <p/>
+ * File layout, all values big-endian:
+ *
+ * <pre>
+ *   int magic, int version, int node count, int parent edge count,
+ *   int child edge count, int root node (-1 if none), int concept id bytes,
+ *   short depthMax, double intrinsicICMax,
+ *   long source length (-1 if unknown), long source last modified (-1 if unknown)
+ *   double[node count] intrinsic info content
+ *   int[node count + 1] parent offsets, int[parent edge count] parents
+ *   int[node count + 1] child offsets, int[child edge count] children
+ *   int[node count + 1] concept id offsets
+ *   int[node count] nodes sorted by concept id
+ *   short[node count] depth
+ *   byte[concept id bytes] utf-8 concept ids
+ * </pre>
+ *
+ * A file is memory-mapped, so loading a graph does not deserialize any
+ * objects and the graph is paged in by the os as it is used. A graph is
+ * immutable and can be shared by threads.
+ * <p/>
+ * The header records the length and modification time of the serialized
+ * graph the file was converted from, so that a reader can tell whether the
+ * file is out of date.
+ */
+public class CompactConceptGraph {
+	public static final int MAGIC = 0x59434347; // "YCCG"
+	private static final int VERSION = 2;
+	private static final int HEADER_BYTES = 7 * 4 + 2 + 8 + 2 * 8;
+
+	/**
+	 * provides the sections of a graph file
+	 */
+	private interface SectionSource {
+		ByteBuffer get(long offset, long bytes) throws IOException;
+	}
+
+	/**
+	 * memory-map a concept graph file
+	 *
+	 * @param file
+	 *            written by {@link #write(ConceptGraph, File)}
+	 * @return graph backed by the mapped file
+	 */
+	public static CompactConceptGraph map(File file) throws IOException {
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try {
+			final FileChannel channel = raf.getChannel();
+			// mappings remain valid after the channel is closed
+			return load(new SectionSource() {
+				@Override
+				public ByteBuffer get(long offset, long bytes)
+						throws IOException {
+					if (bytes > Integer.MAX_VALUE)
+						throw new IOException(
+								"concept graph section too large to map: "
+										+ bytes);
+					return channel.map(FileChannel.MapMode.READ_ONLY, offset,
+							bytes);
+				}
+			}, file.length());
+		} finally {
+			raf.close();
+		}
+	}
+
+	/**
+	 * convert a concept graph held on the heap, e.g. one that was just created
+	 * or deserialized.
+	 *
+	 * @param cg
+	 *            concept graph with ConcRel objects
+	 * @return graph backed by a heap buffer
+	 */
+	public static CompactConceptGraph build(ConceptGraph cg) {
+		try {
+			ByteArrayOutputStream bos = new ByteArrayOutputStream();
+			write(cg, bos, -1, -1);
+			final ByteBuffer buffer = ByteBuffer.wrap(bos.toByteArray());
+			return load(new SectionSource() {
+				@Override
+				public ByteBuffer get(long offset, long bytes) {
+					ByteBuffer section = buffer.duplicate();
+					section.position((int) offset);
+					section.limit((int) (offset + bytes));
+					return section.slice();
+				}
+			}, buffer.capacity());
+		} catch (IOException e) {
+			// can't happen writing to memory
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * write the concept graph to a file
+	 *
+	 * @param cg
+	 *            concept graph with ConcRel objects
+	 * @param file
+	 *            file to write, parent directories must exist
+	 */
+	public static void write(ConceptGraph cg, File file) throws IOException {
+		write(cg, file, -1, -1);
+	}
+
+	/**
+	 * write the concept graph to a file
+	 *
+	 * @param cg
+	 *            concept graph with ConcRel objects
+	 * @param file
+	 *            file to write, parent directories must exist
+	 * @param sourceLength
+	 *            length of the serialized graph cg was read from, -1 if
+	 *            unknown
+	 * @param sourceModified
+	 *            last modification time of the serialized graph, -1 if
+	 *            unknown
+	 */
+	public static void write(ConceptGraph cg, File file, long sourceLength,
+			long sourceModified) throws IOException {
+		OutputStream os = new FileOutputStream(file);
+		try {
+			write(cg, os, sourceLength, sourceModified);
+		} finally {
+			os.close();
+		}
+	}
+
+	private static void write(ConceptGraph cg, OutputStream os,
+			long sourceLength, long sourceModified) throws IOException {
+		List<ConcRel> concepts = cg.getConceptList();
+		int nodeCount = concepts.size();
+		int[][] parents = new int[nodeCount][];
+		int[][] children = new int[nodeCount][];
+		final byte[][] cuis = new byte[nodeCount][];
+		int parentEdges = 0;
+		int childEdges = 0;
+		int cuiBytes = 0;
+		for (ConcRel cr : concepts) {
+			int i = cr.getNodeIndex();
+			parents[i] = toSortedArray(cr.getParentsArray(), cr.getParents());
+			children[i] = toSortedArray(cr.getChildrenArray(),
+					cr.getChildren());
+			cuis[i] = cr.getConceptID().getBytes(StandardCharsets.UTF_8);
+			parentEdges += parents[i].length;
+			childEdges += children[i].length;
+			cuiBytes += cuis[i].length;
+		}
+		Integer[] cuiOrder = new Integer[nodeCount];
+		for (int i = 0; i < nodeCount; i++)
+			cuiOrder[i] = i;
+		Arrays.sort(cuiOrder, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer o1, Integer o2) {
+				return compareBytes(cuis[o1], cuis[o2]);
+			}
+		});
+		ConcRel root = cg.getRoot() != null ? cg.getConceptMap().get(
+				cg.getRoot()) : null;
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+				os, 1 << 16));
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		out.writeInt(nodeCount);
+		out.writeInt(parentEdges);
+		out.writeInt(childEdges);
+		out.writeInt(root != null ? root.getNodeIndex() : -1);
+		out.writeInt(cuiBytes);
+		out.writeShort(cg.getDepthMax());
+		out.writeDouble(cg.getIntrinsicICMax());
+		out.writeLong(sourceLength);
+		out.writeLong(sourceModified);
+		for (int i = 0; i < nodeCount; i++)
+			out.writeDouble(concepts.get(i).getIntrinsicInfoContent());
+		writeRows(out, parents);
+		writeRows(out, children);
+		int offset = 0;
+		for (int i = 0; i < nodeCount; i++) {
+			out.writeInt(offset);
+			offset += cuis[i].length;
+		}
+		out.writeInt(offset);
+		for (int i = 0; i < nodeCount; i++)
+			out.writeInt(cuiOrder[i]);
+		for (int i = 0; i < nodeCount; i++)
+			out.writeShort(concepts.get(i).getDepth());
+		for (int i = 0; i < nodeCount; i++)
+			out.write(cuis[i]);
+		out.flush();
+	}
+
+	/**
+	 * deserialized graphs with cycles only have the node index arrays,
+	 * everything else has the ConcRel sets.
+	 */
+	private static int[] toSortedArray(int[] nodeArray, Set<ConcRel> nodeSet) {
+		int[] nodes;
+		if (nodeArray != null) {
+			nodes = nodeArray.clone();
+		} else {
+			nodes = new int[nodeSet.size()];
+			int i = 0;
+			for (ConcRel cr : nodeSet)
+				nodes[i++] = cr.getNodeIndex();
+		}
+		Arrays.sort(nodes);
+		return nodes;
+	}
+
+	private static void writeRows(DataOutputStream out, int[][] rows)
+			throws IOException {
+		int offset = 0;
+		for (int[] row : rows) {
+			out.writeInt(offset);
+			offset += row.length;
+		}
+		out.writeInt(offset);
+		for (int[] row : rows) {
+			for (int node : row)
+				out.writeInt(node);
+		}
+	}
+
+	private static CompactConceptGraph load(SectionSource source,
+			long fileLength) throws IOException {
+		if (fileLength < HEADER_BYTES)
+			throw new IOException("not a concept graph file");
+		ByteBuffer header = source.get(0, HEADER_BYTES);
+		if (header.getInt() != MAGIC)
+			throw new IOException("not a concept graph file");
+		int version = header.getInt();
+		if (version != VERSION)
+			throw new IOException("unsupported concept graph version "
+					+ version);
+		int nodeCount = header.getInt();
+		int parentEdges = header.getInt();
+		int childEdges = header.getInt();
+		int root = header.getInt();
+		int cuiBytes = header.getInt();
+		short depthMax = header.getShort();
+		double intrinsicICMax = header.getDouble();
+		long sourceLength = header.getLong();
+		long sourceModified = header.getLong();
+		long expected = HEADER_BYTES + 8L * nodeCount + 4L
+				* (4L * nodeCount + 3 + parentEdges + childEdges) + 2L
+				* nodeCount + cuiBytes;
+		if (fileLength != expected)
+			throw new IOException("concept graph file is truncated, expected "
+					+ expected + " bytes, found " + fileLength);
+		long offset = HEADER_BYTES;
+		DoubleBuffer intrinsicIC = source.get(offset, 8L * nodeCount)
+				.asDoubleBuffer();
+		offset += 8L * nodeCount;
+		IntBuffer parentOffsets = source.get(offset, 4L * (nodeCount + 1))
+				.asIntBuffer();
+		offset += 4L * (nodeCount + 1);
+		IntBuffer parents = source.get(offset, 4L * parentEdges)
+				.asIntBuffer();
+		offset += 4L * parentEdges;
+		IntBuffer childOffsets = source.get(offset, 4L * (nodeCount + 1))
+				.asIntBuffer();
+		offset += 4L * (nodeCount + 1);
+		IntBuffer children = source.get(offset, 4L * childEdges)
+				.asIntBuffer();
+		offset += 4L * childEdges;
+		IntBuffer cuiOffsets = source.get(offset, 4L * (nodeCount + 1))
+				.asIntBuffer();
+		offset += 4L * (nodeCount + 1);
+		IntBuffer cuiOrder = source.get(offset, 4L * nodeCount).asIntBuffer();
+		offset += 4L * nodeCount;
+		ShortBuffer depths = source.get(offset, 2L * nodeCount)
+				.asShortBuffer();
+		offset += 2L * nodeCount;
+		ByteBuffer cuis = source.get(offset, cuiBytes);
+		return new CompactConceptGraph(nodeCount, root, depthMax,
+				intrinsicICMax, intrinsicIC, parentOffsets, parents,
+				childOffsets, children, cuiOffsets, cuiOrder, depths, cuis,
+				sourceLength, sourceModified);
+	}
+
+	private static int compareBytes(byte[] b1, byte[] b2) {
+		int n = Math.min(b1.length, b2.length);
+		for (int i = 0; i < n; i++) {
+			int c = (b1[i] & 0xff) - (b2[i] & 0xff);
+			if (c != 0)
+				return c;
+		}
+		return b1.length - b2.length;
+	}
+
+	private final IntBuffer childOffsets;
+	private final IntBuffer children;
+	private final IntBuffer cuiOffsets;
+	private final IntBuffer cuiOrder;
+	private final ByteBuffer cuis;
+	private final ShortBuffer depths;
+	private final short depthMax;
+	private final DoubleBuffer intrinsicIC;
+	private final double intrinsicICMax;
+	private final int nodeCount;
+	private final IntBuffer parentOffsets;
+	private final IntBuffer parents;
+	private final int root;
+	private final long sourceLength;
+	private final long sourceModified;
+
+	private CompactConceptGraph(int nodeCount, int root, short depthMax,
+			double intrinsicICMax, DoubleBuffer intrinsicIC,
+			IntBuffer parentOffsets, IntBuffer parents,
+			IntBuffer childOffsets, IntBuffer children, IntBuffer cuiOffsets,
+			IntBuffer cuiOrder, ShortBuffer depths, ByteBuffer cuis,
+			long sourceLength, long sourceModified) {
+		this.nodeCount = nodeCount;
+		this.root = root;
+		this.depthMax = depthMax;
+		this.intrinsicICMax = intrinsicICMax;
+		this.intrinsicIC = intrinsicIC;
+		this.parentOffsets = parentOffsets;
+		this.parents = parents;
+		this.childOffsets = childOffsets;
+		this.children = children;
+		this.cuiOffsets = cuiOffsets;
+		this.cuiOrder = cuiOrder;
+		this.depths = depths;
+		this.cuis = cuis;
+		this.sourceLength = sourceLength;
+		this.sourceModified = sourceModified;
+	}
+
+	/**
+	 * @return length of the serialized graph this graph was converted from,
+	 *         -1 if unknown
+	 */
+	public long getSourceLength() {
+		return sourceLength;
+	}
+
+	/**
+	 * @return last modification time of the serialized graph this graph was
+	 *         converted from, -1 if unknown
+	 */
+	public long getSourceModified() {
+		return sourceModified;
+	}
+
+	/**
+	 * @return number of concepts
+	 */
+	public int size() {
+		return nodeCount;
+	}
+
+	/**
+	 * @return node index of the root, -1 if the graph has no root
+	 */
+	public int getRootIndex() {
+		return root;
+	}
+
+	public String getRoot() {
+		return root >= 0 ? getConceptID(root) : null;
+	}
+
+	public short getDepthMax() {
+		return depthMax;
+	}
+
+	public double getIntrinsicICMax() {
+		return intrinsicICMax;
+	}
+
+	/**
+	 * binary search the concept id dictionary
+	 *
+	 * @param conceptID
+	 * @return node index of the concept, -1 if it is not in the graph
+	 */
+	public int getNodeIndex(String conceptID) {
+		if (conceptID == null)
+			return -1;
+		byte[] key = conceptID.getBytes(StandardCharsets.UTF_8);
+		int low = 0;
+		int high = nodeCount - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			int node = cuiOrder.get(mid);
+			int c = compareConceptID(node, key);
+			if (c < 0)
+				low = mid + 1;
+			else if (c > 0)
+				high = mid - 1;
+			else
+				return node;
+		}
+		return -1;
+	}
+
+	private int compareConceptID(int node, byte[] key) {
+		int begin = cuiOffsets.get(node);
+		int length = cuiOffsets.get(node + 1) - begin;
+		int n = Math.min(length, key.length);
+		for (int i = 0; i < n; i++) {
+			int c = (cuis.get(begin + i) & 0xff) - (key[i] & 0xff);
+			if (c != 0)
+				return c;
+		}
+		return length - key.length;
+	}
+
+	public String getConceptID(int node) {
+		int begin = cuiOffsets.get(node);
+		byte[] bytes = new byte[cuiOffsets.get(node + 1) - begin];
+		for (int i = 0; i < bytes.length; i++)
+			bytes[i] = cuis.get(begin + i);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	public short getDepth(int node) {
+		return depths.get(node);
+	}
+
+	public double getIntrinsicInfoContent(int node) {
+		return intrinsicIC.get(node);
+	}
+
+	public int getParentCount(int node) {
+		return parentOffsets.get(node + 1) - parentOffsets.get(node);
+	}
+
+	/**
+	 * @param node
+	 * @param i
+	 *            0 &lt;= i &lt; getParentCount(node)
+	 * @return node index of the i'th parent
+	 */
+	public int getParent(int node, int i) {
+		return parents.get(parentOffsets.get(node) + i);
+	}
+
+	/**
+	 * @return node indices of the parents, in ascending order
+	 */
+	public int[] getParents(int node) {
+		return getRow(parentOffsets, parents, node);
+	}
+
+	public int getChildCount(int node) {
+		return childOffsets.get(node + 1) - childOffsets.get(node);
+	}
+
+	/**
+	 * @param node
+	 * @param i
+	 *            0 &lt;= i &lt; getChildCount(node)
+	 * @return node index of the i'th child
+	 */
+	public int getChild(int node, int i) {
+		return children.get(childOffsets.get(node) + i);
+	}
+
+	/**
+	 * @return node indices of the children, in ascending order
+	 */
+	public int[] getChildren(int node) {
+		return getRow(childOffsets, children, node);
+	}
+
+	private static int[] getRow(IntBuffer offsets, IntBuffer values, int node) {
+		int begin = offsets.get(node);
+		int[] row = new int[offsets.get(node + 1) - begin];
+		for (int i = 0; i < row.length; i++)
+			row[i] = values.get(begin + i);
+		return row;
+	}
+
+	public boolean isLeaf(int node) {
+		return getChildCount(node) == 0;
+	}
+
+	public boolean isRoot(int node) {
+		return getParentCount(node) == 0;
+	}
+
+	/**
+	 * create ConcRel objects for code that navigates the graph with them.
+	 *
+	 * @return concept list indexed by node, with parents and children
+	 *         connected, and the parent and child node index arrays set as
+	 *         they are for a deserialized graph
+	 */
+	public List<ConcRel> toConceptList() {
+		List<ConcRel> concepts = new ArrayList<ConcRel>(nodeCount);
+		for (int node = 0; node < nodeCount; node++) {
+			ConcRel cr = new ConcRel(getConceptID(node), node);
+			cr.setDepth(getDepth(node));
+			cr.setIntrinsicInfoContent(getIntrinsicInfoContent(node));
+			concepts.add(cr);
+		}
+		for (ConcRel cr : concepts) {
+			int node = cr.getNodeIndex();
+			int[] parentNodes = new int[getParentCount(node)];
+			for (int i = 0; i < parentNodes.length; i++) {
+				parentNodes[i] = getParent(node, i);
+				cr.getParents().add(concepts.get(parentNodes[i]));
+			}
+			int[] childNodes = new int[getChildCount(node)];
+			for (int i = 0; i < childNodes.length; i++) {
+				childNodes[i] = getChild(node, i);
+				cr.getChildren().add(concepts.get(childNodes[i]));
+			}
+			cr.setParentsArray(parentNodes);
+			cr.setChildrenArray(childNodes);
+		}
+		return concepts;
+	}
+
+	/**
+	 * least common subsumers of two concepts. Same search as
+	 * {@link ConcRel#getLeastCommonConcept(ConcRel, ConcRel, Set, Map)}, on
+	 * node indices.
+	 *
+	 * @param c1
+	 *            node index of concept1
+	 * @param c2
+	 *            node index of concept2
+	 * @param lcses
+	 *            node indices of the least common subsumers, required
+	 * @param paths
+	 *            paths between concepts via lcses, optional. Key - lcs node
+	 *            index. Value - paths to lcs from c1 and c2
+	 * @return path length, -1 if no lcs
+	 */
+	public int getLeastCommonConcept(int c1, int c2, Set<Integer> lcses,
+			Map<Integer, LCSPath> paths) {
+		// concept 1's parent distance map
+		Map<Integer, Integer> cand1 = new HashMap<Integer, Integer>();
+		// concept 2's parent distance map
+		Map<Integer, Integer> cand2 = new HashMap<Integer, Integer>();
+		// paths corresponding to parents, only if asked for
+		Map<Integer, List<Integer>> paths1 = paths != null ? new HashMap<Integer, List<Integer>>()
+				: null;
+		Map<Integer, List<Integer>> paths2 = paths != null ? new HashMap<Integer, List<Integer>>()
+				: null;
+		Set<Integer> parC1 = new HashSet<Integer>();
+		parC1.add(c1);
+		Set<Integer> parC2 = new HashSet<Integer>();
+		parC2.add(c2);
+		Set<Integer> tmp = new HashSet<Integer>();
+		Set<Integer> candidateLCSes = new HashSet<Integer>();
+		int maxIter = -1;
+		int minDist = Integer.MAX_VALUE - 1;
+		int dist = 0;
+		while ((!parC1.isEmpty() || !parC2.isEmpty()) && maxIter != 0) {
+			updateParent(cand1, parC1, tmp, dist, paths1);
+			updateParent(cand2, parC2, tmp, dist, paths2);
+			tmp.clear();
+			tmp.addAll(cand1.keySet());
+			tmp.retainAll(cand2.keySet());
+			tmp.removeAll(candidateLCSes);
+			// we can't stop at the first hit, a shorter path with uneven
+			// lengths could be found in a later iteration
+			if (!tmp.isEmpty()) {
+				candidateLCSes.addAll(tmp);
+				removeParents(tmp, parC1);
+				removeParents(tmp, parC2);
+				for (int lcs : tmp) {
+					int distTmp = cand1.get(lcs) + cand2.get(lcs) + 1;
+					if (distTmp <= minDist) {
+						if (distTmp < minDist)
+							lcses.clear();
+						minDist = distTmp;
+						lcses.add(lcs);
+					}
+					// all additional lcses must be found within the shortest
+					// distance from an lcs to a concept
+					int minLcsToConceptLen = Math.min(cand1.get(lcs),
+							cand2.get(lcs));
+					if (maxIter < 0 || maxIter > minLcsToConceptLen)
+						maxIter = minLcsToConceptLen;
+				}
+			}
+			maxIter--;
+			++dist;
+		}
+		if (lcses.isEmpty())
+			return -1;
+		if (paths != null) {
+			for (int lcs : lcses) {
+				LCSPath lcsPath = new LCSPath();
+				lcsPath.setLcs(getConceptID(lcs));
+				lcsPath.setConcept1Path(toConceptIDs(paths1.get(lcs)));
+				lcsPath.setConcept2Path(toConceptIDs(paths2.get(lcs)));
+				paths.put(lcs, lcsPath);
+			}
+		}
+		return minDist;
+	}
+
+	private List<String> toConceptIDs(List<Integer> nodes) {
+		if (nodes == null)
+			return null;
+		List<String> path = new ArrayList<String>(nodes.size());
+		for (int node : nodes)
+			path.add(getConceptID(node));
+		return path;
+	}
+
+	/**
+	 * remove the parents of candidate lcses from the parents we were going to
+	 * look at in the next iteration
+	 */
+	private void removeParents(Set<Integer> lcses, Set<Integer> par) {
+		for (int lcs : lcses) {
+			for (int i = 0; i < getParentCount(lcs); i++)
+				par.remove(getParent(lcs, i));
+		}
+	}
+
+	/**
+	 * perform 1 iteration of breadth-first search for the lcs.
+	 */
+	private void updateParent(Map<Integer, Integer> cand, Set<Integer> par,
+			Set<Integer> tmp, int dist, Map<Integer, List<Integer>> paths) {
+		tmp.clear();
+		for (int node : par) {
+			if (!cand.containsKey(node)) {
+				cand.put(node, dist);
+				int nParents = getParentCount(node);
+				for (int i = 0; i < nParents; i++) {
+					int parent = getParent(node, i);
+					tmp.add(parent);
+					if (paths != null && !paths.containsKey(parent)) {
+						// path to parent = path to child + child
+						List<Integer> pathChild = paths.get(node);
+						List<Integer> path = new ArrayList<Integer>(
+								pathChild != null ? pathChild.size() + 1 : 1);
+						if (pathChild != null)
+							path.addAll(pathChild);
+						path.add(node);
+						paths.put(parent, path);
+					}
+				}
+			}
+		}
+		tmp.removeAll(cand.keySet());
+		par.clear();
+		par.addAll(tmp);
+	}
+}
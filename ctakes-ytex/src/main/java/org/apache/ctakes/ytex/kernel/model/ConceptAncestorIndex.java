@@ -0,0 +1,307 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ctakes.ytex.kernel.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.ctakes.ytex.kernel.metric.LCSPath;
+
+/**
+ * Ancestors of every concept in an acyclic concept graph, with the length of
+ * the shortest path to each ancestor.
+ * <p/>
+ * The ancestors of a concept, including the concept itself at distance 0, are
+ * stored as a sorted array of node indices. The common ancestors of two
+ * concepts are the intersection of their arrays, so the least common
+ * subsumers and the shortest path between two concepts are found with one
+ * merge of two short arrays instead of a breadth-first search of the graph.
+ * <p/>
+ * The index holds the transitive closure of the graph, which for a deep graph
+ * with many parents per concept can be large, so building it can be bounded
+ * by a maximum number of entries. Each entry takes 6 bytes.
+ * <p/>
+ * The index is built once per concept graph and is immutable.
+ */
+public class ConceptAncestorIndex {
+	/**
+	 * build an index of unbounded size
+	 *
+	 * @param ccg
+	 * @return ancestor index, null if the graph has cycles
+	 */
+	public static ConceptAncestorIndex build(CompactConceptGraph ccg) {
+		return build(ccg, Long.MAX_VALUE);
+	}
+
+	/**
+	 * compute the ancestors of each concept from the ancestors of its
+	 * parents, visiting parents before children.
+	 *
+	 * @param ccg
+	 * @param maxEntries
+	 *            maximum number of ancestor entries, summed over all concepts
+	 * @return ancestor index, null if the graph has cycles or more than
+	 *         maxEntries ancestor entries
+	 */
+	public static ConceptAncestorIndex build(CompactConceptGraph ccg,
+			long maxEntries) {
+		int nodeCount = ccg.size();
+		int[] order = topologicalOrder(ccg);
+		if (order == null)
+			return null;
+		int[] begins = new int[nodeCount];
+		int[] counts = new int[nodeCount];
+		int[] ancestors = new int[Math.max(16, nodeCount * 4)];
+		short[] distances = new short[ancestors.length];
+		int size = 0;
+		// shortest distance to each ancestor of the current node
+		short[] best = new short[nodeCount];
+		Arrays.fill(best, Short.MAX_VALUE);
+		int[] touched = new int[nodeCount];
+		for (int node : order) {
+			int nTouched = 0;
+			best[node] = 0;
+			touched[nTouched++] = node;
+			int nParents = ccg.getParentCount(node);
+			for (int p = 0; p < nParents; p++) {
+				int parent = ccg.getParent(node, p);
+				int end = begins[parent] + counts[parent];
+				for (int a = begins[parent]; a < end; a++) {
+					int ancestor = ancestors[a];
+					short d = (short) Math.min(distances[a] + 1,
+							Short.MAX_VALUE - 1);
+					if (best[ancestor] == Short.MAX_VALUE)
+						touched[nTouched++] = ancestor;
+					if (d < best[ancestor])
+						best[ancestor] = d;
+				}
+			}
+			Arrays.sort(touched, 0, nTouched);
+			if ((long) size + nTouched > maxEntries)
+				return null;
+			if ((long) size + nTouched > Integer.MAX_VALUE - 8)
+				throw new IllegalStateException(
+						"concept graph has too many ancestors to index");
+			if (size + nTouched > ancestors.length) {
+				int capacity = (int) Math.min(Integer.MAX_VALUE - 8,
+						Math.max((long) size + nTouched,
+								(long) ancestors.length * 3 / 2));
+				ancestors = Arrays.copyOf(ancestors, capacity);
+				distances = Arrays.copyOf(distances, capacity);
+			}
+			begins[node] = size;
+			counts[node] = nTouched;
+			for (int t = 0; t < nTouched; t++) {
+				int ancestor = touched[t];
+				ancestors[size] = ancestor;
+				distances[size] = best[ancestor];
+				best[ancestor] = Short.MAX_VALUE;
+				size++;
+			}
+		}
+		return new ConceptAncestorIndex(begins, counts,
+				Arrays.copyOf(ancestors, size), Arrays.copyOf(distances, size));
+	}
+
+	/**
+	 * Kahn's algorithm on the parent links
+	 *
+	 * @return nodes, parents before children. null if there is a cycle
+	 */
+	private static int[] topologicalOrder(CompactConceptGraph ccg) {
+		int nodeCount = ccg.size();
+		int[] remainingParents = new int[nodeCount];
+		int[] order = new int[nodeCount];
+		int tail = 0;
+		for (int node = 0; node < nodeCount; node++) {
+			remainingParents[node] = ccg.getParentCount(node);
+			if (remainingParents[node] == 0)
+				order[tail++] = node;
+		}
+		for (int head = 0; head < tail; head++) {
+			int node = order[head];
+			int nChildren = ccg.getChildCount(node);
+			for (int c = 0; c < nChildren; c++) {
+				int child = ccg.getChild(node, c);
+				if (--remainingParents[child] == 0)
+					order[tail++] = child;
+			}
+		}
+		return tail == nodeCount ? order : null;
+	}
+
+	private final int[] ancestors;
+	private final int[] begins;
+	private final int[] counts;
+	private final short[] distances;
+
+	private ConceptAncestorIndex(int[] begins, int[] counts, int[] ancestors,
+			short[] distances) {
+		this.begins = begins;
+		this.counts = counts;
+		this.ancestors = ancestors;
+		this.distances = distances;
+	}
+
+	/**
+	 * @return number of ancestors of the node, including the node itself
+	 */
+	public int getAncestorCount(int node) {
+		return counts[node];
+	}
+
+	/**
+	 * @return total number of ancestor entries in the index
+	 */
+	public int size() {
+		return ancestors.length;
+	}
+
+	/**
+	 * @param ancestor
+	 * @param node
+	 * @return length of the shortest path from node up to ancestor, -1 if it
+	 *         is not an ancestor
+	 */
+	public int getDistance(int ancestor, int node) {
+		int i = Arrays.binarySearch(ancestors, begins[node], begins[node]
+				+ counts[node], ancestor);
+		return i >= 0 ? distances[i] : -1;
+	}
+
+	public boolean hasAncestor(int node, int ancestor) {
+		return getDistance(ancestor, node) >= 0;
+	}
+
+	/**
+	 * least common subsumers of two concepts: the common ancestors with the
+	 * shortest path between the concepts.
+	 *
+	 * @param c1
+	 *            node index of concept1
+	 * @param c2
+	 *            node index of concept2
+	 * @param lcses
+	 *            node indices of the least common subsumers, required
+	 * @return path length as in
+	 *         {@link CompactConceptGraph#getLeastCommonConcept(int, int, Set, java.util.Map)}
+	 *         , -1 if no lcs
+	 */
+	public int getLeastCommonConcept(int c1, int c2, Set<Integer> lcses) {
+		int i = begins[c1];
+		int end1 = i + counts[c1];
+		int j = begins[c2];
+		int end2 = j + counts[c2];
+		int minDist = Integer.MAX_VALUE;
+		while (i < end1 && j < end2) {
+			int a1 = ancestors[i];
+			int a2 = ancestors[j];
+			if (a1 < a2) {
+				i++;
+			} else if (a1 > a2) {
+				j++;
+			} else {
+				int dist = distances[i] + distances[j];
+				if (dist < minDist) {
+					minDist = dist;
+					lcses.clear();
+				}
+				if (dist == minDist)
+					lcses.add(a1);
+				i++;
+				j++;
+			}
+		}
+		if (minDist == Integer.MAX_VALUE)
+			return -1;
+		if (lcses.size() > 1)
+			removeAncestors(lcses);
+		// path length counts nodes, not edges
+		return minDist + 1;
+	}
+
+	/**
+	 * reconstruct the shortest paths between two concepts via one of their
+	 * least common subsumers. Walks down from the concepts one parent at a
+	 * time, picking the first parent that is one step closer to the lcs.
+	 *
+	 * @param ccg
+	 *            the graph the index was built for
+	 * @param c1
+	 *            node index of concept1
+	 * @param c2
+	 *            node index of concept2
+	 * @param lcs
+	 *            node index of a common ancestor of c1 and c2
+	 * @return paths as in
+	 *         {@link CompactConceptGraph#getLeastCommonConcept(int, int, Set, java.util.Map)}
+	 */
+	public LCSPath getLCSPath(CompactConceptGraph ccg, int c1, int c2, int lcs) {
+		LCSPath lcsPath = new LCSPath();
+		lcsPath.setLcs(ccg.getConceptID(lcs));
+		lcsPath.setConcept1Path(getPath(ccg, c1, lcs));
+		lcsPath.setConcept2Path(getPath(ccg, c2, lcs));
+		return lcsPath;
+	}
+
+	/**
+	 * @return concept ids from node up to, not including, the ancestor. null
+	 *         if the node is the ancestor
+	 */
+	private List<String> getPath(CompactConceptGraph ccg, int node,
+			int ancestor) {
+		int dist = getDistance(ancestor, node);
+		if (dist <= 0)
+			return null;
+		List<String> path = new ArrayList<String>(dist);
+		int current = node;
+		while (dist > 0) {
+			path.add(ccg.getConceptID(current));
+			int nParents = ccg.getParentCount(current);
+			for (int p = 0; p < nParents; p++) {
+				int parent = ccg.getParent(current, p);
+				if (getDistance(ancestor, parent) == dist - 1) {
+					current = parent;
+					break;
+				}
+			}
+			dist--;
+		}
+		return path;
+	}
+
+	/**
+	 * a common ancestor of another lcs isn't least, even if the path through
+	 * it is just as short
+	 */
+	private void removeAncestors(Set<Integer> lcses) {
+		Integer[] candidates = lcses.toArray(new Integer[lcses.size()]);
+		for (int lcs : candidates) {
+			for (int other : candidates) {
+				if (other != lcs && hasAncestor(other, lcs)) {
+					lcses.remove(lcs);
+					break;
+				}
+			}
+		}
+	}
+}
@@ -24,9 +24,15 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import com.google.common.collect.ImmutableMap;
+
 /**
  * A directed graph that spans a subset of the UMLS connecting concepts with
  * IS-A links.
+ * <p/>
+ * A graph loaded from a {@link CompactConceptGraph} file has no ConcRel
+ * objects. They are created from the compact graph the first time the concept
+ * list or map is requested.
  * 
  * @author vijay
  */
@@ -35,8 +41,11 @@ public class ConceptGraph implements Serializable {
 	 * 
 	 */
 	private static final long serialVersionUID = 1L;
-	private List<ConcRel> conceptList = new ArrayList<ConcRel>();
+	// volatile: published after the concept map when materialized
+	private volatile List<ConcRel> conceptList = new ArrayList<ConcRel>();
 	private transient Map<String, ConcRel> conceptMap = new HashMap<String, ConcRel>();
+	// volatile: read without locking once set
+	private transient volatile CompactConceptGraph compactGraph = null;
 	private short depthMax = 0;
 	private double intrinsicICMax = 0d;
 	private String root = null;
@@ -52,14 +61,56 @@ public class ConceptGraph implements Serializable {
 		return cr;
 	}
 
+	/**
+	 * the compact graph this graph was loaded from. If the graph was not
+	 * loaded from a compact graph file, one is built from the ConcRel objects
+	 * on the first call. Don't modify the graph after that.
+	 * 
+	 * @return compact graph, indexed by the same node indices as the concept
+	 *         list
+	 */
+	public CompactConceptGraph getCompactGraph() {
+		CompactConceptGraph ccg = compactGraph;
+		if (ccg == null) {
+			synchronized (this) {
+				ccg = compactGraph;
+				if (ccg == null) {
+					ccg = CompactConceptGraph.build(this);
+					compactGraph = ccg;
+				}
+			}
+		}
+		return ccg;
+	}
+
 	public List<ConcRel> getConceptList() {
+		materializeConcepts();
 		return conceptList;
 	}
 
 	public Map<String, ConcRel> getConceptMap() {
+		materializeConcepts();
 		return conceptMap;
 	}
 
+	/**
+	 * create the ConcRel objects for a graph loaded from a compact graph
+	 */
+	private void materializeConcepts() {
+		if (compactGraph == null || !conceptList.isEmpty())
+			return;
+		synchronized (this) {
+			if (conceptList.isEmpty() && compactGraph.size() > 0) {
+				List<ConcRel> concepts = compactGraph.toConceptList();
+				ImmutableMap.Builder<String, ConcRel> mb = new ImmutableMap.Builder<String, ConcRel>();
+				for (ConcRel cr : concepts)
+					mb.put(cr.getConceptID(), cr);
+				conceptMap = mb.build();
+				conceptList = concepts;
+			}
+		}
+	}
+
 	public short getDepthMax() {
 		return depthMax;
 	}
@@ -72,6 +123,10 @@ public class ConceptGraph implements Serializable {
 		return root;
 	}
 
+	public synchronized void setCompactGraph(CompactConceptGraph compactGraph) {
+		this.compactGraph = compactGraph;
+	}
+
 	public void setConceptList(List<ConcRel> conceptList) {
 		this.conceptList = conceptList;
 	}
@@ -0,0 +1,349 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ctakes.ytex.kernel.pagerank;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.ctakes.ytex.kernel.model.CompactConceptGraph;
+
+/**
+ * PageRank on a {@link CompactConceptGraph}. Page = concept. in-links =
+ * parents. out-links = children.
+ * <p/>
+ * Scores are kept in double arrays that are reused across iterations.
+ * Personalized pagerank starts from a few concepts, so iterations push scores
+ * from the concepts that have a score to their children. Once most concepts
+ * have a score, or for static pagerank, each iteration pulls scores from the
+ * parents of every concept, and the concepts are split across the fork join
+ * pool.
+ * <p/>
+ * Results are the same as
+ * {@link PageRankServiceImpl#pagerankIter(double[], Map, org.apache.ctakes.ytex.kernel.model.ConceptGraph, double, double)}
+ * iterated until convergence. Instances are immutable and can be shared by
+ * threads.
+ */
+public class CompactPageRank {
+	private static final Log log = LogFactory.getLog(CompactPageRank.class);
+
+	/**
+	 * switch from push to pull iterations when this fraction of the concepts
+	 * has a score
+	 */
+	private static final int DENSE_FRACTION = 16;
+
+	/**
+	 * minimum number of concepts per task in a parallel pull iteration
+	 */
+	private static final int MIN_SWEEP_SIZE = 1 << 14;
+
+	private final CompactConceptGraph ccg;
+	/**
+	 * 1/number of children, 0 for leaves
+	 */
+	private final double[] outWeights;
+	private final int nodeCount;
+
+	public CompactPageRank(CompactConceptGraph ccg) {
+		this.ccg = ccg;
+		this.nodeCount = ccg.size();
+		this.outWeights = new double[nodeCount];
+		for (int node = 0; node < nodeCount; node++) {
+			int nChildren = ccg.getChildCount(node);
+			outWeights[node] = nChildren > 0 ? 1d / nChildren : 0d;
+		}
+	}
+
+	public CompactConceptGraph getConceptGraph() {
+		return ccg;
+	}
+
+	/**
+	 * @param dampingVector
+	 *            topic vector, key = node index. If null every concept has the
+	 *            same initial weight 1/N.
+	 * @param iter
+	 *            max number of iterations
+	 * @param threshold
+	 *            convergence threshold on the euclidean distance between
+	 *            iterations
+	 * @param dampingFactor
+	 * @return pagerank of each concept, indexed by node
+	 */
+	public double[] rank(Map<Integer, Double> dampingVector, int iter,
+			double threshold, double dampingFactor) {
+		return new Run(dampingVector, dampingFactor, true).iterate(iter,
+				threshold);
+	}
+
+	/**
+	 * personalized pagerank for several topic vectors at once. Each vector is
+	 * ranked on its own thread of the fork join pool.
+	 *
+	 * @return pagerank vectors, in the same order as the damping vectors
+	 */
+	public double[][] rank(List<Map<Integer, Double>> dampingVectors,
+			final int iter, final double threshold, final double dampingFactor) {
+		double[][] ranks = new double[dampingVectors.size()][];
+		if (ranks.length == 1) {
+			ranks[0] = rank(dampingVectors.get(0), iter, threshold,
+					dampingFactor);
+			return ranks;
+		}
+		List<Callable<double[]>> tasks = new ArrayList<Callable<double[]>>(
+				ranks.length);
+		for (final Map<Integer, Double> dampingVector : dampingVectors) {
+			tasks.add(new Callable<double[]>() {
+				@Override
+				public double[] call() {
+					return new Run(dampingVector, dampingFactor, false)
+							.iterate(iter, threshold);
+				}
+			});
+		}
+		List<Future<double[]>> futures = ForkJoinPool.commonPool().invokeAll(
+				tasks);
+		for (int i = 0; i < ranks.length; i++)
+			ranks[i] = getResult(futures.get(i));
+		return ranks;
+	}
+
+	private static <T> T getResult(Future<T> future) {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	/**
+	 * state of one pagerank computation
+	 */
+	private class Run {
+		private final double dampingFactor;
+		/**
+		 * random jump to each node in the damping vector, (1-d)*v_i
+		 */
+		private final int[] jumpNodes;
+		private final double[] jumpWeights;
+		/**
+		 * uniform random jump (1-d)/N, used when there is no damping vector
+		 */
+		private final double jump;
+		private final boolean parallel;
+		private double[] scores = new double[nodeCount];
+		private double[] next = new double[nodeCount];
+		/**
+		 * nodes with a score, while iterations are sparse
+		 */
+		private int[] active;
+		private int nActive;
+		private int[] nextActive;
+		private int nNextActive;
+		private boolean[] isNextActive;
+		private boolean dense;
+
+		Run(Map<Integer, Double> dampingVector, double dampingFactor,
+				boolean parallel) {
+			this.dampingFactor = dampingFactor;
+			this.parallel = parallel;
+			if (dampingVector == null) {
+				jumpNodes = new int[0];
+				jumpWeights = new double[0];
+				jump = (1 - dampingFactor) / nodeCount;
+				Arrays.fill(scores, 1d / nodeCount);
+				dense = true;
+			} else {
+				jump = 0d;
+				jumpNodes = new int[dampingVector.size()];
+				jumpWeights = new double[jumpNodes.length];
+				active = new int[Math.max(16, jumpNodes.length)];
+				int i = 0;
+				for (Map.Entry<Integer, Double> dvEntry : dampingVector
+						.entrySet()) {
+					jumpNodes[i] = dvEntry.getKey();
+					jumpWeights[i] = dvEntry.getValue() * (1 - dampingFactor);
+					if (scores[jumpNodes[i]] == 0d)
+						active[nActive++] = jumpNodes[i];
+					scores[jumpNodes[i]] = dvEntry.getValue();
+					i++;
+				}
+				nextActive = new int[active.length];
+				isNextActive = new boolean[nodeCount];
+				dense = nActive * DENSE_FRACTION > nodeCount;
+			}
+		}
+
+		double[] iterate(int iter, double threshold) {
+			double diff = 1d;
+			for (int i = 0; i < iter; i++) {
+				if (!dense && nActive * DENSE_FRACTION > nodeCount)
+					dense = true;
+				diff = dense ? pull() : push();
+				if (diff <= threshold)
+					break;
+			}
+			if (log.isDebugEnabled() && diff > threshold) {
+				log.debug("did not converge, diff = " + diff);
+			}
+			return scores;
+		}
+
+		/**
+		 * propagate the score of each active node to its children
+		 *
+		 * @return distance between this and the previous iteration
+		 */
+		private double push() {
+			nNextActive = 0;
+			for (int a = 0; a < nActive; a++) {
+				int node = active[a];
+				int nChildren = ccg.getChildCount(node);
+				if (nChildren > 0) {
+					double share = scores[node] * outWeights[node];
+					for (int c = 0; c < nChildren; c++) {
+						int child = ccg.getChild(node, c);
+						activate(child);
+						next[child] += share;
+					}
+				}
+			}
+			for (int a = 0; a < nNextActive; a++)
+				next[nextActive[a]] *= dampingFactor;
+			for (int j = 0; j < jumpNodes.length; j++) {
+				activate(jumpNodes[j]);
+				next[jumpNodes[j]] += jumpWeights[j];
+			}
+			double diff = 0d;
+			for (int a = 0; a < nNextActive; a++) {
+				int node = nextActive[a];
+				double d = next[node] - scores[node];
+				diff += d * d;
+			}
+			// clear the old scores so that the array can be reused, nodes that
+			// lost their score differ by their old score
+			for (int a = 0; a < nActive; a++) {
+				int node = active[a];
+				if (!isNextActive[node])
+					diff += scores[node] * scores[node];
+				scores[node] = 0d;
+			}
+			for (int a = 0; a < nNextActive; a++)
+				isNextActive[nextActive[a]] = false;
+			double[] tmp = scores;
+			scores = next;
+			next = tmp;
+			int[] tmpActive = active;
+			active = nextActive;
+			nActive = nNextActive;
+			nextActive = tmpActive;
+			return Math.sqrt(diff);
+		}
+
+		private void activate(int node) {
+			if (!isNextActive[node]) {
+				isNextActive[node] = true;
+				if (nNextActive == nextActive.length)
+					nextActive = Arrays.copyOf(nextActive,
+							Math.min(nodeCount, nNextActive * 2));
+				nextActive[nNextActive++] = node;
+			}
+		}
+
+		/**
+		 * compute the score of every node from its parents
+		 *
+		 * @return distance between this and the previous iteration
+		 */
+		private double pull() {
+			double diff;
+			if (parallel && nodeCount >= 2 * MIN_SWEEP_SIZE) {
+				int nTasks = Math.min(nodeCount / MIN_SWEEP_SIZE,
+						4 * ForkJoinPool.commonPool().getParallelism());
+				List<Callable<Double>> tasks = new ArrayList<Callable<Double>>(
+						nTasks);
+				for (int t = 0; t < nTasks; t++) {
+					final int begin = (int) ((long) nodeCount * t / nTasks);
+					final int end = (int) ((long) nodeCount * (t + 1) / nTasks);
+					tasks.add(new Callable<Double>() {
+						@Override
+						public Double call() {
+							return pull(begin, end);
+						}
+					});
+				}
+				diff = 0d;
+				for (Future<Double> future : ForkJoinPool.commonPool()
+						.invokeAll(tasks)) {
+					diff += getResult(future);
+				}
+			} else {
+				diff = pull(0, nodeCount);
+			}
+			double[] tmp = scores;
+			scores = next;
+			next = tmp;
+			return Math.sqrt(diff);
+		}
+
+		/**
+		 * pull scores for a range of nodes
+		 *
+		 * @return squared distance for the range
+		 */
+		private double pull(int begin, int end) {
+			double diff = 0d;
+			for (int node = begin; node < end; node++) {
+				double score = 0d;
+				int nParents = ccg.getParentCount(node);
+				for (int p = 0; p < nParents; p++) {
+					int parent = ccg.getParent(node, p);
+					score += scores[parent] * outWeights[parent];
+				}
+				double adjusted = score * dampingFactor + jump;
+				next[node] = adjusted;
+				double d = adjusted - scores[node];
+				diff += d * d;
+			}
+			// the jumps of the damping vector are added by the thread that
+			// owns their nodes
+			for (int j = 0; j < jumpNodes.length; j++) {
+				int node = jumpNodes[j];
+				if (node >= begin && node < end) {
+					double before = next[node] - scores[node];
+					next[node] += jumpWeights[j];
+					double after = next[node] - scores[node];
+					diff += after * after - before * before;
+				}
+			}
+			return diff;
+		}
+	}
+}
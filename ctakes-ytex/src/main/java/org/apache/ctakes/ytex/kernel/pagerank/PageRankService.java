@@ -18,6 +18,7 @@
  */
 package org.apache.ctakes.ytex.kernel.pagerank;
 
+import java.util.List;
 import java.util.Map;
 
 import org.apache.ctakes.ytex.kernel.model.ConceptGraph;
@@ -61,4 +62,14 @@ public interface PageRankService {
 	public abstract double[] rank2(Map<Integer, Double> dampingVector, ConceptGraph cg, int iter,
 			double threshold, double dampingFactor);
 
+	/**
+	 * personalized PageRank for several damping vectors, computed in parallel.
+	 * 
+	 * @param dampingVectors
+	 *            topic vectors, key = node index of the concept
+	 * @return pageRank vectors, in the same order as dampingVectors
+	 */
+	public abstract double[][] rank2(List<Map<Integer, Double>> dampingVectors,
+			ConceptGraph cg, int iter, double threshold, double dampingFactor);
+
 }
\ No newline at end of file
@@ -21,6 +21,7 @@ package org.apache.ctakes.ytex.kernel.pagerank;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
@@ -37,18 +38,31 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.ctakes.ytex.kernel.KernelContextHolder;
 import org.apache.ctakes.ytex.kernel.dao.ConceptDao;
-import org.apache.ctakes.ytex.kernel.model.ConcRel;
+import org.apache.ctakes.ytex.kernel.model.CompactConceptGraph;
 import org.apache.ctakes.ytex.kernel.model.ConceptGraph;
 
 
 public class PageRankServiceImpl implements PageRankService {
 	private static final Log log = LogFactory.getLog(PageRankServiceImpl.class);
 
+	/**
+	 * pagerank for the last concept graph we ranked
+	 */
+	private CompactPageRank compactPageRank = null;
+
+	private synchronized CompactPageRank getCompactPageRank(ConceptGraph cg) {
+		CompactConceptGraph ccg = cg.getCompactGraph();
+		if (compactPageRank == null || compactPageRank.getConceptGraph() != ccg)
+			compactPageRank = new CompactPageRank(ccg);
+		return compactPageRank;
+	}
+
 	private double[] rankInternal(Map<Integer, Double> dampingVector,
 			ConceptGraph cg, int iter, double threshold, double dampingFactor) {
 		Map<Integer, Double> scoreMapCurrent = dampingVector;
-		double N = (double) cg.getConceptList().size();
-		double scoresCurrent[] = new double[cg.getConceptList().size()];
+		int nodeCount = cg.getCompactGraph().size();
+		double N = (double) nodeCount;
+		double scoresCurrent[] = new double[nodeCount];
 		double diff = 1d;
 		for (int i = 0; i < iter; i++) {
 			double[] scoresOld = scoresCurrent;
@@ -127,6 +141,7 @@ public class PageRankServiceImpl implements PageRankService {
 			double dampingFactor, double N, Set<Integer> activeNodes) {
 		double newScores[] = new double[(int) N];
 		Arrays.fill(newScores, 0d);
+		CompactConceptGraph ccg = cg.getCompactGraph();
 		Integer[] activeNodeArr = new Integer[activeNodes.size()];
 		activeNodes.toArray(activeNodeArr);
 		for (int index : activeNodeArr) {
@@ -142,14 +157,13 @@ public class PageRankServiceImpl implements PageRankService {
 			// pagerank to out-links.
 			// pagerank
 			double score = currentScores[index];
-			// get concept id
-			ConcRel cr = cg.getConceptList().get(index);
 			// get number of out-links
-			double nOutlinks = (double) cr.getChildren().size();
+			int nChildren = ccg.getChildCount(index);
+			double nOutlinks = (double) nChildren;
 			if (nOutlinks > 0) {
 				// propagate pagerank to out-links (children)
-				for (ConcRel crOut : cr.getChildren()) {
-					int targetIndex = crOut.getNodeIndex();
+				for (int c = 0; c < nChildren; c++) {
+					int targetIndex = ccg.getChild(index, c);
 					// get current pagerank value for target page
 					double childScore = newScores[targetIndex];
 					// add the pagerank/|links|
@@ -177,21 +191,20 @@ public class PageRankServiceImpl implements PageRankService {
 	public double[] pagerankIter(double[] currentScores,
 			Map<Integer, Double> dampingVector, ConceptGraph cg,
 			double dampingFactor, double N) {
+		CompactConceptGraph ccg = cg.getCompactGraph();
 		double newScores[] = new double[(int) N];
 		double jump = ((1 - dampingFactor) / N);
 		for (int i = 0; i < currentScores.length; i++) {
 			double score = 0d;
-			ConcRel c = cg.getConceptList().get(i);
-			// get nodes pointing at node c
-			for (int parentIndex : c.getParentsArray()) {
-				ConcRel p = cg.getConceptList().get(parentIndex);
-				// get the pagerank for node p which is pointing at c
-				// if this is the first iteration, currentScores is null so
-				// use the initial pagerank
+			// get nodes pointing at node i
+			int nParents = ccg.getParentCount(i);
+			for (int p = 0; p < nParents; p++) {
+				int parentIndex = ccg.getParent(i, p);
+				// get the pagerank for node p which is pointing at i
 				double prIn = currentScores[parentIndex];
 				// add the pagerank divided by the number of nodes p is
 				// pointing at
-				score += (prIn / (double) p.getChildrenArray().length);
+				score += (prIn / (double) ccg.getChildCount(parentIndex));
 			}
 			if (dampingVector == null) {
 				// uniform damping
@@ -213,55 +226,24 @@ public class PageRankServiceImpl implements PageRankService {
 	@Override
 	public double[] rank2(Map<Integer, Double> dampingVector, ConceptGraph cg,
 			int iter, double threshold, double dampingFactor) {
-		double N = (double) cg.getConceptMap().size();
-		double scoresCurrent[] = new double[cg.getConceptMap().size()];
-		Map<Integer, Double> dampingVectorAdj = null;
-		// Set<Integer> activeNodes = null;
-		if (dampingVector != null) {
-			// for personalized page rank, put together a map of possibilities
-			// of randomly jumping to a specific node
-			dampingVectorAdj = new HashMap<Integer, Double>(
-					dampingVector.size());
-			// // initialize set of active nodes
-			// activeNodes = new HashSet<Integer>(dampingVector.keySet());
-			Arrays.fill(scoresCurrent, 0d);
-			for (Map.Entry<Integer, Double> dvEntry : dampingVector.entrySet()) {
-				// set the random jump for the node
-				dampingVectorAdj.put(dvEntry.getKey(), dvEntry.getValue()
-						* (1 - dampingFactor));
-				// set the initial weight for the node
-				scoresCurrent[dvEntry.getKey()] = dvEntry.getValue();
-			}
-		} else {
-			// for static page rank, all nodes have same weight initially
-			Arrays.fill(scoresCurrent, 1d / N);
-		}
-		double diff = 1d;
-		for (int i = 0; i < iter; i++) {
-			double scoresOld[] = scoresCurrent;
-			long timeBegin = 0;
-			if (log.isDebugEnabled()) {
-				timeBegin = System.currentTimeMillis();
-			}
-			// if (activeNodes == null) {
-			scoresCurrent = pagerankIter(scoresCurrent, dampingVectorAdj, cg,
-					dampingFactor, N);
-			// } else {
-			// scoresCurrent = pagerankIter(scoresCurrent, dampingVectorAdj,
-			// cg, dampingFactor, N, activeNodes);
-			// }
-			if (log.isDebugEnabled()) {
-				log.debug("iter " + i + " time(ms) "
-						+ Long.toString(System.currentTimeMillis() - timeBegin));
-			}
-			if ((diff = difference(scoresCurrent, scoresOld)) <= threshold)
-				break;
+		long timeBegin = 0;
+		if (log.isDebugEnabled()) {
+			timeBegin = System.currentTimeMillis();
 		}
-		if (log.isDebugEnabled() && diff > threshold) {
-			log.debug("did not converge, diff = " + diff + ", dampingVector = "
-					+ dampingVector);
+		double[] scores = getCompactPageRank(cg).rank(dampingVector, iter,
+				threshold, dampingFactor);
+		if (log.isDebugEnabled()) {
+			log.debug("rank2 time(ms) "
+					+ Long.toString(System.currentTimeMillis() - timeBegin));
 		}
-		return scoresCurrent;
+		return scores;
+	}
+
+	@Override
+	public double[][] rank2(List<Map<Integer, Double>> dampingVectors,
+			ConceptGraph cg, int iter, double threshold, double dampingFactor) {
+		return getCompactPageRank(cg).rank(dampingVectors, iter, threshold,
+				dampingFactor);
 	}
 
 	/**
@@ -275,6 +257,7 @@ public class PageRankServiceImpl implements PageRankService {
 			Map<Integer, Double> currentScores,
 			Map<Integer, Double> dampingVector, ConceptGraph cg,
 			double dampingFactor, double N) {
+		CompactConceptGraph ccg = cg.getCompactGraph();
 		Map<Integer, Double> newScores = new HashMap<Integer, Double>();
 		if (dampingVector == null) {
 			// the constant probability of randomly surfing into this node,
@@ -283,22 +266,24 @@ public class PageRankServiceImpl implements PageRankService {
 			double initialValue = 1 / N;
 			// the basic pagerank iteration with uniform damping vector
 			// iterate over all nodes
-			for (ConcRel c : cg.getConceptList()) {
+			for (int c = 0; c < ccg.size(); c++) {
 				double score = 0d;
 				// get nodes pointing at node c
-				for (ConcRel in : c.getParents()) {
+				int nParents = ccg.getParentCount(c);
+				for (int p = 0; p < nParents; p++) {
+					int in = ccg.getParent(c, p);
 					// get the pagerank for node p which is pointing at c
 					// if this is the first iteration, currentScores is null so
 					// use the initial pagerank
 					double prIn = currentScores == null ? initialValue
-							: currentScores.get(in.getNodeIndex());
+							: currentScores.get(in);
 					// add the pagerank divided by the number of nodes p is
 					// pointing at
-					score += (prIn / (double) in.getChildren().size());
+					score += (prIn / (double) ccg.getChildCount(in));
 				}
 				// adjust for uniform damping
 				double adjusted = (score * dampingFactor) + jump;
-				newScores.put(c.getNodeIndex(), adjusted);
+				newScores.put(c, adjusted);
 			}
 			// for (ConcRel c : cg.getConceptMap().values()) {
 			// double score = 0d;
@@ -334,22 +319,21 @@ public class PageRankServiceImpl implements PageRankService {
 				Integer index = scoreEntry.getKey();
 				// pagerank
 				double score = scoreEntry.getValue();
-				// get concept id
-				ConcRel cr = cg.getConceptList().get(index);
 				// get number of out-links
-				double nOutlinks = (double) cr.getChildren().size();
+				int nChildren = ccg.getChildCount(index);
+				double nOutlinks = (double) nChildren;
 				if (nOutlinks > 0) {
 					// propagate pagerank to out-links (children)
-					for (ConcRel crOut : cr.getChildren()) {
+					for (int c = 0; c < nChildren; c++) {
+						int crOut = ccg.getChild(index, c);
 						// get current pagerank value for target page
 						double childScore = 0d;
-						Double childScoreD = newScores
-								.get(crOut.getNodeIndex());
+						Double childScoreD = newScores.get(crOut);
 						if (childScoreD != null)
 							childScore = childScoreD.doubleValue();
 						// add the pagerank/|links|
 						childScore += (score / nOutlinks);
-						newScores.put(crOut.getNodeIndex(), childScore);
+						newScores.put(crOut, childScore);
 					}
 				}
 			}
@@ -426,16 +410,17 @@ public class PageRankServiceImpl implements PageRankService {
 	public double sim(String concept1, String concept2, ConceptGraph cg,
 			int iter, double threshold, double dampingFactor) {
 		Map<Integer, Double> c1dv = new HashMap<Integer, Double>(1);
-		ConcRel c1 = cg.getConceptMap().get(concept1);
-		ConcRel c2 = cg.getConceptMap().get(concept2);
-		if (c1 == null || c2 == null)
+		int c1 = cg.getCompactGraph().getNodeIndex(concept1);
+		int c2 = cg.getCompactGraph().getNodeIndex(concept2);
+		if (c1 < 0 || c2 < 0)
 			return 0d;
-		c1dv.put(c1.getNodeIndex(), 1d);
-		double[] c1pr = this.rank2(c1dv, cg, iter, threshold, dampingFactor);
+		c1dv.put(c1, 1d);
 		Map<Integer, Double> c2dv = new HashMap<Integer, Double>(1);
-		c2dv.put(c2.getNodeIndex(), 1d);
-		double[] c2pr = this.rank2(c2dv, cg, iter, threshold, dampingFactor);
-		return cosine(c1pr, c2pr);
+		c2dv.put(c2, 1d);
+		// rank both concepts at once
+		double[][] pr = this.rank2(Arrays.asList(c1dv, c2dv), cg, iter,
+				threshold, dampingFactor);
+		return cosine(pr[0], pr[1]);
 	}
 
 	/**
@@ -530,13 +515,22 @@ public class PageRankServiceImpl implements PageRankService {
 	@Override
 	public double[] rank(Map<String, Double> dampingVector, ConceptGraph cg,
 			int iter, double threshold, double dampingFactor) {
-		// TODO Auto-generated method stub
-		return null;
+		Map<Integer, Double> nodeDampingVector = null;
+		if (dampingVector != null) {
+			// concepts that are not in the graph don't have a pagerank
+			nodeDampingVector = new HashMap<Integer, Double>(
+					dampingVector.size());
+			for (Map.Entry<String, Double> dvEntry : dampingVector.entrySet()) {
+				int node = cg.getCompactGraph().getNodeIndex(dvEntry.getKey());
+				if (node >= 0)
+					nodeDampingVector.put(node, dvEntry.getValue());
+			}
+		}
+		return rank2(nodeDampingVector, cg, iter, threshold, dampingFactor);
 	}
 
 	@Override
 	public double[] rank(Map<String, Double> dampingVector, ConceptGraph cg) {
-		// TODO Auto-generated method stub
-		return null;
+		return rank(dampingVector, cg, 30, 1e-4, 0.85);
 	}
 }
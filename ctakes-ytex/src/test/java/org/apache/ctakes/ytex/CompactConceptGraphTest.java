@@ -0,0 +1,176 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ctakes.ytex;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.ctakes.ytex.kernel.dao.ConceptDaoImpl;
+import org.apache.ctakes.ytex.kernel.model.CompactConceptGraph;
+import org.apache.ctakes.ytex.kernel.model.ConcRel;
+import org.apache.ctakes.ytex.kernel.model.ConceptGraph;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.collect.ImmutableList;
+
+import static org.junit.Assert.*;
+
+/**
+ * round trip of concept graphs through the compact graph file format
+ */
+public class CompactConceptGraphTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	/**
+	 * root - animal - vertebrate - {cat, dog}, root - bacteria - e coli, and
+	 * optionally vertebrate - fish
+	 */
+	private static ConceptGraph createGraph(boolean fish) {
+		ConceptGraph cg = new ConceptGraph();
+		String[][] edges = { { "root", "animal" }, { "animal", "vertebrate" },
+				{ "vertebrate", "cat" }, { "vertebrate", "dog" },
+				{ "root", "bacteria" }, { "bacteria", "e coli" },
+				{ "vertebrate", "fish" } };
+		for (int i = 0; i < (fish ? edges.length : edges.length - 1); i++) {
+			ConcRel parent = cg.getConceptMap().get(edges[i][0]);
+			if (parent == null)
+				parent = cg.addConcept(edges[i][0]);
+			ConcRel child = cg.getConceptMap().get(edges[i][1]);
+			if (child == null)
+				child = cg.addConcept(edges[i][1]);
+			parent.getChildren().add(child);
+			child.getParents().add(parent);
+			child.setDepth((short) (parent.getDepth() + 1));
+		}
+		for (ConcRel cr : cg.getConceptList())
+			cr.setIntrinsicInfoContent(cr.getChildren().isEmpty() ? 1d : 0.5d / (1 + cr.getNodeIndex()));
+		cg.setRoot("root");
+		cg.setDepthMax((short) 3);
+		cg.setIntrinsicICMax(1d);
+		return cg;
+	}
+
+	private static int[] nodes(Set<ConcRel> concepts) {
+		int[] nodes = new int[concepts.size()];
+		int i = 0;
+		for (ConcRel cr : concepts)
+			nodes[i++] = cr.getNodeIndex();
+		Arrays.sort(nodes);
+		return nodes;
+	}
+
+	private static void assertSameGraph(ConceptGraph expected,
+			CompactConceptGraph actual) {
+		assertEquals(expected.getConceptList().size(), actual.size());
+		assertEquals(expected.getRoot(), actual.getRoot());
+		assertEquals(expected.getDepthMax(), actual.getDepthMax());
+		assertEquals(expected.getIntrinsicICMax(), actual.getIntrinsicICMax(), 0d);
+		List<ConcRel> materialized = actual.toConceptList();
+		for (ConcRel cr : expected.getConceptList()) {
+			int node = cr.getNodeIndex();
+			assertEquals(node, actual.getNodeIndex(cr.getConceptID()));
+			assertEquals(cr.getConceptID(), actual.getConceptID(node));
+			assertEquals(cr.getDepth(), actual.getDepth(node));
+			assertEquals(cr.getIntrinsicInfoContent(),
+					actual.getIntrinsicInfoContent(node), 0d);
+			ConcRel copy = materialized.get(node);
+			assertEquals(cr.getConceptID(), copy.getConceptID());
+			assertArrayEquals(nodes(cr.getParents()), nodes(copy.getParents()));
+			assertArrayEquals(nodes(cr.getChildren()), nodes(copy.getChildren()));
+			// materialized concepts have the node index arrays of a
+			// deserialized graph
+			assertArrayEquals(nodes(cr.getParents()), copy.getParentsArray());
+			assertArrayEquals(nodes(cr.getChildren()), copy.getChildrenArray());
+		}
+	}
+
+	@Test
+	public void testWriteAndMap() throws IOException {
+		ConceptGraph cg = createGraph(false);
+		File f = folder.newFile("test.csr");
+		CompactConceptGraph.write(cg, f, 1234, 5678);
+		CompactConceptGraph ccg = CompactConceptGraph.map(f);
+		assertSameGraph(cg, ccg);
+		assertEquals(1234, ccg.getSourceLength());
+		assertEquals(5678, ccg.getSourceModified());
+		assertEquals(-1, ccg.getNodeIndex("unknown"));
+		// a graph built on the heap has no source
+		CompactConceptGraph built = CompactConceptGraph.build(cg);
+		assertSameGraph(cg, built);
+		assertEquals(-1, built.getSourceLength());
+		assertSame(cg.getCompactGraph(), cg.getCompactGraph());
+	}
+
+	private static void writeSerializedGraph(ConceptGraph cg, File f)
+			throws IOException {
+		cg.setConceptList(ImmutableList.copyOf(cg.getConceptList()));
+		ObjectOutputStream os = new ObjectOutputStream(
+				new BufferedOutputStream(new GZIPOutputStream(
+						new FileOutputStream(f))));
+		try {
+			os.writeObject(cg);
+		} finally {
+			os.close();
+		}
+	}
+
+	@Test
+	public void testCompactGraphOfReplacedSource() throws IOException {
+		File cdir = folder.newFolder("conceptGraph");
+		Properties props = new Properties();
+		props.setProperty("org.apache.ctakes.ytex.conceptGraphDir",
+				cdir.getAbsolutePath());
+		ConceptDaoImpl conceptDao = new ConceptDaoImpl();
+		conceptDao.setYtexProperties(props);
+		File gz = new File(cdir, "csrtest.gz");
+		File csr = new File(cdir, "csrtest.csr");
+
+		writeSerializedGraph(createGraph(false), gz);
+		ConceptGraph cg = conceptDao.getConceptGraph("csrtest");
+		assertEquals(7, cg.getCompactGraph().size());
+		assertTrue(csr.exists());
+		CompactConceptGraph ccg = CompactConceptGraph.map(csr);
+		assertEquals(gz.length(), ccg.getSourceLength());
+		assertEquals(gz.lastModified(), ccg.getSourceModified());
+		// the next load maps the compact graph
+		long converted = csr.lastModified();
+		assertEquals(7, conceptDao.getConceptGraph("csrtest").getConceptList().size());
+		assertEquals(converted, csr.lastModified());
+
+		// a replaced source is detected even if it is not newer
+		writeSerializedGraph(createGraph(true), gz);
+		assertTrue(gz.setLastModified(converted - 60000));
+		cg = conceptDao.getConceptGraph("csrtest");
+		assertEquals(8, cg.getCompactGraph().size());
+		assertEquals(8, CompactConceptGraph.map(csr).size());
+		assertEquals(gz.lastModified(), CompactConceptGraph.map(csr).getSourceModified());
+	}
+}
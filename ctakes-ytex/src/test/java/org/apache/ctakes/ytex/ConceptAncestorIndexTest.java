@@ -0,0 +1,264 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ctakes.ytex;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.apache.ctakes.ytex.kernel.dao.ConceptDaoImpl;
+import org.apache.ctakes.ytex.kernel.metric.ConceptSimilarityServiceImpl;
+import org.apache.ctakes.ytex.kernel.metric.LCSPath;
+import org.apache.ctakes.ytex.kernel.model.CompactConceptGraph;
+import org.apache.ctakes.ytex.kernel.model.ConcRel;
+import org.apache.ctakes.ytex.kernel.model.ConceptAncestorIndex;
+import org.apache.ctakes.ytex.kernel.model.ConceptGraph;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * least common subsumers from the ancestor index compared with a brute force
+ * computation and with the breadth-first search of the graph. The search can
+ * stop before it finds every lcs, and can return the ancestor of an lcs, so
+ * its lcses are only required to be indexed lcses or their ancestors.
+ */
+public class ConceptAncestorIndexTest {
+
+	private static final int NODES = 300;
+
+	/**
+	 * random acyclic graph, every concept but the root has 1 to 3 parents
+	 * added before it
+	 */
+	private static ConceptGraph createGraph(long seed) {
+		Random random = new Random(seed);
+		ConceptGraph cg = new ConceptGraph();
+		for (int i = 0; i < NODES; i++) {
+			ConcRel cr = cg.addConcept("C" + i);
+			int nParents = i == 0 ? 0 : 1 + random.nextInt(Math.min(i, 3));
+			while (cr.getParents().size() < nParents) {
+				ConcRel parent = cg.getConceptList().get(random.nextInt(i));
+				cr.getParents().add(parent);
+				parent.getChildren().add(cr);
+			}
+		}
+		cg.setRoot("C0");
+		cg.setDepthMax((short) 1);
+		return cg;
+	}
+
+	private static void assertValidPath(CompactConceptGraph ccg, int node,
+			int lcs, List<String> path, int length) {
+		if (node == lcs) {
+			assertNull(path);
+			return;
+		}
+		assertEquals(length, path.size());
+		assertEquals(ccg.getConceptID(node), path.get(0));
+		for (int i = 0; i < path.size(); i++) {
+			int child = ccg.getNodeIndex(path.get(i));
+			int parent = i + 1 < path.size() ? ccg.getNodeIndex(path.get(i + 1)) : lcs;
+			boolean linked = false;
+			for (int p = 0; p < ccg.getParentCount(child); p++)
+				linked |= ccg.getParent(child, p) == parent;
+			assertTrue(linked);
+		}
+	}
+
+	/**
+	 * shortest distance from each ancestor, by walking up the graph
+	 */
+	private static Map<Integer, Integer> ancestorDistances(
+			CompactConceptGraph ccg, int node) {
+		Map<Integer, Integer> distances = new HashMap<Integer, Integer>();
+		List<Integer> level = new ArrayList<Integer>();
+		level.add(node);
+		for (int dist = 0; !level.isEmpty(); dist++) {
+			List<Integer> next = new ArrayList<Integer>();
+			for (int n : level) {
+				if (!distances.containsKey(n)) {
+					distances.put(n, dist);
+					for (int p = 0; p < ccg.getParentCount(n); p++)
+						next.add(ccg.getParent(n, p));
+				}
+			}
+			level = next;
+		}
+		return distances;
+	}
+
+	/**
+	 * common ancestors on a shortest path, minus the ancestors of other such
+	 * common ancestors
+	 */
+	private static int bruteForceLcs(CompactConceptGraph ccg, int c1, int c2,
+			Set<Integer> lcses) {
+		Map<Integer, Integer> d1 = ancestorDistances(ccg, c1);
+		Map<Integer, Integer> d2 = ancestorDistances(ccg, c2);
+		int minDist = Integer.MAX_VALUE;
+		for (Map.Entry<Integer, Integer> e : d1.entrySet()) {
+			Integer other = d2.get(e.getKey());
+			if (other == null)
+				continue;
+			int dist = e.getValue() + other;
+			if (dist < minDist) {
+				minDist = dist;
+				lcses.clear();
+			}
+			if (dist == minDist)
+				lcses.add(e.getKey());
+		}
+		Set<Integer> candidates = new HashSet<Integer>(lcses);
+		for (int lcs : candidates) {
+			for (int other : candidates) {
+				if (other != lcs && ancestorDistances(ccg, other).containsKey(lcs))
+					lcses.remove(lcs);
+			}
+		}
+		return minDist == Integer.MAX_VALUE ? -1 : minDist + 1;
+	}
+
+	private static boolean isAncestorOrSelf(ConceptAncestorIndex index,
+			int node, Set<Integer> descendants) {
+		for (int descendant : descendants) {
+			if (index.hasAncestor(descendant, node))
+				return true;
+		}
+		return false;
+	}
+
+	@Test
+	public void testIndexMatchesSearch() {
+		CompactConceptGraph ccg = createGraph(3).getCompactGraph();
+		ConceptAncestorIndex index = ConceptAncestorIndex.build(ccg);
+		assertNotNull(index);
+		Random random = new Random(5);
+		for (int i = 0; i < 2000; i++) {
+			int c1 = random.nextInt(NODES);
+			int c2 = i % 10 == 0 ? c1 : random.nextInt(NODES);
+			Set<Integer> searched = new HashSet<Integer>();
+			Map<Integer, LCSPath> searchedPaths = new HashMap<Integer, LCSPath>();
+			int searchedDist = ccg.getLeastCommonConcept(c1, c2, searched, searchedPaths);
+			Set<Integer> indexed = new HashSet<Integer>();
+			int indexedDist = index.getLeastCommonConcept(c1, c2, indexed);
+			Set<Integer> bruteForce = new HashSet<Integer>();
+			assertEquals(bruteForceLcs(ccg, c1, c2, bruteForce), indexedDist);
+			assertEquals(bruteForce, indexed);
+			assertTrue(indexedDist <= searchedDist);
+			if (indexedDist == searchedDist) {
+				for (int lcs : searched)
+					assertTrue(isAncestorOrSelf(index, lcs, indexed));
+			}
+			for (int lcs : indexed) {
+				LCSPath path = index.getLCSPath(ccg, c1, c2, lcs);
+				assertEquals(ccg.getConceptID(lcs), path.getLcs());
+				assertValidPath(ccg, c1, lcs, path.getConcept1Path(), index.getDistance(lcs, c1));
+				assertValidPath(ccg, c2, lcs, path.getConcept2Path(), index.getDistance(lcs, c2));
+				assertEquals(indexedDist, (c1 == lcs ? 0 : path.getConcept1Path().size())
+						+ (c2 == lcs ? 0 : path.getConcept2Path().size()) + 1);
+				// the search finds the same paths to a common lcs
+				LCSPath searchedPath = searchedPaths.get(lcs);
+				if (searchedPath != null && indexedDist == searchedDist) {
+					assertEquals(searchedPath.getConcept1Path() == null ? 0 : searchedPath.getConcept1Path().size(),
+							path.getConcept1Path() == null ? 0 : path.getConcept1Path().size());
+					assertEquals(searchedPath.getConcept2Path() == null ? 0 : searchedPath.getConcept2Path().size(),
+							path.getConcept2Path() == null ? 0 : path.getConcept2Path().size());
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testBoundedIndex() {
+		CompactConceptGraph ccg = createGraph(7).getCompactGraph();
+		ConceptAncestorIndex index = ConceptAncestorIndex.build(ccg);
+		assertNotNull(ConceptAncestorIndex.build(ccg, index.size()));
+		assertNull(ConceptAncestorIndex.build(ccg, index.size() - 1));
+	}
+
+	@Test
+	public void testCycle() {
+		ConceptGraph cg = new ConceptGraph();
+		ConcRel a = cg.addConcept("a");
+		ConcRel b = cg.addConcept("b");
+		a.getParents().add(b);
+		b.getChildren().add(a);
+		b.getParents().add(a);
+		a.getChildren().add(b);
+		assertNull(ConceptAncestorIndex.build(cg.getCompactGraph()));
+	}
+
+	private static ConceptSimilarityServiceImpl createService(
+			final ConceptGraph cg, boolean useAncestorIndex) {
+		ConceptSimilarityServiceImpl simSvc = new ConceptSimilarityServiceImpl();
+		simSvc.setConceptDao(new ConceptDaoImpl() {
+			@Override
+			public ConceptGraph getConceptGraph(String name) {
+				return cg;
+			}
+		});
+		simSvc.setConceptGraphName("random");
+		simSvc.setPreload(false);
+		simSvc.setUseAncestorIndex(useAncestorIndex);
+		simSvc.init();
+		return simSvc;
+	}
+
+	@Test
+	public void testServiceLcs() {
+		ConceptGraph cg = createGraph(11);
+		ConceptSimilarityServiceImpl indexed = createService(cg, true);
+		ConceptSimilarityServiceImpl searched = createService(cg, false);
+		CompactConceptGraph ccg = cg.getCompactGraph();
+		Random random = new Random(13);
+		for (int i = 0; i < 500; i++) {
+			String c1 = "C" + random.nextInt(NODES);
+			String c2 = "C" + random.nextInt(NODES);
+			Set<String> indexedLcses = new HashSet<String>();
+			Set<String> searchedLcses = new HashSet<String>();
+			int indexedDist = indexed.getLCS(c1, c2, indexedLcses, null);
+			assertTrue(indexedDist <= searched.getLCS(c1, c2, searchedLcses, null));
+			Set<Integer> bruteForce = new HashSet<Integer>();
+			assertEquals(bruteForceLcs(ccg, ccg.getNodeIndex(c1), ccg.getNodeIndex(c2), bruteForce),
+					indexedDist);
+			Set<String> bruteForceLcses = new HashSet<String>();
+			for (int lcs : bruteForce)
+				bruteForceLcses.add(ccg.getConceptID(lcs));
+			assertEquals(bruteForceLcses, indexedLcses);
+			// asking for the paths uses the index too
+			List<LCSPath> indexedPaths = new ArrayList<LCSPath>();
+			Set<String> pathLcses = new HashSet<String>();
+			assertEquals(indexedDist, indexed.getLCS(c1, c2, pathLcses, indexedPaths));
+			assertEquals(indexedLcses, pathLcses);
+			assertEquals(indexedLcses.size(), indexedPaths.size());
+			List<LCSPath> lcsPaths = new ArrayList<LCSPath>();
+			assertEquals(indexedDist, indexed.lcs(c1, c2, lcsPaths));
+			assertEquals(indexedPaths.size(), lcsPaths.size());
+		}
+		// a bound smaller than the closure falls back to searching
+		ConceptSimilarityServiceImpl bounded = new ConceptSimilarityServiceImpl();
+		bounded.setAncestorIndexMaxEntries(NODES);
+		assertEquals(NODES, bounded.getAncestorIndexMaxEntries());
+	}
+}
@@ -0,0 +1,254 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ctakes.ytex;
+
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.ctakes.ytex.kernel.evaluator.CacheKernel;
+import org.apache.ctakes.ytex.kernel.evaluator.GramMatrix;
+import org.apache.ctakes.ytex.kernel.evaluator.GramMatrixEvaluator;
+import org.apache.ctakes.ytex.kernel.evaluator.Kernel;
+import org.apache.ctakes.ytex.kernel.evaluator.SymmetricPairCache;
+import org.apache.ctakes.ytex.kernel.tree.Node;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * gram matrix layout, tiled evaluation compared with the instance by instance
+ * evaluation of the slices in
+ * {@link org.apache.ctakes.ytex.kernel.evaluator.CorpusKernelEvaluatorImpl},
+ * and the pair cache.
+ */
+public class GramMatrixTest {
+
+	private static final int TRAIN = 83;
+	private static final int TEST = 21;
+
+	/**
+	 * asymmetric kernel on the instance numbers that counts its evaluations,
+	 * so the argument order and repeated evaluations can be checked
+	 */
+	private static class CountingKernel implements Kernel {
+		private final Map<Node, Integer> ids;
+		private final ConcurrentMap<Long, AtomicInteger> calls = new ConcurrentHashMap<Long, AtomicInteger>();
+
+		CountingKernel(Map<Node, Integer> ids) {
+			this.ids = ids;
+		}
+
+		@Override
+		public double evaluate(Object o1, Object o2) {
+			int id1 = ids.get(o1);
+			int id2 = ids.get(o2);
+			long pair = (long) id1 << 32 | id2;
+			AtomicInteger count = calls.putIfAbsent(pair, new AtomicInteger(1));
+			if (count != null)
+				count.incrementAndGet();
+			// every 10th pair evaluates to NaN
+			if ((id1 + id2) % 10 == 0)
+				return Double.NaN;
+			return id1 * 1000 + id2;
+		}
+
+		int getCalls() {
+			int total = 0;
+			for (AtomicInteger count : calls.values())
+				total += count.get();
+			return total;
+		}
+	}
+
+	/**
+	 * training instances followed by test instances, some missing
+	 */
+	private static Node[] createInstances(Map<Node, Integer> ids) {
+		Node[] instances = new Node[TRAIN + TEST];
+		for (int i = 0; i < instances.length; i++) {
+			if (i % 17 == 5)
+				continue;
+			instances[i] = new Node();
+			ids.put(instances[i], i);
+		}
+		return instances;
+	}
+
+	@Test
+	public void testIndex() {
+		GramMatrix matrix = new GramMatrix(TRAIN, TEST);
+		assertEquals(TRAIN + TEST, matrix.getRowCount());
+		int cellCount = TRAIN * (TRAIN + 1) / 2 + TEST * TRAIN;
+		BitSet indexes = new BitSet();
+		for (int row = 0; row < matrix.getRowCount(); row++) {
+			assertEquals(row < TRAIN ? row + 1 : TRAIN,
+					matrix.getColumnCount(row));
+			for (int col = 0; col < matrix.getColumnCount(row); col++) {
+				int index = matrix.index(row, col);
+				assertFalse(indexes.get(index));
+				indexes.set(index);
+				if (row < TRAIN)
+					assertEquals(index, matrix.index(col, row));
+				assertFalse(matrix.isEvaluated(row, col));
+				assertTrue(Float.isNaN(matrix.get(row, col)));
+			}
+		}
+		assertEquals(cellCount, indexes.cardinality());
+		assertEquals(cellCount, indexes.length());
+		matrix.set(3, 7, 2.5f);
+		assertTrue(matrix.isEvaluated(7, 3));
+		assertEquals(2.5f, matrix.get(7, 3), 0);
+		matrix.set(TRAIN, TRAIN - 1, Float.NaN);
+		assertTrue(matrix.isEvaluated(TRAIN, TRAIN - 1));
+		assertFalse(matrix.isEvaluated(TRAIN, TRAIN - 2));
+		assertFalse(matrix.isEvaluated(TRAIN + 1, TRAIN - 1));
+	}
+
+	@Test
+	public void testTiledMatchesSlices() {
+		Map<Node, Integer> ids = new IdentityHashMap<Node, Integer>();
+		Node[] instances = createInstances(ids);
+		// the slices evaluate K(training instance, later training instance)
+		// and K(training instance, test instance)
+		CountingKernel sliceKernel = new CountingKernel(ids);
+		Map<Long, Double> sliceEvaluations = new ConcurrentHashMap<Long, Double>();
+		for (int i = 0; i < TRAIN; i++) {
+			for (int j = i; j < instances.length; j++) {
+				if (instances[i] != null && instances[j] != null)
+					sliceEvaluations.put((long) i << 32 | j,
+							sliceKernel.evaluate(instances[i], instances[j]));
+			}
+		}
+		for (int blockSize : new int[] { 1, 7, 64 }) {
+			CountingKernel kernel = new CountingKernel(ids);
+			GramMatrix matrix = new GramMatrix(TRAIN, TEST);
+			ForkJoinPool pool = new ForkJoinPool(4);
+			try {
+				GramMatrixEvaluator evaluator = new GramMatrixEvaluator(kernel,
+						pool, blockSize);
+				// bands, as in CorpusKernelEvaluatorImpl
+				long evaluations = evaluator.evaluateRows(matrix, instances, 0,
+						30)
+						+ evaluator.evaluateRows(matrix, instances, 30, TRAIN + 5)
+						+ evaluator.evaluateRows(matrix, instances, TRAIN + 5,
+								matrix.getRowCount());
+				assertEquals(sliceEvaluations.size(), evaluations);
+			} finally {
+				pool.shutdown();
+			}
+			// same pairs in the same order, each evaluated once
+			assertEquals(sliceKernel.calls.keySet(), kernel.calls.keySet());
+			assertEquals(sliceEvaluations.size(), kernel.getCalls());
+			for (int row = 0; row < matrix.getRowCount(); row++) {
+				for (int col = 0; col < matrix.getColumnCount(row); col++) {
+					Double expected = sliceEvaluations.get((long) col << 32
+							| row);
+					assertEquals(expected != null,
+							matrix.isEvaluated(row, col));
+					if (expected != null)
+						assertEquals(expected.floatValue(),
+								matrix.get(row, col), 0);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testResume() {
+		Map<Node, Integer> ids = new IdentityHashMap<Node, Integer>();
+		Node[] instances = createInstances(ids);
+		CountingKernel kernel = new CountingKernel(ids);
+		GramMatrix matrix = new GramMatrix(TRAIN, TEST);
+		// loaded from a previous run
+		matrix.set(10, 3, -1f);
+		matrix.set(TRAIN + 2, 4, Float.NaN);
+		ForkJoinPool pool = new ForkJoinPool(3);
+		try {
+			GramMatrixEvaluator evaluator = new GramMatrixEvaluator(kernel,
+					pool, 16);
+			long evaluations = evaluator.evaluateRows(matrix, instances, 0,
+					matrix.getRowCount());
+			assertEquals(kernel.getCalls(), evaluations);
+			assertFalse(kernel.calls.containsKey(3L << 32 | 10));
+			assertFalse(kernel.calls.containsKey(4L << 32 | TRAIN + 2));
+			assertEquals(-1f, matrix.get(10, 3), 0);
+			// evaluations that are NaN are not repeated
+			assertTrue(kernel.calls.containsKey(0L << 32 | 10));
+			assertTrue(matrix.isEvaluated(10, 0));
+			assertEquals(0, evaluator.evaluateRows(matrix, instances, 0,
+					matrix.getRowCount()));
+			assertEquals(evaluations, kernel.getCalls());
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void testSymmetricPairCache() {
+		final AtomicInteger calls = new AtomicInteger();
+		Kernel kernel = new Kernel() {
+			@Override
+			public double evaluate(Object o1, Object o2) {
+				calls.incrementAndGet();
+				return "nan".equals(o1) ? Double.NaN : 3.5;
+			}
+		};
+		SymmetricPairCache cache = new SymmetricPairCache(5000);
+		assertFalse(cache.contains("x", "y"));
+		assertEquals(3.5, cache.get("x", "y", kernel), 0);
+		assertTrue(cache.contains("y", "x"));
+		assertEquals(3.5, cache.get("y", "x", kernel), 0);
+		assertEquals(1, calls.get());
+		assertTrue(Double.isNaN(cache.get("nan", "y", kernel)));
+		assertTrue(Double.isNaN(cache.get("y", "nan", kernel)));
+		assertEquals(2, calls.get());
+		cache.put("x", "z", -2);
+		assertEquals(-2, cache.get("z", "x", kernel), 0);
+		assertEquals(2, calls.get());
+		assertEquals(3, cache.size());
+		// segments are cleared when full
+		for (int i = 0; i < 20000; i++) {
+			cache.put("a" + i, "b" + (i % 100), i);
+		}
+		assertTrue(cache.size() <= 5000);
+		assertEquals(19999, cache.get("b99", "a19999", kernel), 0);
+	}
+
+	@Test
+	public void testCacheKernelCachesNaN() throws Exception {
+		final AtomicInteger calls = new AtomicInteger();
+		CacheKernel kernel = new CacheKernel() {
+			@Override
+			public double innerEvaluate(Object o1, Object o2) {
+				calls.incrementAndGet();
+				return Double.NaN;
+			}
+		};
+		kernel.setPairCacheSize(100);
+		kernel.afterPropertiesSet();
+		assertTrue(Double.isNaN(kernel.evaluate("a", "b")));
+		assertTrue(Double.isNaN(kernel.evaluate("b", "a")));
+		assertEquals(1, calls.get());
+	}
+}
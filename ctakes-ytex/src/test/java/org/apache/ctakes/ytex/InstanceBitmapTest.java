@@ -0,0 +1,227 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ctakes.ytex;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.apache.ctakes.ytex.kernel.ImputedFeatureEvaluatorImpl.JointDistribution;
+import org.apache.ctakes.ytex.kernel.InstanceBitmap;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * instance bitmap set operations and the joint distribution merge compared
+ * with {@link BitSet}.
+ */
+public class InstanceBitmapTest {
+
+	private static final int MAX_INDEX = 3 * 65536;
+
+	/**
+	 * random set spread over several containers: sparse partitions, a dense
+	 * partition and an empty one
+	 */
+	private static BitSet createBits(Random random) {
+		BitSet bits = new BitSet();
+		for (int i = 0; i < 2000; i++)
+			bits.set(random.nextInt(65536));
+		for (int i = 0; i < 30000; i++)
+			bits.set(2 * 65536 + random.nextInt(65536));
+		bits.set(MAX_INDEX + random.nextInt(100));
+		return bits;
+	}
+
+	/**
+	 * add the bits in random order
+	 */
+	private static InstanceBitmap toBitmap(BitSet bits, Random random) {
+		List<Integer> indexes = new ArrayList<Integer>();
+		for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1))
+			indexes.add(i);
+		Collections.shuffle(indexes, random);
+		InstanceBitmap bitmap = new InstanceBitmap();
+		for (int index : indexes)
+			bitmap.add(index);
+		return bitmap;
+	}
+
+	private static void assertBits(BitSet expected, InstanceBitmap actual) {
+		assertEquals(expected.cardinality(), actual.getCardinality());
+		assertEquals(expected.isEmpty(), actual.isEmpty());
+		for (int i = 0; i < MAX_INDEX + 200; i++)
+			assertEquals("index " + i, expected.get(i), actual.contains(i));
+	}
+
+	@Test
+	public void testAdd() {
+		Random random = new Random(7);
+		BitSet bits = createBits(random);
+		InstanceBitmap bitmap = toBitmap(bits, random);
+		assertBits(bits, bitmap);
+		// duplicates
+		for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1))
+			bitmap.add(i);
+		assertBits(bits, bitmap);
+		assertFalse(bitmap.contains(-1));
+		try {
+			bitmap.add(-1);
+			fail("negative index");
+		} catch (IllegalArgumentException e) {
+		}
+	}
+
+	@Test
+	public void testSetOperations() {
+		Random random = new Random(11);
+		for (int run = 0; run < 5; run++) {
+			BitSet a = createBits(random);
+			BitSet b = run == 0 ? new BitSet() : createBits(random);
+			InstanceBitmap bitmapA = toBitmap(a, random);
+			InstanceBitmap bitmapB = toBitmap(b, random);
+
+			BitSet and = (BitSet) a.clone();
+			and.and(b);
+			assertBits(and, InstanceBitmap.and(bitmapA, bitmapB));
+			assertBits(and, InstanceBitmap.and(bitmapB, bitmapA));
+
+			BitSet andNot = (BitSet) a.clone();
+			andNot.andNot(b);
+			assertBits(andNot, InstanceBitmap.andNot(bitmapA, bitmapB));
+			BitSet bNotA = (BitSet) b.clone();
+			bNotA.andNot(a);
+			assertBits(bNotA, InstanceBitmap.andNot(bitmapB, bitmapA));
+
+			BitSet or = (BitSet) a.clone();
+			or.or(b);
+			InstanceBitmap union = InstanceBitmap.or(bitmapA, bitmapB);
+			assertBits(or, union);
+			assertBits(or, InstanceBitmap.or(bitmapB, bitmapA));
+
+			// results share nothing with the arguments
+			union.add(65536 + 5);
+			union.add(2 * 65536 + 1);
+			assertBits(a, bitmapA);
+			assertBits(b, bitmapB);
+		}
+	}
+
+	@Test
+	public void testEmpty() {
+		InstanceBitmap bitmap = toBitmap(createBits(new Random(3)),
+				new Random(3));
+		assertTrue(InstanceBitmap.EMPTY.isEmpty());
+		assertTrue(InstanceBitmap.and(bitmap, InstanceBitmap.EMPTY).isEmpty());
+		assertTrue(InstanceBitmap.andNot(InstanceBitmap.EMPTY, bitmap)
+				.isEmpty());
+		assertEquals(bitmap.getCardinality(),
+				InstanceBitmap.or(InstanceBitmap.EMPTY, bitmap)
+						.getCardinality());
+		try {
+			InstanceBitmap.EMPTY.add(1);
+			fail("the empty set is immutable");
+		} catch (UnsupportedOperationException e) {
+		}
+		assertTrue(InstanceBitmap.EMPTY.isEmpty());
+	}
+
+	/**
+	 * merge the joint distributions of concepts with random instances, and
+	 * compare the cells with the intersections and leftovers computed with
+	 * bit sets
+	 */
+	@Test
+	public void testMerge() {
+		Random random = new Random(5);
+		int nInstances = 5000;
+		Set<String> xVals = new HashSet<String>();
+		xVals.add("-1");
+		xVals.add("0");
+		xVals.add("1");
+		Set<String> yVals = new HashSet<String>();
+		yVals.add("a");
+		yVals.add("b");
+		yVals.add("c");
+		// class c has no instances in the fold
+		Map<String, BitSet> yBits = new HashMap<String, BitSet>();
+		yBits.put("a", new BitSet());
+		yBits.put("b", new BitSet());
+		for (int i = 0; i < nInstances; i++)
+			yBits.get(random.nextBoolean() ? "a" : "b").set(i);
+		Map<String, InstanceBitmap> yMargin = new HashMap<String, InstanceBitmap>();
+		for (Map.Entry<String, BitSet> yEntry : yBits.entrySet())
+			yMargin.put(yEntry.getKey(), toBitmap(yEntry.getValue(), random));
+
+		List<JointDistribution> distros = new ArrayList<JointDistribution>();
+		List<Map<String, BitSet>> distroBits = new ArrayList<Map<String, BitSet>>();
+		for (int d = 0; d < 4; d++) {
+			// most instances affirmed, some negated, the rest leftover
+			Map<String, BitSet> xBits = new HashMap<String, BitSet>();
+			xBits.put("1", new BitSet());
+			xBits.put("-1", new BitSet());
+			for (int i = 0; i < nInstances; i++) {
+				int r = random.nextInt(10);
+				if (r < 7)
+					xBits.get("1").set(i);
+				else if (r < 8)
+					xBits.get("-1").set(i);
+			}
+			Map<String, InstanceBitmap> xMargin = new HashMap<String, InstanceBitmap>();
+			for (Map.Entry<String, BitSet> xEntry : xBits.entrySet())
+				xMargin.put(xEntry.getKey(), toBitmap(xEntry.getValue(), random));
+			distros.add(new JointDistribution(xVals, yVals, xMargin, yMargin,
+					"0"));
+			distroBits.add(xBits);
+		}
+		JointDistribution merged = JointDistribution.merge(distros, yMargin,
+				"0");
+		for (String y : yVals) {
+			BitSet leftover = yBits.containsKey(y) ? (BitSet) yBits.get(y)
+					.clone() : new BitSet();
+			for (String x : new String[] { "-1", "1" }) {
+				BitSet cell = yBits.containsKey(y) ? (BitSet) yBits.get(y)
+						.clone() : new BitSet();
+				for (Map<String, BitSet> xBits : distroBits)
+					cell.and(xBits.get(x));
+				assertBits(cell, merged.getInstances(x, y));
+				leftover.andNot(cell);
+			}
+			assertBits(leftover, merged.getInstances("0", y));
+		}
+		assertTrue(merged.getInstances("1", "c").isEmpty());
+		assertTrue(merged.getInstances("0", "c").isEmpty());
+		assertEquals(nInstances, (int) (sum(merged.getContingencyTable())));
+	}
+
+	private static double sum(double[][] table) {
+		double sum = 0;
+		for (double[] row : table)
+			for (double cell : row)
+				sum += cell;
+		return sum;
+	}
+}
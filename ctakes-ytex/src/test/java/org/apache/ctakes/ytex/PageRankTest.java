@@ -0,0 +1,154 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ctakes.ytex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.apache.ctakes.ytex.kernel.model.ConcRel;
+import org.apache.ctakes.ytex.kernel.model.ConceptGraph;
+import org.apache.ctakes.ytex.kernel.pagerank.CompactPageRank;
+import org.apache.ctakes.ytex.kernel.pagerank.PageRankServiceImpl;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * pagerank from the compact engine and from the service methods compared with
+ * the single pull iteration of
+ * {@link PageRankServiceImpl#pagerankIter(double[], Map, ConceptGraph, double, double)}
+ * repeated until convergence.
+ */
+public class PageRankTest {
+
+	private static final int NODES = 300;
+	private static final int ITER = 500;
+	private static final double THRESHOLD = 1e-12;
+	private static final double DAMPING = 0.85;
+	private static final double DELTA = 1e-9;
+
+	/**
+	 * random acyclic graph, every concept but the root has 1 to 3 parents
+	 * added before it
+	 */
+	private static ConceptGraph createGraph(long seed) {
+		Random random = new Random(seed);
+		ConceptGraph cg = new ConceptGraph();
+		for (int i = 0; i < NODES; i++) {
+			ConcRel cr = cg.addConcept("C" + i);
+			int nParents = i == 0 ? 0 : 1 + random.nextInt(Math.min(i, 3));
+			while (cr.getParents().size() < nParents) {
+				ConcRel parent = cg.getConceptList().get(random.nextInt(i));
+				cr.getParents().add(parent);
+				parent.getChildren().add(cr);
+			}
+		}
+		cg.setRoot("C0");
+		cg.setDepthMax((short) 1);
+		return cg;
+	}
+
+	/**
+	 * iterate pagerankIter, starting from the damping vector or from 1/N
+	 */
+	private static double[] iterate(PageRankServiceImpl service,
+			Map<Integer, Double> dampingVector, ConceptGraph cg) {
+		double N = cg.getCompactGraph().size();
+		double[] scores = new double[(int) N];
+		Map<Integer, Double> jumps = null;
+		if (dampingVector == null) {
+			Arrays.fill(scores, 1d / N);
+		} else {
+			jumps = new HashMap<Integer, Double>();
+			for (Map.Entry<Integer, Double> dvEntry : dampingVector.entrySet()) {
+				jumps.put(dvEntry.getKey(), dvEntry.getValue() * (1 - DAMPING));
+				scores[dvEntry.getKey()] = dvEntry.getValue();
+			}
+		}
+		for (int i = 0; i < ITER; i++) {
+			double[] next = service.pagerankIter(scores, jumps, cg, DAMPING, N);
+			double diff = 0d;
+			for (int n = 0; n < scores.length; n++)
+				diff += (next[n] - scores[n]) * (next[n] - scores[n]);
+			scores = next;
+			if (Math.sqrt(diff) <= THRESHOLD)
+				break;
+		}
+		return scores;
+	}
+
+	private static List<Map<Integer, Double>> dampingVectors(Random random) {
+		List<Map<Integer, Double>> dampingVectors = new ArrayList<Map<Integer, Double>>();
+		for (int size : new int[] { 1, 2, 5, 40 }) {
+			Map<Integer, Double> dampingVector = new HashMap<Integer, Double>();
+			while (dampingVector.size() < size)
+				dampingVector.put(random.nextInt(NODES), 1d / size);
+			dampingVectors.add(dampingVector);
+		}
+		return dampingVectors;
+	}
+
+	@Test
+	public void testCompactPageRank() {
+		ConceptGraph cg = createGraph(11);
+		PageRankServiceImpl service = new PageRankServiceImpl();
+		CompactPageRank pageRank = new CompactPageRank(cg.getCompactGraph());
+		assertArrayEquals(iterate(service, null, cg),
+				pageRank.rank((Map<Integer, Double>) null, ITER, THRESHOLD, DAMPING), DELTA);
+		List<Map<Integer, Double>> dampingVectors = dampingVectors(new Random(13));
+		for (Map<Integer, Double> dampingVector : dampingVectors) {
+			assertArrayEquals(iterate(service, dampingVector, cg),
+					pageRank.rank(dampingVector, ITER, THRESHOLD, DAMPING),
+					DELTA);
+		}
+	}
+
+	@Test
+	public void testServiceRanks() {
+		ConceptGraph cg = createGraph(17);
+		PageRankServiceImpl service = new PageRankServiceImpl();
+		List<Map<Integer, Double>> dampingVectors = dampingVectors(new Random(19));
+		double[][] ranks = service.rank2(dampingVectors, cg, ITER, THRESHOLD,
+				DAMPING);
+		assertEquals(dampingVectors.size(), ranks.length);
+		for (int i = 0; i < ranks.length; i++) {
+			double[] expected = iterate(service, dampingVectors.get(i), cg);
+			assertArrayEquals(expected, ranks[i], DELTA);
+			// the same vector keyed by concept id, concepts outside the graph
+			// are ignored
+			Map<String, Double> conceptVector = new HashMap<String, Double>();
+			for (Map.Entry<Integer, Double> dvEntry : dampingVectors.get(i)
+					.entrySet()) {
+				conceptVector.put(
+						cg.getCompactGraph().getConceptID(dvEntry.getKey()),
+						dvEntry.getValue());
+			}
+			conceptVector.put("C_NOT_IN_GRAPH", 1d);
+			assertArrayEquals(expected,
+					service.rank(conceptVector, cg, ITER, THRESHOLD, DAMPING),
+					DELTA);
+		}
+		assertArrayEquals(iterate(service, null, cg),
+				service.rank((Map<String, Double>) null, cg, ITER, THRESHOLD, DAMPING), DELTA);
+	}
+}